@@ -83,6 +83,12 @@ public class GenerateJavaCode32 extends GenerateCode32 {
             prefix32.add("Test"+prefix32.get(i));
         }
 
+        // long indexed sparse matrices are built on DChunkedArray which only has a 64-bit implementation
+        blacklist.add("CSCBig");
+        blacklist.add("Big_D");
+        // off-heap matrices are built on DOffHeapArray which only has a 64-bit implementation
+        blacklist.add("OffHeap");
+
         converter.markAsAutoGenerated = true;
 
         converter.replacePattern("DoubleStep", "FIXED_STEP");
@@ -145,6 +151,8 @@ public class GenerateJavaCode32 extends GenerateCode32 {
                 "main/ejml-core/test/org/ejml/ops",
                 "main/ejml-core/src/org/ejml/masks",
                 "main/ejml-core/test/org/ejml/masks",
+                "main/ejml-core/src/org/ejml/simd",
+                "main/ejml-core/test/org/ejml/simd",
                 "main/ejml-experimental/src/org/ejml/dense/row/decomposition/bidiagonal/"
         };
 
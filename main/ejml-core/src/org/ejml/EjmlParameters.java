@@ -47,6 +47,9 @@ public class EjmlParameters {
     // See design notes
     public static int BLOCK_WIDTH = 60;
     public static int BLOCK_WIDTH_CHOL = 20;
+    public static int BLOCK_WIDTH_LU = 64;
+    public static int BLOCK_HEIGHT_TSQR = 2048;
+    public static int BLOCK_WIDTH_QRP = 32;
 
     public static int TRANSPOSE_SWITCH = 375;
 
@@ -57,6 +60,18 @@ public class EjmlParameters {
     public static int MULT_TRANAB_COLUMN_SWITCH = 40;
     public static int MULT_INNER_SWITCH = 100;
 
+    /**
+     * Switch to the packed matrix multiplication when the two outer dimensions and the inner dimension
+     * are all at least this size. See MatrixMultPacked_DDRM.
+     */
+    public static int MULT_PACKED_SWITCH = 64;
+
+    /**
+     * Switch to Strassen-Winograd matrix multiplication when the two outer dimensions and the inner dimension
+     * are all at least this size. Only used by the concurrent operations. See MatrixMultStrassen_DDRM.
+     */
+    public static int MULT_STRASSEN_SWITCH = 2048;
+
     public static int CMULT_COLUMN_SWITCH = 7;
     public static int CMULT_TRANAB_COLUMN_SWITCH = 20;
 
@@ -74,6 +89,46 @@ public class EjmlParameters {
 
     public static int SWITCH_BLOCK64_QR = 1500;
 
+    /**
+     * At which point should it switch to the blocked LU decomposition. See LUDecompositionBlock_DDRM.
+     */
+    public static int SWITCH_BLOCK_LU = 300;
+
+    /**
+     * Minimum number of rows before a tall-skinny matrix is decomposed with TSQR. See QRDecompositionTSQR_DDRM.
+     */
+    public static int SWITCH_TSQR = 10000;
+
+    /**
+     * At which point should it switch to the blocked QR with column pivoting.
+     * See QRColPivDecompositionHouseholderBlock_DDRM.
+     */
+    public static int SWITCH_BLOCK_QRP = 200;
+
+    /**
+     * At which point should the symmetric eigen decomposition switch to the divide and conquer algorithm when
+     * eigenvectors are requested. See SymmetricDivideConquerDecomposition_DDRM.
+     */
+    public static int SWITCH_EIG_DIVIDE_CONQUER = 500;
+
+    /**
+     * At which point should the SVD switch to the divide and conquer algorithm when singular vectors are requested.
+     * Compared against the smaller of the number of rows and columns. See SvdDivideConquerDecompose_DDRM.
+     */
+    public static int SWITCH_SVD_DIVIDE_CONQUER = 150;
+
+    /**
+     * At which point should the general eigen decomposition switch to the multishift QR algorithm.
+     * See MultishiftQRDecomposition_DDRM.
+     */
+    public static int SWITCH_EIG_MULTISHIFT = 150;
+
+    /**
+     * At which point should the concurrent SVD switch to the blocked bidiagonal decomposition. Compared against
+     * the smaller of the number of rows and columns. See BidiagonalDecompositionHouseholder_DDRB.
+     */
+    public static int SWITCH_BLOCK_BIDIAGONAL = 1000;
+
     public enum MemoryUsage {
         /**
          * Use lower memory algorithm while not totally sacrificing speed.
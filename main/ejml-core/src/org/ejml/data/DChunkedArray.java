@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A double array which is indexed using a long and can store more than 2<sup>31</sup> elements. Internally
+ * the data is split up into chunks. Each chunk is a regular Java array with 2<sup>chunkBits</sup> elements.
+ * Growing the array only requires new chunks to be declared, so at most one chunk is ever copied. Every chunk is
+ * full sized except for the last one. When the last chunk needs to grow its size is at least doubled, up to
+ * chunkSize, so that repeated calls to {@link #add} have an amortized constant cost while small arrays stay small.
+ * </p>
+ *
+ * <p>
+ * Index (i) is stored at chunks[i &gt;&gt; chunkBits][i &amp; (chunkSize-1)].
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see IChunkedArray
+ */
+public class DChunkedArray implements Serializable {
+    /** Number of bits in the default chunk size. 2<sup>27</sup> elements = 1 GB of doubles */
+    public static final int DEFAULT_CHUNK_BITS = 27;
+
+    /** Storage for each chunk. */
+    public double[][] chunks = new double[0][];
+
+    /** Number of elements in the array. Only elements up to length-1 are valid. */
+    public long length;
+
+    /** Number of bits in a chunk's index */
+    public final int chunkBits;
+    /** Number of elements in each chunk */
+    public final int chunkSize;
+    /** Used to compute the index inside a chunk */
+    public final int chunkMask;
+
+    public DChunkedArray( long length, int chunkBits ) {
+        if (chunkBits < 1 || chunkBits > 30)
+            throw new IllegalArgumentException("chunkBits must be from 1 to 30");
+        this.chunkBits = chunkBits;
+        this.chunkSize = 1 << chunkBits;
+        this.chunkMask = chunkSize - 1;
+        reshape(length);
+    }
+
+    public DChunkedArray( long length ) {
+        this(length, DEFAULT_CHUNK_BITS);
+    }
+
+    public DChunkedArray() {
+        this(0);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Changes the array's length. Chunks are added if needed. Values which were previously stored are
+     * preserved.
+     *
+     * @param length New array length
+     */
+    public DChunkedArray reshape( long length ) {
+        if (length < 0)
+            throw new IllegalArgumentException("Negative length. Overflow?");
+        if (length > capacity()) {
+            int numChunks = (int)((length + chunkMask) >> chunkBits);
+            int lastLength = (int)(length - ((long)(numChunks - 1) << chunkBits));
+
+            if (numChunks == chunks.length) {
+                // grow the last chunk geometrically so that add() is amortized
+                double[] last = chunks[numChunks - 1];
+                chunks[numChunks - 1] = Arrays.copyOf(last, Math.min(chunkSize, Math.max(lastLength, last.length*2)));
+            } else {
+                double[][] tmp = Arrays.copyOf(chunks, numChunks);
+                // the previous last chunk is no longer the last and must be full sized
+                if (chunks.length > 0 && tmp[chunks.length - 1].length < chunkSize)
+                    tmp[chunks.length - 1] = Arrays.copyOf(tmp[chunks.length - 1], chunkSize);
+                for (int i = chunks.length; i < numChunks - 1; i++) {
+                    tmp[i] = new double[chunkSize];
+                }
+                tmp[numChunks - 1] = new double[lastLength];
+                this.chunks = tmp;
+            }
+        }
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Maximum number of elements which can be stored without declaring a new chunk
+     */
+    public long capacity() {
+        if (chunks.length == 0)
+            return 0;
+        return ((long)(chunks.length - 1) << chunkBits) + chunks[chunks.length - 1].length;
+    }
+
+    public double get( long index ) {
+        if (index < 0 || index >= length)
+            throw new IllegalArgumentException("Out of bounds");
+        return chunks[(int)(index >> chunkBits)][(int)index & chunkMask];
+    }
+
+    public void set( long index, double value ) {
+        if (index < 0 || index >= length)
+            throw new IllegalArgumentException("Out of bounds");
+        chunks[(int)(index >> chunkBits)][(int)index & chunkMask] = value;
+    }
+
+    public double unsafe_get( long index ) {
+        return chunks[(int)(index >> chunkBits)][(int)index & chunkMask];
+    }
+
+    public void unsafe_set( long index, double value ) {
+        chunks[(int)(index >> chunkBits)][(int)index & chunkMask] = value;
+    }
+
+    public void add( double value ) {
+        if (length == capacity())
+            reshape(length + 1);
+        else
+            length++;
+        unsafe_set(length - 1, value);
+    }
+
+    /**
+     * Sets elements from index0 to index1-1, inclusive, to the specified value
+     */
+    public void fill( long index0, long index1, double value ) {
+        while (index0 < index1) {
+            double[] chunk = chunks[(int)(index0 >> chunkBits)];
+            int offset = (int)index0 & chunkMask;
+            int end = (int)Math.min(chunkSize, offset + (index1 - index0));
+            Arrays.fill(chunk, offset, end, value);
+            index0 += end - offset;
+        }
+    }
+
+    /**
+     * Copies elements from a regular array into this array
+     *
+     * @param src Array that is to be copied
+     * @param srcIndex First element in src that's copied
+     * @param dstIndex First element in this array that's written to
+     * @param length Number of elements copied
+     */
+    public void copyFrom( double[] src, int srcIndex, long dstIndex, int length ) {
+        while (length > 0) {
+            double[] chunk = chunks[(int)(dstIndex >> chunkBits)];
+            int offset = (int)dstIndex & chunkMask;
+            int amount = Math.min(chunkSize - offset, length);
+            System.arraycopy(src, srcIndex, chunk, offset, amount);
+            srcIndex += amount;
+            dstIndex += amount;
+            length -= amount;
+        }
+    }
+
+    /**
+     * Copies elements from this array into a regular array
+     *
+     * @param srcIndex First element in this array that's copied
+     * @param dst Array that is written to
+     * @param dstIndex First element in dst that's written to
+     * @param length Number of elements copied
+     */
+    public void copyTo( long srcIndex, double[] dst, int dstIndex, int length ) {
+        while (length > 0) {
+            double[] chunk = chunks[(int)(srcIndex >> chunkBits)];
+            int offset = (int)srcIndex & chunkMask;
+            int amount = Math.min(chunkSize - offset, length);
+            System.arraycopy(chunk, offset, dst, dstIndex, amount);
+            srcIndex += amount;
+            dstIndex += amount;
+            length -= amount;
+        }
+    }
+
+    /**
+     * Copies elements from another chunked array into this array. The two arrays can have different chunk sizes.
+     *
+     * @param src Array that is to be copied
+     * @param srcIndex First element in src that's copied
+     * @param dstIndex First element in this array that's written to
+     * @param length Number of elements copied
+     */
+    public void copyFrom( DChunkedArray src, long srcIndex, long dstIndex, long length ) {
+        while (length > 0) {
+            int offset = (int)srcIndex & src.chunkMask;
+            int amount = (int)Math.min(src.chunkSize - offset, length);
+            copyFrom(src.chunks[(int)(srcIndex >> src.chunkBits)], offset, dstIndex, amount);
+            srcIndex += amount;
+            dstIndex += amount;
+            length -= amount;
+        }
+    }
+
+    public void setTo( DChunkedArray original ) {
+        reshape(original.length);
+        copyFrom(original, 0, 0, original.length);
+    }
+
+    public void free() {
+        chunks = new double[0][];
+        length = 0;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.data;
+
+import org.ejml.ops.MatrixIO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+/**
+ * <p>
+ * Dense matrix in a row-major format where the elements are stored outside of the Java heap in a
+ * {@link DOffHeapArray}. Element (i,j) is stored at index i*numCols + j. Since the index is a long the number of
+ * elements can be larger than 2<sup>31</sup>.
+ * </p>
+ *
+ * <p>
+ * Most operations in EJML require a heap array. Use the functions in CommonOpsOffHeap_DDRM to copy a block of
+ * rows in and out of a {@link DMatrixRMaj} so that the regular operations can be applied to them.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DMatrixRMajOffHeap implements DMatrix, ReshapeMatrix {
+    /** Where the matrix's elements are stored */
+    public DOffHeapArray data;
+
+    /** Number of rows in the matrix */
+    public int numRows;
+    /** Number of columns in the matrix */
+    public int numCols;
+
+    public DMatrixRMajOffHeap( int numRows, int numCols, int chunkBits ) {
+        if (numRows < 0 || numCols < 0)
+            throw new IllegalArgumentException("Rows and columns must be not be negative");
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.data = new DOffHeapArray((long)numRows*numCols, chunkBits);
+    }
+
+    public DMatrixRMajOffHeap( int numRows, int numCols ) {
+        this(numRows, numCols, DOffHeapArray.DEFAULT_CHUNK_BITS);
+    }
+
+    public DMatrixRMajOffHeap( DMatrix original ) {
+        this(original.getNumRows(), original.getNumCols());
+        setTo(original);
+    }
+
+    public DMatrixRMajOffHeap() {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a matrix which uses the provided array to store its elements. The array isn't copied.
+     */
+    public static DMatrixRMajOffHeap wrap( int numRows, int numCols, DOffHeapArray data ) {
+        if (data.length < (long)numRows*numCols)
+            throw new IllegalArgumentException("Array is too small");
+        DMatrixRMajOffHeap m = new DMatrixRMajOffHeap(0, 0, data.chunkBits);
+        m.numRows = numRows;
+        m.numCols = numCols;
+        m.data = data;
+        return m;
+    }
+
+    /**
+     * Changes the matrix's shape. Existing values are preserved in the same order they are stored.
+     */
+    @Override
+    public void reshape( int numRows, int numCols ) {
+        if (numRows < 0 || numCols < 0)
+            throw new IllegalArgumentException("Rows and columns must be not be negative");
+        data.reshape((long)numRows*numCols);
+        this.numRows = numRows;
+        this.numCols = numCols;
+    }
+
+    @Override
+    public double get( int row, int col ) {
+        if (col < 0 || col >= numCols || row < 0 || row >= numRows)
+            throw new IllegalArgumentException("Specified element is out of bounds: " + row + " " + col);
+        return data.unsafe_get((long)row*numCols + col);
+    }
+
+    @Override
+    public double unsafe_get( int row, int col ) {
+        return data.unsafe_get((long)row*numCols + col);
+    }
+
+    @Override
+    public void set( int row, int col, double val ) {
+        if (col < 0 || col >= numCols || row < 0 || row >= numRows)
+            throw new IllegalArgumentException("Specified element is out of bounds: (" + row + " , " + col + ")");
+        data.unsafe_set((long)row*numCols + col, val);
+    }
+
+    @Override
+    public void unsafe_set( int row, int col, double val ) {
+        data.unsafe_set((long)row*numCols + col, val);
+    }
+
+    /**
+     * Returns the number of elements. Throws an exception if it can't be stored in an int.
+     *
+     * @see #getNumElementsLong()
+     */
+    @Override
+    public int getNumElements() {
+        long N = getNumElementsLong();
+        if (N > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Number of elements is too large for an int. Use getNumElementsLong()");
+        return (int)N;
+    }
+
+    public long getNumElementsLong() {
+        return (long)numRows*numCols;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    @Override
+    public void zero() {
+        data.fill(0, getNumElementsLong(), 0.0);
+    }
+
+    /**
+     * Sets all elements equal to the specified value.
+     */
+    public void fill( double value ) {
+        data.fill(0, getNumElementsLong(), value);
+    }
+
+    @Override
+    public DMatrixRMajOffHeap copy() {
+        DMatrixRMajOffHeap m = new DMatrixRMajOffHeap(numRows, numCols, data.chunkBits);
+        m.data.copyFrom(data, 0, 0, getNumElementsLong());
+        return m;
+    }
+
+    @Override
+    public DMatrixRMajOffHeap createLike() {
+        return new DMatrixRMajOffHeap(numRows, numCols, data.chunkBits);
+    }
+
+    @Override
+    public DMatrixRMajOffHeap create( int numRows, int numCols ) {
+        return new DMatrixRMajOffHeap(numRows, numCols, data.chunkBits);
+    }
+
+    @Override
+    public void setTo( Matrix original ) {
+        reshape(original.getNumRows(), original.getNumCols());
+
+        if (original instanceof DMatrixRMajOffHeap) {
+            data.copyFrom(((DMatrixRMajOffHeap)original).data, 0, 0, getNumElementsLong());
+        } else if (original instanceof DMatrixRMaj) {
+            data.copyFrom(((DMatrixRMaj)original).data, 0, 0, numRows*numCols);
+        } else {
+            DMatrix m = (DMatrix)original;
+            long index = 0;
+            for (int i = 0; i < numRows; i++) {
+                for (int j = 0; j < numCols; j++) {
+                    data.unsafe_set(index++, m.get(i, j));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void print() {
+        MatrixIO.printFancy(System.out, this, MatrixIO.DEFAULT_LENGTH);
+    }
+
+    @Override
+    public void print( String format ) {
+        MatrixIO.print(System.out, this, format);
+    }
+
+    @Override
+    public String toString() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        MatrixIO.print(new PrintStream(stream), this);
+        return stream.toString();
+    }
+
+    @Override
+    public MatrixType getType() {
+        return MatrixType.UNSPECIFIED;
+    }
+}
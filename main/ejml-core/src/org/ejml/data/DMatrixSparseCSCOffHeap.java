@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.data;
+
+import org.ejml.ops.MatrixIO;
+import org.ejml.ops.SortCoupledArray_F64;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * <p>Compressed Column (CC) sparse matrix format where the non-zero elements are stored outside of the Java heap.</p>
+ *
+ * <p>
+ * This is the same format as {@link DMatrixSparseCSCBig}, but the non-zero arrays are stored in
+ * {@link DOffHeapArray off-heap arrays}. Only col_idx is on the heap. The garbage collector never needs to scan
+ * or copy the non-zero elements, and the arrays can wrap a memory mapped file.
+ * </p>
+ * <p>
+ * Format:<br>
+ * Row indexes for column j are stored in nz_rows[col_idx[j]] to nz_rows[col_idx[j+1]-1].  The values
+ * for the corresponding elements are stored at nz_values[col_idx[j]] to nz_values[col_idx[j+1]-1].
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see DMatrixSparseCSC
+ * @see DMatrixSparseCSCBig
+ */
+public class DMatrixSparseCSCOffHeap implements Matrix {
+    /**
+     * Storage for non-zero values.  Only valid up to nz_length-1.
+     */
+    public DOffHeapArray nz_values;
+    /**
+     * Length of data. Number of non-zero values in the matrix
+     */
+    public long nz_length;
+    /**
+     * Specifies which row a specific non-zero value corresponds to.  If they are sorted or not with in each column
+     * is specified by the {@link #indicesSorted} flag.
+     */
+    public IOffHeapArray nz_rows;
+    /**
+     * Stores the range of indexes in the non-zero lists that belong to each column.  Column 'i' corresponds to
+     * indexes col_idx[i] to col_idx[i+1]-1, inclusive.
+     */
+    public long[] col_idx;
+
+    /**
+     * Number of rows in the matrix
+     */
+    public int numRows;
+    /**
+     * Number of columns in the matrix
+     */
+    public int numCols;
+
+    /**
+     * Flag that's used to indicate of the row indices are sorted or not.
+     */
+    public boolean indicesSorted = false;
+
+    /**
+     * Specifies shape, number of non-zero elements that can be stored, and the size of each chunk.
+     *
+     * @param numRows Number of rows
+     * @param numCols Number of columns
+     * @param arrayLength Initial maximum number of non-zero elements that can be in the matrix
+     * @param chunkBits Number of bits in a chunk. See {@link DOffHeapArray#DEFAULT_CHUNK_BITS}
+     */
+    public DMatrixSparseCSCOffHeap( int numRows, int numCols, long arrayLength, int chunkBits ) {
+        if (numRows < 0 || numCols < 0 || arrayLength < 0)
+            throw new IllegalArgumentException("Rows, columns, and arrayLength must be not be negative");
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.nz_length = 0;
+        this.col_idx = new long[numCols + 1];
+        this.nz_values = new DOffHeapArray(0, chunkBits);
+        this.nz_rows = new IOffHeapArray(0, chunkBits);
+        growMaxLength(arrayLength);
+    }
+
+    public DMatrixSparseCSCOffHeap( int numRows, int numCols, long arrayLength ) {
+        this(numRows, numCols, arrayLength, DOffHeapArray.DEFAULT_CHUNK_BITS);
+    }
+
+    public DMatrixSparseCSCOffHeap( int numRows, int numCols ) {
+        this(numRows, numCols, 0);
+    }
+
+    public DMatrixSparseCSCOffHeap( DMatrixSparseCSCOffHeap original ) {
+        this(original.numRows, original.numCols, original.nz_length, original.nz_values.chunkBits);
+
+        setTo(original);
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    @Override
+    public DMatrixSparseCSCOffHeap copy() {
+        return new DMatrixSparseCSCOffHeap(this);
+    }
+
+    @Override
+    public DMatrixSparseCSCOffHeap createLike() {
+        return new DMatrixSparseCSCOffHeap(numRows, numCols, 0, nz_values.chunkBits);
+    }
+
+    @Override
+    public DMatrixSparseCSCOffHeap create( int numRows, int numCols ) {
+        return new DMatrixSparseCSCOffHeap(numRows, numCols, 0, nz_values.chunkBits);
+    }
+
+    /**
+     * Copies the input matrix into this matrix. Can be a {@link DMatrixSparseCSCOffHeap}, {@link DMatrixSparseCSCBig},
+     * or a {@link DMatrixSparseCSC}.
+     */
+    @Override
+    public void setTo( Matrix original ) {
+        if (original instanceof DMatrixSparseCSC) {
+            DMatrixSparseCSC o = (DMatrixSparseCSC)original;
+            reshape(o.numRows, o.numCols, o.nz_length);
+            this.nz_length = o.nz_length;
+            nz_values.copyFrom(o.nz_values, 0, 0, o.nz_length);
+            nz_rows.copyFrom(o.nz_rows, 0, 0, o.nz_length);
+            for (int i = 0; i <= numCols; i++) {
+                col_idx[i] = o.col_idx[i];
+            }
+            this.indicesSorted = o.indicesSorted;
+        } else if (original instanceof DMatrixSparseCSCBig) {
+            DMatrixSparseCSCBig o = (DMatrixSparseCSCBig)original;
+            reshape(o.numRows, o.numCols, o.nz_length);
+            this.nz_length = o.nz_length;
+            // copy one heap chunk at a time
+            for (long i = 0; i < nz_length; i += o.nz_values.chunkSize) {
+                int chunk = (int)(i >> o.nz_values.chunkBits);
+                int amount = (int)Math.min(o.nz_values.chunkSize, nz_length - i);
+                nz_values.copyFrom(o.nz_values.chunks[chunk], 0, i, amount);
+                nz_rows.copyFrom(o.nz_rows.chunks[chunk], 0, i, amount);
+            }
+            System.arraycopy(o.col_idx, 0, col_idx, 0, numCols + 1);
+            this.indicesSorted = o.indicesSorted;
+        } else {
+            DMatrixSparseCSCOffHeap o = (DMatrixSparseCSCOffHeap)original;
+            reshape(o.numRows, o.numCols, o.nz_length);
+            this.nz_length = o.nz_length;
+            nz_values.copyFrom(o.nz_values, 0, 0, nz_length);
+            nz_rows.copyFrom(o.nz_rows, 0, 0, nz_length);
+            System.arraycopy(o.col_idx, 0, col_idx, 0, numCols + 1);
+            this.indicesSorted = o.indicesSorted;
+        }
+    }
+
+    @Override
+    public void print() {
+        print(MatrixIO.DEFAULT_FLOAT_FORMAT);
+    }
+
+    @Override
+    public void print( String format ) {
+        System.out.println("Type = off-heap sparse CSC , rows = " + numRows + " , cols = " + numCols +
+                " , nz_length = " + nz_length);
+        for (int row = 0; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++) {
+                long index = nz_index(row, col);
+                if (index >= 0)
+                    System.out.printf(format, nz_values.unsafe_get(index));
+                else
+                    System.out.print("   *  ");
+                if (col != numCols - 1)
+                    System.out.print(" ");
+            }
+            System.out.println();
+        }
+    }
+
+    public void printNonZero() {
+        String format = "%d %d " + MatrixIO.DEFAULT_FLOAT_FORMAT + "\n";
+        System.out.println("Type = off-heap sparse CSC , rows = " + numRows + " , cols = " + numCols +
+                " , nz_length = " + nz_length);
+
+        for (int col = 0; col < numCols; col++) {
+            long idx0 = col_idx[col];
+            long idx1 = col_idx[col + 1];
+
+            for (long i = idx0; i < idx1; i++) {
+                System.out.printf(format, nz_rows.unsafe_get(i), col, nz_values.unsafe_get(i));
+            }
+        }
+    }
+
+    public boolean isAssigned( int row, int col ) {
+        return nz_index(row, col) >= 0;
+    }
+
+    public double get( int row, int col ) {
+        if (row < 0 || row >= numRows || col < 0 || col >= numCols)
+            throw new IllegalArgumentException("Outside of matrix bounds");
+
+        return unsafe_get(row, col);
+    }
+
+    public double unsafe_get( int row, int col ) {
+        long index = nz_index(row, col);
+        if (index >= 0)
+            return nz_values.unsafe_get(index);
+        return 0;
+    }
+
+    /**
+     * Returns the index in nz_rows for the element at (row,col) if it already exists in the matrix. If not then -1
+     * is returned.
+     *
+     * @param row row coordinate
+     * @param col column coordinate
+     * @return nz_row index or -1 if the element does not exist
+     */
+    public long nz_index( int row, int col ) {
+        long col0 = col_idx[col];
+        long col1 = col_idx[col + 1];
+
+        if (this.indicesSorted) {
+            long low = col0;
+            long high = col1 - 1;
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                int midRow = nz_rows.unsafe_get(mid);
+                if (midRow < row)
+                    low = mid + 1;
+                else if (midRow > row)
+                    high = mid - 1;
+                else
+                    return mid;
+            }
+            return -1;
+        } else {
+            for (long i = col0; i < col1; i++) {
+                if (nz_rows.unsafe_get(i) == row) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    public void set( int row, int col, double val ) {
+        if (row < 0 || row >= numRows || col < 0 || col >= numCols)
+            throw new IllegalArgumentException("Outside of matrix bounds");
+
+        unsafe_set(row, col, val);
+    }
+
+    /**
+     * Assigns a value to an element. If the element is not already in the non-zero structure then all the
+     * elements after it are shifted, which can be very expensive for a large matrix. Build the matrix
+     * from its structure instead when possible, e.g. {@link #histogramToStructure(long[])}.
+     */
+    public void unsafe_set( int row, int col, double val ) {
+        long index = nz_index(row, col);
+        if (index >= 0) {
+            nz_values.unsafe_set(index, val);
+            return;
+        }
+
+        long idx0 = col_idx[col];
+        long idx1 = col_idx[col + 1];
+
+        // determine the index the new element should be inserted at. This is done to keep it sorted if
+        // it was already sorted
+        for (index = idx0; index < idx1; index++) {
+            if (row < nz_rows.unsafe_get(index)) {
+                break;
+            }
+        }
+
+        // shift all the col_idx after this point by 1
+        for (int i = col + 1; i <= numCols; i++) {
+            col_idx[i]++;
+        }
+
+        growMaxLength(nz_length + 1);
+
+        // shift everything by one
+        for (long i = nz_length; i > index; i--) {
+            nz_rows.unsafe_set(i, nz_rows.unsafe_get(i - 1));
+            nz_values.unsafe_set(i, nz_values.unsafe_get(i - 1));
+        }
+        nz_rows.unsafe_set(index, row);
+        nz_values.unsafe_set(index, val);
+        nz_length++;
+    }
+
+    @Override
+    public void zero() {
+        Arrays.fill(col_idx, 0, numCols + 1, 0);
+        nz_length = 0;
+        indicesSorted = false;
+    }
+
+    public long getNonZeroLength() {
+        return nz_length;
+    }
+
+    public void reshape( int numRows, int numCols, long arrayLength ) {
+        // See DMatrixSparseCSC.reshape() for why indicesSorted is set to false
+        this.indicesSorted = false;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        growMaxLength(arrayLength);
+        this.nz_length = 0;
+
+        if (numCols + 1 > col_idx.length) {
+            col_idx = new long[numCols + 1];
+        } else {
+            Arrays.fill(col_idx, 0, numCols + 1, 0);
+        }
+    }
+
+    public void reshape( int numRows, int numCols ) {
+        reshape(numRows, numCols, 0);
+    }
+
+    /**
+     * Increases the maximum size of the data arrays so that it can store sparse data up to 'arrayLength'. Values
+     * are always preserved. nz_length is not modified.
+     *
+     * @param arrayLength Desired maximum length of sparse data
+     */
+    public void growMaxLength( long arrayLength ) {
+        if (arrayLength < 0)
+            throw new IllegalArgumentException("Negative array length. Overflow?");
+
+        if (arrayLength > nz_values.length) {
+            nz_values.reshape(arrayLength);
+            nz_rows.reshape(arrayLength);
+        }
+    }
+
+    /**
+     * Given the histogram of columns compute the col_idx for the matrix.  nz_length is automatically set and
+     * the non-zero arrays will grow if needed.
+     *
+     * @param histogram histogram of column values in the sparse matrix. modified, see above.
+     */
+    public void histogramToStructure( long[] histogram ) {
+        col_idx[0] = 0;
+        long index = 0;
+        for (int i = 1; i <= numCols; i++) {
+            col_idx[i] = index += histogram[i - 1];
+        }
+        nz_length = index;
+        growMaxLength(nz_length);
+    }
+
+    /**
+     * Sorts the row indices in ascending order.
+     *
+     * @param sorter (Optional) Used to sort rows.  If null a new instance will be declared internally.
+     */
+    public void sortIndices( @Nullable SortCoupledArray_F64 sorter ) {
+        if (sorter == null)
+            sorter = new SortCoupledArray_F64();
+
+        int[] segment = new int[2];
+        int[] rows = new int[0];
+        double[] values = new double[0];
+        for (int col = 0; col < numCols; col++) {
+            long idx0 = col_idx[col];
+            int length = (int)(col_idx[col + 1] - idx0);
+            if (length <= 1)
+                continue;
+            if (rows.length < length) {
+                rows = new int[length];
+                values = new double[length];
+            }
+            nz_rows.copyTo(idx0, rows, 0, length);
+            nz_values.copyTo(idx0, values, 0, length);
+            segment[1] = length;
+            sorter.quick(segment, 2, rows, values);
+            nz_rows.copyFrom(rows, 0, idx0, length);
+            nz_values.copyFrom(values, 0, idx0, length);
+        }
+        indicesSorted = true;
+    }
+
+    /**
+     * Copies the non-zero structure of orig into "this"
+     *
+     * @param orig Matrix who's structure is to be copied
+     */
+    public void copyStructure( DMatrixSparseCSCOffHeap orig ) {
+        reshape(orig.numRows, orig.numCols, orig.nz_length);
+        this.nz_length = orig.nz_length;
+        System.arraycopy(orig.col_idx, 0, col_idx, 0, orig.numCols + 1);
+        nz_rows.copyFrom(orig.nz_rows, 0, 0, nz_length);
+    }
+
+    /**
+     * If the indices has been sorted or not
+     *
+     * @return true if sorted or false if not sorted
+     */
+    public boolean isIndicesSorted() {
+        return indicesSorted;
+    }
+
+    @Override
+    public MatrixType getType() {
+        return MatrixType.UNSPECIFIED;
+    }
+}
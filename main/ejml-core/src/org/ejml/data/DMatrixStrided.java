@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.data;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.ops.MatrixIO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A row-major view of a dense matrix where consecutive rows are not required to be next to each other. Element
+ * (i,j) is stored at data[offset + i*stride + j]. This is the same as the leading dimension in BLAS and LAPACK.
+ * A view of a sub-block inside a {@link DMatrixRMaj} can be created without copying any data. Writing to the view
+ * modifies the original matrix.
+ * </p>
+ *
+ * <p>
+ * Since a view can't change the size of the array it references, operations which write to a view require it
+ * to already have the correct shape.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DMatrixStrided implements DMatrix {
+    /** Array which stores the elements. Can be shared with other matrices. */
+    public double[] data;
+    /** Index of element (0,0) */
+    public int offset;
+    /** Number of elements between the start of consecutive rows. Must be &ge; numCols */
+    public int stride;
+
+    /** Number of rows in the matrix */
+    public int numRows;
+    /** Number of columns in the matrix */
+    public int numCols;
+
+    public DMatrixStrided( double[] data, int offset, int stride, int numRows, int numCols ) {
+        setView(data, offset, stride, numRows, numCols);
+    }
+
+    /**
+     * Creates a view of the entire matrix
+     */
+    public DMatrixStrided( DMatrixRMaj original ) {
+        this(original.data, 0, original.numCols, original.numRows, original.numCols);
+    }
+
+    /**
+     * Creates a new matrix with its own compact storage, i.e. stride = numCols.
+     */
+    public DMatrixStrided( int numRows, int numCols ) {
+        this(new double[numRows*numCols], 0, numCols, numRows, numCols);
+    }
+
+    public DMatrixStrided() {
+        this(new double[0], 0, 0, 0, 0);
+    }
+
+    /**
+     * Creates a view of a sub-block inside a row-major matrix. No data is copied.
+     *
+     * @param original Matrix which contains the sub-block
+     * @param row0 First row in the sub-block
+     * @param col0 First column in the sub-block
+     * @param numRows Number of rows in the sub-block
+     * @param numCols Number of columns in the sub-block
+     * @return View of the sub-block
+     */
+    public static DMatrixStrided view( DMatrixRMaj original, int row0, int col0, int numRows, int numCols ) {
+        if (row0 < 0 || col0 < 0 || numRows < 0 || numCols < 0 ||
+                row0 + numRows > original.numRows || col0 + numCols > original.numCols)
+            throw new IllegalArgumentException("Sub-block is outside of the matrix");
+        return new DMatrixStrided(original.data, row0*original.numCols + col0, original.numCols, numRows, numCols);
+    }
+
+    /**
+     * Creates a view of a sub-block inside this view. No data is copied.
+     *
+     * @see #view(DMatrixRMaj, int, int, int, int)
+     */
+    public DMatrixStrided subview( int row0, int col0, int numRows, int numCols ) {
+        if (row0 < 0 || col0 < 0 || numRows < 0 || numCols < 0 ||
+                row0 + numRows > this.numRows || col0 + numCols > this.numCols)
+            throw new IllegalArgumentException("Sub-block is outside of the matrix");
+        return new DMatrixStrided(data, index(row0, col0), stride, numRows, numCols);
+    }
+
+    /**
+     * Changes which elements this view references. Allows a view to slide across a matrix without creating
+     * new objects.
+     */
+    public void setView( double[] data, int offset, int stride, int numRows, int numCols ) {
+        if (offset < 0 || numRows < 0 || numCols < 0)
+            throw new IllegalArgumentException("Negative offset or shape");
+        if (numRows > 1 && stride < numCols)
+            throw new IllegalArgumentException("Stride must be at least the number of columns");
+        if (numRows > 0 && numCols > 0 && (long)offset + (long)(numRows - 1)*stride + numCols > data.length)
+            throw new IllegalArgumentException("The array is too small for the view");
+        this.data = data;
+        this.offset = offset;
+        this.stride = stride;
+        this.numRows = numRows;
+        this.numCols = numCols;
+    }
+
+    /**
+     * Index of element (row,col) in the data array
+     */
+    public int index( int row, int col ) {
+        return offset + row*stride + col;
+    }
+
+    /**
+     * Returns true if the rows are next to each other in memory, i.e. there are no gaps between rows
+     */
+    public boolean isContiguous() {
+        return stride == numCols || numRows <= 1;
+    }
+
+    /**
+     * Returns true if the two views could reference the same element. Views with the same stride into the
+     * same array, such as two blocks from the same matrix, are checked exactly. Otherwise the range of
+     * indexes is compared.
+     */
+    public boolean isOverlapping( DMatrixStrided other ) {
+        if (data != other.data || getNumElements() == 0 || other.getNumElements() == 0)
+            return false;
+
+        if (stride == other.stride && stride > 0) {
+            int row0 = offset/stride, col0 = offset%stride;
+            int otherRow0 = other.offset/stride, otherCol0 = other.offset%stride;
+            // the column range can wrap past the stride, in which case fall back to the range test
+            if (col0 + numCols <= stride && otherCol0 + other.numCols <= stride) {
+                return row0 < otherRow0 + other.numRows && otherRow0 < row0 + numRows &&
+                        col0 < otherCol0 + other.numCols && otherCol0 < col0 + numCols;
+            }
+        }
+
+        int last = index(numRows - 1, numCols - 1);
+        int otherLast = other.index(other.numRows - 1, other.numCols - 1);
+        return offset <= otherLast && other.offset <= last;
+    }
+
+    @Override
+    public double get( int row, int col ) {
+        if (col < 0 || col >= numCols || row < 0 || row >= numRows)
+            throw new IllegalArgumentException("Specified element is out of bounds: " + row + " " + col);
+        return data[offset + row*stride + col];
+    }
+
+    @Override
+    public double unsafe_get( int row, int col ) {
+        return data[offset + row*stride + col];
+    }
+
+    @Override
+    public void set( int row, int col, double val ) {
+        if (col < 0 || col >= numCols || row < 0 || row >= numRows)
+            throw new IllegalArgumentException("Specified element is out of bounds: (" + row + " , " + col + ")");
+        data[offset + row*stride + col] = val;
+    }
+
+    @Override
+    public void unsafe_set( int row, int col, double val ) {
+        data[offset + row*stride + col] = val;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * Sets all elements in the view to zero. Elements between rows are not modified.
+     */
+    @Override
+    public void zero() {
+        fill(0.0);
+    }
+
+    /**
+     * Sets all elements in the view equal to the specified value. Elements between rows are not modified.
+     */
+    public void fill( double value ) {
+        for (int i = 0; i < numRows; i++) {
+            int index = offset + i*stride;
+            Arrays.fill(data, index, index + numCols, value);
+        }
+    }
+
+    /**
+     * Returns a copy of the view with its own compact storage
+     */
+    @Override
+    public DMatrixStrided copy() {
+        DMatrixStrided m = new DMatrixStrided(numRows, numCols);
+        m.setTo(this);
+        return m;
+    }
+
+    @Override
+    public DMatrixStrided createLike() {
+        return new DMatrixStrided(numRows, numCols);
+    }
+
+    @Override
+    public DMatrixStrided create( int numRows, int numCols ) {
+        return new DMatrixStrided(numRows, numCols);
+    }
+
+    /**
+     * Copies the values from the original matrix into the elements referenced by this view. The view
+     * can't be resized so the two must have the same shape.
+     */
+    @Override
+    public void setTo( Matrix original ) {
+        if (original.getNumRows() != numRows || original.getNumCols() != numCols)
+            throw new MatrixDimensionException("A view can't be reshaped. Shapes must match. " +
+                    numRows + "x" + numCols + " vs " + original.getNumRows() + "x" + original.getNumCols());
+
+        if (original instanceof DMatrixStrided) {
+            DMatrixStrided src = (DMatrixStrided)original;
+            if (src.data == data && src.offset < offset) {
+                // copy the rows in reverse so that an overlapping source isn't overwritten before it's read
+                for (int i = numRows - 1; i >= 0; i--) {
+                    System.arraycopy(src.data, src.index(i, 0), data, index(i, 0), numCols);
+                }
+            } else {
+                for (int i = 0; i < numRows; i++) {
+                    System.arraycopy(src.data, src.index(i, 0), data, index(i, 0), numCols);
+                }
+            }
+        } else if (original instanceof DMatrixRMaj) {
+            DMatrixRMaj src = (DMatrixRMaj)original;
+            for (int i = 0; i < numRows; i++) {
+                System.arraycopy(src.data, i*numCols, data, index(i, 0), numCols);
+            }
+        } else {
+            DMatrix m = (DMatrix)original;
+            for (int i = 0; i < numRows; i++) {
+                int index = index(i, 0);
+                for (int j = 0; j < numCols; j++) {
+                    data[index++] = m.get(i, j);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void print() {
+        MatrixIO.printFancy(System.out, this, MatrixIO.DEFAULT_LENGTH);
+    }
+
+    @Override
+    public void print( String format ) {
+        MatrixIO.print(System.out, this, format);
+    }
+
+    @Override
+    public String toString() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        MatrixIO.print(new PrintStream(stream), this);
+        return stream.toString();
+    }
+
+    @Override
+    public MatrixType getType() {
+        return MatrixType.UNSPECIFIED;
+    }
+}
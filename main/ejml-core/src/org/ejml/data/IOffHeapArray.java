@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * <p>
+ * An int array which is stored outside of the Java heap in direct {@link ByteBuffer ByteBuffers}. Since a
+ * single buffer can't be larger than 2<sup>31</sup> bytes the array is split into chunks, just like
+ * {@link IChunkedArray}. Index (i) is stored in chunks[i &gt;&gt; chunkBits] at position i &amp; (chunkSize-1).
+ * Every chunk is full sized except for the last one.
+ * </p>
+ *
+ * <p>
+ * Values are always stored in little endian byte order, which allows a chunk to wrap memory mapped files
+ * directly. The memory is released by the garbage collector once the array is no longer referenced, which
+ * only adds a small object to the heap for each chunk. Bulk copies work on duplicated views of a chunk and
+ * can be called from multiple threads, but reshaping is not thread safe.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see DOffHeapArray
+ */
+public class IOffHeapArray implements Serializable {
+    /** Number of bits in the default chunk size. 2<sup>27</sup> elements = 512 MB of ints */
+    public static final int DEFAULT_CHUNK_BITS = 27;
+
+    /** Storage for each chunk. */
+    public transient IntBuffer[] chunks = new IntBuffer[0];
+
+    /** Number of elements in the array. Only elements up to length-1 are valid. */
+    public long length;
+
+    /** Number of bits in a chunk's index */
+    public final int chunkBits;
+    /** Number of elements in each chunk */
+    public final int chunkSize;
+    /** Used to compute the index inside a chunk */
+    public final int chunkMask;
+
+    public IOffHeapArray( long length, int chunkBits ) {
+        // a chunk's size in bytes needs to fit inside an int
+        if (chunkBits < 1 || chunkBits > 27)
+            throw new IllegalArgumentException("chunkBits must be from 1 to 27");
+        this.chunkBits = chunkBits;
+        this.chunkSize = 1 << chunkBits;
+        this.chunkMask = chunkSize - 1;
+        reshape(length);
+    }
+
+    public IOffHeapArray( long length ) {
+        this(length, DEFAULT_CHUNK_BITS);
+    }
+
+    public IOffHeapArray() {
+        this(0);
+    }
+
+    /**
+     * Wraps existing buffers, e.g. from a memory mapped file. All the buffers but the last must have
+     * exactly chunkSize elements.
+     *
+     * @param chunks Buffers which will be used as chunks. Not copied.
+     * @param length Number of elements in the array
+     * @param chunkBits Number of bits in a chunk
+     */
+    public static IOffHeapArray wrap( IntBuffer[] chunks, long length, int chunkBits ) {
+        IOffHeapArray array = new IOffHeapArray(0, chunkBits);
+        long capacity = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            int size = chunks[i].capacity();
+            if (size > array.chunkSize || (i < chunks.length - 1 && size != array.chunkSize))
+                throw new IllegalArgumentException("Only the last chunk can have a size other than chunkSize");
+            capacity += size;
+        }
+        if (length > capacity)
+            throw new IllegalArgumentException("Buffers are too small. capacity=" + capacity + " length=" + length);
+        array.chunks = chunks;
+        array.length = length;
+        return array;
+    }
+
+    /**
+     * Declares a direct buffer with the specified number of elements
+     */
+    public static IntBuffer declareChunk( int size ) {
+        return ByteBuffer.allocateDirect(size*4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Changes the array's length. Chunks are added if needed. Values which were previously stored are
+     * preserved. Newly declared elements are zero.
+     *
+     * @param length New array length
+     */
+    public IOffHeapArray reshape( long length ) {
+        if (length < 0)
+            throw new IllegalArgumentException("Negative length. Overflow?");
+        if (length > capacity()) {
+            int numChunks = (int)((length + chunkMask) >> chunkBits);
+            int lastLength = (int)(length - ((long)(numChunks - 1) << chunkBits));
+
+            if (numChunks == chunks.length) {
+                IntBuffer last = chunks[numChunks - 1];
+                chunks[numChunks - 1] = copyChunk(last, Math.min(chunkSize, Math.max(lastLength, last.capacity()*2)));
+            } else {
+                IntBuffer[] tmp = new IntBuffer[numChunks];
+                System.arraycopy(chunks, 0, tmp, 0, chunks.length);
+                // the previous last chunk is no longer the last and must be full sized
+                if (chunks.length > 0 && tmp[chunks.length - 1].capacity() < chunkSize)
+                    tmp[chunks.length - 1] = copyChunk(tmp[chunks.length - 1], chunkSize);
+                for (int i = chunks.length; i < numChunks - 1; i++) {
+                    tmp[i] = declareChunk(chunkSize);
+                }
+                tmp[numChunks - 1] = declareChunk(lastLength);
+                this.chunks = tmp;
+            }
+        }
+        this.length = length;
+        return this;
+    }
+
+    private static IntBuffer copyChunk( IntBuffer src, int size ) {
+        IntBuffer dst = declareChunk(size);
+        IntBuffer view = src.duplicate();
+        view.clear();
+        dst.put(view);
+        dst.clear();
+        return dst;
+    }
+
+    /**
+     * Maximum number of elements which can be stored without declaring a new chunk
+     */
+    public long capacity() {
+        if (chunks.length == 0)
+            return 0;
+        return ((long)(chunks.length - 1) << chunkBits) + chunks[chunks.length - 1].capacity();
+    }
+
+    public int get( long index ) {
+        if (index < 0 || index >= length)
+            throw new IllegalArgumentException("Out of bounds");
+        return chunks[(int)(index >> chunkBits)].get((int)index & chunkMask);
+    }
+
+    public void set( long index, int value ) {
+        if (index < 0 || index >= length)
+            throw new IllegalArgumentException("Out of bounds");
+        chunks[(int)(index >> chunkBits)].put((int)index & chunkMask, value);
+    }
+
+    public int unsafe_get( long index ) {
+        return chunks[(int)(index >> chunkBits)].get((int)index & chunkMask);
+    }
+
+    public void unsafe_set( long index, int value ) {
+        chunks[(int)(index >> chunkBits)].put((int)index & chunkMask, value);
+    }
+
+    /**
+     * Sets elements from index0 to index1-1, inclusive, to the specified value
+     */
+    public void fill( long index0, long index1, int value ) {
+        while (index0 < index1) {
+            IntBuffer chunk = chunks[(int)(index0 >> chunkBits)];
+            int offset = (int)index0 & chunkMask;
+            int end = (int)Math.min(chunkSize, offset + (index1 - index0));
+            for (int i = offset; i < end; i++) {
+                chunk.put(i, value);
+            }
+            index0 += end - offset;
+        }
+    }
+
+    /**
+     * Copies elements from a regular array into this array
+     *
+     * @param src Array that is to be copied
+     * @param srcIndex First element in src that's copied
+     * @param dstIndex First element in this array that's written to
+     * @param length Number of elements copied
+     */
+    public void copyFrom( int[] src, int srcIndex, long dstIndex, int length ) {
+        while (length > 0) {
+            int offset = (int)dstIndex & chunkMask;
+            int amount = Math.min(chunkSize - offset, length);
+            IntBuffer view = chunks[(int)(dstIndex >> chunkBits)].duplicate();
+            view.position(offset);
+            view.put(src, srcIndex, amount);
+            srcIndex += amount;
+            dstIndex += amount;
+            length -= amount;
+        }
+    }
+
+    /**
+     * Copies elements from this array into a regular array
+     *
+     * @param srcIndex First element in this array that's copied
+     * @param dst Array that is written to
+     * @param dstIndex First element in dst that's written to
+     * @param length Number of elements copied
+     */
+    public void copyTo( long srcIndex, int[] dst, int dstIndex, int length ) {
+        while (length > 0) {
+            int offset = (int)srcIndex & chunkMask;
+            int amount = Math.min(chunkSize - offset, length);
+            IntBuffer view = chunks[(int)(srcIndex >> chunkBits)].duplicate();
+            view.position(offset);
+            view.get(dst, dstIndex, amount);
+            srcIndex += amount;
+            dstIndex += amount;
+            length -= amount;
+        }
+    }
+
+    /**
+     * Copies elements from another off-heap array into this array. The two arrays can have different chunk sizes.
+     *
+     * @param src Array that is to be copied
+     * @param srcIndex First element in src that's copied
+     * @param dstIndex First element in this array that's written to
+     * @param length Number of elements copied
+     */
+    public void copyFrom( IOffHeapArray src, long srcIndex, long dstIndex, long length ) {
+        while (length > 0) {
+            int srcOffset = (int)srcIndex & src.chunkMask;
+            int dstOffset = (int)dstIndex & chunkMask;
+            int amount = (int)Math.min(Math.min(src.chunkSize - srcOffset, chunkSize - dstOffset), length);
+
+            IntBuffer srcView = src.chunks[(int)(srcIndex >> src.chunkBits)].duplicate();
+            srcView.position(srcOffset);
+            srcView.limit(srcOffset + amount);
+            IntBuffer dstView = chunks[(int)(dstIndex >> chunkBits)].duplicate();
+            dstView.position(dstOffset);
+            dstView.put(srcView);
+
+            srcIndex += amount;
+            dstIndex += amount;
+            length -= amount;
+        }
+    }
+
+    public void setTo( IOffHeapArray original ) {
+        reshape(original.length);
+        copyFrom(original, 0, 0, original.length);
+    }
+
+    /**
+     * Discards all the chunks. The memory will be released the next time the garbage collector runs.
+     */
+    public void free() {
+        chunks = new IntBuffer[0];
+        length = 0;
+    }
+
+    private void writeObject( ObjectOutputStream out ) throws IOException {
+        out.defaultWriteObject();
+        int[] work = new int[(int)Math.min(length, chunkSize)];
+        for (long i = 0; i < length; i += work.length) {
+            int amount = (int)Math.min(work.length, length - i);
+            copyTo(i, work, 0, amount);
+            for (int j = 0; j < amount; j++) {
+                out.writeInt(work[j]);
+            }
+        }
+    }
+
+    private void readObject( ObjectInputStream in ) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        long length = this.length;
+        this.length = 0;
+        this.chunks = new IntBuffer[0];
+        reshape(length);
+        int[] work = new int[(int)Math.min(length, chunkSize)];
+        for (long i = 0; i < length; i += work.length) {
+            int amount = (int)Math.min(work.length, length - i);
+            for (int j = 0; j < amount; j++) {
+                work[j] = in.readInt();
+            }
+            copyFrom(work, 0, i, amount);
+        }
+    }
+}
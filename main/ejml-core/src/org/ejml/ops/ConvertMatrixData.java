@@ -150,6 +150,36 @@ public class ConvertMatrixData {
         }
     }
 
+    /**
+     * Copies a sparse matrix into a sparse matrix with a different element type. The non-zero structure is
+     * copied exactly.
+     */
+    public static void convert( DMatrixSparseCSC src, FMatrixSparseCSC dst ) {
+        dst.reshape(src.numRows, src.numCols, src.nz_length);
+        System.arraycopy(src.col_idx, 0, dst.col_idx, 0, src.numCols + 1);
+        System.arraycopy(src.nz_rows, 0, dst.nz_rows, 0, src.nz_length);
+        for (int i = 0; i < src.nz_length; i++) {
+            dst.nz_values[i] = (float)src.nz_values[i];
+        }
+        dst.nz_length = src.nz_length;
+        dst.indicesSorted = src.indicesSorted;
+    }
+
+    /**
+     * Copies a sparse matrix into a sparse matrix with a different element type. The non-zero structure is
+     * copied exactly.
+     */
+    public static void convert( FMatrixSparseCSC src, DMatrixSparseCSC dst ) {
+        dst.reshape(src.numRows, src.numCols, src.nz_length);
+        System.arraycopy(src.col_idx, 0, dst.col_idx, 0, src.numCols + 1);
+        System.arraycopy(src.nz_rows, 0, dst.nz_rows, 0, src.nz_length);
+        for (int i = 0; i < src.nz_length; i++) {
+            dst.nz_values[i] = src.nz_values[i];
+        }
+        dst.nz_length = src.nz_length;
+        dst.indicesSorted = src.indicesSorted;
+    }
+
     public static void convert( DMatrix2x2 src, FMatrix2x2 dst ) {
         dst.a11 = (float)src.a11;
         dst.a12 = (float)src.a12;
@@ -37,6 +37,8 @@ import static org.ejml.UtilEjml.fancyStringF;
  * Provides simple to use routines for reading and writing matrices to and from files.
  *
  * @author Peter Abeles
+ * @see MatrixIOBinary
+ * @see MatrixIONumPy
  */
 public class MatrixIO {
 
@@ -183,6 +185,91 @@ public class MatrixIO {
         return output;
     }
 
+    /**
+     * Reads a file in Matrix Market Coordinate format directly into a {@link DMatrixSparseCSC}. The file can be
+     * gzip compressed. Uncompressed files are parsed using multiple threads. Unlike
+     * {@link #loadMatrixMarketD(Reader)} no triplet matrix is created.
+     *
+     * @param fileName Name of the file
+     * @return Matrix in compressed sparse column format with sorted row indices
+     * @see ReadMatrixMarketCSC
+     */
+    public static DMatrixSparseCSC loadMatrixMarketDSCC( String fileName ) throws IOException {
+        return new ReadMatrixMarketCSC().read(fileName);
+    }
+
+    /**
+     * Reads a stream in Matrix Market Coordinate format directly into a {@link DMatrixSparseCSCBig}. Unlike
+     * {@link #loadMatrixMarketD(Reader)} the number of non-zero elements can be larger than an int can index.
+     * Entries are buffered in chunked arrays and then sorted into columns, so there's no intermediate triplet matrix.
+     *
+     * https://math.nist.gov/MatrixMarket/formats.html
+     *
+     * @param reader Input reader
+     * @return Matrix in compressed sparse column format with sorted row indices
+     */
+    public static DMatrixSparseCSCBig loadMatrixMarketBigD( Reader reader ) {
+        IChunkedArray entryRows = new IChunkedArray();
+        IChunkedArray entryCols = new IChunkedArray();
+        DChunkedArray entryValues = new DChunkedArray();
+        int rows = 0, cols = 0;
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        try {
+            boolean hasHeader = false;
+            String line = bufferedReader.readLine();
+            while (line != null) {
+                if (line.length() == 0 || line.charAt(0) == '%') {
+                    line = bufferedReader.readLine();
+                    continue;
+                }
+                String[] words = line.trim().split("\\s+");
+                if (words.length != 3)
+                    throw new IOException("Unexpected number of words: " + words.length);
+                if (hasHeader) {
+                    entryRows.add(Integer.parseInt(words[0]) - 1);
+                    entryCols.add(Integer.parseInt(words[1]) - 1);
+                    entryValues.add(Double.parseDouble(words[2]));
+                } else {
+                    rows = Integer.parseInt(words[0]);
+                    cols = Integer.parseInt(words[1]);
+                    long nz_length = Long.parseLong(words[2]);
+                    // declare memory up front, then reset the length so that elements can be added
+                    entryRows.reshape(nz_length).length = 0;
+                    entryCols.reshape(nz_length).length = 0;
+                    entryValues.reshape(nz_length).length = 0;
+                    hasHeader = true;
+                }
+                line = bufferedReader.readLine();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        long N = entryValues.length;
+        DMatrixSparseCSCBig output = new DMatrixSparseCSCBig(rows, cols, N);
+
+        // Create the column structure
+        long[] hist = new long[cols];
+        for (long i = 0; i < N; i++) {
+            hist[entryCols.unsafe_get(i)]++;
+        }
+        output.histogramToStructure(hist);
+        System.arraycopy(output.col_idx, 0, hist, 0, cols);
+
+        // Put entries into each column
+        for (long i = 0; i < N; i++) {
+            long index = hist[entryCols.unsafe_get(i)]++;
+            output.nz_rows.unsafe_set(index, entryRows.unsafe_get(i));
+            output.nz_values.unsafe_set(index, entryValues.unsafe_get(i));
+        }
+        entryRows.free();
+        entryCols.free();
+        entryValues.free();
+
+        output.sortIndices(null);
+        return output;
+    }
+
     /**
      * Reads a stream in Matrix Market Coordinate format
      *
@@ -357,7 +444,8 @@ public class MatrixIO {
     }
 
     /**
-     * Saves a matrix to disk using Java binary serialization.
+     * Saves a matrix to disk using Java binary serialization. For large matrices use {@link MatrixIOBinary}
+     * instead, which can be read without deserialization and memory mapped.
      *
      * @param A The matrix being saved.
      * @param fileName Name of the file its being saved at.
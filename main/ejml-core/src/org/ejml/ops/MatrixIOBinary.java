@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.ops;
+
+import org.ejml.data.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Reads and writes matrices in a simple binary format which can be memory mapped. Unlike
+ * {@link MatrixIO#saveBin} no Java serialization is used and a file can be wrapped as a
+ * {@link DMatrixRMajOffHeap} or {@link DMatrixSparseCSCOffHeap} without being parsed or copied.
+ * </p>
+ *
+ * <p>
+ * All values are little endian. Every file starts with a {@link #HEADER_BYTES} byte header:
+ * </p>
+ * <pre>
+ * offset  type     description
+ * 0       byte[8]  magic number "EJMLBIN" followed by a zero byte
+ * 8       int32    format version, currently 1
+ * 12      int32    matrix type. 1 = dense row-major, 2 = compressed sparse column, 3 = triplet
+ * 16      int32    number of rows
+ * 20      int32    number of columns
+ * 24      int64    number of stored elements. Dense = rows*cols, sparse = number of non-zero elements (N)
+ * 32      int32    flags. bit 0 = row indices in each column are sorted (CSC only)
+ * 36      -        zero padding up to 64 bytes
+ * </pre>
+ * <p>
+ * The header is followed by the data arrays. Each array starts at an offset which is a multiple of 8.
+ * </p>
+ * <pre>
+ * dense:   float64[rows*cols] values, row-major
+ * CSC:     int64[cols+1] col_idx, int32[N] nz_rows, float64[N] nz_values
+ * triplet: int32[2*N] (row,col) pairs, float64[N] values
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixIOBinary {
+    /** Magic number at the start of every file */
+    public static final byte[] MAGIC = {'E', 'J', 'M', 'L', 'B', 'I', 'N', 0};
+    /** Version of the file format */
+    public static final int VERSION = 1;
+    /** Number of bytes in the header */
+    public static final int HEADER_BYTES = 64;
+
+    public static final int TYPE_DENSE = 1;
+    public static final int TYPE_CSC = 2;
+    public static final int TYPE_TRIPLET = 3;
+
+    /** Flag indicating that the row indices of a CSC matrix are sorted */
+    public static final int FLAG_SORTED = 1;
+
+    /** Size of the buffer used to read and write arrays */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Description of a matrix which is stored in the file's header
+     */
+    public static class Header {
+        public int type;
+        public int numRows;
+        public int numCols;
+        /** Number of elements in the value array */
+        public long length;
+        public int flags;
+
+        public boolean isSorted() {
+            return (flags & FLAG_SORTED) != 0;
+        }
+    }
+
+    public static void save( DMatrixRMaj A, String fileName ) throws IOException {
+        try (FileChannel channel = openWrite(fileName)) {
+            ByteBuffer buffer = createBuffer();
+            writeHeader(channel, buffer, TYPE_DENSE, A.numRows, A.numCols, A.getNumElements(), 0);
+            writeDoubles(channel, buffer, A.data, 0, A.getNumElements());
+        }
+    }
+
+    public static void save( DMatrixRMajOffHeap A, String fileName ) throws IOException {
+        try (FileChannel channel = openWrite(fileName)) {
+            ByteBuffer buffer = createBuffer();
+            writeHeader(channel, buffer, TYPE_DENSE, A.numRows, A.numCols, A.getNumElementsLong(), 0);
+            writeDoubles(channel, buffer, A.data, A.getNumElementsLong());
+        }
+    }
+
+    public static void save( DMatrixSparseCSC A, String fileName ) throws IOException {
+        try (FileChannel channel = openWrite(fileName)) {
+            ByteBuffer buffer = createBuffer();
+            writeHeader(channel, buffer, TYPE_CSC, A.numRows, A.numCols, A.nz_length, A.indicesSorted ? FLAG_SORTED : 0);
+            long[] col_idx = new long[A.numCols + 1];
+            for (int i = 0; i <= A.numCols; i++) {
+                col_idx[i] = A.col_idx[i];
+            }
+            writeLongs(channel, buffer, col_idx, A.numCols + 1);
+            writeInts(channel, buffer, A.nz_rows, 0, A.nz_length);
+            writePadding(channel, buffer);
+            writeDoubles(channel, buffer, A.nz_values, 0, A.nz_length);
+        }
+    }
+
+    public static void save( DMatrixSparseCSCOffHeap A, String fileName ) throws IOException {
+        try (FileChannel channel = openWrite(fileName)) {
+            ByteBuffer buffer = createBuffer();
+            writeHeader(channel, buffer, TYPE_CSC, A.numRows, A.numCols, A.nz_length, A.indicesSorted ? FLAG_SORTED : 0);
+            writeLongs(channel, buffer, A.col_idx, A.numCols + 1);
+            writeInts(channel, buffer, A.nz_rows, A.nz_length);
+            writePadding(channel, buffer);
+            writeDoubles(channel, buffer, A.nz_values, A.nz_length);
+        }
+    }
+
+    public static void save( DMatrixSparseTriplet A, String fileName ) throws IOException {
+        try (FileChannel channel = openWrite(fileName)) {
+            ByteBuffer buffer = createBuffer();
+            writeHeader(channel, buffer, TYPE_TRIPLET, A.numRows, A.numCols, A.nz_length, 0);
+            writeInts(channel, buffer, A.nz_rowcol.data, 0, A.nz_length*2);
+            writePadding(channel, buffer);
+            writeDoubles(channel, buffer, A.nz_value.data, 0, A.nz_length);
+        }
+    }
+
+    /**
+     * Reads just the header from a file
+     */
+    public static Header readHeader( String fileName ) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    /**
+     * Loads a dense matrix onto the heap
+     *
+     * @param fileName Name of the file
+     * @param output (Optional) Storage for the matrix. Can be null.
+     * @return The loaded matrix
+     */
+    public static DMatrixRMaj loadDDRM( String fileName, @Nullable DMatrixRMaj output ) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, TYPE_DENSE);
+            if (output == null)
+                output = new DMatrixRMaj(header.numRows, header.numCols);
+            else
+                output.reshape(header.numRows, header.numCols);
+            readDoubles(channel, createBuffer(), HEADER_BYTES, output.data, toInt(header.length));
+            return output;
+        }
+    }
+
+    /**
+     * Loads a compressed sparse column matrix onto the heap
+     *
+     * @param fileName Name of the file
+     * @param output (Optional) Storage for the matrix. Can be null.
+     * @return The loaded matrix
+     */
+    public static DMatrixSparseCSC loadDSCC( String fileName, @Nullable DMatrixSparseCSC output ) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, TYPE_CSC);
+            int N = toInt(header.length);
+            if (output == null)
+                output = new DMatrixSparseCSC(header.numRows, header.numCols, N);
+            else
+                output.reshape(header.numRows, header.numCols, N);
+
+            ByteBuffer buffer = createBuffer();
+            long[] col_idx = readLongs(channel, buffer, HEADER_BYTES, header.numCols + 1);
+            for (int i = 0; i <= header.numCols; i++) {
+                output.col_idx[i] = (int)col_idx[i];
+            }
+            long offsetRows = HEADER_BYTES + 8L*(header.numCols + 1);
+            readInts(channel, buffer, offsetRows, output.nz_rows, N);
+            readDoubles(channel, buffer, align8(offsetRows + 4L*N), output.nz_values, N);
+            output.nz_length = N;
+            output.indicesSorted = header.isSorted();
+            return output;
+        }
+    }
+
+    /**
+     * Loads a triplet matrix onto the heap
+     *
+     * @param fileName Name of the file
+     * @param output (Optional) Storage for the matrix. Can be null.
+     * @return The loaded matrix
+     */
+    public static DMatrixSparseTriplet loadDSTL( String fileName, @Nullable DMatrixSparseTriplet output )
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, TYPE_TRIPLET);
+            int N = toInt(header.length);
+            if (output == null)
+                output = new DMatrixSparseTriplet(header.numRows, header.numCols, N);
+            else
+                output.reshape(header.numRows, header.numCols, N);
+
+            ByteBuffer buffer = createBuffer();
+            readInts(channel, buffer, HEADER_BYTES, output.nz_rowcol.data, N*2);
+            readDoubles(channel, buffer, align8(HEADER_BYTES + 8L*N), output.nz_value.data, N);
+            output.nz_length = N;
+            return output;
+        }
+    }
+
+    /**
+     * Memory maps a dense matrix. No data is copied and the matrix can be larger than the heap. The mapping
+     * remains valid after this function returns.
+     *
+     * @param fileName Name of the file
+     * @param writable If true then changes to the matrix are written to the file. Otherwise it's read only.
+     * @return Matrix which wraps the file
+     */
+    public static DMatrixRMajOffHeap mapDDRM( String fileName, boolean writable ) throws IOException {
+        try (FileChannel channel = openMap(fileName, writable)) {
+            Header header = readHeader(channel, TYPE_DENSE);
+            DOffHeapArray data = mapDoubles(channel, writable, HEADER_BYTES, header.length);
+            return DMatrixRMajOffHeap.wrap(header.numRows, header.numCols, data);
+        }
+    }
+
+    /**
+     * Memory maps a compressed sparse column matrix. Only col_idx is copied onto the heap. The mapping
+     * remains valid after this function returns. If writable, only the values of existing elements
+     * should be changed.
+     *
+     * @param fileName Name of the file
+     * @param writable If true then changes to the matrix are written to the file. Otherwise it's read only.
+     * @return Matrix which wraps the file
+     */
+    public static DMatrixSparseCSCOffHeap mapDSCC( String fileName, boolean writable ) throws IOException {
+        try (FileChannel channel = openMap(fileName, writable)) {
+            Header header = readHeader(channel, TYPE_CSC);
+            long N = header.length;
+            int chunkBits = DOffHeapArray.DEFAULT_CHUNK_BITS;
+
+            var output = new DMatrixSparseCSCOffHeap(header.numRows, header.numCols, 0, chunkBits);
+            output.col_idx = readLongs(channel, createBuffer(), HEADER_BYTES, header.numCols + 1);
+            long offsetRows = HEADER_BYTES + 8L*(header.numCols + 1);
+            output.nz_rows = mapInts(channel, writable, offsetRows, N);
+            output.nz_values = mapDoubles(channel, writable, align8(offsetRows + 4L*N), N);
+            output.nz_length = N;
+            output.indicesSorted = header.isSorted();
+            return output;
+        }
+    }
+
+    private static FileChannel openWrite( String fileName ) throws IOException {
+        return FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private static FileChannel openMap( String fileName, boolean writable ) throws IOException {
+        if (writable)
+            return FileChannel.open(Paths.get(fileName), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+    }
+
+    private static ByteBuffer createBuffer() {
+        return ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align8( long offset ) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static int toInt( long length ) {
+        if (length > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many elements to be loaded onto the heap. Memory map it instead.");
+        return (int)length;
+    }
+
+    private static void writeHeader( FileChannel channel, ByteBuffer buffer,
+                                     int type, int numRows, int numCols, long length, int flags ) throws IOException {
+        buffer.clear();
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(type);
+        buffer.putInt(numRows);
+        buffer.putInt(numCols);
+        buffer.putLong(length);
+        buffer.putInt(flags);
+        while (buffer.position() < HEADER_BYTES) {
+            buffer.put((byte)0);
+        }
+        flush(channel, buffer);
+    }
+
+    private static Header readHeader( FileChannel channel ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, buffer, 0);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get() != MAGIC[i])
+                throw new IOException("Not an EJML binary matrix file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported version " + version);
+        Header header = new Header();
+        header.type = buffer.getInt();
+        header.numRows = buffer.getInt();
+        header.numCols = buffer.getInt();
+        header.length = buffer.getLong();
+        header.flags = buffer.getInt();
+        return header;
+    }
+
+    private static Header readHeader( FileChannel channel, int expectedType ) throws IOException {
+        Header header = readHeader(channel);
+        if (header.type != expectedType)
+            throw new IOException("Unexpected matrix type. Found " + header.type + " expected " + expectedType);
+        return header;
+    }
+
+    /** Writes the buffer's contents then clears it */
+    private static void flush( FileChannel channel, ByteBuffer buffer ) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** Pads the file with zeros so that the next array starts on a multiple of 8 bytes */
+    private static void writePadding( FileChannel channel, ByteBuffer buffer ) throws IOException {
+        buffer.clear();
+        long position = channel.position();
+        while (position + buffer.position() < align8(position)) {
+            buffer.put((byte)0);
+        }
+        flush(channel, buffer);
+    }
+
+    private static void writeDoubles( FileChannel channel, ByteBuffer buffer,
+                                      double[] data, int offset, int length ) throws IOException {
+        buffer.clear();
+        int blockLength = buffer.capacity()/8;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            buffer.asDoubleBuffer().put(data, offset + i, amount);
+            buffer.position(amount*8);
+            flush(channel, buffer);
+        }
+    }
+
+    private static void writeDoubles( FileChannel channel, ByteBuffer buffer,
+                                      DOffHeapArray data, long length ) throws IOException {
+        double[] work = new double[buffer.capacity()/8];
+        for (long i = 0; i < length; i += work.length) {
+            int amount = (int)Math.min(work.length, length - i);
+            data.copyTo(i, work, 0, amount);
+            writeDoubles(channel, buffer, work, 0, amount);
+        }
+    }
+
+    private static void writeInts( FileChannel channel, ByteBuffer buffer,
+                                   int[] data, int offset, int length ) throws IOException {
+        buffer.clear();
+        int blockLength = buffer.capacity()/4;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            buffer.asIntBuffer().put(data, offset + i, amount);
+            buffer.position(amount*4);
+            flush(channel, buffer);
+        }
+    }
+
+    private static void writeInts( FileChannel channel, ByteBuffer buffer,
+                                   IOffHeapArray data, long length ) throws IOException {
+        int[] work = new int[buffer.capacity()/4];
+        for (long i = 0; i < length; i += work.length) {
+            int amount = (int)Math.min(work.length, length - i);
+            data.copyTo(i, work, 0, amount);
+            writeInts(channel, buffer, work, 0, amount);
+        }
+    }
+
+    private static void writeLongs( FileChannel channel, ByteBuffer buffer, long[] data, int length ) throws IOException {
+        buffer.clear();
+        int blockLength = buffer.capacity()/8;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            buffer.asLongBuffer().put(data, i, amount);
+            buffer.position(amount*8);
+            flush(channel, buffer);
+        }
+    }
+
+    private static void readFully( FileChannel channel, ByteBuffer buffer, long position ) throws IOException {
+        while (buffer.hasRemaining()) {
+            int amount = channel.read(buffer, position);
+            if (amount < 0)
+                throw new IOException("Unexpected end of file");
+            position += amount;
+        }
+        buffer.flip();
+    }
+
+    private static void readDoubles( FileChannel channel, ByteBuffer buffer, long position,
+                                     double[] data, int length ) throws IOException {
+        int blockLength = buffer.capacity()/8;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            buffer.clear();
+            buffer.limit(amount*8);
+            readFully(channel, buffer, position + 8L*i);
+            buffer.asDoubleBuffer().get(data, i, amount);
+        }
+    }
+
+    private static void readInts( FileChannel channel, ByteBuffer buffer, long position,
+                                  int[] data, int length ) throws IOException {
+        int blockLength = buffer.capacity()/4;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            buffer.clear();
+            buffer.limit(amount*4);
+            readFully(channel, buffer, position + 4L*i);
+            buffer.asIntBuffer().get(data, i, amount);
+        }
+    }
+
+    private static long[] readLongs( FileChannel channel, ByteBuffer buffer, long position, int length )
+            throws IOException {
+        long[] data = new long[length];
+        int blockLength = buffer.capacity()/8;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            buffer.clear();
+            buffer.limit(amount*8);
+            readFully(channel, buffer, position + 8L*i);
+            buffer.asLongBuffer().get(data, i, amount);
+        }
+        return data;
+    }
+
+    static DOffHeapArray mapDoubles( FileChannel channel, boolean writable,
+                                     long position, long length ) throws IOException {
+        int chunkBits = DOffHeapArray.DEFAULT_CHUNK_BITS;
+        int numChunks = (int)((length + (1L << chunkBits) - 1) >> chunkBits);
+        DoubleBuffer[] chunks = new DoubleBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            long index0 = (long)i << chunkBits;
+            long size = Math.min(1L << chunkBits, length - index0);
+            chunks[i] = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    position + index0*8, size*8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return DOffHeapArray.wrap(chunks, length, chunkBits);
+    }
+
+    private static IOffHeapArray mapInts( FileChannel channel, boolean writable,
+                                          long position, long length ) throws IOException {
+        int chunkBits = IOffHeapArray.DEFAULT_CHUNK_BITS;
+        int numChunks = (int)((length + (1L << chunkBits) - 1) >> chunkBits);
+        IntBuffer[] chunks = new IntBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            long index0 = (long)i << chunkBits;
+            long size = Math.min(1L << chunkBits, length - index0);
+            chunks[i] = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    position + index0*4, size*4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+        return IOffHeapArray.wrap(chunks, length, chunkBits);
+    }
+}
@@ -0,0 +1,769 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.ops;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixRMajOffHeap;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DOffHeapArray;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * <p>
+ * Reads and writes NumPy's binary file formats so that matrices can be exchanged with Python without
+ * converting them to text. Dense matrices are stored in ".npy" files. Sparse matrices are stored in ".npz"
+ * archives with the same layout as scipy.sparse.save_npz() and can be opened with scipy.sparse.load_npz().
+ * </p>
+ *
+ * <p>
+ * When loading, the elements can be any of NumPy's floating point, integer, or boolean types in either byte
+ * order and are converted into double. Arrays can be in C (row-major) or Fortran (column-major) order. A one
+ * dimensional array is loaded as a column vector. Sparse archives can be in "csc" or "csr" format. Files are
+ * always saved as little endian float64 with int32 indices.
+ * </p>
+ *
+ * <p>
+ * A ".npy" file containing little endian float64 values in C order can be memory mapped as a
+ * {@link DMatrixRMajOffHeap} by {@link #mapNpyDDRM}, which avoids reading it at all.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixIONumPy {
+    /** Magic number at the start of every .npy file */
+    public static final byte[] MAGIC = {(byte)0x93, 'N', 'U', 'M', 'P', 'Y'};
+    /** The header is padded so that the data starts at a multiple of this many bytes */
+    public static final int ALIGNMENT = 64;
+
+    /** Size of the buffer used to read and write arrays */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Description of the array stored in a .npy file
+     */
+    public static class Header {
+        /** NumPy's type description, e.g. "&lt;f8" is a little endian 64-bit float */
+        public String descr = "";
+        /** If true the array is stored in column-major order */
+        public boolean fortranOrder;
+        /** Length of each dimension */
+        public long[] shape = new long[0];
+        /** Location of the first element relative to the start of the .npy file */
+        public long dataOffset;
+
+        public ByteOrder getByteOrder() {
+            switch (descr.charAt(0)) {
+                case '>': return ByteOrder.BIG_ENDIAN;
+                case '=': return ByteOrder.nativeOrder();
+                default: return ByteOrder.LITTLE_ENDIAN;
+            }
+        }
+
+        /** Type of element. 'f' = float, 'i' = signed integer, 'u' = unsigned integer, 'b' = boolean */
+        public char getKind() {
+            return descr.charAt(1);
+        }
+
+        /** Number of bytes in each element */
+        public int getItemSize() {
+            return Integer.parseInt(descr.substring(2));
+        }
+
+        public long getNumElements() {
+            long total = 1;
+            for (long length : shape) {
+                total *= length;
+            }
+            return total;
+        }
+
+        /** Number of rows when the array is interpreted as a matrix */
+        public int getNumRows() {
+            checkMatrixShape();
+            return shape.length == 0 ? 1 : toInt(shape[0]);
+        }
+
+        /** Number of columns when the array is interpreted as a matrix */
+        public int getNumCols() {
+            checkMatrixShape();
+            return shape.length < 2 ? 1 : toInt(shape[1]);
+        }
+
+        /** True if the order the elements are stored in is the same as row-major */
+        public boolean isRowMajor() {
+            return !fortranOrder || shape.length < 2 || shape[0] <= 1 || shape[1] <= 1;
+        }
+
+        private void checkMatrixShape() {
+            if (shape.length > 2)
+                throw new IllegalArgumentException("Array has " + shape.length + " dimensions. Only 2 or fewer are supported");
+        }
+    }
+
+    /**
+     * Saves a dense matrix as a .npy file
+     */
+    public static void saveNpy( DMatrixRMaj A, String fileName ) throws IOException {
+        try (OutputStream out = openWrite(fileName)) {
+            writeHeader(out, "<f8", new long[]{A.numRows, A.numCols});
+            writeDoubles(out, A.data, 0, A.getNumElements());
+        }
+    }
+
+    /**
+     * Saves a dense matrix as a .npy file
+     */
+    public static void saveNpy( DMatrixRMajOffHeap A, String fileName ) throws IOException {
+        try (OutputStream out = openWrite(fileName)) {
+            writeHeader(out, "<f8", new long[]{A.numRows, A.numCols});
+            double[] work = new double[BUFFER_BYTES/8];
+            long length = A.getNumElementsLong();
+            for (long i = 0; i < length; i += work.length) {
+                int amount = (int)Math.min(work.length, length - i);
+                A.data.copyTo(i, work, 0, amount);
+                writeDoubles(out, work, 0, amount);
+            }
+        }
+    }
+
+    /**
+     * Reads just the header from a .npy file
+     */
+    public static Header readNpyHeader( String fileName ) throws IOException {
+        try (InputStream in = Files.newInputStream(Paths.get(fileName))) {
+            return readHeader(in);
+        }
+    }
+
+    /**
+     * Loads a .npy file into a dense matrix
+     *
+     * @param fileName Name of the file
+     * @param output (Optional) Storage for the matrix. Can be null.
+     * @return The loaded matrix
+     */
+    public static DMatrixRMaj loadNpyDDRM( String fileName, @Nullable DMatrixRMaj output ) throws IOException {
+        try (InputStream in = Files.newInputStream(Paths.get(fileName))) {
+            return readDense(in, readHeader(in), output);
+        }
+    }
+
+    /**
+     * Memory maps a .npy file. No data is copied and the matrix can be larger than the heap. Only little endian
+     * float64 arrays in C order can be mapped. The mapping remains valid after this function returns.
+     *
+     * @param fileName Name of the file
+     * @param writable If true then changes to the matrix are written to the file. Otherwise it's read only.
+     * @return Matrix which wraps the file
+     */
+    public static DMatrixRMajOffHeap mapNpyDDRM( String fileName, boolean writable ) throws IOException {
+        try (FileChannel channel = writable ?
+                FileChannel.open(Paths.get(fileName), StandardOpenOption.READ, StandardOpenOption.WRITE) :
+                FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            // Don't close the stream since that would also close the channel
+            Header header = readHeader(Channels.newInputStream(channel));
+            boolean littleEndian = header.getByteOrder() == ByteOrder.LITTLE_ENDIAN;
+            if (!littleEndian || !header.descr.endsWith("f8") || !header.isRowMajor())
+                throw new IOException("Only little endian float64 arrays in C order can be mapped. Found " +
+                        header.descr + (header.fortranOrder ? " Fortran order" : ""));
+            DOffHeapArray data = MatrixIOBinary.mapDoubles(channel, writable, header.dataOffset, header.getNumElements());
+            return DMatrixRMajOffHeap.wrap(header.getNumRows(), header.getNumCols(), data);
+        }
+    }
+
+    /**
+     * Saves a sparse matrix in the same format as scipy.sparse.save_npz()
+     *
+     * @param A Matrix that's saved
+     * @param fileName Name of the file
+     * @param compressed If true the arrays are compressed. Otherwise they are stored as is, which is faster.
+     */
+    public static void saveNpz( DMatrixSparseCSC A, String fileName, boolean compressed ) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(openWrite(fileName))) {
+            final int N = A.nz_length;
+            writeEntry(zip, "indices", compressed, out -> {
+                writeHeader(out, "<i4", new long[]{N});
+                writeInts(out, A.nz_rows, N);
+            });
+            writeEntry(zip, "indptr", compressed, out -> {
+                writeHeader(out, "<i4", new long[]{A.numCols + 1});
+                writeInts(out, A.col_idx, A.numCols + 1);
+            });
+            writeEntry(zip, "format", compressed, out -> {
+                writeHeader(out, "|S3", new long[0]);
+                out.write("csc".getBytes(StandardCharsets.US_ASCII));
+            });
+            writeEntry(zip, "shape", compressed, out -> {
+                writeHeader(out, "<i8", new long[]{2});
+                byte[] bytes = new byte[16];
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong(A.numRows).putLong(A.numCols);
+                out.write(bytes);
+            });
+            writeEntry(zip, "data", compressed, out -> {
+                writeHeader(out, "<f8", new long[]{N});
+                writeDoubles(out, A.nz_values, 0, N);
+            });
+        }
+    }
+
+    /**
+     * Loads a sparse matrix which was saved by scipy.sparse.save_npz(). The matrix must be in "csc" or "csr"
+     * format. CSR matrices are converted into CSC.
+     *
+     * @param fileName Name of the file
+     * @param output (Optional) Storage for the matrix. Can be null.
+     * @return The loaded matrix
+     */
+    public static DMatrixSparseCSC loadNpzDSCC( String fileName, @Nullable DMatrixSparseCSC output )
+            throws IOException {
+        try (ZipFile zip = new ZipFile(fileName)) {
+            String format = readString(zip, "format");
+            boolean csr;
+            if (format.equals("csc"))
+                csr = false;
+            else if (format.equals("csr"))
+                csr = true;
+            else
+                throw new IOException("Unsupported sparse format '" + format + "'. Must be csc or csr");
+
+            int[] shape = readIndices(zip, "shape", 2);
+            int numRows = shape[0];
+            int numCols = shape[1];
+
+            // In CSR the roles of rows and columns are swapped
+            int numOuter = csr ? numRows : numCols;
+            int numInner = csr ? numCols : numRows;
+            int[] indptr = readIndices(zip, "indptr", numOuter + 1);
+            if (indptr[0] != 0)
+                throw new IOException("indptr must start at zero");
+            for (int i = 0; i < numOuter; i++) {
+                if (indptr[i] > indptr[i + 1])
+                    throw new IOException("indptr must be non-decreasing");
+            }
+            int N = indptr[numOuter];
+
+            if (output == null)
+                output = new DMatrixSparseCSC(numRows, numCols, N);
+            else
+                output.reshape(numRows, numCols, N);
+
+            int[] indices = csr ? new int[N] : output.nz_rows;
+            double[] values = csr ? new double[N] : output.nz_values;
+            readIndices(zip, "indices", N, indices);
+            readValues(zip, "data", N, values);
+
+            for (int i = 0; i < N; i++) {
+                if (indices[i] >= numInner)
+                    throw new IOException("Element index out of bounds. " + indices[i] + " >= " + numInner);
+            }
+
+            if (csr) {
+                convertCsrToCsc(indptr, indices, values, output);
+            } else {
+                System.arraycopy(indptr, 0, output.col_idx, 0, numCols + 1);
+                output.nz_length = N;
+                output.indicesSorted = isSorted(output);
+            }
+            return output;
+        }
+    }
+
+    /**
+     * Loads a dense array from a .npz archive, such as one created by numpy.savez()
+     *
+     * @param fileName Name of the file
+     * @param arrayName Name of the array inside the archive, without the ".npy" extension
+     * @param output (Optional) Storage for the matrix. Can be null.
+     * @return The loaded matrix
+     */
+    public static DMatrixRMaj loadNpzDDRM( String fileName, String arrayName, @Nullable DMatrixRMaj output )
+            throws IOException {
+        try (ZipFile zip = new ZipFile(fileName); InputStream in = openEntry(zip, arrayName)) {
+            return readDense(in, readHeader(in), output);
+        }
+    }
+
+    /**
+     * Reads a .npy header from the stream. When it returns the stream will point at the first element.
+     */
+    public static Header readHeader( InputStream in ) throws IOException {
+        byte[] prefix = new byte[8];
+        readFully(in, prefix, 8);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (prefix[i] != MAGIC[i])
+                throw new IOException("Not a NumPy .npy file");
+        }
+        int major = prefix[6] & 0xFF;
+        int headerLength;
+        int prefixLength;
+        if (major == 1) {
+            byte[] bytes = new byte[2];
+            readFully(in, bytes, 2);
+            headerLength = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getShort() & 0xFFFF;
+            prefixLength = 10;
+        } else if (major == 2 || major == 3) {
+            byte[] bytes = new byte[4];
+            readFully(in, bytes, 4);
+            headerLength = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            prefixLength = 12;
+            if (headerLength < 0)
+                throw new IOException("Header is too large");
+        } else {
+            throw new IOException("Unsupported .npy version " + major);
+        }
+
+        byte[] text = new byte[headerLength];
+        readFully(in, text, headerLength);
+        Header header = parseHeader(new String(text, major == 3 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1));
+        header.dataOffset = prefixLength + headerLength;
+        return header;
+    }
+
+    /**
+     * Parses the Python dictionary which describes the array, e.g.
+     * "{'descr': '&lt;f8', 'fortran_order': False, 'shape': (3, 4), }"
+     */
+    static Header parseHeader( String dict ) throws IOException {
+        Header header = new Header();
+        header.descr = dictValue(dict, "descr");
+        if (!header.descr.matches("[<>|=][a-zA-Z][0-9]+"))
+            throw new IOException("Unsupported dtype " + header.descr);
+
+        String order = dictValue(dict, "fortran_order");
+        if (order.equals("True"))
+            header.fortranOrder = true;
+        else if (!order.equals("False"))
+            throw new IOException("Unexpected fortran_order " + order);
+
+        String shape = dictValue(dict, "shape");
+        if (!shape.startsWith("(") || !shape.endsWith(")"))
+            throw new IOException("Unexpected shape " + shape);
+        String[] words = shape.substring(1, shape.length() - 1).split(",");
+        int numDimensions = 0;
+        long[] lengths = new long[words.length];
+        for (String word : words) {
+            word = word.trim();
+            if (word.isEmpty())
+                continue;
+            // Python 2 could write longs with an 'L' suffix
+            if (word.endsWith("L"))
+                word = word.substring(0, word.length() - 1);
+            try {
+                lengths[numDimensions++] = Long.parseLong(word);
+            } catch (NumberFormatException e) {
+                throw new IOException("Unexpected shape " + shape);
+            }
+        }
+        header.shape = Arrays.copyOf(lengths, numDimensions);
+        return header;
+    }
+
+    /**
+     * Returns the value of a key in a Python dictionary literal. Quotes around strings are removed.
+     */
+    private static String dictValue( String dict, String key ) throws IOException {
+        int index = dict.indexOf("'" + key + "'");
+        if (index < 0)
+            index = dict.indexOf("\"" + key + "\"");
+        if (index < 0)
+            throw new IOException("Header is missing '" + key + "'");
+        index = dict.indexOf(':', index + key.length() + 2);
+        if (index < 0)
+            throw new IOException("Header is missing a value for '" + key + "'");
+        index++;
+        while (index < dict.length() && Character.isWhitespace(dict.charAt(index))) {
+            index++;
+        }
+        if (index >= dict.length())
+            throw new IOException("Header is missing a value for '" + key + "'");
+
+        char c = dict.charAt(index);
+        int end;
+        if (c == '\'' || c == '"') {
+            end = dict.indexOf(c, index + 1);
+            if (end < 0)
+                throw new IOException("Unterminated string in header");
+            return dict.substring(index + 1, end);
+        } else if (c == '(') {
+            end = dict.indexOf(')', index);
+            if (end < 0)
+                throw new IOException("Unterminated tuple in header");
+            return dict.substring(index, end + 1);
+        } else if (c == '[' || c == '{') {
+            throw new IOException("Structured arrays are not supported");
+        }
+        end = index;
+        while (end < dict.length() && dict.charAt(end) != ',' && dict.charAt(end) != '}') {
+            end++;
+        }
+        return dict.substring(index, end).trim();
+    }
+
+    private static DMatrixRMaj readDense( InputStream in, Header header, @Nullable DMatrixRMaj output )
+            throws IOException {
+        checkNumeric(header);
+        int numRows = header.getNumRows();
+        int numCols = header.getNumCols();
+        toInt(header.getNumElements());
+        if (output == null)
+            output = new DMatrixRMaj(numRows, numCols);
+        else
+            output.reshape(numRows, numCols);
+
+        byte[] work = new byte[BUFFER_BYTES];
+        if (header.isRowMajor()) {
+            readValues(in, header, work, output.data, 0, numRows*numCols);
+        } else {
+            // Read one column at a time and write it into the row-major matrix
+            double[] column = new double[numRows];
+            for (int col = 0; col < numCols; col++) {
+                readValues(in, header, work, column, 0, numRows);
+                for (int row = 0; row < numRows; row++) {
+                    output.data[row*numCols + col] = column[row];
+                }
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Converts the elements in the stream into doubles
+     */
+    private static void readValues( InputStream in, Header header, byte[] work,
+                                    double[] data, int offset, int length ) throws IOException {
+        char kind = header.getKind();
+        int size = header.getItemSize();
+        ByteBuffer buffer = ByteBuffer.wrap(work).order(header.getByteOrder());
+        int blockLength = work.length/size;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            readFully(in, work, amount*size);
+            if (kind == 'f' && size == 8) {
+                buffer.asDoubleBuffer().get(data, offset + i, amount);
+            } else {
+                for (int j = 0; j < amount; j++) {
+                    data[offset + i + j] = getDouble(buffer, j*size, kind, size);
+                }
+            }
+        }
+    }
+
+    private static void readValues( ZipFile zip, String name, int length, double[] data ) throws IOException {
+        try (InputStream in = openEntry(zip, name)) {
+            Header header = readHeader(in);
+            checkNumeric(header);
+            checkLength(header, name, length);
+            readValues(in, header, new byte[BUFFER_BYTES], data, 0, length);
+        }
+    }
+
+    private static int[] readIndices( ZipFile zip, String name, int length ) throws IOException {
+        int[] data = new int[length];
+        readIndices(zip, name, length, data);
+        return data;
+    }
+
+    /**
+     * Reads an array of integers which must be non-negative and fit inside an int
+     */
+    private static void readIndices( ZipFile zip, String name, int length, int[] data ) throws IOException {
+        try (InputStream in = openEntry(zip, name)) {
+            Header header = readHeader(in);
+            char kind = header.getKind();
+            if (kind != 'i' && kind != 'u')
+                throw new IOException("'" + name + "' must be an integer array. Found " + header.descr);
+            checkNumeric(header);
+            checkLength(header, name, length);
+
+            int size = header.getItemSize();
+            byte[] work = new byte[BUFFER_BYTES];
+            ByteBuffer buffer = ByteBuffer.wrap(work).order(header.getByteOrder());
+            int blockLength = work.length/size;
+            for (int i = 0; i < length; i += blockLength) {
+                int amount = Math.min(blockLength, length - i);
+                readFully(in, work, amount*size);
+                for (int j = 0; j < amount; j++) {
+                    long value = getLong(buffer, j*size, kind, size);
+                    if (value < 0 || value > Integer.MAX_VALUE)
+                        throw new IOException("'" + name + "' contains a value which isn't a valid index. " + value);
+                    data[i + j] = (int)value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a zero dimensional string array. Both byte strings and unicode strings are supported.
+     */
+    private static String readString( ZipFile zip, String name ) throws IOException {
+        try (InputStream in = openEntry(zip, name)) {
+            Header header = readHeader(in);
+            char kind = header.getKind();
+            int size = header.getItemSize();
+            if (header.getNumElements() != 1 || (kind != 'S' && kind != 'U'))
+                throw new IOException("'" + name + "' must contain a single string. Found " + header.descr);
+
+            int numBytes = kind == 'U' ? size*4 : size;
+            byte[] bytes = new byte[numBytes];
+            readFully(in, bytes, numBytes);
+            StringBuilder text = new StringBuilder();
+            if (kind == 'S') {
+                for (int i = 0; i < size && bytes[i] != 0; i++) {
+                    text.append((char)(bytes[i] & 0xFF));
+                }
+            } else {
+                // Unicode strings are stored as UTF-32
+                ByteBuffer buffer = ByteBuffer.wrap(bytes).order(header.getByteOrder());
+                for (int i = 0; i < size; i++) {
+                    int codePoint = buffer.getInt(i*4);
+                    if (codePoint == 0)
+                        break;
+                    text.appendCodePoint(codePoint);
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    private static InputStream openEntry( ZipFile zip, String name ) throws IOException {
+        ZipEntry entry = zip.getEntry(name + ".npy");
+        if (entry == null)
+            throw new IOException("Archive is missing '" + name + ".npy'");
+        return new BufferedInputStream(zip.getInputStream(entry), BUFFER_BYTES);
+    }
+
+    private static void checkNumeric( Header header ) throws IOException {
+        int size = header.getItemSize();
+        boolean valid;
+        switch (header.getKind()) {
+            case 'f': valid = size == 4 || size == 8; break;
+            case 'i':
+            case 'u': valid = size == 1 || size == 2 || size == 4 || size == 8; break;
+            case 'b': valid = size == 1; break;
+            default: valid = false;
+        }
+        if (!valid)
+            throw new IOException("Unsupported dtype " + header.descr);
+    }
+
+    private static void checkLength( Header header, String name, int expected ) throws IOException {
+        if (header.getNumElements() != expected)
+            throw new IOException("'" + name + "' has " + header.getNumElements() + " elements. Expected " + expected);
+    }
+
+    private static double getDouble( ByteBuffer buffer, int position, char kind, int size ) {
+        if (kind == 'f')
+            return size == 8 ? buffer.getDouble(position) : buffer.getFloat(position);
+        long value = getLong(buffer, position, kind, size);
+        if (kind == 'u' && value < 0) {
+            // unsigned 64-bit value that is too large for a long
+            return (double)(value >>> 1)*2.0 + (value & 1);
+        }
+        return value;
+    }
+
+    private static long getLong( ByteBuffer buffer, int position, char kind, int size ) {
+        boolean signed = kind == 'i';
+        switch (size) {
+            case 1: return signed ? buffer.get(position) : buffer.get(position) & 0xFF;
+            case 2: return signed ? buffer.getShort(position) : buffer.getShort(position) & 0xFFFF;
+            case 4: return signed ? buffer.getInt(position) : buffer.getInt(position) & 0xFFFFFFFFL;
+            default: return buffer.getLong(position);
+        }
+    }
+
+    /**
+     * Converts CSR arrays into a CSC matrix. Since rows are traversed in order the output is sorted.
+     */
+    private static void convertCsrToCsc( int[] row_idx, int[] nz_cols, double[] values, DMatrixSparseCSC output ) {
+        int N = row_idx[output.numRows];
+
+        // count the number of elements in each column then convert it into the start of each column
+        int[] col_idx = output.col_idx;
+        for (int i = 0; i < N; i++) {
+            col_idx[nz_cols[i] + 1]++;
+        }
+        for (int col = 0; col < output.numCols; col++) {
+            col_idx[col + 1] += col_idx[col];
+        }
+
+        int[] cursor = new int[output.numCols];
+        System.arraycopy(col_idx, 0, cursor, 0, output.numCols);
+        for (int row = 0; row < output.numRows; row++) {
+            for (int i = row_idx[row]; i < row_idx[row + 1]; i++) {
+                int index = cursor[nz_cols[i]]++;
+                output.nz_rows[index] = row;
+                output.nz_values[index] = values[i];
+            }
+        }
+        output.nz_length = N;
+        output.indicesSorted = true;
+    }
+
+    private static boolean isSorted( DMatrixSparseCSC A ) {
+        for (int col = 0; col < A.numCols; col++) {
+            for (int i = A.col_idx[col] + 1; i < A.col_idx[col + 1]; i++) {
+                if (A.nz_rows[i - 1] >= A.nz_rows[i])
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the magic number, version, and header. The header is padded with spaces so that the
+     * data starts at a multiple of {@link #ALIGNMENT}.
+     */
+    private static void writeHeader( OutputStream out, String descr, long[] shape ) throws IOException {
+        StringBuilder dict = new StringBuilder();
+        dict.append("{'descr': '").append(descr).append("', 'fortran_order': False, 'shape': (");
+        for (int i = 0; i < shape.length; i++) {
+            if (i > 0)
+                dict.append(", ");
+            dict.append(shape[i]);
+        }
+        // Python writes a tuple with one element as "(n,)"
+        if (shape.length == 1)
+            dict.append(',');
+        dict.append("), }");
+
+        int prefixLength = 10;
+        int major = 1;
+        if (align(prefixLength + dict.length() + 1) - prefixLength > 0xFFFF) {
+            prefixLength = 12;
+            major = 2;
+        }
+        while ((prefixLength + dict.length() + 1)%ALIGNMENT != 0) {
+            dict.append(' ');
+        }
+        dict.append('\n');
+
+        ByteBuffer prefix = ByteBuffer.allocate(prefixLength).order(ByteOrder.LITTLE_ENDIAN);
+        prefix.put(MAGIC);
+        prefix.put((byte)major);
+        prefix.put((byte)0);
+        if (major == 1)
+            prefix.putShort((short)dict.length());
+        else
+            prefix.putInt(dict.length());
+        out.write(prefix.array());
+        out.write(dict.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void writeDoubles( OutputStream out, double[] data, int offset, int length ) throws IOException {
+        byte[] work = new byte[Math.min(BUFFER_BYTES, length*8)];
+        ByteBuffer buffer = ByteBuffer.wrap(work).order(ByteOrder.LITTLE_ENDIAN);
+        int blockLength = work.length/8;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            buffer.asDoubleBuffer().put(data, offset + i, amount);
+            out.write(work, 0, amount*8);
+        }
+    }
+
+    private static void writeInts( OutputStream out, int[] data, int length ) throws IOException {
+        byte[] work = new byte[Math.min(BUFFER_BYTES, length*4)];
+        ByteBuffer buffer = ByteBuffer.wrap(work).order(ByteOrder.LITTLE_ENDIAN);
+        int blockLength = work.length/4;
+        for (int i = 0; i < length; i += blockLength) {
+            int amount = Math.min(blockLength, length - i);
+            buffer.asIntBuffer().put(data, i, amount);
+            out.write(work, 0, amount*4);
+        }
+    }
+
+    /** Writes the contents of a .npy file */
+    private interface NpyWriter {
+        void write( OutputStream out ) throws IOException;
+    }
+
+    private static void writeEntry( ZipOutputStream zip, String name, boolean compressed, NpyWriter writer )
+            throws IOException {
+        ZipEntry entry = new ZipEntry(name + ".npy");
+        if (compressed) {
+            entry.setMethod(ZipEntry.DEFLATED);
+        } else {
+            // Stored entries need their size and CRC before they are written. Computing them with an extra
+            // pass is cheaper than holding a copy of the array in memory.
+            ChecksumOutputStream checksum = new ChecksumOutputStream();
+            writer.write(checksum);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(checksum.count);
+            entry.setCompressedSize(checksum.count);
+            entry.setCrc(checksum.crc.getValue());
+        }
+        zip.putNextEntry(entry);
+        writer.write(zip);
+        zip.closeEntry();
+    }
+
+    /** Discards everything written to it while computing its CRC and length */
+    private static class ChecksumOutputStream extends OutputStream {
+        final CRC32 crc = new CRC32();
+        long count;
+
+        @Override public void write( int b ) {
+            crc.update(b);
+            count++;
+        }
+
+        @Override public void write( byte[] b, int off, int len ) {
+            crc.update(b, off, len);
+            count += len;
+        }
+    }
+
+    private static OutputStream openWrite( String fileName ) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(Paths.get(fileName)), BUFFER_BYTES);
+    }
+
+    private static void readFully( InputStream in, byte[] data, int length ) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int amount = in.read(data, offset, length - offset);
+            if (amount < 0)
+                throw new EOFException("Unexpected end of file");
+            offset += amount;
+        }
+    }
+
+    private static long align( long offset ) {
+        return (offset + ALIGNMENT - 1)/ALIGNMENT*ALIGNMENT;
+    }
+
+    private static int toInt( long length ) {
+        if (length > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many elements to be loaded onto the heap. Memory map it instead.");
+        return (int)length;
+    }
+}
@@ -0,0 +1,570 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.ops;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixSparseCSC;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * <p>
+ * Reads a file in Matrix Market coordinate format directly into a {@link DMatrixSparseCSC}. No triplet matrix is
+ * created. The file is read twice. The first pass counts the number of elements in each column, and the second
+ * pass writes each element into its final location. Uncompressed files are split into blocks of lines which are
+ * parsed by multiple threads. Gzip compressed files are detected automatically and parsed by a single thread.
+ * </p>
+ *
+ * <p>
+ * Supported qualifiers are "real", "integer", and "pattern" for the field, and "general", "symmetric", and
+ * "skew-symmetric" for the symmetry. Pattern elements are given a value of one. Only the lower or upper triangle
+ * is stored in a symmetric file, and it's mirrored when read. Row indices in the output are sorted.
+ * </p>
+ *
+ * https://math.nist.gov/MatrixMarket/formats.html
+ *
+ * @author Peter Abeles
+ */
+public class ReadMatrixMarketCSC {
+    /** A thread won't be given fewer bytes than this to parse */
+    public int minBlockBytes = 1 << 20;
+
+    /** Size of the read buffer used by each thread */
+    public int bufferBytes = 1 << 16;
+
+    // Information from the header
+    int numRows, numCols;
+    long declaredLength;
+    boolean pattern;
+    boolean symmetric;
+    boolean skew;
+
+    /**
+     * Reads the matrix from the file. If the file is gzip compressed it will be decompressed.
+     *
+     * @param fileName Name of the file
+     * @return The matrix
+     */
+    public DMatrixSparseCSC read( String fileName ) throws IOException {
+        boolean gzip;
+        try (InputStream in = new FileInputStream(fileName)) {
+            gzip = in.read() == 0x1f && in.read() == 0x8b;
+        }
+
+        return gzip ? readGzip(fileName) : readFile(fileName);
+    }
+
+    private DMatrixSparseCSC readFile( String fileName ) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            Parser headerParser = new Parser(new RangeStream(channel, 0, fileSize), bufferBytes);
+            parseHeader(headerParser);
+            long dataStart = headerParser.consumed();
+
+            // split the data into blocks which start at the beginning of a line
+            int numBlocks = 1;
+            if (EjmlConcurrency.isUseConcurrent()) {
+                long blocks = (fileSize - dataStart)/minBlockBytes;
+                numBlocks = (int)Math.max(1, Math.min(EjmlConcurrency.getMaxThreads(), blocks));
+            }
+            long[] bounds = new long[numBlocks + 1];
+            bounds[0] = dataStart;
+            bounds[numBlocks] = fileSize;
+            for (int i = 1; i < numBlocks; i++) {
+                long start = Math.max(bounds[i - 1], dataStart + (fileSize - dataStart)*i/numBlocks);
+                bounds[i] = findNextLine(channel, start, fileSize);
+            }
+
+            final int[][] counts = new int[numBlocks][];
+            final long[] found = new long[numBlocks];
+            runBlocks(numBlocks, block -> {
+                counts[block] = new int[numCols];
+                found[block] = parse(new Parser(new RangeStream(channel, bounds[block], bounds[block + 1]),
+                        bufferBytes), new CountHandler(counts[block]));
+            });
+
+            DMatrixSparseCSC output = declareOutput(counts, found);
+
+            runBlocks(numBlocks, block -> {
+                parse(new Parser(new RangeStream(channel, bounds[block], bounds[block + 1]), bufferBytes),
+                        new FillHandler(counts[block], output));
+            });
+
+            sortIndices(output);
+            return output;
+        }
+    }
+
+    private DMatrixSparseCSC readGzip( String fileName ) throws IOException {
+        final int[][] counts = new int[1][];
+        final long[] found = new long[1];
+
+        try (InputStream in = new GZIPInputStream(new FileInputStream(fileName), bufferBytes)) {
+            Parser parser = new Parser(in, bufferBytes);
+            parseHeader(parser);
+            counts[0] = new int[numCols];
+            found[0] = parse(parser, new CountHandler(counts[0]));
+        }
+
+        DMatrixSparseCSC output = declareOutput(counts, found);
+
+        try (InputStream in = new GZIPInputStream(new FileInputStream(fileName), bufferBytes)) {
+            Parser parser = new Parser(in, bufferBytes);
+            parseHeader(parser);
+            parse(parser, new FillHandler(counts[0], output));
+        }
+
+        sortIndices(output);
+        return output;
+    }
+
+    /**
+     * Processes each block in its own thread. The first exception thrown by any block is rethrown once all
+     * blocks are done.
+     */
+    private static void runBlocks( int numBlocks, BlockTask task ) throws IOException {
+        if (numBlocks == 1) {
+            task.process(0);
+            return;
+        }
+
+        final Exception[] errors = new Exception[numBlocks];
+        EjmlConcurrency.loopFor(0, numBlocks, block -> {
+            try {
+                task.process(block);
+            } catch (IOException | RuntimeException e) {
+                errors[block] = e;
+            }
+        });
+        for (Exception e : errors) {
+            if (e instanceof IOException)
+                throw (IOException)e;
+            if (e != null)
+                throw (RuntimeException)e;
+        }
+    }
+
+    /**
+     * Creates the output matrix from the number of elements each block found in each column. The counts are
+     * converted into the index each block will write the next element in a column to.
+     */
+    private DMatrixSparseCSC declareOutput( int[][] counts, long[] found ) throws IOException {
+        long totalFound = 0;
+        for (long f : found) {
+            totalFound += f;
+        }
+        if (totalFound != declaredLength)
+            throw new IOException("Expected " + declaredLength + " entries but found " + totalFound);
+
+        int[] col_idx = new int[numCols + 1];
+        long total = 0;
+        for (int col = 0; col < numCols; col++) {
+            for (int block = 0; block < counts.length; block++) {
+                int n = counts[block][col];
+                counts[block][col] = (int)total;
+                total += n;
+            }
+            if (total > Integer.MAX_VALUE)
+                throw new IOException("Too many non-zero elements for DMatrixSparseCSC. " +
+                        "Use MatrixIO.loadMatrixMarketBigD() instead.");
+            col_idx[col + 1] = (int)total;
+        }
+
+        DMatrixSparseCSC output = new DMatrixSparseCSC(numRows, numCols, (int)total);
+        System.arraycopy(col_idx, 0, output.col_idx, 0, numCols + 1);
+        output.nz_length = (int)total;
+        return output;
+    }
+
+    private static void sortIndices( DMatrixSparseCSC output ) {
+        if (!EjmlConcurrency.isUseConcurrent()) {
+            output.sortIndices(null);
+            return;
+        }
+        EjmlConcurrency.loopBlocks(0, output.numCols, ( col0, col1 ) -> {
+            int[] segments = Arrays.copyOfRange(output.col_idx, col0, col1 + 1);
+            new SortCoupledArray_F64().quick(segments, segments.length, output.nz_rows, output.nz_values);
+        });
+        output.indicesSorted = true;
+    }
+
+    /**
+     * Parses the banner and size lines. If there is no banner, as is the case for files written by
+     * {@link MatrixIO#saveMatrixMarketD}, then it's assumed to be "real general".
+     */
+    void parseHeader( Parser parser ) throws IOException {
+        pattern = false;
+        symmetric = false;
+        skew = false;
+
+        String line = parser.readLine();
+        if (line == null)
+            throw new IOException("Empty file");
+        if (line.regionMatches(true, 0, "%%MatrixMarket", 0, 14)) {
+            parseBanner(line);
+            line = parser.readLine();
+        }
+
+        while (line != null && (line.trim().isEmpty() || line.charAt(0) == '%')) {
+            line = parser.readLine();
+        }
+        if (line == null)
+            throw new IOException("Missing size line");
+        String[] words = line.trim().split("\\s+");
+        if (words.length != 3)
+            throw new IOException("Unexpected number of words in size line: " + words.length);
+        numRows = Integer.parseInt(words[0]);
+        numCols = Integer.parseInt(words[1]);
+        declaredLength = Long.parseLong(words[2]);
+    }
+
+    private void parseBanner( String banner ) throws IOException {
+        String[] words = banner.trim().toLowerCase(Locale.ENGLISH).split("\\s+");
+        if (words.length != 5 || !words[1].equals("matrix"))
+            throw new IOException("Unexpected banner: '" + banner + "'");
+        if (!words[2].equals("coordinate"))
+            throw new IOException("Only the coordinate format is supported. Found " + words[2]);
+
+        switch (words[3]) {
+            case "real":
+            case "integer":
+                break;
+            case "pattern":
+                pattern = true;
+                break;
+            default:
+                throw new IOException("Unsupported field: " + words[3]);
+        }
+
+        switch (words[4]) {
+            case "general":
+                break;
+            case "symmetric":
+                symmetric = true;
+                break;
+            case "skew-symmetric":
+                symmetric = true;
+                skew = true;
+                break;
+            default:
+                throw new IOException("Unsupported symmetry: " + words[4]);
+        }
+    }
+
+    /**
+     * Parses every entry until the end of the stream is reached
+     *
+     * @return Number of entries which were found
+     */
+    long parse( Parser parser, EntryHandler handler ) throws IOException {
+        long total = 0;
+        while (true) {
+            int c = parser.read();
+            if (c < 0)
+                break;
+            if (c == '\n' || c == '\r' || c == ' ' || c == '\t')
+                continue;
+            if (c == '%') {
+                parser.skipLine();
+                continue;
+            }
+            parser.unread();
+
+            int row = parser.readInt() - 1;
+            int col = parser.readInt() - 1;
+            double value = pattern ? 1.0 : parser.readDouble();
+            parser.skipLine();
+
+            if (row < 0 || row >= numRows || col < 0 || col >= numCols)
+                throw new IOException("Element out of bounds: " + (row + 1) + " " + (col + 1));
+            handler.entry(row, col, value);
+            total++;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the position just after the next new line, or end if there is no new line
+     */
+    private static long findNextLine( FileChannel channel, long position, long end ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < end) {
+            buffer.clear();
+            int amount = channel.read(buffer, position);
+            if (amount <= 0)
+                break;
+            for (int i = 0; i < amount; i++) {
+                if (buffer.get(i) == '\n')
+                    return Math.min(end, position + i + 1);
+            }
+            position += amount;
+        }
+        return end;
+    }
+
+    interface BlockTask {
+        void process( int block ) throws IOException;
+    }
+
+    interface EntryHandler {
+        void entry( int row, int col, double value );
+    }
+
+    /**
+     * Counts the number of elements in each column
+     */
+    class CountHandler implements EntryHandler {
+        final int[] counts;
+
+        CountHandler( int[] counts ) {this.counts = counts;}
+
+        @Override public void entry( int row, int col, double value ) {
+            counts[col]++;
+            if (symmetric && row != col)
+                counts[row]++;
+        }
+    }
+
+    /**
+     * Writes each element into the next free index in its column
+     */
+    class FillHandler implements EntryHandler {
+        final int[] next;
+        final DMatrixSparseCSC output;
+
+        FillHandler( int[] next, DMatrixSparseCSC output ) {
+            this.next = next;
+            this.output = output;
+        }
+
+        @Override public void entry( int row, int col, double value ) {
+            int index = next[col]++;
+            output.nz_rows[index] = row;
+            output.nz_values[index] = value;
+            if (symmetric && row != col) {
+                index = next[row]++;
+                output.nz_rows[index] = col;
+                output.nz_values[index] = skew ? -value : value;
+            }
+        }
+    }
+
+    /**
+     * Reads a range of bytes from a file. Positional reads are used so that multiple streams can share
+     * the same channel.
+     */
+    static class RangeStream extends InputStream {
+        final FileChannel channel;
+        long position;
+        final long end;
+
+        RangeStream( FileChannel channel, long start, long end ) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) <= 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override public int read( byte[] b, int off, int len ) throws IOException {
+            if (position >= end)
+                return -1;
+            len = (int)Math.min(len, end - position);
+            int amount = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if (amount > 0)
+                position += amount;
+            return amount;
+        }
+    }
+
+    /**
+     * Simple tokenizer which works directly on bytes, avoiding the need to create a String for each line
+     */
+    static class Parser {
+        final InputStream in;
+        final byte[] buffer;
+        int size, index;
+        // number of bytes which were read before the current buffer
+        long offset;
+        byte[] token = new byte[64];
+        int tokenLength;
+
+        Parser( InputStream in, int bufferBytes ) {
+            this.in = in;
+            this.buffer = new byte[bufferBytes];
+        }
+
+        /** Number of bytes which have been consumed */
+        long consumed() {
+            return offset + index;
+        }
+
+        int read() throws IOException {
+            if (index == size) {
+                offset += size;
+                index = 0;
+                size = Math.max(0, in.read(buffer, 0, buffer.length));
+                if (size == 0)
+                    return -1;
+            }
+            return buffer[index++] & 0xFF;
+        }
+
+        /** Puts the last byte which was read back. Can only be called once after a successful read */
+        void unread() {
+            index--;
+        }
+
+        void skipLine() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c >= 0 && c != '\n');
+        }
+
+        /** Reads a line as a string. Only used for the header. Returns null at the end of the stream */
+        String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int c = read();
+            if (c < 0)
+                return null;
+            while (c >= 0 && c != '\n') {
+                if (c != '\r')
+                    line.write(c);
+                c = read();
+            }
+            return new String(line.toByteArray(), US_ASCII);
+        }
+
+        /** Reads the next word on this line into token */
+        void readToken() throws IOException {
+            int c = read();
+            while (c == ' ' || c == '\t') {
+                c = read();
+            }
+            tokenLength = 0;
+            while (c >= 0 && c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                if (tokenLength == token.length)
+                    token = Arrays.copyOf(token, token.length*2);
+                token[tokenLength++] = (byte)c;
+                c = read();
+            }
+            if (c >= 0)
+                unread();
+            if (tokenLength == 0)
+                throw new IOException("Unexpected end of line");
+        }
+
+        int readInt() throws IOException {
+            readToken();
+            int value = 0;
+            for (int i = 0; i < tokenLength; i++) {
+                int digit = token[i] - '0';
+                if (digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit)/10)
+                    throw new IOException("Bad index: " + new String(token, 0, tokenLength, US_ASCII));
+                value = value*10 + digit;
+            }
+            return value;
+        }
+
+        double readDouble() throws IOException {
+            readToken();
+            try {
+                return parseDouble(token, tokenLength);
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad value: " + new String(token, 0, tokenLength, US_ASCII));
+            }
+        }
+    }
+
+    /** Powers of 10 which can be exactly represented by a double */
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /**
+     * Parses a double from ASCII text. If the mantissa and power of 10 can both be exactly represented by a double
+     * then the value is computed with a single multiplication or division, which is correctly rounded. All other
+     * cases use {@link Double#parseDouble}.
+     */
+    static double parseDouble( byte[] text, int length ) {
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text[i] == '-' || text[i] == '+')) {
+            negative = text[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean exact = true;
+        for (; i < length && text[i] >= '0' && text[i] <= '9'; i++, digits++) {
+            if (mantissa < 100_000_000_000_000_000L)
+                mantissa = mantissa*10 + (text[i] - '0');
+            else
+                exact = false;
+        }
+        if (i < length && text[i] == '.') {
+            i++;
+            for (; i < length && text[i] >= '0' && text[i] <= '9'; i++, digits++) {
+                if (mantissa < 100_000_000_000_000_000L) {
+                    mantissa = mantissa*10 + (text[i] - '0');
+                    exponent--;
+                } else {
+                    exact = false;
+                }
+            }
+        }
+        if (digits > 0 && i < length && (text[i] == 'e' || text[i] == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < length && (text[i] == '-' || text[i] == '+')) {
+                negativeExp = text[i] == '-';
+                i++;
+            }
+            int value = 0;
+            int expDigits = 0;
+            for (; i < length && text[i] >= '0' && text[i] <= '9'; i++, expDigits++) {
+                if (value < 10_000)
+                    value = value*10 + (text[i] - '0');
+            }
+            if (expDigits == 0)
+                exact = false;
+            exponent += negativeExp ? -value : value;
+        }
+
+        if (exact && digits > 0 && i == length && mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            double value = exponent < 0 ? mantissa/POW10[-exponent] : mantissa*POW10[exponent];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(text, 0, length, US_ASCII));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.simd;
+
+/**
+ * <p>
+ * Low level operations on double arrays which are at the core of many dense and sparse algorithms. This class
+ * contains the reference scalar implementation. A subclass can override the functions with an implementation that
+ * has been accelerated, e.g. using SIMD instructions, and is discovered at runtime by {@link EjmlSimd}.
+ * </p>
+ *
+ * <p>
+ * No sanity checks are performed. It's assumed that all the indexes are valid.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ArrayKernels_F64 {
+    /**
+     * Short name which describes the implementation
+     */
+    public String getName() {
+        return "scalar";
+    }
+
+    /**
+     * Returns true if this implementation can be used on the current JVM and hardware.
+     */
+    public boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Inner product of two arrays.
+     *
+     * <pre>sum = &sum;<sub>i</sub> x[offsetX+i]*y[offsetY+i]</pre>
+     */
+    public double dot( double[] x, int offsetX, double[] y, int offsetY, int length ) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += x[offsetX + i]*y[offsetY + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Adds a scaled array to another array.
+     *
+     * <pre>y[offsetY+i] = y[offsetY+i] + alpha*x[offsetX+i]</pre>
+     */
+    public void axpy( double alpha, double[] x, int offsetX, double[] y, int offsetY, int length ) {
+        final int end = offsetY + length;
+        for (int i = offsetY; i < end; i++) {
+            y[i] += alpha*x[offsetX++];
+        }
+    }
+
+    /**
+     * Writes a scaled array into another array.
+     *
+     * <pre>y[offsetY+i] = alpha*x[offsetX+i]</pre>
+     */
+    public void scale( double alpha, double[] x, int offsetX, double[] y, int offsetY, int length ) {
+        final int end = offsetY + length;
+        for (int i = offsetY; i < end; i++) {
+            y[i] = alpha*x[offsetX++];
+        }
+    }
+
+    /**
+     * Inner product between a sparse array and a dense array.
+     *
+     * <pre>sum = &sum;<sub>i=start:end-1</sub> values[i]*x[offsetX+indices[i]]</pre>
+     */
+    public double dotGather( double[] values, int[] indices, int start, int end, double[] x, int offsetX ) {
+        double sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += values[i]*x[offsetX + indices[i]];
+        }
+        return sum;
+    }
+
+    /**
+     * Adds a scaled sparse array to a dense array. The indices must not contain duplicates, which is always
+     * true for a column in a valid compressed sparse column matrix.
+     *
+     * <pre>y[offsetY+indices[i]] = y[offsetY+indices[i]] + alpha*values[i], i=start:end-1</pre>
+     */
+    public void axpyScatter( double alpha, double[] values, int[] indices, int start, int end,
+                             double[] y, int offsetY ) {
+        for (int i = start; i < end; i++) {
+            y[offsetY + indices[i]] += alpha*values[i];
+        }
+    }
+
+    /**
+     * <p>
+     * Multiplies a 4 row panel of A against an 8 column panel of B and writes the 4x8 product into tile in
+     * a row-major format. Panel A stores 4 elements for each step along the inner dimension and panel B
+     * stores 8 elements.
+     * </p>
+     *
+     * <p>
+     * The sums are kept in local variables so that the JIT can keep them in registers while going through the
+     * inner dimension.
+     * </p>
+     *
+     * @param kc Length of the inner dimension
+     * @param a Array containing the packed panel of A
+     * @param indexA First element in panel A
+     * @param b Array containing the packed panel of B
+     * @param indexB First element in panel B
+     * @param tile Array that the 32 output elements are written to
+     * @param indexTile First element in tile that is written to
+     */
+    public void gemmKernel4x8( int kc, double[] a, int indexA, double[] b, int indexB, double[] tile, int indexTile ) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0, c04 = 0, c05 = 0, c06 = 0, c07 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0, c14 = 0, c15 = 0, c16 = 0, c17 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0, c24 = 0, c25 = 0, c26 = 0, c27 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0, c34 = 0, c35 = 0, c36 = 0, c37 = 0;
+
+        for (int p = 0; p < kc; p++) {
+            double b0 = b[indexB], b1 = b[indexB + 1], b2 = b[indexB + 2], b3 = b[indexB + 3];
+            double b4 = b[indexB + 4], b5 = b[indexB + 5], b6 = b[indexB + 6], b7 = b[indexB + 7];
+
+            double a0 = a[indexA];
+            c00 += a0*b0; c01 += a0*b1; c02 += a0*b2; c03 += a0*b3;
+            c04 += a0*b4; c05 += a0*b5; c06 += a0*b6; c07 += a0*b7;
+            double a1 = a[indexA + 1];
+            c10 += a1*b0; c11 += a1*b1; c12 += a1*b2; c13 += a1*b3;
+            c14 += a1*b4; c15 += a1*b5; c16 += a1*b6; c17 += a1*b7;
+            double a2 = a[indexA + 2];
+            c20 += a2*b0; c21 += a2*b1; c22 += a2*b2; c23 += a2*b3;
+            c24 += a2*b4; c25 += a2*b5; c26 += a2*b6; c27 += a2*b7;
+            double a3 = a[indexA + 3];
+            c30 += a3*b0; c31 += a3*b1; c32 += a3*b2; c33 += a3*b3;
+            c34 += a3*b4; c35 += a3*b5; c36 += a3*b6; c37 += a3*b7;
+
+            indexA += 4;
+            indexB += 8;
+        }
+
+        int i = indexTile;
+        tile[i] = c00; tile[i + 1] = c01; tile[i + 2] = c02; tile[i + 3] = c03;
+        tile[i + 4] = c04; tile[i + 5] = c05; tile[i + 6] = c06; tile[i + 7] = c07;
+        i += 8;
+        tile[i] = c10; tile[i + 1] = c11; tile[i + 2] = c12; tile[i + 3] = c13;
+        tile[i + 4] = c14; tile[i + 5] = c15; tile[i + 6] = c16; tile[i + 7] = c17;
+        i += 8;
+        tile[i] = c20; tile[i + 1] = c21; tile[i + 2] = c22; tile[i + 3] = c23;
+        tile[i + 4] = c24; tile[i + 5] = c25; tile[i + 6] = c26; tile[i + 7] = c27;
+        i += 8;
+        tile[i] = c30; tile[i + 1] = c31; tile[i + 2] = c32; tile[i + 3] = c33;
+        tile[i + 4] = c34; tile[i + 5] = c35; tile[i + 6] = c36; tile[i + 7] = c37;
+    }
+}
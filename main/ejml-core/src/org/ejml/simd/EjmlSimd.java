@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.simd;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Central class for selecting which implementation of the low level array kernels is used. When the class is
+ * loaded it searches the class path for implementations of {@link ArrayKernels_F64} and {@link ArrayKernels_F32}
+ * using a {@link ServiceLoader}, e.g. the Vector API kernels in ejml-simd, and selects the first one which reports
+ * that it's supported on this JVM. If none are found, or they fail to load, then the scalar implementation is used.
+ * </p>
+ *
+ * <p>
+ * The selection is made once and stored in a final field so that the JIT can inline the kernels. Set the system
+ * property "{@value #PROPERTY_DISABLE}" to true to force the scalar implementation.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class EjmlSimd {
+    /** If this system property is set to true then accelerated kernels will not be used */
+    public static final String PROPERTY_DISABLE = "ejml.simd.disable";
+
+    /** Kernels used by EJML's 64-bit dense and sparse operations */
+    public static final ArrayKernels_F64 KERNELS_F64 =
+            selectKernels(ArrayKernels_F64.class, ArrayKernels_F64::isSupported, ArrayKernels_F64::new);
+
+    /** Kernels used by EJML's 32-bit dense and sparse operations */
+    public static final ArrayKernels_F32 KERNELS_F32 =
+            selectKernels(ArrayKernels_F32.class, ArrayKernels_F32::isSupported, ArrayKernels_F32::new);
+
+    /**
+     * Returns true if an accelerated implementation is being used by the 64-bit operations
+     */
+    public static boolean isAccelerated() {
+        return KERNELS_F64.getClass() != ArrayKernels_F64.class;
+    }
+
+    static <T> T selectKernels( Class<T> type, Predicate<T> supported, Supplier<T> scalar ) {
+        if (Boolean.getBoolean(PROPERTY_DISABLE))
+            return scalar.get();
+
+        try {
+            for (T kernels : ServiceLoader.load(type)) {
+                if (supported.test(kernels))
+                    return kernels;
+            }
+        } catch (ServiceConfigurationError | LinkageError e) {
+            // The implementation requires a feature this JVM doesn't have, e.g. the incubator module wasn't added
+            return scalar.get();
+        }
+        return scalar.get();
+    }
+}
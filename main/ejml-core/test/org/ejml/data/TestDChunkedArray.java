@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDChunkedArray {
+    @Test
+    public void reshape() {
+        var array = new DChunkedArray(0, 3);
+        assertEquals(0, array.length());
+        assertEquals(0, array.capacity());
+
+        array.reshape(9);
+        assertEquals(9, array.length());
+        assertEquals(9, array.capacity());
+        assertEquals(2, array.chunks.length);
+        // only the last chunk is allowed to be smaller than the chunk size
+        assertEquals(8, array.chunks[0].length);
+
+        // values should be preserved when it grows
+        for (int i = 0; i < 9; i++) {
+            array.set(i, i + 1);
+        }
+        array.reshape(30);
+        assertEquals(4, array.chunks.length);
+        assertEquals(8, array.chunks[1].length);
+        assertEquals(6, array.chunks[3].length);
+        for (int i = 0; i < 9; i++) {
+            assertEquals(i + 1, array.get(i));
+        }
+
+        // shrinking doesn't discard chunks
+        array.reshape(2);
+        assertEquals(2, array.length());
+        assertEquals(4, array.chunks.length);
+    }
+
+    @Test
+    public void get_set() {
+        var array = new DChunkedArray(20, 2);
+        for (int i = 0; i < 20; i++) {
+            array.set(i, i*2);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i*2, array.get(i));
+            assertEquals(i*2, array.unsafe_get(i));
+            assertEquals(i*2, array.chunks[i/4][i%4]);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> array.get(20));
+        assertThrows(IllegalArgumentException.class, () -> array.set(-1, 2));
+    }
+
+    @Test
+    public void add() {
+        var array = new DChunkedArray(0, 2);
+        for (int i = 0; i < 11; i++) {
+            array.add(i);
+            assertTrue(array.capacity() >= array.length());
+        }
+        assertEquals(11, array.length());
+        for (int i = 0; i < 11; i++) {
+            assertEquals(i, array.get(i));
+        }
+    }
+
+    @Test
+    public void fill() {
+        var array = new DChunkedArray(20, 2);
+        array.fill(3, 14, 2.5);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i >= 3 && i < 14 ? 2.5 : 0.0, array.get(i));
+        }
+    }
+
+    @Test
+    public void copyFrom_copyTo_array() {
+        var array = new DChunkedArray(20, 2);
+        double[] src = new double[15];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = i + 1;
+        }
+        array.copyFrom(src, 2, 3, 11);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i >= 3 && i < 14 ? i : 0.0, array.get(i));
+        }
+
+        double[] dst = new double[15];
+        array.copyTo(5, dst, 1, 9);
+        for (int i = 0; i < dst.length; i++) {
+            assertEquals(i >= 1 && i < 10 ? i + 4 : 0.0, dst[i]);
+        }
+    }
+
+    @Test
+    public void copyFrom_chunked() {
+        // different chunk sizes to make sure chunk boundaries are handled
+        var src = new DChunkedArray(20, 3);
+        for (int i = 0; i < 20; i++) {
+            src.set(i, i + 1);
+        }
+        var dst = new DChunkedArray(20, 2);
+        dst.copyFrom(src, 5, 2, 13);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i >= 2 && i < 15 ? i + 4 : 0.0, dst.get(i));
+        }
+    }
+
+    @Test
+    public void setTo() {
+        var src = new DChunkedArray(11, 3);
+        for (int i = 0; i < 11; i++) {
+            src.set(i, i + 1);
+        }
+        var dst = new DChunkedArray(2, 1);
+        dst.setTo(src);
+        assertEquals(11, dst.length());
+        for (int i = 0; i < 11; i++) {
+            assertEquals(i + 1, dst.get(i));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.data;
+
+import org.ejml.UtilEjml;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDMatrixSparseCSCBig {
+    Random rand = new Random(234);
+
+    /**
+     * Creates a random regular sparse matrix. Tests use tiny chunks so that columns straddle chunk boundaries
+     */
+    private DMatrixSparseCSC createRandom( int rows, int cols, int nz ) {
+        var A = new DMatrixSparseCSC(rows, cols, nz);
+        for (int i = 0; i < nz; i++) {
+            A.set(rand.nextInt(rows), rand.nextInt(cols), rand.nextDouble() - 0.5);
+        }
+        return A;
+    }
+
+    @Test
+    public void setTo_regular() {
+        DMatrixSparseCSC A = createRandom(7, 9, 30);
+        var B = new DMatrixSparseCSCBig(2, 3, 0, 2);
+        B.setTo(A);
+
+        assertEquals(A.nz_length, B.nz_length);
+        assertEquals(A.indicesSorted, B.indicesSorted);
+        checkEquals(A, B);
+    }
+
+    @Test
+    public void setTo_big() {
+        var A = new DMatrixSparseCSCBig(1, 1, 0, 2);
+        A.setTo(createRandom(7, 9, 30));
+        var B = new DMatrixSparseCSCBig(2, 3, 0, 3);
+        B.setTo(A);
+
+        assertEquals(A.nz_length, B.nz_length);
+        for (int row = 0; row < 7; row++) {
+            for (int col = 0; col < 9; col++) {
+                assertEquals(A.get(row, col), B.get(row, col));
+            }
+        }
+
+        B = A.copy();
+        for (int row = 0; row < 7; row++) {
+            for (int col = 0; col < 9; col++) {
+                assertEquals(A.get(row, col), B.get(row, col));
+            }
+        }
+    }
+
+    @Test
+    public void set_get() {
+        var A = new DMatrixSparseCSCBig(5, 4, 0, 2);
+        var expected = new DMatrixRMaj(5, 4);
+
+        for (int i = 0; i < 40; i++) {
+            int row = rand.nextInt(5);
+            int col = rand.nextInt(4);
+            double value = rand.nextDouble();
+            A.set(row, col, value);
+            expected.set(row, col, value);
+        }
+
+        for (int row = 0; row < 5; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(expected.get(row, col), A.get(row, col), UtilEjml.TEST_F64);
+                assertEquals(expected.get(row, col) != 0, A.isAssigned(row, col));
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> A.get(5, 0));
+        assertThrows(IllegalArgumentException.class, () -> A.set(0, 4, 1.0));
+    }
+
+    @Test
+    public void histogramToStructure() {
+        var A = new DMatrixSparseCSCBig(5, 4, 0, 2);
+        A.histogramToStructure(new long[]{2, 0, 5, 1});
+
+        assertEquals(8, A.nz_length);
+        assertTrue(A.nz_values.length >= 8);
+        long[] expected = new long[]{0, 2, 2, 7, 8};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], A.col_idx[i]);
+        }
+    }
+
+    @Test
+    public void sortIndices() {
+        DMatrixSparseCSC A = createRandom(20, 6, 60);
+        var B = new DMatrixSparseCSCBig(1, 1, 0, 2);
+        B.setTo(A);
+
+        // shuffle the order of elements inside each column
+        for (int col = 0; col < B.numCols; col++) {
+            long idx0 = B.col_idx[col];
+            long idx1 = B.col_idx[col + 1];
+            for (long i = idx1 - 1; i > idx0; i--) {
+                long j = idx0 + rand.nextInt((int)(i - idx0 + 1));
+                int row = B.nz_rows.get(i);
+                double value = B.nz_values.get(i);
+                B.nz_rows.set(i, B.nz_rows.get(j));
+                B.nz_values.set(i, B.nz_values.get(j));
+                B.nz_rows.set(j, row);
+                B.nz_values.set(j, value);
+            }
+        }
+        B.indicesSorted = false;
+        B.sortIndices(null);
+
+        assertTrue(B.indicesSorted);
+        for (int col = 0; col < B.numCols; col++) {
+            for (long i = B.col_idx[col] + 1; i < B.col_idx[col + 1]; i++) {
+                assertTrue(B.nz_rows.get(i - 1) < B.nz_rows.get(i));
+            }
+        }
+        checkEquals(A, B);
+    }
+
+    @Test
+    public void zero() {
+        var A = new DMatrixSparseCSCBig(1, 1, 0, 2);
+        A.setTo(createRandom(5, 6, 10));
+        A.zero();
+        assertEquals(0, A.nz_length);
+        for (int col = 0; col <= 6; col++) {
+            assertEquals(0, A.col_idx[col]);
+        }
+    }
+
+    @Test
+    public void copyStructure() {
+        var A = new DMatrixSparseCSCBig(1, 1, 0, 2);
+        A.setTo(createRandom(5, 6, 15));
+        var B = new DMatrixSparseCSCBig(2, 2, 0, 3);
+        B.copyStructure(A);
+
+        assertEquals(A.numRows, B.numRows);
+        assertEquals(A.numCols, B.numCols);
+        assertEquals(A.nz_length, B.nz_length);
+        for (int col = 0; col <= 6; col++) {
+            assertEquals(A.col_idx[col], B.col_idx[col]);
+        }
+        for (long i = 0; i < A.nz_length; i++) {
+            assertEquals(A.nz_rows.get(i), B.nz_rows.get(i));
+        }
+    }
+
+    private void checkEquals( DMatrixSparseCSC A, DMatrixSparseCSCBig B ) {
+        assertEquals(A.numRows, B.numRows);
+        assertEquals(A.numCols, B.numCols);
+        for (int row = 0; row < A.numRows; row++) {
+            for (int col = 0; col < A.numCols; col++) {
+                assertEquals(A.get(row, col), B.get(row, col));
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.data;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDMatrixStrided {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void testGeneric() {
+        GenericTestsDMatrix g;
+        g = new GenericTestsDMatrix() {
+            @Override
+            protected DMatrix createMatrix( int numRows, int numCols ) {
+                // surround the view with padding so that errors in the index are more likely to be caught
+                return new DMatrixStrided(new double[(numRows + 2)*(numCols + 3)], numCols + 4, numCols + 3, numRows, numCols);
+            }
+        };
+
+        g.allTests();
+    }
+
+    @Test
+    public void view() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6, 7, rand);
+        DMatrixStrided V = DMatrixStrided.view(A, 2, 3, 3, 4);
+
+        assertEquals(3, V.getNumRows());
+        assertEquals(4, V.getNumCols());
+        assertEquals(7, V.stride);
+        assertSame(A.data, V.data);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(A.get(i + 2, j + 3), V.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+
+        // changes to the view should be visible in the original
+        V.set(1, 2, 99);
+        assertEquals(99, A.get(3, 5), UtilEjml.TEST_F64);
+
+        assertThrows(IllegalArgumentException.class, () -> DMatrixStrided.view(A, 4, 3, 3, 4));
+        assertThrows(IllegalArgumentException.class, () -> DMatrixStrided.view(A, 2, 4, 3, 4));
+        assertThrows(IllegalArgumentException.class, () -> DMatrixStrided.view(A, -1, 0, 3, 4));
+    }
+
+    @Test
+    public void subview() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6, 7, rand);
+        DMatrixStrided V = DMatrixStrided.view(A, 1, 1, 5, 6).subview(1, 2, 3, 2);
+
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 2; j++) {
+                assertEquals(A.get(i + 2, j + 3), V.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> V.subview(1, 0, 3, 2));
+    }
+
+    @Test
+    public void setView_checks() {
+        var V = new DMatrixStrided();
+        V.setView(new double[12], 2, 5, 2, 5);
+        assertEquals(2, V.offset);
+
+        assertThrows(IllegalArgumentException.class, () -> V.setView(new double[12], 3, 5, 2, 5));
+        assertThrows(IllegalArgumentException.class, () -> V.setView(new double[12], 0, 3, 2, 5));
+        assertThrows(IllegalArgumentException.class, () -> V.setView(new double[12], -1, 5, 2, 5));
+    }
+
+    @Test
+    public void isContiguous() {
+        DMatrixRMaj A = new DMatrixRMaj(5, 6);
+        assertTrue(new DMatrixStrided(A).isContiguous());
+        assertTrue(DMatrixStrided.view(A, 1, 0, 3, 6).isContiguous());
+        assertTrue(DMatrixStrided.view(A, 1, 2, 1, 3).isContiguous());
+        assertFalse(DMatrixStrided.view(A, 1, 2, 2, 3).isContiguous());
+    }
+
+    @Test
+    public void isOverlapping() {
+        DMatrixRMaj A = new DMatrixRMaj(10, 10);
+
+        // blocks which are side by side or on top of each other don't overlap
+        DMatrixStrided left = DMatrixStrided.view(A, 0, 0, 5, 5);
+        assertFalse(left.isOverlapping(DMatrixStrided.view(A, 0, 5, 5, 5)));
+        assertFalse(left.isOverlapping(DMatrixStrided.view(A, 5, 0, 5, 5)));
+        assertTrue(left.isOverlapping(DMatrixStrided.view(A, 4, 4, 3, 3)));
+        assertTrue(left.isOverlapping(left));
+
+        // a different array never overlaps
+        assertFalse(left.isOverlapping(new DMatrixStrided(new DMatrixRMaj(10, 10))));
+        // empty views never overlap
+        assertFalse(left.isOverlapping(DMatrixStrided.view(A, 0, 0, 0, 5)));
+
+        // different strides into the same array are compared conservatively
+        var other = new DMatrixStrided(A.data, 3, 4, 2, 2);
+        assertTrue(left.isOverlapping(other));
+        other = new DMatrixStrided(A.data, 60, 4, 2, 2);
+        assertFalse(left.isOverlapping(other));
+    }
+
+    @Test
+    public void zero_fill() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5, 6, 1, 2, rand);
+        DMatrixRMaj original = A.copy();
+        DMatrixStrided V = DMatrixStrided.view(A, 1, 2, 3, 3);
+
+        V.fill(5);
+        checkOnlyInside(original, A, 1, 2, 3, 3, 5);
+        V.zero();
+        checkOnlyInside(original, A, 1, 2, 3, 3, 0);
+    }
+
+    private void checkOnlyInside( DMatrixRMaj original, DMatrixRMaj found,
+                                  int row0, int col0, int rows, int cols, double value ) {
+        for (int i = 0; i < original.numRows; i++) {
+            for (int j = 0; j < original.numCols; j++) {
+                boolean inside = i >= row0 && i < row0 + rows && j >= col0 && j < col0 + cols;
+                double expected = inside ? value : original.get(i, j);
+                assertEquals(expected, found.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void copy() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5, 6, rand);
+        DMatrixStrided V = DMatrixStrided.view(A, 1, 2, 3, 4);
+        DMatrixStrided found = V.copy();
+
+        assertNotSame(A.data, found.data);
+        assertEquals(4, found.stride);
+        assertEquals(0, found.offset);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(V.get(i, j), found.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void setTo() {
+        DMatrixRMaj A = new DMatrixRMaj(5, 6);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(2, 3, rand);
+        DMatrixStrided V = DMatrixStrided.view(A, 1, 2, 2, 3);
+
+        V.setTo(B);
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(B.get(i, j), A.get(i + 1, j + 2), UtilEjml.TEST_F64);
+            }
+        }
+
+        // views can't be reshaped
+        assertThrows(MatrixDimensionException.class, () -> V.setTo(new DMatrixRMaj(3, 3)));
+    }
+
+    /**
+     * Copy between two views in the same matrix which overlap. Both directions are checked.
+     */
+    @Test
+    public void setTo_overlapping() {
+        for (int shift : new int[]{-1, 1}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6, 5, rand);
+            DMatrixRMaj original = A.copy();
+
+            DMatrixStrided src = DMatrixStrided.view(A, 2, 1, 3, 3);
+            DMatrixStrided dst = DMatrixStrided.view(A, 2 + shift, 1 + shift, 3, 3);
+            dst.setTo(src);
+
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    assertEquals(original.get(2 + i, 1 + j), dst.get(i, j), UtilEjml.TEST_F64);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.DoubleBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDOffHeapArray {
+    @Test
+    public void reshape() {
+        var array = new DOffHeapArray(0, 3);
+        assertEquals(0, array.length());
+        assertEquals(0, array.capacity());
+
+        array.reshape(9);
+        assertEquals(9, array.length());
+        assertEquals(9, array.capacity());
+        assertEquals(2, array.chunks.length);
+        // only the last chunk is allowed to be smaller than the chunk size
+        assertEquals(8, array.chunks[0].capacity());
+
+        // values should be preserved when it grows
+        for (int i = 0; i < 9; i++) {
+            array.set(i, i + 1);
+        }
+        array.reshape(30);
+        assertEquals(4, array.chunks.length);
+        assertEquals(8, array.chunks[1].capacity());
+        assertEquals(6, array.chunks[3].capacity());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(i + 1, array.get(i));
+        }
+
+        // shrinking doesn't discard chunks
+        array.reshape(2);
+        assertEquals(2, array.length());
+        assertEquals(4, array.chunks.length);
+    }
+
+    @Test
+    public void get_set() {
+        var array = new DOffHeapArray(20, 2);
+        for (int i = 0; i < 20; i++) {
+            array.set(i, i*2);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i*2, array.get(i));
+            assertEquals(i*2, array.unsafe_get(i));
+            assertEquals(i*2, array.chunks[i/4].get(i%4));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> array.get(20));
+        assertThrows(IllegalArgumentException.class, () -> array.set(-1, 2));
+    }
+
+    @Test
+    public void fill() {
+        var array = new DOffHeapArray(20, 2);
+        array.fill(3, 14, 2.5);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i >= 3 && i < 14 ? 2.5 : 0.0, array.get(i));
+        }
+    }
+
+    @Test
+    public void copyFrom_copyTo_array() {
+        var array = new DOffHeapArray(20, 2);
+        double[] src = new double[15];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = i + 1;
+        }
+        array.copyFrom(src, 2, 3, 11);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i >= 3 && i < 14 ? i : 0.0, array.get(i));
+        }
+
+        double[] dst = new double[15];
+        array.copyTo(5, dst, 1, 9);
+        for (int i = 0; i < dst.length; i++) {
+            assertEquals(i >= 1 && i < 10 ? i + 4 : 0.0, dst[i]);
+        }
+    }
+
+    @Test
+    public void copyFrom_chunked() {
+        // different chunk sizes to make sure chunk boundaries are handled
+        var src = new DOffHeapArray(20, 3);
+        for (int i = 0; i < 20; i++) {
+            src.set(i, i + 1);
+        }
+        var dst = new DOffHeapArray(20, 2);
+        dst.copyFrom(src, 5, 2, 13);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i >= 2 && i < 15 ? i + 4 : 0.0, dst.get(i));
+        }
+    }
+
+    @Test
+    public void setTo() {
+        var src = new DOffHeapArray(11, 3);
+        for (int i = 0; i < 11; i++) {
+            src.set(i, i + 1);
+        }
+        var dst = new DOffHeapArray(2, 1);
+        dst.setTo(src);
+        assertEquals(11, dst.length());
+        for (int i = 0; i < 11; i++) {
+            assertEquals(i + 1, dst.get(i));
+        }
+    }
+
+    @Test
+    public void wrap() {
+        DoubleBuffer[] chunks = new DoubleBuffer[]{DOffHeapArray.declareChunk(4), DOffHeapArray.declareChunk(2)};
+        chunks[1].put(1, 3.0);
+        var array = DOffHeapArray.wrap(chunks, 6, 2);
+        assertEquals(6, array.length());
+        assertEquals(3.0, array.get(5));
+
+        // only the last chunk can be a different size
+        assertThrows(IllegalArgumentException.class, () -> DOffHeapArray.wrap(
+                new DoubleBuffer[]{DOffHeapArray.declareChunk(2), DOffHeapArray.declareChunk(4)}, 6, 2));
+        // too short
+        assertThrows(IllegalArgumentException.class, () -> DOffHeapArray.wrap(chunks, 7, 2));
+    }
+
+    @Test
+    public void serialize() throws Exception {
+        var array = new DOffHeapArray(11, 2);
+        for (int i = 0; i < 11; i++) {
+            array.set(i, i + 0.5);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(array);
+        }
+        DOffHeapArray found;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            found = (DOffHeapArray)in.readObject();
+        }
+
+        assertEquals(11, found.length());
+        assertEquals(2, found.chunkBits);
+        for (int i = 0; i < 11; i++) {
+            assertEquals(i + 0.5, found.get(i));
+        }
+    }
+}
@@ -137,4 +137,26 @@ public class TestConvertMatrixData {
         }
     }
 
+    @Test
+    public void DSCC_FSCC() {
+        DMatrixSparseCSC A = new DMatrixSparseCSC(3,4,5);
+        A.set(0,1,1.5);
+        A.set(2,1,-2);
+        A.set(1,3,4);
+        FMatrixSparseCSC B = new FMatrixSparseCSC(1,1,0);
+        DMatrixSparseCSC C = new DMatrixSparseCSC(1,1,0);
+
+        ConvertMatrixData.convert(A,B);
+        ConvertMatrixData.convert(B,C);
+
+        assertEquals(A.nz_length,B.nz_length);
+        assertEquals(A.nz_length,C.nz_length);
+        for (int row = 0; row < A.numRows; row++) {
+            for (int col = 0; col < A.numCols; col++) {
+                assertEquals(A.isAssigned(row,col),B.isAssigned(row,col));
+                assertEquals(A.get(row,col),B.get(row,col),UtilEjml.TEST_F32);
+                assertEquals(A.get(row,col),C.get(row,col),UtilEjml.TEST_F32);
+            }
+        }
+    }
 }
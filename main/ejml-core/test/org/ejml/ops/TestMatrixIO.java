@@ -21,6 +21,7 @@ package org.ejml.ops;
 import org.ejml.EjmlUnitTests;
 import org.ejml.UtilEjml;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSCBig;
 import org.ejml.data.DMatrixSparseTriplet;
 import org.ejml.data.FMatrixSparseTriplet;
 import org.ejml.data.ZMatrixRMaj;
@@ -81,6 +82,31 @@ public class TestMatrixIO {
         EjmlUnitTests.assertEquals(original,found, UtilEjml.TEST_F64);
     }
 
+    @Test
+    public void load_matrix_market_big_F64() {
+        DMatrixSparseTriplet original = new DMatrixSparseTriplet(3,4,5);
+        original.set(2,1,1.5);
+        original.set(0,1,3.0);
+        original.set(2,3,2.5);
+
+        Writer output = new StringWriter();
+        MatrixIO.saveMatrixMarketD(original,"%.22f",output);
+        Reader input = new CharArrayReader(output.toString().toCharArray());
+        DMatrixSparseCSCBig found = MatrixIO.loadMatrixMarketBigD(input);
+
+        assertEquals(3, found.numRows);
+        assertEquals(4, found.numCols);
+        assertEquals(3, found.nz_length);
+        assertTrue(found.indicesSorted);
+        assertEquals(0, found.nz_rows.get(0));
+        assertEquals(2, found.nz_rows.get(1));
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(original.get(row,col), found.get(row,col), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
     @Test
     public void load_save_matrix_market_F32() {
         FMatrixSparseTriplet original = new FMatrixSparseTriplet(3,4,5);
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.ops;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.*;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.triplet.RandomMatrices_DSTL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMatrixIOBinary {
+    Random rand = new Random(234);
+    File file = createTempFile();
+
+    @AfterEach
+    public void cleanUp() {
+        // Can fail on Windows while the file is still memory mapped
+        file.delete();
+    }
+
+    @Test
+    public void dense_heap() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6, 4, rand);
+        MatrixIOBinary.save(A, file.getPath());
+
+        MatrixIOBinary.Header header = MatrixIOBinary.readHeader(file.getPath());
+        assertEquals(MatrixIOBinary.TYPE_DENSE, header.type);
+        assertEquals(6, header.numRows);
+        assertEquals(4, header.numCols);
+        assertEquals(24, header.length);
+        assertEquals(MatrixIOBinary.HEADER_BYTES + 24*8, file.length());
+
+        DMatrixRMaj found = MatrixIOBinary.loadDDRM(file.getPath(), null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, 0.0));
+    }
+
+    @Test
+    public void dense_mapped() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6, 4, rand);
+        MatrixIOBinary.save(new DMatrixRMajOffHeap(A), file.getPath());
+
+        DMatrixRMajOffHeap found = MatrixIOBinary.mapDDRM(file.getPath(), false);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, new DMatrixRMaj(found), 0.0));
+
+        // Changes should be written to the file
+        found = MatrixIOBinary.mapDDRM(file.getPath(), true);
+        found.set(2, 3, 100.0);
+        A.set(2, 3, 100.0);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, MatrixIOBinary.loadDDRM(file.getPath(), null), 0.0));
+    }
+
+    @Test
+    public void csc_heap() throws IOException {
+        DMatrixSparseCSC A = DConvertMatrixStruct.convert(RandomMatrices_DSTL.uniform(8, 5, 15, -1, 1, rand), (DMatrixSparseCSC)null);
+        MatrixIOBinary.save(A, file.getPath());
+
+        // reshape a matrix which was passed in
+        DMatrixSparseCSC found = MatrixIOBinary.loadDSCC(file.getPath(), new DMatrixSparseCSC(1, 1, 1));
+        EjmlUnitTests.assertEquals(A, found, 0.0);
+        assertEquals(A.indicesSorted, found.indicesSorted);
+    }
+
+    @Test
+    public void csc_mapped() throws IOException {
+        DMatrixSparseCSC A = DConvertMatrixStruct.convert(RandomMatrices_DSTL.uniform(8, 5, 15, -1, 1, rand), (DMatrixSparseCSC)null);
+        var offHeap = new DMatrixSparseCSCOffHeap(1, 1);
+        offHeap.setTo(A);
+        MatrixIOBinary.save(offHeap, file.getPath());
+
+        DMatrixSparseCSCOffHeap found = MatrixIOBinary.mapDSCC(file.getPath(), false);
+        assertEquals(A.nz_length, found.nz_length);
+        for (int row = 0; row < A.numRows; row++) {
+            for (int col = 0; col < A.numCols; col++) {
+                assertEquals(A.get(row, col), found.get(row, col));
+            }
+        }
+
+        // Both ways of saving should produce the same file
+        DMatrixSparseCSC heap = MatrixIOBinary.loadDSCC(file.getPath(), null);
+        EjmlUnitTests.assertEquals(A, heap, 0.0);
+    }
+
+    @Test
+    public void triplet() throws IOException {
+        DMatrixSparseTriplet A = RandomMatrices_DSTL.uniform(8, 5, 15, -1, 1, rand);
+        MatrixIOBinary.save(A, file.getPath());
+
+        DMatrixSparseTriplet found = MatrixIOBinary.loadDSTL(file.getPath(), null);
+        EjmlUnitTests.assertEquals(A, found, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void wrongType() throws IOException {
+        MatrixIOBinary.save(RandomMatrices_DDRM.rectangle(3, 3, rand), file.getPath());
+        assertThrows(IOException.class, () -> MatrixIOBinary.loadDSCC(file.getPath(), null));
+        assertThrows(IOException.class, () -> MatrixIOBinary.mapDSCC(file.getPath(), false));
+    }
+
+    @Test
+    public void notBinaryFile() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[MatrixIOBinary.HEADER_BYTES]);
+        }
+        assertThrows(IOException.class, () -> MatrixIOBinary.readHeader(file.getPath()));
+    }
+
+    private static File createTempFile() {
+        try {
+            return File.createTempFile("ejml", ".bin");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.ops;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixRMajOffHeap;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.csc.MatrixFeatures_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMatrixIONumPy {
+    Random rand = new Random(234);
+    File file = createTempFile();
+
+    @AfterEach
+    public void cleanUp() {
+        // Can fail on Windows while the file is still memory mapped
+        file.delete();
+    }
+
+    @Test
+    public void npy_dense() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6, 4, rand);
+        MatrixIONumPy.saveNpy(A, file.getPath());
+
+        // the data must start on the alignment boundary
+        assertEquals(0, (file.length() - 24*8)%MatrixIONumPy.ALIGNMENT);
+
+        MatrixIONumPy.Header header = MatrixIONumPy.readNpyHeader(file.getPath());
+        assertEquals("<f8", header.descr);
+        assertFalse(header.fortranOrder);
+        assertArrayEquals(new long[]{6, 4}, header.shape);
+        assertEquals(file.length() - 24*8, header.dataOffset);
+
+        DMatrixRMaj found = MatrixIONumPy.loadNpyDDRM(file.getPath(), new DMatrixRMaj(1, 1));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, 0.0));
+    }
+
+    @Test
+    public void npy_mapped() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5, 7, rand);
+        MatrixIONumPy.saveNpy(new DMatrixRMajOffHeap(A), file.getPath());
+
+        DMatrixRMajOffHeap found = MatrixIONumPy.mapNpyDDRM(file.getPath(), true);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, new DMatrixRMaj(found), 0.0));
+
+        // Changes should be written to the file
+        found.set(2, 3, 99.0);
+        assertEquals(99.0, MatrixIONumPy.loadNpyDDRM(file.getPath(), null).get(2, 3));
+    }
+
+    /**
+     * Files created by NumPy with a different type, byte order, and Fortran ordering
+     */
+    @Test
+    public void npy_fortranBigEndianInt() throws IOException {
+        int rows = 3, cols = 2;
+        ByteBuffer data = ByteBuffer.allocate(rows*cols*4).order(ByteOrder.BIG_ENDIAN);
+        for (int col = 0; col < cols; col++) {
+            for (int row = 0; row < rows; row++) {
+                data.putInt(-(row*10 + col));
+            }
+        }
+        writeNpy(file, "{'descr': '>i4', 'fortran_order': True, 'shape': (3, 2), }", data.array());
+
+        DMatrixRMaj found = MatrixIONumPy.loadNpyDDRM(file.getPath(), null);
+        assertEquals(rows, found.numRows);
+        assertEquals(cols, found.numCols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                assertEquals(-(row*10 + col), found.get(row, col));
+            }
+        }
+
+        // Fortran ordering can't be mapped
+        assertThrows(IOException.class, () -> MatrixIONumPy.mapNpyDDRM(file.getPath(), false));
+    }
+
+    /**
+     * One dimensional arrays are column vectors
+     */
+    @Test
+    public void npy_vectorFloat32() throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(5*4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 5; i++) {
+            data.putFloat(i*0.5f);
+        }
+        writeNpy(file, "{'descr': '<f4', 'fortran_order': False, 'shape': (5,), }", data.array());
+
+        DMatrixRMaj found = MatrixIONumPy.loadNpyDDRM(file.getPath(), null);
+        assertEquals(5, found.numRows);
+        assertEquals(1, found.numCols);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i*0.5, found.get(i, 0));
+        }
+    }
+
+    @Test
+    public void npy_badInput() throws IOException {
+        writeNpy(file, "{'descr': '<c16', 'fortran_order': False, 'shape': (1,), }", new byte[16]);
+        assertThrows(IOException.class, () -> MatrixIONumPy.loadNpyDDRM(file.getPath(), null));
+
+        writeNpy(file, "{'descr': '<f8', 'fortran_order': False, 'shape': (2, 2), }", new byte[8]);
+        assertThrows(EOFException.class, () -> MatrixIONumPy.loadNpyDDRM(file.getPath(), null));
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write("not a numpy file".getBytes(StandardCharsets.US_ASCII));
+        }
+        assertThrows(IOException.class, () -> MatrixIONumPy.loadNpyDDRM(file.getPath(), null));
+    }
+
+    @Test
+    public void parseHeader() throws IOException {
+        MatrixIONumPy.Header header = MatrixIONumPy.parseHeader(
+                "{\"shape\": (), \"fortran_order\": False, \"descr\": \"|u1\"}");
+        assertEquals("|u1", header.descr);
+        assertEquals(0, header.shape.length);
+        assertEquals(1, header.getNumRows());
+        assertEquals(1, header.getNumCols());
+        assertEquals('u', header.getKind());
+        assertEquals(1, header.getItemSize());
+
+        header = MatrixIONumPy.parseHeader("{'descr': '<i8', 'fortran_order': True, 'shape': (3L, 4L, 5L), }");
+        assertArrayEquals(new long[]{3, 4, 5}, header.shape);
+        assertEquals(60, header.getNumElements());
+        assertThrows(IllegalArgumentException.class, header::getNumRows);
+
+        assertThrows(IOException.class, () -> MatrixIONumPy.parseHeader("{'descr': '<f8', 'shape': (3,), }"));
+    }
+
+    @Test
+    public void npz_sparse() throws IOException {
+        for (boolean compressed : new boolean[]{false, true}) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(20, 12, 50, rand);
+            MatrixIONumPy.saveNpz(A, file.getPath(), compressed);
+
+            // Check the archive's structure against what scipy writes
+            try (ZipFile zip = new ZipFile(file)) {
+                for (String name : new String[]{"indices", "indptr", "format", "shape", "data"}) {
+                    ZipEntry entry = zip.getEntry(name + ".npy");
+                    assertNotNull(entry);
+                    assertEquals(compressed ? ZipEntry.DEFLATED : ZipEntry.STORED, entry.getMethod());
+                }
+            }
+
+            DMatrixSparseCSC found = MatrixIONumPy.loadNpzDSCC(file.getPath(), null);
+            assertTrue(found.indicesSorted);
+            assertTrue(MatrixFeatures_DSCC.isEquals(A, found));
+        }
+    }
+
+    @Test
+    public void npz_csr() throws IOException {
+        // [1 0 2]
+        // [0 0 3]
+        // [4 5 0]
+        // [0 0 0]
+        writeNpz(file, "csr", 4, 3, new int[]{0, 2, 3, 5, 5}, new int[]{2, 0, 2, 1, 0}, new double[]{2, 1, 3, 5, 4});
+
+        DMatrixSparseCSC found = MatrixIONumPy.loadNpzDSCC(file.getPath(), null);
+        assertEquals(4, found.numRows);
+        assertEquals(3, found.numCols);
+        assertEquals(5, found.nz_length);
+        assertTrue(found.indicesSorted);
+        assertEquals(1, found.get(0, 0));
+        assertEquals(2, found.get(0, 2));
+        assertEquals(3, found.get(1, 2));
+        assertEquals(4, found.get(2, 0));
+        assertEquals(5, found.get(2, 1));
+        assertEquals(0, found.get(3, 1));
+
+        // Unsorted CSC input
+        writeNpz(file, "csc", 3, 2, new int[]{0, 2, 3}, new int[]{2, 0, 1}, new double[]{1, 2, 3});
+        found = MatrixIONumPy.loadNpzDSCC(file.getPath(), null);
+        assertFalse(found.indicesSorted);
+        assertEquals(1, found.get(2, 0));
+        assertEquals(2, found.get(0, 0));
+        assertEquals(3, found.get(1, 1));
+
+        // Index out of bounds
+        writeNpz(file, "csc", 3, 2, new int[]{0, 2, 3}, new int[]{3, 0, 1}, new double[]{1, 2, 3});
+        assertThrows(IOException.class, () -> MatrixIONumPy.loadNpzDSCC(file.getPath(), null));
+
+        writeNpz(file, "coo", 3, 2, new int[]{0, 2, 3}, new int[]{2, 0, 1}, new double[]{1, 2, 3});
+        assertThrows(IOException.class, () -> MatrixIONumPy.loadNpzDSCC(file.getPath(), null));
+    }
+
+    @Test
+    public void npz_dense() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(3, 5, rand);
+        File npy = createTempFile();
+        try {
+            MatrixIONumPy.saveNpy(A, npy.getPath());
+            try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+                 InputStream in = new FileInputStream(npy)) {
+                zip.putNextEntry(new ZipEntry("weights.npy"));
+                byte[] buffer = new byte[1024];
+                int length;
+                while ((length = in.read(buffer)) > 0) {
+                    zip.write(buffer, 0, length);
+                }
+                zip.closeEntry();
+            }
+        } finally {
+            npy.delete();
+        }
+
+        DMatrixRMaj found = MatrixIONumPy.loadNpzDDRM(file.getPath(), "weights", null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, 0.0));
+        assertThrows(IOException.class, () -> MatrixIONumPy.loadNpzDDRM(file.getPath(), "bias", null));
+    }
+
+    /**
+     * Writes a version 1.0 .npy file with the specified header
+     */
+    private static void writeNpy( OutputStream out, String dict, byte[] data ) throws IOException {
+        StringBuilder text = new StringBuilder(dict);
+        while ((10 + text.length() + 1)%64 != 0) {
+            text.append(' ');
+        }
+        text.append('\n');
+        out.write(MatrixIONumPy.MAGIC);
+        out.write(new byte[]{1, 0, (byte)text.length(), (byte)(text.length() >> 8)});
+        out.write(text.toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.write(data);
+    }
+
+    private static void writeNpy( File file, String dict, byte[] data ) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            writeNpy(out, dict, data);
+        }
+    }
+
+    /**
+     * Creates an archive the same way scipy does. The format is saved as a unicode string, which is what
+     * numpy does with a Python 3 str.
+     */
+    private static void writeNpz( File file, String format, int numRows, int numCols,
+                                  int[] indptr, int[] indices, double[] data ) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            ByteBuffer bytes = ByteBuffer.allocate(indices.length*8).order(ByteOrder.BIG_ENDIAN);
+            for (int i : indices) {
+                bytes.putLong(i);
+            }
+            zip.putNextEntry(new ZipEntry("indices.npy"));
+            writeNpy(zip, "{'descr': '>i8', 'fortran_order': False, 'shape': (" + indices.length + ",), }", bytes.array());
+
+            bytes = ByteBuffer.allocate(indptr.length*4).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i : indptr) {
+                bytes.putInt(i);
+            }
+            zip.putNextEntry(new ZipEntry("indptr.npy"));
+            writeNpy(zip, "{'descr': '<i4', 'fortran_order': False, 'shape': (" + indptr.length + ",), }", bytes.array());
+
+            bytes = ByteBuffer.allocate(format.length()*4).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < format.length(); i++) {
+                bytes.putInt(format.charAt(i));
+            }
+            zip.putNextEntry(new ZipEntry("format.npy"));
+            writeNpy(zip, "{'descr': '<U" + format.length() + "', 'fortran_order': False, 'shape': (), }", bytes.array());
+
+            bytes = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putLong(numRows).putLong(numCols);
+            zip.putNextEntry(new ZipEntry("shape.npy"));
+            writeNpy(zip, "{'descr': '<i8', 'fortran_order': False, 'shape': (2,), }", bytes.array());
+
+            bytes = ByteBuffer.allocate(data.length*8).order(ByteOrder.LITTLE_ENDIAN);
+            for (double d : data) {
+                bytes.putDouble(d);
+            }
+            zip.putNextEntry(new ZipEntry("data.npy"));
+            writeNpy(zip, "{'descr': '<f8', 'fortran_order': False, 'shape': (" + data.length + ",), }", bytes.array());
+        }
+    }
+
+    private static File createTempFile() {
+        try {
+            return File.createTempFile("ejml", ".npy");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.ops;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.sparse.triplet.RandomMatrices_DSTL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestReadMatrixMarketCSC {
+    Random rand = new Random(234);
+    File file = createTempFile();
+
+    @AfterEach
+    public void cleanUp() {
+        file.delete();
+    }
+
+    @Test
+    public void general() throws IOException {
+        DMatrixSparseTriplet original = RandomMatrices_DSTL.uniform(30, 25, 200, -1, 1, rand);
+        String text = toText(original);
+        writeText(text, false);
+
+        DMatrixSparseCSC expected = DConvertMatrixStruct.convert(
+                MatrixIO.loadMatrixMarketD(new StringReader(text)), (DMatrixSparseCSC)null);
+
+        // small blocks so that multiple threads are used
+        var alg = new ReadMatrixMarketCSC();
+        alg.minBlockBytes = 50;
+        alg.bufferBytes = 16;
+        DMatrixSparseCSC found = alg.read(file.getPath());
+
+        assertTrue(found.indicesSorted);
+        assertEquals(expected.nz_length, found.nz_length);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void gzip() throws IOException {
+        DMatrixSparseTriplet original = RandomMatrices_DSTL.uniform(30, 25, 200, -1, 1, rand);
+        String text = toText(original);
+        writeText(text, true);
+
+        DMatrixSparseCSC expected = DConvertMatrixStruct.convert(
+                MatrixIO.loadMatrixMarketD(new StringReader(text)), (DMatrixSparseCSC)null);
+        DMatrixSparseCSC found = MatrixIO.loadMatrixMarketDSCC(file.getPath());
+
+        assertTrue(found.indicesSorted);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void symmetric_pattern() throws IOException {
+        writeText("%%MatrixMarket matrix coordinate pattern symmetric\n" +
+                "% comment\n" +
+                "\n" +
+                "3 3 3\n" +
+                "1 1\n" +
+                "3 1\n" +
+                "%another comment\n" +
+                "  3 2  \r\n", false);
+
+        DMatrixSparseCSC found = MatrixIO.loadMatrixMarketDSCC(file.getPath());
+        assertEquals(5, found.nz_length);
+        double[][] expected = {{1, 0, 1}, {0, 0, 1}, {1, 1, 0}};
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals(expected[row][col], found.get(row, col));
+            }
+        }
+    }
+
+    @Test
+    public void skewSymmetric() throws IOException {
+        writeText("%%MatrixMarket matrix coordinate real skew-symmetric\n" +
+                "2 2 1\n" +
+                "2 1 2.5e-1\n", false);
+
+        DMatrixSparseCSC found = MatrixIO.loadMatrixMarketDSCC(file.getPath());
+        assertEquals(2, found.nz_length);
+        assertEquals(0.25, found.get(1, 0));
+        assertEquals(-0.25, found.get(0, 1));
+    }
+
+    @Test
+    public void badInput() throws IOException {
+        // number of entries doesn't match the size line
+        writeText("%%MatrixMarket matrix coordinate real general\n3 3 2\n1 1 2.0\n", false);
+        assertThrows(IOException.class, () -> MatrixIO.loadMatrixMarketDSCC(file.getPath()));
+
+        // out of bounds
+        writeText("%%MatrixMarket matrix coordinate real general\n3 3 1\n4 1 2.0\n", false);
+        assertThrows(IOException.class, () -> MatrixIO.loadMatrixMarketDSCC(file.getPath()));
+
+        // dense array format isn't supported
+        writeText("%%MatrixMarket matrix array real general\n2 1\n1.0\n2.0\n", false);
+        assertThrows(IOException.class, () -> MatrixIO.loadMatrixMarketDSCC(file.getPath()));
+    }
+
+    @Test
+    public void parseDouble() {
+        String[] values = {"0", "-0", "1", "+2.5", "-3.75", "0.001", "1.5e10", "1.5E-10", "-7e+3", "123456789012345678",
+                "1.2345678901234567890123", "9007199254740993", "1e23", "4.9e-324", "1.7976931348623157e308",
+                ".5", "5.", "NaN", "-Infinity", "0.1", "0.30000000000000004"};
+        for (String s : values) {
+            byte[] text = s.getBytes(US_ASCII);
+            double found = ReadMatrixMarketCSC.parseDouble(text, text.length);
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(s)), Double.doubleToLongBits(found), s);
+        }
+
+        for (int trial = 0; trial < 1000; trial++) {
+            String s = Double.toString((rand.nextDouble() - 0.5)*Math.pow(10, rand.nextInt(40) - 20));
+            byte[] text = s.getBytes(US_ASCII);
+            assertEquals(Double.parseDouble(s), ReadMatrixMarketCSC.parseDouble(text, text.length), s);
+        }
+    }
+
+    private static String toText( DMatrixSparseTriplet original ) {
+        Writer output = new StringWriter();
+        MatrixIO.saveMatrixMarketD(original, "%.17g", output);
+        return output.toString();
+    }
+
+    private void writeText( String text, boolean gzip ) throws IOException {
+        try (OutputStream out = gzip ? new GZIPOutputStream(new FileOutputStream(file)) : new FileOutputStream(file)) {
+            out.write(text.getBytes(US_ASCII));
+        }
+    }
+
+    private static File createTempFile() {
+        try {
+            return File.createTempFile("ejml", ".mtx");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.simd;
+
+import org.ejml.UtilEjml;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares implementations of {@link ArrayKernels_F64} against straight forward loops. Lengths are selected so
+ * that vectorized implementations need to handle the left over elements.
+ *
+ * @author Peter Abeles
+ */
+public abstract class GenericArrayKernelsChecks_F64 {
+    protected Random rand = new Random(234);
+
+    protected int[] lengths = new int[]{0, 1, 3, 4, 7, 8, 9, 16, 31, 60, 101};
+
+    public abstract ArrayKernels_F64 createKernels();
+
+    @Test
+    void dot() {
+        ArrayKernels_F64 alg = createKernels();
+        for (int length : lengths) {
+            double[] x = randomArray(length + 3);
+            double[] y = randomArray(length + 5);
+
+            double expected = 0;
+            for (int i = 0; i < length; i++) {
+                expected += x[3 + i]*y[1 + i];
+            }
+            assertEquals(expected, alg.dot(x, 3, y, 1, length), UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void axpy() {
+        ArrayKernels_F64 alg = createKernels();
+        for (int length : lengths) {
+            double[] x = randomArray(length + 2);
+            double[] y = randomArray(length + 4);
+            double[] expected = y.clone();
+            for (int i = 0; i < length; i++) {
+                expected[3 + i] += 1.5*x[2 + i];
+            }
+            alg.axpy(1.5, x, 2, y, 3, length);
+            assertArrayEquals(expected, y, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void scale() {
+        ArrayKernels_F64 alg = createKernels();
+        for (int length : lengths) {
+            double[] x = randomArray(length + 2);
+            double[] y = randomArray(length + 4);
+            double[] expected = y.clone();
+            for (int i = 0; i < length; i++) {
+                expected[3 + i] = -0.5*x[2 + i];
+            }
+            alg.scale(-0.5, x, 2, y, 3, length);
+            assertArrayEquals(expected, y, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void dotGather() {
+        ArrayKernels_F64 alg = createKernels();
+        for (int length : lengths) {
+            double[] values = randomArray(length + 3);
+            int[] indices = randomIndices(length + 3, length*2 + 1);
+            double[] x = randomArray(length*2 + 3);
+
+            double expected = 0;
+            for (int i = 2; i < length + 2; i++) {
+                expected += values[i]*x[2 + indices[i]];
+            }
+            assertEquals(expected, alg.dotGather(values, indices, 2, length + 2, x, 2), UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void axpyScatter() {
+        ArrayKernels_F64 alg = createKernels();
+        for (int length : lengths) {
+            double[] values = randomArray(length + 3);
+            int[] indices = randomIndices(length + 3, length*2 + 1);
+            double[] y = randomArray(length*2 + 3);
+            double[] expected = y.clone();
+
+            for (int i = 2; i < length + 2; i++) {
+                expected[1 + indices[i]] += 2.0*values[i];
+            }
+            alg.axpyScatter(2.0, values, indices, 2, length + 2, y, 1);
+            assertArrayEquals(expected, y, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void gemmKernel4x8() {
+        ArrayKernels_F64 alg = createKernels();
+        for (int kc : new int[]{1, 5, 64}) {
+            double[] a = randomArray(2 + 4*kc);
+            double[] b = randomArray(3 + 8*kc);
+            double[] tile = randomArray(5 + 32);
+            double[] expected = tile.clone();
+
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < 8; j++) {
+                    double sum = 0;
+                    for (int p = 0; p < kc; p++) {
+                        sum += a[2 + p*4 + i]*b[3 + p*8 + j];
+                    }
+                    expected[5 + i*8 + j] = sum;
+                }
+            }
+            alg.gemmKernel4x8(kc, a, 2, b, 3, tile, 5);
+            assertArrayEquals(expected, tile, UtilEjml.TEST_F64);
+        }
+    }
+
+    protected double[] randomArray( int length ) {
+        double[] array = new double[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = rand.nextDouble()*2 - 1;
+        }
+        return array;
+    }
+
+    /**
+     * Random indices with no duplicates, like the rows in a column of a sparse matrix
+     */
+    protected int[] randomIndices( int length, int range ) {
+        int[] all = new int[range];
+        for (int i = 0; i < range; i++) {
+            all[i] = i;
+        }
+        for (int i = 0; i < range; i++) {
+            int j = i + rand.nextInt(range - i);
+            int tmp = all[i];
+            all[i] = all[j];
+            all[j] = tmp;
+        }
+        int[] indices = new int[length];
+        System.arraycopy(all, 0, indices, 0, Math.min(length, range));
+        return indices;
+    }
+}
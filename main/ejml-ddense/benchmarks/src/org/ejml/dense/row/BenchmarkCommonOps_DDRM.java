@@ -21,6 +21,8 @@ package org.ejml.dense.row;
 import org.ejml.data.BMatrixRMaj;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.ElementLocation;
+import org.ejml.dense.row.mult.MatrixMatrixMult_DDRM;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -80,6 +82,10 @@ public class BenchmarkCommonOps_DDRM {
 
     // @formatter:off
     @Benchmark public void mult() {CommonOps_DDRM.mult(A, B, C);}
+    @Benchmark public void mult_reorder() { MatrixMatrixMult_DDRM.mult_reorder(A, B, C); }
+    @Benchmark public void mult_packed() { MatrixMultPacked_DDRM.mult(1.0, A, false, B, false, C, false, null, null); }
+    @Benchmark public void multTransAB_aux() { MatrixMatrixMult_DDRM.multTransAB_aux(A, B, C, null); }
+    @Benchmark public void multTransAB_packed() { MatrixMultPacked_DDRM.mult(1.0, A, true, B, true, C, false, null, null); }
     @Benchmark public void multAdd() { CommonOps_DDRM.multAdd(A, B, C); }
     @Benchmark public void mult_alpha() { CommonOps_DDRM.mult(2.1, A, B, C); }
     @Benchmark public void multTransA() { CommonOps_DDRM.multTransA(A, B, C); }
@@ -60,6 +60,8 @@ public class GeneratorBlockInnerMultiplication {
                 "\n" +
                 "package org.ejml.dense.block;\n" +
                 "\n" +
+                "import org.ejml.simd.EjmlSimd;\n" +
+                "\n" +
                 "/**\n" +
                 " * <p>\n" +
                 " * Matrix multiplication for the inner row major blocks, typically inside of a {@link org.ejml.data.DMatrixRBlock}.\n" +
@@ -91,7 +93,7 @@ public class GeneratorBlockInnerMultiplication {
 
         stream.println();
 
-        String o = ( opType == Operation.MINUS ) ? "-=" : "+=";
+        String s = ( opType == Operation.MINUS ) ? "-" : "";
         String m = hasAlpha ? "alpha*" : "";
 
         stream.print(
@@ -100,31 +102,24 @@ public class GeneratorBlockInnerMultiplication {
                 "        for( int i = 0; i < heightA; i++ , rowC += widthC ) {\n" +
                 "            int b = indexB;\n" +
                 "\n" +
-                "            final int endC = rowC + widthC;\n" +
                 "            final int endA = a + widthA;"+
                 "\n"+
                 "            while( a != endA ) {//for( int k = 0; k < widthA; k++ ) {\n" +
                 "                double valA = "+m+"dataA[a++];\n" +
-                "\n" +
-                "                int c = rowC;\n" +
                 "\n");
 
         if( opType == Operation.SET ) {
              stream.print(
                 "                if( b == indexB ) {\n" +
-                "                    while( c != endC  ) {//for( int j = 0; j < widthC; j++ ) {\n" +
-                "                        dataC[ c++ ] = valA * dataB[ b++ ];\n" +
-                "                    }\n" +
+                "                    EjmlSimd.KERNELS_F64.scale(valA, dataB, b, dataC, rowC, widthC);\n" +
                 "                } else {\n" +
-                "                    while( c != endC  ) {//for( int j = 0; j < widthC; j++ ) {\n" +
-                "                        dataC[ c++ ] "+o+" valA * dataB[ b++ ];\n" +
-                "                    }\n" +
-                "                }\n");
+                "                    EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);\n" +
+                "                }\n" +
+                "                b += widthC;\n");
         } else {
              stream.print(
-                "                while( c != endC  ) {//for( int j = 0; j < widthC; j++ ) {\n" +
-                "                    dataC[ c++ ] "+o+" valA * dataB[ b++ ];\n" +
-                "                }\n");
+                "                EjmlSimd.KERNELS_F64.axpy("+s+"valA, dataB, b, dataC, rowC, widthC);\n" +
+                "                b += widthC;\n");
         }
         stream.println(
                 "            }\n" +
@@ -145,7 +140,7 @@ public class GeneratorBlockInnerMultiplication {
 
         createHeader(hasAlpha,opType,true,false);
 
-        String o = ( opType == Operation.MINUS ) ? "-=" : "+=";
+        String s = ( opType == Operation.MINUS ) ? "-" : "";
         String m = hasAlpha ? "alpha*" : "";
 
         stream.print(
@@ -169,27 +164,19 @@ public class GeneratorBlockInnerMultiplication {
         "            // for( int k = 0; k < heightA; k++ ) {\n" +
         "            while(colA != endA ) {\n" +
         "                double valA = "+m+"dataA[colA];\n" +
-        "\n" +
-        "                int c = rowC;\n" +
-        "                final int endB = b + widthC;\n" +
-        "\n" +
-        "                //for( int j = 0; j < widthC; j++ ) {\n");
+        "\n");
         if( opType == Operation.SET ) {
             stream.print(
                     "                if( b == indexB ) {\n" +
-                    "                    while( b != endB ) {\n" +
-                    "                        dataC[ c++ ] = valA * dataB[b++];\n" +
-                    "                    } \n" +
+                    "                    EjmlSimd.KERNELS_F64.scale(valA, dataB, b, dataC, rowC, widthC);\n" +
                     "                } else {\n" +
-                    "                    while( b != endB ) {\n" +
-                    "                        dataC[ c++ ] "+o+" valA * dataB[b++];\n" +
-                    "                    }\n" +
-                    "                }\n");
+                    "                    EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);\n" +
+                    "                }\n" +
+                    "                b += widthC;\n");
         } else {
             stream.print(
-                    "                while( b != endB ) {\n" +
-                    "                    dataC[ c++ ] "+o+" valA * dataB[b++];\n" +
-                    "                }\n");
+                    "                EjmlSimd.KERNELS_F64.axpy("+s+"valA, dataB, b, dataC, rowC, widthC);\n" +
+                    "                b += widthC;\n");
         }
         stream.print(
         "                colA += widthA;\n"+
@@ -209,11 +196,7 @@ public class GeneratorBlockInnerMultiplication {
         stream.println(
                 "        for( int i = 0; i < heightA; i++ ) {\n" +
                 "            for( int j = 0; j < widthC; j++ ) {\n" +
-                "                double val = 0;\n" +
-                "\n" +
-                "                for( int k = 0; k < widthA; k++ ) {\n" +
-                "                    val += dataA[i*widthA + k + indexA] * dataB[j*widthA + k + indexB];\n" +
-                "                }\n" +
+                "                double val = EjmlSimd.KERNELS_F64.dot(dataA, i*widthA + indexA, dataB, j*widthA + indexB, widthA);\n" +
                 "\n" +
                 "                dataC[ i*widthC + j + indexC ] "+o+" val;\n" +
                 "            }\n" +
@@ -19,6 +19,7 @@
 package org.ejml.dense.block;
 
 import org.ejml.data.DMatrixRBlock;
+import org.ejml.simd.EjmlSimd;
 
 /**
  * <p>
@@ -56,16 +57,12 @@ public class InnerMultiplication_DDRB {
         for (int i = 0; i < heightA; i++, rowC += widthC) {
             int b = indexB;
 
-            final int endC = rowC + widthC;
             final int endA = a + widthA;
             while (a != endA) {//for( int k = 0; k < widthA; k++ ) {
                 double valA = dataA[a++];
 
-                int c = rowC;
-
-                while (c != endC) {//for( int j = 0; j < widthC; j++ ) {
-                    dataC[c++] += valA*dataB[b++];
-                }
+                EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);
+                b += widthC;
             }
         }
     }
@@ -99,13 +96,8 @@ public class InnerMultiplication_DDRB {
             while (colA != endA) {
                 double valA = dataA[colA];
 
-                int c = rowC;
-                final int endB = b + widthC;
-
-                //for( int j = 0; j < widthC; j++ ) {
-                while (b != endB) {
-                    dataC[c++] += valA*dataB[b++];
-                }
+                EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);
+                b += widthC;
                 colA += widthA;
             }
         }
@@ -123,11 +115,7 @@ public class InnerMultiplication_DDRB {
                                             final int heightA, final int widthA, final int widthC ) {
         for (int i = 0; i < heightA; i++) {
             for (int j = 0; j < widthC; j++) {
-                double val = 0;
-
-                for (int k = 0; k < widthA; k++) {
-                    val += dataA[i*widthA + k + indexA]*dataB[j*widthA + k + indexB];
-                }
+                double val = EjmlSimd.KERNELS_F64.dot(dataA, i*widthA + indexA, dataB, j*widthA + indexB, widthA);
 
                 dataC[i*widthC + j + indexC] += val;
             }
@@ -157,16 +145,12 @@ public class InnerMultiplication_DDRB {
         for (int i = 0; i < heightA; i++, rowC += widthC) {
             int b = indexB;
 
-            final int endC = rowC + widthC;
             final int endA = a + widthA;
             while (a != endA) {//for( int k = 0; k < widthA; k++ ) {
                 double valA = dataA[a++];
 
-                int c = rowC;
-
-                while (c != endC) {//for( int j = 0; j < widthC; j++ ) {
-                    dataC[c++] -= valA*dataB[b++];
-                }
+                EjmlSimd.KERNELS_F64.axpy(-valA, dataB, b, dataC, rowC, widthC);
+                b += widthC;
             }
         }
     }
@@ -200,13 +184,8 @@ public class InnerMultiplication_DDRB {
             while (colA != endA) {
                 double valA = dataA[colA];
 
-                int c = rowC;
-                final int endB = b + widthC;
-
-                //for( int j = 0; j < widthC; j++ ) {
-                while (b != endB) {
-                    dataC[c++] -= valA*dataB[b++];
-                }
+                EjmlSimd.KERNELS_F64.axpy(-valA, dataB, b, dataC, rowC, widthC);
+                b += widthC;
                 colA += widthA;
             }
         }
@@ -224,11 +203,7 @@ public class InnerMultiplication_DDRB {
                                              final int heightA, final int widthA, final int widthC ) {
         for (int i = 0; i < heightA; i++) {
             for (int j = 0; j < widthC; j++) {
-                double val = 0;
-
-                for (int k = 0; k < widthA; k++) {
-                    val += dataA[i*widthA + k + indexA]*dataB[j*widthA + k + indexB];
-                }
+                double val = EjmlSimd.KERNELS_F64.dot(dataA, i*widthA + indexA, dataB, j*widthA + indexB, widthA);
 
                 dataC[i*widthC + j + indexC] -= val;
             }
@@ -258,22 +233,16 @@ public class InnerMultiplication_DDRB {
         for (int i = 0; i < heightA; i++, rowC += widthC) {
             int b = indexB;
 
-            final int endC = rowC + widthC;
             final int endA = a + widthA;
             while (a != endA) {//for( int k = 0; k < widthA; k++ ) {
                 double valA = dataA[a++];
 
-                int c = rowC;
-
                 if (b == indexB) {
-                    while (c != endC) {//for( int j = 0; j < widthC; j++ ) {
-                        dataC[c++] = valA*dataB[b++];
-                    }
+                    EjmlSimd.KERNELS_F64.scale(valA, dataB, b, dataC, rowC, widthC);
                 } else {
-                    while (c != endC) {//for( int j = 0; j < widthC; j++ ) {
-                        dataC[c++] += valA*dataB[b++];
-                    }
+                    EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);
                 }
+                b += widthC;
             }
         }
     }
@@ -307,19 +276,12 @@ public class InnerMultiplication_DDRB {
             while (colA != endA) {
                 double valA = dataA[colA];
 
-                int c = rowC;
-                final int endB = b + widthC;
-
-                //for( int j = 0; j < widthC; j++ ) {
                 if (b == indexB) {
-                    while (b != endB) {
-                        dataC[c++] = valA*dataB[b++];
-                    }
+                    EjmlSimd.KERNELS_F64.scale(valA, dataB, b, dataC, rowC, widthC);
                 } else {
-                    while (b != endB) {
-                        dataC[c++] += valA*dataB[b++];
-                    }
+                    EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);
                 }
+                b += widthC;
                 colA += widthA;
             }
         }
@@ -337,11 +299,7 @@ public class InnerMultiplication_DDRB {
                                            final int heightA, final int widthA, final int widthC ) {
         for (int i = 0; i < heightA; i++) {
             for (int j = 0; j < widthC; j++) {
-                double val = 0;
-
-                for (int k = 0; k < widthA; k++) {
-                    val += dataA[i*widthA + k + indexA]*dataB[j*widthA + k + indexB];
-                }
+                double val = EjmlSimd.KERNELS_F64.dot(dataA, i*widthA + indexA, dataB, j*widthA + indexB, widthA);
 
                 dataC[i*widthC + j + indexC] = val;
             }
@@ -371,16 +329,12 @@ public class InnerMultiplication_DDRB {
         for (int i = 0; i < heightA; i++, rowC += widthC) {
             int b = indexB;
 
-            final int endC = rowC + widthC;
             final int endA = a + widthA;
             while (a != endA) {//for( int k = 0; k < widthA; k++ ) {
                 double valA = alpha*dataA[a++];
 
-                int c = rowC;
-
-                while (c != endC) {//for( int j = 0; j < widthC; j++ ) {
-                    dataC[c++] += valA*dataB[b++];
-                }
+                EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);
+                b += widthC;
             }
         }
     }
@@ -414,13 +368,8 @@ public class InnerMultiplication_DDRB {
             while (colA != endA) {
                 double valA = alpha*dataA[colA];
 
-                int c = rowC;
-                final int endB = b + widthC;
-
-                //for( int j = 0; j < widthC; j++ ) {
-                while (b != endB) {
-                    dataC[c++] += valA*dataB[b++];
-                }
+                EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);
+                b += widthC;
                 colA += widthA;
             }
         }
@@ -438,11 +387,7 @@ public class InnerMultiplication_DDRB {
                                             final int heightA, final int widthA, final int widthC ) {
         for (int i = 0; i < heightA; i++) {
             for (int j = 0; j < widthC; j++) {
-                double val = 0;
-
-                for (int k = 0; k < widthA; k++) {
-                    val += dataA[i*widthA + k + indexA]*dataB[j*widthA + k + indexB];
-                }
+                double val = EjmlSimd.KERNELS_F64.dot(dataA, i*widthA + indexA, dataB, j*widthA + indexB, widthA);
 
                 dataC[i*widthC + j + indexC] += alpha*val;
             }
@@ -472,22 +417,16 @@ public class InnerMultiplication_DDRB {
         for (int i = 0; i < heightA; i++, rowC += widthC) {
             int b = indexB;
 
-            final int endC = rowC + widthC;
             final int endA = a + widthA;
             while (a != endA) {//for( int k = 0; k < widthA; k++ ) {
                 double valA = alpha*dataA[a++];
 
-                int c = rowC;
-
                 if (b == indexB) {
-                    while (c != endC) {//for( int j = 0; j < widthC; j++ ) {
-                        dataC[c++] = valA*dataB[b++];
-                    }
+                    EjmlSimd.KERNELS_F64.scale(valA, dataB, b, dataC, rowC, widthC);
                 } else {
-                    while (c != endC) {//for( int j = 0; j < widthC; j++ ) {
-                        dataC[c++] += valA*dataB[b++];
-                    }
+                    EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);
                 }
+                b += widthC;
             }
         }
     }
@@ -521,19 +460,12 @@ public class InnerMultiplication_DDRB {
             while (colA != endA) {
                 double valA = alpha*dataA[colA];
 
-                int c = rowC;
-                final int endB = b + widthC;
-
-                //for( int j = 0; j < widthC; j++ ) {
                 if (b == indexB) {
-                    while (b != endB) {
-                        dataC[c++] = valA*dataB[b++];
-                    }
+                    EjmlSimd.KERNELS_F64.scale(valA, dataB, b, dataC, rowC, widthC);
                 } else {
-                    while (b != endB) {
-                        dataC[c++] += valA*dataB[b++];
-                    }
+                    EjmlSimd.KERNELS_F64.axpy(valA, dataB, b, dataC, rowC, widthC);
                 }
+                b += widthC;
                 colA += widthA;
             }
         }
@@ -551,11 +483,7 @@ public class InnerMultiplication_DDRB {
                                            final int heightA, final int widthA, final int widthC ) {
         for (int i = 0; i < heightA; i++) {
             for (int j = 0; j < widthC; j++) {
-                double val = 0;
-
-                for (int k = 0; k < widthA; k++) {
-                    val += dataA[i*widthA + k + indexA]*dataB[j*widthA + k + indexB];
-                }
+                double val = EjmlSimd.KERNELS_F64.dot(dataA, i*widthA + indexA, dataB, j*widthA + indexB, widthA);
 
                 dataC[i*widthC + j + indexC] = alpha*val;
             }
@@ -0,0 +1,631 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.bidiagonal;
+
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DSubmatrixD1;
+import org.ejml.dense.block.MatrixMult_DDRB;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.row.decomposition.qr.QrHelperFunctions_DDRM;
+import org.ejml.interfaces.decomposition.BidiagonalDecomposition_F64;
+import org.jetbrains.annotations.Nullable;
+
+//CONCURRENT_INLINE import org.ejml.dense.block.*;
+//CONCURRENT_INLINE import org.ejml.concurrency.EjmlConcurrency;
+
+//CONCURRENT_MACRO MatrixMult_DDRB MatrixMult_MT_DDRB
+
+/**
+ * <p>
+ * Bidiagonal decomposition for {@link DMatrixRBlock} using householder reflectors. A = U*B*V<sup>T</sup>
+ * where B is upper bidiagonal and U and V are orthogonal.
+ * </p>
+ *
+ * <p>
+ * The matrix is processed one block of rows and columns at a time. Inside of a block the left and right
+ * reflectors are computed one after another, but instead of applying them to the rest of the matrix immediately
+ * they are accumulated into four matrices, after which the remainder of the matrix is updated with two
+ * matrix multiplications:
+ * </p>
+ * <pre>
+ * A = A - U*Y<sup>T</sup> - X*V<sup>T</sup>
+ * </pre>
+ * <p>
+ * U and V contain the left and right reflectors, while X and Y are computed from the reflectors as they are
+ * found. Half the operations are in matrix multiplications and the other half are in products between the
+ * remaining matrix and the latest reflector.
+ * </p>
+ *
+ * <p>
+ * Reflectors and gammas are stored in the same format as in
+ * {@link org.ejml.dense.row.decomposition.bidiagonal.BidiagonalDecompositionRow_DDRM}, i.e. U in the lower
+ * triangle columns and V in the upper triangle rows. U and V are computed by applying blocks of reflectors
+ * in their compact WY form.
+ * </p>
+ *
+ * <p>
+ * Based off of the algorithm in section 3 of J. J. Dongarra, D. C. Sorensen, S. J. Hammarling,
+ * "Block Reduction of Matrices to Condensed Forms for Eigenvalue Computations" Journal of
+ * Computations and Applied Mathematics 27 (1989) 215-227, which is also used by LAPACK's DGEBRD and DLABRD.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class BidiagonalDecompositionHouseholder_DDRB
+        implements BidiagonalDecomposition_F64<DMatrixRBlock> {
+
+    // matrix which is being decomposed
+    // U reflectors are stored in the lower triangle columns and V in the upper triangle rows
+    protected DMatrixRBlock A;
+    protected int blockLength;
+
+    // number of rows, columns, and the smaller of the two
+    protected int m, n, min;
+
+    // the first element in the orthogonal vectors
+    protected double[] gammasU = new double[1];
+    protected double[] gammasV = new double[1];
+
+    // Reflectors and intermediate results for the current block. Each has fewer columns than the block length
+    // which means the data is stored in a row-major format
+    protected final DMatrixRBlock panelU = new DMatrixRBlock(1, 1);
+    protected final DMatrixRBlock panelV = new DMatrixRBlock(1, 1);
+    protected final DMatrixRBlock panelX = new DMatrixRBlock(1, 1);
+    protected final DMatrixRBlock panelY = new DMatrixRBlock(1, 1);
+    // transpose of Y and V
+    protected final DMatrixRBlock panelYt = new DMatrixRBlock(1, 1);
+    protected final DMatrixRBlock panelVt = new DMatrixRBlock(1, 1);
+
+    // upper triangular matrix in the compact WY representation
+    protected final DMatrixRBlock T = new DMatrixRBlock(1, 1);
+    // storage for intermediate results when computing U and V
+    protected final DMatrixRBlock WT = new DMatrixRBlock(1, 1);
+    protected final DMatrixRBlock Z = new DMatrixRBlock(1, 1);
+    protected final DMatrixRBlock workQ = new DMatrixRBlock(1, 1);
+
+    // copy of the latest reflectors
+    protected double[] u = new double[1];
+    protected double[] v = new double[1];
+    // product of the remaining matrix and the latest reflector
+    protected double[] s = new double[1];
+    // products of panel matrices and the latest reflector
+    protected double[] w0 = new double[1];
+    protected double[] w1 = new double[1];
+
+    @Override
+    public boolean decompose( DMatrixRBlock orig ) {
+        init(orig);
+
+        for (int k = 0; k < min; k += blockLength) {
+            int ib = Math.min(blockLength, min - k);
+            reducePanel(k, ib);
+
+            // If there's another block then ib == blockLength and the remaining matrix isn't empty
+            if (k + ib < min)
+                updateRemaining(k, ib);
+        }
+
+        return true;
+    }
+
+    private void init( DMatrixRBlock orig ) {
+        this.A = orig;
+        blockLength = orig.blockLength;
+        m = orig.numRows;
+        n = orig.numCols;
+        min = Math.min(m, n);
+
+        int max = Math.max(m, n);
+        if (u.length < max) {
+            u = new double[max];
+            v = new double[max];
+            s = new double[max];
+        }
+        if (w0.length < blockLength) {
+            w0 = new double[blockLength];
+            w1 = new double[blockLength];
+        }
+        if (gammasU.length < m)
+            gammasU = new double[m];
+        if (gammasV.length < n)
+            gammasV = new double[n];
+    }
+
+    /**
+     * Computes the left and right reflectors for rows and columns k to k+ib-1. Before a reflector is computed
+     * its row or column is updated by all the previous reflectors in the panel. The matrix to the lower right
+     * of the panel is not modified, instead X and Y are computed so that it can be updated later.
+     */
+    protected void reducePanel( int k, int ib ) {
+        panelU.reshape(m, ib, blockLength, false);
+        panelX.reshape(m, ib, blockLength, false);
+        panelY.reshape(n, ib, blockLength, false);
+        panelV.reshape(n, ib, blockLength, false);
+        panelU.zero();
+        panelX.zero();
+        panelY.zero();
+        panelV.zero();
+
+        final double[] dataA = A.data;
+        final double[] dataU = panelU.data, dataX = panelX.data, dataY = panelY.data, dataV = panelV.data;
+
+        for (int l = 0; l < ib; l++) {
+            final int i = k + l;
+
+            //----------------------- Left reflector
+            // A(i:m,i) = A(i:m,i) - U(i:m,:)*Y(i,:)' - X(i:m,:)*V(i,:)'
+            for (int r = i; r < m; r++) {
+                double sum = 0;
+                for (int t = 0; t < l; t++) {
+                    sum += dataU[r*ib + t]*dataY[i*ib + t] + dataX[r*ib + t]*dataV[i*ib + t];
+                }
+                dataA[A.getIndex(r, i)] -= sum;
+            }
+
+            double gamma = computeHouseholderCol(i);
+            gammasU[i] = gamma;
+            for (int r = i; r < m; r++) {
+                dataU[r*ib + l] = u[r];
+            }
+
+            if (i + 1 >= n) {
+                gammasV[i] = 0;
+                continue;
+            }
+
+            // Y(i+1:n,l) = gamma*(A(i:m,i+1:n)'*u - Y*U'*u - V*X'*u)
+            multTransA_u(i);
+            for (int t = 0; t < l; t++) {
+                w0[t] = w1[t] = 0;
+            }
+            for (int r = i; r < m; r++) {
+                double ur = u[r];
+                for (int t = 0; t < l; t++) {
+                    w0[t] += dataU[r*ib + t]*ur;
+                    w1[t] += dataX[r*ib + t]*ur;
+                }
+            }
+            for (int c = i + 1; c < n; c++) {
+                double sum = s[c];
+                for (int t = 0; t < l; t++) {
+                    sum -= dataY[c*ib + t]*w0[t] + dataV[c*ib + t]*w1[t];
+                }
+                dataY[c*ib + l] = gamma*sum;
+            }
+
+            //----------------------- Right reflector
+            // A(i,i+1:n) = A(i,i+1:n) - U(i,:)*Y(i+1:n,:)' - X(i,:)*V(i+1:n,:)'
+            for (int c = i + 1; c < n; c++) {
+                double sum = 0;
+                for (int t = 0; t <= l; t++) {
+                    sum += dataU[i*ib + t]*dataY[c*ib + t];
+                }
+                for (int t = 0; t < l; t++) {
+                    sum += dataX[i*ib + t]*dataV[c*ib + t];
+                }
+                dataA[A.getIndex(i, c)] -= sum;
+            }
+
+            gamma = computeHouseholderRow(i);
+            gammasV[i] = gamma;
+            for (int c = i + 1; c < n; c++) {
+                dataV[c*ib + l] = v[c];
+            }
+
+            if (i + 1 >= m)
+                continue;
+
+            // X(i+1:m,l) = gamma*(A(i+1:m,i+1:n)*v - U*Y'*v - X*V'*v)
+            multA_v(i);
+            for (int t = 0; t <= l; t++) {
+                w0[t] = w1[t] = 0;
+            }
+            for (int c = i + 1; c < n; c++) {
+                double vc = v[c];
+                for (int t = 0; t <= l; t++) {
+                    w0[t] += dataY[c*ib + t]*vc;
+                }
+                for (int t = 0; t < l; t++) {
+                    w1[t] += dataV[c*ib + t]*vc;
+                }
+            }
+            for (int r = i + 1; r < m; r++) {
+                double sum = s[r];
+                for (int t = 0; t <= l; t++) {
+                    sum -= dataU[r*ib + t]*w0[t];
+                }
+                for (int t = 0; t < l; t++) {
+                    sum -= dataX[r*ib + t]*w1[t];
+                }
+                dataX[r*ib + l] = gamma*sum;
+            }
+        }
+    }
+
+    /**
+     * Computes the householder reflector for column i and writes it into the matrix below the diagonal.
+     * The reflector is copied into 'u', with u[i] = 1.
+     *
+     * @return gamma
+     */
+    private double computeHouseholderCol( int i ) {
+        final double[] dataA = A.data;
+
+        double max = 0;
+        for (int r = i; r < m; r++) {
+            double val = u[r] = dataA[A.getIndex(r, i)];
+            max = Math.max(max, Math.abs(val));
+        }
+
+        if (max == 0) {
+            u[i] = 1;
+            return 0;
+        }
+
+        double tau = QrHelperFunctions_DDRM.computeTauAndDivide(i, m, u, max);
+        double nu = u[i] + tau;
+        for (int r = i + 1; r < m; r++) {
+            dataA[A.getIndex(r, i)] = u[r] /= nu;
+        }
+        u[i] = 1;
+        dataA[A.getIndex(i, i)] = -tau*max;
+
+        return nu/tau;
+    }
+
+    /**
+     * Computes the householder reflector for row i and writes it into the matrix to the right of the
+     * super diagonal. The reflector is copied into 'v', with v[i+1] = 1.
+     *
+     * @return gamma
+     */
+    private double computeHouseholderRow( int i ) {
+        final double[] dataA = A.data;
+
+        double max = 0;
+        for (int c = i + 1; c < n; c++) {
+            double val = v[c] = dataA[A.getIndex(i, c)];
+            max = Math.max(max, Math.abs(val));
+        }
+
+        if (max == 0) {
+            v[i + 1] = 1;
+            return 0;
+        }
+
+        double tau = QrHelperFunctions_DDRM.computeTauAndDivide(i + 1, n, v, max);
+        double nu = v[i + 1] + tau;
+        for (int c = i + 2; c < n; c++) {
+            dataA[A.getIndex(i, c)] = v[c] /= nu;
+        }
+        v[i + 1] = 1;
+        dataA[A.getIndex(i, i + 1)] = -tau*max;
+
+        return nu/tau;
+    }
+
+    /**
+     * s(i+1:n) = A(i:m,i+1:n)'*u(i:m)
+     */
+    protected void multTransA_u( final int i ) {
+        final double[] dataA = A.data;
+        final int rowStart = i - i%blockLength;
+        final int colStart = (i + 1) - (i + 1)%blockLength;
+
+        //CONCURRENT_BELOW EjmlConcurrency.loopFor(colStart, n, blockLength, col0 -> {
+        for (int col0 = colStart; col0 < n; col0 += blockLength) {
+            int width = Math.min(blockLength, n - col0);
+            int c0 = Math.max(col0, i + 1);
+            int c1 = col0 + width;
+            for (int c = c0; c < c1; c++) {
+                s[c] = 0;
+            }
+
+            for (int row0 = rowStart; row0 < m; row0 += blockLength) {
+                int height = Math.min(blockLength, m - row0);
+                int indexBlock = row0*n + col0*height - col0;
+
+                for (int r = Math.max(row0, i); r < row0 + height; r++) {
+                    int indexA = indexBlock + (r - row0)*width;
+                    double ur = u[r];
+                    for (int c = c0; c < c1; c++) {
+                        s[c] += dataA[indexA + c]*ur;
+                    }
+                }
+            }
+        }
+        //CONCURRENT_ABOVE });
+    }
+
+    /**
+     * s(i+1:m) = A(i+1:m,i+1:n)*v(i+1:n)
+     */
+    protected void multA_v( final int i ) {
+        final double[] dataA = A.data;
+        final int start = (i + 1) - (i + 1)%blockLength;
+
+        //CONCURRENT_BELOW EjmlConcurrency.loopFor(start, m, blockLength, row0 -> {
+        for (int row0 = start; row0 < m; row0 += blockLength) {
+            int height = Math.min(blockLength, m - row0);
+            int r0 = Math.max(row0, i + 1);
+            int r1 = row0 + height;
+            for (int r = r0; r < r1; r++) {
+                s[r] = 0;
+            }
+
+            for (int col0 = start; col0 < n; col0 += blockLength) {
+                int width = Math.min(blockLength, n - col0);
+                int indexBlock = row0*n + col0*height - col0;
+                int c0 = Math.max(col0, i + 1);
+                int c1 = col0 + width;
+
+                for (int r = r0; r < r1; r++) {
+                    int indexA = indexBlock + (r - row0)*width;
+                    double sum = 0;
+                    for (int c = c0; c < c1; c++) {
+                        sum += dataA[indexA + c]*v[c];
+                    }
+                    s[r] += sum;
+                }
+            }
+        }
+        //CONCURRENT_ABOVE });
+    }
+
+    /**
+     * Applies the reflectors in the panel to the lower right portion of the matrix
+     *
+     * A(k+ib:m,k+ib:n) = A(k+ib:m,k+ib:n) - U*Y' - X*V'
+     */
+    protected void updateRemaining( int k, int ib ) {
+        int start = k + ib;
+
+        panelYt.reshape(ib, n, blockLength, false);
+        panelVt.reshape(ib, n, blockLength, false);
+        MatrixOps_DDRB.transpose(panelY, panelYt);
+        MatrixOps_DDRB.transpose(panelV, panelVt);
+
+        var subA = new DSubmatrixD1(A, start, m, start, n);
+        MatrixMult_DDRB.multMinus(blockLength, new DSubmatrixD1(panelU, start, m, 0, ib),
+                new DSubmatrixD1(panelYt, 0, ib, start, n), subA);
+        MatrixMult_DDRB.multMinus(blockLength, new DSubmatrixD1(panelX, start, m, 0, ib),
+                new DSubmatrixD1(panelVt, 0, ib, start, n), subA);
+    }
+
+    @Override
+    public void getDiagonal( double[] diag, double[] off ) {
+        diag[0] = A.get(0, 0);
+        for (int i = 1; i < min; i++) {
+            diag[i] = A.get(i, i);
+            off[i - 1] = A.get(i - 1, i);
+        }
+        if (n > m)
+            off[min - 1] = A.get(min - 1, min);
+    }
+
+    @Override
+    public DMatrixRBlock getB( @Nullable DMatrixRBlock B, boolean compact ) {
+        int w = n > m ? min + 1 : min;
+        B = reshapeOutput(B, compact ? min : m, compact ? w : n);
+        B.zero();
+
+        B.set(0, 0, A.get(0, 0));
+        for (int i = 1; i < min; i++) {
+            B.set(i, i, A.get(i, i));
+            B.set(i - 1, i, A.get(i - 1, i));
+        }
+        if (n > m)
+            B.set(min - 1, min, A.get(min - 1, min));
+
+        return B;
+    }
+
+    @Override
+    public DMatrixRBlock getU( @Nullable DMatrixRBlock U, boolean transpose, boolean compact ) {
+        int cols = compact ? min : m;
+        DMatrixRBlock Q;
+        if (transpose) {
+            U = reshapeOutput(U, cols, m);
+            workQ.reshape(m, cols, blockLength, false);
+            Q = workQ;
+        } else {
+            Q = U = reshapeOutput(U, m, cols);
+        }
+        MatrixOps_DDRB.setIdentity(Q);
+
+        // Q = H(0)*H(1)*...*H(min-1)*I, starting with the last block
+        for (int k = min - 1 - (min - 1)%blockLength; k >= 0; k -= blockLength) {
+            int ib = Math.min(blockLength, min - k);
+
+            panelU.reshape(m, ib, blockLength, false);
+            panelU.zero();
+            for (int l = 0; l < ib; l++) {
+                int i = k + l;
+                panelU.data[i*ib + l] = 1;
+                for (int r = i + 1; r < m; r++) {
+                    panelU.data[r*ib + l] = A.get(r, i);
+                }
+            }
+
+            applyReflectors(panelU, gammasU, k, ib, Q);
+        }
+
+        if (transpose)
+            MatrixOps_DDRB.transpose(workQ, U);
+
+        return U;
+    }
+
+    @Override
+    public DMatrixRBlock getV( @Nullable DMatrixRBlock V, boolean transpose, boolean compact ) {
+        int cols = compact ? (n > m ? min + 1 : min) : n;
+        DMatrixRBlock Q;
+        if (transpose) {
+            V = reshapeOutput(V, cols, n);
+            workQ.reshape(n, cols, blockLength, false);
+            Q = workQ;
+        } else {
+            Q = V = reshapeOutput(V, n, cols);
+        }
+        MatrixOps_DDRB.setIdentity(Q);
+
+        // Q = G(0)*G(1)*...*G(min-1)*I, starting with the last block
+        for (int k = min - 1 - (min - 1)%blockLength; k >= 0; k -= blockLength) {
+            int ib = Math.min(blockLength, min - k);
+
+            panelV.reshape(n, ib, blockLength, false);
+            panelV.zero();
+            for (int l = 0; l < ib; l++) {
+                int i = k + l;
+                if (i + 1 >= n)
+                    continue;
+                panelV.data[(i + 1)*ib + l] = 1;
+                for (int c = i + 2; c < n; c++) {
+                    panelV.data[c*ib + l] = A.get(i, c);
+                }
+            }
+
+            applyReflectors(panelV, gammasV, k, ib, Q);
+        }
+
+        if (transpose)
+            MatrixOps_DDRB.transpose(workQ, V);
+
+        return V;
+    }
+
+    /**
+     * Applies a block of reflectors to the lower right portion of Q, which starts at (k,k).
+     *
+     * <pre>
+     * Q = (I - P*T*P')*Q
+     * </pre>
+     *
+     * @param P Reflectors in each column. Rows above k must be zero.
+     * @param gammas gammas for the reflectors in P, starting at index k
+     */
+    private void applyReflectors( DMatrixRBlock P, double[] gammas, int k, int ib, DMatrixRBlock Q ) {
+        if (k >= Q.numCols)
+            return;
+
+        computeT(P, gammas, k, ib);
+
+        int rows = Q.numRows;
+        int cols = Q.numCols - k;
+        var subQ = new DSubmatrixD1(Q, k, rows, k, Q.numCols);
+        var subP = new DSubmatrixD1(P, k, rows, 0, ib);
+
+        // WT = Q'*P
+        WT.reshape(cols, ib, blockLength, false);
+        MatrixMult_DDRB.multTransA(blockLength, subQ, subP, new DSubmatrixD1(WT, 0, cols, 0, ib));
+
+        // Z = T*WT'
+        Z.reshape(ib, cols, blockLength, false);
+        final double[] dataT = T.data, dataW = WT.data, dataZ = Z.data;
+        for (int col0 = 0; col0 < cols; col0 += blockLength) {
+            int width = Math.min(blockLength, cols - col0);
+            int indexBlock = col0*ib;
+            for (int row = 0; row < ib; row++) {
+                for (int col = col0; col < col0 + width; col++) {
+                    double sum = 0;
+                    for (int t = row; t < ib; t++) {
+                        sum += dataT[row*ib + t]*dataW[col*ib + t];
+                    }
+                    dataZ[indexBlock + row*width + col - col0] = sum;
+                }
+            }
+        }
+
+        // Q = Q - P*Z
+        MatrixMult_DDRB.multMinus(blockLength, subP, new DSubmatrixD1(Z, 0, ib, 0, cols), subQ);
+    }
+
+    /**
+     * Computes the upper triangular matrix T in the compact WY representation from the reflectors in P
+     */
+    private void computeT( DMatrixRBlock P, double[] gammas, int k, int ib ) {
+        T.reshape(ib, ib, blockLength, false);
+        T.zero();
+        final double[] dataP = P.data, dataT = T.data;
+        final int rows = P.numRows;
+
+        for (int j = 0; j < ib; j++) {
+            double gamma = gammas[k + j];
+
+            // w0 = P(:,0:j)'*P(:,j)
+            for (int l = 0; l < j; l++) {
+                w0[l] = 0;
+            }
+            for (int r = k; r < rows; r++) {
+                double pj = dataP[r*ib + j];
+                if (pj == 0)
+                    continue;
+                for (int l = 0; l < j; l++) {
+                    w0[l] += dataP[r*ib + l]*pj;
+                }
+            }
+
+            // T(0:j,j) = -gamma*T(0:j,0:j)*w0
+            for (int l = 0; l < j; l++) {
+                double sum = 0;
+                for (int t = l; t < j; t++) {
+                    sum += dataT[l*ib + t]*w0[t];
+                }
+                dataT[l*ib + j] = -gamma*sum;
+            }
+            dataT[j*ib + j] = gamma;
+        }
+    }
+
+    private DMatrixRBlock reshapeOutput( @Nullable DMatrixRBlock M, int numRows, int numCols ) {
+        if (M == null)
+            return new DMatrixRBlock(numRows, numCols, blockLength);
+        if (M.blockLength != blockLength)
+            throw new IllegalArgumentException("Block length must be the same as the decomposed matrix");
+        M.reshape(numRows, numCols, false);
+        return M;
+    }
+
+    /**
+     * The input matrix after it has been overwritten with the decomposition.
+     */
+    public DMatrixRBlock getA() {
+        return A;
+    }
+
+    /**
+     * Returns gammas from the householder operations for the U matrix.
+     */
+    public double[] getGammasU() {
+        return gammasU;
+    }
+
+    /**
+     * Returns gammas from the householder operations for the V matrix.
+     */
+    public double[] getGammasV() {
+        return gammasV;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return true;
+    }
+}
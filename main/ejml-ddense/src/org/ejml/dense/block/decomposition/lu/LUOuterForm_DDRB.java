@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DSubmatrixD1;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.block.MatrixMult_DDRB;
+import org.ejml.interfaces.decomposition.LUDecomposition_F64;
+import org.jetbrains.annotations.Nullable;
+
+//CONCURRENT_INLINE import org.ejml.dense.block.*;
+//CONCURRENT_INLINE import org.ejml.concurrency.EjmlConcurrency;
+
+//CONCURRENT_MACRO MatrixMult_DDRB MatrixMult_MT_DDRB
+
+/**
+ * <p>
+ * Block LU decomposition with partial pivoting using outer product form. Each column of blocks is decomposed
+ * with the unblocked algorithm, then the row of blocks to its right is solved for and the trailing
+ * sub-matrix is updated:
+ * </p>
+ * <pre>
+ * U12 = L11<sup>-1</sup>*A12
+ * A22 = A22 - L21*U12
+ * </pre>
+ * <p>
+ * Row interchanges are applied across all the blocks in a row. The original matrix is stored and modified.
+ * The unit diagonal of L is not stored.
+ * </p>
+ *
+ * <p>
+ * See {@link org.ejml.dense.row.decomposition.lu.LUDecompositionBlock_DDRM} for the row-major version.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class LUOuterForm_DDRB implements LUDecomposition_F64<DMatrixRBlock> {
+
+    // The decomposed matrix.
+    private DMatrixRBlock LU;
+
+    // row pivots
+    private final IGrowArray pivot = new IGrowArray();
+    // sign of the row permutation
+    private double pivsign;
+
+    // predeclare local work space
+    private final DSubmatrixD1 subL = new DSubmatrixD1();
+    private final DSubmatrixD1 subU = new DSubmatrixD1();
+    private final DSubmatrixD1 subA = new DSubmatrixD1();
+
+    // storage for the determinant
+    private final Complex_F64 det = new Complex_F64();
+
+    /**
+     * Decomposes the provided matrix and stores the result in the same matrix.
+     *
+     * @param A Matrix that is to be decomposed. Modified.
+     * @return If it succeeded or not.
+     */
+    @Override
+    public boolean decompose( DMatrixRBlock A ) {
+        this.LU = A;
+        final int blockLength = A.blockLength;
+        final int numRows = A.numRows;
+        final int numCols = A.numCols;
+        final int minLength = Math.min(numRows, numCols);
+
+        pivot.reshape(numRows);
+        for (int i = 0; i < numRows; i++) {
+            pivot.data[i] = i;
+        }
+        pivsign = 1;
+
+        subL.set(A);
+        subU.set(A);
+        subA.set(A);
+
+        for (int i = 0; i < minLength; i += blockLength) {
+            int widthP = Math.min(blockLength, minLength - i);
+
+            decomposePanel(i, widthP);
+
+            // on the last block row or column these operations are not needed.
+            if (i + widthP < numCols) {
+                // U12 = L11^-1 A12
+                solveBlockRow(i, widthP);
+
+                if (i + widthP < numRows) {
+                    //@formatter:off
+                    subL.col0 = i;          subL.col1 = i + widthP;
+                    subL.row0 = i + widthP; subL.row1 = numRows;
+
+                    subU.col0 = i + widthP; subU.col1 = numCols;
+                    subU.row0 = i;          subU.row1 = i + widthP;
+
+                    subA.col0 = i + widthP; subA.col1 = numCols;
+                    subA.row0 = i + widthP; subA.row1 = numRows;
+                    //@formatter:on
+
+                    // A22 = A22 - L21*U12
+                    MatrixMult_DDRB.multMinus(blockLength, subL, subU, subA);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Unblocked decomposition of columns col0 to col0+widthP, which are all inside the same column of blocks.
+     */
+    private void decomposePanel( final int col0, final int widthP ) {
+        final double[] data = LU.data;
+        final int numRows = LU.numRows;
+
+        for (int j = col0; j < col0 + widthP; j++) {
+            final int jj = j - col0;
+
+            // Find pivot and exchange if necessary
+            int p = j;
+            double max = Math.abs(data[indexOf(j, col0) + jj]);
+            for (int i = j + 1; i < numRows; i++) {
+                double v = Math.abs(data[indexOf(i, col0) + jj]);
+                if (v > max) {
+                    p = i;
+                    max = v;
+                }
+            }
+
+            if (p != j) {
+                swapRows(p, j);
+                int k = pivot.data[p];
+                pivot.data[p] = pivot.data[j];
+                pivot.data[j] = k;
+                pivsign = -pivsign;
+            }
+
+            // Compute multipliers and update the remainder of the panel
+            final int indexJ = indexOf(j, col0);
+            final double lujj = data[indexJ + jj];
+            for (int i = j + 1; i < numRows; i++) {
+                int indexI = indexOf(i, col0);
+                if (lujj != 0)
+                    data[indexI + jj] /= lujj;
+                double lij = data[indexI + jj];
+                for (int k = jj + 1; k < widthP; k++) {
+                    data[indexI + k] -= lij*data[indexJ + k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes U12 = L11<sup>-1</sup>*A12 in place. L11 is the unit lower triangular part of the diagonal block
+     * and A12 is every column to the right of the panel in rows row0 to row0+widthP. If the panel is narrower
+     * than a block then the first block of A12 is the remainder of the diagonal block.
+     */
+    private void solveBlockRow( final int row0, final int widthP ) {
+        final int blockLength = LU.blockLength;
+        final int numCols = LU.numCols;
+        final double[] data = LU.data;
+
+        // L11 is in the diagonal block, which can have more columns than the panel
+        final int widthDiag = Math.min(blockLength, numCols - row0);
+        final int indexL = indexOf(row0, row0);
+
+        //CONCURRENT_BELOW EjmlConcurrency.loopFor(row0, numCols, blockLength, col0 -> {
+        for (int col0 = row0; col0 < numCols; col0 += blockLength) {
+            final int widthB = Math.min(blockLength, numCols - col0);
+            final int start = col0 == row0 ? widthP : 0;
+            final int indexB = indexOf(row0, col0);
+
+            for (int i = 1; i < widthP; i++) {
+                final int rowI = indexB + i*widthB;
+                for (int k = 0; k < i; k++) {
+                    final double lik = data[indexL + i*widthDiag + k];
+                    if (lik == 0)
+                        continue;
+                    final int rowK = indexB + k*widthB;
+                    for (int j = start; j < widthB; j++) {
+                        data[rowI + j] -= lik*data[rowK + j];
+                    }
+                }
+            }
+        }
+        //CONCURRENT_ABOVE });
+    }
+
+    /**
+     * Swaps two rows across all the blocks
+     */
+    private void swapRows( int rowA, int rowB ) {
+        final int blockLength = LU.blockLength;
+        final double[] data = LU.data;
+
+        for (int col0 = 0; col0 < LU.numCols; col0 += blockLength) {
+            int width = Math.min(blockLength, LU.numCols - col0);
+            int indexA = indexOf(rowA, col0);
+            int indexB = indexOf(rowB, col0);
+            for (int j = 0; j < width; j++, indexA++, indexB++) {
+                double t = data[indexA];
+                data[indexA] = data[indexB];
+                data[indexB] = t;
+            }
+        }
+    }
+
+    /**
+     * Index of the element at 'row' and the first column in the block which starts at 'col0'.
+     * Elements in the same row of a block are next to each other.
+     */
+    private int indexOf( int row, int col0 ) {
+        final int blockLength = LU.blockLength;
+        int row0 = row - row%blockLength;
+        int heightBlock = Math.min(blockLength, LU.numRows - row0);
+        int widthBlock = Math.min(blockLength, LU.numCols - col0);
+        return row0*LU.numCols + col0*heightBlock + (row - row0)*widthBlock;
+    }
+
+    @Override
+    public DMatrixRBlock getLower( @Nullable DMatrixRBlock lower ) {
+        int numRows = LU.numRows;
+        int numCols = Math.min(LU.numRows, LU.numCols);
+
+        lower = declareZeros(lower, numRows, numCols);
+
+        for (int i = 0; i < numRows; i++) {
+            if (i < numCols)
+                lower.set(i, i, 1.0);
+            int end = Math.min(i, numCols);
+            for (int j = 0; j < end; j++) {
+                lower.set(i, j, LU.get(i, j));
+            }
+        }
+        return lower;
+    }
+
+    @Override
+    public DMatrixRBlock getUpper( @Nullable DMatrixRBlock upper ) {
+        int numRows = Math.min(LU.numRows, LU.numCols);
+        int numCols = LU.numCols;
+
+        upper = declareZeros(upper, numRows, numCols);
+
+        for (int i = 0; i < numRows; i++) {
+            for (int j = i; j < numCols; j++) {
+                upper.set(i, j, LU.get(i, j));
+            }
+        }
+        return upper;
+    }
+
+    @Override
+    public DMatrixRBlock getRowPivot( @Nullable DMatrixRBlock pivot ) {
+        pivot = declareZeros(pivot, LU.numRows, LU.numRows);
+        for (int i = 0; i < LU.numRows; i++) {
+            pivot.set(i, this.pivot.data[i], 1.0);
+        }
+        return pivot;
+    }
+
+    private DMatrixRBlock declareZeros( @Nullable DMatrixRBlock M, int numRows, int numCols ) {
+        if (M == null)
+            return new DMatrixRBlock(numRows, numCols, LU.blockLength);
+        M.reshape(numRows, numCols, LU.blockLength, false);
+        M.zero();
+        return M;
+    }
+
+    @Override
+    public int[] getRowPivotV( @Nullable IGrowArray pivot ) {
+        return UtilEjml.pivotVector(this.pivot.data, LU.numRows, pivot);
+    }
+
+    @Override
+    public boolean isSingular() {
+        int N = Math.min(LU.numRows, LU.numCols);
+        for (int i = 0; i < N; i++) {
+            if (Math.abs(LU.get(i, i)) < UtilEjml.EPS)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Complex_F64 computeDeterminant() {
+        if (LU.numRows != LU.numCols)
+            throw new IllegalArgumentException("Must be a square matrix.");
+
+        double prod = pivsign;
+        for (int i = 0; i < LU.numRows; i++) {
+            prod *= LU.get(i, i);
+        }
+
+        det.real = prod;
+        det.imaginary = 0;
+
+        return det;
+    }
+
+    /**
+     * Returns the decomposed matrix. L and U are both stored in it.
+     */
+    public DMatrixRBlock getLU() {
+        return LU;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return true;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixRMajOffHeap;
+import org.ejml.data.DOffHeapArray;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * <p>
+ * Operations for {@link DMatrixRMajOffHeap}. Operations which have a heap equivalent copy a block of rows at a
+ * time into a {@link DMatrixRMaj} and process it with the regular functions in {@link CommonOps_DDRM}, so only
+ * a small amount of heap memory is needed no matter how large the matrix is. Element-wise operations are applied
+ * directly to the off-heap buffers.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CommonOpsOffHeap_DDRM {
+    /**
+     * Approximate number of elements in a block of rows which is copied onto the heap.
+     */
+    public static int BLOCK_ELEMENTS = 1 << 18;
+
+    /**
+     * Copies a heap matrix into an off-heap matrix
+     *
+     * @param src (Input) Heap matrix
+     * @param dst (Output) Off-heap matrix. Reshaped. Can be null.
+     * @return The off-heap matrix
+     */
+    public static DMatrixRMajOffHeap convert( DMatrixRMaj src, @Nullable DMatrixRMajOffHeap dst ) {
+        if (dst == null)
+            dst = new DMatrixRMajOffHeap(src.numRows, src.numCols);
+        dst.setTo(src);
+        return dst;
+    }
+
+    /**
+     * Copies an off-heap matrix onto the heap. Only possible if the number of elements can be indexed with an int.
+     *
+     * @param src (Input) Off-heap matrix
+     * @param dst (Output) Heap matrix. Reshaped. Can be null.
+     * @return The heap matrix
+     */
+    public static DMatrixRMaj convert( DMatrixRMajOffHeap src, @Nullable DMatrixRMaj dst ) {
+        return extractRows(src, 0, src.numRows, dst);
+    }
+
+    /**
+     * Copies rows row0 to row1-1, inclusive, onto the heap.
+     *
+     * @param src (Input) Off-heap matrix
+     * @param row0 First row which is copied
+     * @param row1 Last row + 1
+     * @param dst (Output) Storage for the rows. Reshaped to (row1-row0) x numCols. Can be null.
+     * @return The extracted rows
+     */
+    public static DMatrixRMaj extractRows( DMatrixRMajOffHeap src, int row0, int row1, @Nullable DMatrixRMaj dst ) {
+        if (row0 < 0 || row1 < row0 || row1 > src.numRows)
+            throw new IllegalArgumentException("Invalid row range. row0=" + row0 + " row1=" + row1);
+        UtilEjml.checkTooLarge(row1 - row0, src.numCols);
+        dst = UtilEjml.reshapeOrDeclare(dst, row1 - row0, src.numCols);
+        src.data.copyTo((long)row0*src.numCols, dst.data, 0, dst.getNumElements());
+        return dst;
+    }
+
+    /**
+     * Copies a heap matrix into the off-heap matrix starting at row0. The number of columns must be the same.
+     *
+     * @param src (Input) Rows which are to be copied
+     * @param dst (Output) Off-heap matrix which is modified
+     * @param row0 Row in dst which the first row is copied into
+     */
+    public static void insertRows( DMatrixRMaj src, DMatrixRMajOffHeap dst, int row0 ) {
+        if (src.numCols != dst.numCols)
+            throw new MatrixDimensionException("Number of columns must match. " + src.numCols + " " + dst.numCols);
+        if (row0 < 0 || row0 + src.numRows > dst.numRows)
+            throw new IllegalArgumentException("Rows are outside of dst. row0=" + row0);
+        dst.data.copyFrom(src.data, 0, (long)row0*dst.numCols, src.getNumElements());
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a * b <br>
+     * </p>
+     *
+     * Each block of rows in 'a' is multiplied using {@link CommonOps_DDRM#mult}.
+     *
+     * @param a (Input) Off-heap matrix. Not modified.
+     * @param b (Input) Heap matrix. Not modified.
+     * @param output (Output) Where the results of the operation are stored. Reshaped. Can be null.
+     * @return The results
+     */
+    public static DMatrixRMajOffHeap mult( DMatrixRMajOffHeap a, DMatrixRMaj b, @Nullable DMatrixRMajOffHeap output ) {
+        if (a.numCols != b.numRows)
+            throw new MatrixDimensionException("The 'a' and 'b' matrices do not have compatible dimensions");
+        if (output == null)
+            output = new DMatrixRMajOffHeap(a.numRows, b.numCols, a.data.chunkBits);
+        else if (output == a)
+            throw new IllegalArgumentException("'a' and 'output' can't be the same instance");
+        else
+            output.reshape(a.numRows, b.numCols);
+
+        int blockRows = blockRows(Math.max(a.numCols, b.numCols));
+        DMatrixRMaj blockA = new DMatrixRMaj(1, 1);
+        DMatrixRMaj blockC = new DMatrixRMaj(1, 1);
+        for (int row0 = 0; row0 < a.numRows; row0 += blockRows) {
+            int row1 = Math.min(a.numRows, row0 + blockRows);
+            extractRows(a, row0, row1, blockA);
+            CommonOps_DDRM.mult(blockA, b, blockC);
+            insertRows(blockC, output, row0);
+        }
+
+        return output;
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a<sup>T</sup> * b <br>
+     * </p>
+     *
+     * The sum is accumulated one block of rows at a time using {@link CommonOps_DDRM#multAddTransA}. This is
+     * how the inner product of tall matrices, such as a Gram matrix, is computed without loading them onto the heap.
+     *
+     * @param a (Input) Off-heap matrix. Not modified.
+     * @param b (Input) Off-heap matrix. Not modified.
+     * @param output (Output) Where the results of the operation are stored. Reshaped. Can be null.
+     * @return The results
+     */
+    public static DMatrixRMaj multTransA( DMatrixRMajOffHeap a, DMatrixRMajOffHeap b, @Nullable DMatrixRMaj output ) {
+        if (a.numRows != b.numRows)
+            throw new MatrixDimensionException("The 'a' and 'b' matrices do not have compatible dimensions");
+        output = UtilEjml.reshapeOrDeclare(output, a.numCols, b.numCols);
+        output.zero();
+
+        int blockRows = blockRows(Math.max(a.numCols, b.numCols));
+        DMatrixRMaj blockA = new DMatrixRMaj(1, 1);
+        DMatrixRMaj blockB = new DMatrixRMaj(1, 1);
+        for (int row0 = 0; row0 < a.numRows; row0 += blockRows) {
+            int row1 = Math.min(a.numRows, row0 + blockRows);
+            extractRows(a, row0, row1, blockA);
+            extractRows(b, row0, row1, blockB);
+            CommonOps_DDRM.multAddTransA(blockA, blockB, output);
+        }
+
+        return output;
+    }
+
+    /**
+     * <p>Performs an in-place element by element scalar multiplication.<br>
+     * <br>
+     * a<sub>ij</sub> = &alpha;*a<sub>ij</sub>
+     * </p>
+     *
+     * @param alpha the amount each element is multiplied by.
+     * @param a The matrix that is to be scaled.  Modified.
+     */
+    public static void scale( double alpha, DMatrixRMajOffHeap a ) {
+        DOffHeapArray data = a.data;
+        long N = a.getNumElementsLong();
+        for (long index0 = 0; index0 < N; index0 += data.chunkSize) {
+            DoubleBuffer chunk = data.chunks[(int)(index0 >> data.chunkBits)];
+            int end = (int)Math.min(data.chunkSize, N - index0);
+            for (int i = 0; i < end; i++) {
+                chunk.put(i, chunk.get(i)*alpha);
+            }
+        }
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a + b <br>
+     * c<sub>ij</sub> = a<sub>ij</sub> + b<sub>ij</sub> <br>
+     * </p>
+     *
+     * @param a (Input) Off-heap matrix. Not modified.
+     * @param b (Input) Off-heap matrix. Not modified.
+     * @param output (Output) Where the results of the operation are stored. Reshaped. Can be null.
+     * @return The results
+     */
+    public static DMatrixRMajOffHeap add( DMatrixRMajOffHeap a, DMatrixRMajOffHeap b,
+                                          @Nullable DMatrixRMajOffHeap output ) {
+        if (a.numRows != b.numRows || a.numCols != b.numCols)
+            throw new MatrixDimensionException("The 'a' and 'b' matrices do not have compatible dimensions");
+        if (output == null)
+            output = new DMatrixRMajOffHeap(a.numRows, a.numCols, a.data.chunkBits);
+        else
+            output.reshape(a.numRows, a.numCols);
+
+        long N = a.getNumElementsLong();
+        for (long i = 0; i < N; i++) {
+            output.data.unsafe_set(i, a.data.unsafe_get(i) + b.data.unsafe_get(i));
+        }
+        return output;
+    }
+
+    /**
+     * Number of rows in a block so that it has about {@link #BLOCK_ELEMENTS} elements
+     */
+    static int blockRows( int numCols ) {
+        return Math.max(1, BLOCK_ELEMENTS/Math.max(1, numCols));
+    }
+}
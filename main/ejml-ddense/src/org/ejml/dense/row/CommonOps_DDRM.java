@@ -24,6 +24,8 @@ import org.ejml.UtilEjml;
 import org.ejml.data.*;
 import org.ejml.dense.row.decomposition.TriangularSolver_DDRM;
 import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionBase_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionBlock_DDRM;
 import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
 import org.ejml.dense.row.linsol.chol.LinearSolverChol_DDRM;
 import org.ejml.dense.row.linsol.lu.LinearSolverLu_DDRM;
@@ -31,11 +33,14 @@ import org.ejml.dense.row.linsol.svd.SolvePseudoInverseSvd_DDRM;
 import org.ejml.dense.row.misc.*;
 import org.ejml.dense.row.mult.MatrixMatrixMult_DDRM;
 import org.ejml.dense.row.mult.MatrixMultProduct_DDRM;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
+import org.ejml.dense.row.mult.MatrixMultStrided_DDRM;
 import org.ejml.dense.row.mult.MatrixVectorMult_DDRM;
 import org.ejml.dense.row.mult.VectorVectorMult_DDRM;
 import org.ejml.interfaces.linsol.LinearSolverDense;
 import org.ejml.interfaces.linsol.ReducedRowEchelonForm_F64;
 import org.ejml.ops.DOperatorUnary;
+import org.ejml.simd.EjmlSimd;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
@@ -80,6 +85,8 @@ public class CommonOps_DDRM {
 
         if (b.numCols == 1) {
             MatrixVectorMult_DDRM.mult(a, b, output);
+        } else if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultPacked_DDRM.mult(1.0, a, false, b, false, output, false, null, null);
         } else if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.mult_reorder(a, b, output);
         } else {
@@ -108,7 +115,9 @@ public class CommonOps_DDRM {
         UtilEjml.checkSameInstance(b, output);
 
         // TODO add a matrix vectory multiply here
-        if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultPacked_DDRM.mult(alpha, a, false, b, false, output, false, null, null);
+        } else if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.mult_reorder(alpha, a, b, output);
         } else {
             MatrixMatrixMult_DDRM.mult_small(alpha, a, b, output);
@@ -142,6 +151,8 @@ public class CommonOps_DDRM {
             } else {
                 MatrixVectorMult_DDRM.multTransA_small(a, b, output);
             }
+        } else if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numCols)) {
+            MatrixMultPacked_DDRM.mult(1.0, a, true, b, false, output, false, null, null);
         } else if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multTransA_reorder(a, b, output);
@@ -171,7 +182,9 @@ public class CommonOps_DDRM {
         UtilEjml.checkSameInstance(b, output);
 
         // TODO add a matrix vectory multiply here
-        if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numCols)) {
+            MatrixMultPacked_DDRM.mult(alpha, a, true, b, false, output, false, null, null);
+        } else if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multTransA_reorder(alpha, a, b, output);
         } else {
@@ -200,6 +213,8 @@ public class CommonOps_DDRM {
 
         if (b.numRows == 1) {
             MatrixVectorMult_DDRM.mult(a, b, output);
+        } else if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numRows)) {
+            MatrixMultPacked_DDRM.mult(1.0, a, false, b, true, output, false, null, null);
         } else {
             MatrixMatrixMult_DDRM.multTransB(a, b, output);
         }
@@ -226,7 +241,11 @@ public class CommonOps_DDRM {
         UtilEjml.checkSameInstance(b, output);
 
         // TODO add a matrix vectory multiply here
-        MatrixMatrixMult_DDRM.multTransB(alpha, a, b, output);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numRows)) {
+            MatrixMultPacked_DDRM.mult(alpha, a, false, b, true, output, false, null, null);
+        } else {
+            MatrixMatrixMult_DDRM.multTransB(alpha, a, b, output);
+        }
 
         return output;
     }
@@ -255,6 +274,8 @@ public class CommonOps_DDRM {
             } else {
                 MatrixVectorMult_DDRM.multTransA_small(a, b, output);
             }
+        } else if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numRows)) {
+            MatrixMultPacked_DDRM.mult(1.0, a, true, b, true, output, false, null, null);
         } else if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multTransAB_aux(a, b, output, null);
         } else {
@@ -283,7 +304,9 @@ public class CommonOps_DDRM {
         UtilEjml.checkSameInstance(b, output);
 
         // TODO add a matrix vectory multiply here
-        if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numRows)) {
+            MatrixMultPacked_DDRM.mult(alpha, a, true, b, true, output, false, null, null);
+        } else if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multTransAB_aux(alpha, a, b, output, null);
         } else {
             MatrixMatrixMult_DDRM.multTransAB(alpha, a, b, output);
@@ -374,6 +397,8 @@ public class CommonOps_DDRM {
     public static void multAdd( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         if (b.numCols == 1) {
             MatrixVectorMult_DDRM.multAdd(a, b, c);
+        } else if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultPacked_DDRM.mult(1.0, a, false, b, false, c, true, null, null);
         } else {
             if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
                 MatrixMatrixMult_DDRM.multAdd_reorder(a, b, c);
@@ -398,7 +423,9 @@ public class CommonOps_DDRM {
      */
     public static void multAdd( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         // TODO add a matrix vectory multiply here
-        if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultPacked_DDRM.mult(alpha, a, false, b, false, c, true, null, null);
+        } else if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multAdd_reorder(alpha, a, b, c);
         } else {
             MatrixMatrixMult_DDRM.multAdd_small(alpha, a, b, c);
@@ -424,6 +451,8 @@ public class CommonOps_DDRM {
             } else {
                 MatrixVectorMult_DDRM.multAddTransA_small(a, b, c);
             }
+        } else if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numCols)) {
+            MatrixMultPacked_DDRM.mult(1.0, a, true, b, false, c, true, null, null);
         } else {
             if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                     b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
@@ -449,7 +478,9 @@ public class CommonOps_DDRM {
      */
     public static void multAddTransA( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         // TODO add a matrix vectory multiply here
-        if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numCols)) {
+            MatrixMultPacked_DDRM.mult(alpha, a, true, b, false, c, true, null, null);
+        } else if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multAddTransA_reorder(alpha, a, b, c);
         } else {
@@ -470,7 +501,11 @@ public class CommonOps_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransB( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_DDRM.multAddTransB(a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numRows)) {
+            MatrixMultPacked_DDRM.mult(1.0, a, false, b, true, c, true, null, null);
+        } else {
+            MatrixMatrixMult_DDRM.multAddTransB(a, b, c);
+        }
     }
 
     /**
@@ -488,7 +523,11 @@ public class CommonOps_DDRM {
      */
     public static void multAddTransB( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         // TODO add a matrix vectory multiply here
-        MatrixMatrixMult_DDRM.multAddTransB(alpha, a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numRows)) {
+            MatrixMultPacked_DDRM.mult(alpha, a, false, b, true, c, true, null, null);
+        } else {
+            MatrixMatrixMult_DDRM.multAddTransB(alpha, a, b, c);
+        }
     }
 
     /**
@@ -504,7 +543,9 @@ public class CommonOps_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransAB( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numRows)) {
+            MatrixMultPacked_DDRM.mult(1.0, a, true, b, true, c, true, null, null);
+        } else if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multAddTransAB_aux(a, b, c, null);
         } else {
             MatrixMatrixMult_DDRM.multAddTransAB(a, b, c);
@@ -526,7 +567,9 @@ public class CommonOps_DDRM {
      */
     public static void multAddTransAB( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         // TODO add a matrix vectory multiply here
-        if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numRows)) {
+            MatrixMultPacked_DDRM.mult(alpha, a, true, b, true, c, true, null, null);
+        } else if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multAddTransAB_aux(alpha, a, b, c, null);
         } else {
             MatrixMatrixMult_DDRM.multAddTransAB(alpha, a, b, c);
@@ -715,7 +758,7 @@ public class CommonOps_DDRM {
                 return mat.get(0);
             }
         } else {
-            LUDecompositionAlt_DDRM alg = new LUDecompositionAlt_DDRM();
+            LUDecompositionBase_DDRM alg = createLU(numCol);
 
             if (alg.inputModified()) {
                 mat = mat.copy();
@@ -727,6 +770,16 @@ public class CommonOps_DDRM {
         }
     }
 
+    /**
+     * Selects the LU decomposition used by {@link #det} and {@link #invert}. The blocked algorithm is
+     * faster for large matrices.
+     */
+    private static LUDecompositionBase_DDRM createLU( int size ) {
+        if (size < EjmlParameters.SWITCH_BLOCK_LU)
+            return new LUDecompositionAlt_DDRM();
+        return new LUDecompositionBlock_DDRM();
+    }
+
     /**
      * <p>
      * Performs a matrix inversion operation on the specified matrix and stores the results
@@ -756,8 +809,7 @@ public class CommonOps_DDRM {
                 mat.set(0, 1.0/mat.get(0));
             }
         } else {
-            LUDecompositionAlt_DDRM alg = new LUDecompositionAlt_DDRM();
-            LinearSolverLu_DDRM solver = new LinearSolverLu_DDRM(alg);
+            LinearSolverLu_DDRM solver = new LinearSolverLu_DDRM(createLU(mat.numCols));
             if (solver.setA(mat)) {
                 solver.invert(mat);
             } else {
@@ -804,8 +856,7 @@ public class CommonOps_DDRM {
                 result.set(0, 1.0/mat.get(0));
             }
         } else {
-            LUDecompositionAlt_DDRM alg = new LUDecompositionAlt_DDRM();
-            LinearSolverLu_DDRM solver = new LinearSolverLu_DDRM(alg);
+            LinearSolverLu_DDRM solver = new LinearSolverLu_DDRM(createLU(mat.numCols));
 
             if (solver.modifiesA())
                 mat = mat.copy();
@@ -2871,4 +2922,247 @@ public class CommonOps_DDRM {
     public static DMatrixRMaj apply( DMatrixRMaj input, DOperatorUnary func ) {
         return apply(input, func, input);
     }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a * b <br>
+     * </p>
+     *
+     * <p>
+     * The matrices are views and can be sub-blocks inside larger matrices. The output must already have
+     * the correct shape and can't reference the same elements as the inputs.
+     * </p>
+     *
+     * @param a The left matrix in the multiplication operation. Not modified.
+     * @param b The right matrix in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Modified.
+     */
+    public static void mult( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        MatrixMultStrided_DDRM.mult(1.0, a, false, b, false, c, false);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = &alpha; * a * b <br>
+     * </p>
+     *
+     * @see #mult(DMatrixStrided, DMatrixStrided, DMatrixStrided)
+     */
+    public static void mult( double alpha, DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        MatrixMultStrided_DDRM.mult(alpha, a, false, b, false, c, false);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a<sup>T</sup> * b <br>
+     * </p>
+     *
+     * @see #mult(DMatrixStrided, DMatrixStrided, DMatrixStrided)
+     */
+    public static void multTransA( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        MatrixMultStrided_DDRM.mult(1.0, a, true, b, false, c, false);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a * b<sup>T</sup> <br>
+     * </p>
+     *
+     * @see #mult(DMatrixStrided, DMatrixStrided, DMatrixStrided)
+     */
+    public static void multTransB( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        MatrixMultStrided_DDRM.mult(1.0, a, false, b, true, c, false);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = c + a * b <br>
+     * </p>
+     *
+     * @see #mult(DMatrixStrided, DMatrixStrided, DMatrixStrided)
+     */
+    public static void multAdd( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        MatrixMultStrided_DDRM.mult(1.0, a, false, b, false, c, true);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = c + &alpha; * a * b <br>
+     * </p>
+     *
+     * @see #mult(DMatrixStrided, DMatrixStrided, DMatrixStrided)
+     */
+    public static void multAdd( double alpha, DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        MatrixMultStrided_DDRM.mult(alpha, a, false, b, false, c, true);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = c + a<sup>T</sup> * b <br>
+     * </p>
+     *
+     * @see #mult(DMatrixStrided, DMatrixStrided, DMatrixStrided)
+     */
+    public static void multAddTransA( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        MatrixMultStrided_DDRM.mult(1.0, a, true, b, false, c, true);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = c + a * b<sup>T</sup> <br>
+     * </p>
+     *
+     * @see #mult(DMatrixStrided, DMatrixStrided, DMatrixStrided)
+     */
+    public static void multAddTransB( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        MatrixMultStrided_DDRM.mult(1.0, a, false, b, true, c, true);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a + b <br>
+     * </p>
+     *
+     * <p>
+     * The matrices are views and can be sub-blocks inside larger matrices. All three must have the same shape.
+     * The output can be the same view as an input.
+     * </p>
+     *
+     * @param a A Matrix. Not modified.
+     * @param b A Matrix. Not modified.
+     * @param c A Matrix where the results are stored. Modified.
+     */
+    public static void add( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        UtilEjml.assertShape(a.numRows == b.numRows && a.numCols == b.numCols &&
+                a.numRows == c.numRows && a.numCols == c.numCols, "The matrices must have the same shape");
+
+        for (int i = 0; i < a.numRows; i++) {
+            int indexA = a.index(i, 0);
+            int indexB = b.index(i, 0);
+            int indexC = c.index(i, 0);
+            int end = indexC + a.numCols;
+            while (indexC < end) {
+                c.data[indexC++] = a.data[indexA++] + b.data[indexB++];
+            }
+        }
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * a = a + &beta; * b <br>
+     * </p>
+     *
+     * @param a A Matrix. Modified.
+     * @param beta The number that matrix 'b' is multiplied by.
+     * @param b A Matrix. Not modified.
+     */
+    public static void addEquals( DMatrixStrided a, double beta, DMatrixStrided b ) {
+        UtilEjml.assertShape(a.numRows == b.numRows && a.numCols == b.numCols, "The matrices must have the same shape");
+
+        for (int i = 0; i < a.numRows; i++) {
+            EjmlSimd.KERNELS_F64.axpy(beta, b.data, b.index(i, 0), a.data, a.index(i, 0), a.numCols);
+        }
+    }
+
+    /**
+     * <p>Performs an in-place element by element scalar multiplication.<br>
+     * <br>
+     * a<sub>ij</sub> = &alpha;*a<sub>ij</sub>
+     * </p>
+     *
+     * @param alpha the amount each element is multiplied by.
+     * @param a The matrix that is to be scaled. Modified.
+     */
+    public static void scale( double alpha, DMatrixStrided a ) {
+        for (int i = 0; i < a.numRows; i++) {
+            int index = a.index(i, 0);
+            EjmlSimd.KERNELS_F64.scale(alpha, a.data, index, a.data, index, a.numCols);
+        }
+    }
+
+    /**
+     * <p>
+     * Transposes matrix 'a' and stores the results in 'b':<br>
+     * <br>
+     * b<sub>ij</sub> = a<sub>ji</sub><br>
+     * where 'b' is the transpose of 'a'.
+     * </p>
+     *
+     * @param a The original matrix. Not modified.
+     * @param b Where the transpose is stored. Must already have the correct shape and can't reference the same
+     * elements as 'a'. Modified.
+     */
+    public static void transpose( DMatrixStrided a, DMatrixStrided b ) {
+        UtilEjml.assertShape(a.numRows == b.numCols && a.numCols == b.numRows, "Incompatible matrix shapes");
+        UtilEjml.assertTrue(!a.isOverlapping(b), "'b' can't reference the same elements as 'a'");
+
+        final int blockLength = EjmlParameters.BLOCK_WIDTH;
+        // Process the matrix in square blocks so that the rows in 'b' stay in the cache
+        for (int i = 0; i < a.numRows; i += blockLength) {
+            int blockHeight = Math.min(blockLength, a.numRows - i);
+            for (int j = 0; j < a.numCols; j += blockLength) {
+                int blockWidth = Math.min(blockLength, a.numCols - j);
+                for (int row = i; row < i + blockHeight; row++) {
+                    int indexA = a.index(row, j);
+                    for (int col = j; col < j + blockWidth; col++) {
+                        b.data[b.index(col, row)] = a.data[indexA++];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Solves for x in the following equation:<br>
+     * <br>
+     * A*x = b
+     * </p>
+     *
+     * <p>
+     * The matrices are views and can be sub-blocks inside larger matrices. 'A' is copied internally since its
+     * LU decomposition needs to be stored, but 'b' and 'x' are never copied unless they overlap. 'A' must be square.
+     * </p>
+     *
+     * @param a A matrix that is n by n. Not modified.
+     * @param b A matrix that is n by k. Not modified, unless it's the same view as x.
+     * @param x A matrix that is n by k. Must already have the correct shape. Modified.
+     * @return true if it could solve the system false if 'A' is singular.
+     */
+    public static boolean solve( DMatrixStrided a, DMatrixStrided b, DMatrixStrided x ) {
+        UtilEjml.assertShape(a.numRows == a.numCols, "'a' must be square");
+        UtilEjml.assertShape(b.numRows == a.numRows && x.numRows == a.numRows && x.numCols == b.numCols,
+                "Incompatible matrix shapes");
+
+        final int N = a.numRows;
+        var A = new DMatrixRMaj(N, N);
+        new DMatrixStrided(A).setTo(a);
+
+        var lu = new LUDecompositionAlt_DDRM();
+        if (!lu.decompose(A) || lu.isSingular())
+            return false;
+
+        // x = P*b. The rows of b would be overwritten while being read if they overlap
+        if (x.isOverlapping(b))
+            b = b.copy();
+        int[] pivot = lu.getPivot();
+        for (int i = 0; i < N; i++) {
+            System.arraycopy(b.data, b.index(pivot[i], 0), x.data, x.index(i, 0), x.numCols);
+        }
+
+        var LU = new DMatrixStrided(lu.getLU());
+        TriangularSolver_DDRM.solveL(LU, true, x);
+        TriangularSolver_DDRM.solveU(LU, x);
+        return true;
+    }
 }
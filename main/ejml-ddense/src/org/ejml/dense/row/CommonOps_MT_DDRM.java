@@ -19,11 +19,18 @@
 package org.ejml.dense.row;
 
 import org.ejml.EjmlParameters;
+import org.ejml.MatrixDimensionException;
 import org.ejml.UtilEjml;
 import org.ejml.data.DMatrix1Row;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionBlock_MT_DDRM;
+import org.ejml.dense.row.linsol.lu.LinearSolverLu_DDRM;
 import org.ejml.dense.row.misc.TransposeAlgs_MT_DDRM;
 import org.ejml.dense.row.mult.MatrixMatrixMult_MT_DDRM;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
+import org.ejml.dense.row.mult.MatrixMultPacked_MT_DDRM;
+import org.ejml.dense.row.mult.MatrixMultStrassen_DDRM;
+import org.ejml.dense.row.mult.MatrixMultStrassen_MT_DDRM;
 import org.jetbrains.annotations.Nullable;
 
 import static org.ejml.UtilEjml.reshapeOrDeclare;
@@ -51,7 +58,13 @@ public class CommonOps_MT_DDRM {
         UtilEjml.checkSameInstance(a, output);
         UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.mult_reorder(a, b, output);
+        if (MatrixMultStrassen_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultStrassen_MT_DDRM.mult(a, b, output);
+        } else if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(1.0, a, false, b, false, output, false, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.mult_reorder(a, b, output);
+        }
 
         return output;
     }
@@ -74,7 +87,11 @@ public class CommonOps_MT_DDRM {
         UtilEjml.checkSameInstance(a, output);
         UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.mult_reorder(alpha, a, b, output);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(alpha, a, false, b, false, output, false, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.mult_reorder(alpha, a, b, output);
+        }
 
         return output;
     }
@@ -96,7 +113,11 @@ public class CommonOps_MT_DDRM {
         UtilEjml.checkSameInstance(a, output);
         UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransA_reorder(a, b, output);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(1.0, a, true, b, false, output, false, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multTransA_reorder(a, b, output);
+        }
 
         return output;
     }
@@ -119,7 +140,11 @@ public class CommonOps_MT_DDRM {
         UtilEjml.checkSameInstance(a, output);
         UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransA_reorder(alpha, a, b, output);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(alpha, a, true, b, false, output, false, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multTransA_reorder(alpha, a, b, output);
+        }
 
         return output;
     }
@@ -141,7 +166,11 @@ public class CommonOps_MT_DDRM {
         UtilEjml.checkSameInstance(a, output);
         UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransB(a, b, output);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numRows)) {
+            MatrixMultPacked_MT_DDRM.mult(1.0, a, false, b, true, output, false, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multTransB(a, b, output);
+        }
 
         return output;
     }
@@ -164,7 +193,11 @@ public class CommonOps_MT_DDRM {
         UtilEjml.checkSameInstance(a, output);
         UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransB(alpha, a, b, output);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numRows)) {
+            MatrixMultPacked_MT_DDRM.mult(alpha, a, false, b, true, output, false, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multTransB(alpha, a, b, output);
+        }
 
         return output;
     }
@@ -186,7 +219,11 @@ public class CommonOps_MT_DDRM {
         UtilEjml.checkSameInstance(a, output);
         UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransAB(a, b, output);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numRows)) {
+            MatrixMultPacked_MT_DDRM.mult(1.0, a, true, b, true, output, false, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multTransAB(a, b, output);
+        }
 
         return output;
     }
@@ -209,7 +246,11 @@ public class CommonOps_MT_DDRM {
         UtilEjml.checkSameInstance(a, output);
         UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransAB(alpha, a, b, output);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numRows)) {
+            MatrixMultPacked_MT_DDRM.mult(alpha, a, true, b, true, output, false, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multTransAB(alpha, a, b, output);
+        }
 
         return output;
     }
@@ -227,7 +268,11 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAdd( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAdd_reorder(a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(1.0, a, false, b, false, c, true, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multAdd_reorder(a, b, c);
+        }
     }
 
     /**
@@ -244,7 +289,11 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAdd( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAdd_reorder(alpha, a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(alpha, a, false, b, false, c, true, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multAdd_reorder(alpha, a, b, c);
+        }
     }
 
     /**
@@ -260,7 +309,11 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransA( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(1.0, a, true, b, false, c, true, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(a, b, c);
+        }
     }
 
     /**
@@ -277,7 +330,11 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransA( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(alpha, a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(alpha, a, true, b, false, c, true, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(alpha, a, b, c);
+        }
     }
 
     /**
@@ -293,7 +350,11 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransB( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransB(a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numRows)) {
+            MatrixMultPacked_MT_DDRM.mult(1.0, a, false, b, true, c, true, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multAddTransB(a, b, c);
+        }
     }
 
     /**
@@ -310,7 +371,11 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransB( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransB(alpha, a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numRows, a.numCols, b.numRows)) {
+            MatrixMultPacked_MT_DDRM.mult(alpha, a, false, b, true, c, true, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multAddTransB(alpha, a, b, c);
+        }
     }
 
     /**
@@ -326,7 +391,11 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransAB( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransAB(a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numRows)) {
+            MatrixMultPacked_MT_DDRM.mult(1.0, a, true, b, true, c, true, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multAddTransAB(a, b, c);
+        }
     }
 
     /**
@@ -343,7 +412,11 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransAB( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransAB(alpha, a, b, c);
+        if (MatrixMultPacked_DDRM.isPreferred(a.numCols, a.numRows, b.numRows)) {
+            MatrixMultPacked_MT_DDRM.mult(alpha, a, true, b, true, c, true, null, null);
+        } else {
+            MatrixMatrixMult_MT_DDRM.multAddTransAB(alpha, a, b, c);
+        }
     }
 
     /**
@@ -390,4 +463,48 @@ public class CommonOps_MT_DDRM {
 
         return A_tran;
     }
+
+    /**
+     * Returns the determinant of the matrix. Large matrices are decomposed using a concurrent blocked LU.
+     *
+     * @param mat The matrix whose determinant is to be computed. Not modified.
+     * @return The determinant.
+     * @see CommonOps_DDRM#det(DMatrixRMaj)
+     */
+    public static double det( DMatrixRMaj mat ) {
+        if (mat.numCols < EjmlParameters.SWITCH_BLOCK_LU)
+            return CommonOps_DDRM.det(mat);
+
+        if (mat.numCols != mat.numRows)
+            throw new MatrixDimensionException("Must be a square matrix.");
+
+        var alg = new LUDecompositionBlock_MT_DDRM();
+        if (!alg.decompose(mat))
+            return 0.0;
+        return alg.computeDeterminant().real;
+    }
+
+    /**
+     * Performs a matrix inversion operation that does not modify the original and stores the results
+     * in another matrix. Large matrices are decomposed using a concurrent blocked LU.
+     *
+     * @param mat The matrix that is to be inverted. Not modified.
+     * @param result Where the inverse matrix is stored. Modified.
+     * @return true if it could invert the matrix false if it could not.
+     * @see CommonOps_DDRM#invert(DMatrixRMaj, DMatrixRMaj)
+     */
+    public static boolean invert( DMatrixRMaj mat, DMatrixRMaj result ) {
+        if (mat.numCols < EjmlParameters.SWITCH_BLOCK_LU)
+            return CommonOps_DDRM.invert(mat, result);
+
+        if (mat.numCols != mat.numRows)
+            throw new MatrixDimensionException("Must be a square matrix.");
+        result.reshape(mat.numRows, mat.numCols);
+
+        var solver = new LinearSolverLu_DDRM(new LUDecompositionBlock_MT_DDRM());
+        if (!solver.setA(mat))
+            return false;
+        solver.invert(result);
+        return true;
+    }
 }
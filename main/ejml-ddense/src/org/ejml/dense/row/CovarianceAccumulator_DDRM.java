@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.mult.MatrixMultProduct_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Computes the mean and covariance of a stream of samples without storing the samples. Each sample is a row
+ * vector with {@link #getDimension() dimension} elements. Individual samples are added using Welford's algorithm.
+ * Batches of samples are split into blocks of rows, each block is centered around its own mean and its scatter
+ * matrix is computed with the symmetric rank-k kernel {@link MatrixMultProduct_DDRM#inner_reorder_upper}. The
+ * block's statistics are then combined with the accumulated statistics using the pairwise update from
+ * Chan et. al. [1]. The same update is used to {@link #merge} accumulators that were filled independently,
+ * e.g. one per thread.
+ * </p>
+ *
+ * <p>
+ * Internally only the upper triangle of the scatter matrix, &sum;(x-&mu;)(x-&mu;)<sup>T</sup>, is maintained.
+ * Centering every block before the product avoids the catastrophic cancellation which happens when the covariance
+ * is computed from the raw Gram matrix X<sup>T</sup>X.
+ * </p>
+ *
+ * <p>
+ * [1] Chan, Tony F., Gene H. Golub, and Randall J. LeVeque. "Updating formulae and a pairwise algorithm for
+ * computing sample variances." COMPSTAT 1982.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CovarianceAccumulator_DDRM {
+    /** Number of elements in each sample */
+    protected final int dimension;
+
+    /** Maximum number of rows processed as a single block when adding a batch */
+    protected int blockRows;
+
+    /** Number of samples which have been added */
+    protected long count;
+
+    // Mean of all the samples
+    protected final double[] mean;
+    // Upper triangle of the scatter matrix. Lower triangle is not used
+    protected final DMatrixRMaj scatter;
+
+    // Workspace for processing a block of samples
+    protected final DMatrixRMaj centered = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj blockScatter;
+    protected final double[] blockMean;
+
+    /**
+     * @param dimension Number of elements in each sample.
+     */
+    public CovarianceAccumulator_DDRM( int dimension ) {
+        if (dimension <= 0)
+            throw new IllegalArgumentException("Dimension must be positive");
+        this.dimension = dimension;
+        this.mean = new double[dimension];
+        this.blockMean = new double[dimension];
+        this.scatter = new DMatrixRMaj(dimension, dimension);
+        this.blockScatter = new DMatrixRMaj(dimension, dimension);
+        // keep a block at around 256 kB so that it stays in cache while the product is computed
+        this.blockRows = Math.max(16, 32*1024/dimension);
+    }
+
+    /**
+     * Discards all the samples which have been added
+     */
+    public void reset() {
+        count = 0;
+        for (int i = 0; i < dimension; i++) {
+            mean[i] = 0;
+        }
+        scatter.zero();
+    }
+
+    /**
+     * Adds a single sample.
+     *
+     * @param sample Array containing the sample. Must have at least {@link #getDimension()} elements. Not modified.
+     */
+    public void add( double[] sample ) {
+        if (sample.length < dimension)
+            throw new IllegalArgumentException("Sample has fewer elements than the dimension");
+
+        count++;
+        double[] delta = blockMean;
+        for (int i = 0; i < dimension; i++) {
+            delta[i] = sample[i] - mean[i];
+            mean[i] += delta[i]/count;
+        }
+
+        // scatter += delta*(x - mean_new)^T
+        for (int i = 0; i < dimension; i++) {
+            double d = delta[i];
+            if (d == 0.0)
+                continue;
+            int index = i*dimension + i;
+            for (int j = i; j < dimension; j++) {
+                scatter.data[index++] += d*(sample[j] - mean[j]);
+            }
+        }
+    }
+
+    /**
+     * Adds every row in the matrix as a sample.
+     *
+     * @param samples Matrix where each row is a sample. Number of columns must match the dimension. Not modified.
+     */
+    public void add( DMatrixRMaj samples ) {
+        add(samples, 0, samples.numRows);
+    }
+
+    /**
+     * Adds the rows from row0 (inclusive) to row1 (exclusive) as samples.
+     *
+     * @param samples Matrix where each row is a sample. Number of columns must match the dimension. Not modified.
+     * @param row0 First row which is added.
+     * @param row1 Row after the last one which is added.
+     */
+    public void add( DMatrixRMaj samples, int row0, int row1 ) {
+        checkSamples(samples, row0, row1);
+
+        for (int blockRow0 = row0; blockRow0 < row1; blockRow0 += blockRows) {
+            int blockRow1 = Math.min(row1, blockRow0 + blockRows);
+            addBlock(samples, blockRow0, blockRow1);
+        }
+    }
+
+    /**
+     * Computes the statistics of a single block of samples and merges them into the total
+     */
+    protected void addBlock( DMatrixRMaj samples, int row0, int row1 ) {
+        final int numRows = row1 - row0;
+
+        // mean of the block
+        for (int j = 0; j < dimension; j++) {
+            blockMean[j] = 0;
+        }
+        int indexS = row0*dimension;
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < dimension; j++) {
+                blockMean[j] += samples.data[indexS++];
+            }
+        }
+        for (int j = 0; j < dimension; j++) {
+            blockMean[j] /= numRows;
+        }
+
+        // subtract the mean then compute the scatter with a rank-k product
+        centered.reshape(numRows, dimension);
+        indexS = row0*dimension;
+        int indexC = 0;
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < dimension; j++) {
+                centered.data[indexC++] = samples.data[indexS++] - blockMean[j];
+            }
+        }
+        MatrixMultProduct_DDRM.inner_reorder_upper(centered, blockScatter);
+
+        combine(numRows, blockMean, blockScatter.data);
+    }
+
+    /**
+     * Adds the samples seen by another accumulator to this one. The two accumulators must have the same dimension.
+     *
+     * @param src The accumulator which is merged into this one. Not modified.
+     */
+    public void merge( CovarianceAccumulator_DDRM src ) {
+        if (src.dimension != dimension)
+            throw new IllegalArgumentException("Dimensions do not match. " + src.dimension + " != " + dimension);
+        combine(src.count, src.mean, src.scatter.data);
+    }
+
+    /**
+     * Combines the statistics from another set of samples with the current statistics.
+     *
+     * @param countB Number of samples in the other set
+     * @param meanB Mean of the other set
+     * @param scatterB Upper triangle of the other set's scatter matrix
+     */
+    protected void combine( long countB, double[] meanB, double[] scatterB ) {
+        if (countB == 0)
+            return;
+
+        long total = count + countB;
+        double weight = (double)count*countB/total;
+        double fraction = (double)countB/total;
+
+        // scatter = scatter + scatterB + delta*delta'*count*countB/total
+        for (int i = 0; i < dimension; i++) {
+            double delta_i = meanB[i] - mean[i];
+            double scaled_i = weight*delta_i;
+            int index = i*dimension + i;
+            for (int j = i; j < dimension; j++, index++) {
+                scatter.data[index] += scatterB[index] + scaled_i*(meanB[j] - mean[j]);
+            }
+        }
+
+        for (int i = 0; i < dimension; i++) {
+            mean[i] += fraction*(meanB[i] - mean[i]);
+        }
+        count = total;
+    }
+
+    /**
+     * Returns the mean of all the samples as a column vector.
+     *
+     * @param output (Optional) Storage for the mean. Reshaped to dimension x 1.
+     * @return The mean
+     */
+    public DMatrixRMaj getMean( @Nullable DMatrixRMaj output ) {
+        output = UtilEjml.reshapeOrDeclare(output, dimension, 1);
+        System.arraycopy(mean, 0, output.data, 0, dimension);
+        return output;
+    }
+
+    /**
+     * Returns the scatter matrix, &sum;(x-&mu;)(x-&mu;)<sup>T</sup>, of all the samples.
+     *
+     * @param output (Optional) Storage for the scatter matrix. Reshaped to dimension x dimension.
+     * @return The scatter matrix
+     */
+    public DMatrixRMaj getScatter( @Nullable DMatrixRMaj output ) {
+        output = UtilEjml.reshapeOrDeclare(output, dimension, dimension);
+        copySymmetric(1.0, output);
+        return output;
+    }
+
+    /**
+     * Returns the unbiased sample covariance of all the samples, i.e. the scatter matrix divided by count-1.
+     * At least two samples are required.
+     *
+     * @param output (Optional) Storage for the covariance. Reshaped to dimension x dimension.
+     * @return The covariance
+     */
+    public DMatrixRMaj getCovariance( @Nullable DMatrixRMaj output ) {
+        if (count < 2)
+            throw new IllegalArgumentException("At least two samples are required to compute the covariance");
+        output = UtilEjml.reshapeOrDeclare(output, dimension, dimension);
+        copySymmetric(1.0/(count - 1), output);
+        return output;
+    }
+
+    /**
+     * Returns the Gram matrix of all the samples, X<sup>T</sup>X, where each row in X is a sample. This is
+     * reconstructed from the mean and scatter matrix.
+     *
+     * @param output (Optional) Storage for the Gram matrix. Reshaped to dimension x dimension.
+     * @return The Gram matrix
+     */
+    public DMatrixRMaj getGram( @Nullable DMatrixRMaj output ) {
+        output = UtilEjml.reshapeOrDeclare(output, dimension, dimension);
+        for (int i = 0; i < dimension; i++) {
+            double scaled_i = count*mean[i];
+            for (int j = i; j < dimension; j++) {
+                double value = scatter.data[i*dimension + j] + scaled_i*mean[j];
+                output.data[i*dimension + j] = value;
+                output.data[j*dimension + i] = value;
+            }
+        }
+        return output;
+    }
+
+    private void copySymmetric( double scale, DMatrixRMaj output ) {
+        for (int i = 0; i < dimension; i++) {
+            for (int j = i; j < dimension; j++) {
+                double value = scale*scatter.data[i*dimension + j];
+                output.data[i*dimension + j] = value;
+                output.data[j*dimension + i] = value;
+            }
+        }
+    }
+
+    protected void checkSamples( DMatrixRMaj samples, int row0, int row1 ) {
+        if (samples.numCols != dimension)
+            throw new IllegalArgumentException("Number of columns must match the dimension. " +
+                    samples.numCols + " != " + dimension);
+        if (row0 < 0 || row1 > samples.numRows || row0 > row1)
+            throw new IllegalArgumentException("Invalid row range");
+    }
+
+    /** Number of elements in each sample */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /** Number of samples which have been added */
+    public long getCount() {
+        return count;
+    }
+
+    public int getBlockRows() {
+        return blockRows;
+    }
+
+    /**
+     * Specifies the maximum number of rows which are processed as a single block when a batch is added. Larger
+     * blocks reduce the overhead of merging but require more memory and can fall out of cache.
+     */
+    public void setBlockRows( int blockRows ) {
+        if (blockRows <= 0)
+            throw new IllegalArgumentException("Must be positive");
+        this.blockRows = blockRows;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link CovarianceAccumulator_DDRM}. When a batch of samples is added the rows
+ * are split between threads. Each thread fills its own accumulator and the partial results are then merged,
+ * in a fixed order, into this accumulator.
+ *
+ * @author Peter Abeles
+ */
+public class CovarianceAccumulator_MT_DDRM extends CovarianceAccumulator_DDRM {
+    // Storage for the partial results from each thread
+    protected final GrowArray<CovarianceAccumulator_DDRM> workAccumulators;
+
+    public CovarianceAccumulator_MT_DDRM( int dimension ) {
+        super(dimension);
+        workAccumulators = new GrowArray<>(() -> new CovarianceAccumulator_DDRM(dimension),
+                CovarianceAccumulator_DDRM::reset);
+    }
+
+    @Override
+    public void add( DMatrixRMaj samples, int row0, int row1 ) {
+        checkSamples(samples, row0, row1);
+
+        // not enough work to justify the overhead
+        if (row1 - row0 < 2*blockRows) {
+            super.add(samples, row0, row1);
+            return;
+        }
+
+        workAccumulators.reset();
+        EjmlConcurrency.loopBlocks(row0, row1, blockRows, workAccumulators, ( accumulator, idx0, idx1 ) -> {
+            accumulator.setBlockRows(blockRows);
+            accumulator.add(samples, idx0, idx1);
+        });
+
+        for (int i = 0; i < workAccumulators.size(); i++) {
+            merge(workAccumulators.get(i));
+        }
+    }
+}
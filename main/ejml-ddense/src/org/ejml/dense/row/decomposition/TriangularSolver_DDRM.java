@@ -18,6 +18,9 @@
 
 package org.ejml.dense.row.decomposition;
 
+import org.ejml.data.DMatrixStrided;
+import org.ejml.simd.EjmlSimd;
+
 /**
  * <p>
  * This contains algorithms for solving systems of equations where T is a
@@ -225,4 +228,61 @@ public class TriangularSolver_DDRM {
 
         // todo comment out the above and optimize it
     }
+
+    /**
+     * <p>
+     * Solves for multiple right hand sides at once using a lower triangular matrix:<br>
+     * <br>
+     * B = L<sup>-1</sup>B<br>
+     * <br>
+     * where L is an n by n matrix and B is n by k. Rows of B are updated in their entirety so memory is accessed
+     * sequentially. Both matrices can be views of sub-blocks inside larger matrices.
+     * </p>
+     *
+     * @param L Lower triangular matrix. Only the lower triangle is read. Not modified.
+     * @param unitDiagonal If true the diagonal elements of L are assumed to be one and are not read
+     * @param B Right hand side. Overwritten with the solution.
+     */
+    public static void solveL( DMatrixStrided L, boolean unitDiagonal, DMatrixStrided B ) {
+        final int n = L.numRows;
+        final int k = B.numCols;
+        for (int i = 0; i < n; i++) {
+            final int indexL = L.index(i, 0);
+            final int indexB = B.index(i, 0);
+            for (int j = 0; j < i; j++) {
+                double valL = L.data[indexL + j];
+                if (valL != 0.0)
+                    EjmlSimd.KERNELS_F64.axpy(-valL, B.data, B.index(j, 0), B.data, indexB, k);
+            }
+            if (!unitDiagonal)
+                EjmlSimd.KERNELS_F64.scale(1.0/L.data[indexL + i], B.data, indexB, B.data, indexB, k);
+        }
+    }
+
+    /**
+     * <p>
+     * Solves for multiple right hand sides at once using an upper triangular matrix:<br>
+     * <br>
+     * B = U<sup>-1</sup>B<br>
+     * <br>
+     * where U is an n by n matrix and B is n by k. Both matrices can be views of sub-blocks inside larger matrices.
+     * </p>
+     *
+     * @param U Upper triangular matrix. Only the upper triangle is read. Not modified.
+     * @param B Right hand side. Overwritten with the solution.
+     */
+    public static void solveU( DMatrixStrided U, DMatrixStrided B ) {
+        final int n = U.numRows;
+        final int k = B.numCols;
+        for (int i = n - 1; i >= 0; i--) {
+            final int indexU = U.index(i, 0);
+            final int indexB = B.index(i, 0);
+            for (int j = i + 1; j < n; j++) {
+                double valU = U.data[indexU + j];
+                if (valU != 0.0)
+                    EjmlSimd.KERNELS_F64.axpy(-valU, B.data, B.index(j, 0), B.data, indexB, k);
+            }
+            EjmlSimd.KERNELS_F64.scale(1.0/U.data[indexU + i], B.data, indexB, B.data, indexB, k);
+        }
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.bidiagonal;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.decomposition.bidiagonal.BidiagonalDecompositionHouseholder_DDRB;
+import org.ejml.dense.row.decomposition.BaseDecomposition_DDRB_to_DDRM;
+import org.ejml.interfaces.decomposition.BidiagonalDecomposition_F64;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Wrapper around a block implementation of BidiagonalDecomposition_F64
+ *
+ * @author Peter Abeles
+ */
+public class BidiagonalDecomposition_DDRB_to_DDRM
+        extends BaseDecomposition_DDRB_to_DDRM
+        implements BidiagonalDecomposition_F64<DMatrixRMaj> {
+
+    // reference to the block decomposition with the bidiagonal interface
+    protected final BidiagonalDecomposition_F64<DMatrixRBlock> bidiag;
+
+    public BidiagonalDecomposition_DDRB_to_DDRM() {
+        this(EjmlParameters.BLOCK_WIDTH);
+    }
+
+    public BidiagonalDecomposition_DDRB_to_DDRM( int blockSize ) {
+        this(new BidiagonalDecompositionHouseholder_DDRB(), blockSize);
+    }
+
+    public BidiagonalDecomposition_DDRB_to_DDRM( BidiagonalDecomposition_F64<DMatrixRBlock> alg, int blockSize ) {
+        super(alg, blockSize);
+        this.bidiag = alg;
+    }
+
+    @Override
+    public void getDiagonal( double[] diag, double[] off ) {
+        bidiag.getDiagonal(diag, off);
+    }
+
+    @Override
+    public DMatrixRMaj getB( @Nullable DMatrixRMaj B, boolean compact ) {
+        int m = Ablock.numRows;
+        int n = Ablock.numCols;
+        int min = Math.min(m, n);
+        B = BidiagonalDecompositionRow_DDRM.handleB(B, compact, m, n, min);
+
+        double[] diag = new double[min];
+        double[] off = new double[min];
+        getDiagonal(diag, off);
+
+        B.set(0, 0, diag[0]);
+        for (int i = 1; i < min; i++) {
+            B.set(i, i, diag[i]);
+            B.set(i - 1, i, off[i - 1]);
+        }
+        if (n > m)
+            B.set(min - 1, min, off[min - 1]);
+
+        return B;
+    }
+
+    @Override
+    public DMatrixRMaj getU( @Nullable DMatrixRMaj U, boolean transpose, boolean compact ) {
+        int m = Ablock.numRows;
+        int n = Ablock.numCols;
+        U = BidiagonalDecompositionRow_DDRM.handleU(U, transpose, compact, m, n, Math.min(m, n));
+
+        bidiag.getU(wrap(U), transpose, compact);
+        convertBlockToRow(U.numRows, U.numCols, U.data);
+
+        return U;
+    }
+
+    @Override
+    public DMatrixRMaj getV( @Nullable DMatrixRMaj V, boolean transpose, boolean compact ) {
+        int m = Ablock.numRows;
+        int n = Ablock.numCols;
+        V = BidiagonalDecompositionRow_DDRM.handleV(V, transpose, compact, m, n, Math.min(m, n));
+
+        bidiag.getV(wrap(V), transpose, compact);
+        convertBlockToRow(V.numRows, V.numCols, V.data);
+
+        return V;
+    }
+
+    /**
+     * Creates a block matrix which uses the same array as the row major matrix
+     */
+    private DMatrixRBlock wrap( DMatrixRMaj M ) {
+        DMatrixRBlock block = new DMatrixRBlock();
+        block.numRows = M.numRows;
+        block.numCols = M.numCols;
+        block.blockLength = blockLength;
+        block.data = M.data;
+        return block;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
+import org.ejml.dense.row.mult.MatrixMultStrided_DDRM;
+
+/**
+ * <p>
+ * Recursive Cholesky decomposition, based on the algorithms by Gustavson and Toledo. The matrix is split in
+ * half, the top left quadrant is decomposed recursively, the bottom left quadrant is solved for, the bottom
+ * right quadrant is updated, and then decomposed recursively:
+ * </p>
+ * <pre>
+ * [ A11  *  ]   [ L11  0  ] [ L11<sup>T</sup> L21<sup>T</sup> ]
+ * [ A21 A22 ] = [ L21 L22 ] [  0   L22<sup>T</sup> ]
+ *
+ * L21 = A21*L11<sup>-T</sup>
+ * L22*L22<sup>T</sup> = A22 - L21*L21<sup>T</sup>
+ * </pre>
+ * <p>
+ * The triangular solve and the symmetric update are also done recursively, which reduces almost all the work
+ * to matrix multiplications. Since the sub-problems naturally shrink until they fit inside each level of the
+ * cache, this runs close to the speed of matrix multiplication without a tuned block size.
+ * </p>
+ *
+ * <p>
+ * The upper triangular decomposition is computed by transposing the upper triangle into the lower triangle,
+ * decomposing the lower triangle, then transposing the results back.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyDecompositionRecursive_DDRM extends CholeskyDecompositionCommon_DDRM {
+    // size at which recursion stops
+    protected final int baseWidth;
+
+    // storage for the packed blocks used by matrix multiplication
+    protected final DGrowArray workA = new DGrowArray();
+    protected final DGrowArray workB = new DGrowArray();
+
+    /**
+     * @param lower should a lower or upper triangular matrix be used.
+     * @param baseWidth Size at which it switches to the unblocked algorithm.
+     */
+    public CholeskyDecompositionRecursive_DDRM( boolean lower, int baseWidth ) {
+        super(lower);
+        if (baseWidth <= 0)
+            throw new IllegalArgumentException("baseWidth must be positive");
+        this.baseWidth = baseWidth;
+    }
+
+    public CholeskyDecompositionRecursive_DDRM( boolean lower ) {
+        this(lower, 16);
+    }
+
+    @Override
+    protected boolean decomposeLower() {
+        if (!decompose(0, n))
+            return false;
+
+        // zero the top right corner.
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                t[i*n + j] = 0.0;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean decomposeUpper() {
+        // copy the upper triangle into the lower triangle
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                t[i*n + j] = t[j*n + i];
+            }
+        }
+
+        if (!decompose(0, n))
+            return false;
+
+        // U = L^T
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                t[j*n + i] = t[i*n + j];
+                t[i*n + j] = 0.0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Recursively decomposes the lower triangle of the sub-matrix in rows and columns j0 to j1
+     *
+     * @return true if successful or false if the matrix is not positive definite
+     */
+    protected boolean decompose( final int j0, final int j1 ) {
+        if (j1 - j0 <= baseWidth) {
+            return decomposeInner(j0, j1);
+        }
+
+        final int h = j0 + (j1 - j0)/2;
+
+        if (!decompose(j0, h))
+            return false;
+        // L21 = A21*L11^-T
+        solveLowerTran(h, j1, j0, h);
+        // A22 = A22 - L21*L21^T
+        symmRankMinus(h, j1, j0, h);
+        return decompose(h, j1);
+    }
+
+    /**
+     * Unblocked decomposition of the lower triangle of the sub-matrix in rows and columns j0 to j1
+     */
+    protected boolean decomposeInner( final int j0, final int j1 ) {
+        for (int i = j0; i < j1; i++) {
+            final int rowI = i*n;
+            for (int j = j0; j <= i; j++) {
+                final int rowJ = j*n;
+                double sum = t[rowI + j];
+                for (int k = j0; k < j; k++) {
+                    sum -= t[rowI + k]*t[rowJ + k];
+                }
+
+                if (i == j) {
+                    // is it positive-definite?
+                    if (sum <= 0.0)
+                        return false;
+                    t[rowI + i] = Math.sqrt(sum);
+                } else {
+                    t[rowI + j] = sum/t[rowJ + j];
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Recursively computes X = B*L<sup>-T</sup> in place, where L is the lower triangular matrix in rows and
+     * columns c0 to c1 and B is in rows r0 to r1 and columns c0 to c1.
+     */
+    protected void solveLowerTran( final int r0, final int r1, final int c0, final int c1 ) {
+        if (c1 - c0 <= baseWidth) {
+            for (int i = r0; i < r1; i++) {
+                final int rowI = i*n;
+                for (int j = c0; j < c1; j++) {
+                    final int rowJ = j*n;
+                    double sum = t[rowI + j];
+                    for (int k = c0; k < j; k++) {
+                        sum -= t[rowI + k]*t[rowJ + k];
+                    }
+                    t[rowI + j] = sum/t[rowJ + j];
+                }
+            }
+            return;
+        }
+
+        final int h = c0 + (c1 - c0)/2;
+
+        solveLowerTran(r0, r1, c0, h);
+        // B2 = B2 - X1*L21^T
+        multMinus(
+                new DMatrixStrided(t, r0*n + c0, n, r1 - r0, h - c0),
+                new DMatrixStrided(t, h*n + c0, n, c1 - h, h - c0),
+                new DMatrixStrided(t, r0*n + h, n, r1 - r0, c1 - h));
+        solveLowerTran(r0, r1, h, c1);
+    }
+
+    /**
+     * Recursively computes C = C - A*A<sup>T</sup> where only the lower triangle of C is updated. C is in rows
+     * and columns r0 to r1 and A is in rows r0 to r1 and columns c0 to c1.
+     */
+    protected void symmRankMinus( final int r0, final int r1, final int c0, final int c1 ) {
+        if (r1 - r0 <= baseWidth) {
+            for (int i = r0; i < r1; i++) {
+                final int rowI = i*n;
+                for (int j = r0; j <= i; j++) {
+                    final int rowJ = j*n;
+                    double sum = 0;
+                    for (int k = c0; k < c1; k++) {
+                        sum += t[rowI + k]*t[rowJ + k];
+                    }
+                    t[rowI + j] -= sum;
+                }
+            }
+            return;
+        }
+
+        final int h = r0 + (r1 - r0)/2;
+
+        symmRankMinus(r0, h, c0, c1);
+        // C21 = C21 - A2*A1^T
+        multMinus(
+                new DMatrixStrided(t, h*n + c0, n, r1 - h, c1 - c0),
+                new DMatrixStrided(t, r0*n + c0, n, h - r0, c1 - c0),
+                new DMatrixStrided(t, h*n + r0, n, r1 - h, h - r0));
+        symmRankMinus(h, r1, c0, c1);
+    }
+
+    /**
+     * C = C - A*B<sup>T</sup>
+     */
+    protected void multMinus( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C ) {
+        if (MatrixMultPacked_DDRM.isPreferred(C.numRows, A.numCols, C.numCols)) {
+            MatrixMultPacked_DDRM.mult(-1.0, A, false, B, true, C, true, workA, workB);
+        } else {
+            MatrixMultStrided_DDRM.mult(-1.0, A, false, B, true, C, true);
+        }
+    }
+
+    public int getBaseWidth() {
+        return baseWidth;
+    }
+}
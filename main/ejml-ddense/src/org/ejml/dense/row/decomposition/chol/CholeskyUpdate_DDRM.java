@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Updates a Cholesky factorization after the decomposed matrix is modified by a low rank matrix. This requires
+ * O(k*n<sup>2</sup>) flops instead of the O(n<sup>3</sup>) flops needed to decompose the matrix again.
+ * </p>
+ *
+ * <ul>
+ *     <li>update: L*L<sup>T</sup> = A + X*X<sup>T</sup></li>
+ *     <li>downdate: L*L<sup>T</sup> = A - X*X<sup>T</sup></li>
+ * </ul>
+ *
+ * <p>
+ * where A=L*L<sup>T</sup> before the modification, L &isin; &real; <sup>n &times; n</sup> is lower triangular
+ * and X &isin; &real; <sup>n &times; k</sup>. Elements above the diagonal in L are not read or modified.
+ * Updates are allowed to start from a singular factor, e.g. all zeros, which makes it possible to build up
+ * a factor one row at a time.
+ * An upper triangular factor can be handled by transposing it.
+ * </p>
+ *
+ * <p>
+ * Each column in X is applied as a sequence of Givens rotations, or hyperbolic rotations for downdates, see
+ * Golub and Van Loan, "Matrix Computations" 4th ed, section 6.5.4. All the columns in X are applied
+ * while traversing L once, one row at a time, so that the memory access is sequential in row-major order.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyUpdate_DDRM {
+    // cosine and sine of each rotation. Row j contains the rotations for column j in X
+    private final DGrowArray cosines = new DGrowArray();
+    private final DGrowArray sines = new DGrowArray();
+
+    // copy of L which is restored if a downdate fails
+    private final DMatrixRMaj backup = new DMatrixRMaj(1, 1);
+
+    /**
+     * Rank-1 update: L*L<sup>T</sup> = L*L<sup>T</sup> + x*x<sup>T</sup>
+     *
+     * @param L (Input/Output) Lower triangular Cholesky factor. Modified.
+     * @param x (Input) Vector of length n. Not modified.
+     */
+    public void update( DMatrixRMaj L, double[] x ) {
+        process(L, DMatrixRMaj.wrap(x.length, 1, x), false);
+    }
+
+    /**
+     * Rank-k update: L*L<sup>T</sup> = L*L<sup>T</sup> + X*X<sup>T</sup>
+     *
+     * @param L (Input/Output) Lower triangular Cholesky factor. Modified.
+     * @param X (Input) n by k matrix. Not modified.
+     */
+    public void update( DMatrixRMaj L, DMatrixRMaj X ) {
+        process(L, X, false);
+    }
+
+    /**
+     * Rank-1 downdate: L*L<sup>T</sup> = L*L<sup>T</sup> - x*x<sup>T</sup>
+     *
+     * @param L (Input/Output) Lower triangular Cholesky factor. Modified.
+     * @param x (Input) Vector of length n. Not modified.
+     * @return true if successful. If false then the result isn't positive definite and L is not modified.
+     */
+    public boolean downdate( DMatrixRMaj L, double[] x ) {
+        return downdate(L, DMatrixRMaj.wrap(x.length, 1, x));
+    }
+
+    /**
+     * Rank-k downdate: L*L<sup>T</sup> = L*L<sup>T</sup> - X*X<sup>T</sup>
+     *
+     * @param L (Input/Output) Lower triangular Cholesky factor. Modified.
+     * @param X (Input) n by k matrix. Not modified.
+     * @return true if successful. If false then the result isn't positive definite and L is not modified.
+     */
+    public boolean downdate( DMatrixRMaj L, DMatrixRMaj X ) {
+        backup.setTo(L);
+        if (process(L, X, true))
+            return true;
+        L.setTo(backup);
+        return false;
+    }
+
+    /**
+     * Applies all the columns in X to L one row at a time. The rotations for column j of X at row i depend
+     * on row i after column j-1 has been applied and the rotations from rows before i.
+     *
+     * @return false if a downdate fails
+     */
+    private boolean process( DMatrixRMaj L, DMatrixRMaj X, boolean downdate ) {
+        int n = L.numCols;
+        int k = X.numCols;
+        if (L.numRows != n)
+            throw new IllegalArgumentException("L must be square");
+        if (X.numRows != n)
+            throw new IllegalArgumentException("X must have the same number of rows as L");
+
+        double[] c = cosines.reshape(k*n).data;
+        double[] s = sines.reshape(k*n).data;
+        double[] l = L.data;
+
+        for (int i = 0; i < n; i++) {
+            int rowL = i*n;
+            for (int j = 0; j < k; j++) {
+                double xi = X.data[i*k + j];
+                int rot = j*n;
+
+                if (downdate) {
+                    // apply the hyperbolic rotations from the previous rows
+                    for (int col = 0; col < i; col++) {
+                        double lic = (l[rowL + col] - s[rot + col]*xi)/c[rot + col];
+                        l[rowL + col] = lic;
+                        xi = c[rot + col]*xi - s[rot + col]*lic;
+                    }
+
+                    // compute the rotation which zeros xi
+                    double lii = l[rowL + i];
+                    if (xi == 0.0) {
+                        c[rot + i] = 1.0;
+                        s[rot + i] = 0.0;
+                        continue;
+                    }
+                    double r2 = lii*lii - xi*xi;
+                    if (!(r2 > 0.0))
+                        return false;
+                    double r = Math.sqrt(r2);
+                    c[rot + i] = r/lii;
+                    s[rot + i] = xi/lii;
+                    l[rowL + i] = r;
+                } else {
+                    // apply the Givens rotations from the previous rows
+                    for (int col = 0; col < i; col++) {
+                        double lic = l[rowL + col];
+                        l[rowL + col] = c[rot + col]*lic + s[rot + col]*xi;
+                        xi = c[rot + col]*xi - s[rot + col]*lic;
+                    }
+
+                    // compute the rotation which zeros xi. The diagonal can be zero, e.g. an empty factor
+                    double lii = l[rowL + i];
+                    double r = Math.sqrt(lii*lii + xi*xi);
+                    if (r == 0.0) {
+                        c[rot + i] = 1.0;
+                        s[rot + i] = 0.0;
+                    } else {
+                        c[rot + i] = lii/r;
+                        s[rot + i] = xi/r;
+                    }
+                    l[rowL + i] = r;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.decomposition.eig.schur.MultishiftQrSchur_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecompositionBlock_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+
+/**
+ * <p>
+ * Finds the eigenvalue decomposition of an arbitrary square matrix by reducing it to Hessenberg form and then
+ * computing its real Schur form with the small bulge multishift QR algorithm and aggressive early deflation. For
+ * large matrices this is much faster than {@link WatchedDoubleStepQRDecomposition_DDRM} since most of the work is
+ * done with matrix multiplications and far fewer QR sweeps are needed.
+ * </p>
+ *
+ * <p>
+ * Eigenvectors are found by back substitution on the Schur form then transformed back into the original basis
+ * with a single matrix multiplication. Just like {@link WatchedDoubleStepQRDecomposition_DDRM}, eigenvectors are
+ * only computed for real eigenvalues and are null for complex eigenvalues.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see MultishiftQrSchur_DDRM
+ */
+@SuppressWarnings("NullAway.Init")
+public class MultishiftQRDecomposition_DDRM
+        implements EigenDecomposition_F64<DMatrixRMaj> {
+
+    // computes a Hessenberg matrix which is similar to the input
+    protected final HessenbergSimilarDecomposition_DDRM hessenberg;
+    // computes the Schur form of the Hessenberg matrix
+    protected final MultishiftQrSchur_DDRM schur;
+
+    // should it compute eigenvectors or just eigenvalues
+    protected final boolean computeVectors;
+
+    // Hessenberg matrix, which is replaced by its Schur form
+    protected DMatrixRMaj H = new DMatrixRMaj(1, 1);
+    // the Schur vectors
+    protected DMatrixRMaj Z = new DMatrixRMaj(1, 1);
+    // eigenvectors of the Schur form are stored in the columns
+    protected final DMatrixRMaj X = new DMatrixRMaj(1, 1);
+    // eigenvectors of the original matrix are stored in the columns
+    protected final DMatrixRMaj V = new DMatrixRMaj(1, 1);
+
+    protected int N;
+    // solution to a 2x2 system
+    private double sol0, sol1;
+    protected Complex_F64[] eigenvalues = new Complex_F64[0];
+    protected DMatrixRMaj[] eigenvectors = new DMatrixRMaj[0];
+
+    public MultishiftQRDecomposition_DDRM( HessenbergSimilarDecomposition_DDRM hessenberg,
+                                           MultishiftQrSchur_DDRM schur,
+                                           boolean computeVectors ) {
+        this.hessenberg = hessenberg;
+        this.schur = schur;
+        this.computeVectors = computeVectors;
+    }
+
+    public MultishiftQRDecomposition_DDRM( boolean computeVectors ) {
+        this(new HessenbergSimilarDecompositionBlock_DDRM(), new MultishiftQrSchur_DDRM(), computeVectors);
+    }
+
+    @Override
+    public boolean decompose( DMatrixRMaj A ) {
+        if (A.numCols != A.numRows)
+            throw new IllegalArgumentException("Matrix must be square.");
+        if (A.numCols <= 0)
+            return false;
+
+        N = A.numRows;
+        if (!hessenberg.decompose(A))
+            return false;
+
+        H = hessenberg.getH(H);
+        if (computeVectors)
+            Z = hessenberg.getQ(Z);
+
+        if (!schur.process(H, computeVectors ? Z : null, computeVectors))
+            return false;
+
+        if (eigenvalues.length != N) {
+            eigenvalues = new Complex_F64[N];
+            for (int i = 0; i < N; i++) {
+                eigenvalues[i] = new Complex_F64();
+            }
+        }
+        double[] wr = schur.getEigenvaluesReal();
+        double[] wi = schur.getEigenvaluesImaginary();
+        for (int i = 0; i < N; i++) {
+            eigenvalues[i].setTo(wr[i], wi[i]);
+        }
+
+        if (computeVectors)
+            computeEigenvectors();
+
+        return true;
+    }
+
+    /**
+     * Computes the eigenvectors of the real eigenvalues by back substitution on the Schur form, T. The eigenvector
+     * for diagonal element k has zeros below row k, so X is upper triangular. Then V = Z*X.
+     */
+    protected void computeEigenvectors() {
+        final double[] t = H.data;
+        final double ulp = UtilEjml.EPS;
+        final double smlnum = Double.MIN_NORMAL*(N/ulp);
+        final double bignum = (1.0 - ulp)/smlnum;
+
+        X.reshape(N, N);
+        X.zero();
+        final double[] x = X.data;
+
+        for (int k = 0; k < N; k++) {
+            boolean complex = (k > 0 && t[k*N + k - 1] != 0) || (k + 1 < N && t[(k + 1)*N + k] != 0);
+            if (complex)
+                continue;
+
+            double lambda = t[k*N + k];
+            // pivots smaller than this are perturbed to avoid dividing by zero
+            double smin = Math.max(ulp*Math.abs(lambda), smlnum);
+
+            x[k*N + k] = 1;
+            for (int i = k - 1; i >= 0; i--) {
+                if (i > 0 && t[i*N + i - 1] != 0) {
+                    // solve the 2x2 system for rows i-1 and i
+                    int i0 = i - 1;
+                    double r0 = -dotRow(t, x, i0, k);
+                    double r1 = -dotRow(t, x, i, k);
+                    solve2x2(t[i0*N + i0] - lambda, t[i0*N + i], t[i*N + i0], t[i*N + i] - lambda,
+                            r0, r1, smin);
+                    x[i0*N + k] = sol0;
+                    x[i*N + k] = sol1;
+                    i--;
+                } else {
+                    double pivot = t[i*N + i] - lambda;
+                    if (Math.abs(pivot) < smin)
+                        pivot = smin;
+                    x[i*N + k] = -dotRow(t, x, i, k)/pivot;
+                }
+
+                // rescale to prevent overflow
+                double max = 0;
+                for (int j = i; j <= k; j++) {
+                    max = Math.max(max, Math.abs(x[j*N + k]));
+                }
+                if (max > bignum) {
+                    for (int j = i; j <= k; j++) {
+                        x[j*N + k] /= max;
+                    }
+                }
+            }
+        }
+
+        V.reshape(N, N);
+        mult(Z, X, V);
+
+        if (eigenvectors.length != N)
+            eigenvectors = new DMatrixRMaj[N];
+        for (int k = 0; k < N; k++) {
+            if (eigenvalues[k].isReal()) {
+                DMatrixRMaj v = eigenvectors[k];
+                if (v == null)
+                    eigenvectors[k] = v = new DMatrixRMaj(N, 1);
+                CommonOps_DDRM.extractColumn(V, k, v);
+                NormOps_DDRM.normalizeF(v);
+            } else {
+                eigenvectors[k] = null;
+            }
+        }
+    }
+
+    /**
+     * Solves [a b; c d]*[sol0; sol1] = [r0; r1] using Gaussian elimination with partial pivoting, which unlike
+     * the determinant won't underflow when the elements are small. Pivots smaller than smin are perturbed.
+     */
+    private void solve2x2( double a, double b, double c, double d, double r0, double r1, double smin ) {
+        if (Math.abs(c) > Math.abs(a)) {
+            double tmp = a;
+            a = c;
+            c = tmp;
+            tmp = b;
+            b = d;
+            d = tmp;
+            tmp = r0;
+            r0 = r1;
+            r1 = tmp;
+        }
+        if (Math.abs(a) < smin)
+            a = smin;
+        double l = c/a;
+        d -= l*b;
+        r1 -= l*r0;
+        if (Math.abs(d) < smin)
+            d = smin;
+        sol1 = r1/d;
+        sol0 = (r0 - b*sol1)/a;
+    }
+
+    /**
+     * Computes the sum of T[row,j]*X[j,k] for j = row+1 to k
+     */
+    private double dotRow( double[] t, double[] x, int row, int k ) {
+        double sum = 0;
+        for (int j = row + 1; j <= k; j++) {
+            sum += t[row*N + j]*x[j*N + k];
+        }
+        return sum;
+    }
+
+    /**
+     * C = A*B
+     */
+    protected void mult( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DDRM.mult(A, B, C);
+    }
+
+    @Override
+    public boolean inputModified() {
+        return hessenberg.inputModified();
+    }
+
+    @Override
+    public int getNumberOfEigenvalues() {
+        return N;
+    }
+
+    @Override
+    public Complex_F64 getEigenvalue( int index ) {
+        return eigenvalues[index];
+    }
+
+    @Override
+    public DMatrixRMaj getEigenVector( int index ) {
+        return eigenvectors[index];
+    }
+
+    public MultishiftQrSchur_DDRM getSchur() {
+        return schur;
+    }
+}
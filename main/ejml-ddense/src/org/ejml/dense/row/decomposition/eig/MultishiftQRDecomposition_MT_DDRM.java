@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_MT_DDRM;
+import org.ejml.dense.row.decomposition.eig.schur.MultishiftQrSchur_MT_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecompositionBlock_MT_DDRM;
+
+/**
+ * Concurrent implementation of {@link MultishiftQRDecomposition_DDRM}. The Hessenberg reduction, the
+ * updates inside the Schur decomposition, and the back transform of the eigenvectors are all done concurrently.
+ *
+ * @author Peter Abeles
+ */
+public class MultishiftQRDecomposition_MT_DDRM extends MultishiftQRDecomposition_DDRM {
+    public MultishiftQRDecomposition_MT_DDRM( boolean computeVectors ) {
+        super(new HessenbergSimilarDecompositionBlock_MT_DDRM(), new MultishiftQrSchur_MT_DDRM(), computeVectors);
+    }
+
+    @Override
+    protected void mult( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_MT_DDRM.mult(A, B, C);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricQREigenHelper_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricQrAlgorithm_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricTridiagonalDivideConquer_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.interfaces.decomposition.TridiagonalSimilarDecomposition_F64;
+
+/**
+ * <p>
+ * Computes the eigenvalues and eigenvectors of a real symmetric matrix by first reducing it to a similar
+ * tridiagonal matrix, then decomposing that with the divide and conquer algorithm. The eigenvectors of the
+ * tridiagonal matrix are transformed back into eigenvectors of the original matrix with a single
+ * matrix multiplication. When a large number of eigenvectors are needed this is much faster than
+ * {@link SymmetricQRAlgorithmDecomposition_DDRM}, which has to apply every rotation to the eigenvectors.
+ * </p>
+ *
+ * <p>
+ * If eigenvectors are not requested then the eigenvalues are found with the symmetric QR algorithm, since that is
+ * faster.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see SymmetricTridiagonalDivideConquer_DDRM
+ */
+@SuppressWarnings("NullAway.Init")
+public class SymmetricDivideConquerDecomposition_DDRM
+        implements EigenDecomposition_F64<DMatrixRMaj> {
+
+    // computes a tridiagonal matrix whose eigenvalues are the same as the original
+    private final TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp;
+    // computes the eigenvalues and eigenvectors of the tridiagonal matrix
+    private final SymmetricTridiagonalDivideConquer_DDRM divide;
+    // used to compute just the eigenvalues
+    private final SymmetricQREigenHelper_DDRM helper = new SymmetricQREigenHelper_DDRM();
+    private final SymmetricQrAlgorithm_DDRM qr = new SymmetricQrAlgorithm_DDRM(helper);
+
+    // should it compute eigenvectors or just eigenvalues
+    private final boolean computeVectors;
+
+    // size of the decomposed matrix
+    private int N;
+
+    // where the tridiagonal matrix is stored
+    private double[] diag = new double[0];
+    private double[] off = new double[0];
+
+    // where the found eigenvalues are stored
+    private double[] values;
+
+    // transpose of the orthogonal matrix in the similar transform
+    private final DMatrixRMaj QT = new DMatrixRMaj(1, 1);
+    // eigenvectors are stored in the rows
+    private final DMatrixRMaj V = new DMatrixRMaj(1, 1);
+    // the extracted eigenvectors
+    private DMatrixRMaj[] eigenvectors;
+
+    public SymmetricDivideConquerDecomposition_DDRM( TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp,
+                                                     SymmetricTridiagonalDivideConquer_DDRM divide,
+                                                     boolean computeVectors ) {
+        this.decomp = decomp;
+        this.divide = divide;
+        this.computeVectors = computeVectors;
+    }
+
+    public SymmetricDivideConquerDecomposition_DDRM( boolean computeVectors ) {
+        this(DecompositionFactory_DDRM.tridiagonal(0), new SymmetricTridiagonalDivideConquer_DDRM(), computeVectors);
+    }
+
+    @Override
+    public int getNumberOfEigenvalues() {
+        return N;
+    }
+
+    @Override
+    public Complex_F64 getEigenvalue( int index ) {
+        return new Complex_F64(values[index], 0);
+    }
+
+    @Override
+    public DMatrixRMaj getEigenVector( int index ) {
+        return eigenvectors[index];
+    }
+
+    @Override
+    public boolean decompose( DMatrixRMaj orig ) {
+        if (orig.numCols != orig.numRows)
+            throw new IllegalArgumentException("Matrix must be square.");
+        if (orig.numCols <= 0)
+            return false;
+
+        N = orig.numRows;
+
+        // compute a similar tridiagonal matrix
+        if (!decomp.decompose(orig))
+            return false;
+
+        if (diag.length < N) {
+            diag = new double[N];
+            off = new double[N];
+        }
+        decomp.getDiagonal(diag, off);
+
+        if (!computeVectors) {
+            helper.init(diag, off, N);
+            qr.setQ(null);
+            qr.setFastEigenvalues(true);
+            if (!qr.process(-1, null, null))
+                return false;
+            values = helper.copyEigenvalues(values);
+            return true;
+        }
+
+        if (!divide.process(N, diag, off))
+            return false;
+
+        if (values == null || values.length < N)
+            values = new double[N];
+        System.arraycopy(divide.getEigenvalues(), 0, values, 0, N);
+
+        // eigenvectors of the original matrix are Q*Z. Computed as Z'*Q' so that they are in the rows of V
+        decomp.getQ(QT, true);
+        V.reshape(N, N);
+        divide.transformEigenvectors(QT, V);
+        eigenvectors = CommonOps_DDRM.rowsToVector(V, eigenvectors);
+
+        return true;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return decomp.inputModified();
+    }
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.schur;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Computes the real Schur decomposition of a small upper Hessenberg matrix, or a sub-matrix of one, using the
+ * implicit double shift QR algorithm. The result is quasi-upper triangular with 1x1 and 2x2 blocks along the
+ * diagonal. Each 2x2 block is in standard form, i.e. it has equal diagonal elements and off diagonal elements
+ * of opposite sign, and contains a complex conjugate pair of eigenvalues. Optionally the orthogonal transforms
+ * are accumulated into a matrix Z.
+ * </p>
+ *
+ * <p>
+ * Deflation uses the criteria from Ahues and Tisseur, which is less likely to miss small sub-diagonal
+ * elements than the classic test. Exceptional shifts are used if an eigenvalue has not been found after
+ * many iterations.
+ * </p>
+ *
+ * <p>
+ * [1] LAPACK, DLAHQR and DLANV2<br>
+ * [2] David S. Watkins, "Fundamentals of Matrix Computations," Second Edition.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FrancisQrSchur_DDRM {
+    // number of iterations without a deflation before an exceptional shift is used
+    protected static final int EXCEPTIONAL = 10;
+
+    /**
+     * Computes the Schur decomposition of rows and columns ilo to ihi, inclusive. Elements below the
+     * sub-diagonal of H are set to zero.
+     *
+     * @param H (Input/Output) Upper Hessenberg matrix. Rows and columns ilo to ihi are modified. If wantT is true
+     * then rows and columns outside this range are also updated.
+     * @param ilo First row and column of the sub-matrix.
+     * @param ihi Last row and column of the sub-matrix.
+     * @param wantT If true then the full Schur form is computed. Otherwise only the eigenvalues.
+     * @param Z (Output) If not null then the transforms are applied to rows iloz to ihiz of Z from the right.
+     * @param wr (Output) Real component of eigenvalues. Indexed by diagonal element.
+     * @param wi (Output) Imaginary component of eigenvalues. Indexed by diagonal element.
+     * @return true if it succeeded or false if it failed to converge
+     */
+    public boolean process( DMatrixRMaj H, int ilo, int ihi, boolean wantT,
+                            @Nullable DMatrixRMaj Z, int iloz, int ihiz,
+                            double[] wr, double[] wi ) {
+        final int n = H.numCols;
+        final double[] h = H.data;
+
+        if (ilo > ihi)
+            return true;
+        if (ilo == ihi) {
+            wr[ilo] = h[ilo*n + ilo];
+            wi[ilo] = 0;
+            return true;
+        }
+
+        // clear out any trash below the sub-diagonal
+        for (int j = ilo; j <= ihi - 3; j++) {
+            h[(j + 2)*n + j] = 0;
+            h[(j + 3)*n + j] = 0;
+        }
+        if (ilo <= ihi - 2)
+            h[ihi*n + ihi - 2] = 0;
+
+        final int nh = ihi - ilo + 1;
+        final double ulp = UtilEjml.EPS;
+        final double smlnum = Double.MIN_NORMAL*(nh/ulp);
+
+        // range of columns and rows which are updated when the full Schur form is computed
+        int i1 = 0, i2 = n - 1;
+
+        final int maxIterations = 30*Math.max(10, nh);
+        int numNoDeflation = 0;
+
+        // the eigenvalue at row i is found next
+        int i = ihi;
+        while (i >= ilo) {
+            int l = ilo;
+            boolean converged = false;
+            for (int its = 0; its <= maxIterations; its++) {
+                // look for a single small sub-diagonal element
+                int k;
+                for (k = i; k > l; k--) {
+                    double hkk1 = Math.abs(h[k*n + k - 1]);
+                    if (hkk1 <= smlnum)
+                        break;
+                    double tst = Math.abs(h[(k - 1)*n + k - 1]) + Math.abs(h[k*n + k]);
+                    if (tst == 0) {
+                        if (k - 2 >= ilo)
+                            tst += Math.abs(h[(k - 1)*n + k - 2]);
+                        if (k + 1 <= ihi)
+                            tst += Math.abs(h[(k + 1)*n + k]);
+                    }
+                    if (hkk1 <= ulp*tst) {
+                        double hk1k = Math.abs(h[(k - 1)*n + k]);
+                        double ab = Math.max(hkk1, hk1k);
+                        double ba = Math.min(hkk1, hk1k);
+                        double hkk = Math.abs(h[k*n + k]);
+                        double diff = Math.abs(h[(k - 1)*n + k - 1] - h[k*n + k]);
+                        double aa = Math.max(hkk, diff);
+                        double bb = Math.min(hkk, diff);
+                        double s = aa + ab;
+                        if (ba*(ab/s) <= Math.max(smlnum, ulp*(bb*(aa/s))))
+                            break;
+                    }
+                }
+                l = k;
+                if (l > ilo)
+                    h[l*n + l - 1] = 0;
+
+                // a 1x1 or 2x2 block has split off
+                if (l >= i - 1) {
+                    converged = true;
+                    break;
+                }
+                numNoDeflation++;
+
+                if (!wantT) {
+                    i1 = l;
+                    i2 = i;
+                }
+
+                // select the two shifts
+                double h11, h12, h21, h22;
+                if (numNoDeflation%(2*EXCEPTIONAL) == 0) {
+                    double s = Math.abs(h[i*n + i - 1]) + Math.abs(h[(i - 1)*n + i - 2]);
+                    h11 = 0.75*s + h[i*n + i];
+                    h12 = -0.4375*s;
+                    h21 = s;
+                    h22 = h11;
+                } else if (numNoDeflation%EXCEPTIONAL == 0) {
+                    double s = Math.abs(h[(l + 1)*n + l]) + Math.abs(h[(l + 2)*n + l + 1]);
+                    h11 = 0.75*s + h[l*n + l];
+                    h12 = -0.4375*s;
+                    h21 = s;
+                    h22 = h11;
+                } else {
+                    h11 = h[(i - 1)*n + i - 1];
+                    h21 = h[i*n + i - 1];
+                    h12 = h[(i - 1)*n + i];
+                    h22 = h[i*n + i];
+                }
+                double rt1r, rt1i, rt2r, rt2i;
+                double s = Math.abs(h11) + Math.abs(h12) + Math.abs(h21) + Math.abs(h22);
+                if (s == 0) {
+                    rt1r = rt1i = rt2r = rt2i = 0;
+                } else {
+                    h11 /= s;
+                    h21 /= s;
+                    h12 /= s;
+                    h22 /= s;
+                    double tr = (h11 + h22)/2.0;
+                    double det = (h11 - tr)*(h22 - tr) - h12*h21;
+                    double rtdisc = Math.sqrt(Math.abs(det));
+                    if (det >= 0) {
+                        // complex conjugate shifts
+                        rt1r = tr*s;
+                        rt2r = rt1r;
+                        rt1i = rtdisc*s;
+                        rt2i = -rt1i;
+                    } else {
+                        // real shifts, use only the one closest to h22
+                        rt1r = tr + rtdisc;
+                        rt2r = tr - rtdisc;
+                        if (Math.abs(rt1r - h22) <= Math.abs(rt2r - h22)) {
+                            rt1r *= s;
+                            rt2r = rt1r;
+                        } else {
+                            rt2r *= s;
+                            rt1r = rt2r;
+                        }
+                        rt1i = rt2i = 0;
+                    }
+                }
+
+                // look for two consecutive small sub-diagonal elements
+                int m;
+                double v0 = 0, v1 = 0, v2 = 0;
+                for (m = i - 2; m >= l; m--) {
+                    double hmm = h[m*n + m];
+                    double h21s = h[(m + 1)*n + m];
+                    s = Math.abs(hmm - rt2r) + Math.abs(rt2i) + Math.abs(h21s);
+                    h21s /= s;
+                    v0 = h21s*h[m*n + m + 1] + (hmm - rt1r)*((hmm - rt2r)/s) - rt1i*(rt2i/s);
+                    v1 = h21s*(hmm + h[(m + 1)*n + m + 1] - rt1r - rt2r);
+                    v2 = h21s*h[(m + 2)*n + m + 1];
+                    s = Math.abs(v0) + Math.abs(v1) + Math.abs(v2);
+                    v0 /= s;
+                    v1 /= s;
+                    v2 /= s;
+                    if (m == l)
+                        break;
+                    double h00 = Math.abs(h[m*n + m - 1])*(Math.abs(v1) + Math.abs(v2));
+                    double h01 = Math.abs(v0)*(Math.abs(h[(m - 1)*n + m - 1]) + Math.abs(hmm) +
+                            Math.abs(h[(m + 1)*n + m + 1]));
+                    if (h00 <= ulp*h01)
+                        break;
+                }
+
+                // double shift QR step
+                for (k = m; k <= i - 1; k++) {
+                    int nr = Math.min(3, i - k + 1);
+                    if (k > m) {
+                        v0 = h[k*n + k - 1];
+                        v1 = h[(k + 1)*n + k - 1];
+                        v2 = nr == 3 ? h[(k + 2)*n + k - 1] : 0;
+                    }
+
+                    // Householder reflector which zeros v1 and v2
+                    double xnorm = nr == 3 ? norm2(v1, v2) : Math.abs(v1);
+                    double t1, beta;
+                    if (xnorm == 0) {
+                        t1 = 0;
+                        beta = v0;
+                    } else {
+                        beta = -Math.copySign(norm2(v0, xnorm), v0);
+                        t1 = (beta - v0)/beta;
+                        double scale = 1.0/(v0 - beta);
+                        v1 *= scale;
+                        v2 *= scale;
+                    }
+
+                    if (k > m) {
+                        h[k*n + k - 1] = beta;
+                        h[(k + 1)*n + k - 1] = 0;
+                        if (k < i - 1)
+                            h[(k + 2)*n + k - 1] = 0;
+                    } else if (m > l) {
+                        // avoids a problem when v1 and v2 underflow
+                        h[k*n + k - 1] *= 1.0 - t1;
+                    }
+
+                    double t2 = t1*v1;
+                    if (nr == 3) {
+                        double t3 = t1*v2;
+                        for (int j = k; j <= i2; j++) {
+                            int idx = k*n + j;
+                            double sum = h[idx] + v1*h[idx + n] + v2*h[idx + 2*n];
+                            h[idx] -= sum*t1;
+                            h[idx + n] -= sum*t2;
+                            h[idx + 2*n] -= sum*t3;
+                        }
+                        int jmax = Math.min(k + 3, i);
+                        for (int j = i1; j <= jmax; j++) {
+                            int idx = j*n + k;
+                            double sum = h[idx] + v1*h[idx + 1] + v2*h[idx + 2];
+                            h[idx] -= sum*t1;
+                            h[idx + 1] -= sum*t2;
+                            h[idx + 2] -= sum*t3;
+                        }
+                        if (Z != null) {
+                            final double[] z = Z.data;
+                            final int nz = Z.numCols;
+                            for (int j = iloz; j <= ihiz; j++) {
+                                int idx = j*nz + k;
+                                double sum = z[idx] + v1*z[idx + 1] + v2*z[idx + 2];
+                                z[idx] -= sum*t1;
+                                z[idx + 1] -= sum*t2;
+                                z[idx + 2] -= sum*t3;
+                            }
+                        }
+                    } else if (nr == 2) {
+                        for (int j = k; j <= i2; j++) {
+                            int idx = k*n + j;
+                            double sum = h[idx] + v1*h[idx + n];
+                            h[idx] -= sum*t1;
+                            h[idx + n] -= sum*t2;
+                        }
+                        for (int j = i1; j <= i; j++) {
+                            int idx = j*n + k;
+                            double sum = h[idx] + v1*h[idx + 1];
+                            h[idx] -= sum*t1;
+                            h[idx + 1] -= sum*t2;
+                        }
+                        if (Z != null) {
+                            final double[] z = Z.data;
+                            final int nz = Z.numCols;
+                            for (int j = iloz; j <= ihiz; j++) {
+                                int idx = j*nz + k;
+                                double sum = z[idx] + v1*z[idx + 1];
+                                z[idx] -= sum*t1;
+                                z[idx + 1] -= sum*t2;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (!converged)
+                return false;
+
+            if (l == i) {
+                wr[i] = h[i*n + i];
+                wi[i] = 0;
+            } else {
+                if (wantT)
+                    standardize2x2(H, i - 1, 0, n - 1, Z, iloz, ihiz, wr, wi);
+                else
+                    standardize2x2(H, i - 1, i - 1, i, Z, iloz, ihiz, wr, wi);
+            }
+
+            numNoDeflation = 0;
+            i = l - 1;
+        }
+
+        return true;
+    }
+
+    /**
+     * Puts the 2x2 block at rows and columns k and k+1 into standard form using a rotation. If its eigenvalues
+     * are real then the block is made upper triangular, otherwise its diagonal elements are made equal.
+     *
+     * @param H (Input/Output) Matrix containing the block
+     * @param k First row and column of the block
+     * @param i1 The rotation is applied to columns k and k+1 in rows i1 to k-1
+     * @param i2 The rotation is applied to rows k and k+1 in columns k+2 to i2
+     * @param Z (Output) If not null then the rotation is applied to rows iloz to ihiz of Z from the right
+     * @param wr (Output) If not null, real component of the two eigenvalues is written at k and k+1
+     * @param wi (Output) If not null, imaginary component of the two eigenvalues is written at k and k+1
+     */
+    public static void standardize2x2( DMatrixRMaj H, int k, int i1, int i2,
+                                       @Nullable DMatrixRMaj Z, int iloz, int ihiz,
+                                       @Nullable double[] wr, @Nullable double[] wi ) {
+        final int n = H.numCols;
+        final double[] h = H.data;
+        final double[] out = new double[10];
+
+        standardize2x2(h[k*n + k], h[k*n + k + 1], h[(k + 1)*n + k], h[(k + 1)*n + k + 1], out);
+        h[k*n + k] = out[0];
+        h[k*n + k + 1] = out[1];
+        h[(k + 1)*n + k] = out[2];
+        h[(k + 1)*n + k + 1] = out[3];
+        if (wr != null && wi != null) {
+            wr[k] = out[4];
+            wi[k] = out[5];
+            wr[k + 1] = out[6];
+            wi[k + 1] = out[7];
+        }
+        double cs = out[8], sn = out[9];
+        if (sn == 0 && cs == 1)
+            return;
+
+        for (int j = k + 2; j <= i2; j++) {
+            double x = h[k*n + j], y = h[(k + 1)*n + j];
+            h[k*n + j] = cs*x + sn*y;
+            h[(k + 1)*n + j] = cs*y - sn*x;
+        }
+        for (int j = i1; j < k; j++) {
+            double x = h[j*n + k], y = h[j*n + k + 1];
+            h[j*n + k] = cs*x + sn*y;
+            h[j*n + k + 1] = cs*y - sn*x;
+        }
+        if (Z != null) {
+            final double[] z = Z.data;
+            final int nz = Z.numCols;
+            for (int j = iloz; j <= ihiz; j++) {
+                double x = z[j*nz + k], y = z[j*nz + k + 1];
+                z[j*nz + k] = cs*x + sn*y;
+                z[j*nz + k + 1] = cs*y - sn*x;
+            }
+        }
+    }
+
+    /**
+     * Computes the standard form of the 2x2 matrix [a b; c d]. The results are written to 'out' in the
+     * following order: a, b, c, d, real 1, imaginary 1, real 2, imaginary 2, cos, sin.
+     */
+    public static void standardize2x2( double a, double b, double c, double d, double[] out ) {
+        final double eps = UtilEjml.EPS;
+        double cs, sn;
+
+        if (c == 0) {
+            cs = 1;
+            sn = 0;
+        } else if (b == 0) {
+            // swap rows and columns
+            cs = 0;
+            sn = 1;
+            double temp = d;
+            d = a;
+            a = temp;
+            b = -c;
+            c = 0;
+        } else if (a - d == 0 && Math.signum(b) != Math.signum(c)) {
+            cs = 1;
+            sn = 0;
+        } else {
+            double temp = a - d;
+            double p = 0.5*temp;
+            double bcmax = Math.max(Math.abs(b), Math.abs(c));
+            double bcmis = Math.min(Math.abs(b), Math.abs(c))*Math.signum(b)*Math.signum(c);
+            double scale = Math.max(Math.abs(p), bcmax);
+            double z = (p/scale)*p + (bcmax/scale)*bcmis;
+
+            if (z >= 4.0*eps) {
+                // real eigenvalues. Compute a and d
+                z = p + Math.copySign(Math.sqrt(scale)*Math.sqrt(z), p);
+                a = d + z;
+                d = d - (bcmax/z)*bcmis;
+                double tau = norm2(c, z);
+                cs = z/tau;
+                sn = c/tau;
+                b = b - c;
+                c = 0;
+            } else {
+                // complex eigenvalues, or real (almost) equal eigenvalues. Make the diagonal elements equal
+                double sigma = b + c;
+                double tau = norm2(sigma, temp);
+                cs = Math.sqrt(0.5*(1.0 + Math.abs(sigma)/tau));
+                sn = -(p/(tau*cs))*Math.copySign(1.0, sigma);
+
+                // [aa bb; cc dd] = [a b; c d]*[cs -sn; sn cs]
+                double aa = a*cs + b*sn;
+                double bb = -a*sn + b*cs;
+                double cc = c*cs + d*sn;
+                double dd = -c*sn + d*cs;
+
+                // [a b; c d] = [cs sn; -sn cs]*[aa bb; cc dd]
+                a = aa*cs + cc*sn;
+                b = bb*cs + dd*sn;
+                c = -aa*sn + cc*cs;
+                d = -bb*sn + dd*cs;
+
+                temp = 0.5*(a + d);
+                a = temp;
+                d = temp;
+
+                if (c != 0) {
+                    if (b != 0) {
+                        if (Math.signum(b) == Math.signum(c)) {
+                            // real eigenvalues. Reduce to upper triangular form
+                            double sab = Math.sqrt(Math.abs(b));
+                            double sac = Math.sqrt(Math.abs(c));
+                            p = Math.copySign(sab*sac, c);
+                            tau = 1.0/Math.sqrt(Math.abs(b + c));
+                            a = temp + p;
+                            d = temp - p;
+                            b = b - c;
+                            c = 0;
+                            double cs1 = sab*tau;
+                            double sn1 = sac*tau;
+                            temp = cs*cs1 - sn*sn1;
+                            sn = cs*sn1 + sn*cs1;
+                            cs = temp;
+                        }
+                    } else {
+                        b = -c;
+                        c = 0;
+                        temp = cs;
+                        cs = -sn;
+                        sn = temp;
+                    }
+                }
+            }
+        }
+
+        out[0] = a;
+        out[1] = b;
+        out[2] = c;
+        out[3] = d;
+        out[4] = a;
+        out[6] = d;
+        if (c == 0) {
+            out[5] = 0;
+            out[7] = 0;
+        } else {
+            out[5] = Math.sqrt(Math.abs(b))*Math.sqrt(Math.abs(c));
+            out[7] = -out[5];
+        }
+        out[8] = cs;
+        out[9] = sn;
+    }
+
+    /**
+     * Computes sqrt(a<sup>2</sup> + b<sup>2</sup>) while avoiding overflow and underflow by scaling by the
+     * largest magnitude.
+     */
+    static double norm2( double a, double b ) {
+        double scale = Math.max(Math.abs(a), Math.abs(b));
+        if (scale == 0)
+            return 0;
+        a /= scale;
+        b /= scale;
+        return scale*Math.sqrt(a*a + b*b);
+    }
+}
@@ -0,0 +1,805 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.schur;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Computes the real Schur decomposition of an upper Hessenberg matrix using the small bulge multishift QR
+ * algorithm with aggressive early deflation. This is much faster than the classic double shift QR algorithm for
+ * large matrices because:
+ * </p>
+ * <ul>
+ *     <li>Aggressive early deflation looks for converged eigenvalues in a window at the bottom of the active
+ *     block, which finds many more than just checking the sub-diagonal.</li>
+ *     <li>Many shifts are applied in one sweep as a tightly packed chain of small 3x3 bulges. The bulges are chased
+ *     through a small window near the diagonal and the accumulated transform is then applied to the rest of the
+ *     matrix and the Schur vectors with a matrix multiplication.</li>
+ * </ul>
+ *
+ * <p>
+ * The eigenvalues of the deflation window which did not converge are used as shifts for the next sweep.
+ * Matrices smaller than {@link #getMinimumSize()}, or 15, are processed with {@link FrancisQrSchur_DDRM}.
+ * </p>
+ *
+ * <p>
+ * [1] K. Braman, R. Byers, and R. Mathias, "The Multishift QR Algorithm. Part I: Maintaining Well-Focused Shifts
+ * and Level 3 Performance", SIAM J. Matrix Analysis and Applications, 2002<br>
+ * [2] K. Braman, R. Byers, and R. Mathias, "The Multishift QR Algorithm. Part II: Aggressive Early Deflation",
+ * SIAM J. Matrix Analysis and Applications, 2002<br>
+ * [3] LAPACK, DLAQR0, DLAQR3, and DLAQR5
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class MultishiftQrSchur_DDRM {
+    // number of iterations without deflation before exceptional shifts are used
+    protected static final int EXCEPTIONAL_SHIFT = 6;
+    // number of iterations without deflation before the deflation window is enlarged
+    protected static final int EXCEPTIONAL_WINDOW = 5;
+    // skip the sweep if aggressive early deflation found more than this percent of the window
+    protected static final int NIBBLE = 14;
+
+    // matrices smaller than this are always processed by the double shift algorithm
+    protected static final int TINY = 15;
+
+    // matrices smaller than this are processed by the double shift algorithm
+    protected int minimumSize = 75;
+
+    // computes the Schur form of small matrices and the deflation window
+    protected final FrancisQrSchur_DDRM small = new FrancisQrSchur_DDRM();
+    protected final SchurReorder_DDRM reorder = new SchurReorder_DDRM();
+
+    // eigenvalues. Also used to store shifts
+    protected double[] wr = UtilEjml.ZERO_LENGTH_F64;
+    protected double[] wi = UtilEjml.ZERO_LENGTH_F64;
+
+    // The matrix being processed and the Schur vectors
+    protected DMatrixRMaj H;
+    protected @Nullable DMatrixRMaj Z;
+    // should the full Schur form be computed or just the eigenvalues
+    protected boolean wantT;
+    protected int N;
+
+    // Schur decomposition of the deflation window
+    protected final DMatrixRMaj T = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj V = new DMatrixRMaj(1, 1);
+    // accumulated transforms from chasing bulges
+    protected final DMatrixRMaj U = new DMatrixRMaj(1, 1);
+    // work space for updating the parts of H and Z far from the diagonal
+    protected final DMatrixRMaj blockA = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj blockB = new DMatrixRMaj(1, 1);
+    protected double[] windowWr = UtilEjml.ZERO_LENGTH_F64;
+    protected double[] windowWi = UtilEjml.ZERO_LENGTH_F64;
+    protected double[] work = UtilEjml.ZERO_LENGTH_F64;
+
+    // number of eigenvalues which did not converge in the deflation window
+    protected int numUndeflated;
+
+    /**
+     * Computes the Schur decomposition.
+     *
+     * @param H (Input/Output) Upper Hessenberg matrix. Replaced by its real Schur form if wantT is true.
+     * @param Z (Output) If not null then the orthogonal transform is multiplied into it from the right, i.e.
+     * Z = Z*Q where H = Q*T*Q'.
+     * @param wantT If true then the Schur form is computed, otherwise just the eigenvalues. Must be true if Z
+     * isn't null.
+     * @return true if successful or false if it failed to converge.
+     */
+    public boolean process( DMatrixRMaj H, @Nullable DMatrixRMaj Z, boolean wantT ) {
+        if (H.numRows != H.numCols)
+            throw new IllegalArgumentException("Must be square");
+        if (Z != null && !wantT)
+            throw new IllegalArgumentException("Schur vectors require the Schur form");
+
+        this.H = H;
+        this.Z = Z;
+        this.wantT = wantT;
+        this.N = H.numRows;
+        if (wr.length < N) {
+            wr = new double[N];
+            wi = new double[N];
+        }
+        if (N == 0)
+            return true;
+
+        if (N < Math.max(TINY, minimumSize)) {
+            int ihiz = Z == null ? -1 : Z.numRows - 1;
+            return small.process(H, 0, N - 1, wantT, Z, 0, ihiz, wr, wi);
+        }
+
+        // zero everything below the sub-diagonal
+        final double[] h = H.data;
+        for (int i = 2; i < N; i++) {
+            for (int j = 0; j < i - 1; j++) {
+                h[i*N + j] = 0;
+            }
+        }
+
+        // recommended number of shifts and deflation window size
+        int nsr = Math.min(recommendedShifts(N), Math.min((N - 3)/6, N - 1));
+        nsr = Math.max(2, nsr - nsr%2);
+        int nwmax = (N - 1)/3;
+        int nwr = N <= 500 ? nsr : 3*nsr/2;
+        nwr = Math.max(2, Math.min(nwr, nwmax));
+
+        final int maxIterations = 30*Math.max(10, N);
+        int kbot = N - 1;
+        int nw = nwr;
+        int numNoDeflation = 1;
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            if (kbot < 0)
+                return true;
+
+            // locate the active block, which starts after the last negligible sub-diagonal element
+            int ktop = findSplit(kbot);
+            if (ktop > 0)
+                h[ktop*N + ktop - 1] = 0;
+
+            int nh = kbot - ktop + 1;
+            int nwupbd = Math.min(nh, nwmax);
+            if (numNoDeflation < EXCEPTIONAL_WINDOW)
+                nw = Math.min(nwupbd, nwr);
+            else
+                nw = Math.min(nwupbd, 2*nw);
+            // if the window is almost the entire block then process the entire block
+            if (nw >= nh - 1)
+                nw = nh;
+
+            int ld = aggressiveDeflation(ktop, kbot, nw);
+            kbot -= ld;
+
+            // Skip the sweep if enough eigenvalues converged or the active block is small. The next deflation
+            // window will have a good chance at finding more
+            int ks = kbot - numUndeflated + 1;
+            if (kbot - ktop >= 2 && (ld == 0 || (100*ld <= nw*NIBBLE && kbot - ktop + 1 > Math.min(minimumSize, nwmax)))) {
+                int ns = Math.min(nsr, Math.max(2, kbot - ktop));
+                ns -= ns%2;
+
+                if (numNoDeflation%EXCEPTIONAL_SHIFT == 0) {
+                    ks = exceptionalShifts(ktop, kbot, ns);
+                } else {
+                    // If too few of the window's eigenvalues are available as shifts, get shifts from the
+                    // trailing sub-matrix instead
+                    if (kbot - ks + 1 <= ns/2)
+                        ks = trailingShifts(kbot, ns);
+                    ns = Math.min(ns, kbot - ks + 1);
+                    ns -= ns%2;
+                    ks = kbot - ns + 1;
+                    sortShifts(ks, kbot);
+                }
+
+                ns = kbot - ks + 1;
+                if (ns == 2 && wi[ks] == 0) {
+                    // two real shifts. use the one closest to the bottom element twice
+                    double hkk = h[kbot*N + kbot];
+                    if (Math.abs(wr[kbot] - hkk) < Math.abs(wr[kbot - 1] - hkk))
+                        wr[kbot - 1] = wr[kbot];
+                    else
+                        wr[kbot] = wr[kbot - 1];
+                }
+
+                if (ns >= 2)
+                    sweep(ktop, kbot, ks, ns - ns%2);
+            }
+
+            if (ld > 0)
+                numNoDeflation = 1;
+            else
+                numNoDeflation++;
+        }
+
+        return false;
+    }
+
+    /**
+     * Number of simultaneous shifts recommended for a matrix of this size. See LAPACK IPARMQ.
+     */
+    protected static int recommendedShifts( int nh ) {
+        if (nh < 30)
+            return 2;
+        if (nh < 60)
+            return 4;
+        if (nh < 150)
+            return 10;
+        if (nh < 590)
+            return Math.max(10, nh/(int)Math.round(Math.log(nh)/Math.log(2)));
+        if (nh < 3000)
+            return 64;
+        if (nh < 6000)
+            return 128;
+        return 256;
+    }
+
+    /**
+     * Searches upwards from kbot for a negligible sub-diagonal element and returns the row below it.
+     */
+    protected int findSplit( int kbot ) {
+        final double[] h = H.data;
+        final double ulp = UtilEjml.EPS;
+        final double smlnum = Double.MIN_NORMAL*(N/ulp);
+        for (int k = kbot; k > 0; k--) {
+            double hkk1 = Math.abs(h[k*N + k - 1]);
+            if (hkk1 <= smlnum)
+                return k;
+            double tst = Math.abs(h[(k - 1)*N + k - 1]) + Math.abs(h[k*N + k]);
+            if (tst == 0) {
+                if (k >= 2)
+                    tst += Math.abs(h[(k - 1)*N + k - 2]);
+                if (k + 1 <= kbot)
+                    tst += Math.abs(h[(k + 1)*N + k]);
+            }
+            if (hkk1 <= ulp*tst) {
+                double hk1k = Math.abs(h[(k - 1)*N + k]);
+                double ab = Math.max(hkk1, hk1k);
+                double ba = Math.min(hkk1, hk1k);
+                double hkk = Math.abs(h[k*N + k]);
+                double diff = Math.abs(h[(k - 1)*N + k - 1] - h[k*N + k]);
+                double aa = Math.max(hkk, diff);
+                double bb = Math.min(hkk, diff);
+                double s = aa + ab;
+                if (ba*(ab/s) <= Math.max(smlnum, ulp*(bb*(aa/s))))
+                    return k;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Computes the Schur decomposition of the window at the bottom of the active block and looks for eigenvalues
+     * which have converged. Converged eigenvalues are moved to the bottom of the window and removed from the
+     * active block. The remaining eigenvalues are stored in wr and wi, ending at the new bottom of the active
+     * block, and can be used as shifts.
+     *
+     * @return Number of eigenvalues which converged
+     */
+    protected int aggressiveDeflation( int ktop, int kbot, int nw ) {
+        final double[] h = H.data;
+        final double ulp = UtilEjml.EPS;
+        final double smlnum = Double.MIN_NORMAL*(N/ulp);
+
+        final int jw = Math.min(nw, kbot - ktop + 1);
+        final int kwtop = kbot - jw + 1;
+        // the spike is the column to the left of the window in the Schur basis of the window
+        double s = kwtop == ktop ? 0 : h[kwtop*N + kwtop - 1];
+
+        if (jw == 1) {
+            wr[kwtop] = h[kwtop*N + kwtop];
+            wi[kwtop] = 0;
+            numUndeflated = 1;
+            if (Math.abs(s) <= Math.max(smlnum, ulp*Math.abs(wr[kwtop]))) {
+                if (kwtop > ktop)
+                    h[kwtop*N + kwtop - 1] = 0;
+                numUndeflated = 0;
+                return 1;
+            }
+            return 0;
+        }
+
+        // Schur decomposition of the window
+        T.reshape(jw, jw);
+        CommonOps_DDRM.extract(H, kwtop, kbot + 1, kwtop, kbot + 1, T, 0, 0);
+        V.reshape(jw, jw);
+        CommonOps_DDRM.setIdentity(V);
+        if (windowWr.length < jw) {
+            windowWr = new double[jw];
+            windowWi = new double[jw];
+            work = new double[jw];
+        }
+        if (!small.process(T, 0, jw - 1, true, V, 0, jw - 1, windowWr, windowWi)) {
+            // give up on deflation this time
+            numUndeflated = 0;
+            return 0;
+        }
+
+        // Check the bottom eigenvalue for convergence. If it hasn't converged then move it to the top.
+        final double[] t = T.data;
+        final double[] v = V.data;
+        int ns = jw;
+        int ilst = 0;
+        while (ilst < ns) {
+            boolean bulge = ns >= 2 && t[(ns - 1)*jw + ns - 2] != 0;
+            if (!bulge) {
+                double foo = Math.abs(t[(ns - 1)*jw + ns - 1]);
+                if (foo == 0)
+                    foo = Math.abs(s);
+                if (Math.abs(s*v[ns - 1]) <= Math.max(smlnum, ulp*foo)) {
+                    ns -= 1;
+                } else {
+                    // if the move failed the blocks it didn't pass are also treated as undeflatable
+                    ilst = reorder.moveUp(T, V, ns - 1, ilst) + 1;
+                }
+            } else {
+                double foo = Math.abs(t[(ns - 1)*jw + ns - 1]) +
+                        Math.sqrt(Math.abs(t[(ns - 1)*jw + ns - 2]))*Math.sqrt(Math.abs(t[(ns - 2)*jw + ns - 1]));
+                if (foo == 0)
+                    foo = Math.abs(s);
+                if (Math.max(Math.abs(s*v[ns - 1]), Math.abs(s*v[ns - 2])) <= Math.max(smlnum, ulp*foo)) {
+                    ns -= 2;
+                } else {
+                    ilst = reorder.moveUp(T, V, ns - 2, ilst) + 2;
+                }
+            }
+        }
+        if (ns == 0)
+            s = 0;
+
+        // eigenvalues of the window
+        for (int i = 0; i < jw; i++) {
+            if (i + 1 < jw && t[(i + 1)*jw + i] != 0) {
+                double im = Math.sqrt(Math.abs(t[i*jw + i + 1]))*Math.sqrt(Math.abs(t[(i + 1)*jw + i]));
+                wr[kwtop + i] = t[i*jw + i];
+                wi[kwtop + i] = im;
+                wr[kwtop + i + 1] = t[(i + 1)*jw + i + 1];
+                wi[kwtop + i + 1] = -im;
+                i++;
+            } else {
+                wr[kwtop + i] = t[i*jw + i];
+                wi[kwtop + i] = 0;
+            }
+        }
+
+        numUndeflated = ns;
+        if (ns == jw && s != 0)
+            return 0;
+
+        // Apply the window's transform to H. The spike needs to be reduced so that H is Hessenberg again
+        double spike = 0;
+        if (ns == 1) {
+            spike = s*v[0];
+        } else if (ns > 1) {
+            spike = reduceSpike(s, ns, jw);
+        }
+        if (kwtop > ktop)
+            h[kwtop*N + kwtop - 1] = spike;
+        for (int i = 0; i < jw; i++) {
+            int end = Math.min(jw, Math.max(0, i - 1));
+            for (int j = 0; j < end; j++) {
+                t[i*jw + j] = 0;
+            }
+        }
+        CommonOps_DDRM.insert(T, H, kwtop, kwtop);
+
+        int jstart = wantT ? 0 : ktop;
+        int jend = wantT ? N - 1 : kbot;
+        multRowsAbove(H, jstart, kwtop, kwtop, V);
+        multColsRight(H, kwtop, kbot + 1, jend + 1, V);
+        if (Z != null)
+            multRowsAbove(Z, 0, Z.numRows, kwtop, V);
+
+        return jw - ns;
+    }
+
+    /**
+     * Reflects the spike for the undeflated part of the window to a multiple of e1 then reduces the undeflated
+     * part of T back to Hessenberg form.
+     *
+     * @return The first element of the reduced spike
+     */
+    protected double reduceSpike( double s, int ns, int jw ) {
+        final double[] w = work;
+        for (int i = 0; i < ns; i++) {
+            w[i] = s*V.data[i];
+        }
+        double beta = applyReflector(w, ns, 0);
+
+        // reduce to Hessenberg form one column at a time
+        for (int c = 0; c < ns - 2; c++) {
+            int len = ns - c - 1;
+            for (int i = 0; i < len; i++) {
+                w[i] = T.data[(c + 1 + i)*jw + c];
+            }
+            double b = applyReflector(w, len, c + 1);
+            T.data[(c + 1)*jw + c] = b;
+            for (int i = c + 2; i < ns; i++) {
+                T.data[i*jw + c] = 0;
+            }
+        }
+        return beta;
+    }
+
+    /**
+     * Computes a Householder reflector which maps x, of length len, to beta*e1 and applies it to rows and columns
+     * offset to offset+len-1 of T and to the same columns in V.
+     *
+     * @return beta
+     */
+    private double applyReflector( double[] x, int len, int offset ) {
+        final int jw = T.numCols;
+        final double[] t = T.data;
+        double alpha = x[0];
+        double max = 0;
+        for (int i = 1; i < len; i++) {
+            max = Math.max(max, Math.abs(x[i]));
+        }
+        if (max == 0)
+            return alpha;
+        double sumSq = 0;
+        for (int i = 1; i < len; i++) {
+            double v = x[i]/max;
+            sumSq += v*v;
+        }
+        double xnorm = max*Math.sqrt(sumSq);
+        double beta = -Math.copySign(FrancisQrSchur_DDRM.norm2(alpha, xnorm), alpha);
+        double tau = (beta - alpha)/beta;
+        double scale = 1.0/(alpha - beta);
+        x[0] = 1;
+        for (int i = 1; i < len; i++) {
+            x[i] *= scale;
+        }
+
+        // left: T = (I - tau*v*v')*T. Columns before offset-1 are zero in these rows
+        for (int j = Math.max(0, offset - 1); j < jw; j++) {
+            double sum = 0;
+            for (int i = 0; i < len; i++) {
+                sum += x[i]*t[(offset + i)*jw + j];
+            }
+            sum *= tau;
+            for (int i = 0; i < len; i++) {
+                t[(offset + i)*jw + j] -= sum*x[i];
+            }
+        }
+        // right: T = T*(I - tau*v*v') and V = V*(I - tau*v*v')
+        reflectColumns(T, x, len, offset, tau);
+        reflectColumns(V, x, len, offset, tau);
+
+        return beta;
+    }
+
+    private static void reflectColumns( DMatrixRMaj A, double[] x, int len, int offset, double tau ) {
+        final int n = A.numCols;
+        final double[] a = A.data;
+        for (int i = 0; i < A.numRows; i++) {
+            int idx = i*n + offset;
+            double sum = 0;
+            for (int k = 0; k < len; k++) {
+                sum += a[idx + k]*x[k];
+            }
+            sum *= tau;
+            for (int k = 0; k < len; k++) {
+                a[idx + k] -= sum*x[k];
+            }
+        }
+    }
+
+    /**
+     * Exceptional shifts based on the magnitude of the bottom sub-diagonal elements. Used when convergence
+     * stalls.
+     *
+     * @return first index of the shifts
+     */
+    protected int exceptionalShifts( int ktop, int kbot, int ns ) {
+        final double[] h = H.data;
+        final double[] out = new double[10];
+        int ks = kbot - ns + 1;
+        for (int i = kbot; i >= Math.max(ks + 1, ktop + 2); i -= 2) {
+            double ss = Math.abs(h[i*N + i - 1]) + Math.abs(h[(i - 1)*N + i - 2]);
+            double aa = 0.75*ss + h[i*N + i];
+            FrancisQrSchur_DDRM.standardize2x2(aa, ss, -0.4375*ss, aa, out);
+            wr[i - 1] = out[4];
+            wi[i - 1] = out[5];
+            wr[i] = out[6];
+            wi[i] = out[7];
+        }
+        if (ks == ktop) {
+            wr[ks + 1] = h[(ks + 1)*N + ks + 1];
+            wi[ks + 1] = 0;
+            wr[ks] = wr[ks + 1];
+            wi[ks] = wi[ks + 1];
+        }
+        return ks;
+    }
+
+    /**
+     * Uses the eigenvalues of the trailing ns by ns sub-matrix as shifts.
+     *
+     * @return first index of the shifts
+     */
+    protected int trailingShifts( int kbot, int ns ) {
+        int ks = kbot - ns + 1;
+        blockA.reshape(ns, ns);
+        CommonOps_DDRM.extract(H, ks, kbot + 1, ks, kbot + 1, blockA, 0, 0);
+        if (windowWr.length < ns) {
+            windowWr = new double[ns];
+            windowWi = new double[ns];
+            work = new double[ns];
+        }
+        if (small.process(blockA, 0, ns - 1, false, null, 0, -1, windowWr, windowWi)) {
+            System.arraycopy(windowWr, 0, wr, ks, ns);
+            System.arraycopy(windowWi, 0, wi, ks, ns);
+            return ks;
+        }
+
+        // fall back to the eigenvalues of the bottom 2x2 block
+        final double[] h = H.data;
+        final double[] out = new double[10];
+        FrancisQrSchur_DDRM.standardize2x2(h[(kbot - 1)*N + kbot - 1], h[(kbot - 1)*N + kbot],
+                h[kbot*N + kbot - 1], h[kbot*N + kbot], out);
+        wr[kbot - 1] = out[4];
+        wi[kbot - 1] = out[5];
+        wr[kbot] = out[6];
+        wi[kbot] = out[7];
+        return kbot - 1;
+    }
+
+    /**
+     * Sorts the shifts by decreasing magnitude, then shuffles them so that they are in pairs of real shifts or
+     * complex conjugate shifts.
+     */
+    protected void sortShifts( int ks, int kbot ) {
+        for (int i = kbot; i >= ks + 1; i--) {
+            boolean sorted = true;
+            for (int j = ks; j < i; j++) {
+                if (Math.abs(wr[j]) + Math.abs(wi[j]) < Math.abs(wr[j + 1]) + Math.abs(wi[j + 1])) {
+                    sorted = false;
+                    double tmp = wr[j];
+                    wr[j] = wr[j + 1];
+                    wr[j + 1] = tmp;
+                    tmp = wi[j];
+                    wi[j] = wi[j + 1];
+                    wi[j + 1] = tmp;
+                }
+            }
+            if (sorted)
+                break;
+        }
+        for (int i = kbot; i >= ks + 2; i -= 2) {
+            if (wi[i] != -wi[i - 1]) {
+                double tmp = wr[i];
+                wr[i] = wr[i - 1];
+                wr[i - 1] = wr[i - 2];
+                wr[i - 2] = tmp;
+                tmp = wi[i];
+                wi[i] = wi[i - 1];
+                wi[i - 1] = wi[i - 2];
+                wi[i - 2] = tmp;
+            }
+        }
+    }
+
+    /**
+     * Performs one multishift QR sweep over the active block using the shifts stored in wr and wi starting
+     * at ks. The shifts are applied as a chain of 3x3 bulges, three rows apart, which are chased down the
+     * diagonal together. Transforms are applied only to a window around the chain and accumulated, then applied
+     * to the rest of H and Z with a matrix multiplication.
+     */
+    protected void sweep( int ktop, int kbot, int ks, int ns ) {
+        final double[] h = H.data;
+        final int nb = ns/2;
+        // bulge j is at column p = ktop - 1 + t - 3*j at time step t
+        final int tEnd = kbot - ktop - 1 + 3*(nb - 1);
+        final int stepsPerGroup = Math.max(1, 3*nb);
+        final int jstart = wantT ? 0 : ktop;
+        final int jend = wantT ? N - 1 : kbot;
+        final double[] x = new double[3];
+
+        for (int t0 = 0; t0 <= tEnd; t0 += stepsPerGroup) {
+            int t1 = Math.min(t0 + stepsPerGroup - 1, tEnd);
+
+            // window which contains every element modified near the diagonal
+            int w0 = Math.max(ktop, ktop - 1 + t0 - 3*(nb - 1));
+            int w1 = Math.min(kbot, ktop - 1 + t1 + 4);
+            int W = w1 - w0 + 1;
+            U.reshape(W, W);
+            CommonOps_DDRM.setIdentity(U);
+
+            for (int t = t0; t <= t1; t++) {
+                // process the bulges from the bottom up
+                for (int j = 0; j < nb; j++) {
+                    int p = ktop - 1 + t - 3*j;
+                    if (p < ktop - 1 || p > kbot - 2)
+                        continue;
+                    int nr = Math.min(3, kbot - p);
+
+                    if (p == ktop - 1) {
+                        introduceBulge(ktop, ks + 2*j, x);
+                    } else {
+                        x[0] = h[(p + 1)*N + p];
+                        x[1] = h[(p + 2)*N + p];
+                        x[2] = nr == 3 ? h[(p + 3)*N + p] : 0;
+                    }
+
+                    // Householder reflector which zeros x[1] and x[2]
+                    double alpha = x[0];
+                    double xnorm = nr == 3 ? FrancisQrSchur_DDRM.norm2(x[1], x[2]) : Math.abs(x[1]);
+                    if (xnorm == 0) {
+                        if (p >= ktop) {
+                            h[(p + 2)*N + p] = 0;
+                            if (nr == 3)
+                                h[(p + 3)*N + p] = 0;
+                        }
+                        continue;
+                    }
+                    double beta = -Math.copySign(FrancisQrSchur_DDRM.norm2(alpha, xnorm), alpha);
+                    double tau = (beta - alpha)/beta;
+                    double scale = 1.0/(alpha - beta);
+                    double v1 = x[1]*scale;
+                    double v2 = nr == 3 ? x[2]*scale : 0;
+
+                    if (p >= ktop) {
+                        h[(p + 1)*N + p] = beta;
+                        h[(p + 2)*N + p] = 0;
+                        if (nr == 3)
+                            h[(p + 3)*N + p] = 0;
+                    }
+
+                    applyBulgeReflector(p + 1, nr, tau, v1, v2, w0, w1, kbot);
+                }
+            }
+
+            // apply the accumulated transform to the parts of H and Z which are far from the diagonal
+            multColsRight(H, w0, w1 + 1, jend + 1, U);
+            multRowsAbove(H, jstart, w0, w0, U);
+            if (Z != null)
+                multRowsAbove(Z, 0, Z.numRows, w0, U);
+        }
+    }
+
+    /**
+     * Computes the first column of (H - s1*I)*(H - s2*I) scaled to avoid overflow, where s1 and s2 are the
+     * pair of shifts which start at index 'shift'.
+     */
+    protected void introduceBulge( int ktop, int shift, double[] x ) {
+        final double[] h = H.data;
+        double sr1 = wr[shift], si1 = wi[shift];
+        double sr2 = wr[shift + 1], si2 = wi[shift + 1];
+
+        double h11 = h[ktop*N + ktop];
+        double h21 = h[(ktop + 1)*N + ktop];
+        double s = Math.abs(h11 - sr2) + Math.abs(si2) + Math.abs(h21);
+        if (s == 0) {
+            x[0] = x[1] = x[2] = 0;
+            return;
+        }
+        double h21s = h21/s;
+        x[0] = h21s*h[ktop*N + ktop + 1] + (h11 - sr1)*((h11 - sr2)/s) - si1*(si2/s);
+        x[1] = h21s*(h11 + h[(ktop + 1)*N + ktop + 1] - sr1 - sr2);
+        x[2] = h21s*h[(ktop + 2)*N + ktop + 1];
+    }
+
+    /**
+     * Applies the reflector I - tau*v*v', with v = [1, v1, v2], to rows and columns k to k+nr-1 inside the window
+     * [w0, w1] and accumulates it into U.
+     */
+    private void applyBulgeReflector( int k, int nr, double tau, double v1, double v2, int w0, int w1, int kbot ) {
+        final double[] h = H.data;
+        final double t2 = tau*v1;
+        final double t3 = tau*v2;
+
+        // left: rows k to k+nr-1
+        for (int j = k; j <= w1; j++) {
+            int idx = k*N + j;
+            if (nr == 3) {
+                double sum = h[idx] + v1*h[idx + N] + v2*h[idx + 2*N];
+                h[idx] -= sum*tau;
+                h[idx + N] -= sum*t2;
+                h[idx + 2*N] -= sum*t3;
+            } else {
+                double sum = h[idx] + v1*h[idx + N];
+                h[idx] -= sum*tau;
+                h[idx + N] -= sum*t2;
+            }
+        }
+
+        // right: columns k to k+nr-1. Below row k+nr the matrix is zero in these columns
+        int rowEnd = Math.min(Math.min(kbot, w1), k + nr);
+        for (int i = w0; i <= rowEnd; i++) {
+            int idx = i*N + k;
+            if (nr == 3) {
+                double sum = h[idx] + v1*h[idx + 1] + v2*h[idx + 2];
+                h[idx] -= sum*tau;
+                h[idx + 1] -= sum*t2;
+                h[idx + 2] -= sum*t3;
+            } else {
+                double sum = h[idx] + v1*h[idx + 1];
+                h[idx] -= sum*tau;
+                h[idx + 1] -= sum*t2;
+            }
+        }
+
+        // accumulate
+        final double[] u = U.data;
+        final int W = U.numCols;
+        final int c = k - w0;
+        for (int i = 0; i < W; i++) {
+            int idx = i*W + c;
+            if (nr == 3) {
+                double sum = u[idx] + v1*u[idx + 1] + v2*u[idx + 2];
+                u[idx] -= sum*tau;
+                u[idx + 1] -= sum*t2;
+                u[idx + 2] -= sum*t3;
+            } else {
+                double sum = u[idx] + v1*u[idx + 1];
+                u[idx] -= sum*tau;
+                u[idx + 1] -= sum*t2;
+            }
+        }
+    }
+
+    /**
+     * A[row0:row1, col0:col0+Q.numRows] = A[row0:row1, col0:col0+Q.numRows]*Q
+     */
+    protected void multRowsAbove( DMatrixRMaj A, int row0, int row1, int col0, DMatrixRMaj Q ) {
+        if (row1 <= row0)
+            return;
+        int col1 = col0 + Q.numRows;
+        blockA.reshape(row1 - row0, Q.numRows);
+        CommonOps_DDRM.extract(A, row0, row1, col0, col1, blockA, 0, 0);
+        blockB.reshape(row1 - row0, Q.numCols);
+        mult(blockA, Q, blockB);
+        CommonOps_DDRM.insert(blockB, A, row0, col0);
+    }
+
+    /**
+     * A[row0:row1, col0:col1] = Q'*A[row0:row1, col0:col1]
+     */
+    protected void multColsRight( DMatrixRMaj A, int row0, int row1, int col1, DMatrixRMaj Q ) {
+        int col0 = row1;
+        if (col1 <= col0)
+            return;
+        blockA.reshape(row1 - row0, col1 - col0);
+        CommonOps_DDRM.extract(A, row0, row1, col0, col1, blockA, 0, 0);
+        blockB.reshape(Q.numCols, col1 - col0);
+        multTransA(Q, blockA, blockB);
+        CommonOps_DDRM.insert(blockB, A, row0, col0);
+    }
+
+    /**
+     * C = A*B
+     */
+    protected void mult( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DDRM.mult(A, B, C);
+    }
+
+    /**
+     * C = A'*B
+     */
+    protected void multTransA( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DDRM.multTransA(A, B, C);
+    }
+
+    /**
+     * Real component of the eigenvalues. The eigenvalue at index i corresponds to diagonal element i of
+     * the Schur form.
+     */
+    public double[] getEigenvaluesReal() {
+        return wr;
+    }
+
+    /**
+     * Imaginary component of the eigenvalues.
+     */
+    public double[] getEigenvaluesImaginary() {
+        return wi;
+    }
+
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+
+    public void setMinimumSize( int minimumSize ) {
+        this.minimumSize = minimumSize;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.schur;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Reorders the diagonal blocks of a matrix in real Schur form, T, using orthogonal similarity transforms.
+ * Adjacent 1x1 and 2x2 blocks are swapped by solving a small Sylvester equation for the invariant subspace of the
+ * lower block and rotating it to the top with a QR decomposition. A swap is rejected if it would perturb T by
+ * more than a small multiple of machine precision, in which case T is not modified.
+ * </p>
+ *
+ * <p>
+ * [1] Z. Bai and J. W. Demmel, "On swapping diagonal blocks in real Schur form", Linear Algebra Appl. 1993<br>
+ * [2] LAPACK, DTREXC and DLAEXC
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SchurReorder_DDRM {
+    // the swapped blocks
+    private final double[] D = new double[16];
+    private final double[] Dswap = new double[16];
+    // orthogonal transform which swaps the blocks
+    private final double[] Q = new double[16];
+    // Sylvester equation in Kronecker form and its solution
+    private final double[] K = new double[16];
+    private final double[] X = new double[4];
+    private final int[] pivCol = new int[4];
+    // basis of the invariant subspace of the lower block
+    private final double[] M = new double[8];
+    private final double[] work = new double[4];
+
+    /**
+     * Moves the diagonal block which starts at 'ifst' upwards so that it starts at 'ilst'. Blocks in between are
+     * shifted down.
+     *
+     * @param T (Input/Output) Matrix in real Schur form.
+     * @param Z (Output) If not null the transforms are applied to it from the right.
+     * @param ifst First row of the block being moved
+     * @param ilst Where the block is moved to. Must be the first row of a block and less than or equal to ifst.
+     * @return First row of the block after it has been moved. This is ilst unless a swap was rejected, in which case
+     * the block is left somewhere between ifst and ilst.
+     */
+    public int moveUp( DMatrixRMaj T, @Nullable DMatrixRMaj Z, int ifst, int ilst ) {
+        final int n = T.numCols;
+        final double[] t = T.data;
+
+        int nbf = ifst + 1 < n && t[(ifst + 1)*n + ifst] != 0 ? 2 : 1;
+        int here = ifst;
+        while (here > ilst) {
+            int nbnext = here >= 2 && t[(here - 1)*n + here - 2] != 0 ? 2 : 1;
+            if (!swap(T, Z, here - nbnext, nbnext, nbf))
+                return here;
+            here -= nbnext;
+
+            // A 2x2 block with real eigenvalues can split when it's standardized. Not worth handling.
+            if (nbf == 2 && t[(here + 1)*n + here] == 0)
+                return here;
+        }
+        return here;
+    }
+
+    /**
+     * Swaps the adjacent diagonal blocks which start at row j1 and have sizes n1 and n2.
+     *
+     * @param T (Input/Output) Matrix in real Schur form.
+     * @param Z (Output) If not null the transform is applied to it from the right.
+     * @param j1 First row of the upper block
+     * @param n1 Size of the upper block. 1 or 2.
+     * @param n2 Size of the lower block. 1 or 2.
+     * @return true if successful or false if the swap was rejected and T is unmodified.
+     */
+    public boolean swap( DMatrixRMaj T, @Nullable DMatrixRMaj Z, int j1, int n1, int n2 ) {
+        final int n = T.numCols;
+        final double[] t = T.data;
+
+        if (n1 == 1 && n2 == 1) {
+            // Two 1x1 blocks can be swapped with a single rotation
+            int j2 = j1 + 1;
+            double t11 = t[j1*n + j1];
+            double t22 = t[j2*n + j2];
+            double f = t[j1*n + j2];
+            double g = t22 - t11;
+            double r = FrancisQrSchur_DDRM.norm2(f, g);
+            if (r == 0)
+                return true;
+            double cs = f/r, sn = g/r;
+            for (int j = j2 + 1; j < n; j++) {
+                double x = t[j1*n + j], y = t[j2*n + j];
+                t[j1*n + j] = cs*x + sn*y;
+                t[j2*n + j] = cs*y - sn*x;
+            }
+            for (int j = 0; j < j1; j++) {
+                double x = t[j*n + j1], y = t[j*n + j2];
+                t[j*n + j1] = cs*x + sn*y;
+                t[j*n + j2] = cs*y - sn*x;
+            }
+            t[j1*n + j1] = t22;
+            t[j2*n + j2] = t11;
+            if (Z != null)
+                rotateColumns(Z, j1, j2, cs, sn);
+            return true;
+        }
+
+        final int nd = n1 + n2;
+        double dnorm = 0;
+        for (int i = 0; i < nd; i++) {
+            for (int j = 0; j < nd; j++) {
+                double v = t[(j1 + i)*n + j1 + j];
+                D[i*nd + j] = v;
+                dnorm = Math.max(dnorm, Math.abs(v));
+            }
+        }
+        final double eps = UtilEjml.EPS;
+        final double smlnum = Double.MIN_NORMAL/eps;
+        final double thresh = Math.max(10.0*eps*dnorm, smlnum);
+
+        // Solve A*X - X*C = -B where D = [A B; 0 C]. The columns of [X; I] span the invariant subspace of C.
+        solveSylvester(nd, n1, n2, eps*dnorm);
+
+        // QR decomposition of M = [X; I]. The first n2 columns of Q span the same subspace
+        for (int i = 0; i < nd; i++) {
+            for (int j = 0; j < n2; j++) {
+                M[i*n2 + j] = i < n1 ? X[j*n1 + i] : (i - n1 == j ? 1.0 : 0.0);
+            }
+        }
+        computeQ(nd, n2);
+
+        // Dswap = Q'*D*Q
+        for (int i = 0; i < nd; i++) {
+            for (int j = 0; j < nd; j++) {
+                double sum = 0;
+                for (int k = 0; k < nd; k++) {
+                    sum += D[i*nd + k]*Q[k*nd + j];
+                }
+                work[j] = sum;
+            }
+            System.arraycopy(work, 0, K, i*nd, nd);
+        }
+        for (int i = 0; i < nd; i++) {
+            for (int j = 0; j < nd; j++) {
+                double sum = 0;
+                for (int k = 0; k < nd; k++) {
+                    sum += Q[k*nd + i]*K[k*nd + j];
+                }
+                Dswap[i*nd + j] = sum;
+            }
+        }
+
+        // reject the swap if the blocks are not decoupled to working precision
+        for (int i = n2; i < nd; i++) {
+            for (int j = 0; j < n2; j++) {
+                if (Math.abs(Dswap[i*nd + j]) > thresh)
+                    return false;
+                Dswap[i*nd + j] = 0;
+            }
+        }
+
+        // apply the transform to the rest of T and to Z
+        for (int j = j1 + nd; j < n; j++) {
+            for (int i = 0; i < nd; i++) {
+                double sum = 0;
+                for (int k = 0; k < nd; k++) {
+                    sum += Q[k*nd + i]*t[(j1 + k)*n + j];
+                }
+                work[i] = sum;
+            }
+            for (int i = 0; i < nd; i++) {
+                t[(j1 + i)*n + j] = work[i];
+            }
+        }
+        for (int i = 0; i < j1; i++) {
+            multRowQ(t, i*n + j1, nd);
+        }
+        for (int i = 0; i < nd; i++) {
+            System.arraycopy(Dswap, i*nd, t, (j1 + i)*n + j1, nd);
+        }
+        if (Z != null) {
+            for (int i = 0; i < Z.numRows; i++) {
+                multRowQ(Z.data, i*Z.numCols + j1, nd);
+            }
+        }
+
+        // put the new 2x2 blocks into standard form
+        if (n2 == 2)
+            FrancisQrSchur_DDRM.standardize2x2(T, j1, 0, n - 1, Z, 0, Z == null ? -1 : Z.numRows - 1, null, null);
+        if (n1 == 2)
+            FrancisQrSchur_DDRM.standardize2x2(T, j1 + n2, 0, n - 1, Z, 0, Z == null ? -1 : Z.numRows - 1, null, null);
+
+        return true;
+    }
+
+    /**
+     * Replaces a row segment 'r' of length nd with r*Q
+     */
+    private void multRowQ( double[] data, int index, int nd ) {
+        for (int j = 0; j < nd; j++) {
+            double sum = 0;
+            for (int k = 0; k < nd; k++) {
+                sum += data[index + k]*Q[k*nd + j];
+            }
+            work[j] = sum;
+        }
+        System.arraycopy(work, 0, data, index, nd);
+    }
+
+    private static void rotateColumns( DMatrixRMaj Z, int c1, int c2, double cs, double sn ) {
+        final double[] z = Z.data;
+        final int n = Z.numCols;
+        for (int i = 0; i < Z.numRows; i++) {
+            double x = z[i*n + c1], y = z[i*n + c2];
+            z[i*n + c1] = cs*x + sn*y;
+            z[i*n + c2] = cs*y - sn*x;
+        }
+    }
+
+    /**
+     * Solves the Sylvester equation A*X - X*C = -B using Gaussian elimination with complete pivoting on its
+     * Kronecker product form. Pivots which are too small are perturbed.
+     */
+    private void solveSylvester( int nd, int n1, int n2, double smin ) {
+        final int m = n1*n2;
+        smin = Math.max(smin, Double.MIN_NORMAL);
+
+        // unknowns are X in column major order
+        for (int i = 0; i < m*m; i++) {
+            K[i] = 0;
+        }
+        for (int c = 0; c < n2; c++) {
+            for (int r = 0; r < n1; r++) {
+                int row = c*n1 + r;
+                for (int k = 0; k < n1; k++) {
+                    K[row*m + c*n1 + k] += D[r*nd + k];
+                }
+                for (int k = 0; k < n2; k++) {
+                    K[row*m + k*n1 + r] -= D[(n1 + k)*nd + n1 + c];
+                }
+                X[row] = -D[r*nd + n1 + c];
+            }
+        }
+
+        for (int i = 0; i < m; i++) {
+            pivCol[i] = i;
+        }
+        for (int p = 0; p < m; p++) {
+            // find the largest element in the remaining sub-matrix
+            int bestRow = p, bestCol = p;
+            double best = -1;
+            for (int i = p; i < m; i++) {
+                for (int j = p; j < m; j++) {
+                    double v = Math.abs(K[i*m + j]);
+                    if (v > best) {
+                        best = v;
+                        bestRow = i;
+                        bestCol = j;
+                    }
+                }
+            }
+            if (bestRow != p) {
+                for (int j = 0; j < m; j++) {
+                    double tmp = K[p*m + j];
+                    K[p*m + j] = K[bestRow*m + j];
+                    K[bestRow*m + j] = tmp;
+                }
+                double tmp = X[p];
+                X[p] = X[bestRow];
+                X[bestRow] = tmp;
+            }
+            if (bestCol != p) {
+                for (int i = 0; i < m; i++) {
+                    double tmp = K[i*m + p];
+                    K[i*m + p] = K[i*m + bestCol];
+                    K[i*m + bestCol] = tmp;
+                }
+                int tmp = pivCol[p];
+                pivCol[p] = pivCol[bestCol];
+                pivCol[bestCol] = tmp;
+            }
+            if (Math.abs(K[p*m + p]) < smin)
+                K[p*m + p] = smin;
+            for (int i = p + 1; i < m; i++) {
+                double f = K[i*m + p]/K[p*m + p];
+                for (int j = p; j < m; j++) {
+                    K[i*m + j] -= f*K[p*m + j];
+                }
+                X[i] -= f*X[p];
+            }
+        }
+
+        // back substitution then undo the column pivots
+        for (int i = m - 1; i >= 0; i--) {
+            double sum = X[i];
+            for (int j = i + 1; j < m; j++) {
+                sum -= K[i*m + j]*work[j];
+            }
+            work[i] = sum/K[i*m + i];
+        }
+        for (int i = 0; i < m; i++) {
+            X[pivCol[i]] = work[i];
+        }
+    }
+
+    /**
+     * Computes the orthogonal matrix Q from the Householder QR decomposition of M, which is nd by ncols.
+     */
+    private void computeQ( int nd, int ncols ) {
+        for (int i = 0; i < nd*nd; i++) {
+            Q[i] = 0;
+        }
+        for (int i = 0; i < nd; i++) {
+            Q[i*nd + i] = 1;
+        }
+
+        for (int c = 0; c < ncols; c++) {
+            // reflector which zeros M[c+1:,c]
+            double alpha = M[c*ncols + c];
+            double max = 0;
+            for (int i = c + 1; i < nd; i++) {
+                max = Math.max(max, Math.abs(M[i*ncols + c]));
+            }
+            if (max == 0)
+                continue;
+            double sumSq = 0;
+            for (int i = c + 1; i < nd; i++) {
+                double v = M[i*ncols + c]/max;
+                sumSq += v*v;
+            }
+            double xnorm = max*Math.sqrt(sumSq);
+            double beta = -Math.copySign(FrancisQrSchur_DDRM.norm2(alpha, xnorm), alpha);
+            double tau = (beta - alpha)/beta;
+            double scale = 1.0/(alpha - beta);
+            // v is stored in work with an implicit 1 in the first element
+            work[c] = 1.0;
+            for (int i = c + 1; i < nd; i++) {
+                work[i] = M[i*ncols + c]*scale;
+            }
+
+            // apply to the remaining columns of M
+            for (int j = c + 1; j < ncols; j++) {
+                double sum = 0;
+                for (int i = c; i < nd; i++) {
+                    sum += work[i]*M[i*ncols + j];
+                }
+                sum *= tau;
+                for (int i = c; i < nd; i++) {
+                    M[i*ncols + j] -= sum*work[i];
+                }
+            }
+            // Q = Q*(I - tau*v*v')
+            for (int i = 0; i < nd; i++) {
+                double sum = 0;
+                for (int k = c; k < nd; k++) {
+                    sum += Q[i*nd + k]*work[k];
+                }
+                sum *= tau;
+                for (int k = c; k < nd; k++) {
+                    Q[i*nd + k] -= sum*work[k];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,735 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.row.CommonOps_DDRM;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Computes the eigenvalues and eigenvectors of a symmetric tridiagonal matrix using Cuppen's divide and conquer
+ * algorithm. The matrix is torn in two with a rank-one modification:
+ * </p>
+ * <pre>
+ * T = [ T1  0 ] + &beta; u*u<sup>T</sup>
+ *     [ 0  T2 ]
+ * </pre>
+ * <p>
+ * where &beta; is the off diagonal element which couples the two halves and u has a one at the last row of T1 and
+ * the first row of T2. The two halves are solved recursively and small problems are solved with
+ * {@link SymmetricQrAlgorithm_DDRM}. Then the eigenvalues of D + &rho;z*z<sup>T</sup> are found by solving the
+ * secular equation, where D holds the eigenvalues of the two halves and z is the rows of their eigenvectors
+ * that u selects. Before solving, components of z which are zero and eigenvalues which are nearly repeated are
+ * deflated. The vector z is then recomputed from the roots using Gu and Eisenstat's method so that the found
+ * eigenvectors are orthogonal. The eigenvectors of the two halves are updated with matrix multiplication,
+ * which is where almost all of the work is done for large matrices.
+ * </p>
+ *
+ * <p>
+ * The found eigenvalues are sorted from smallest to largest. The eigenvectors are stored as the columns of
+ * {@link #getEigenvectors()}.
+ * </p>
+ *
+ * <p>
+ * [1] J. J. M. Cuppen, "A divide and conquer method for the symmetric tridiagonal eigenproblem",
+ * Numerische Mathematik, 1981<br>
+ * [2] M. Gu and S. C. Eisenstat, "A Divide-and-Conquer Algorithm for the Symmetric Tridiagonal Eigenproblem",
+ * SIAM J. Matrix Analysis and Applications, 1995<br>
+ * [3] J. R. Bunch, C. P. Nielsen and D. C. Sorensen, "Rank-one modification of the symmetric eigenproblem",
+ * Numerische Mathematik, 1978
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class SymmetricTridiagonalDivideConquer_DDRM {
+    // maximum number of iterations when finding a root of the secular equation
+    protected static final int MAX_ITERATIONS = 200;
+
+    // sub-problems which are this size or smaller are solved with the QR algorithm
+    protected final int leafSize;
+
+    // size of the tridiagonal matrix
+    protected int N;
+
+    // working copy of the tridiagonal matrix. The diagonal is modified when it is torn in two
+    protected double[] diag = UtilEjml.ZERO_LENGTH_F64;
+    protected double[] off = UtilEjml.ZERO_LENGTH_F64;
+
+    // the found eigenvalues
+    protected double[] values = UtilEjml.ZERO_LENGTH_F64;
+    // the found eigenvectors are stored in the columns. Block diagonal until the final merge
+    protected DMatrixRMaj Z = new DMatrixRMaj(1, 1);
+
+    // work space used by the single threaded algorithm
+    protected final Workspace work = new Workspace();
+
+    /**
+     * @param leafSize Sub-problems which are this size or smaller are solved with the QR algorithm. Try 25.
+     */
+    public SymmetricTridiagonalDivideConquer_DDRM( int leafSize ) {
+        if (leafSize < 2)
+            throw new IllegalArgumentException("leafSize must be at least 2");
+        this.leafSize = leafSize;
+    }
+
+    public SymmetricTridiagonalDivideConquer_DDRM() {
+        this(25);
+    }
+
+    /**
+     * Computes the eigenvalues and eigenvectors of the tridiagonal matrix
+     *
+     * @param sideLength Number of rows and columns in the input matrix.
+     * @param diag Diagonal elements from tridiagonal matrix. Not modified.
+     * @param off Off diagonal elements from tridiagonal matrix. Not modified.
+     * @return true if it succeeds and false if it fails.
+     */
+    public boolean process( int sideLength, double[] diag, double[] off ) {
+        this.N = sideLength;
+        if (this.diag.length < N) {
+            this.diag = new double[N];
+            this.off = new double[N];
+            this.values = new double[N];
+        }
+        System.arraycopy(diag, 0, this.diag, 0, N);
+        if (N > 1)
+            System.arraycopy(off, 0, this.off, 0, N - 1);
+
+        Z.reshape(N, N);
+        Z.zero();
+
+        if (N == 0)
+            return true;
+
+        // Scale the matrix so that its largest element is one, otherwise products of eigenvalue differences
+        // can underflow when the elements are small
+        double scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale, Math.abs(this.diag[i]));
+        }
+        for (int i = 0; i < N - 1; i++) {
+            scale = Math.max(scale, Math.abs(this.off[i]));
+        }
+        if (scale == 0) {
+            CommonOps_DDRM.setIdentity(Z);
+            Arrays.fill(values, 0, N, 0.0);
+            return true;
+        }
+        for (int i = 0; i < N; i++) {
+            this.diag[i] /= scale;
+        }
+        for (int i = 0; i < N - 1; i++) {
+            this.off[i] /= scale;
+        }
+
+        if (!solve(0, N, work))
+            return false;
+
+        for (int i = 0; i < N; i++) {
+            values[i] *= scale;
+        }
+        return true;
+    }
+
+    /**
+     * Solves for the eigenvalues and eigenvectors of the tridiagonal matrix in rows and columns i0 to i1.
+     * The results are written to the same rows and columns in {@link #Z} and 'values'.
+     */
+    protected boolean solve( int i0, int i1, Workspace work ) {
+        if (i1 - i0 <= leafSize)
+            return solveLeaf(i0, i1, work);
+
+        // tear the matrix in two with a rank-one modification
+        int m = (i0 + i1)/2;
+        double rho = off[m - 1];
+        diag[m - 1] -= rho;
+        diag[m] -= rho;
+
+        if (!solveHalves(i0, m, i1, work))
+            return false;
+
+        merge(i0, m, i1, rho, work);
+        return true;
+    }
+
+    /**
+     * Solves the two halves [i0,m) and [m,i1)
+     */
+    protected boolean solveHalves( int i0, int m, int i1, Workspace work ) {
+        return solve(i0, m, work) && solve(m, i1, work);
+    }
+
+    /**
+     * Solves a small sub-problem using the QR algorithm. The eigenvalues are sorted.
+     */
+    protected boolean solveLeaf( int i0, int i1, Workspace work ) {
+        final int n = i1 - i0;
+
+        double[] d = work.leafDiag.reshape(n).data;
+        double[] e = work.leafOff.reshape(n).data;
+        System.arraycopy(diag, i0, d, 0, n);
+        System.arraycopy(off, i0, e, 0, n - 1);
+
+        DMatrixRMaj Q = work.leafQ;
+        Q.reshape(n, n);
+        CommonOps_DDRM.setIdentity(Q);
+
+        work.helper.init(d, e, n);
+        work.helper.setQ(Q);
+        work.leafQR.setFastEigenvalues(false);
+        if (!work.leafQR.process(-1, null, null))
+            return false;
+
+        // sort the eigenvalues with an insertion sort. The rows of Q are the eigenvectors
+        work.order.reshape(n);
+        int[] order = work.order.data;
+        for (int k = 0; k < n; k++) {
+            int j = k - 1;
+            for (; j >= 0 && d[order[j]] > d[k]; j--) {
+                order[j + 1] = order[j];
+            }
+            order[j + 1] = k;
+        }
+
+        final double[] dataZ = Z.data;
+        for (int k = 0; k < n; k++) {
+            int col = i0 + k;
+            values[col] = d[order[k]];
+            int indexQ = order[k]*n;
+            for (int row = 0; row < n; row++) {
+                dataZ[(i0 + row)*N + col] = Q.data[indexQ + row];
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Merges two solved halves into a solution for the matrix in rows and columns i0 to i1.
+     *
+     * @param rho The off diagonal element which was used to tear the matrix in two.
+     */
+    protected void merge( final int i0, final int m, final int i1, double rho, Workspace work ) {
+        final int n = i1 - i0;
+        final double[] dataZ = Z.data;
+        work.reshape(n);
+
+        // If rho is negative then the problem is negated so that the secular equation has the standard form
+        final boolean flip = rho < 0;
+        final double sign = flip ? -1 : 1;
+        rho = Math.abs(rho);
+
+        // Merge the two sorted halves into d, in increasing order. z is the last row of the first half's
+        // eigenvectors followed by the first row of the second half's.
+        final double[] d = work.d.data;
+        final double[] z = work.z.data;
+        final int[] cols = work.cols.data;
+        int n1 = m - i0, n2 = i1 - m;
+        double normZ = 0;
+        for (int k = 0, p1 = 0, p2 = 0; k < n; k++) {
+            int col1 = flip ? m - 1 - p1 : i0 + p1;
+            int col2 = flip ? i1 - 1 - p2 : m + p2;
+            int col;
+            if (p2 == n2 || (p1 < n1 && sign*values[col1] <= sign*values[col2])) {
+                col = col1;
+                z[k] = dataZ[(m - 1)*N + col];
+                p1++;
+            } else {
+                col = col2;
+                z[k] = dataZ[m*N + col];
+                p2++;
+            }
+            cols[k] = col;
+            d[k] = sign*values[col];
+            normZ += z[k]*z[k];
+        }
+
+        // normalize z so that rho*z*z' has the same value
+        rho *= normZ;
+        normZ = Math.sqrt(normZ);
+        double maxD = 0, maxZ = 0;
+        for (int k = 0; k < n; k++) {
+            z[k] /= normZ;
+            maxD = Math.max(maxD, Math.abs(d[k]));
+            maxZ = Math.max(maxZ, Math.abs(z[k]));
+        }
+
+        int K = deflate(n, i0, m, rho, 8.0*UtilEjml.EPS*Math.max(maxD, rho*maxZ), work);
+
+        // find the eigenvalues and eigenvectors of D + rho*z*z' for the components which were not deflated
+        DMatrixRMaj W = work.W;
+        W.reshape(K, K);
+        computeRoots(K, rho, work);
+        computeEigenvectors(K, rho, work);
+
+        // Update the eigenvectors of the two halves: [Qnd*W' Qdef]. Each half's rows are done separately
+        updateVectors(i0, m, i0, m, K, true, work.Qtop, work);
+        updateVectors(m, i1, i0, m, K, false, work.Qbot, work);
+        DMatrixRMaj Qdef = work.Qdef;
+        Qdef.reshape(n, n - K);
+        for (int row = 0; row < n; row++) {
+            int indexZ = (i0 + row)*N;
+            int indexQ = row*(n - K);
+            for (int k = 0; k < n - K; k++) {
+                Qdef.data[indexQ + k] = dataZ[indexZ + work.colsDef.data[k]];
+            }
+        }
+
+        // Both sets of eigenvalues are sorted. Merge them and write the results in sorted order
+        final double[] lambda = work.lambda.data;
+        final double[] dDef = work.dDef.data;
+        for (int k = 0, p1 = 0, p2 = 0; k < n; k++) {
+            int col = flip ? i1 - 1 - k : i0 + k;
+            if (p2 == n - K || (p1 < K && lambda[p1] <= dDef[p2])) {
+                values[col] = sign*lambda[p1];
+                for (int row = 0; row < n1; row++) {
+                    dataZ[(i0 + row)*N + col] = work.Qtop.data[row*K + p1];
+                }
+                for (int row = 0; row < n2; row++) {
+                    dataZ[(m + row)*N + col] = work.Qbot.data[row*K + p1];
+                }
+                p1++;
+            } else {
+                values[col] = sign*dDef[p2];
+                for (int row = 0; row < n; row++) {
+                    dataZ[(i0 + row)*N + col] = Qdef.data[row*(n - K) + p2];
+                }
+                p2++;
+            }
+        }
+    }
+
+    /**
+     * Computes rows row0 to row1 of Qnd*W', where Qnd are the eigenvectors of the two halves which were not
+     * deflated. Eigenvectors from the first half are zero in the second half's rows and the other way around,
+     * unless they were mixed together by a deflating rotation. Only the columns which can be non-zero are
+     * multiplied, which halves the number of operations.
+     *
+     * @param top true if the rows belong to the first half
+     * @param output (Output) Storage for the results
+     */
+    protected void updateVectors( int row0, int row1, int i0, int m, int K, boolean top,
+                                  DMatrixRMaj output, Workspace work ) {
+        final int[] colsK = work.colsK.data;
+        final int[] select = work.select.data;
+        int count = 0;
+        for (int j = 0; j < K; j++) {
+            int col = colsK[j];
+            if (work.mixed.data[col - i0] != 0 || (col < m) == top)
+                select[count++] = j;
+        }
+
+        output.reshape(row1 - row0, K);
+        if (count == 0) {
+            output.zero();
+            return;
+        }
+
+        DMatrixRMaj A = work.Qnd;
+        A.reshape(row1 - row0, count);
+        for (int row = row0; row < row1; row++) {
+            int indexZ = row*N;
+            int indexA = (row - row0)*count;
+            for (int c = 0; c < count; c++) {
+                A.data[indexA + c] = Z.data[indexZ + colsK[select[c]]];
+            }
+        }
+        DMatrixRMaj B = work.Wsub;
+        B.reshape(K, count);
+        for (int i = 0; i < K; i++) {
+            int indexW = i*K;
+            int indexB = i*count;
+            for (int c = 0; c < count; c++) {
+                B.data[indexB + c] = work.W.data[indexW + select[c]];
+            }
+        }
+
+        multTransB(A, B, output);
+    }
+
+    /**
+     * Deflates components of z which are nearly zero and pairs of eigenvalues which are nearly the same.
+     * A pair of eigenvalues is deflated by rotating their eigenvectors so that one of the z components
+     * becomes zero. The components which are not deflated are written to d, z, and cols ending with 'K'
+     * and the deflated ones to those ending with 'Def'. Columns which are rotated with a column from the other
+     * half are marked as mixed.
+     *
+     * @return Number of components which have not been deflated
+     */
+    protected int deflate( int n, int i0, int m, double rho, double tol, Workspace work ) {
+        final double[] d = work.d.data;
+        final double[] z = work.z.data;
+        final int[] cols = work.cols.data;
+        final double[] dataZ = Z.data;
+
+        int K = 0, numDef = 0;
+        int prev = -1;
+        for (int j = 0; j < n; j++) {
+            if (rho*Math.abs(z[j]) <= tol) {
+                work.dDef.data[numDef] = d[j];
+                work.colsDef.data[numDef++] = cols[j];
+                continue;
+            }
+            if (prev == -1) {
+                prev = j;
+                continue;
+            }
+
+            // See if the two eigenvalues are close enough that a rotation can zero the z of the previous one
+            double tau = Math.sqrt(z[prev]*z[prev] + z[j]*z[j]);
+            double c = z[j]/tau;
+            double s = -z[prev]/tau;
+            double t = d[j] - d[prev];
+            if (Math.abs(t*c*s) <= tol) {
+                z[j] = tau;
+                z[prev] = 0;
+
+                int colP = cols[prev];
+                int colJ = cols[j];
+                // rotating columns from different halves creates a column which is non-zero in both
+                if ((colP < m) != (colJ < m) || work.mixed.data[colP - i0] != 0)
+                    work.mixed.data[colJ - i0] = 1;
+                for (int row = 0; row < n; row++) {
+                    int index = (i0 + row)*N;
+                    double x = dataZ[index + colP];
+                    double y = dataZ[index + colJ];
+                    dataZ[index + colP] = c*x + s*y;
+                    dataZ[index + colJ] = c*y - s*x;
+                }
+
+                double dp = d[prev]*c*c + d[j]*s*s;
+                d[j] = d[prev]*s*s + d[j]*c*c;
+                work.dDef.data[numDef] = dp;
+                work.colsDef.data[numDef++] = colP;
+            } else {
+                work.dK.data[K] = d[prev];
+                work.zK.data[K] = z[prev];
+                work.colsK.data[K++] = cols[prev];
+            }
+            prev = j;
+        }
+        if (prev != -1) {
+            work.dK.data[K] = d[prev];
+            work.zK.data[K] = z[prev];
+            work.colsK.data[K++] = cols[prev];
+        }
+
+        return K;
+    }
+
+    /**
+     * Finds all the roots of the secular equation
+     */
+    protected void computeRoots( int K, double rho, Workspace work ) {
+        for (int i = 0; i < K; i++) {
+            work.lambda.data[i] = solveSecular(i, K, work.dK.data, work.zK.data, rho, work.W.data);
+        }
+    }
+
+    /**
+     * Computes the eigenvectors of D + rho*z*z'. Row 'i' in W is replaced by the eigenvector of root 'i'.
+     */
+    protected void computeEigenvectors( int K, double rho, Workspace work ) {
+        for (int j = 0; j < K; j++) {
+            computeZHat(j, K, work.dK.data, work.zK.data, rho, work.W.data, work.zhat.data);
+        }
+        for (int i = 0; i < K; i++) {
+            computeVector(i, K, work.zhat.data, work.W.data);
+        }
+    }
+
+    /**
+     * output = A*B'
+     */
+    protected void multTransB( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj output ) {
+        CommonOps_DDRM.multTransB(A, B, output);
+    }
+
+    /**
+     * <p>
+     * Finds the i-th root of the secular equation:<br>
+     * 1/&rho; + sum<sub>j</sub> z<sub>j</sub><sup>2</sup>/(d<sub>j</sub> - &lambda;) = 0<br>
+     * which lies between d<sub>i</sub> and d<sub>i+1</sub>, or d<sub>i</sub> and d<sub>i</sub>+&rho; for the last
+     * one. The root is found relative to the closest pole using the fixed weight rational approximation in [3],
+     * safe guarded by bisection.
+     * </p>
+     *
+     * <p>
+     * Row i in W is filled with d<sub>j</sub> - &lambda;<sub>i</sub>. Since these are computed relative to the
+     * closest pole they are accurate even if the root is very close to a pole.
+     * </p>
+     *
+     * @return The root
+     */
+    protected static double solveSecular( int i, int K, double[] d, double[] z, double rho, double[] W ) {
+        final int indexW = i*K;
+        final double invRho = 1.0/rho;
+
+        // Select the origin using the sign of the secular equation at the middle of the interval
+        int org;
+        double lo, hi;
+        if (i < K - 1) {
+            double mid = (d[i + 1] - d[i])/2.0;
+            double f = invRho;
+            for (int j = 0; j < K; j++) {
+                f += z[j]*z[j]/((d[j] - d[i]) - mid);
+            }
+            if (f >= 0) {
+                org = i;
+                lo = 0;
+                hi = mid;
+            } else {
+                org = i + 1;
+                lo = -mid;
+                hi = 0;
+            }
+        } else {
+            org = i;
+            lo = 0;
+            hi = rho;
+        }
+
+        // distance of each pole from the origin
+        final double dorg = d[org];
+        for (int j = 0; j < K; j++) {
+            W[indexW + j] = d[j] - dorg;
+        }
+        final double deltaI = W[indexW + i];
+        final double deltaI1 = i < K - 1 ? W[indexW + i + 1] : 0;
+
+        double mu = (lo + hi)/2.0;
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            // psi is the sum of poles to the left of the root and phi the ones to the right
+            double psi = 0, dpsi = 0, phi = 0, dphi = 0;
+            for (int j = 0; j <= i; j++) {
+                double q = z[j]/(W[indexW + j] - mu);
+                psi += z[j]*q;
+                dpsi += q*q;
+            }
+            for (int j = i + 1; j < K; j++) {
+                double q = z[j]/(W[indexW + j] - mu);
+                phi += z[j]*q;
+                dphi += q*q;
+            }
+
+            double f = invRho + psi + phi;
+            if (f == 0)
+                break;
+            // the secular function is increasing between the poles
+            if (f < 0)
+                lo = mu;
+            else
+                hi = mu;
+            if (Math.abs(f) <= 8.0*UtilEjml.EPS*K*(invRho - psi + phi))
+                break;
+
+            // approximate psi and phi by a single pole each, which interpolates their value and slope at mu
+            double ti = deltaI - mu;
+            double b1 = dpsi*ti*ti;
+            double a1 = psi - b1/ti;
+            double x;
+            if (i < K - 1) {
+                double ti1 = deltaI1 - mu;
+                double b2 = dphi*ti1*ti1;
+                double a2 = phi - b2/ti1;
+                double c = invRho + a1 + a2;
+                double g = deltaI1 - deltaI;
+
+                // solve c*p*(p+g) + b1*(p+g) + b2*p = 0 for p = deltaI - x, which has one root in (-g,0)
+                double B = c*g + b1 + b2;
+                double C = b1*g;
+                double p;
+                if (c == 0) {
+                    p = -C/B;
+                } else {
+                    double disc = B*B - 4.0*c*C;
+                    if (disc < 0) {
+                        p = Double.NaN;
+                    } else {
+                        double r = -0.5*(B + Math.copySign(Math.sqrt(disc), B));
+                        p = r/c;
+                        if (!(p > -g && p < 0) && r != 0)
+                            p = C/r;
+                    }
+                }
+                x = deltaI - p;
+            } else {
+                double c = invRho + a1;
+                x = c > 0 ? deltaI + b1/c : Double.NaN;
+            }
+
+            // fall back to bisection if the step leaves the bracket
+            if (!(x > lo && x < hi))
+                x = (lo + hi)/2.0;
+            if (x == mu)
+                break;
+            mu = x;
+            if (hi - lo <= UtilEjml.EPS*(Math.abs(lo) + Math.abs(hi)))
+                break;
+        }
+
+        for (int j = 0; j < K; j++) {
+            W[indexW + j] -= mu;
+        }
+        return dorg + mu;
+    }
+
+    /**
+     * Recomputes component j of z from the roots so that the eigenvectors computed from it are
+     * numerically orthogonal. See [2].
+     */
+    protected static void computeZHat( int j, int K, double[] d, double[] z, double rho, double[] W, double[] zhat ) {
+        // W[i,j] = d[j] - lambda[i]
+        double prod = -W[(K - 1)*K + j]/rho;
+        for (int i = 0; i < j; i++) {
+            prod *= W[i*K + j]/(d[j] - d[i]);
+        }
+        for (int i = j; i < K - 1; i++) {
+            prod *= -W[i*K + j]/(d[i + 1] - d[j]);
+        }
+        zhat[j] = Math.copySign(Math.sqrt(Math.abs(prod)), z[j]);
+    }
+
+    /**
+     * Replaces row i in W with the normalized eigenvector (D - lambda[i])<sup>-1</sup>*zhat
+     */
+    protected static void computeVector( int i, int K, double[] zhat, double[] W ) {
+        final int indexW = i*K;
+        double norm = 0;
+        for (int j = 0; j < K; j++) {
+            double v = zhat[j]/W[indexW + j];
+            W[indexW + j] = v;
+            norm += v*v;
+        }
+        norm = Math.sqrt(norm);
+        for (int j = 0; j < K; j++) {
+            W[indexW + j] /= norm;
+        }
+    }
+
+    /**
+     * Number of eigenvalues
+     */
+    public int getNumberOfEigenvalues() {
+        return N;
+    }
+
+    /**
+     * Returns the eigenvalue at the specified index. Sorted from smallest to largest.
+     */
+    public double getEigenvalue( int index ) {
+        return values[index];
+    }
+
+    /**
+     * Returns the found eigenvalues. The array might be longer than the number of eigenvalues.
+     */
+    public double[] getEigenvalues() {
+        return values;
+    }
+
+    /**
+     * Returns a matrix whose columns are the eigenvectors of the tridiagonal matrix
+     */
+    public DMatrixRMaj getEigenvectors() {
+        return Z;
+    }
+
+    /**
+     * Computes the eigenvectors of Q*T*Q<sup>T</sup> and stores them in the rows of 'output', i.e.
+     * output = Z<sup>T</sup>*Q<sup>T</sup>
+     *
+     * @param QT (Input) Transpose of the orthogonal matrix Q
+     * @param output (Output) Storage for the eigenvectors.
+     */
+    public void transformEigenvectors( DMatrixRMaj QT, DMatrixRMaj output ) {
+        CommonOps_DDRM.multTransA(Z, QT, output);
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * Storage for solving a sub-problem. Each thread needs its own.
+     */
+    protected static class Workspace {
+        // used to solve the small sub-problems
+        final SymmetricQREigenHelper_DDRM helper = new SymmetricQREigenHelper_DDRM();
+        final SymmetricQrAlgorithm_DDRM leafQR = new SymmetricQrAlgorithm_DDRM(helper);
+        final DMatrixRMaj leafQ = new DMatrixRMaj(1, 1);
+        final DGrowArray leafDiag = new DGrowArray();
+        final DGrowArray leafOff = new DGrowArray();
+        final IGrowArray order = new IGrowArray();
+
+        // sorted diagonal, z, and the column in Z they came from
+        final DGrowArray d = new DGrowArray();
+        final DGrowArray z = new DGrowArray();
+        final IGrowArray cols = new IGrowArray();
+
+        // components which have not been deflated
+        final DGrowArray dK = new DGrowArray();
+        final DGrowArray zK = new DGrowArray();
+        final IGrowArray colsK = new IGrowArray();
+        // components which have been deflated
+        final DGrowArray dDef = new DGrowArray();
+        final IGrowArray colsDef = new IGrowArray();
+
+        // roots of the secular equation and the recomputed z
+        final DGrowArray lambda = new DGrowArray();
+        final DGrowArray zhat = new DGrowArray();
+
+        // eigenvectors of D + rho*z*z'
+        final DMatrixRMaj W = new DMatrixRMaj(1, 1);
+        // columns in W and Qnd which can be non-zero when updating the rows in one half
+        final DMatrixRMaj Wsub = new DMatrixRMaj(1, 1);
+        final IGrowArray select = new IGrowArray();
+        // marks eigenvectors which are non-zero in both halves
+        final IGrowArray mixed = new IGrowArray();
+
+        // eigenvectors of the two halves which have and have not been deflated
+        final DMatrixRMaj Qnd = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Qdef = new DMatrixRMaj(1, 1);
+        // updated eigenvectors in the rows of the first and second half
+        final DMatrixRMaj Qtop = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Qbot = new DMatrixRMaj(1, 1);
+
+        void reshape( int n ) {
+            d.reshape(n);
+            z.reshape(n);
+            cols.reshape(n);
+            dK.reshape(n);
+            zK.reshape(n);
+            colsK.reshape(n);
+            dDef.reshape(n);
+            colsDef.reshape(n);
+            lambda.reshape(n);
+            zhat.reshape(n);
+            select.reshape(n);
+            mixed.reshape(n);
+            Arrays.fill(mixed.data, 0, n, 0);
+        }
+    }
+}
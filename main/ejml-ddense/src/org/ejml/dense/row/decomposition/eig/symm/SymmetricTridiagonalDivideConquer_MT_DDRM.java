@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_MT_DDRM;
+
+/**
+ * Concurrent implementation of {@link SymmetricTridiagonalDivideConquer_DDRM}. The two halves of each
+ * sub-problem are solved as separate tasks in the thread pool. Inside of a merge the roots of the secular
+ * equation are found in parallel and the eigenvectors are updated with a concurrent matrix multiplication.
+ *
+ * @author Peter Abeles
+ */
+public class SymmetricTridiagonalDivideConquer_MT_DDRM extends SymmetricTridiagonalDivideConquer_DDRM {
+    // sub-problems smaller than this have their halves solved by the same thread
+    protected int minimumConcurrent = 200;
+
+    public SymmetricTridiagonalDivideConquer_MT_DDRM( int leafSize ) {
+        super(leafSize);
+    }
+
+    public SymmetricTridiagonalDivideConquer_MT_DDRM() {}
+
+    @Override
+    protected boolean solveHalves( int i0, int m, int i1, Workspace work ) {
+        if (i1 - i0 < minimumConcurrent)
+            return super.solveHalves(i0, m, i1, work);
+
+        // The first half reuses this work space since the merge only happens after both halves are done
+        var success = new boolean[2];
+        var workSecond = new Workspace();
+        EjmlConcurrency.loopFor(0, 2, half -> {
+            if (half == 0)
+                success[0] = solve(i0, m, work);
+            else
+                success[1] = solve(m, i1, workSecond);
+        });
+        return success[0] && success[1];
+    }
+
+    @Override
+    protected void computeRoots( int K, double rho, Workspace work ) {
+        EjmlConcurrency.loopFor(0, K, i ->
+                work.lambda.data[i] = solveSecular(i, K, work.dK.data, work.zK.data, rho, work.W.data));
+    }
+
+    @Override
+    protected void computeEigenvectors( int K, double rho, Workspace work ) {
+        EjmlConcurrency.loopBlocks(0, K, ( j0, j1 ) -> {
+            for (int j = j0; j < j1; j++) {
+                computeZHat(j, K, work.dK.data, work.zK.data, rho, work.W.data, work.zhat.data);
+            }
+        });
+        EjmlConcurrency.loopBlocks(0, K, ( i0, i1 ) -> {
+            for (int i = i0; i < i1; i++) {
+                computeVector(i, K, work.zhat.data, work.W.data);
+            }
+        });
+    }
+
+    @Override
+    protected void multTransB( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj output ) {
+        CommonOps_MT_DDRM.multTransB(A, B, output);
+    }
+
+    @Override
+    public void transformEigenvectors( DMatrixRMaj QT, DMatrixRMaj output ) {
+        CommonOps_MT_DDRM.multTransA(Z, QT, output);
+    }
+
+    public int getMinimumConcurrent() {
+        return minimumConcurrent;
+    }
+
+    public void setMinimumConcurrent( int minimumConcurrent ) {
+        this.minimumConcurrent = minimumConcurrent;
+    }
+}
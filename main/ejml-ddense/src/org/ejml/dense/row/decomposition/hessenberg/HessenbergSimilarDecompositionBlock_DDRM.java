@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.hessenberg;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.decomposition.UtilDecompositons_DDRM;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Blocked implementation of {@link HessenbergSimilarDecomposition_DDRM}. The unblocked algorithm applies each
+ * Householder reflector to the entire matrix as soon as it's computed, which is limited by memory bandwidth.
+ * Here the reflectors for a panel of columns are computed first and the rest of the matrix is updated with
+ * their compact WY representation, I - V*T*V<sup>T</sup>, using matrix multiplications:
+ * </p>
+ * <pre>
+ * A = A - Y*V<sup>T</sup>              where Y = A*V*T
+ * A = (I - V*T*V<sup>T</sup>)<sup>T</sup>*A
+ * </pre>
+ *
+ * <p>
+ * Only the product of A and each reflector inside of the panel can't be blocked, which is about 20% of the
+ * operations. Once the remaining matrix is small the unblocked algorithm is used. The output is stored in the
+ * same format as the unblocked algorithm and Q is also computed using blocked reflectors.
+ * </p>
+ *
+ * <p>
+ * [1] G. Quintana-Orti and R. van de Geijn, "Improving the performance of reduction to Hessenberg form",
+ * ACM Transactions on Mathematical Software, 2006<br>
+ * [2] LAPACK, DGEHRD and DLAHR2
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class HessenbergSimilarDecompositionBlock_DDRM extends HessenbergSimilarDecomposition_DDRM {
+    // number of columns in a panel
+    protected final int blockLength;
+    // the unblocked algorithm is used once fewer than this many columns remain
+    protected int minimumBlocked = 128;
+
+    // Householder vectors of the panel, starting at the row below the panel's first column
+    protected final DMatrixRMaj V = new DMatrixRMaj(1, 1);
+    // upper triangular matrix in the compact WY representation
+    protected final DMatrixRMaj T = new DMatrixRMaj(1, 1);
+    // Y = A*V*T
+    protected final DMatrixRMaj Y = new DMatrixRMaj(1, 1);
+    // work space for the trailing updates
+    protected final DMatrixRMaj W = new DMatrixRMaj(1, 1);
+    protected final DMatrixStrided viewA = new DMatrixStrided();
+    protected final DMatrixStrided viewB = new DMatrixStrided();
+    protected final DMatrixStrided viewC = new DMatrixStrided();
+    protected final DGrowArray workA = new DGrowArray();
+    protected final DGrowArray workB = new DGrowArray();
+    protected double[] tmp = new double[1];
+    // copy of the Householder vector which is being multiplied
+    protected double[] vec = new double[1];
+
+    /**
+     * @param initialSize Expected size of the matrices it will decompose.
+     * @param blockLength Number of columns in a panel. Try 32.
+     */
+    public HessenbergSimilarDecompositionBlock_DDRM( int initialSize, int blockLength ) {
+        super(initialSize);
+        if (blockLength < 1)
+            throw new IllegalArgumentException("blockLength must be at least 1");
+        this.blockLength = blockLength;
+    }
+
+    public HessenbergSimilarDecompositionBlock_DDRM() {
+        this(5, 32);
+    }
+
+    @Override
+    protected boolean _decompose() {
+        int p = 0;
+        for (; p < N - 2 - minimumBlocked; p += blockLength) {
+            int ib = Math.min(blockLength, N - 2 - p);
+            reducePanel(p, ib);
+            updateTrailing(p, ib);
+        }
+
+        for (int k = p; k < N - 2; k++) {
+            reduceColumn(k);
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the reflectors for columns p to p+ib-1. Each column is updated by the previous reflectors in the
+     * panel from both sides just before its reflector is computed. Columns to the right of the panel are not
+     * modified, but V, T, and Y are computed so that they can be updated later.
+     */
+    protected void reducePanel( final int p, final int ib ) {
+        final double[] h = QH.data;
+        final int m = N - p - 1;
+        V.reshape(m, ib);
+        V.zero();
+        T.reshape(ib, ib);
+        T.zero();
+        Y.reshape(N, ib);
+        if (tmp.length < N) {
+            tmp = new double[N];
+            vec = new double[N];
+        }
+        final double[] v = V.data, t = T.data, y = Y.data, w = tmp;
+
+        for (int j = 0; j < ib; j++) {
+            final int c = p + j;
+
+            if (j > 0) {
+                // Apply the previous reflectors to the right: A(:,c) = A(:,c) - Y*V(c,:)'
+                int indexV = (c - p - 1)*ib;
+                for (int i = 0; i < N; i++) {
+                    double sum = 0;
+                    for (int l = 0; l < j; l++) {
+                        sum += y[i*ib + l]*v[indexV + l];
+                    }
+                    h[i*N + c] -= sum;
+                }
+
+                // Then to the left: b = (I - V*T'*V')*b where b is column c below row p
+                for (int l = 0; l < j; l++) {
+                    w[l] = 0;
+                }
+                for (int r = 0; r < m; r++) {
+                    double b = h[(p + 1 + r)*N + c];
+                    for (int l = 0; l < j; l++) {
+                        w[l] += v[r*ib + l]*b;
+                    }
+                }
+                for (int l = j - 1; l >= 0; l--) {
+                    double sum = 0;
+                    for (int k = 0; k <= l; k++) {
+                        sum += t[k*ib + l]*w[k];
+                    }
+                    w[l] = sum;
+                }
+                for (int r = 0; r < m; r++) {
+                    double sum = 0;
+                    for (int l = 0; l < j; l++) {
+                        sum += v[r*ib + l]*w[l];
+                    }
+                    h[(p + 1 + r)*N + c] -= sum;
+                }
+            }
+
+            double gamma = computeReflector(c);
+            gammas[c] = gamma;
+
+            // save the Householder vector. It starts with 1 at row c+1
+            v[(c - p)*ib + j] = 1;
+            vec[c + 1] = 1;
+            for (int r = c + 2; r < N; r++) {
+                v[(r - p - 1)*ib + j] = vec[r] = h[r*N + c];
+            }
+
+            // Y(:,j) = gamma*(A*v - Y*V'*v) and T(:,j) = -gamma*T*V'*v
+            multAv(c, j, ib);
+            for (int l = 0; l < j; l++) {
+                double sum = 0;
+                for (int r = c - p; r < m; r++) {
+                    sum += v[r*ib + l]*v[r*ib + j];
+                }
+                w[l] = sum;
+            }
+            for (int i = 0; i < N; i++) {
+                double sum = y[i*ib + j];
+                for (int l = 0; l < j; l++) {
+                    sum -= y[i*ib + l]*w[l];
+                }
+                y[i*ib + j] = gamma*sum;
+            }
+            for (int l = 0; l < j; l++) {
+                double sum = 0;
+                for (int k = l; k < j; k++) {
+                    sum += t[l*ib + k]*w[k];
+                }
+                t[l*ib + j] = -gamma*sum;
+            }
+            t[j*ib + j] = gamma;
+        }
+    }
+
+    /**
+     * Computes the Householder reflector for column c, using the same format as the unblocked algorithm, and
+     * writes it into the matrix below the sub-diagonal.
+     *
+     * @return gamma
+     */
+    private double computeReflector( int c ) {
+        final double[] h = QH.data;
+
+        double max = 0;
+        for (int i = c + 1; i < N; i++) {
+            max = Math.max(max, Math.abs(h[i*N + c]));
+        }
+        if (max == 0)
+            return 0;
+
+        double tau = 0;
+        for (int i = c + 1; i < N; i++) {
+            double val = h[i*N + c] /= max;
+            tau += val*val;
+        }
+        tau = Math.sqrt(tau);
+        if (h[(c + 1)*N + c] < 0)
+            tau = -tau;
+
+        double nu = h[(c + 1)*N + c] + tau;
+        for (int i = c + 2; i < N; i++) {
+            h[i*N + c] /= nu;
+        }
+        h[(c + 1)*N + c] = -tau*max;
+        return nu/tau;
+    }
+
+    /**
+     * Y(:,j) = A(:,c+1:N)*v where v is column j in V and has been copied into {@link #vec}. The columns of A to
+     * the right of the panel have not been modified yet.
+     */
+    protected void multAv( int c, int j, int ib ) {
+        multAv(c, j, ib, 0, N);
+    }
+
+    /**
+     * Computes rows row0 to row1 of {@link #multAv(int, int, int)}.
+     */
+    protected void multAv( int c, int j, int ib, int row0, int row1 ) {
+        final double[] h = QH.data, v = vec, y = Y.data;
+        for (int i = row0; i < row1; i++) {
+            int indexA = i*N;
+            double sum = 0;
+            for (int r = c + 1; r < N; r++) {
+                sum += h[indexA + r]*v[r];
+            }
+            y[i*ib + j] = sum;
+        }
+    }
+
+    /**
+     * Applies the panel's reflectors to the columns to the right of the panel. The sub-matrices are views into
+     * the decomposed matrix so nothing needs to be copied.
+     */
+    protected void updateTrailing( int p, int ib ) {
+        final int col0 = p + ib;
+        final int m = N - p - 1;
+        final int n = N - col0;
+
+        // A(:,col0:N) = A(:,col0:N) - Y*V(col0:N,:)'
+        viewA.setView(Y.data, 0, ib, N, ib);
+        viewB.setView(V.data, (col0 - p - 1)*ib, ib, n, ib);
+        viewC.setView(QH.data, col0, N, N, n);
+        mult(-1, viewA, false, viewB, true, viewC, true);
+
+        // A(p+1:N,col0:N) = (I - V*T*V')'*A(p+1:N,col0:N)
+        W.reshape(ib, n);
+        viewA.setView(V.data, 0, ib, m, ib);
+        viewB.setView(QH.data, (p + 1)*N + col0, N, m, n);
+        viewC.setView(W.data, 0, n, ib, n);
+        mult(1, viewA, true, viewB, false, viewC, false);
+        multLowerTransT(W);
+        mult(-1, viewA, false, viewC, false, viewB, true);
+    }
+
+    /**
+     * W = T'*W, where T is upper triangular
+     */
+    private void multLowerTransT( DMatrixRMaj W ) {
+        final int ib = T.numRows;
+        final int cols = W.numCols;
+        final double[] t = T.data, w = W.data;
+        for (int l = ib - 1; l >= 0; l--) {
+            int indexW = l*cols;
+            double tll = t[l*ib + l];
+            for (int col = 0; col < cols; col++) {
+                w[indexW + col] *= tll;
+            }
+            for (int k = 0; k < l; k++) {
+                double tkl = t[k*ib + l];
+                if (tkl == 0)
+                    continue;
+                int indexK = k*cols;
+                for (int col = 0; col < cols; col++) {
+                    w[indexW + col] += tkl*w[indexK + col];
+                }
+            }
+        }
+    }
+
+    /**
+     * W = T*W, where T is upper triangular
+     */
+    private void multUpperT( DMatrixRMaj W ) {
+        final int ib = T.numRows;
+        final int cols = W.numCols;
+        final double[] t = T.data, w = W.data;
+        for (int l = 0; l < ib; l++) {
+            int indexW = l*cols;
+            double tll = t[l*ib + l];
+            for (int col = 0; col < cols; col++) {
+                w[indexW + col] *= tll;
+            }
+            for (int k = l + 1; k < ib; k++) {
+                double tlk = t[l*ib + k];
+                if (tlk == 0)
+                    continue;
+                int indexK = k*cols;
+                for (int col = 0; col < cols; col++) {
+                    w[indexW + col] += tlk*w[indexK + col];
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes Q by applying blocks of reflectors in reverse order
+     */
+    @Override
+    public DMatrixRMaj getQ( @Nullable DMatrixRMaj Q ) {
+        if (N - 2 <= minimumBlocked)
+            return super.getQ(Q);
+
+        Q = UtilDecompositons_DDRM.ensureIdentity(Q, N, N);
+
+        // start with the last block so that Q is only non-zero in the rows and columns it will update
+        int numBlocks = (N - 2 + blockLength - 1)/blockLength;
+        for (int block = numBlocks - 1; block >= 0; block--) {
+            int p = block*blockLength;
+            int ib = Math.min(blockLength, N - 2 - p);
+            int m = N - p - 1;
+            extractPanel(p, ib);
+
+            // Q(p+1:N,p+1:N) = (I - V*T*V')*Q(p+1:N,p+1:N)
+            W.reshape(ib, m);
+            viewA.setView(V.data, 0, ib, m, ib);
+            viewB.setView(Q.data, (p + 1)*N + p + 1, N, m, m);
+            viewC.setView(W.data, 0, m, ib, m);
+            mult(1, viewA, true, viewB, false, viewC, false);
+            multUpperT(W);
+            mult(-1, viewA, false, viewC, false, viewB, true);
+        }
+
+        return Q;
+    }
+
+    /**
+     * Copies the Householder vectors for columns p to p+ib-1 into V and computes T from them.
+     */
+    private void extractPanel( int p, int ib ) {
+        final double[] h = QH.data;
+        final int m = N - p - 1;
+        V.reshape(m, ib);
+        V.zero();
+        T.reshape(ib, ib);
+        T.zero();
+        final double[] v = V.data, t = T.data;
+        if (tmp.length < ib)
+            tmp = new double[ib];
+        final double[] w = tmp;
+
+        for (int j = 0; j < ib; j++) {
+            int c = p + j;
+            v[(c - p)*ib + j] = 1;
+            for (int r = c + 2; r < N; r++) {
+                v[(r - p - 1)*ib + j] = h[r*N + c];
+            }
+
+            double gamma = gammas[c];
+            for (int l = 0; l < j; l++) {
+                double sum = 0;
+                for (int r = c - p; r < m; r++) {
+                    sum += v[r*ib + l]*v[r*ib + j];
+                }
+                w[l] = sum;
+            }
+            for (int l = 0; l < j; l++) {
+                double sum = 0;
+                for (int k = l; k < j; k++) {
+                    sum += t[l*ib + k]*w[k];
+                }
+                t[l*ib + j] = -gamma*sum;
+            }
+            t[j*ib + j] = gamma;
+        }
+    }
+
+    /**
+     * C = alpha*op(A)*op(B) + (add ? C : 0)
+     */
+    protected void mult( double alpha, DMatrixStrided A, boolean transA, DMatrixStrided B, boolean transB,
+                         DMatrixStrided C, boolean add ) {
+        MatrixMultPacked_DDRM.mult(alpha, A, transA, B, transB, C, add, workA, workB);
+    }
+
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    public int getMinimumBlocked() {
+        return minimumBlocked;
+    }
+
+    public void setMinimumBlocked( int minimumBlocked ) {
+        this.minimumBlocked = minimumBlocked;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.hessenberg;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.decomposition.qr.QrHelperFunctions_MT_DDRM;
+import org.ejml.dense.row.mult.MatrixMultPacked_MT_DDRM;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link HessenbergSimilarDecompositionBlock_DDRM}. The product of the matrix
+ * and each reflector inside of the panel is split up by rows and the trailing updates use concurrent
+ * matrix multiplications.
+ *
+ * @author Peter Abeles
+ */
+public class HessenbergSimilarDecompositionBlock_MT_DDRM extends HessenbergSimilarDecompositionBlock_DDRM {
+    // work space for each thread when packing A
+    protected final GrowArray<DGrowArray> workArrays = new GrowArray<>(DGrowArray::new);
+
+    public HessenbergSimilarDecompositionBlock_MT_DDRM( int initialSize, int blockLength ) {
+        super(initialSize, blockLength);
+    }
+
+    public HessenbergSimilarDecompositionBlock_MT_DDRM() {}
+
+    @Override
+    protected void multAv( int c, int j, int ib ) {
+        EjmlConcurrency.loopBlocks(0, N, ( row0, row1 ) -> multAv(c, j, ib, row0, row1));
+    }
+
+    @Override
+    protected void mult( double alpha, DMatrixStrided A, boolean transA, DMatrixStrided B, boolean transB,
+                         DMatrixStrided C, boolean add ) {
+        MatrixMultPacked_MT_DDRM.mult(alpha, A, transA, B, transB, C, add, workArrays, workB);
+    }
+
+    @Override
+    protected void rank1UpdateMultL( DMatrixRMaj A, double gamma, int colA0, int w0, int w1 ) {
+        QrHelperFunctions_MT_DDRM.rank1UpdateMultL(A, u, gamma, colA0, w0, w1);
+    }
+
+    @Override
+    protected void rank1UpdateMultR( DMatrixRMaj A, double gamma, int colA0, int w0, int w1 ) {
+        QrHelperFunctions_MT_DDRM.rank1UpdateMultR(A, u, gamma, colA0, w0, w1, this.b);
+    }
+}
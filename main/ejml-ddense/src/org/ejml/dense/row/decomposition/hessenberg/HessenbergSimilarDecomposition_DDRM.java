@@ -50,12 +50,12 @@ import org.jetbrains.annotations.Nullable;
 public class HessenbergSimilarDecomposition_DDRM
         implements DecompositionInterface<DMatrixRMaj> {
     // A combined matrix that stores te upper Hessenberg matrix and the orthogonal matrix.
-    private DMatrixRMaj QH;
+    protected DMatrixRMaj QH;
     // number of rows and columns of the matrix being decompose
-    private int N;
+    protected int N;
 
     // the first element in the orthogonal vectors
-    private double[] gammas;
+    protected double[] gammas;
     // temporary storage
     protected double[] b;
     protected double[] u;
@@ -160,65 +160,73 @@ public class HessenbergSimilarDecomposition_DDRM
     /**
      * Internal function for computing the decomposition.
      */
-    private boolean _decompose() {
+    protected boolean _decompose() {
+        for (int k = 0; k < N - 2; k++) {
+            reduceColumn(k);
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the Householder reflector which zeros column k below the sub-diagonal and applies it to both
+     * sides of the matrix.
+     */
+    protected void reduceColumn( int k ) {
         double[] h = QH.data;
 
-        for (int k = 0; k < N - 2; k++) {
-            // find the largest value in this column
-            // this is used to normalize the column and mitigate overflow/underflow
-            double max = 0;
+        // find the largest value in this column
+        // this is used to normalize the column and mitigate overflow/underflow
+        double max = 0;
+
+        for (int i = k + 1; i < N; i++) {
+            // copy the householder vector to vector outside of the matrix to reduce caching issues
+            // big improvement on larger matrices and a relatively small performance hit on small matrices.
+            double val = u[i] = h[i*N + k];
+            val = Math.abs(val);
+            if (val > max)
+                max = val;
+        }
+
+        if (max > 0) {
+            // -------- set up the reflector Q_k
 
+            double tau = 0;
+            // normalize to reduce overflow/underflow
+            // and compute tau for the reflector
             for (int i = k + 1; i < N; i++) {
-                // copy the householder vector to vector outside of the matrix to reduce caching issues
-                // big improvement on larger matrices and a relatively small performance hit on small matrices.
-                double val = u[i] = h[i*N + k];
-                val = Math.abs(val);
-                if (val > max)
-                    max = val;
+                double val = u[i] /= max;
+                tau += val*val;
             }
 
-            if (max > 0) {
-                // -------- set up the reflector Q_k
-
-                double tau = 0;
-                // normalize to reduce overflow/underflow
-                // and compute tau for the reflector
-                for (int i = k + 1; i < N; i++) {
-                    double val = u[i] /= max;
-                    tau += val*val;
-                }
-
-                tau = Math.sqrt(tau);
+            tau = Math.sqrt(tau);
 
-                if (u[k + 1] < 0)
-                    tau = -tau;
+            if (u[k + 1] < 0)
+                tau = -tau;
 
-                // write the reflector into the lower left column of the matrix
-                double nu = u[k + 1] + tau;
-                u[k + 1] = 1.0;
+            // write the reflector into the lower left column of the matrix
+            double nu = u[k + 1] + tau;
+            u[k + 1] = 1.0;
 
-                for (int i = k + 2; i < N; i++) {
-                    h[i*N + k] = u[i] /= nu;
-                }
+            for (int i = k + 2; i < N; i++) {
+                h[i*N + k] = u[i] /= nu;
+            }
 
-                double gamma = nu/tau;
-                gammas[k] = gamma;
+            double gamma = nu/tau;
+            gammas[k] = gamma;
 
-                // ---------- multiply on the left by Q_k
-                rank1UpdateMultR(QH, gamma, k + 1, k + 1, N);
+            // ---------- multiply on the left by Q_k
+            rank1UpdateMultR(QH, gamma, k + 1, k + 1, N);
 
-                // ---------- multiply on the right by Q_k
-                rank1UpdateMultL(QH, gamma, 0, k + 1, N);
+            // ---------- multiply on the right by Q_k
+            rank1UpdateMultL(QH, gamma, 0, k + 1, N);
 
-                // since the first element in the householder vector is known to be 1
-                // store the full upper hessenberg
-                h[(k + 1)*N + k] = -tau*max;
-            } else {
-                gammas[k] = 0;
-            }
+            // since the first element in the householder vector is known to be 1
+            // store the full upper hessenberg
+            h[(k + 1)*N + k] = -tau*max;
+        } else {
+            gammas[k] = 0;
         }
-
-        return true;
     }
 
     protected void rank1UpdateMultL( DMatrixRMaj A, double gamma, int colA0, int w0, int w1 ) {
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
+import org.ejml.dense.row.mult.MatrixMultStrided_DDRM;
+
+/**
+ * <p>
+ * Right-looking blocked LU decomposition with partial pivoting. The columns are processed in panels which are
+ * 'blockWidth' wide. Each panel is decomposed with the unblocked algorithm, then the block row to the right of
+ * it is solved for and the trailing sub-matrix is updated with a single matrix multiplication:
+ * </p>
+ * <pre>
+ * [ A11 A12 ]   [ L11  0 ] [ U11 U12 ]
+ * [ A21 A22 ] = [ L21  I ] [  0  S   ]
+ *
+ * U12 = L11<sup>-1</sup>*A12
+ * S   = A22 - L21*U12
+ * </pre>
+ * <p>
+ * Almost all the work is in the update of the trailing sub-matrix, which is done by
+ * {@link MatrixMultPacked_DDRM}. For large matrices this is much faster than the unblocked algorithm in
+ * {@link LUDecompositionAlt_DDRM} since it makes much better use of the cache.
+ * </p>
+ *
+ * <p>
+ * The same pivots are selected as the unblocked algorithm and the output is stored in the same format.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LUDecompositionBlock_DDRM extends LUDecompositionBase_DDRM {
+    // number of columns in each panel
+    protected final int blockWidth;
+
+    // storage for the packed blocks used by matrix multiplication
+    protected final DGrowArray workA = new DGrowArray();
+    protected final DGrowArray workB = new DGrowArray();
+
+    /**
+     * @param blockWidth Number of columns in each panel.
+     */
+    public LUDecompositionBlock_DDRM( int blockWidth ) {
+        if (blockWidth <= 0)
+            throw new IllegalArgumentException("blockWidth must be positive");
+        this.blockWidth = blockWidth;
+    }
+
+    public LUDecompositionBlock_DDRM() {
+        this(EjmlParameters.BLOCK_WIDTH_LU);
+    }
+
+    /**
+     * Decomposes the matrix.
+     *
+     * @param a The matrix that is to be decomposed. Not modified.
+     * @return true If the matrix can be decomposed and false if it can not.
+     */
+    @Override
+    public boolean decompose( DMatrixRMaj a ) {
+        decomposeCommonInit(a);
+
+        final int minLength = Math.min(m, n);
+
+        for (int j0 = 0; j0 < minLength; j0 += blockWidth) {
+            final int j1 = Math.min(j0 + blockWidth, minLength);
+
+            decomposePanel(j0, j1);
+
+            if (j1 < n) {
+                solveBlockRow(j0, j1);
+                if (j1 < m)
+                    updateTrailing(j0, j1);
+            }
+        }
+
+        // columns past the last row are not pivoted
+        for (int j = minLength; j < n; j++) {
+            indx[j] = j;
+        }
+
+        return true;
+    }
+
+    /**
+     * Unblocked decomposition of columns j0 to j1. Row swaps are applied across the entire row, which includes
+     * the block row to the right of the panel and the previous panels.
+     */
+    protected void decomposePanel( final int j0, final int j1 ) {
+        for (int j = j0; j < j1; j++) {
+            // Find pivot and exchange if necessary
+            int p = j;
+            double max = Math.abs(dataLU[j*n + j]);
+            for (int i = j + 1; i < m; i++) {
+                double v = Math.abs(dataLU[i*n + j]);
+                if (v > max) {
+                    p = i;
+                    max = v;
+                }
+            }
+
+            if (p != j) {
+                int rowP = p*n;
+                int rowJ = j*n;
+                int endP = rowP + n;
+                for (; rowP < endP; rowP++, rowJ++) {
+                    double t = dataLU[rowP];
+                    dataLU[rowP] = dataLU[rowJ];
+                    dataLU[rowJ] = t;
+                }
+                int k = pivot[p];
+                pivot[p] = pivot[j];
+                pivot[j] = k;
+                pivsign = -pivsign;
+            }
+            indx[j] = p;
+
+            // Compute multipliers and update the remainder of the panel
+            double lujj = dataLU[j*n + j];
+            int indexJ = j*n;
+            for (int i = j + 1; i < m; i++) {
+                int indexI = i*n;
+                if (lujj != 0)
+                    dataLU[indexI + j] /= lujj;
+                double lij = dataLU[indexI + j];
+                for (int k = j + 1; k < j1; k++) {
+                    dataLU[indexI + k] -= lij*dataLU[indexJ + k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes U12 = L11<sup>-1</sup>*A12 in place, where L11 is the unit lower triangular block inside the panel
+     * and A12 is in rows j0 to j1 and columns j1 to n.
+     */
+    protected void solveBlockRow( final int j0, final int j1 ) {
+        solveBlockRow(j0, j1, j1, n);
+    }
+
+    /**
+     * Same as {@link #solveBlockRow(int, int)} but only for columns col0 to col1.
+     */
+    protected void solveBlockRow( final int j0, final int j1, final int col0, final int col1 ) {
+        for (int i = j0 + 1; i < j1; i++) {
+            final int rowI = i*n;
+            for (int k = j0; k < i; k++) {
+                final double lik = dataLU[rowI + k];
+                if (lik == 0)
+                    continue;
+                int indexI = rowI + col0;
+                int indexK = k*n + col0;
+                final int end = rowI + col1;
+                while (indexI < end) {
+                    dataLU[indexI++] -= lik*dataLU[indexK++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the trailing sub-matrix, A22 = A22 - L21*U12
+     */
+    protected void updateTrailing( final int j0, final int j1 ) {
+        var L21 = new DMatrixStrided(dataLU, j1*n + j0, n, m - j1, j1 - j0);
+        var U12 = new DMatrixStrided(dataLU, j0*n + j1, n, j1 - j0, n - j1);
+        var A22 = new DMatrixStrided(dataLU, j1*n + j1, n, m - j1, n - j1);
+
+        if (MatrixMultPacked_DDRM.isPreferred(A22.numRows, L21.numCols, A22.numCols)) {
+            MatrixMultPacked_DDRM.mult(-1.0, L21, false, U12, false, A22, true, workA, workB);
+        } else {
+            MatrixMultStrided_DDRM.mult(-1.0, L21, false, U12, false, A22, true);
+        }
+    }
+
+    public int getBlockWidth() {
+        return blockWidth;
+    }
+}
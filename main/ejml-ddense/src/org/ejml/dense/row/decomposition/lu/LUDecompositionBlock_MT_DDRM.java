@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.EjmlParameters;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
+import org.ejml.dense.row.mult.MatrixMultPacked_MT_DDRM;
+import org.ejml.dense.row.mult.MatrixMultStrided_DDRM;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link LUDecompositionBlock_DDRM}. The panel is decomposed by a single thread.
+ * The block row to the right of the panel is split up by columns and the trailing sub-matrix by rows between
+ * the threads.
+ *
+ * @author Peter Abeles
+ */
+public class LUDecompositionBlock_MT_DDRM extends LUDecompositionBlock_DDRM {
+    // each thread's storage for packed blocks of L21
+    private final GrowArray<DGrowArray> workThreads = new GrowArray<>(DGrowArray::new);
+
+    public LUDecompositionBlock_MT_DDRM( int blockWidth ) {
+        super(blockWidth);
+    }
+
+    public LUDecompositionBlock_MT_DDRM() {
+        this(EjmlParameters.BLOCK_WIDTH_LU);
+    }
+
+    @Override
+    protected void solveBlockRow( final int j0, final int j1 ) {
+        EjmlConcurrency.loopBlocks(j1, n, blockWidth, ( col0, col1 ) -> solveBlockRow(j0, j1, col0, col1));
+    }
+
+    @Override
+    protected void updateTrailing( final int j0, final int j1 ) {
+        var L21 = new DMatrixStrided(dataLU, j1*n + j0, n, m - j1, j1 - j0);
+        var U12 = new DMatrixStrided(dataLU, j0*n + j1, n, j1 - j0, n - j1);
+        var A22 = new DMatrixStrided(dataLU, j1*n + j1, n, m - j1, n - j1);
+
+        if (MatrixMultPacked_DDRM.isPreferred(A22.numRows, L21.numCols, A22.numCols)) {
+            MatrixMultPacked_MT_DDRM.mult(-1.0, L21, false, U12, false, A22, true, workThreads, workB);
+        } else {
+            EjmlConcurrency.loopBlocks(0, A22.numRows, blockWidth, ( row0, row1 ) ->
+                    MatrixMultStrided_DDRM.mult(-1.0, L21.subview(row0, 0, row1 - row0, L21.numCols), false,
+                            U12, false, A22.subview(row0, 0, row1 - row0, A22.numCols), true));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
+import org.ejml.dense.row.mult.MatrixMultStrided_DDRM;
+
+/**
+ * <p>
+ * Recursive LU decomposition with partial pivoting, based on the algorithm by Toledo. The columns are split in
+ * half, the left half is decomposed recursively, the right half is updated, and then the right half is
+ * decomposed recursively:
+ * </p>
+ * <pre>
+ * [ A11 A12 ]   [ L11  0 ] [ U11 U12 ]
+ * [ A21 A22 ] = [ L21  I ] [  0  S   ]
+ *
+ * U12 = L11<sup>-1</sup>*A12
+ * S   = A22 - L21*U12
+ * </pre>
+ * <p>
+ * The triangular solve is also done recursively. Since the sub-problems naturally shrink until they fit inside
+ * each level of the cache, this reaches close to the speed of matrix multiplication without a tuned block size.
+ * Recursion stops at 'baseWidth' columns, after which the unblocked algorithm is used.
+ * </p>
+ *
+ * <p>
+ * The same pivots are selected as the unblocked algorithm and the output is stored in the same format.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LUDecompositionRecursive_DDRM extends LUDecompositionBase_DDRM {
+    // number of columns at which recursion stops
+    protected final int baseWidth;
+
+    // storage for the packed blocks used by matrix multiplication
+    protected final DGrowArray workA = new DGrowArray();
+    protected final DGrowArray workB = new DGrowArray();
+
+    /**
+     * @param baseWidth Number of columns at which it switches to the unblocked algorithm.
+     */
+    public LUDecompositionRecursive_DDRM( int baseWidth ) {
+        if (baseWidth <= 0)
+            throw new IllegalArgumentException("baseWidth must be positive");
+        this.baseWidth = baseWidth;
+    }
+
+    public LUDecompositionRecursive_DDRM() {
+        this(16);
+    }
+
+    /**
+     * Decomposes the matrix.
+     *
+     * @param a The matrix that is to be decomposed. Not modified.
+     * @return true If the matrix can be decomposed and false if it can not.
+     */
+    @Override
+    public boolean decompose( DMatrixRMaj a ) {
+        decomposeCommonInit(a);
+
+        final int minLength = Math.min(m, n);
+
+        decompose(0, minLength);
+
+        // wide matrix. Solve for the columns to the right of the square part
+        if (minLength < n) {
+            solveLower(0, minLength, minLength, n);
+        }
+
+        // columns past the last row are not pivoted
+        for (int j = minLength; j < n; j++) {
+            indx[j] = j;
+        }
+
+        return true;
+    }
+
+    /**
+     * Recursively decomposes columns j0 to j1 in rows j0 to m.
+     */
+    protected void decompose( final int j0, final int j1 ) {
+        if (j1 - j0 <= baseWidth) {
+            decomposeColumns(j0, j1);
+            return;
+        }
+
+        final int h = j0 + (j1 - j0)/2;
+
+        decompose(j0, h);
+        // U12 = L11^-1 A12
+        solveLower(j0, h, h, j1);
+        // A22 = A22 - L21*U12
+        multMinus(
+                new DMatrixStrided(dataLU, h*n + j0, n, m - h, h - j0),
+                new DMatrixStrided(dataLU, j0*n + h, n, h - j0, j1 - h),
+                new DMatrixStrided(dataLU, h*n + h, n, m - h, j1 - h));
+        decompose(h, j1);
+    }
+
+    /**
+     * Unblocked decomposition of columns j0 to j1. Row swaps are applied across the entire row.
+     */
+    protected void decomposeColumns( final int j0, final int j1 ) {
+        for (int j = j0; j < j1; j++) {
+            // Find pivot and exchange if necessary
+            int p = j;
+            double max = Math.abs(dataLU[j*n + j]);
+            for (int i = j + 1; i < m; i++) {
+                double v = Math.abs(dataLU[i*n + j]);
+                if (v > max) {
+                    p = i;
+                    max = v;
+                }
+            }
+
+            if (p != j) {
+                int rowP = p*n;
+                int rowJ = j*n;
+                int endP = rowP + n;
+                for (; rowP < endP; rowP++, rowJ++) {
+                    double t = dataLU[rowP];
+                    dataLU[rowP] = dataLU[rowJ];
+                    dataLU[rowJ] = t;
+                }
+                int k = pivot[p];
+                pivot[p] = pivot[j];
+                pivot[j] = k;
+                pivsign = -pivsign;
+            }
+            indx[j] = p;
+
+            // Compute multipliers and update the remainder of the columns
+            double lujj = dataLU[j*n + j];
+            int indexJ = j*n;
+            for (int i = j + 1; i < m; i++) {
+                int indexI = i*n;
+                if (lujj != 0)
+                    dataLU[indexI + j] /= lujj;
+                double lij = dataLU[indexI + j];
+                for (int k = j + 1; k < j1; k++) {
+                    dataLU[indexI + k] -= lij*dataLU[indexJ + k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Recursively computes B = L<sup>-1</sup>*B in place, where L is the unit lower triangular matrix in
+     * rows and columns r0 to r1, and B is in rows r0 to r1 and columns c0 to c1.
+     */
+    protected void solveLower( final int r0, final int r1, final int c0, final int c1 ) {
+        if (r1 - r0 <= baseWidth) {
+            for (int i = r0 + 1; i < r1; i++) {
+                final int rowI = i*n;
+                for (int k = r0; k < i; k++) {
+                    final double lik = dataLU[rowI + k];
+                    if (lik == 0)
+                        continue;
+                    int indexI = rowI + c0;
+                    int indexK = k*n + c0;
+                    final int end = rowI + c1;
+                    while (indexI < end) {
+                        dataLU[indexI++] -= lik*dataLU[indexK++];
+                    }
+                }
+            }
+            return;
+        }
+
+        final int h = r0 + (r1 - r0)/2;
+
+        solveLower(r0, h, c0, c1);
+        // B2 = B2 - L21*X1
+        multMinus(
+                new DMatrixStrided(dataLU, h*n + r0, n, r1 - h, h - r0),
+                new DMatrixStrided(dataLU, r0*n + c0, n, h - r0, c1 - c0),
+                new DMatrixStrided(dataLU, h*n + c0, n, r1 - h, c1 - c0));
+        solveLower(h, r1, c0, c1);
+    }
+
+    /**
+     * C = C - A*B
+     */
+    protected void multMinus( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C ) {
+        if (MatrixMultPacked_DDRM.isPreferred(C.numRows, A.numCols, C.numCols)) {
+            MatrixMultPacked_DDRM.mult(-1.0, A, false, B, false, C, true, workA, workB);
+        } else {
+            MatrixMultStrided_DDRM.mult(-1.0, A, false, B, false, C, true);
+        }
+    }
+
+    public int getBaseWidth() {
+        return baseWidth;
+    }
+}
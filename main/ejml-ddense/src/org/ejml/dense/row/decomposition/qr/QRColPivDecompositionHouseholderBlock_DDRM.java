@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.decomposition.qr;
+
+import org.ejml.EjmlParameters;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.simd.EjmlSimd;
+
+/**
+ * <p>
+ * Blocked QR decomposition with column pivoting (QP3). Columns are selected and their Householder reflectors
+ * computed one at a time, like in {@link QRColPivDecompositionHouseholderColumn_DDRM}, but the trailing columns
+ * are only updated once per panel. Inside the panel the update is kept implicitly as:
+ * </p>
+ * <pre>
+ * A<sub>trailing</sub> = A - V*F<sup>T</sup>
+ * </pre>
+ * <p>
+ * where V contains the panel's Householder vectors and F is built up one column at a time. Only the pivot column
+ * and the pivot row are updated immediately. Column norms are downdated as the rows of R are computed. If
+ * too much precision is lost in a norm the panel ends early and the norm is recomputed after the update.
+ * </p>
+ *
+ * <p>
+ * The output is stored in the same format as {@link QRColPivDecompositionHouseholderColumn_DDRM} and can be
+ * used with the same solvers.
+ * </p>
+ *
+ * <p>
+ * Quintana-Orti, G., Sun, X., and Bischof, C. H. "A BLAS-3 version of the QR factorization with column
+ * pivoting" SIAM Journal on Scientific Computing 1998
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class QRColPivDecompositionHouseholderBlock_DDRM extends QRColPivDecompositionHouseholderColumn_DDRM {
+    // If the norm squared drops below this fraction of the last exact value it's recomputed
+    private static final double NORM_TOL = Math.sqrt(UtilEjml.EPS);
+    // number of rows in V which are processed at once when the trailing columns are updated
+    private static final int UPDATE_ROWS = 512;
+
+    // number of columns in each panel
+    protected final int blockWidth;
+
+    // [ column ][ reflector ] trailing columns are A - V*F^T
+    protected double[][] F = new double[0][0];
+    // F-norm squared for each column the last time it was computed from scratch
+    protected double[] normsExact = new double[0];
+    // V^T*v for the current reflector
+    protected double[] w = new double[0];
+
+    // columns which need their norm recomputed after the trailing update
+    protected int[] recompute = new int[0];
+    protected int numRecompute;
+
+    // a column was found to be degenerate and the decomposition stopped
+    protected boolean degenerate;
+
+    /**
+     * @param blockWidth Number of columns in each panel.
+     * @param singularThreshold The singular threshold.
+     */
+    public QRColPivDecompositionHouseholderBlock_DDRM( int blockWidth, double singularThreshold ) {
+        super(singularThreshold);
+        if (blockWidth <= 0)
+            throw new IllegalArgumentException("blockWidth must be positive");
+        this.blockWidth = blockWidth;
+    }
+
+    public QRColPivDecompositionHouseholderBlock_DDRM( int blockWidth ) {
+        this(blockWidth, UtilEjml.EPS);
+    }
+
+    public QRColPivDecompositionHouseholderBlock_DDRM() {
+        this(EjmlParameters.BLOCK_WIDTH_QRP);
+    }
+
+    @Override
+    public void setExpectedMaxSize( int numRows, int numCols ) {
+        super.setExpectedMaxSize(numRows, numCols);
+
+        if (F.length < numCols) {
+            F = new double[numCols][blockWidth];
+            normsExact = new double[numCols];
+            recompute = new int[numCols];
+        }
+        if (w.length < blockWidth)
+            w = new double[blockWidth];
+    }
+
+    @Override
+    public boolean decompose( DMatrixRMaj A ) {
+        setExpectedMaxSize(A.numRows, A.numCols);
+
+        maxValueAbs = CommonOps_DDRM.elementMaxAbs(A);
+        convertToColumnMajor(A);
+
+        // initialize pivot variables
+        setupPivotInfo();
+        System.arraycopy(normsCol, 0, normsExact, 0, numCols);
+
+        rank = 0;
+        degenerate = false;
+        int j0 = 0;
+        while (j0 < minLength && !degenerate) {
+            numRecompute = 0;
+            int done = decomposePanel(j0, Math.min(blockWidth, minLength - j0));
+
+            // apply the panel's reflectors to the trailing columns
+            if (done > 0 && j0 + done < numRows)
+                updateTrailing(j0, done);
+
+            j0 += done;
+            recomputeNorms(j0);
+        }
+
+        return true;
+    }
+
+    /**
+     * Decomposes up to 'width' columns starting at j0. Only the pivot column and row are updated.
+     *
+     * @return Number of columns which were decomposed
+     */
+    protected int decomposePanel( final int j0, final int width ) {
+        for (int kk = 0; kk < width; kk++) {
+            final int k = j0 + kk;
+            swapColumns(k);
+
+            // bring the pivot column up to date
+            final double[] colK = dataQR[k];
+            final double[] Fk = F[k];
+            for (int t = 0; t < kk; t++) {
+                EjmlSimd.KERNELS_F64.axpy(-Fk[t], dataQR[j0 + t], k, colK, k, numRows - k);
+            }
+
+            // if its degenerate stop processing
+            if (!householderPivot(k)) {
+                degenerate = true;
+                return kk;
+            }
+            rank = k + 1;
+
+            computeF(j0, kk);
+            updatePivotRow(j0, kk);
+
+            // downdate the norms, which now only include the rows below k
+            boolean stop = false;
+            for (int j = k + 1; j < numCols; j++) {
+                if (normsCol[j] == 0.0)
+                    continue;
+                double e = dataQR[j][k];
+                double v = normsCol[j] - e*e;
+                if (v <= NORM_TOL*normsExact[j]) {
+                    recompute[numRecompute++] = j;
+                    stop = true;
+                    v = Math.max(0.0, v);
+                }
+                normsCol[j] = v;
+            }
+
+            // Norms can't be recomputed until the trailing columns are updated. Without them the next pivot
+            // could be the wrong one
+            if (stop)
+                return kk + 1;
+        }
+        return width;
+    }
+
+    /**
+     * Computes column 'kk' in F for every column to the right of the pivot.
+     * <pre>F(:,kk) = &gamma;*A<sup>T</sup>*v - &gamma;*F(:,0:kk-1)*V<sup>T</sup>*v</pre>
+     */
+    protected void computeF( final int j0, final int kk ) {
+        computeW(j0, kk);
+        computeF(j0, kk, j0 + kk + 1, numCols);
+    }
+
+    /**
+     * w = V<sup>T</sup>*v, where v is the reflector for column j0+kk
+     */
+    protected void computeW( final int j0, final int kk ) {
+        final int k = j0 + kk;
+        final double[] v = dataQR[k];
+        for (int t = 0; t < kk; t++) {
+            double[] Vt = dataQR[j0 + t];
+            w[t] = Vt[k] + EjmlSimd.KERNELS_F64.dot(Vt, k + 1, v, k + 1, numRows - k - 1);
+        }
+        F[k][kk] = 0.0;
+    }
+
+    /**
+     * Computes F(j,kk) for columns col0 to col1. The columns in A haven't been updated yet in rows k and below.
+     */
+    protected void computeF( final int j0, final int kk, final int col0, final int col1 ) {
+        final int k = j0 + kk;
+        final double[] v = dataQR[k];
+
+        int j = col0;
+        // four columns at a time so that v is only read once and the sums are independent
+        for (; j + 3 < col1; j += 4) {
+            final double[] c0 = dataQR[j], c1 = dataQR[j + 1], c2 = dataQR[j + 2], c3 = dataQR[j + 3];
+            double s0 = c0[k], s1 = c1[k], s2 = c2[k], s3 = c3[k];
+            for (int i = k + 1; i < numRows; i++) {
+                final double vi = v[i];
+                s0 += c0[i]*vi;
+                s1 += c1[i]*vi;
+                s2 += c2[i]*vi;
+                s3 += c3[i]*vi;
+            }
+            setF(j, k, kk, s0);
+            setF(j + 1, k, kk, s1);
+            setF(j + 2, k, kk, s2);
+            setF(j + 3, k, kk, s3);
+        }
+        for (; j < col1; j++) {
+            final double[] colJ = dataQR[j];
+            setF(j, k, kk, colJ[k] + EjmlSimd.KERNELS_F64.dot(colJ, k + 1, v, k + 1, numRows - k - 1));
+        }
+    }
+
+    /**
+     * F(j,kk) = &gamma;*(a<sup>T</sup>*v - F(j,0:kk-1)*w)
+     */
+    private void setF( final int j, final int k, final int kk, double dotAV ) {
+        final double[] Fj = F[j];
+        for (int t = 0; t < kk; t++) {
+            dotAV -= Fj[t]*w[t];
+        }
+        Fj[kk] = gammas[k]*dotAV;
+    }
+
+    /**
+     * Updates row k in the trailing columns, which makes it a row in R
+     * <pre>A(k,k+1:n) -= V(k,:)*F(k+1:n,:)<sup>T</sup></pre>
+     */
+    protected void updatePivotRow( final int j0, final int kk ) {
+        final int k = j0 + kk;
+        for (int j = k + 1; j < numCols; j++) {
+            final double[] Fj = F[j];
+            // the reflector for column k is one at row k
+            double sum = Fj[kk];
+            for (int t = 0; t < kk; t++) {
+                sum += dataQR[j0 + t][k]*Fj[t];
+            }
+            dataQR[j][k] -= sum;
+        }
+    }
+
+    /**
+     * Updates the trailing columns below the panel using the panel's reflectors.
+     * <pre>A(k:m,k:n) -= V(k:m,:)*F(k:n,:)<sup>T</sup></pre>
+     */
+    protected void updateTrailing( final int j0, final int width ) {
+        updateColumns(j0, width, j0 + width, numCols);
+    }
+
+    /**
+     * Updates columns col0 to col1. Rows are processed in chunks so that the same part of V stays in
+     * the cache while every column is updated.
+     */
+    protected void updateColumns( final int j0, final int width, final int col0, final int col1 ) {
+        final int k = j0 + width;
+        for (int row0 = k; row0 < numRows; row0 += UPDATE_ROWS) {
+            final int row1 = Math.min(numRows, row0 + UPDATE_ROWS);
+            for (int j = col0; j < col1; j++) {
+                final double[] colJ = dataQR[j];
+                final double[] Fj = F[j];
+
+                // apply four reflectors at a time to reduce the number of passes through the column
+                int t = 0;
+                for (; t + 3 < width; t += 4) {
+                    final double f0 = Fj[t], f1 = Fj[t + 1], f2 = Fj[t + 2], f3 = Fj[t + 3];
+                    final double[] V0 = dataQR[j0 + t], V1 = dataQR[j0 + t + 1];
+                    final double[] V2 = dataQR[j0 + t + 2], V3 = dataQR[j0 + t + 3];
+                    for (int i = row0; i < row1; i++) {
+                        colJ[i] -= f0*V0[i] + f1*V1[i] + f2*V2[i] + f3*V3[i];
+                    }
+                }
+                for (; t < width; t++) {
+                    EjmlSimd.KERNELS_F64.axpy(-Fj[t], dataQR[j0 + t], row0, colJ, row0, row1 - row0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes the norm of columns which lost too much precision
+     *
+     * @param row0 First row which is still part of the norm
+     */
+    protected void recomputeNorms( final int row0 ) {
+        for (int i = 0; i < numRecompute; i++) {
+            int j = recompute[i];
+            double[] u = dataQR[j];
+            double actual = 0;
+            for (int row = row0; row < numRows; row++) {
+                double v = u[row];
+                actual += v*v;
+            }
+            normsCol[j] = normsExact[j] = actual;
+        }
+        numRecompute = 0;
+    }
+
+    /**
+     * Finds the column with the largest norm and makes that the first column
+     *
+     * @param j Current column being inspected
+     */
+    @Override
+    protected void swapColumns( int j ) {
+        int largestIndex = j;
+        double largestNorm = normsCol[j];
+        for (int col = j + 1; col < numCols; col++) {
+            double n = normsCol[col];
+            if (n > largestNorm) {
+                largestNorm = n;
+                largestIndex = col;
+            }
+        }
+        if (largestIndex == j)
+            return;
+
+        double[] tempC = dataQR[j];
+        dataQR[j] = dataQR[largestIndex];
+        dataQR[largestIndex] = tempC;
+        double[] tempF = F[j];
+        F[j] = F[largestIndex];
+        F[largestIndex] = tempF;
+        double tempN = normsCol[j];
+        normsCol[j] = normsCol[largestIndex];
+        normsCol[largestIndex] = tempN;
+        tempN = normsExact[j];
+        normsExact[j] = normsExact[largestIndex];
+        normsExact[largestIndex] = tempN;
+        int tempP = pivots[j];
+        pivots[j] = pivots[largestIndex];
+        pivots[largestIndex] = tempP;
+    }
+
+    public int getBlockWidth() {
+        return blockWidth;
+    }
+}
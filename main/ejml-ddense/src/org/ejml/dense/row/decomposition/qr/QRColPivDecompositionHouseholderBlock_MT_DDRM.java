@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.decomposition.qr;
+
+import org.ejml.EjmlParameters;
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+
+/**
+ * <p>
+ * Concurrent extension of {@link QRColPivDecompositionHouseholderBlock_DDRM}. Computing F and updating the
+ * trailing columns is split up by columns between the threads.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class QRColPivDecompositionHouseholderBlock_MT_DDRM extends QRColPivDecompositionHouseholderBlock_DDRM {
+    public QRColPivDecompositionHouseholderBlock_MT_DDRM( int blockWidth, double singularThreshold ) {
+        super(blockWidth, singularThreshold);
+    }
+
+    public QRColPivDecompositionHouseholderBlock_MT_DDRM( int blockWidth ) {
+        this(blockWidth, UtilEjml.EPS);
+    }
+
+    public QRColPivDecompositionHouseholderBlock_MT_DDRM() {
+        this(EjmlParameters.BLOCK_WIDTH_QRP);
+    }
+
+    @Override
+    protected void computeF( final int j0, final int kk ) {
+        computeW(j0, kk);
+        EjmlConcurrency.loopBlocks(j0 + kk + 1, numCols, ( col0, col1 ) -> computeF(j0, kk, col0, col1));
+    }
+
+    @Override
+    protected void updateTrailing( final int j0, final int width ) {
+        EjmlConcurrency.loopBlocks(j0 + width, numCols, ( col0, col1 ) -> updateColumns(j0, width, col0, col1));
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.qr;
+
+import org.ejml.EjmlParameters;
+import org.ejml.MatrixDimensionException;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.row.decomposition.UtilDecompositons_DDRM;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.simd.EjmlSimd;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Tall-skinny QR (TSQR) decomposition. The rows are split into blocks which are decomposed independently. The
+ * R matrices from each block are then merged in a binary tree, where each node stacks the R of its two children
+ * and decomposes the result:
+ * </p>
+ * <pre>
+ * [ A<sub>0</sub> ]   [ Q<sub>0</sub>          ] [ R<sub>0</sub> ]
+ * [ A<sub>1</sub> ] = [     Q<sub>1</sub>      ] [ R<sub>1</sub> ]   and   [ R<sub>0</sub> ; R<sub>1</sub> ] = Q<sub>01</sub>*R<sub>01</sub>
+ * [ ... ]   [          ... ] [ ... ]
+ * </pre>
+ * <p>
+ * The tall matrix is only read once, in cache sized blocks, instead of once for each column like in
+ * {@link QRDecompositionHouseholderColumn_DDRM}. Since the blocks and all the nodes in the same level of
+ * the tree are independent of each other this is also well suited for concurrency.
+ * See {@link QRDecompositionTSQR_MT_DDRM}.
+ * </p>
+ *
+ * <p>
+ * Q is stored implicitly as the Householder reflectors of each node. It can be applied to a matrix without
+ * forming it with {@link #applyQ} and {@link #applyQTran}.
+ * </p>
+ *
+ * <p>
+ * Demmel, J., Grigori, L., Hoemmen, M., and Langou, J. "Communication-optimal parallel and sequential QR and
+ * LU factorizations" SIAM Journal on Scientific Computing 2012
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class QRDecompositionTSQR_DDRM implements QRDecomposition<DMatrixRMaj> {
+    // minimum number of rows in each block
+    protected final int blockHeight;
+
+    // dimension of the decomposed matrix
+    protected int numRows;
+    protected int numCols;
+    protected int minLength;
+
+    // Leaves of the tree. Each one is a block of rows in the input matrix
+    protected final List<Node> leaves = new ArrayList<>();
+    protected int numLeaves;
+    // Nodes inside the tree. Each one merges the R from two nodes in the level below it
+    protected final List<Node> merges = new ArrayList<>();
+    // Merges in level 'i' are from levelStart[i] to levelStart[i+1]
+    protected final IGrowArray levelStart = new IGrowArray();
+    protected int numLevels;
+
+    // top of each sub-tree while the tree is being constructed
+    private final List<Node> tops = new ArrayList<>();
+
+    // R from the root of the tree
+    protected final DMatrixRMaj R = new DMatrixRMaj(1, 1);
+
+    /**
+     * @param blockHeight Minimum number of rows in each block.
+     */
+    public QRDecompositionTSQR_DDRM( int blockHeight ) {
+        if (blockHeight <= 0)
+            throw new IllegalArgumentException("blockHeight must be positive");
+        this.blockHeight = blockHeight;
+    }
+
+    public QRDecompositionTSQR_DDRM() {
+        this(EjmlParameters.BLOCK_HEIGHT_TSQR);
+    }
+
+    /**
+     * Returns true if TSQR is recommended for a matrix of this shape.
+     */
+    public static boolean isPreferred( int numRows, int numCols ) {
+        return numRows >= EjmlParameters.SWITCH_TSQR && numRows >= 16*numCols;
+    }
+
+    /**
+     * Decomposes the matrix. Fails if a column is linearly dependent on the columns before it.
+     *
+     * @param A The matrix that is to be decomposed. Not modified.
+     */
+    @Override
+    public boolean decompose( DMatrixRMaj A ) {
+        numRows = A.numRows;
+        numCols = A.numCols;
+        minLength = Math.min(numRows, numCols);
+
+        // Split the rows into blocks. Every block has at least as many rows as columns
+        int height = selectBlockHeight(numRows, numCols);
+        numLeaves = Math.max(1, numRows/height);
+        while (leaves.size() < numLeaves) {
+            leaves.add(new Node());
+        }
+        for (int i = 0; i < numLeaves; i++) {
+            Node leaf = leaves.get(i);
+            leaf.row0 = i*height;
+            leaf.numRows = i + 1 == numLeaves ? numRows - leaf.row0 : height;
+        }
+
+        decomposeLeaves(A);
+
+        // Merge the nodes one level at a time until only the root is left
+        tops.clear();
+        for (int i = 0; i < numLeaves; i++) {
+            tops.add(leaves.get(i));
+        }
+
+        // there can't be more levels than leaves
+        levelStart.reshape(numLeaves + 1);
+        levelStart.data[0] = 0;
+        numLevels = 0;
+        int totalMerges = 0;
+        while (tops.size() > 1) {
+            int count = tops.size();
+            int half = count/2;
+            while (merges.size() < totalMerges + half) {
+                merges.add(new Node());
+            }
+            for (int i = 0; i < half; i++) {
+                Node node = merges.get(totalMerges + i);
+                node.childA = tops.get(2*i);
+                node.childB = tops.get(2*i + 1);
+                node.row0 = node.childA.row0;
+                node.numRows = 2*numCols;
+            }
+
+            decomposeLevel(totalMerges, totalMerges + half);
+
+            Node odd = count%2 == 1 ? tops.get(count - 1) : null;
+            tops.clear();
+            for (int i = 0; i < half; i++) {
+                tops.add(merges.get(totalMerges + i));
+            }
+            if (odd != null)
+                tops.add(odd);
+
+            totalMerges += half;
+            numLevels++;
+            levelStart.data[numLevels] = totalMerges;
+        }
+
+        R.setTo(tops.get(0).R);
+        tops.clear();
+
+        // Same as the other decompositions, fail if a column had nothing left to reflect
+        for (int i = 0; i < minLength; i++) {
+            if (R.unsafe_get(i, i) == 0.0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Selects the number of rows in each block
+     */
+    protected int selectBlockHeight( int numRows, int numCols ) {
+        return Math.max(blockHeight, 2*numCols);
+    }
+
+    /**
+     * Decomposes every block of rows
+     */
+    protected void decomposeLeaves( DMatrixRMaj A ) {
+        for (int i = 0; i < numLeaves; i++) {
+            leaves.get(i).decomposeLeaf(A);
+        }
+    }
+
+    /**
+     * Decomposes the merge nodes from index0 to index1, which are all in the same level
+     */
+    protected void decomposeLevel( int index0, int index1 ) {
+        for (int i = index0; i < index1; i++) {
+            merges.get(i).decomposeMerge(numCols);
+        }
+    }
+
+    /**
+     * Computes X = Q*X in place.
+     *
+     * @param X Matrix with the same number of rows as the decomposed matrix. Modified.
+     */
+    public void applyQ( DMatrixRMaj X ) {
+        if (X.numRows != numRows)
+            throw new MatrixDimensionException("X must have the same number of rows as the decomposed matrix");
+
+        for (int level = numLevels - 1; level >= 0; level--) {
+            applyLevel(levelStart.data[level], levelStart.data[level + 1], X, false);
+        }
+        applyLeaves(X, false);
+    }
+
+    /**
+     * Computes X = Q<sup>T</sup>*X in place. After this, the first min(rows,cols) rows of X are the ones
+     * which correspond to R.
+     *
+     * @param X Matrix with the same number of rows as the decomposed matrix. Modified.
+     */
+    public void applyQTran( DMatrixRMaj X ) {
+        if (X.numRows != numRows)
+            throw new MatrixDimensionException("X must have the same number of rows as the decomposed matrix");
+
+        applyLeaves(X, true);
+        for (int level = 0; level < numLevels; level++) {
+            applyLevel(levelStart.data[level], levelStart.data[level + 1], X, true);
+        }
+    }
+
+    /**
+     * Applies Q or Q<sup>T</sup> from every block of rows
+     */
+    protected void applyLeaves( DMatrixRMaj X, boolean transposed ) {
+        for (int i = 0; i < numLeaves; i++) {
+            leaves.get(i).applyLeaf(X, transposed);
+        }
+    }
+
+    /**
+     * Applies Q or Q<sup>T</sup> from the merge nodes index0 to index1
+     */
+    protected void applyLevel( int index0, int index1, DMatrixRMaj X, boolean transposed ) {
+        for (int i = index0; i < index1; i++) {
+            merges.get(i).applyMerge(X, transposed, numCols);
+        }
+    }
+
+    @Override
+    public DMatrixRMaj getQ( @Nullable DMatrixRMaj Q, boolean compact ) {
+        if (compact) {
+            Q = UtilDecompositons_DDRM.ensureIdentity(Q, numRows, minLength);
+        } else {
+            Q = UtilDecompositons_DDRM.ensureIdentity(Q, numRows, numRows);
+        }
+
+        applyQ(Q);
+
+        return Q;
+    }
+
+    @Override
+    public DMatrixRMaj getR( @Nullable DMatrixRMaj R, boolean compact ) {
+        if (compact) {
+            R = UtilDecompositons_DDRM.checkZerosLT(R, minLength, numCols);
+        } else {
+            R = UtilDecompositons_DDRM.checkZerosLT(R, numRows, numCols);
+        }
+
+        for (int i = 0; i < minLength; i++) {
+            for (int j = i; j < numCols; j++) {
+                R.unsafe_set(i, j, this.R.unsafe_get(i, j));
+            }
+        }
+
+        return R;
+    }
+
+    public int getNumLeaves() {
+        return numLeaves;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    /**
+     * Node in the reduction tree. Has its own work space so that nodes can be processed concurrently.
+     */
+    @SuppressWarnings("NullAway.Init")
+    protected static class Node {
+        // Householder reflectors for this node
+        final RowBlockQR qr = new RowBlockQR();
+        // upper triangular R computed at this node
+        final DMatrixRMaj R = new DMatrixRMaj(1, 1);
+        // first row in the input matrix that this node's R is associated with
+        int row0;
+        // number of rows in the matrix this node decomposed
+        int numRows;
+        // The two nodes which are merged. Not used by leaves.
+        Node childA, childB;
+
+        // work space
+        final DMatrixRMaj work = new DMatrixRMaj(1, 1);
+        final DGrowArray tmp = new DGrowArray();
+
+        void decomposeLeaf( DMatrixRMaj A ) {
+            qr.decompose(A, row0, row0 + numRows);
+            qr.getR(R, true);
+        }
+
+        void decomposeMerge( int numCols ) {
+            work.reshape(2*numCols, numCols);
+            System.arraycopy(childA.R.data, 0, work.data, 0, numCols*numCols);
+            System.arraycopy(childB.R.data, 0, work.data, numCols*numCols, numCols*numCols);
+            qr.decompose(work, 0, work.numRows);
+            qr.getR(R, true);
+        }
+
+        void applyLeaf( DMatrixRMaj X, boolean transposed ) {
+            qr.apply(X, row0, transposed, tmp);
+        }
+
+        void applyMerge( DMatrixRMaj X, boolean transposed, int numCols ) {
+            // copy the rows associated with the two R matrices into a single matrix
+            final int k = X.numCols;
+            work.reshape(2*numCols, k);
+            System.arraycopy(X.data, childA.row0*k, work.data, 0, numCols*k);
+            System.arraycopy(X.data, childB.row0*k, work.data, numCols*k, numCols*k);
+
+            qr.apply(work, 0, transposed, tmp);
+
+            System.arraycopy(work.data, 0, X.data, childA.row0*k, numCols*k);
+            System.arraycopy(work.data, numCols*k, X.data, childB.row0*k, numCols*k);
+        }
+    }
+
+    /**
+     * Decomposes a block of rows inside a matrix and applies the reflectors to row-major matrices.
+     */
+    protected static class RowBlockQR extends QRDecompositionHouseholderColumn_DDRM {
+        /**
+         * Decomposes rows row0 to row1 in A.
+         */
+        public boolean decompose( DMatrixRMaj A, int row0, int row1 ) {
+            setExpectedMaxSize(row1 - row0, A.numCols);
+
+            for (int x = 0; x < numCols; x++) {
+                double[] colQ = dataQR[x];
+                int indexA = row0*A.numCols + x;
+                for (int y = 0; y < numRows; y++, indexA += A.numCols) {
+                    colQ[y] = A.data[indexA];
+                }
+            }
+
+            error = false;
+            for (int j = 0; j < minLength; j++) {
+                householder(j);
+                updateA(j);
+            }
+
+            return !error;
+        }
+
+        /**
+         * Computes X = Q*X or X = Q<sup>T</sup>*X in place for the rows in X which start at row0
+         */
+        public void apply( DMatrixRMaj X, int row0, boolean transposed, DGrowArray tmp ) {
+            double[] v = tmp.reshape(X.numCols).data;
+            if (transposed) {
+                for (int j = 0; j < minLength; j++) {
+                    applyReflector(j, X, row0, v);
+                }
+            } else {
+                for (int j = minLength - 1; j >= 0; j--) {
+                    applyReflector(j, X, row0, v);
+                }
+            }
+        }
+
+        /**
+         * X = (I - &gamma;*u*u<sup>T</sup>)*X, where u[j] = 1. All operations are along the rows of X.
+         */
+        private void applyReflector( int j, DMatrixRMaj X, int row0, double[] v ) {
+            final double gamma = gammas[j];
+            if (gamma == 0.0)
+                return;
+
+            final double[] u = dataQR[j];
+            final double[] data = X.data;
+            final int k = X.numCols;
+            final int indexJ = (row0 + j)*k;
+
+            // v = u^T*X
+            System.arraycopy(data, indexJ, v, 0, k);
+            for (int i = j + 1; i < numRows; i++) {
+                if (u[i] != 0.0)
+                    EjmlSimd.KERNELS_F64.axpy(u[i], data, (row0 + i)*k, v, 0, k);
+            }
+
+            // X = X - gamma*u*v
+            EjmlSimd.KERNELS_F64.axpy(-gamma, v, 0, data, indexJ, k);
+            for (int i = j + 1; i < numRows; i++) {
+                if (u[i] != 0.0)
+                    EjmlSimd.KERNELS_F64.axpy(-gamma*u[i], v, 0, data, (row0 + i)*k, k);
+            }
+        }
+    }
+}
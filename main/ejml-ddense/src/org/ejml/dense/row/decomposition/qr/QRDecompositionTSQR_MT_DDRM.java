@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.qr;
+
+import org.ejml.EjmlParameters;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Concurrent extension of {@link QRDecompositionTSQR_DDRM}. Blocks of rows and the nodes in each level of the
+ * tree are processed in parallel.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class QRDecompositionTSQR_MT_DDRM extends QRDecompositionTSQR_DDRM {
+    public QRDecompositionTSQR_MT_DDRM( int blockHeight ) {
+        super(blockHeight);
+    }
+
+    public QRDecompositionTSQR_MT_DDRM() {
+        this(EjmlParameters.BLOCK_HEIGHT_TSQR);
+    }
+
+    /**
+     * Makes the blocks smaller if there would be fewer blocks than threads
+     */
+    @Override
+    protected int selectBlockHeight( int numRows, int numCols ) {
+        int height = Math.min(blockHeight, numRows/EjmlConcurrency.getMaxThreads());
+        return Math.max(height, 2*numCols);
+    }
+
+    @Override
+    protected void decomposeLeaves( DMatrixRMaj A ) {
+        EjmlConcurrency.loopFor(0, numLeaves, i -> leaves.get(i).decomposeLeaf(A));
+    }
+
+    @Override
+    protected void decomposeLevel( int index0, int index1 ) {
+        EjmlConcurrency.loopFor(index0, index1, i -> merges.get(i).decomposeMerge(numCols));
+    }
+
+    @Override
+    protected void applyLeaves( DMatrixRMaj X, boolean transposed ) {
+        EjmlConcurrency.loopFor(0, numLeaves, i -> leaves.get(i).applyLeaf(X, transposed));
+    }
+
+    @Override
+    protected void applyLevel( int index0, int index1, DMatrixRMaj X, boolean transposed ) {
+        EjmlConcurrency.loopFor(index0, index1, i -> merges.get(i).applyMerge(X, transposed, numCols));
+    }
+}
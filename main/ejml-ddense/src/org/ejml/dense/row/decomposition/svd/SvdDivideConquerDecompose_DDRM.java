@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.svd.divideconquer.SvdDivideConquerAlgorithm_DDRM;
+
+/**
+ * <p>
+ * Computes the singular value decomposition of a matrix by first reducing it to bidiagonal form, A=U*B*V<sup>T</sup>,
+ * then decomposing B with the divide and conquer algorithm. The singular vectors of B are transformed back into
+ * singular vectors of the original matrix with a matrix multiplication. When U or V are needed for a large matrix
+ * this is much faster than {@link SvdImplicitQrDecompose_DDRM}, which has to apply every rotation to U and V.
+ * </p>
+ *
+ * <p>
+ * If neither U or V are requested then the singular values are found using the implicit QR algorithm, since that
+ * is faster. Singular values found by divide and conquer are sorted from smallest to largest.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see SvdDivideConquerAlgorithm_DDRM
+ */
+@SuppressWarnings("NullAway.Init")
+public class SvdDivideConquerDecompose_DDRM extends SvdImplicitQrDecompose_DDRM {
+
+    // computes the SVD of the bidiagonal matrix
+    protected final SvdDivideConquerAlgorithm_DDRM divide;
+
+    // storage for the transformed singular vectors
+    private final DMatrixRMaj tmp = new DMatrixRMaj(1, 1);
+
+    /**
+     * Configures the class
+     *
+     * @param compact Compute a compact SVD
+     * @param computeU If true it will compute the U matrix
+     * @param computeV If true it will compute the V matrix
+     * @param divide Algorithm used to decompose the bidiagonal matrix
+     */
+    public SvdDivideConquerDecompose_DDRM( boolean compact, boolean computeU, boolean computeV,
+                                           SvdDivideConquerAlgorithm_DDRM divide ) {
+        super(compact, computeU, computeV, false);
+        this.divide = divide;
+    }
+
+    public SvdDivideConquerDecompose_DDRM( boolean compact, boolean computeU, boolean computeV ) {
+        this(compact, computeU, computeV, new SvdDivideConquerAlgorithm_DDRM());
+    }
+
+    @Override
+    protected boolean computeUWV() {
+        if (!computeU && !computeV)
+            return super.computeUWV();
+
+        bidiag.getDiagonal(diag, off);
+        if (!divide.process(numColsT, diag, off))
+            return true;
+
+        // U = U_a*U_b and V = V_a*V_b, where the subscript b refers to the SVD of the bidiagonal matrix
+        final int N = numColsT;
+        if (computeU) {
+            Ut = bidiag.getU(Ut, true, compact);
+            // Only the first N rows in U' are modified. In a compact SVD there are only N rows
+            DMatrixRMaj UtTop = DMatrixRMaj.wrap(N, Ut.numCols, Ut.data);
+            tmp.reshape(N, Ut.numCols);
+            multTransA(divide.getU(), UtTop, tmp);
+            System.arraycopy(tmp.data, 0, Ut.data, 0, tmp.getNumElements());
+        }
+        if (computeV) {
+            Vt = bidiag.getV(Vt, true, compact);
+            tmp.reshape(N, Vt.numCols);
+            multTransA(divide.getV(), Vt, tmp);
+            Vt.setTo(tmp);
+        }
+
+        return false;
+    }
+
+    /**
+     * output = A'*B
+     */
+    protected void multTransA( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj output ) {
+        CommonOps_DDRM.multTransA(A, B, output);
+    }
+
+    @Override
+    protected void makeSingularPositive() {
+        if (!computeU && !computeV) {
+            super.makeSingularPositive();
+            return;
+        }
+
+        // the divide and conquer algorithm always returns positive singular values
+        numSingular = divide.getNumberOfSingularValues();
+        if (singularValues == null || singularValues.length < numSingular)
+            singularValues = new double[numSingular];
+        System.arraycopy(divide.getSingularValues(), 0, singularValues, 0, numSingular);
+    }
+
+    public SvdDivideConquerAlgorithm_DDRM getDivide() {
+        return divide;
+    }
+}
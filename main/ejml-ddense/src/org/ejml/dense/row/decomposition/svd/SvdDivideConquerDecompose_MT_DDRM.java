@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.decomposition.bidiagonal.BidiagonalDecompositionHouseholder_MT_DDRB;
+import org.ejml.dense.row.CommonOps_MT_DDRM;
+import org.ejml.dense.row.decomposition.bidiagonal.BidiagonalDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.bidiagonal.BidiagonalDecompositionRow_MT_DDRM;
+import org.ejml.dense.row.decomposition.svd.divideconquer.SvdDivideConquerAlgorithm_MT_DDRM;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>Concurrent version of {@link SvdDivideConquerDecompose_DDRM}</p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class SvdDivideConquerDecompose_MT_DDRM extends SvdDivideConquerDecompose_DDRM {
+
+    public SvdDivideConquerDecompose_MT_DDRM( boolean compact, boolean computeU, boolean computeV ) {
+        super(compact, computeU, computeV, new SvdDivideConquerAlgorithm_MT_DDRM());
+    }
+
+    @Override
+    protected void transpose( @NotNull DMatrixRMaj V, DMatrixRMaj Vt ) {
+        CommonOps_MT_DDRM.transpose(Vt, V);
+    }
+
+    @Override
+    protected void declareBidiagonalDecomposition() {
+        if (numColsT >= EjmlParameters.SWITCH_BLOCK_BIDIAGONAL) {
+            if (!(bidiag instanceof BidiagonalDecomposition_DDRB_to_DDRM)) {
+                bidiag = new BidiagonalDecomposition_DDRB_to_DDRM(
+                        new BidiagonalDecompositionHouseholder_MT_DDRB(), EjmlParameters.BLOCK_WIDTH);
+            }
+        } else if (bidiag == null || !(bidiag instanceof BidiagonalDecompositionRow_MT_DDRM)) {
+            bidiag = new BidiagonalDecompositionRow_MT_DDRM();
+        }
+    }
+
+    @Override
+    protected void multTransA( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj output ) {
+        CommonOps_MT_DDRM.multTransA(A, B, output);
+    }
+}
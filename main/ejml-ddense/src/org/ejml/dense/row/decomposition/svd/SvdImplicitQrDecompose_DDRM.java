@@ -66,11 +66,11 @@ public class SvdImplicitQrDecompose_DDRM implements SingularValueDecomposition_F
     double[] diag;
     double[] off;
 
-    private DMatrixRMaj Ut;
-    private DMatrixRMaj Vt;
+    protected DMatrixRMaj Ut;
+    protected DMatrixRMaj Vt;
 
-    private double[] singularValues;
-    private int numSingular;
+    protected double[] singularValues;
+    protected int numSingular;
 
     // compute a compact SVD
     protected boolean compact;
@@ -226,8 +226,10 @@ public class SvdImplicitQrDecompose_DDRM implements SingularValueDecomposition_F
 
     /**
      * Compute singular values and U and V at the same time
+     *
+     * @return true if it failed
      */
-    private boolean computeUWV() {
+    protected boolean computeUWV() {
         bidiag.getDiagonal(diag, off);
         qralg.setMatrix(numRowsT, numColsT, diag, off);
 
@@ -305,7 +307,7 @@ public class SvdImplicitQrDecompose_DDRM implements SingularValueDecomposition_F
      * With the QR algorithm it is possible for the found singular values to be negative.  This
      * makes them all positive by multiplying it by a diagonal matrix that has
      */
-    private void makeSingularPositive() {
+    protected void makeSingularPositive() {
         numSingular = qralg.getNumberOfSingularValues();
         singularValues = qralg.getSingularValues();
 
@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.Matrix;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Computes a truncated SVD with only the largest 'k' singular values and their singular vectors using the randomized
+ * range finder of Halko, Martinsson, and Tropp. The input matrix is only accessed through products of the form
+ * A*X and A<sup>T</sup>*X, where X has a few columns, which is why the same algorithm works for dense and sparse
+ * matrices. Subclasses provide those products for each matrix type.
+ * </p>
+ *
+ * <ol>
+ *     <li>Sample the range of A: Y = A*&Omega;, where &Omega; is a random Gaussian n by (k+p) matrix and p is the
+ *     amount of oversampling.</li>
+ *     <li>Power iterations: Y = A*(A<sup>T</sup>*Y). Each one makes the singular values decay faster so that
+ *     the sampled range is closer to the dominant one. The samples are orthonormalized between every product
+ *     to avoid losing the small singular values to round off error.</li>
+ *     <li>Find an orthonormal basis Q of Y and then compute B<sup>T</sup> = A<sup>T</sup>*Q</li>
+ *     <li>Compute the SVD of the small matrix B<sup>T</sup> = U<sub>b</sub>*W*V<sub>b</sub><sup>T</sup>. Then
+ *     A &asymp; Q*B = (Q*V<sub>b</sub>)*W*U<sub>b</sub><sup>T</sup></li>
+ * </ol>
+ *
+ * <p>
+ * The cost is dominated by (2q+2) products with A, where q is the number of power iterations, instead of
+ * the O(m*n*min(m,n)) of a full SVD. The decomposition is always compact and the singular values are sorted
+ * from largest to smallest. Accuracy is controlled by the oversampling and number of power iterations. One or
+ * two power iterations are needed when the singular values decay slowly.
+ * </p>
+ *
+ * <p>
+ * Principal Component Analysis (PCA) is done by setting {@link #setCenterColumns} to true. The mean of each column
+ * is then removed from A without modifying it, see {@link #getColumnMeans()}, and the sparsity of A is preserved.
+ * The columns of V are the principal directions and the variance along each one is w<sub>i</sub><sup>2</sup>/(m-1).
+ * </p>
+ *
+ * <p>
+ * N. Halko, P. G. Martinsson, and J. A. Tropp, "Finding structure with randomness: Probabilistic algorithms for
+ * constructing approximate matrix decompositions" SIAM Review 2011
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public abstract class SvdRandomizedBase_DDRM<T extends Matrix> implements SingularValueDecomposition_F64<T> {
+    // number of singular values requested
+    protected final int targetRank;
+    // number of extra columns which are sampled
+    protected final int oversample;
+    // number of power iterations
+    protected final int powerIterations;
+
+    protected final boolean computeU;
+    protected final boolean computeV;
+
+    // If true then the mean of each column is subtracted from the input matrix
+    protected boolean centerColumns = false;
+
+    protected Random rand = new Random(0x3c1d7e);
+
+    // shape of the decomposed matrix
+    protected int numRows;
+    protected int numCols;
+    // number of computed singular values
+    protected int numSingular;
+
+    protected double[] singularValues = new double[0];
+
+    // mean of each column when centered. 1 by numCols
+    protected final DMatrixRMaj means = new DMatrixRMaj(1, 1);
+    // row vector used to center the products
+    protected final DMatrixRMaj sums = new DMatrixRMaj(1, 1);
+
+    // Random samples and orthonormal basis of the row space of A. numCols by l
+    protected final DMatrixRMaj Omega = new DMatrixRMaj(1, 1);
+    // Samples of the column space of A. numRows by l
+    protected final DMatrixRMaj Y = new DMatrixRMaj(1, 1);
+    // Orthonormal basis of the column space of A. numRows by l
+    protected final DMatrixRMaj Q = new DMatrixRMaj(1, 1);
+    // A'*Q. numCols by l
+    protected final DMatrixRMaj Z = new DMatrixRMaj(1, 1);
+
+    // the found singular vectors. Not transposed
+    protected final DMatrixRMaj U = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj V = new DMatrixRMaj(1, 1);
+
+    // decomposition of the small matrix
+    protected @Nullable SingularValueDecomposition_F64<DMatrixRMaj> svd;
+    // storage for its singular vectors
+    protected final DMatrixRMaj Ub = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj Vb = new DMatrixRMaj(1, 1);
+
+    // used to orthonormalize samples of the column and row space
+    protected @Nullable QRDecomposition<DMatrixRMaj> qrY;
+    protected @Nullable QRDecomposition<DMatrixRMaj> qrZ;
+
+    /**
+     * Configures the decomposition
+     *
+     * @param targetRank Number of singular values and vectors which are computed.
+     * @param oversample Number of additional samples of the range. Larger is more accurate. Try 10.
+     * @param powerIterations Number of power iterations. Larger is more accurate. Try 1 or 2.
+     * @param computeU If true it will compute the U matrix
+     * @param computeV If true it will compute the V matrix
+     */
+    protected SvdRandomizedBase_DDRM( int targetRank, int oversample, int powerIterations,
+                                      boolean computeU, boolean computeV ) {
+        if (targetRank <= 0)
+            throw new IllegalArgumentException("targetRank must be more than zero");
+        if (oversample < 0 || powerIterations < 0)
+            throw new IllegalArgumentException("oversample and powerIterations can't be negative");
+        this.targetRank = targetRank;
+        this.oversample = oversample;
+        this.powerIterations = powerIterations;
+        this.computeU = computeU;
+        this.computeV = computeV;
+    }
+
+    @Override
+    public boolean decompose( T A ) {
+        numRows = A.getNumRows();
+        numCols = A.getNumCols();
+
+        int minLength = Math.min(numRows, numCols);
+        numSingular = Math.min(targetRank, minLength);
+        int l = Math.min(numSingular + oversample, minLength);
+
+        if (centerColumns) {
+            sumCols(A, means);
+            CommonOps_DDRM.divide(means, numRows);
+        }
+
+        if (qrY == null || !isQrValid(qrY, numRows, l))
+            qrY = declareQR(numRows, l);
+        if (qrZ == null || !isQrValid(qrZ, numCols, l))
+            qrZ = declareQR(numCols, l);
+
+        // Sample the range of A
+        Omega.reshape(numCols, l);
+        RandomMatrices_DDRM.fillGaussian(Omega, 0, 1, rand);
+        multCentered(A, Omega, Y);
+        orthonormalize(qrY, Y, Q);
+
+        for (int iter = 0; iter < powerIterations; iter++) {
+            multTransACentered(A, Q, Z);
+            orthonormalize(qrZ, Z, Omega);
+            multCentered(A, Omega, Y);
+            orthonormalize(qrY, Y, Q);
+        }
+
+        // Z = B' = A'*Q is small enough for a regular SVD
+        multTransACentered(A, Q, Z);
+
+        if (svd == null)
+            svd = declareSvd(numCols, l);
+        if (!svd.decompose(Z))
+            return false;
+
+        if (singularValues.length < l)
+            singularValues = new double[l];
+        System.arraycopy(svd.getSingularValues(), 0, singularValues, 0, l);
+        svd.getU(Ub, false);
+        svd.getV(Vb, false);
+        SingularOps_DDRM.descendingOrder(Ub, false, singularValues, l, Vb, false);
+
+        // Discard the oversampled singular values
+        if (computeU) {
+            DMatrixRMaj Vk = CommonOps_DDRM.extract(Vb, 0, l, 0, numSingular);
+            U.reshape(numRows, numSingular);
+            multDense(Q, Vk, U);
+        }
+        if (computeV) {
+            V.reshape(numCols, numSingular);
+            CommonOps_DDRM.extract(Ub, 0, numCols, 0, numSingular, V, 0, 0);
+        }
+
+        return true;
+    }
+
+    /**
+     * C = (A - 1*mean')*B
+     */
+    protected void multCentered( T A, DMatrixRMaj B, DMatrixRMaj C ) {
+        C.reshape(A.getNumRows(), B.numCols);
+        multA(A, B, C);
+        if (!centerColumns)
+            return;
+
+        // C = A*B - 1*(mean'*B)
+        sums.reshape(1, B.numCols);
+        CommonOps_DDRM.mult(means, B, sums);
+        for (int row = 0, index = 0; row < C.numRows; row++) {
+            for (int col = 0; col < C.numCols; col++) {
+                C.data[index++] -= sums.data[col];
+            }
+        }
+    }
+
+    /**
+     * C = (A - 1*mean')'*B
+     */
+    protected void multTransACentered( T A, DMatrixRMaj B, DMatrixRMaj C ) {
+        C.reshape(A.getNumCols(), B.numCols);
+        multTransA(A, B, C);
+        if (!centerColumns)
+            return;
+
+        // C = A'*B - mean*(1'*B)
+        CommonOps_DDRM.sumCols(B, sums);
+        for (int row = 0, index = 0; row < C.numRows; row++) {
+            double m = means.data[row];
+            for (int col = 0; col < C.numCols; col++) {
+                C.data[index++] -= m*sums.data[col];
+            }
+        }
+    }
+
+    /**
+     * Finds an orthonormal basis for the columns of the tall matrix X
+     *
+     * @param qr Decomposition used to find the basis
+     * @param X (Input) Tall matrix. Not modified.
+     * @param Q (Output) Orthonormal basis with the same shape as X
+     */
+    protected void orthonormalize( QRDecomposition<DMatrixRMaj> qr, DMatrixRMaj X, DMatrixRMaj Q ) {
+        // If a column is linearly dependent the reflectors still form an orthogonal matrix, which is all
+        // that is needed here, so failures are ignored
+        qr.decompose(X);
+        qr.getQ(Q, true);
+    }
+
+    /**
+     * Returns true if the QR decomposition is still the one which would be selected for this shape
+     */
+    private static boolean isQrValid( QRDecomposition<DMatrixRMaj> qr, int numRows, int numCols ) {
+        return (qr instanceof QRDecompositionTSQR_DDRM) == QRDecompositionTSQR_DDRM.isPreferred(numRows, numCols);
+    }
+
+    /**
+     * Declares the QR decomposition used to orthonormalize the samples
+     */
+    protected QRDecomposition<DMatrixRMaj> declareQR( int numRows, int numCols ) {
+        if (QRDecompositionTSQR_DDRM.isPreferred(numRows, numCols))
+            return new QRDecompositionTSQR_DDRM();
+        return new QRDecompositionHouseholderColumn_DDRM();
+    }
+
+    /**
+     * Declares the SVD used to decompose the small matrix
+     */
+    protected SingularValueDecomposition_F64<DMatrixRMaj> declareSvd( int numRows, int numCols ) {
+        return DecompositionFactory_DDRM.svd(numRows, numCols, true, true, true);
+    }
+
+    /**
+     * Dense matrix multiplication. C = A*B
+     */
+    protected void multDense( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DDRM.mult(A, B, C);
+    }
+
+    /**
+     * C = A*B. C has already been reshaped.
+     */
+    protected abstract void multA( T A, DMatrixRMaj B, DMatrixRMaj C );
+
+    /**
+     * C = A'*B. C has already been reshaped.
+     */
+    protected abstract void multTransA( T A, DMatrixRMaj B, DMatrixRMaj C );
+
+    /**
+     * Sums up each column of A and writes the results into the row vector 'sums'.
+     */
+    protected abstract void sumCols( T A, DMatrixRMaj sums );
+
+    /**
+     * Returns the left singular vectors as a dense matrix.
+     *
+     * @param U Optional storage for U. If null a new instance is declared.
+     * @param transposed If true then the transpose of U is returned.
+     * @return The numRows by k matrix U, or its transpose.
+     */
+    public DMatrixRMaj getDenseU( @Nullable DMatrixRMaj U, boolean transposed ) {
+        if (!computeU)
+            throw new IllegalArgumentException("As requested U was not computed.");
+        return copy(this.U, U, transposed);
+    }
+
+    /**
+     * Returns the right singular vectors as a dense matrix.
+     *
+     * @param V Optional storage for V. If null a new instance is declared.
+     * @param transposed If true then the transpose of V is returned.
+     * @return The numCols by k matrix V, or its transpose.
+     */
+    public DMatrixRMaj getDenseV( @Nullable DMatrixRMaj V, boolean transposed ) {
+        if (!computeV)
+            throw new IllegalArgumentException("As requested V was not computed.");
+        return copy(this.V, V, transposed);
+    }
+
+    /**
+     * Returns the diagonal matrix W containing the singular values as a dense matrix.
+     *
+     * @param W Optional storage for W. If null a new instance is declared.
+     * @return k by k diagonal matrix.
+     */
+    public DMatrixRMaj getDenseW( @Nullable DMatrixRMaj W ) {
+        W = UtilEjml.reshapeOrDeclare(W, numSingular, numSingular);
+        W.zero();
+        for (int i = 0; i < numSingular; i++) {
+            W.unsafe_set(i, i, singularValues[i]);
+        }
+        return W;
+    }
+
+    private static DMatrixRMaj copy( DMatrixRMaj src, @Nullable DMatrixRMaj dst, boolean transposed ) {
+        if (transposed) {
+            dst = UtilEjml.reshapeOrDeclare(dst, src.numCols, src.numRows);
+            CommonOps_DDRM.transpose(src, dst);
+        } else {
+            dst = UtilEjml.reshapeOrDeclare(dst, src.numRows, src.numCols);
+            dst.setTo(src);
+        }
+        return dst;
+    }
+
+    /**
+     * Mean of each column in the last decomposed matrix. Only valid if columns are being centered.
+     */
+    public DMatrixRMaj getColumnMeans() {
+        return means;
+    }
+
+    /**
+     * If true then the mean of each column is subtracted from the matrix before it's decomposed. This turns
+     * the SVD into Principal Component Analysis. The input matrix is not modified.
+     */
+    public void setCenterColumns( boolean centerColumns ) {
+        this.centerColumns = centerColumns;
+    }
+
+    public boolean isCenterColumns() {
+        return centerColumns;
+    }
+
+    /**
+     * Specifies the random number generator used to sample the range of the matrix
+     */
+    public void setRandom( Random rand ) {
+        this.rand = rand;
+    }
+
+    @Override
+    public double[] getSingularValues() {
+        return singularValues;
+    }
+
+    @Override
+    public int numberOfSingularValues() {
+        return numSingular;
+    }
+
+    @Override
+    public boolean isCompact() {
+        return true;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numCols() {
+        return numCols;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    public int getTargetRank() {
+        return targetRank;
+    }
+
+    public int getOversample() {
+        return oversample;
+    }
+
+    public int getPowerIterations() {
+        return powerIterations;
+    }
+}
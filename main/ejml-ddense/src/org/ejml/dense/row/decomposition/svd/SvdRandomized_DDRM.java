@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.mult.MatrixMultPacked_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Randomized truncated SVD of a dense matrix. See {@link SvdRandomizedBase_DDRM} for a description of the algorithm.
+ *
+ * @author Peter Abeles
+ */
+public class SvdRandomized_DDRM extends SvdRandomizedBase_DDRM<DMatrixRMaj> {
+    // workspace for packed matrix multiplication
+    protected final DGrowArray workA = new DGrowArray();
+    protected final DGrowArray workB = new DGrowArray();
+
+    /**
+     * Configures the decomposition
+     *
+     * @param targetRank Number of singular values and vectors which are computed.
+     * @param oversample Number of additional samples of the range. Larger is more accurate. Try 10.
+     * @param powerIterations Number of power iterations. Larger is more accurate. Try 1 or 2.
+     * @param computeU If true it will compute the U matrix
+     * @param computeV If true it will compute the V matrix
+     */
+    public SvdRandomized_DDRM( int targetRank, int oversample, int powerIterations,
+                               boolean computeU, boolean computeV ) {
+        super(targetRank, oversample, powerIterations, computeU, computeV);
+    }
+
+    @Override
+    protected void multA( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        if (isPackedPreferred(A))
+            MatrixMultPacked_DDRM.mult(1.0, A, false, B, false, C, false, workA, workB);
+        else
+            CommonOps_DDRM.mult(A, B, C);
+    }
+
+    @Override
+    protected void multTransA( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        if (isPackedPreferred(A))
+            MatrixMultPacked_DDRM.mult(1.0, A, true, B, false, C, false, workA, workB);
+        else
+            CommonOps_DDRM.multTransA(A, B, C);
+    }
+
+    /**
+     * The samples often have fewer columns than {@link EjmlParameters#MULT_PACKED_SWITCH}, which would disable
+     * packed multiplication in {@link CommonOps_DDRM}. It's still much faster when A is large since A is only
+     * read once, instead of once for each block of columns.
+     */
+    protected static boolean isPackedPreferred( DMatrixRMaj A ) {
+        return Math.min(A.numRows, A.numCols) >= EjmlParameters.MULT_PACKED_SWITCH;
+    }
+
+    @Override
+    protected void sumCols( DMatrixRMaj A, DMatrixRMaj sums ) {
+        CommonOps_DDRM.sumCols(A, sums);
+    }
+
+    @Override
+    public DMatrixRMaj getU( @Nullable DMatrixRMaj U, boolean transposed ) {
+        return getDenseU(U, transposed);
+    }
+
+    @Override
+    public DMatrixRMaj getV( @Nullable DMatrixRMaj V, boolean transposed ) {
+        return getDenseV(V, transposed);
+    }
+
+    @Override
+    public DMatrixRMaj getW( @Nullable DMatrixRMaj W ) {
+        return getDenseW(W);
+    }
+}
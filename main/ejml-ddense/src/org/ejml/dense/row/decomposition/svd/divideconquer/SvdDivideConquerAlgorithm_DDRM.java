@@ -0,0 +1,879 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd.divideconquer;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.svd.implicitqr.SvdImplicitQrAlgorithm_DDRM;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Computes the singular value decomposition of an upper bidiagonal matrix, B = U*&Sigma;*V<sup>T</sup>, using
+ * the divide and conquer algorithm. A sub-problem B with n rows and n or n+1 columns is split at row k:
+ * </p>
+ * <pre>
+ *     [ B1            0      ]
+ * B = [ &alpha;*e<sub>k</sub><sup>T</sup>  &beta;*e<sub>1</sub><sup>T</sup> ]
+ *     [ 0             B2     ]
+ * </pre>
+ * <p>
+ * where B1 has k rows and k+1 columns. After B1 and B2 have been decomposed recursively, B is orthogonally
+ * similar to a matrix with non-zero elements only in the first row, z, and along the diagonal, D. Its
+ * singular values are the roots of the secular equation:
+ * </p>
+ * <pre>
+ * 1 + sum<sub>j</sub> z<sub>j</sub><sup>2</sup>/(d<sub>j</sub><sup>2</sup> - &sigma;<sup>2</sup>) = 0
+ * </pre>
+ * <p>
+ * Before solving, components of z which are zero and singular values which are nearly repeated are deflated.
+ * The vector z is then recomputed from the roots using Gu and Eisenstat's method so that the singular vectors
+ * are orthogonal. The singular vectors of B1 and B2 are updated with matrix multiplications, which is where
+ * almost all the work is done for large matrices. Small sub-problems are solved with
+ * {@link SvdImplicitQrAlgorithm_DDRM}.
+ * </p>
+ *
+ * <p>
+ * The singular values are sorted from smallest to largest and are all positive. U and V are stored with
+ * the singular vectors in their columns.
+ * </p>
+ *
+ * <p>
+ * [1] M. Gu and S. C. Eisenstat, "A Divide-and-Conquer Algorithm for the Bidiagonal SVD",
+ * SIAM J. Matrix Analysis and Applications, 1995<br>
+ * [2] LAPACK, DBDSDC
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class SvdDivideConquerAlgorithm_DDRM {
+    // maximum number of iterations when finding a root of the secular equation
+    protected static final int MAX_ITERATIONS = 200;
+
+    // flags indicating which rows of a singular vector can be non-zero
+    protected static final int TOP = 1;
+    protected static final int BOTTOM = 2;
+
+    // sub-problems which have this number of rows or fewer are solved with the QR algorithm
+    protected final int leafSize;
+
+    // number of rows and columns in the bidiagonal matrix
+    protected int N;
+
+    // working copy of the bidiagonal matrix
+    protected double[] diag = UtilEjml.ZERO_LENGTH_F64;
+    protected double[] off = UtilEjml.ZERO_LENGTH_F64;
+
+    // the found singular values
+    protected double[] values = UtilEjml.ZERO_LENGTH_F64;
+    // left and right singular vectors are stored in the columns. Block diagonal until the final merge
+    protected DMatrixRMaj U = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj V = new DMatrixRMaj(1, 1);
+
+    // work space used by the single threaded algorithm
+    protected final Workspace work = new Workspace();
+
+    /**
+     * @param leafSize Sub-problems with this number of rows or fewer are solved with the QR algorithm. Try 25.
+     */
+    public SvdDivideConquerAlgorithm_DDRM( int leafSize ) {
+        if (leafSize < 2)
+            throw new IllegalArgumentException("leafSize must be at least 2");
+        this.leafSize = leafSize;
+    }
+
+    public SvdDivideConquerAlgorithm_DDRM() {
+        this(25);
+    }
+
+    /**
+     * Computes the SVD of a square upper bidiagonal matrix
+     *
+     * @param sideLength Number of rows and columns in the matrix.
+     * @param diag Diagonal elements. Not modified.
+     * @param off Elements above the diagonal. Not modified.
+     * @return true if it succeeds and false if it fails.
+     */
+    public boolean process( int sideLength, double[] diag, double[] off ) {
+        this.N = sideLength;
+        if (this.diag.length < N) {
+            this.diag = new double[N];
+            this.off = new double[N];
+            this.values = new double[N];
+        }
+        System.arraycopy(diag, 0, this.diag, 0, N);
+        if (N > 1)
+            System.arraycopy(off, 0, this.off, 0, N - 1);
+
+        U.reshape(N, N);
+        U.zero();
+        V.reshape(N, N);
+        V.zero();
+
+        if (N == 0)
+            return true;
+
+        // Scale the matrix so that its largest element is one, otherwise the tolerances and products of
+        // singular value differences can underflow when the elements are small
+        double scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale, Math.abs(this.diag[i]));
+        }
+        for (int i = 0; i < N - 1; i++) {
+            scale = Math.max(scale, Math.abs(this.off[i]));
+        }
+        if (scale == 0) {
+            CommonOps_DDRM.setIdentity(U);
+            CommonOps_DDRM.setIdentity(V);
+            Arrays.fill(values, 0, N, 0.0);
+            return true;
+        }
+        for (int i = 0; i < N; i++) {
+            this.diag[i] /= scale;
+        }
+        for (int i = 0; i < N - 1; i++) {
+            this.off[i] /= scale;
+        }
+
+        if (!solve(0, N, 0, work))
+            return false;
+
+        for (int i = 0; i < N; i++) {
+            values[i] *= scale;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the SVD of the sub-matrix which starts at row and column r0, has n rows, and n+sqre columns.
+     * The results are written to the same rows and columns in U and V. If sqre is 1 then the last column in
+     * V is the vector which B maps to zero.
+     */
+    protected boolean solve( int r0, int n, int sqre, Workspace work ) {
+        if (n <= leafSize)
+            return solveLeaf(r0, n, sqre, work);
+
+        int k = n/2;
+        if (!solveHalves(r0, n, sqre, k, work))
+            return false;
+
+        merge(r0, n, sqre, k, work);
+        return true;
+    }
+
+    /**
+     * Solves the sub-matrices above and below row k
+     */
+    protected boolean solveHalves( int r0, int n, int sqre, int k, Workspace work ) {
+        return solve(r0, k, 1, work) && solve(r0 + k + 1, n - k - 1, sqre, work);
+    }
+
+    /**
+     * Solves a small sub-problem using the QR algorithm. The singular values are sorted.
+     */
+    protected boolean solveLeaf( int r0, int n, int sqre, Workspace work ) {
+        final int m = n + sqre;
+
+        double[] d = work.leafDiag.reshape(n).data;
+        double[] e = work.leafOff.reshape(n).data;
+        System.arraycopy(diag, r0, d, 0, n);
+        System.arraycopy(off, r0, e, 0, m - 1);
+
+        // If there is an extra column then rotate it away so that the matrix is square, B*G = [B' 0]
+        DMatrixRMaj G = work.leafG;
+        G.reshape(m, m);
+        CommonOps_DDRM.setIdentity(G);
+        if (sqre == 1) {
+            double f = e[n - 1];
+            for (int j = n - 1; j >= 0; j--) {
+                double r = Math.sqrt(d[j]*d[j] + f*f);
+                double c = 1, s = 0;
+                if (r != 0) {
+                    c = d[j]/r;
+                    s = f/r;
+                }
+                d[j] = r;
+                if (j > 0) {
+                    f = -s*e[j - 1];
+                    e[j - 1] *= c;
+                }
+                for (int row = 0; row < m; row++) {
+                    double x = G.data[row*m + j];
+                    double y = G.data[row*m + n];
+                    G.data[row*m + j] = c*x + s*y;
+                    G.data[row*m + n] = c*y - s*x;
+                }
+            }
+        }
+
+        DMatrixRMaj Ut = work.leafUt;
+        DMatrixRMaj Vt = work.leafVt;
+        Ut.reshape(n, n);
+        Vt.reshape(n, n);
+        CommonOps_DDRM.setIdentity(Ut);
+        CommonOps_DDRM.setIdentity(Vt);
+
+        SvdImplicitQrAlgorithm_DDRM qr = work.leafQR;
+        qr.setMatrix(n, n, d, e);
+        qr.setUt(Ut);
+        qr.setVt(Vt);
+        qr.setFastValues(false);
+        if (!qr.process())
+            return false;
+
+        // make the singular values positive
+        for (int i = 0; i < n; i++) {
+            if (d[i] < 0) {
+                d[i] = -d[i];
+                for (int j = 0; j < n; j++) {
+                    Ut.data[i*n + j] = -Ut.data[i*n + j];
+                }
+            }
+        }
+
+        // sort the singular values with an insertion sort
+        work.order.reshape(n);
+        int[] order = work.order.data;
+        for (int i = 0; i < n; i++) {
+            int j = i - 1;
+            for (; j >= 0 && d[order[j]] > d[i]; j--) {
+                order[j + 1] = order[j];
+            }
+            order[j + 1] = i;
+        }
+
+        // U = Ut', V = G*[Vt' 0;0 1]
+        for (int i = 0; i < n; i++) {
+            int col = r0 + i;
+            int src = order[i];
+            values[col] = d[src];
+            for (int row = 0; row < n; row++) {
+                U.data[(r0 + row)*N + col] = Ut.data[src*n + row];
+            }
+            for (int row = 0; row < m; row++) {
+                double sum = 0;
+                for (int l = 0; l < n; l++) {
+                    sum += G.data[row*m + l]*Vt.data[src*n + l];
+                }
+                V.data[(r0 + row)*N + col] = sum;
+            }
+        }
+        if (sqre == 1) {
+            for (int row = 0; row < m; row++) {
+                V.data[(r0 + row)*N + r0 + n] = G.data[row*m + n];
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Merges the SVD of the sub-matrices above and below row k into the SVD of the sub-matrix.
+     */
+    protected void merge( final int r0, final int n, final int sqre, final int k, Workspace work ) {
+        final int m = n + sqre;
+        final int nr = n - k - 1;
+        final int c0 = r0 + k;
+        final double alpha = diag[c0];
+        final double beta = off[c0];
+        final double[] dataU = U.data;
+        final double[] dataV = V.data;
+        work.reshape(n);
+
+        // The middle row is a column in U
+        dataU[c0*N + c0] = 1.0;
+
+        // The first component has a pole at zero and is the vector B1 maps to zero
+        double z0 = alpha*dataV[c0*N + c0];
+        int maskV0 = TOP;
+        if (sqre == 1) {
+            // Combine the vectors which B1 and B2 map to zero. The other combination is mapped to zero by B
+            int cN = r0 + n;
+            double b = beta*dataV[(c0 + 1)*N + cN];
+            double r = Math.sqrt(z0*z0 + b*b);
+            if (r != 0) {
+                double c = z0/r, s = b/r;
+                for (int row = r0; row < r0 + m; row++) {
+                    double x = dataV[row*N + c0];
+                    double y = dataV[row*N + cN];
+                    dataV[row*N + c0] = c*x + s*y;
+                    dataV[row*N + cN] = c*y - s*x;
+                }
+                z0 = r;
+                maskV0 |= BOTTOM;
+            }
+        }
+
+        // Merge the sorted singular values of the two halves. z is alpha times the last row of V1 followed
+        // by beta times the first row of V2.
+        final double[] d = work.d.data;
+        final double[] z = work.z.data;
+        final int[] cols = work.cols.data;
+        final int[] mask = work.mask.data;
+        d[0] = 0;
+        z[0] = z0;
+        cols[0] = c0;
+        mask[0] = maskV0;
+        for (int i = 1, p1 = 0, p2 = 0; i < n; i++) {
+            int col1 = r0 + p1;
+            int col2 = c0 + 1 + p2;
+            if (p2 == nr || (p1 < k && values[col1] <= values[col2])) {
+                cols[i] = col1;
+                z[i] = alpha*dataV[c0*N + col1];
+                mask[i] = TOP;
+                p1++;
+            } else {
+                cols[i] = col2;
+                z[i] = beta*dataV[(c0 + 1)*N + col2];
+                mask[i] = BOTTOM;
+                p2++;
+            }
+            d[i] = values[cols[i]];
+        }
+
+        // scale to avoid overflow when squaring
+        double scale = 0;
+        for (int i = 0; i < n; i++) {
+            scale = Math.max(scale, Math.max(d[i], Math.abs(z[i])));
+        }
+        if (scale == 0) {
+            // The sub-matrix is zero and the singular vectors of the two halves are already a valid solution
+            Arrays.fill(values, r0, r0 + n, 0.0);
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            d[i] /= scale;
+            z[i] /= scale;
+        }
+
+        int K = deflate(n, r0, m, 8.0*UtilEjml.EPS, work);
+
+        // find the singular values and vectors of the components which were not deflated
+        work.Wu.reshape(K, K);
+        work.Wv.reshape(K, K);
+        computeRoots(K, work);
+        computeVectors(K, work);
+
+        // Update the singular vectors. The rows of U and V in each half are updated separately. The middle row
+        // of U is only non-zero in the first component
+        updateVectors(U, r0, c0, TOP, K, work.Wu, work.Utop, work);
+        updateVectors(U, c0 + 1, r0 + n, BOTTOM, K, work.Wu, work.Ubot, work);
+        updateVectors(V, r0, c0 + 1, TOP, K, work.Wv, work.Vtop, work);
+        updateVectors(V, c0 + 1, r0 + m, BOTTOM, K, work.Wv, work.Vbot, work);
+
+        final int numDef = n - K;
+        DMatrixRMaj Udef = work.Udef;
+        DMatrixRMaj Vdef = work.Vdef;
+        Udef.reshape(n, numDef);
+        Vdef.reshape(m, numDef);
+        for (int row = 0; row < m; row++) {
+            for (int i = 0; i < numDef; i++) {
+                int col = work.colsDef.data[i];
+                if (row < n)
+                    Udef.data[row*numDef + i] = dataU[(r0 + row)*N + col];
+                Vdef.data[row*numDef + i] = dataV[(r0 + row)*N + col];
+            }
+        }
+
+        // Both sets of singular values are sorted. Merge them and write the results in sorted order
+        final double[] sigma = work.sigma.data;
+        final double[] dDef = work.dDef.data;
+        final double[] Wu = work.Wu.data;
+        for (int i = 0, p1 = 0, p2 = 0; i < n; i++) {
+            int col = r0 + i;
+            if (p2 == numDef || (p1 < K && sigma[p1] <= dDef[p2])) {
+                values[col] = scale*sigma[p1];
+                copyColumn(work.Utop, p1, U, r0, col);
+                dataU[c0*N + col] = Wu[p1*K];
+                copyColumn(work.Ubot, p1, U, c0 + 1, col);
+                copyColumn(work.Vtop, p1, V, r0, col);
+                copyColumn(work.Vbot, p1, V, c0 + 1, col);
+                p1++;
+            } else {
+                values[col] = scale*dDef[p2];
+                copyColumn(Udef, p2, U, r0, col);
+                copyColumn(Vdef, p2, V, r0, col);
+                p2++;
+            }
+        }
+    }
+
+    /**
+     * Copies a column from 'src' into column 'col' of 'dst' starting at row0
+     */
+    private static void copyColumn( DMatrixRMaj src, int srcCol, DMatrixRMaj dst, int row0, int col ) {
+        for (int row = 0; row < src.numRows; row++) {
+            dst.data[(row0 + row)*dst.numCols + col] = src.data[row*src.numCols + srcCol];
+        }
+    }
+
+    /**
+     * Deflates components of z which are nearly zero and singular values which are nearly the same.
+     * Nearly identical singular values are deflated by rotating their singular vectors so that one of the
+     * z components becomes zero. The first component is never deflated. The components which are not deflated
+     * are written to the arrays ending with 'K' and the deflated ones to those ending with 'Def'.
+     *
+     * @return Number of components which have not been deflated
+     */
+    protected int deflate( int n, int r0, int m, double tol, Workspace work ) {
+        final double[] d = work.d.data;
+        final double[] z = work.z.data;
+        final int[] cols = work.cols.data;
+        final int[] mask = work.mask.data;
+        final double[] dataU = U.data;
+        final double[] dataV = V.data;
+
+        if (Math.abs(z[0]) <= tol)
+            z[0] = tol;
+        work.dK.data[0] = 0;
+        work.zK.data[0] = z[0];
+        work.colsK.data[0] = cols[0];
+        work.maskK.data[0] = mask[0];
+
+        int K = 1, numDef = 0;
+        int prev = -1;
+        for (int j = 1; j < n; j++) {
+            if (Math.abs(z[j]) <= tol) {
+                work.dDef.data[numDef] = d[j];
+                work.colsDef.data[numDef++] = cols[j];
+                continue;
+            }
+            if (prev == -1) {
+                prev = j;
+                continue;
+            }
+
+            if (Math.abs(d[j] - d[prev]) <= tol) {
+                // rotate the two singular vectors so that z[prev] becomes zero
+                double tau = Math.sqrt(z[prev]*z[prev] + z[j]*z[j]);
+                double c = z[j]/tau;
+                double s = -z[prev]/tau;
+                z[j] = tau;
+                z[prev] = 0;
+
+                int colP = cols[prev];
+                int colJ = cols[j];
+                for (int row = r0; row < r0 + m; row++) {
+                    if (row < r0 + n) {
+                        double x = dataU[row*N + colP];
+                        double y = dataU[row*N + colJ];
+                        dataU[row*N + colP] = c*x + s*y;
+                        dataU[row*N + colJ] = c*y - s*x;
+                    }
+                    double x = dataV[row*N + colP];
+                    double y = dataV[row*N + colJ];
+                    dataV[row*N + colP] = c*x + s*y;
+                    dataV[row*N + colJ] = c*y - s*x;
+                }
+                mask[j] |= mask[prev];
+
+                work.dDef.data[numDef] = d[prev];
+                work.colsDef.data[numDef++] = colP;
+            } else {
+                addComponent(K++, prev, work);
+            }
+            prev = j;
+        }
+        if (prev != -1)
+            addComponent(K++, prev, work);
+
+        // keep the second pole away from the pole at zero
+        if (K > 1 && work.dK.data[1] < tol/2)
+            work.dK.data[1] = tol/2;
+
+        return K;
+    }
+
+    private static void addComponent( int K, int j, Workspace work ) {
+        work.dK.data[K] = work.d.data[j];
+        work.zK.data[K] = work.z.data[j];
+        work.colsK.data[K] = work.cols.data[j];
+        work.maskK.data[K] = work.mask.data[j];
+    }
+
+    /**
+     * Finds all the roots of the secular equation
+     */
+    protected void computeRoots( int K, Workspace work ) {
+        for (int i = 0; i < K; i++) {
+            work.sigma.data[i] = solveSecular(i, K, work.dK.data, work.zK.data, work.Wv.data);
+        }
+    }
+
+    /**
+     * Computes the singular vectors. Row 'i' in Wu and Wv are replaced by the left and right singular vectors
+     * of root 'i'.
+     */
+    protected void computeVectors( int K, Workspace work ) {
+        for (int j = 0; j < K; j++) {
+            computeZHat(j, K, work.dK.data, work.zK.data, work.sigma.data, work.Wv.data, work.zhat.data);
+        }
+        for (int i = 0; i < K; i++) {
+            computeVector(i, K, work.dK.data, work.zhat.data, work.sigma.data, work.Wu.data, work.Wv.data);
+        }
+    }
+
+    /**
+     * Computes rows row0 to row1 of M*W' for the components which are not deflated, where M is U or V.
+     * Only components which can be non-zero in these rows are multiplied.
+     *
+     * @param flag Which half the rows belong to
+     * @param output (Output) Storage for the results
+     */
+    protected void updateVectors( DMatrixRMaj M, int row0, int row1, int flag, int K, DMatrixRMaj W,
+                                  DMatrixRMaj output, Workspace work ) {
+        final int[] colsK = work.colsK.data;
+        final int[] maskK = work.maskK.data;
+        final int[] select = work.select.data;
+        int count = 0;
+        for (int j = 0; j < K; j++) {
+            if ((maskK[j] & flag) != 0)
+                select[count++] = j;
+        }
+
+        output.reshape(row1 - row0, K);
+        if (count == 0 || row1 == row0) {
+            output.zero();
+            return;
+        }
+
+        DMatrixRMaj A = work.A;
+        A.reshape(row1 - row0, count);
+        for (int row = row0; row < row1; row++) {
+            int indexM = row*N;
+            int indexA = (row - row0)*count;
+            for (int c = 0; c < count; c++) {
+                A.data[indexA + c] = M.data[indexM + colsK[select[c]]];
+            }
+        }
+        DMatrixRMaj B = work.B;
+        B.reshape(K, count);
+        for (int i = 0; i < K; i++) {
+            int indexW = i*K;
+            int indexB = i*count;
+            for (int c = 0; c < count; c++) {
+                B.data[indexB + c] = W.data[indexW + select[c]];
+            }
+        }
+
+        multTransB(A, B, output);
+    }
+
+    /**
+     * output = A*B'
+     */
+    protected void multTransB( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj output ) {
+        CommonOps_DDRM.multTransB(A, B, output);
+    }
+
+    /**
+     * <p>
+     * Finds the i-th root of the secular equation:<br>
+     * 1 + sum<sub>j</sub> z<sub>j</sub><sup>2</sup>/(d<sub>j</sub><sup>2</sup> - &sigma;<sup>2</sup>) = 0<br>
+     * which lies between d<sub>i</sub> and d<sub>i+1</sub>, or above d<sub>i</sub> for the last one. The
+     * root is found relative to the closest pole using a fixed weight rational approximation in &sigma;<sup>2</sup>,
+     * safe guarded by bisection.
+     * </p>
+     *
+     * <p>
+     * Row i in W is filled with d<sub>j</sub> - &sigma;<sub>i</sub>. Since these are computed relative to the
+     * closest pole they are accurate even if the root is very close to a pole.
+     * </p>
+     *
+     * @return The root
+     */
+    protected static double solveSecular( int i, int K, double[] d, double[] z, double[] W ) {
+        final int indexW = i*K;
+
+        // Select the origin using the sign of the secular equation at the middle of the interval
+        int org;
+        double lo, hi;
+        if (i < K - 1) {
+            double mid = (d[i] + d[i + 1])/2.0;
+            double f = 1.0;
+            for (int j = 0; j < K; j++) {
+                f += z[j]*z[j]/((d[j] - mid)*(d[j] + mid));
+            }
+            if (f >= 0) {
+                org = i;
+                lo = 0;
+                hi = mid - d[i];
+            } else {
+                org = i + 1;
+                lo = mid - d[i + 1];
+                hi = 0;
+            }
+        } else {
+            double zz = 0;
+            for (int j = 0; j < K; j++) {
+                zz += z[j]*z[j];
+            }
+            org = i;
+            lo = 0;
+            hi = zz/(Math.sqrt(d[i]*d[i] + zz) + d[i]);
+        }
+
+        // distance of each pole from the origin
+        final double dorg = d[org];
+        for (int j = 0; j < K; j++) {
+            W[indexW + j] = d[j] - dorg;
+        }
+        // distance between the two poles in sigma^2
+        final double g = i < K - 1 ? (d[i + 1] - d[i])*(d[i + 1] + d[i]) : 0;
+
+        double tau = (lo + hi)/2.0;
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            // psi is the sum of poles to the left of the root and phi the ones to the right
+            double sigma = dorg + tau;
+            double psi = 0, dpsi = 0, phi = 0, dphi = 0;
+            for (int j = 0; j <= i; j++) {
+                double delta = (W[indexW + j] - tau)*(d[j] + sigma);
+                double q = z[j]/delta;
+                psi += z[j]*q;
+                dpsi += q*q;
+            }
+            for (int j = i + 1; j < K; j++) {
+                double delta = (W[indexW + j] - tau)*(d[j] + sigma);
+                double q = z[j]/delta;
+                phi += z[j]*q;
+                dphi += q*q;
+            }
+
+            double f = 1.0 + psi + phi;
+            if (f == 0)
+                break;
+            // the secular function is increasing between the poles
+            if (f < 0)
+                lo = tau;
+            else
+                hi = tau;
+            if (Math.abs(f) <= 8.0*UtilEjml.EPS*K*(1.0 - psi + phi))
+                break;
+
+            // approximate psi and phi by a single pole each in sigma^2, which interpolates their value and slope
+            double deltaI = (W[indexW + i] - tau)*(d[i] + sigma);
+            double b1 = dpsi*deltaI*deltaI;
+            double a1 = psi - b1/deltaI;
+            double eta;
+            if (i < K - 1) {
+                double deltaI1 = (W[indexW + i + 1] - tau)*(d[i + 1] + sigma);
+                double b2 = dphi*deltaI1*deltaI1;
+                double a2 = phi - b2/deltaI1;
+                double c = 1.0 + a1 + a2;
+
+                // solve c*p*(p+g) + b1*(p+g) + b2*p = 0 for p = deltaI - eta, which has one root in (-g,0)
+                double B = c*g + b1 + b2;
+                double C = b1*g;
+                double p;
+                if (c == 0) {
+                    p = -C/B;
+                } else {
+                    double disc = B*B - 4.0*c*C;
+                    if (disc < 0) {
+                        p = Double.NaN;
+                    } else {
+                        double r = -0.5*(B + Math.copySign(Math.sqrt(disc), B));
+                        p = r/c;
+                        if (!(p > -g && p < 0) && r != 0)
+                            p = C/r;
+                    }
+                }
+                eta = deltaI - p;
+            } else {
+                double c = 1.0 + a1;
+                eta = c > 0 ? deltaI + b1/c : Double.NaN;
+            }
+
+            // convert the step in sigma^2 into a step in tau
+            double sigma2 = sigma*sigma + eta;
+            double x = sigma2 >= 0 ? tau + eta/(sigma + Math.sqrt(sigma2)) : Double.NaN;
+
+            // fall back to bisection if the step leaves the bracket
+            if (!(x > lo && x < hi))
+                x = (lo + hi)/2.0;
+            if (x == tau)
+                break;
+            tau = x;
+            if (hi - lo <= UtilEjml.EPS*(Math.abs(lo) + Math.abs(hi)))
+                break;
+        }
+
+        for (int j = 0; j < K; j++) {
+            W[indexW + j] -= tau;
+        }
+        return dorg + tau;
+    }
+
+    /**
+     * Recomputes component j of z from the roots so that the singular vectors computed from it are
+     * numerically orthogonal. See [1].
+     *
+     * @param W W[i,j] = d[j] - sigma[i]
+     */
+    protected static void computeZHat( int j, int K, double[] d, double[] z, double[] sigma, double[] W,
+                                       double[] zhat ) {
+        // sigma[i]^2 - d[j]^2 = -W[i,j]*(d[j] + sigma[i])
+        double prod = -W[(K - 1)*K + j]*(d[j] + sigma[K - 1]);
+        for (int i = 0; i < j; i++) {
+            prod *= (W[i*K + j]*(d[j] + sigma[i]))/((d[j] - d[i])*(d[j] + d[i]));
+        }
+        for (int i = j; i < K - 1; i++) {
+            prod *= (-W[i*K + j]*(d[j] + sigma[i]))/((d[i + 1] - d[j])*(d[i + 1] + d[j]));
+        }
+        zhat[j] = Math.copySign(Math.sqrt(Math.abs(prod)), z[j]);
+    }
+
+    /**
+     * Computes the singular vectors of root i and writes them to row i of Wu and Wv. Before being called
+     * Wv contains d[j] - sigma[i].
+     */
+    protected static void computeVector( int i, int K, double[] d, double[] zhat, double[] sigma,
+                                         double[] Wu, double[] Wv ) {
+        final int indexW = i*K;
+        double normU = 1.0, normV = 0;
+        Wu[indexW] = -1.0;
+        for (int j = 0; j < K; j++) {
+            double v = zhat[j]/(Wv[indexW + j]*(d[j] + sigma[i]));
+            Wv[indexW + j] = v;
+            normV += v*v;
+            if (j > 0) {
+                double u = d[j]*v;
+                Wu[indexW + j] = u;
+                normU += u*u;
+            }
+        }
+        normU = Math.sqrt(normU);
+        normV = Math.sqrt(normV);
+        for (int j = 0; j < K; j++) {
+            Wu[indexW + j] /= normU;
+            Wv[indexW + j] /= normV;
+        }
+    }
+
+    /**
+     * Number of singular values
+     */
+    public int getNumberOfSingularValues() {
+        return N;
+    }
+
+    /**
+     * Returns the singular value at the specified index. Sorted from smallest to largest.
+     */
+    public double getSingularValue( int index ) {
+        return values[index];
+    }
+
+    /**
+     * Returns the found singular values. The array might be longer than the number of singular values.
+     */
+    public double[] getSingularValues() {
+        return values;
+    }
+
+    /**
+     * Returns a matrix whose columns are the left singular vectors
+     */
+    public DMatrixRMaj getU() {
+        return U;
+    }
+
+    /**
+     * Returns a matrix whose columns are the right singular vectors
+     */
+    public DMatrixRMaj getV() {
+        return V;
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * Storage for solving a sub-problem. Each thread needs its own.
+     */
+    protected static class Workspace {
+        // used to solve the small sub-problems
+        final SvdImplicitQrAlgorithm_DDRM leafQR = new SvdImplicitQrAlgorithm_DDRM();
+        final DMatrixRMaj leafUt = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj leafVt = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj leafG = new DMatrixRMaj(1, 1);
+        final DGrowArray leafDiag = new DGrowArray();
+        final DGrowArray leafOff = new DGrowArray();
+        final IGrowArray order = new IGrowArray();
+
+        // sorted diagonal, z, the column in U and V they came from, and which rows can be non-zero
+        final DGrowArray d = new DGrowArray();
+        final DGrowArray z = new DGrowArray();
+        final IGrowArray cols = new IGrowArray();
+        final IGrowArray mask = new IGrowArray();
+
+        // components which have not been deflated
+        final DGrowArray dK = new DGrowArray();
+        final DGrowArray zK = new DGrowArray();
+        final IGrowArray colsK = new IGrowArray();
+        final IGrowArray maskK = new IGrowArray();
+        // components which have been deflated
+        final DGrowArray dDef = new DGrowArray();
+        final IGrowArray colsDef = new IGrowArray();
+
+        // roots of the secular equation and the recomputed z
+        final DGrowArray sigma = new DGrowArray();
+        final DGrowArray zhat = new DGrowArray();
+
+        // left and right singular vectors of the merged problem
+        final DMatrixRMaj Wu = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Wv = new DMatrixRMaj(1, 1);
+
+        // selected columns used when updating the singular vectors
+        final DMatrixRMaj A = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj B = new DMatrixRMaj(1, 1);
+        final IGrowArray select = new IGrowArray();
+
+        // updated singular vectors
+        final DMatrixRMaj Utop = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Ubot = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Vtop = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Vbot = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Udef = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Vdef = new DMatrixRMaj(1, 1);
+
+        void reshape( int n ) {
+            d.reshape(n);
+            z.reshape(n);
+            cols.reshape(n);
+            mask.reshape(n);
+            dK.reshape(n);
+            zK.reshape(n);
+            colsK.reshape(n);
+            maskK.reshape(n);
+            dDef.reshape(n);
+            colsDef.reshape(n);
+            sigma.reshape(n);
+            zhat.reshape(n);
+            select.reshape(n);
+            Arrays.fill(mask.data, 0, n, 0);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd.divideconquer;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_MT_DDRM;
+
+/**
+ * Concurrent implementation of {@link SvdDivideConquerAlgorithm_DDRM}. The two halves of each
+ * sub-problem are solved as separate tasks in the thread pool. Inside of a merge the roots of the secular
+ * equation are found in parallel and the singular vectors are updated with a concurrent matrix multiplication.
+ *
+ * @author Peter Abeles
+ */
+public class SvdDivideConquerAlgorithm_MT_DDRM extends SvdDivideConquerAlgorithm_DDRM {
+    // sub-problems smaller than this have their halves solved by the same thread
+    protected int minimumConcurrent = 200;
+
+    public SvdDivideConquerAlgorithm_MT_DDRM( int leafSize ) {
+        super(leafSize);
+    }
+
+    public SvdDivideConquerAlgorithm_MT_DDRM() {}
+
+    @Override
+    protected boolean solveHalves( int r0, int n, int sqre, int k, Workspace work ) {
+        if (n < minimumConcurrent)
+            return super.solveHalves(r0, n, sqre, k, work);
+
+        // The first half reuses this work space since the merge only happens after both halves are done
+        var success = new boolean[2];
+        var workSecond = new Workspace();
+        EjmlConcurrency.loopFor(0, 2, half -> {
+            if (half == 0)
+                success[0] = solve(r0, k, 1, work);
+            else
+                success[1] = solve(r0 + k + 1, n - k - 1, sqre, workSecond);
+        });
+        return success[0] && success[1];
+    }
+
+    @Override
+    protected void computeRoots( int K, Workspace work ) {
+        EjmlConcurrency.loopFor(0, K, i ->
+                work.sigma.data[i] = solveSecular(i, K, work.dK.data, work.zK.data, work.Wv.data));
+    }
+
+    @Override
+    protected void computeVectors( int K, Workspace work ) {
+        EjmlConcurrency.loopBlocks(0, K, ( j0, j1 ) -> {
+            for (int j = j0; j < j1; j++) {
+                computeZHat(j, K, work.dK.data, work.zK.data, work.sigma.data, work.Wv.data, work.zhat.data);
+            }
+        });
+        EjmlConcurrency.loopBlocks(0, K, ( i0, i1 ) -> {
+            for (int i = i0; i < i1; i++) {
+                computeVector(i, K, work.dK.data, work.zhat.data, work.sigma.data, work.Wu.data, work.Wv.data);
+            }
+        });
+    }
+
+    @Override
+    protected void multTransB( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj output ) {
+        CommonOps_MT_DDRM.multTransB(A, B, output);
+    }
+
+    public int getMinimumConcurrent() {
+        return minimumConcurrent;
+    }
+
+    public void setMinimumConcurrent( int minimumConcurrent ) {
+        this.minimumConcurrent = minimumConcurrent;
+    }
+}
@@ -29,16 +29,25 @@ import org.ejml.dense.row.SpecializedOps_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionBlock_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionLDL_DDRM;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionRecursive_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.eig.MultishiftQRDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.SwitchingEigenDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricDivideConquerDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.SymmetricQRAlgorithmDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricTridiagonalDivideConquer_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecompositionHouseholder_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionBlock_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionRecursive_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderBlock_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderColumn_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdDivideConquerDecompose_DDRM;
 import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdRandomized_DDRM;
 import org.ejml.interfaces.decomposition.*;
 
 /**
@@ -89,6 +98,20 @@ public class DecompositionFactory_DDRM {
         return chol(100, lower);
     }
 
+    /**
+     * <p>
+     * Returns a recursive {@link CholeskyDecomposition_F64}. Its performance does not depend on a tuned block size
+     * and is a good choice for mid-sized matrices.
+     * </p>
+     *
+     * @param lower should a lower or upper triangular matrix be used. If not sure set to true.
+     * @return A new CholeskyDecomposition.
+     * @see CholeskyDecompositionRecursive_DDRM
+     */
+    public static CholeskyDecomposition_F64<DMatrixRMaj> cholRecursive( boolean lower ) {
+        return new CholeskyDecompositionRecursive_DDRM(lower);
+    }
+
     /**
      * <p>
      * Returns a {@link org.ejml.dense.row.decomposition.chol.CholeskyDecompositionLDL_DDRM} that has been optimized for the specified matrix size.
@@ -115,13 +138,28 @@ public class DecompositionFactory_DDRM {
      * @return LUDecomposition
      */
     public static LUDecomposition_F64<DMatrixRMaj> lu( int numRows, int numCol ) {
-        return new LUDecompositionAlt_DDRM();
+        if (Math.min(numRows, numCol) < EjmlParameters.SWITCH_BLOCK_LU)
+            return new LUDecompositionAlt_DDRM();
+        return new LUDecompositionBlock_DDRM();
     }
 
     public static LUDecomposition_F64<DMatrixRMaj> lu() {
         return new LUDecompositionAlt_DDRM();
     }
 
+    /**
+     * <p>
+     * Returns a recursive {@link LUDecomposition_F64}. Its performance does not depend on a tuned block size
+     * and is a good choice for mid-sized matrices.
+     * </p>
+     *
+     * @return LUDecomposition
+     * @see LUDecompositionRecursive_DDRM
+     */
+    public static LUDecomposition_F64<DMatrixRMaj> luRecursive() {
+        return new LUDecompositionRecursive_DDRM();
+    }
+
     /**
      * <p>
      * Returns a {@link SingularValueDecomposition} that has been optimized for the specified matrix size.
@@ -137,6 +175,8 @@ public class DecompositionFactory_DDRM {
      */
     public static SingularValueDecomposition_F64<DMatrixRMaj> svd( int numRows, int numCols,
                                                                    boolean needU, boolean needV, boolean compact ) {
+        if ((needU || needV) && Math.min(numRows, numCols) >= EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER)
+            return new SvdDivideConquerDecompose_DDRM(compact, needU, needV);
         // Don't allow the tall decomposition by default since it *might* be less stable
         return new SvdImplicitQrDecompose_DDRM(compact, needU, needV, false);
     }
@@ -153,6 +193,25 @@ public class DecompositionFactory_DDRM {
         return svd(100, 100, needU, needV, compact);
     }
 
+    /**
+     * <p>
+     * Returns a randomized truncated {@link SingularValueDecomposition} which only computes the 'targetRank'
+     * largest singular values. This is much faster than a full SVD when only a few singular values are needed
+     * from a large matrix. Call {@link SvdRandomized_DDRM#setCenterColumns} to perform PCA.
+     * </p>
+     *
+     * @param targetRank Number of singular values and vectors which are computed.
+     * @param oversample Number of additional samples of the range. Larger is more accurate. Try 10.
+     * @param powerIterations Number of power iterations. Larger is more accurate. Try 1 or 2.
+     * @param needU Should it compute the U matrix. If not sure set to true.
+     * @param needV Should it compute the V matrix. If not sure set to true.
+     * @return SVD
+     */
+    public static SvdRandomized_DDRM svdRandomized( int targetRank, int oversample, int powerIterations,
+                                                    boolean needU, boolean needV ) {
+        return new SvdRandomized_DDRM(targetRank, oversample, powerIterations, needU, needV);
+    }
+
     /**
      * <p>
      * Returns a {@link org.ejml.interfaces.decomposition.QRDecomposition} that has been optimized for the specified matrix size.
@@ -180,6 +239,8 @@ public class DecompositionFactory_DDRM {
      * @return QRPDecomposition_F64
      */
     public static QRPDecomposition_F64<DMatrixRMaj> qrp( int numRows, int numCols ) {
+        if (Math.min(numRows, numCols) >= EjmlParameters.SWITCH_BLOCK_QRP)
+            return new QRColPivDecompositionHouseholderBlock_DDRM();
         return new QRColPivDecompositionHouseholderColumn_DDRM();
     }
 
@@ -214,14 +275,20 @@ public class DecompositionFactory_DDRM {
      * @param matrixSize Number of rows and columns that the returned decomposition is optimized for.
      * @param computeVectors Should it compute the eigenvectors or just eigenvalues.
      * @param isSymmetric If true then the returned algorithm is specialized only for symmetric matrices, if false
-     * then a general purpose algorithm is returned.
+     * then a general purpose algorithm is returned. Large symmetric matrices with eigenvectors are decomposed
+     * using divide and conquer and large general matrices with the multishift QR algorithm.
      * @return EVD for any matrix.
      */
     public static EigenDecomposition_F64<DMatrixRMaj> eig( int matrixSize, boolean computeVectors,
                                                            boolean isSymmetric ) {
         if (isSymmetric) {
             TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp = DecompositionFactory_DDRM.tridiagonal(matrixSize);
+            if (computeVectors && matrixSize >= EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER)
+                return new SymmetricDivideConquerDecomposition_DDRM(decomp,
+                        new SymmetricTridiagonalDivideConquer_DDRM(), true);
             return new SymmetricQRAlgorithmDecomposition_DDRM(decomp, computeVectors);
+        } else if (matrixSize >= EjmlParameters.SWITCH_EIG_MULTISHIFT) {
+            return new MultishiftQRDecomposition_DDRM(computeVectors);
         } else
             return new WatchedDoubleStepQRDecomposition_DDRM(computeVectors);
     }
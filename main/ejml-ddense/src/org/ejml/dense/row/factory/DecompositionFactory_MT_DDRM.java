@@ -23,16 +23,28 @@ import org.ejml.UtilEjml;
 import org.ejml.data.DMatrix;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionBlock_MT_DDRM;
+import org.ejml.dense.row.decomposition.eig.MultishiftQRDecomposition_MT_DDRM;
 import org.ejml.dense.row.decomposition.eig.SwitchingEigenDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricDivideConquerDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.SymmetricQRAlgorithmDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricTridiagonalDivideConquer_MT_DDRM;
 import org.ejml.dense.row.decomposition.eig.watched.WatchedDoubleStepQREigen_DDRM;
 import org.ejml.dense.row.decomposition.eig.watched.WatchedDoubleStepQREigen_MT_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_MT_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecompositionHouseholder_MT_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionBlock_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderBlock_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderColumn_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_MT_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdDivideConquerDecompose_MT_DDRM;
 import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_MT_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdRandomized_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdRandomized_MT_DDRM;
 import org.ejml.interfaces.decomposition.*;
 
 /**
@@ -71,6 +83,25 @@ public class DecompositionFactory_MT_DDRM {
         return chol(100, lower);
     }
 
+    /**
+     * <p>
+     * Returns a {@link LUDecomposition} that has been optimized for the specified matrix size.
+     * </p>
+     *
+     * @param numRows Shape of the matrix that the code should be targeted towards. Does not need to be exact.
+     * @param numCol Shape of the matrix that the code should be targeted towards. Does not need to be exact.
+     * @return LUDecomposition
+     */
+    public static LUDecomposition_F64<DMatrixRMaj> lu( int numRows, int numCol ) {
+        if (Math.min(numRows, numCol) < EjmlParameters.SWITCH_BLOCK_LU)
+            return new LUDecompositionAlt_DDRM();
+        return new LUDecompositionBlock_MT_DDRM(EjmlParameters.BLOCK_WIDTH_LU);
+    }
+
+    public static LUDecomposition_F64<DMatrixRMaj> lu() {
+        return lu(100, 100);
+    }
+
     /**
      * <p>
      * Returns a {@link SingularValueDecomposition} that has been optimized for the specified matrix size.
@@ -86,6 +117,8 @@ public class DecompositionFactory_MT_DDRM {
      */
     public static SingularValueDecomposition_F64<DMatrixRMaj> svd( int numRows, int numCols,
                                                                    boolean needU, boolean needV, boolean compact ) {
+        if ((needU || needV) && Math.min(numRows, numCols) >= EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER)
+            return new SvdDivideConquerDecompose_MT_DDRM(compact, needU, needV);
         // Don't allow the tall decomposition by default since it *might* be less stable
         return new SvdImplicitQrDecompose_MT_DDRM(compact, needU, needV, false);
     }
@@ -102,6 +135,25 @@ public class DecompositionFactory_MT_DDRM {
         return svd(100, 100, needU, needV, compact);
     }
 
+    /**
+     * <p>
+     * Returns a randomized truncated {@link SingularValueDecomposition} which only computes the 'targetRank'
+     * largest singular values. This is much faster than a full SVD when only a few singular values are needed
+     * from a large matrix. Call {@link SvdRandomized_DDRM#setCenterColumns} to perform PCA.
+     * </p>
+     *
+     * @param targetRank Number of singular values and vectors which are computed.
+     * @param oversample Number of additional samples of the range. Larger is more accurate. Try 10.
+     * @param powerIterations Number of power iterations. Larger is more accurate. Try 1 or 2.
+     * @param needU Should it compute the U matrix. If not sure set to true.
+     * @param needV Should it compute the V matrix. If not sure set to true.
+     * @return SVD
+     */
+    public static SvdRandomized_DDRM svdRandomized( int targetRank, int oversample, int powerIterations,
+                                                    boolean needU, boolean needV ) {
+        return new SvdRandomized_MT_DDRM(targetRank, oversample, powerIterations, needU, needV);
+    }
+
     /**
      * <p>
      * Returns a {@link QRDecomposition} that has been optimized for the specified matrix size.
@@ -112,6 +164,8 @@ public class DecompositionFactory_MT_DDRM {
      * @return QRDecomposition
      */
     public static QRDecomposition<DMatrixRMaj> qr( int numRows, int numCols ) {
+        if (QRDecompositionTSQR_DDRM.isPreferred(numRows, numCols))
+            return new QRDecompositionTSQR_MT_DDRM();
         return new QRDecompositionHouseholderColumn_MT_DDRM();
     }
 
@@ -119,6 +173,25 @@ public class DecompositionFactory_MT_DDRM {
         return new QRDecompositionHouseholderColumn_MT_DDRM();
     }
 
+    /**
+     * <p>
+     * Returns a {@link QRPDecomposition_F64} that has been optimized for the specified matrix size.
+     * </p>
+     *
+     * @param numRows Number of rows the returned decomposition is optimized for.
+     * @param numCols Number of columns that the returned decomposition is optimized for.
+     * @return QRPDecomposition_F64
+     */
+    public static QRPDecomposition_F64<DMatrixRMaj> qrp( int numRows, int numCols ) {
+        if (Math.min(numRows, numCols) < EjmlParameters.SWITCH_BLOCK_QRP)
+            return new QRColPivDecompositionHouseholderColumn_DDRM();
+        return new QRColPivDecompositionHouseholderBlock_MT_DDRM();
+    }
+
+    public static QRPDecomposition_F64<DMatrixRMaj> qrp() {
+        return new QRColPivDecompositionHouseholderBlock_MT_DDRM();
+    }
+
     /**
      * <p>
      * Returns an {@link EigenDecomposition} that has been optimized for the specified matrix size.
@@ -149,14 +222,20 @@ public class DecompositionFactory_MT_DDRM {
      * @param matrixSize Number of rows and columns that the returned decomposition is optimized for.
      * @param computeVectors Should it compute the eigenvectors or just eigenvalues.
      * @param isSymmetric If true then the returned algorithm is specialized only for symmetric matrices, if false
-     * then a general purpose algorithm is returned.
+     * then a general purpose algorithm is returned. Large symmetric matrices with eigenvectors are decomposed
+     * using divide and conquer and large general matrices with the multishift QR algorithm.
      * @return EVD for any matrix.
      */
     public static EigenDecomposition_F64<DMatrixRMaj> eig( int matrixSize, boolean computeVectors,
                                                            boolean isSymmetric ) {
         if (isSymmetric) {
             TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp = DecompositionFactory_MT_DDRM.tridiagonal(matrixSize);
+            if (computeVectors && matrixSize >= EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER)
+                return new SymmetricDivideConquerDecomposition_DDRM(decomp,
+                        new SymmetricTridiagonalDivideConquer_MT_DDRM(), true);
             return new SymmetricQRAlgorithmDecomposition_DDRM(decomp, computeVectors);
+        } else if (matrixSize >= EjmlParameters.SWITCH_EIG_MULTISHIFT) {
+            return new MultishiftQRDecomposition_MT_DDRM(computeVectors);
         } else {
             HessenbergSimilarDecomposition_DDRM hessenberg = new HessenbergSimilarDecomposition_MT_DDRM();
             WatchedDoubleStepQREigen_DDRM eigenQR = new WatchedDoubleStepQREigen_MT_DDRM();
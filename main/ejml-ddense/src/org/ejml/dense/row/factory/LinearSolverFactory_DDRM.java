@@ -23,6 +23,8 @@ import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionCommon_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
 import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionBlock_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderBlock_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderColumn_DDRM;
 import org.ejml.dense.row.linsol.AdjustableLinearSolver_DDRM;
 import org.ejml.dense.row.linsol.chol.LinearSolverChol_DDRB;
@@ -86,7 +88,9 @@ public class LinearSolverFactory_DDRM {
      * @return A new linear solver.
      */
     public static LinearSolverDense<DMatrixRMaj> linear( int matrixSize ) {
-        return new LinearSolverLu_DDRM(new LUDecompositionAlt_DDRM());
+        if (matrixSize < EjmlParameters.SWITCH_BLOCK_LU)
+            return new LinearSolverLu_DDRM(new LUDecompositionAlt_DDRM());
+        return new LinearSolverLu_DDRM(new LUDecompositionBlock_DDRM());
     }
 
     /**
@@ -153,9 +157,32 @@ public class LinearSolverFactory_DDRM {
      * @return Pseudo inverse type solver using QR with column pivots.
      */
     public static LinearSolverDense<DMatrixRMaj> leastSquaresQrPivot( boolean computeNorm2, boolean computeQ ) {
-        QRColPivDecompositionHouseholderColumn_DDRM decomposition =
-                new QRColPivDecompositionHouseholderColumn_DDRM();
+        return leastSquaresQrPivot(new QRColPivDecompositionHouseholderColumn_DDRM(), computeNorm2, computeQ);
+    }
+
+    /**
+     * Same as {@link #leastSquaresQrPivot(boolean, boolean)} but the decomposition is selected for the
+     * specified matrix size. Large matrices will use the blocked decomposition.
+     *
+     * @param numRows The number of rows that the decomposition is optimized for.
+     * @param numCols The number of columns that the decomposition is optimized for.
+     * @param computeNorm2 true to compute the minimum 2-norm solution for singular systems. Try true.
+     * @param computeQ Should it precompute Q or use house holder. Try false;
+     * @return Pseudo inverse type solver using QR with column pivots.
+     */
+    public static LinearSolverDense<DMatrixRMaj> leastSquaresQrPivot( int numRows, int numCols,
+                                                                      boolean computeNorm2, boolean computeQ ) {
+        QRColPivDecompositionHouseholderColumn_DDRM decomposition;
+        if (Math.min(numRows, numCols) >= EjmlParameters.SWITCH_BLOCK_QRP)
+            decomposition = new QRColPivDecompositionHouseholderBlock_DDRM();
+        else
+            decomposition = new QRColPivDecompositionHouseholderColumn_DDRM();
+
+        return leastSquaresQrPivot(decomposition, computeNorm2, computeQ);
+    }
 
+    private static LinearSolverDense<DMatrixRMaj> leastSquaresQrPivot( QRColPivDecompositionHouseholderColumn_DDRM decomposition,
+                                                                       boolean computeNorm2, boolean computeQ ) {
         if (computeQ)
             return new SolvePseudoInverseQrp_DDRM(decomposition, computeNorm2);
         else
@@ -22,9 +22,18 @@ import org.ejml.EjmlParameters;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.block.linsol.chol.CholeskyOuterSolver_MT_DDRB;
 import org.ejml.dense.block.linsol.qr.QrHouseHolderSolver_MT_DDRB;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionBlock_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderBlock_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_MT_DDRM;
 import org.ejml.dense.row.linsol.chol.LinearSolverChol_DDRB;
+import org.ejml.dense.row.linsol.lu.LinearSolverLu_DDRM;
 import org.ejml.dense.row.linsol.qr.LinearSolverQrBlock64_DDRM;
 import org.ejml.dense.row.linsol.qr.LinearSolverQrHouseCol_MT_DDRM;
+import org.ejml.dense.row.linsol.qr.LinearSolverQrTSQR_DDRM;
+import org.ejml.dense.row.linsol.qr.LinearSolverQrpHouseCol_DDRM;
+import org.ejml.dense.row.linsol.qr.SolvePseudoInverseQrp_DDRM;
 import org.ejml.interfaces.linsol.LinearSolverDense;
 
 /**
@@ -34,6 +43,13 @@ import org.ejml.interfaces.linsol.LinearSolverDense;
  */
 public class LinearSolverFactory_MT_DDRM {
 
+    /**
+     * Creates a linear solver using LU decomposition
+     */
+    public static LinearSolverDense<DMatrixRMaj> lu( int numRows ) {
+        return linear(numRows);
+    }
+
     /**
      * Creates a linear solver using Cholesky decomposition
      */
@@ -48,6 +64,17 @@ public class LinearSolverFactory_MT_DDRM {
         return leastSquares(numRows, numCols);
     }
 
+    /**
+     * Creates a solver for linear systems. The A matrix will have dimensions (m,m).
+     *
+     * @return A new linear solver.
+     */
+    public static LinearSolverDense<DMatrixRMaj> linear( int matrixSize ) {
+        if (matrixSize < EjmlParameters.SWITCH_BLOCK_LU)
+            return new LinearSolverLu_DDRM(new LUDecompositionAlt_DDRM());
+        return new LinearSolverLu_DDRM(new LUDecompositionBlock_MT_DDRM(EjmlParameters.BLOCK_WIDTH_LU));
+    }
+
     /**
      * Creates a good general purpose solver for over determined systems and returns the optimal least-squares
      * solution. The A matrix will have dimensions (m,n) where m &ge; n.
@@ -57,6 +84,9 @@ public class LinearSolverFactory_MT_DDRM {
      * @return A new least-squares solver for over determined systems.
      */
     public static LinearSolverDense<DMatrixRMaj> leastSquares( int numRows, int numCols ) {
+        if (QRDecompositionTSQR_DDRM.isPreferred(numRows, numCols))
+            return new LinearSolverQrTSQR_DDRM(new QRDecompositionTSQR_MT_DDRM());
+
         if (numCols < EjmlParameters.SWITCH_BLOCK64_QR) {
             return new LinearSolverQrHouseCol_MT_DDRM();
         } else {
@@ -67,6 +97,23 @@ public class LinearSolverFactory_MT_DDRM {
         }
     }
 
+    /**
+     * Linear solver which uses QR pivot decomposition. See
+     * {@link LinearSolverFactory_DDRM#leastSquaresQrPivot(boolean, boolean)} for details.
+     *
+     * @param computeNorm2 true to compute the minimum 2-norm solution for singular systems. Try true.
+     * @param computeQ Should it precompute Q or use house holder. Try false;
+     * @return Pseudo inverse type solver using QR with column pivots.
+     */
+    public static LinearSolverDense<DMatrixRMaj> leastSquaresQrPivot( boolean computeNorm2, boolean computeQ ) {
+        var decomposition = new QRColPivDecompositionHouseholderBlock_MT_DDRM();
+
+        if (computeQ)
+            return new SolvePseudoInverseQrp_DDRM(decomposition, computeNorm2);
+        else
+            return new LinearSolverQrpHouseCol_DDRM(decomposition, computeNorm2);
+    }
+
     /**
      * Creates a solver for symmetric positive definite matrices.
      *
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.linsol.qr;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.SpecializedOps_DDRM;
+import org.ejml.dense.row.decomposition.TriangularSolver_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_DDRM;
+import org.ejml.dense.row.linsol.LinearSolverAbstract_DDRM;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+
+/**
+ * <p>
+ * Least squares solver which uses {@link QRDecompositionTSQR_DDRM}. Intended for systems with many more
+ * equations than variables.
+ * </p>
+ * <p>
+ * QRx=b<br>
+ * Rx=Q<sup>T</sup>b<br>
+ * </p>
+ * <p>
+ * Q<sup>T</sup> is applied to all the columns in b at once, block by block, then the top rows are solved
+ * for using R.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverQrTSQR_DDRM extends LinearSolverAbstract_DDRM {
+
+    protected final QRDecompositionTSQR_DDRM decomposer;
+
+    // storage for Q^T*B
+    protected final DMatrixRMaj work = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj R = new DMatrixRMaj(1, 1);
+
+    public LinearSolverQrTSQR_DDRM( QRDecompositionTSQR_DDRM decomposer ) {
+        this.decomposer = decomposer;
+    }
+
+    public LinearSolverQrTSQR_DDRM() {
+        this(new QRDecompositionTSQR_DDRM());
+    }
+
+    /**
+     * Performs QR decomposition on A
+     *
+     * @param A not modified.
+     */
+    @Override
+    public boolean setA( DMatrixRMaj A ) {
+        if (A.numRows < A.numCols)
+            throw new IllegalArgumentException("Can't solve for wide systems.  More variables than equations.");
+
+        _setA(A);
+        if (!decomposer.decompose(A))
+            return false;
+
+        decomposer.getR(R, true);
+        return true;
+    }
+
+    @Override
+    public /**/double quality() {
+        return SpecializedOps_DDRM.qualityTriangular(R);
+    }
+
+    /**
+     * Solves for X using the QR decomposition.
+     *
+     * @param B A matrix that is n by m.  Not modified.
+     * @param X An n by m matrix where the solution is written to.  Modified.
+     */
+    @Override
+    public void solve( DMatrixRMaj B, DMatrixRMaj X ) {
+        UtilEjml.checkReshapeSolve(numRows, numCols, B, X);
+
+        // work = Q^T*B
+        work.setTo(B);
+        decomposer.applyQTran(work);
+
+        // solve R*X = top rows of work
+        var top = new DMatrixStrided(work.data, 0, work.numCols, numCols, work.numCols);
+        TriangularSolver_DDRM.solveU(new DMatrixStrided(R), top);
+
+        CommonOps_DDRM.extract(work, 0, numCols, 0, work.numCols, X, 0, 0);
+    }
+
+    @Override
+    public boolean modifiesA() {
+        return false;
+    }
+
+    @Override
+    public boolean modifiesB() {
+        return false;
+    }
+
+    @Override
+    public QRDecomposition<DMatrixRMaj> getDecomposition() {
+        return decomposer;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.linsol.qr;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.decomposition.chol.CholeskyUpdate_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Streaming least-squares solver which finds the x that minimizes |A*x - b|<sup>2</sup> as observations, rows in
+ * A and b, are added and removed. Only the triangular factor R of the QR decomposition of the augmented matrix
+ * [A b] is stored, not A or Q. R is also the Cholesky factor of the normal equations. Adding or removing
+ * k observations costs O(k*(n+p)<sup>2</sup>) and solving costs O(p*n<sup>2</sup>), where n is the number of
+ * parameters and p the number of right-hand sides. The cost doesn't depend on the number of observations.
+ * </p>
+ *
+ * <p>
+ * R is stored transposed, as the lower triangular matrix L = R<sup>T</sup>, and is modified with
+ * {@link CholeskyUpdate_DDRM}. Observations are added with Givens rotations and removed with hyperbolic
+ * rotations. Removing observations is less numerically stable than adding them and fails if the remaining
+ * observations don't determine all the parameters.
+ * </p>
+ *
+ * <p>
+ * If a window size is specified then the most recent observations are saved and the oldest one is removed
+ * automatically when a new observation would exceed the window. If removing an observation fails then the
+ * factor is recomputed from the saved observations.
+ * </p>
+ *
+ * <pre>
+ * L = [ R<sub>11</sub><sup>T</sup>  0 ]    R<sub>11</sub>*x = z
+ *     [ z<sup>T</sup>      E ]    E*E<sup>T</sup> = (A*x-b)<sup>T</sup>*(A*x-b)
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class RecursiveLeastSquares_DDRM {
+    // number of parameters and number of right-hand sides
+    private final int numParam;
+    private final int numRhs;
+    // number of observations saved for the sliding window. If <= 0 then they are not saved
+    private final int windowSize;
+
+    // Transpose of the factor R for the augmented system [A b]
+    private final DMatrixRMaj L;
+    private final CholeskyUpdate_DDRM update = new CholeskyUpdate_DDRM();
+    private int numObservations;
+
+    // Observations inside the sliding window, stored in a circular buffer as rows of [A b]
+    private final DMatrixRMaj window;
+    private int windowStart;
+
+    // workspace. Observations as columns, the transpose of [A b]
+    private final DMatrixRMaj work = new DMatrixRMaj(1, 1);
+    private final DMatrixRMaj windowRow;
+    private final DGrowArray zWork = new DGrowArray();
+
+    /**
+     * Creates a solver where observations are only removed explicitly
+     *
+     * @param numParam Number of parameters, columns in A.
+     * @param numRhs Number of right-hand sides, columns in b.
+     */
+    public RecursiveLeastSquares_DDRM( int numParam, int numRhs ) {
+        this(numParam, numRhs, 0);
+    }
+
+    /**
+     * Creates a solver
+     *
+     * @param numParam Number of parameters, columns in A.
+     * @param numRhs Number of right-hand sides, columns in b.
+     * @param windowSize Maximum number of observations. The oldest observation is removed when it's exceeded.
+     * If &le; 0 then there is no limit and observations are removed with {@link #removeObservations}.
+     */
+    public RecursiveLeastSquares_DDRM( int numParam, int numRhs, int windowSize ) {
+        if (numParam <= 0 || numRhs <= 0)
+            throw new IllegalArgumentException("Number of parameters and right-hand sides must be more than zero");
+        this.numParam = numParam;
+        this.numRhs = numRhs;
+        this.windowSize = windowSize;
+        int N = numParam + numRhs;
+        L = new DMatrixRMaj(N, N);
+        window = new DMatrixRMaj(Math.max(0, windowSize), N);
+        windowRow = new DMatrixRMaj(N, 1);
+        zWork.reshape(numParam);
+    }
+
+    /**
+     * Discards all the observations
+     */
+    public void reset() {
+        L.zero();
+        numObservations = 0;
+        windowStart = 0;
+    }
+
+    /**
+     * Adds a single observation with one right-hand side: a<sup>T</sup>*x = b
+     *
+     * @param a Row in A. Not modified.
+     * @param b Value in b
+     */
+    public void addObservation( double[] a, double b ) {
+        if (numRhs != 1)
+            throw new IllegalArgumentException("Expected " + numRhs + " right-hand sides");
+        setWork(a, b);
+        add(work);
+    }
+
+    /**
+     * Adds observations
+     *
+     * @param A Rows which are added to A. k by numParam. Not modified.
+     * @param B Rows which are added to b. k by numRhs. Not modified.
+     */
+    public void addObservations( DMatrixRMaj A, DMatrixRMaj B ) {
+        setWork(A, B);
+        add(work);
+    }
+
+    /**
+     * Removes a single observation with one right-hand side which was previously added. Can't be used with a
+     * sliding window.
+     *
+     * @param a Row in A. Not modified.
+     * @param b Value in b
+     * @return true if successful. If false the solver is not modified.
+     */
+    public boolean removeObservation( double[] a, double b ) {
+        if (numRhs != 1)
+            throw new IllegalArgumentException("Expected " + numRhs + " right-hand sides");
+        checkNoWindow();
+        setWork(a, b);
+        return remove(work);
+    }
+
+    /**
+     * Removes observations which were previously added. Can't be used with a sliding window.
+     *
+     * @param A Rows which are removed from A. k by numParam. Not modified.
+     * @param B Rows which are removed from b. k by numRhs. Not modified.
+     * @return true if successful. If false the solver is not modified.
+     */
+    public boolean removeObservations( DMatrixRMaj A, DMatrixRMaj B ) {
+        checkNoWindow();
+        setWork(A, B);
+        return remove(work);
+    }
+
+    private void checkNoWindow() {
+        if (windowSize > 0)
+            throw new IllegalArgumentException("Observations are removed automatically by the sliding window");
+    }
+
+    /**
+     * Adds observations stored as columns of the transpose of [A b]
+     */
+    private void add( DMatrixRMaj obs ) {
+        if (windowSize <= 0) {
+            update.update(L, obs);
+            numObservations += obs.numCols;
+            return;
+        }
+
+        int N = L.numCols;
+        for (int col = 0; col < obs.numCols; col++) {
+            if (numObservations == windowSize)
+                removeOldest();
+
+            int row = (windowStart + numObservations)%windowSize;
+            for (int i = 0; i < N; i++) {
+                window.data[row*N + i] = obs.data[i*obs.numCols + col];
+            }
+            System.arraycopy(window.data, row*N, windowRow.data, 0, N);
+            update.update(L, windowRow);
+            numObservations++;
+        }
+    }
+
+    private boolean remove( DMatrixRMaj obs ) {
+        if (obs.numCols > numObservations)
+            throw new IllegalArgumentException("Removing more observations than were added");
+        if (!update.downdate(L, obs))
+            return false;
+        numObservations -= obs.numCols;
+        return true;
+    }
+
+    /**
+     * Removes the oldest observation in the window. If the downdate fails then L is recomputed.
+     */
+    private void removeOldest() {
+        int N = L.numCols;
+        System.arraycopy(window.data, windowStart*N, windowRow.data, 0, N);
+        windowStart = (windowStart + 1)%windowSize;
+        numObservations--;
+        if (!update.downdate(L, windowRow))
+            refactor();
+    }
+
+    /**
+     * Recomputes L from the observations in the window
+     */
+    private void refactor() {
+        int N = L.numCols;
+        L.zero();
+        for (int i = 0; i < numObservations; i++) {
+            int row = (windowStart + i)%windowSize;
+            System.arraycopy(window.data, row*N, windowRow.data, 0, N);
+            update.update(L, windowRow);
+        }
+    }
+
+    /**
+     * Computes the least-squares solution from the current observations
+     *
+     * @param X (Output) Solution. Reshaped to numParam by numRhs.
+     * @return false if the observations don't determine all the parameters
+     */
+    public boolean solve( DMatrixRMaj X ) {
+        X.reshape(numParam, numRhs);
+        int N = L.numCols;
+
+        double maxDiag = 0;
+        for (int i = 0; i < numParam; i++) {
+            maxDiag = Math.max(maxDiag, L.data[i*N + i]);
+        }
+        double tol = maxDiag*UtilEjml.EPS;
+
+        // R*x = z where R = L11' and z' is the row below L11
+        double[] z = zWork.data;
+        for (int j = 0; j < numRhs; j++) {
+            System.arraycopy(L.data, (numParam + j)*N, z, 0, numParam);
+            for (int i = numParam - 1; i >= 0; i--) {
+                double lii = L.data[i*N + i];
+                if (!(lii > tol))
+                    return false;
+                double xi = z[i]/lii;
+                X.data[i*numRhs + j] = xi;
+                for (int k = 0; k < i; k++) {
+                    z[k] -= L.data[i*N + k]*xi;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the sum of squared residuals, |A*x - b|<sup>2</sup>, at the least-squares solution
+     *
+     * @param rhs Which right-hand side
+     */
+    public double getResidualSumSquares( int rhs ) {
+        int N = L.numCols;
+        int row = numParam + rhs;
+        double total = 0;
+        for (int k = numParam; k <= row; k++) {
+            double e = L.data[row*N + k];
+            total += e*e;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the upper triangular factor R, where R<sup>T</sup>*R = A<sup>T</sup>*A
+     *
+     * @param R (Output) Storage for R. If null a new instance is declared.
+     * @return numParam by numParam upper triangular matrix
+     */
+    public DMatrixRMaj getR( @Nullable DMatrixRMaj R ) {
+        R = UtilEjml.reshapeOrDeclare(R, numParam, numParam);
+        R.zero();
+        int N = L.numCols;
+        for (int i = 0; i < numParam; i++) {
+            for (int j = 0; j <= i; j++) {
+                R.data[j*numParam + i] = L.data[i*N + j];
+            }
+        }
+        return R;
+    }
+
+    /**
+     * Number of observations currently in the least-squares problem
+     */
+    public int getNumObservations() {
+        return numObservations;
+    }
+
+    public int getNumParam() {
+        return numParam;
+    }
+
+    public int getNumRhs() {
+        return numRhs;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    private void setWork( double[] a, double b ) {
+        if (a.length != numParam)
+            throw new IllegalArgumentException("Expected " + numParam + " parameters");
+        work.reshape(numParam + 1, 1);
+        System.arraycopy(a, 0, work.data, 0, numParam);
+        work.data[numParam] = b;
+    }
+
+    private void setWork( DMatrixRMaj A, DMatrixRMaj B ) {
+        if (A.numCols != numParam)
+            throw new IllegalArgumentException("Expected " + numParam + " columns in A");
+        if (B.numCols != numRhs)
+            throw new IllegalArgumentException("Expected " + numRhs + " columns in B");
+        if (A.numRows != B.numRows)
+            throw new IllegalArgumentException("A and B must have the same number of rows");
+        int k = A.numRows;
+        work.reshape(numParam + numRhs, k);
+        for (int row = 0; row < k; row++) {
+            for (int i = 0; i < numParam; i++) {
+                work.data[i*k + row] = A.data[row*numParam + i];
+            }
+            for (int i = 0; i < numRhs; i++) {
+                work.data[(numParam + i)*k + row] = B.data[row*numRhs + i];
+            }
+        }
+    }
+}
@@ -176,7 +176,7 @@ public class MatrixMatrixMult_DDRM {
             CommonOps_DDRM.fill(C, 0);
             return;
         }
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, A.numRows, i -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, A.numCols, i -> {
         for (int i = 0; i < A.numCols; i++) {
             int indexC_start = i*C.numCols;
 
@@ -437,7 +437,7 @@ public class MatrixMatrixMult_DDRM {
         if (A.numCols == 0 || A.numRows == 0) {
             return;
         }
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, A.numRows, i -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, A.numCols, i -> {
         for (int i = 0; i < A.numCols; i++) {
             int indexC_start = i*C.numCols;
 
@@ -699,7 +699,7 @@ public class MatrixMatrixMult_DDRM {
             CommonOps_DDRM.fill(C, 0);
             return;
         }
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, A.numRows, i -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, A.numCols, i -> {
         for (int i = 0; i < A.numCols; i++) {
             int indexC_start = i*C.numCols;
 
@@ -960,7 +960,7 @@ public class MatrixMatrixMult_DDRM {
         if (A.numCols == 0 || A.numRows == 0) {
             return;
         }
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, A.numRows, i -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, A.numCols, i -> {
         for (int i = 0; i < A.numCols; i++) {
             int indexC_start = i*C.numCols;
 
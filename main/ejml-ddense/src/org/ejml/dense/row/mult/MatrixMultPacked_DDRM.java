@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlParameters;
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix1Row;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.simd.EjmlSimd;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Dense matrix multiplication which is designed to be efficient for large matrices. It follows the approach
+ * used by GotoBLAS and BLIS. The inner dimension is split into blocks of {@link #KC} and the output into
+ * blocks of {@link #MC} rows by {@link #NC} columns. A block of B is copied ("packed") into a contiguous
+ * buffer which fits inside the L3 cache, a block of A into a buffer which fits inside the L2 cache. Inside the
+ * packed buffers the elements are ordered so that the micro-kernel reads both of them sequentially. The
+ * micro-kernel computes a {@link #MR} by {@link #NR} tile of the output, which is small enough that all
+ * of its sums are kept in registers.
+ * </p>
+ *
+ * <p>
+ * Because the transpose is applied while packing, all the variants (A*B, A<sup>T</sup>*B, A*B<sup>T</sup>,
+ * A<sup>T</sup>*B<sup>T</sup>) share the same code and run at the same speed. The scale factor
+ * &alpha; is also applied while packing.
+ * </p>
+ *
+ * <p>
+ * The micro-kernel is provided by {@link EjmlSimd}, which will use SIMD instructions when available.
+ * </p>
+ *
+ * <p>
+ * Packing has a cost which is only worthwhile for larger matrices.
+ * See {@link org.ejml.EjmlParameters#MULT_PACKED_SWITCH}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixMultPacked_DDRM {
+    /** Number of rows in the micro-kernel's tile. See {@link org.ejml.simd.ArrayKernels_F64#gemmKernel4x8} */
+    public static final int MR = 4;
+    /** Number of columns in the micro-kernel's tile */
+    public static final int NR = 8;
+
+    /** Length of a block along the inner dimension. MR*KC and KC*NR should fit inside the L1 cache */
+    public static int KC = 256;
+    /** Number of rows in a block of A. MC*KC should fit inside the L2 cache */
+    public static int MC = 96;
+    /** Number of columns in a block of B. KC*NC should fit inside the L3 cache */
+    public static int NC = 4096;
+
+    /**
+     * Storage for the packed blocks when the caller doesn't provide any, e.g. when called through CommonOps.
+     * Saved for each thread so that it isn't declared again on every call. After it has been used a thread will
+     * hold on to up to (MC*KC + KC*NC) doubles, which is about 8 MB with the default block sizes.
+     */
+    private static final ThreadLocal<DGrowArray[]> cachedWork =
+            ThreadLocal.withInitial(() -> new DGrowArray[]{new DGrowArray(), new DGrowArray()});
+
+    /**
+     * C = &alpha;*op(A)*op(B) or C = C + &alpha;*op(A)*op(B), where op() is an optional transpose.
+     *
+     * @param alpha Scale factor applied to the product
+     * @param A (Input) Left matrix
+     * @param transA If true then A is transposed
+     * @param B (Input) Right matrix
+     * @param transB If true then B is transposed
+     * @param C (Output) Results are written to or added to this matrix. Must already have the correct shape.
+     * @param add If true then the product is added to C. If false then C is overwritten.
+     * @param workA (Optional) Storage for the packed block of A. If null then storage cached for this thread is used.
+     * @param workB (Optional) Storage for the packed block of B. If null then storage cached for this thread is used.
+     */
+    public static void mult( double alpha, DMatrix1Row A, boolean transA, DMatrix1Row B, boolean transB,
+                             DMatrix1Row C, boolean add,
+                             @Nullable DGrowArray workA, @Nullable DGrowArray workB ) {
+        UtilEjml.assertTrue(A != C && B != C, "Neither 'A' or 'B' can be the same matrix as 'C'");
+        mult(alpha, wrap(A), transA, wrap(B), transB, wrap(C), add, workA, workB);
+    }
+
+    /**
+     * Same as {@link #mult(double, DMatrix1Row, boolean, DMatrix1Row, boolean, DMatrix1Row, boolean, DGrowArray, DGrowArray)}
+     * but the matrices can be views of sub-blocks inside larger matrices.
+     */
+    public static void mult( double alpha, DMatrixStrided A, boolean transA, DMatrixStrided B, boolean transB,
+                             DMatrixStrided C, boolean add,
+                             @Nullable DGrowArray workA, @Nullable DGrowArray workB ) {
+        int M = transA ? A.numCols : A.numRows;
+        int K = transA ? A.numRows : A.numCols;
+        int N = transB ? B.numRows : B.numCols;
+        checkInput(A, B, C, M, K, N, transB);
+
+        if (K == 0 || M == 0 || N == 0) {
+            if (!add)
+                C.zero();
+            return;
+        }
+
+        if (workA == null || workB == null) {
+            DGrowArray[] cached = cachedWork.get();
+            if (workA == null) workA = cached[0];
+            if (workB == null) workB = cached[1];
+        }
+        workA.reshape(packedSizeA(M, K) + MR*NR);
+        workB.reshape(packedSizeB(K, N));
+
+        for (int jc = 0; jc < N; jc += NC) {
+            int nc = Math.min(NC, N - jc);
+            for (int pc = 0; pc < K; pc += KC) {
+                int kc = Math.min(KC, K - pc);
+                boolean overwrite = !add && pc == 0;
+                packB(B, transB, pc, kc, jc, nc, workB.data);
+                for (int ic = 0; ic < M; ic += MC) {
+                    int mc = Math.min(MC, M - ic);
+                    packA(alpha, A, transA, ic, mc, pc, kc, workA.data);
+                    macroKernel(mc, nc, kc, workA.data, workB.data, C, ic, jc, overwrite);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the matrices are large enough for the packed algorithm to be the faster choice
+     *
+     * @param M Number of rows in the output
+     * @param K Length of the inner dimension
+     * @param N Number of columns in the output
+     */
+    public static boolean isPreferred( int M, int K, int N ) {
+        int threshold = EjmlParameters.MULT_PACKED_SWITCH;
+        return M >= threshold && K >= threshold && N >= threshold;
+    }
+
+    /**
+     * Creates a view of the entire matrix
+     */
+    static DMatrixStrided wrap( DMatrix1Row M ) {
+        return new DMatrixStrided(M.data, 0, M.numCols, M.numRows, M.numCols);
+    }
+
+    static void checkInput( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C,
+                            int M, int K, int N, boolean transB ) {
+        UtilEjml.assertTrue(!C.isOverlapping(A) && !C.isOverlapping(B),
+                "'C' can't reference the same elements as 'A' or 'B'");
+        UtilEjml.assertShape(K, transB ? B.numCols : B.numRows,
+                "The 'A' and 'B' matrices do not have compatible dimensions");
+        UtilEjml.assertShape(C.numRows == M && C.numCols == N, "'C' has an unexpected shape");
+    }
+
+    /** Size of the array needed to store packed blocks of A */
+    static int packedSizeA( int M, int K ) {
+        return roundUp(Math.min(MC, M), MR)*Math.min(KC, K);
+    }
+
+    /** Size of the array needed to store packed blocks of B */
+    static int packedSizeB( int K, int N ) {
+        return Math.min(KC, K)*roundUp(Math.min(NC, N), NR);
+    }
+
+    static int roundUp( int value, int multiple ) {
+        return (value + multiple - 1)/multiple*multiple;
+    }
+
+    /**
+     * Copies rows ic to ic+mc and columns pc to pc+kc of op(A) into panels which are MR rows tall. Inside a panel
+     * the MR elements in each column are next to each other. Missing rows in the last panel are filled with zeros.
+     */
+    static void packA( double alpha, DMatrixStrided A, boolean transA, int ic, int mc, int pc, int kc, double[] packed ) {
+        final double[] data = A.data;
+        final int offset = A.offset;
+        final int stride = A.stride;
+        int index = 0;
+        for (int ir = 0; ir < mc; ir += MR) {
+            int mr = Math.min(MR, mc - ir);
+            if (transA) {
+                // op(A)[i][p] = A[p][i], which makes each column of the panel contiguous in A
+                for (int p = 0; p < kc; p++) {
+                    int indexA = offset + (pc + p)*stride + ic + ir;
+                    for (int i = 0; i < mr; i++) {
+                        packed[index + i] = alpha*data[indexA + i];
+                    }
+                    for (int i = mr; i < MR; i++) {
+                        packed[index + i] = 0.0;
+                    }
+                    index += MR;
+                }
+            } else {
+                for (int i = 0; i < mr; i++) {
+                    int indexA = offset + (ic + ir + i)*stride + pc;
+                    for (int p = 0; p < kc; p++) {
+                        packed[index + p*MR + i] = alpha*data[indexA + p];
+                    }
+                }
+                for (int i = mr; i < MR; i++) {
+                    for (int p = 0; p < kc; p++) {
+                        packed[index + p*MR + i] = 0.0;
+                    }
+                }
+                index += MR*kc;
+            }
+        }
+    }
+
+    /**
+     * Copies rows pc to pc+kc and columns jc to jc+nc of op(B) into panels which are NR columns wide. Inside a
+     * panel the NR elements in each row are next to each other. Missing columns in the last panel are filled
+     * with zeros.
+     */
+    static void packB( DMatrixStrided B, boolean transB, int pc, int kc, int jc, int nc, double[] packed ) {
+        final double[] data = B.data;
+        final int offset = B.offset;
+        final int stride = B.stride;
+        int index = 0;
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            if (transB) {
+                // op(B)[p][j] = B[j][p], which makes each row of the panel strided in the packed array
+                for (int j = 0; j < nr; j++) {
+                    int indexB = offset + (jc + jr + j)*stride + pc;
+                    for (int p = 0; p < kc; p++) {
+                        packed[index + p*NR + j] = data[indexB + p];
+                    }
+                }
+                for (int j = nr; j < NR; j++) {
+                    for (int p = 0; p < kc; p++) {
+                        packed[index + p*NR + j] = 0.0;
+                    }
+                }
+                index += NR*kc;
+            } else {
+                for (int p = 0; p < kc; p++) {
+                    int indexB = offset + (pc + p)*stride + jc + jr;
+                    for (int j = 0; j < nr; j++) {
+                        packed[index + j] = data[indexB + j];
+                    }
+                    for (int j = nr; j < NR; j++) {
+                        packed[index + j] = 0.0;
+                    }
+                    index += NR;
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies a packed block of A against a packed block of B and writes the results into C. The last
+     * MR*NR elements in packedA are used to store the micro-kernel's output.
+     */
+    static void macroKernel( int mc, int nc, int kc, double[] packedA, double[] packedB,
+                             DMatrixStrided C, int ic, int jc, boolean overwrite ) {
+        final int tile = packedSizeA(mc, kc);
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            int indexB = jr*kc;
+            for (int ir = 0; ir < mc; ir += MR) {
+                int mr = Math.min(MR, mc - ir);
+                EjmlSimd.KERNELS_F64.gemmKernel4x8(kc, packedA, ir*kc, packedB, indexB, packedA, tile);
+                storeTile(packedA, tile, mr, nr, C, ic + ir, jc + jr, overwrite);
+            }
+        }
+    }
+
+    /**
+     * Writes the valid part of the micro-kernel's output into C
+     */
+    static void storeTile( double[] tile, int indexTile, int mr, int nr,
+                           DMatrixStrided C, int row0, int col0, boolean overwrite ) {
+        final double[] data = C.data;
+        for (int i = 0; i < mr; i++) {
+            int indexC = C.index(row0 + i, col0);
+            int indexT = indexTile + i*NR;
+            if (overwrite) {
+                System.arraycopy(tile, indexT, data, indexC, nr);
+            } else {
+                for (int j = 0; j < nr; j++) {
+                    data[indexC + j] += tile[indexT + j];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.mult;
+
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix1Row;
+import org.ejml.data.DMatrixStrided;
+import org.jetbrains.annotations.Nullable;
+import pabeles.concurrency.GrowArray;
+
+import static org.ejml.dense.row.mult.MatrixMultPacked_DDRM.*;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link MatrixMultPacked_DDRM}. Each block of B is packed once and shared by
+ * all the threads. The rows of the output are split between threads, with each thread packing its own
+ * blocks of A. Since threads write to different rows of C no synchronization is needed.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixMultPacked_MT_DDRM {
+    /**
+     * C = &alpha;*op(A)*op(B) or C = C + &alpha;*op(A)*op(B), where op() is an optional transpose.
+     *
+     * @param alpha Scale factor applied to the product
+     * @param A (Input) Left matrix
+     * @param transA If true then A is transposed
+     * @param B (Input) Right matrix
+     * @param transB If true then B is transposed
+     * @param C (Output) Results are written to or added to this matrix. Must already have the correct shape.
+     * @param add If true then the product is added to C. If false then C is overwritten.
+     * @param workA (Optional) Storage for each thread's packed block of A. Can be null.
+     * @param workB (Optional) Storage for the packed block of B. Can be null.
+     */
+    public static void mult( double alpha, DMatrix1Row A, boolean transA, DMatrix1Row B, boolean transB,
+                             DMatrix1Row C, boolean add,
+                             @Nullable GrowArray<DGrowArray> workA, @Nullable DGrowArray workB ) {
+        UtilEjml.assertTrue(A != C && B != C, "Neither 'A' or 'B' can be the same matrix as 'C'");
+        mult(alpha, wrap(A), transA, wrap(B), transB, wrap(C), add, workA, workB);
+    }
+
+    /**
+     * Same as {@link #mult(double, DMatrix1Row, boolean, DMatrix1Row, boolean, DMatrix1Row, boolean, GrowArray, DGrowArray)}
+     * but the matrices can be views of sub-blocks inside larger matrices.
+     */
+    public static void mult( double alpha, DMatrixStrided A, boolean transA, DMatrixStrided B, boolean transB,
+                             DMatrixStrided C, boolean add,
+                             @Nullable GrowArray<DGrowArray> workA, @Nullable DGrowArray workB ) {
+        final int M = transA ? A.numCols : A.numRows;
+        final int K = transA ? A.numRows : A.numCols;
+        final int N = transB ? B.numRows : B.numCols;
+        checkInput(A, B, C, M, K, N, transB);
+
+        if (K == 0 || M == 0 || N == 0) {
+            if (!add)
+                C.zero();
+            return;
+        }
+
+        workA = UtilEjml.checkDeclare_F64(workA);
+        if (workB == null) workB = new DGrowArray();
+        workB.reshape(packedSizeB(K, N));
+        final double[] packedB = workB.data;
+
+        // Rows are handed out in multiples of MR so that only the last thread has a partial panel
+        final int numPanels = (M + MR - 1)/MR;
+
+        for (int jc = 0; jc < N; jc += NC) {
+            final int _jc = jc;
+            final int nc = Math.min(NC, N - jc);
+            for (int pc = 0; pc < K; pc += KC) {
+                final int _pc = pc;
+                final int kc = Math.min(KC, K - pc);
+                final boolean overwrite = !add && pc == 0;
+                packB(B, transB, pc, kc, jc, nc, packedB);
+
+                EjmlConcurrency.loopBlocks(0, numPanels, workA, ( work, panel0, panel1 ) -> {
+                    int row0 = panel0*MR;
+                    int row1 = Math.min(M, panel1*MR);
+                    work.reshape(packedSizeA(row1 - row0, kc) + MR*NR);
+                    for (int ic = row0; ic < row1; ic += MC) {
+                        int mc = Math.min(MC, row1 - ic);
+                        packA(alpha, A, transA, ic, mc, _pc, kc, work.data);
+                        macroKernel(mc, nc, kc, work.data, packedB, C, ic, _jc, overwrite);
+                    }
+                });
+            }
+        }
+    }
+}
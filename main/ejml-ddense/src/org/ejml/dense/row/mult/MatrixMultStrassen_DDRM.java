@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix1Row;
+import org.ejml.data.DMatrixStrided;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Matrix multiplication, C = A*B, using the Winograd variant of Strassen's algorithm. Each level of recursion
+ * splits the matrices into quadrants and computes the product with 7 multiplications and 15 additions of the
+ * quadrants, instead of 8 multiplications. Once a dimension is at or below {@link #CUTOFF} the classical
+ * algorithm ({@link MatrixMultPacked_DDRM}) is used. Odd dimensions are handled by peeling off the last row or
+ * column and fixing up the result afterwards.
+ * </p>
+ *
+ * <p>
+ * All the temporary matrices are views into a single array, which is allocated once before the recursion starts.
+ * The operations are scheduled so that only two temporary matrices are needed at each level, see [1]. The total
+ * memory used is less than the size of A plus B.
+ * </p>
+ *
+ * <p>
+ * Compared to the classical algorithm the error bound is a bit larger, but it is still normwise stable.
+ * It's only used for very large matrices. See {@link EjmlParameters#MULT_STRASSEN_SWITCH}.
+ * </p>
+ *
+ * <p>
+ * [1] Boyer, Dumas, Pernet, and Zhou. "Memory efficient scheduling of Strassen-Winograd's matrix multiplication
+ * algorithm." ISSAC 2009
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixMultStrassen_DDRM {
+    /** The classical algorithm is used once any dimension is at or below this size */
+    public static int CUTOFF = 256;
+
+    /**
+     * C = A*B
+     *
+     * @param A (Input) Left matrix
+     * @param B (Input) Right matrix
+     * @param C (Output) Storage for the results. Must already have the correct shape and can't reference
+     * the same elements as A or B.
+     * @param work (Optional) Storage for temporary matrices. Can be null.
+     */
+    public static void mult( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C, @Nullable DGrowArray work ) {
+        mult(MatrixMultPacked_DDRM.wrap(A), MatrixMultPacked_DDRM.wrap(B), MatrixMultPacked_DDRM.wrap(C), work);
+    }
+
+    /**
+     * Same as {@link #mult(DMatrix1Row, DMatrix1Row, DMatrix1Row, DGrowArray)} but the matrices can be views of
+     * sub-blocks inside larger matrices.
+     */
+    public static void mult( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C, @Nullable DGrowArray work ) {
+        MatrixMultPacked_DDRM.checkInput(A, B, C, A.numRows, A.numCols, B.numCols, false);
+
+        if (work == null) work = new DGrowArray();
+        work.reshape(workspaceSize(A.numRows, A.numCols, B.numCols));
+
+        // storage for the packed blocks used by the classical algorithm
+        var workA = new DGrowArray();
+        var workB = new DGrowArray();
+
+        multRecursive(A, B, C, work.data, 0, workA, workB);
+    }
+
+    /**
+     * Returns true if the matrices are large enough for Strassen to be the faster choice
+     *
+     * @param M Number of rows in the output
+     * @param K Length of the inner dimension
+     * @param N Number of columns in the output
+     */
+    public static boolean isPreferred( int M, int K, int N ) {
+        int threshold = EjmlParameters.MULT_STRASSEN_SWITCH;
+        return M >= threshold && K >= threshold && N >= threshold;
+    }
+
+    /**
+     * Returns true if the product should be computed with the classical algorithm
+     */
+    static boolean isLeaf( int M, int K, int N ) {
+        return Math.min(M, Math.min(K, N)) <= Math.max(1, CUTOFF);
+    }
+
+    /**
+     * Number of elements needed to store the temporary matrices at every level of the recursion
+     */
+    static int workspaceSize( int M, int K, int N ) {
+        int total = 0;
+        while (!isLeaf(M, K, N)) {
+            M /= 2;
+            K /= 2;
+            N /= 2;
+            total += M*Math.max(K, N) + K*N;
+        }
+        return total;
+    }
+
+    /**
+     * Recursively computes C = A*B. The two temporary matrices for this level start at 'offset' inside 'work'
+     * and the ones for the next level follow right after.
+     */
+    static void multRecursive( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C,
+                               double[] work, int offset, DGrowArray workA, DGrowArray workB ) {
+        final int M = A.numRows, K = A.numCols, N = B.numCols;
+        if (isLeaf(M, K, N)) {
+            multClassical(A, B, C, workA, workB);
+            return;
+        }
+
+        final int m = M/2, k = K/2, n = N/2;
+        DMatrixStrided A11 = A.subview(0, 0, m, k), A12 = A.subview(0, k, m, k);
+        DMatrixStrided A21 = A.subview(m, 0, m, k), A22 = A.subview(m, k, m, k);
+        DMatrixStrided B11 = B.subview(0, 0, k, n), B12 = B.subview(0, n, k, n);
+        DMatrixStrided B21 = B.subview(k, 0, k, n), B22 = B.subview(k, n, k, n);
+        DMatrixStrided C11 = C.subview(0, 0, m, n), C12 = C.subview(0, n, m, n);
+        DMatrixStrided C21 = C.subview(m, 0, m, n), C22 = C.subview(m, n, m, n);
+
+        // X stores an m by k sum of A's quadrants and later an m by n product
+        final int sizeX = m*Math.max(k, n);
+        var XS = new DMatrixStrided(work, offset, k, m, k);
+        var XP = new DMatrixStrided(work, offset, n, m, n);
+        var Y = new DMatrixStrided(work, offset + sizeX, n, k, n);
+        final int next = offset + sizeX + k*n;
+
+        // Schedule from Table 1 in [1]. Comments show the Strassen-Winograd variable being computed
+        minus(A11, A21, XS);                                      // S3
+        minus(B22, B12, Y);                                       // T3
+        multRecursive(XS, Y, C21, work, next, workA, workB);      // P7
+        plus(A21, A22, XS);                                       // S1
+        minus(B12, B11, Y);                                       // T1
+        multRecursive(XS, Y, C22, work, next, workA, workB);      // P5
+        minus(XS, A11, XS);                                       // S2
+        minus(B22, Y, Y);                                         // T2
+        multRecursive(XS, Y, C12, work, next, workA, workB);      // P6
+        minus(A12, XS, XS);                                       // S4
+        multRecursive(XS, B22, C11, work, next, workA, workB);    // P3
+        multRecursive(A11, B11, XP, work, next, workA, workB);    // P1
+        plus(XP, C12, C12);                                       // U2
+        plus(C12, C21, C21);                                      // U3
+        plus(C12, C22, C12);                                      // U4
+        plus(C21, C22, C22);                                      // U7
+        plus(C12, C11, C12);                                      // U5
+        minus(Y, B21, Y);                                         // T4
+        multRecursive(A22, Y, C11, work, next, workA, workB);     // P4
+        minus(C21, C11, C21);                                     // U6
+        multRecursive(A12, B21, C11, work, next, workA, workB);   // P2
+        plus(XP, C11, C11);                                       // U1
+
+        fixupOddDimensions(A, B, C, 2*m, 2*k, 2*n);
+    }
+
+    /**
+     * The recursion only handles the even part of each dimension. This adds in the contribution from the last
+     * row and column when a dimension is odd.
+     *
+     * @param M2 Number of rows in C which have been computed
+     * @param K2 Length of the inner dimension which has been processed
+     * @param N2 Number of columns in C which have been computed
+     */
+    static void fixupOddDimensions( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C, int M2, int K2, int N2 ) {
+        final int M = A.numRows, K = A.numCols, N = B.numCols;
+
+        if (K2 < K) {
+            // C[0:M2,0:N2] += A[0:M2,K2]*B[K2,0:N2]
+            MatrixMultStrided_DDRM.mult(1.0, A.subview(0, K2, M2, 1), false, B.subview(K2, 0, 1, N2), false,
+                    C.subview(0, 0, M2, N2), true);
+        }
+        if (N2 < N) {
+            // C[:,N2] = A*B[:,N2]
+            MatrixMultStrided_DDRM.mult(1.0, A, false, B.subview(0, N2, K, 1), false, C.subview(0, N2, M, 1), false);
+        }
+        if (M2 < M) {
+            // C[M2,0:N2] = A[M2,:]*B[:,0:N2]
+            MatrixMultStrided_DDRM.mult(1.0, A.subview(M2, 0, 1, K), false, B.subview(0, 0, K, N2), false,
+                    C.subview(M2, 0, 1, N2), false);
+        }
+    }
+
+    static void multClassical( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C,
+                               DGrowArray workA, DGrowArray workB ) {
+        if (MatrixMultPacked_DDRM.isPreferred(A.numRows, A.numCols, B.numCols)) {
+            MatrixMultPacked_DDRM.mult(1.0, A, false, B, false, C, false, workA, workB);
+        } else {
+            MatrixMultStrided_DDRM.mult(1.0, A, false, B, false, C, false);
+        }
+    }
+
+    /**
+     * c = a + b. 'c' can be the same view as 'a' or 'b'.
+     */
+    static void plus( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+        for (int i = 0; i < a.numRows; i++) {
+            int indexA = a.index(i, 0);
+            int indexB = b.index(i, 0);
+            int indexC = c.index(i, 0);
+            final int end = indexC + a.numCols;
+            while (indexC < end) {
+                dataC[indexC++] = dataA[indexA++] + dataB[indexB++];
+            }
+        }
+    }
+
+    /**
+     * c = a - b. 'c' can be the same view as 'a' or 'b'.
+     */
+    static void minus( DMatrixStrided a, DMatrixStrided b, DMatrixStrided c ) {
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+        for (int i = 0; i < a.numRows; i++) {
+            int indexA = a.index(i, 0);
+            int indexB = b.index(i, 0);
+            int indexC = c.index(i, 0);
+            final int end = indexC + a.numCols;
+            while (indexC < end) {
+                dataC[indexC++] = dataA[indexA++] - dataB[indexB++];
+            }
+        }
+    }
+}
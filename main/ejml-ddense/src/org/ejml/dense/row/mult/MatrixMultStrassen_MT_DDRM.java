@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.mult;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrix1Row;
+import org.ejml.data.DMatrixStrided;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import static org.ejml.dense.row.mult.MatrixMultStrassen_DDRM.*;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link MatrixMultStrassen_DDRM}. At the top levels of the recursion the seven
+ * sub-products are independent ForkJoin tasks which run in {@link EjmlConcurrency}'s thread pool. Once there
+ * are at least as many tasks as threads, each task switches to the single threaded algorithm, which allocates
+ * its workspace once and reuses it for the rest of its recursion.
+ * </p>
+ *
+ * <p>
+ * For the sub-products to run at the same time each one needs its own operands and output. At the concurrent
+ * levels this requires more memory than the single threaded schedule.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixMultStrassen_MT_DDRM {
+    /**
+     * C = A*B
+     *
+     * @param A (Input) Left matrix
+     * @param B (Input) Right matrix
+     * @param C (Output) Storage for the results. Must already have the correct shape and can't reference
+     * the same elements as A or B.
+     */
+    public static void mult( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        mult(MatrixMultPacked_DDRM.wrap(A), MatrixMultPacked_DDRM.wrap(B), MatrixMultPacked_DDRM.wrap(C));
+    }
+
+    /**
+     * Same as {@link #mult(DMatrix1Row, DMatrix1Row, DMatrix1Row)} but the matrices can be views of
+     * sub-blocks inside larger matrices.
+     */
+    public static void mult( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C ) {
+        MatrixMultPacked_DDRM.checkInput(A, B, C, A.numRows, A.numCols, B.numCols, false);
+        EjmlConcurrency.getThreadPool().invoke(new Product(A, B, C, 1));
+    }
+
+    /**
+     * Computes C = A*B. Splits into seven concurrent sub-products if there are fewer tasks than threads.
+     *
+     * @param numTasks Number of products being computed at this level of the recursion
+     */
+    static void multRecursive( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C, int numTasks ) {
+        final int M = A.numRows, K = A.numCols, N = B.numCols;
+        if (isLeaf(M, K, N) || numTasks >= EjmlConcurrency.getMaxThreads()) {
+            MatrixMultStrassen_DDRM.mult(A, B, C, null);
+            return;
+        }
+
+        final int m = M/2, k = K/2, n = N/2;
+        DMatrixStrided A11 = A.subview(0, 0, m, k), A12 = A.subview(0, k, m, k);
+        DMatrixStrided A21 = A.subview(m, 0, m, k), A22 = A.subview(m, k, m, k);
+        DMatrixStrided B11 = B.subview(0, 0, k, n), B12 = B.subview(0, n, k, n);
+        DMatrixStrided B21 = B.subview(k, 0, k, n), B22 = B.subview(k, n, k, n);
+        DMatrixStrided C11 = C.subview(0, 0, m, n), C12 = C.subview(0, n, m, n);
+        DMatrixStrided C21 = C.subview(m, 0, m, n), C22 = C.subview(m, n, m, n);
+
+        var S1 = new DMatrixStrided(m, k);
+        var S2 = new DMatrixStrided(m, k);
+        var S3 = new DMatrixStrided(m, k);
+        var S4 = new DMatrixStrided(m, k);
+        plus(A21, A22, S1);
+        minus(S1, A11, S2);
+        minus(A11, A21, S3);
+        minus(A12, S2, S4);
+
+        var T1 = new DMatrixStrided(k, n);
+        var T2 = new DMatrixStrided(k, n);
+        var T3 = new DMatrixStrided(k, n);
+        var T4 = new DMatrixStrided(k, n);
+        minus(B12, B11, T1);
+        minus(B22, T1, T2);
+        minus(B22, B12, T3);
+        minus(T2, B21, T4);
+
+        // four of the products are written directly into C's quadrants
+        var P1 = new DMatrixStrided(m, n);
+        var P2 = new DMatrixStrided(m, n);
+        var P4 = new DMatrixStrided(m, n);
+        final int childTasks = numTasks*7;
+        ForkJoinTask.invokeAll(
+                new Product(A11, B11, P1, childTasks),
+                new Product(A12, B21, P2, childTasks),
+                new Product(S4, B22, C11, childTasks), // P3
+                new Product(A22, T4, P4, childTasks),
+                new Product(S1, T1, C22, childTasks),  // P5
+                new Product(S2, T2, C12, childTasks),  // P6
+                new Product(S3, T3, C21, childTasks)); // P7
+
+        plus(P1, C12, C12);   // U2
+        plus(C12, C21, C21);  // U3
+        plus(C12, C22, C12);  // U4
+        plus(C21, C22, C22);  // U7
+        plus(C12, C11, C12);  // U5
+        minus(C21, P4, C21);  // U6
+        plus(P1, P2, C11);    // U1
+
+        fixupOddDimensions(A, B, C, 2*m, 2*k, 2*n);
+    }
+
+    /**
+     * Task which computes a single sub-product
+     */
+    static class Product extends RecursiveAction {
+        final DMatrixStrided A, B, C;
+        final int numTasks;
+
+        Product( DMatrixStrided A, DMatrixStrided B, DMatrixStrided C, int numTasks ) {
+            this.A = A;
+            this.B = B;
+            this.C = C;
+            this.numTasks = numTasks;
+        }
+
+        @Override
+        protected void compute() {
+            multRecursive(A, B, C, numTasks);
+        }
+    }
+}
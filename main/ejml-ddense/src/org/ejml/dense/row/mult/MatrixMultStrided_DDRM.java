@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.mult;
+
+import org.ejml.data.DMatrixStrided;
+import org.ejml.simd.EjmlSimd;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Matrix multiplication for {@link DMatrixStrided}, which lets the inputs and output be sub-blocks inside of
+ * larger matrices without copying them. Large matrices are handed off to {@link MatrixMultPacked_DDRM}, which
+ * packs the blocks it needs anyways. Small matrices are processed one row at a time.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixMultStrided_DDRM {
+    /**
+     * C = &alpha;*op(A)*op(B) or C = C + &alpha;*op(A)*op(B), where op() is an optional transpose.
+     *
+     * @param alpha Scale factor applied to the product
+     * @param A (Input) Left matrix
+     * @param transA If true then A is transposed
+     * @param B (Input) Right matrix
+     * @param transB If true then B is transposed
+     * @param C (Output) Results are written to or added to this matrix. Must already have the correct shape and
+     * can't reference the same elements as A or B.
+     * @param add If true then the product is added to C. If false then C is overwritten.
+     */
+    public static void mult( double alpha, DMatrixStrided A, boolean transA, DMatrixStrided B, boolean transB,
+                             DMatrixStrided C, boolean add ) {
+        int M = transA ? A.numCols : A.numRows;
+        int K = transA ? A.numRows : A.numCols;
+        int N = transB ? B.numRows : B.numCols;
+
+        if (MatrixMultPacked_DDRM.isPreferred(M, K, N)) {
+            MatrixMultPacked_DDRM.mult(alpha, A, transA, B, transB, C, add, null, null);
+            return;
+        }
+
+        MatrixMultPacked_DDRM.checkInput(A, B, C, M, K, N, transB);
+
+        if (transB) {
+            multTransB(alpha, A, transA, B, C, add, M, K, N);
+        } else {
+            multReorder(alpha, A, transA, B, C, add, M, K, N);
+        }
+    }
+
+    /**
+     * Each row in C is computed by adding scaled rows of B to it
+     */
+    static void multReorder( double alpha, DMatrixStrided A, boolean transA, DMatrixStrided B,
+                             DMatrixStrided C, boolean add, int M, int K, int N ) {
+        final double[] dataA = A.data, dataB = B.data, dataC = C.data;
+        for (int i = 0; i < M; i++) {
+            int indexC = C.index(i, 0);
+            if (!add) {
+                if (K == 0) {
+                    Arrays.fill(dataC, indexC, indexC + N, 0.0);
+                    continue;
+                }
+                double valA = alpha*(transA ? dataA[A.index(0, i)] : dataA[A.index(i, 0)]);
+                EjmlSimd.KERNELS_F64.scale(valA, dataB, B.index(0, 0), dataC, indexC, N);
+            }
+            for (int p = add ? 0 : 1; p < K; p++) {
+                double valA = alpha*(transA ? dataA[A.index(p, i)] : dataA[A.index(i, p)]);
+                EjmlSimd.KERNELS_F64.axpy(valA, dataB, B.index(p, 0), dataC, indexC, N);
+            }
+        }
+    }
+
+    /**
+     * Each element in C is the inner product of a row in op(A) and a row in B
+     */
+    static void multTransB( double alpha, DMatrixStrided A, boolean transA, DMatrixStrided B,
+                            DMatrixStrided C, boolean add, int M, int K, int N ) {
+        final double[] dataA = A.data, dataB = B.data, dataC = C.data;
+        for (int i = 0; i < M; i++) {
+            int indexC = C.index(i, 0);
+            for (int j = 0; j < N; j++) {
+                double sum;
+                if (transA) {
+                    // the row in op(A) is a column in A and isn't contiguous
+                    int indexB = B.index(j, 0);
+                    sum = 0;
+                    for (int p = 0; p < K; p++) {
+                        sum += dataA[A.index(p, i)]*dataB[indexB + p];
+                    }
+                } else {
+                    sum = EjmlSimd.KERNELS_F64.dot(dataA, A.index(i, 0), dataB, B.index(j, 0), K);
+                }
+                if (add)
+                    dataC[indexC + j] += alpha*sum;
+                else
+                    dataC[indexC + j] = alpha*sum;
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.ejml.dense.row.mult;
 import org.ejml.data.DMatrix1Row;
 import org.ejml.data.DMatrixD1;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.simd.EjmlSimd;
 
 /**
  * Operations that involve multiplication of two vectors.
@@ -49,12 +50,7 @@ public class VectorVectorMult_DDRM {
     public static double innerProd( DMatrixD1 x, DMatrixD1 y ) {
         int m = x.getNumElements();
 
-        double total = 0;
-        for (int i = 0; i < m; i++) {
-            total += x.get(i)*y.get(i);
-        }
-
-        return total;
+        return EjmlSimd.KERNELS_F64.dot(x.data, 0, y.data, 0, m);
     }
 
     /**
@@ -115,14 +111,23 @@ public class VectorVectorMult_DDRM {
 
         double result = 0;
 
-        for (int i = 0; i < n; i++) {
-            double total = 0;
+        // the array kernel can only be used if the rows are stored contiguously
+        if (A instanceof DMatrix1Row) {
+            for (int i = 0; i < n; i++) {
+                double total = EjmlSimd.KERNELS_F64.dot(x.data, 0, A.data, i*n, n);
 
-            for (int j = 0; j < n; j++) {
-                total += x.get(j)*A.unsafe_get(i, j);
+                result += total*y.get(i);
             }
+        } else {
+            for (int i = 0; i < n; i++) {
+                double total = 0;
 
-            result += total*y.get(i);
+                for (int j = 0; j < n; j++) {
+                    total += x.get(j)*A.unsafe_get(i, j);
+                }
+
+                result += total*y.get(i);
+            }
         }
 
         return result;
@@ -153,12 +158,8 @@ public class VectorVectorMult_DDRM {
         int m = A.numRows;
         int n = A.numCols;
 
-        int index = 0;
         for (int i = 0; i < m; i++) {
-            double xdat = x.get(i);
-            for (int j = 0; j < n; j++) {
-                A.set(index++, xdat*y.get(j));
-            }
+            EjmlSimd.KERNELS_F64.scale(x.get(i), y.data, 0, A.data, i*n, n);
         }
     }
 
@@ -188,21 +189,8 @@ public class VectorVectorMult_DDRM {
         int m = A.numRows;
         int n = A.numCols;
 
-        int index = 0;
-        if (gamma == 1.0) {
-            for (int i = 0; i < m; i++) {
-                double xdat = x.get(i);
-                for (int j = 0; j < n; j++) {
-                    A.plus(index++, xdat*y.get(j));
-                }
-            }
-        } else {
-            for (int i = 0; i < m; i++) {
-                double xdat = x.get(i);
-                for (int j = 0; j < n; j++) {
-                    A.plus(index++, gamma*xdat*y.get(j));
-                }
-            }
+        for (int i = 0; i < m; i++) {
+            EjmlSimd.KERNELS_F64.axpy(gamma*x.get(i), y.data, 0, A.data, i*n, n);
         }
     }
 
@@ -225,10 +213,7 @@ public class VectorVectorMult_DDRM {
                                     DMatrixD1 x, DMatrixD1 y ) {
         int n = u.getNumElements();
 
-        double sum = 0;
-        for (int i = 0; i < n; i++) {
-            sum += u.get(i)*x.get(i);
-        }
+        double sum = EjmlSimd.KERNELS_F64.dot(u.data, 0, x.data, 0, n);
         for (int i = 0; i < n; i++) {
             y.set(i, x.get(i) + gamma*u.get(i)*sum);
         }
@@ -287,13 +272,8 @@ public class VectorVectorMult_DDRM {
                                     DMatrixRMaj w ) {
         int n = u.getNumElements();
 
-        int matrixIndex = 0;
         for (int i = 0; i < n; i++) {
-            double elementU = u.data[i];
-
-            for (int j = 0; j < n; j++) {
-                A.data[matrixIndex++] += gamma*elementU*w.data[j];
-            }
+            EjmlSimd.KERNELS_F64.axpy(gamma*u.data[i], w.data, 0, A.data, i*n, n);
         }
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.bidiagonal;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.bidiagonal.BidiagonalDecompositionRow_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBidiagonalDecompositionHouseholder_DDRB {
+    Random rand = new Random(234);
+
+    /**
+     * The reflectors should be identical to the row major implementation for all shapes, including ones
+     * which don't align with the blocks.
+     */
+    @Test
+    void compareToRow() {
+        for (int r : new int[]{1, 2, 3, 5}) {
+            for (int rows = 1; rows <= 4*r + 2; rows++) {
+                for (int cols = 1; cols <= 4*r + 2; cols += 2) {
+                    compareToRow(rows, cols, r);
+                }
+            }
+        }
+    }
+
+    private void compareToRow( int rows, int cols, int r ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(rows, cols, -1, 1, rand);
+        DMatrixRBlock Ab = MatrixOps_DDRB.convert(A, r);
+
+        var row = new BidiagonalDecompositionRow_DDRM();
+        var alg = new BidiagonalDecompositionHouseholder_DDRB();
+
+        assertTrue(row.decompose(A));
+        assertTrue(alg.decompose(Ab));
+
+        DMatrixRMaj found = MatrixOps_DDRB.convert(Ab, (DMatrixRMaj)null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, UtilEjml.TEST_F64));
+
+        for (int i = 0; i < Math.min(rows, cols); i++) {
+            assertEquals(row.getGammasU()[i], alg.getGammasU()[i], UtilEjml.TEST_F64);
+            // the row version doesn't reset the gamma when there is no reflector
+            if (i + 1 < cols)
+                assertEquals(row.getGammasV()[i], alg.getGammasV()[i], UtilEjml.TEST_F64);
+        }
+
+        for (boolean compact : new boolean[]{false, true}) {
+            for (boolean transpose : new boolean[]{false, true}) {
+                assertTrue(MatrixFeatures_DDRM.isIdentical(row.getU(null, transpose, compact),
+                        MatrixOps_DDRB.convert(alg.getU(null, transpose, compact), (DMatrixRMaj)null), UtilEjml.TEST_F64));
+                assertTrue(MatrixFeatures_DDRM.isIdentical(row.getV(null, transpose, compact),
+                        MatrixOps_DDRB.convert(alg.getV(null, transpose, compact), (DMatrixRMaj)null), UtilEjml.TEST_F64));
+            }
+            assertTrue(MatrixFeatures_DDRM.isIdentical(row.getB(null, compact),
+                    MatrixOps_DDRB.convert(alg.getB(null, compact), (DMatrixRMaj)null), UtilEjml.TEST_F64));
+        }
+    }
+
+    /**
+     * Decompose a larger matrix with many blocks and see if it can be reconstructed
+     */
+    @Test
+    void reconstruct() {
+        int r = 10;
+        for (int rows : new int[]{95, 120}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(rows, 100, -1, 1, rand);
+            DMatrixRBlock Ab = MatrixOps_DDRB.convert(A, r);
+
+            var alg = new BidiagonalDecompositionHouseholder_DDRB();
+            assertTrue(alg.decompose(Ab));
+
+            DMatrixRMaj U = MatrixOps_DDRB.convert(alg.getU(null, false, false), (DMatrixRMaj)null);
+            DMatrixRMaj B = MatrixOps_DDRB.convert(alg.getB(null, false), (DMatrixRMaj)null);
+            DMatrixRMaj V = MatrixOps_DDRB.convert(alg.getV(null, false, false), (DMatrixRMaj)null);
+
+            assertTrue(MatrixFeatures_DDRM.isOrthogonal(U, UtilEjml.TEST_F64));
+            assertTrue(MatrixFeatures_DDRM.isOrthogonal(V, UtilEjml.TEST_F64));
+
+            DMatrixRMaj UB = CommonOps_DDRM.mult(U, B, null);
+            DMatrixRMaj found = CommonOps_DDRM.multTransB(UB, V, null);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, UtilEjml.TEST_F64));
+        }
+    }
+
+    @Test
+    void zeroColumns() {
+        int r = 3;
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(12, 10, -1, 1, rand);
+        for (int i = 0; i < A.numRows; i++) {
+            A.set(i, 1, 0);
+            A.set(i, 5, 0);
+        }
+
+        // The matrix is singular so round off errors determine the reflectors once the rank has been exhausted.
+        // Only the reconstruction can be checked
+        var alg = new BidiagonalDecompositionHouseholder_DDRB();
+        assertTrue(alg.decompose(MatrixOps_DDRB.convert(A, r)));
+
+        DMatrixRMaj U = MatrixOps_DDRB.convert(alg.getU(null, false, false), (DMatrixRMaj)null);
+        DMatrixRMaj B = MatrixOps_DDRB.convert(alg.getB(null, false), (DMatrixRMaj)null);
+        DMatrixRMaj V = MatrixOps_DDRB.convert(alg.getV(null, false, false), (DMatrixRMaj)null);
+        DMatrixRMaj found = CommonOps_DDRM.multTransB(CommonOps_DDRM.mult(U, B, null), V, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, UtilEjml.TEST_F64));
+    }
+}
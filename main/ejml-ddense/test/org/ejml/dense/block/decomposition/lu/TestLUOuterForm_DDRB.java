@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.generic.GenericMatrixOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLUOuterForm_DDRB {
+    Random rand = new Random(234);
+
+    // size of a block
+    int bl = 5;
+
+    /**
+     * Compare against the row-major unblocked algorithm for square, tall, and wide matrices which do and
+     * don't end on a block boundary.
+     */
+    @Test
+    public void compareToRowMajor() {
+        int[][] shapes = {{3, 3}, {5, 5}, {13, 13}, {20, 20}, {17, 9}, {9, 17}, {10, 13}, {13, 10}, {7, 8}};
+        for (int[] shape : shapes) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(shape[0], shape[1], -1, 1, rand);
+
+            var expected = new LUDecompositionAlt_DDRM();
+            assertTrue(expected.decompose(A));
+
+            DMatrixRBlock blockA = MatrixOps_DDRB.convert(A, bl);
+            var alg = new LUOuterForm_DDRB();
+            assertTrue(alg.decompose(blockA));
+
+            assertTrue(GenericMatrixOps_F64.isEquivalent(expected.getLower(null), alg.getLower(null), UtilEjml.TEST_F64));
+            assertTrue(GenericMatrixOps_F64.isEquivalent(expected.getUpper(null), alg.getUpper(null), UtilEjml.TEST_F64));
+            assertTrue(GenericMatrixOps_F64.isEquivalent(expected.getRowPivot(null), alg.getRowPivot(null), 0.0));
+            assertArrayEquals(expected.getRowPivotV(null), alg.getRowPivotV(null));
+            assertFalse(alg.isSingular());
+
+            if (shape[0] == shape[1]) {
+                double det = expected.computeDeterminant().real;
+                assertEquals(det, alg.computeDeterminant().real, Math.abs(det)*UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void singular() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(12, 12, rand);
+        // make the last column a copy of the first
+        for (int i = 0; i < A.numRows; i++) {
+            A.set(i, 11, A.get(i, 0));
+        }
+
+        var alg = new LUOuterForm_DDRB();
+        assertTrue(alg.decompose(MatrixOps_DDRB.convert(A, bl)));
+        assertTrue(alg.isSingular());
+        assertEquals(0.0, alg.computeDeterminant().real, UtilEjml.TEST_F64);
+    }
+}
@@ -118,7 +118,8 @@ public class CompareFixed_DDRM {
 
         for (int i = 0; i < typesFixed.length; i++) {
             if( DMatrix.class.isAssignableFrom(typesFixed[i]) ) {
-                if( !DMatrix.class.isAssignableFrom(typesCommon[i]) ) {
+                if( !DMatrix.class.isAssignableFrom(typesCommon[i]) ||
+                        !typesCommon[i].isAssignableFrom(DMatrixRMaj.class) ) {
                     return false;
                 }
             }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixRMajOffHeap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCommonOpsOffHeap_DDRM {
+    Random rand = new Random(234);
+    int originalBlock;
+
+    @BeforeEach
+    public void setBlockSize() {
+        // small blocks so that the matrices are split into multiple blocks
+        originalBlock = CommonOpsOffHeap_DDRM.BLOCK_ELEMENTS;
+        CommonOpsOffHeap_DDRM.BLOCK_ELEMENTS = 10;
+    }
+
+    @AfterEach
+    public void restoreBlockSize() {
+        CommonOpsOffHeap_DDRM.BLOCK_ELEMENTS = originalBlock;
+    }
+
+    /**
+     * Creates an off-heap matrix with tiny chunks so that rows straddle chunk boundaries
+     */
+    private DMatrixRMajOffHeap createOffHeap( DMatrixRMaj A ) {
+        var found = new DMatrixRMajOffHeap(0, 0, 3);
+        found.setTo(A);
+        return found;
+    }
+
+    @Test
+    public void convert() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(7, 5, rand);
+        DMatrixRMajOffHeap B = CommonOpsOffHeap_DDRM.convert(A, new DMatrixRMajOffHeap(0, 0, 3));
+        for (int row = 0; row < A.numRows; row++) {
+            for (int col = 0; col < A.numCols; col++) {
+                assertEquals(A.get(row, col), B.get(row, col));
+            }
+        }
+        DMatrixRMaj found = CommonOpsOffHeap_DDRM.convert(B, (DMatrixRMaj)null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, 0.0));
+    }
+
+    @Test
+    public void extractRows_insertRows() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(7, 5, rand);
+        DMatrixRMajOffHeap B = createOffHeap(A);
+
+        DMatrixRMaj rows = CommonOpsOffHeap_DDRM.extractRows(B, 2, 5, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(CommonOps_DDRM.extract(A, 2, 5, 0, 5), rows, 0.0));
+
+        CommonOps_DDRM.scale(2.0, rows);
+        CommonOpsOffHeap_DDRM.insertRows(rows, B, 1);
+        CommonOps_DDRM.insert(rows, A, 1, 0);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, CommonOpsOffHeap_DDRM.convert(B, (DMatrixRMaj)null), 0.0));
+
+        assertThrows(IllegalArgumentException.class, () -> CommonOpsOffHeap_DDRM.extractRows(B, 3, 8, null));
+        assertThrows(IllegalArgumentException.class, () -> CommonOpsOffHeap_DDRM.insertRows(rows, B, 5));
+    }
+
+    @Test
+    public void mult() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(13, 4, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(4, 3, rand);
+        DMatrixRMaj expected = CommonOps_DDRM.mult(A, B, null);
+
+        DMatrixRMajOffHeap found = CommonOpsOffHeap_DDRM.mult(createOffHeap(A), B, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,
+                CommonOpsOffHeap_DDRM.convert(found, (DMatrixRMaj)null), UtilEjml.TEST_F64));
+
+        // provided output with the wrong shape
+        found = new DMatrixRMajOffHeap(2, 2, 2);
+        CommonOpsOffHeap_DDRM.mult(createOffHeap(A), B, found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,
+                CommonOpsOffHeap_DDRM.convert(found, (DMatrixRMaj)null), UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void multTransA() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(13, 4, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(13, 3, rand);
+        DMatrixRMaj expected = CommonOps_DDRM.multTransA(A, B, null);
+
+        DMatrixRMaj found = CommonOpsOffHeap_DDRM.multTransA(createOffHeap(A), createOffHeap(B), null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void scale() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(7, 5, rand);
+        DMatrixRMajOffHeap B = createOffHeap(A);
+        CommonOps_DDRM.scale(1.5, A);
+        CommonOpsOffHeap_DDRM.scale(1.5, B);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, CommonOpsOffHeap_DDRM.convert(B, (DMatrixRMaj)null), 0.0));
+    }
+
+    @Test
+    public void add() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(7, 5, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(7, 5, rand);
+        DMatrixRMaj expected = CommonOps_DDRM.add(A, B, null);
+
+        DMatrixRMajOffHeap found = CommonOpsOffHeap_DDRM.add(createOffHeap(A), createOffHeap(B), null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,
+                CommonOpsOffHeap_DDRM.convert(found, (DMatrixRMaj)null), UtilEjml.TEST_F64));
+    }
+}
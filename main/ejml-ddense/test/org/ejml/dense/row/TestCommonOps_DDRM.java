@@ -18,7 +18,9 @@
 
 package org.ejml.dense.row;
 
+import org.ejml.EjmlParameters;
 import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
 import org.ejml.UtilEjml;
 import org.ejml.data.*;
 import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
@@ -33,8 +35,7 @@ import java.util.Arrays;
 import java.util.Random;
 
 import static org.ejml.UtilEjml.checkSameShape;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author Peter Abeles
@@ -69,6 +70,9 @@ public class TestCommonOps_DDRM {
                 continue;
             if (name.equals("multRows") || name.equals("multCols"))
                 continue;
+            // views are checked in their own tests
+            if (hasStridedParameter(method))
+                continue;
 
             boolean hasAlpha = method.getGenericParameterTypes().length == 4;
 
@@ -121,6 +125,9 @@ public class TestCommonOps_DDRM {
                 continue;
             if (name.equals("multRows") || name.equals("multCols"))
                 continue;
+            // views are checked in their own tests
+            if (hasStridedParameter(method))
+                continue;
             try {
 
                 boolean failed = !checkMultMethod(method, 6, 0, 0, 5);
@@ -146,6 +153,14 @@ public class TestCommonOps_DDRM {
         assertTrue(!oneFailed);
     }
 
+    private static boolean hasStridedParameter( Method method ) {
+        for (Class<?> type : method.getParameterTypes()) {
+            if (type == DMatrixStrided.class)
+                return true;
+        }
+        return false;
+    }
+
     private Method findCheck( String name, boolean hasAlpha ) {
         Method checkMethod;
         try {
@@ -1896,4 +1911,112 @@ public class TestCommonOps_DDRM {
         checkSameShape(A, B, false);
         assertTrue(Arrays.equals(expectedResult, B.data));
     }
+
+    @Test
+    public void add_strided() {
+        DMatrixRMaj big = RandomMatrices_DDRM.rectangle(10, 12, rand);
+        DMatrixRMaj original = big.copy();
+        DMatrixStrided a = DMatrixStrided.view(big, 0, 0, 4, 5);
+        DMatrixStrided b = DMatrixStrided.view(big, 5, 6, 4, 5);
+        DMatrixStrided c = DMatrixStrided.view(big, 5, 0, 4, 5);
+
+        CommonOps_DDRM.add(a, b, c);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 5; j++) {
+                assertEquals(original.get(i, j) + original.get(i + 5, j + 6), big.get(i + 5, j), UtilEjml.TEST_F64);
+            }
+        }
+
+        assertThrows(MatrixDimensionException.class, () -> CommonOps_DDRM.add(a, b, DMatrixStrided.view(big, 5, 0, 4, 4)));
+    }
+
+    @Test
+    public void addEquals_strided() {
+        DMatrixRMaj big = RandomMatrices_DDRM.rectangle(10, 12, rand);
+        DMatrixRMaj original = big.copy();
+        DMatrixStrided a = DMatrixStrided.view(big, 1, 2, 4, 5);
+        DMatrixStrided b = DMatrixStrided.view(big, 5, 6, 4, 5);
+
+        CommonOps_DDRM.addEquals(a, 2.5, b);
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 12; j++) {
+                double expected = original.get(i, j);
+                if (i >= 1 && i < 5 && j >= 2 && j < 7)
+                    expected += 2.5*original.get(i + 4, j + 4);
+                assertEquals(expected, big.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void scale_strided() {
+        DMatrixRMaj big = RandomMatrices_DDRM.rectangle(6, 7, rand);
+        DMatrixRMaj original = big.copy();
+
+        CommonOps_DDRM.scale(3.0, DMatrixStrided.view(big, 1, 2, 3, 4));
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 7; j++) {
+                boolean inside = i >= 1 && i < 4 && j >= 2 && j < 6;
+                assertEquals(original.get(i, j)*(inside ? 3.0 : 1.0), big.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void transpose_strided() {
+        // large enough for there to be multiple blocks
+        int rows = EjmlParameters.BLOCK_WIDTH + 5, cols = EjmlParameters.BLOCK_WIDTH + 2;
+        DMatrixRMaj big = RandomMatrices_DDRM.rectangle(2*rows + 10, 2*rows + 10, rand);
+        DMatrixStrided a = DMatrixStrided.view(big, 1, 2, rows, cols);
+        DMatrixStrided b = DMatrixStrided.view(big, rows + 3, 4, cols, rows);
+
+        CommonOps_DDRM.transpose(a, b);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                assertEquals(a.get(i, j), b.get(j, i), UtilEjml.TEST_F64);
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+                CommonOps_DDRM.transpose(a, DMatrixStrided.view(big, 3, 3, cols, rows)));
+    }
+
+    @Test
+    public void solve_strided() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6, 6, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(6, 3, rand);
+        DMatrixRMaj expected = new DMatrixRMaj(6, 3);
+        assertTrue(CommonOps_DDRM.solve(A, B, expected));
+
+        // place all the matrices inside of the same matrix
+        DMatrixRMaj big = RandomMatrices_DDRM.rectangle(14, 12, rand);
+        CommonOps_DDRM.insert(A, big, 0, 0);
+        CommonOps_DDRM.insert(B, big, 7, 0);
+        DMatrixRMaj original = big.copy();
+
+        DMatrixStrided viewA = DMatrixStrided.view(big, 0, 0, 6, 6);
+        DMatrixStrided viewB = DMatrixStrided.view(big, 7, 0, 6, 3);
+        DMatrixStrided viewX = DMatrixStrided.view(big, 7, 5, 6, 3);
+        assertTrue(CommonOps_DDRM.solve(viewA, viewB, viewX));
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(expected.get(i, j), viewX.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+        // A and B should not be modified
+        EjmlUnitTests.assertEquals(A, CommonOps_DDRM.extract(big, 0, 6, 0, 6), 0.0);
+        EjmlUnitTests.assertEquals(B, CommonOps_DDRM.extract(big, 7, 13, 0, 3), 0.0);
+
+        // solve in place
+        big.setTo(original);
+        assertTrue(CommonOps_DDRM.solve(viewA, viewB, viewB));
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(expected.get(i, j), viewB.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+
+        // singular system
+        assertFalse(CommonOps_DDRM.solve(new DMatrixStrided(6, 6), viewB, viewX));
+    }
 }
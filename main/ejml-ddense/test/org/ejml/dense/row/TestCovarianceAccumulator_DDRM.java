@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCovarianceAccumulator_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    public void add_single() {
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(50, 4, -1, 1, rand);
+
+        var alg = new CovarianceAccumulator_DDRM(4);
+        DMatrixRMaj row = new DMatrixRMaj(1, 4);
+        for (int i = 0; i < X.numRows; i++) {
+            CommonOps_DDRM.extractRow(X, i, row);
+            alg.add(row.data);
+        }
+
+        assertEquals(50, alg.getCount());
+        checkStatistics(X, alg);
+    }
+
+    /**
+     * Add a batch which is split into multiple blocks. Not a multiple of the block size.
+     */
+    @Test
+    public void add_batch() {
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(103, 7, -1, 1, rand);
+
+        var alg = new CovarianceAccumulator_DDRM(7);
+        alg.setBlockRows(10);
+        alg.add(X);
+
+        assertEquals(103, alg.getCount());
+        checkStatistics(X, alg);
+    }
+
+    @Test
+    public void add_rowRange() {
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(60, 5, -1, 1, rand);
+
+        var alg = new CovarianceAccumulator_DDRM(5);
+        alg.setBlockRows(7);
+        alg.add(X, 0, 25);
+        alg.add(X, 25, 25);
+        alg.add(X, 25, 60);
+
+        checkStatistics(X, alg);
+        assertThrows(IllegalArgumentException.class, () -> alg.add(X, 10, 61));
+        assertThrows(IllegalArgumentException.class, () -> alg.add(new DMatrixRMaj(3, 4)));
+    }
+
+    /**
+     * Samples with a large offset relative to their spread should not lose precision
+     */
+    @Test
+    public void largeOffset() {
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(200, 3, -1, 1, rand);
+        DMatrixRMaj shifted = X.copy();
+        CommonOps_DDRM.add(shifted, 1e8);
+
+        var alg = new CovarianceAccumulator_DDRM(3);
+        alg.setBlockRows(30);
+        alg.add(shifted);
+
+        DMatrixRMaj expected = computeCovariance(X);
+        DMatrixRMaj found = alg.getCovariance(null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, 1e-6));
+    }
+
+    @Test
+    public void merge() {
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(80, 6, -1, 1, rand);
+
+        var algA = new CovarianceAccumulator_DDRM(6);
+        var algB = new CovarianceAccumulator_DDRM(6);
+        var algEmpty = new CovarianceAccumulator_DDRM(6);
+        algA.add(X, 0, 30);
+        algB.add(X, 30, 80);
+
+        algA.merge(algEmpty);
+        algA.merge(algB);
+        checkStatistics(X, algA);
+
+        // merging into an empty accumulator should result in a copy
+        algEmpty.merge(algA);
+        checkStatistics(X, algEmpty);
+
+        assertThrows(IllegalArgumentException.class, () -> algA.merge(new CovarianceAccumulator_DDRM(5)));
+    }
+
+    @Test
+    public void reset() {
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(20, 3, -1, 1, rand);
+
+        var alg = new CovarianceAccumulator_DDRM(3);
+        alg.add(RandomMatrices_DDRM.rectangle(15, 3, -5, 5, rand));
+        alg.reset();
+        assertEquals(0, alg.getCount());
+
+        alg.add(X);
+        checkStatistics(X, alg);
+    }
+
+    @Test
+    public void getCovariance_tooFewSamples() {
+        var alg = new CovarianceAccumulator_DDRM(3);
+        alg.add(new double[]{1, 2, 3});
+        assertThrows(IllegalArgumentException.class, () -> alg.getCovariance(null));
+    }
+
+    /**
+     * Compares all the statistics against values computed directly from the samples
+     */
+    static void checkStatistics( DMatrixRMaj X, CovarianceAccumulator_DDRM alg ) {
+        DMatrixRMaj expectedMean = CommonOps_DDRM.sumCols(X, null);
+        CommonOps_DDRM.divide(expectedMean, X.numRows);
+        CommonOps_DDRM.transpose(expectedMean);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expectedMean, alg.getMean(null), UtilEjml.TEST_F64));
+
+        DMatrixRMaj expectedCov = computeCovariance(X);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expectedCov, alg.getCovariance(null), UtilEjml.TEST_F64));
+
+        DMatrixRMaj expectedScatter = expectedCov.copy();
+        CommonOps_DDRM.scale(X.numRows - 1, expectedScatter);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expectedScatter, alg.getScatter(null), UtilEjml.TEST_F64));
+
+        DMatrixRMaj expectedGram = new DMatrixRMaj(1, 1);
+        CommonOps_DDRM.multTransA(X, X, expectedGram);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expectedGram, alg.getGram(null), UtilEjml.TEST_F64));
+    }
+
+    static DMatrixRMaj computeCovariance( DMatrixRMaj X ) {
+        DMatrixRMaj mean = CommonOps_DDRM.sumCols(X, null);
+        CommonOps_DDRM.divide(mean, X.numRows);
+
+        DMatrixRMaj centered = X.copy();
+        for (int i = 0; i < X.numRows; i++) {
+            for (int j = 0; j < X.numCols; j++) {
+                centered.unsafe_set(i, j, X.get(i, j) - mean.get(j));
+            }
+        }
+
+        DMatrixRMaj cov = new DMatrixRMaj(1, 1);
+        CommonOps_DDRM.multTransA(centered, centered, cov);
+        CommonOps_DDRM.divide(cov, X.numRows - 1);
+        return cov;
+    }
+}
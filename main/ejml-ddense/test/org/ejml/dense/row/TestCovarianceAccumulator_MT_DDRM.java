@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCovarianceAccumulator_MT_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Compare against the single threaded implementation for batches which are above and below the threshold
+     */
+    @Test
+    public void compareToSingle() {
+        for (int numRows : new int[]{5, 90, 1001}) {
+            DMatrixRMaj X = RandomMatrices_DDRM.rectangle(numRows, 6, -1, 1, rand);
+
+            var expected = new CovarianceAccumulator_DDRM(6);
+            var found = new CovarianceAccumulator_MT_DDRM(6);
+            expected.setBlockRows(20);
+            found.setBlockRows(20);
+
+            // add it twice to make sure the workspace is correctly reset
+            for (int trial = 0; trial < 2; trial++) {
+                expected.add(X);
+                found.add(X);
+            }
+
+            assertEquals(expected.getCount(), found.getCount());
+            assertTrue(MatrixFeatures_DDRM.isIdentical(
+                    expected.getMean(null), found.getMean(null), UtilEjml.TEST_F64));
+            assertTrue(MatrixFeatures_DDRM.isIdentical(
+                    expected.getCovariance(null), found.getCovariance(null), UtilEjml.TEST_F64));
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.ejml.dense.row.decomposition;
 
 import org.ejml.UtilEjml;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixStrided;
 import org.ejml.dense.row.CommonOps_DDRM;
 import org.ejml.dense.row.MatrixFeatures_DDRM;
 import org.ejml.dense.row.RandomMatrices_DDRM;
@@ -190,4 +191,64 @@ public class TestTriangularSolver_DDRM {
 
         assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found,UtilEjml.TEST_F64));
     }
+
+    @Test
+    public void solveL_strided() {
+        for (boolean unitDiagonal : new boolean[]{false, true}) {
+            for (int m : new int[]{1, 2, 5, 20}) {
+                DMatrixRMaj L = createRandomLowerTriangular(m);
+                if (unitDiagonal) {
+                    for (int i = 0; i < m; i++) {
+                        L.set(i, i, 1.0);
+                    }
+                }
+                DMatrixRMaj B = RandomMatrices_DDRM.rectangle(m, 3, rand);
+
+                // insert both into larger matrices
+                DMatrixRMaj bigL = RandomMatrices_DDRM.rectangle(m + 2, m + 3, rand);
+                DMatrixRMaj bigB = RandomMatrices_DDRM.rectangle(m + 1, 6, rand);
+                CommonOps_DDRM.insert(L, bigL, 1, 2);
+                CommonOps_DDRM.insert(B, bigB, 1, 2);
+                // upper triangle and diagonal should be ignored
+                for (int i = 0; i < m; i++) {
+                    for (int j = unitDiagonal ? i : i + 1; j < m; j++) {
+                        bigL.set(i + 1, j + 2, 1000.0);
+                    }
+                }
+
+                TriangularSolver_DDRM.solveL(DMatrixStrided.view(bigL, 1, 2, m, m), unitDiagonal,
+                        DMatrixStrided.view(bigB, 1, 2, m, 3));
+
+                DMatrixRMaj X = CommonOps_DDRM.extract(bigB, 1, m + 1, 2, 5);
+                DMatrixRMaj found = new DMatrixRMaj(m, 3);
+                CommonOps_DDRM.mult(L, X, found);
+                assertTrue(MatrixFeatures_DDRM.isIdentical(B, found, UtilEjml.TEST_F64));
+            }
+        }
+    }
+
+    @Test
+    public void solveU_strided() {
+        for (int m : new int[]{1, 2, 5, 20}) {
+            DMatrixRMaj U = createRandomUpperTriangular(m);
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(m, 3, rand);
+
+            DMatrixRMaj bigU = RandomMatrices_DDRM.rectangle(m + 2, m + 3, rand);
+            DMatrixRMaj bigB = RandomMatrices_DDRM.rectangle(m + 1, 6, rand);
+            CommonOps_DDRM.insert(U, bigU, 1, 2);
+            CommonOps_DDRM.insert(B, bigB, 0, 1);
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < i; j++) {
+                    bigU.set(i + 1, j + 2, 1000.0);
+                }
+            }
+
+            TriangularSolver_DDRM.solveU(DMatrixStrided.view(bigU, 1, 2, m, m), DMatrixStrided.view(bigB, 0, 1, m, 3));
+
+            DMatrixRMaj X = CommonOps_DDRM.extract(bigB, 0, m, 1, 4);
+            DMatrixRMaj found = new DMatrixRMaj(m, 3);
+            CommonOps_DDRM.mult(U, X, found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(B, found, UtilEjml.TEST_F64));
+        }
+    }
 }
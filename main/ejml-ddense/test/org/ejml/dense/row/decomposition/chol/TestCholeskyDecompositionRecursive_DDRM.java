@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.interfaces.decomposition.CholeskyDecomposition_F64;
+import org.junit.jupiter.api.Test;
+
+import static org.ejml.dense.row.decomposition.CheckDecompositionInterface_DDRM.checkModifiedInput;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCholeskyDecompositionRecursive_DDRM extends GenericCholeskyTests_DDRM {
+    @Test
+    public void checkModifyInput() {
+        checkModifiedInput(new CholeskyDecompositionRecursive_DDRM(true, 2));
+    }
+
+    @Override
+    public CholeskyDecomposition_F64<DMatrixRMaj> create( boolean lower ) {
+        // small base so that the tests go through several levels of recursion
+        return new CholeskyDecompositionRecursive_DDRM(lower, 2);
+    }
+
+    /**
+     * Compare against the unblocked algorithm for matrices which are large enough to use packed multiplication
+     */
+    @Test
+    public void compareToInner() {
+        for (int size : new int[]{17, 64, 131, 300}) {
+            for (boolean lower : new boolean[]{true, false}) {
+                DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(size, rand);
+
+                var expected = new CholeskyDecompositionInner_DDRM(lower);
+                var alg = new CholeskyDecompositionRecursive_DDRM(lower);
+                assertTrue(expected.decompose(A.copy()));
+                assertTrue(alg.decompose(A.copy()));
+
+                EjmlUnitTests.assertEquals(expected.getT(null), alg.getT(null), UtilEjml.TEST_F64);
+                double det = expected.computeDeterminant().real;
+                assertEquals(det, alg.computeDeterminant().real, Math.abs(det)*UtilEjml.TEST_F64);
+            }
+        }
+    }
+}
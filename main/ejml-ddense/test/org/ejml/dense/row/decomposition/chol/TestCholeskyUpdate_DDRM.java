@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCholeskyUpdate_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    public void update_rank1() {
+        for (int n : new int[]{1, 5, 20}) {
+            DMatrixRMaj A = createSPD(n);
+            DMatrixRMaj x = RandomMatrices_DDRM.rectangle(n, 1, -1, 1, rand);
+
+            DMatrixRMaj L = decompose(A);
+            new CholeskyUpdate_DDRM().update(L, x.data.clone());
+
+            DMatrixRMaj expected = A.copy();
+            CommonOps_DDRM.multAddTransB(x, x, expected);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(decompose(expected), L, UtilEjml.TEST_F64));
+        }
+    }
+
+    @Test
+    public void update_rankK() {
+        int n = 15;
+        DMatrixRMaj A = createSPD(n);
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(n, 4, -1, 1, rand);
+        DMatrixRMaj X_orig = X.copy();
+
+        DMatrixRMaj L = decompose(A);
+        new CholeskyUpdate_DDRM().update(L, X);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(X_orig, X, 0.0));
+
+        DMatrixRMaj expected = A.copy();
+        CommonOps_DDRM.multAddTransB(X, X, expected);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(decompose(expected), L, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * Start from an empty factor and build it up one column at a time
+     */
+    @Test
+    public void update_fromZero() {
+        int n = 6;
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(n, 10, -1, 1, rand);
+
+        DMatrixRMaj L = new DMatrixRMaj(n, n);
+        CholeskyUpdate_DDRM alg = new CholeskyUpdate_DDRM();
+        DMatrixRMaj x = new DMatrixRMaj(n, 1);
+        for (int col = 0; col < X.numCols; col++) {
+            CommonOps_DDRM.extractColumn(X, col, x);
+            alg.update(L, x.data);
+        }
+
+        DMatrixRMaj expected = new DMatrixRMaj(n, n);
+        CommonOps_DDRM.multTransB(X, X, expected);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(decompose(expected), L, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * A downdate should undo an update
+     */
+    @Test
+    public void downdate() {
+        int n = 15;
+        DMatrixRMaj A = createSPD(n);
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(n, 3, -1, 1, rand);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(n, 1, -1, 1, rand);
+
+        DMatrixRMaj L = decompose(A);
+        CholeskyUpdate_DDRM alg = new CholeskyUpdate_DDRM();
+        alg.update(L, X);
+        assertTrue(alg.downdate(L, X));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(decompose(A), L, UtilEjml.TEST_F64));
+
+        alg.update(L, x.data);
+        assertTrue(alg.downdate(L, x.data));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(decompose(A), L, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * The downdated matrix isn't positive definite. It should fail and not modify L
+     */
+    @Test
+    public void downdate_fail() {
+        int n = 10;
+        DMatrixRMaj A = createSPD(n);
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(n, 2, -1, 1, rand);
+        CommonOps_DDRM.scale(100, X);
+
+        DMatrixRMaj L = decompose(A);
+        DMatrixRMaj L_orig = L.copy();
+        assertFalse(new CholeskyUpdate_DDRM().downdate(L, X));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(L_orig, L, 0.0));
+    }
+
+    /**
+     * Elements above the diagonal should not be modified
+     */
+    @Test
+    public void upperNotModified() {
+        int n = 8;
+        DMatrixRMaj L = decompose(createSPD(n));
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                L.set(i, j, 2.5);
+            }
+        }
+        new CholeskyUpdate_DDRM().update(L, RandomMatrices_DDRM.rectangle(n, 2, -1, 1, rand));
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                assertTrue(L.get(i, j) == 2.5);
+            }
+        }
+    }
+
+    private DMatrixRMaj createSPD( int n ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(n, rand);
+        for (int i = 0; i < n; i++) {
+            A.add(i, i, 1);
+        }
+        return A;
+    }
+
+    private static DMatrixRMaj decompose( DMatrixRMaj A ) {
+        CholeskyDecompositionInner_DDRM chol = new CholeskyDecompositionInner_DDRM(true);
+        assertTrue(chol.decompose(A.copy()));
+        return chol.getT(null);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.eig.schur.MultishiftQrSchur_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMultishiftQRDecomposition_DDRM extends GeneralEigenDecompositionCheck_DDRM {
+    int minimumSize = 75;
+
+    @Override
+    public EigenDecomposition_F64 createDecomposition() {
+        var schur = new MultishiftQrSchur_DDRM();
+        schur.setMinimumSize(minimumSize);
+        return new MultishiftQRDecomposition_DDRM(new HessenbergSimilarDecomposition_DDRM(), schur, computeVectors);
+    }
+
+    @Test
+    @Override
+    public void allTests() {
+        super.allTests();
+        super.justEigenValues();
+    }
+
+    /**
+     * Matrices large enough that the multishift algorithm is used instead of the double shift algorithm
+     */
+    @Test
+    void largeRandom() {
+        minimumSize = 15;
+        for (int N : new int[]{15, 16, 40, 100, 220}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N, N, -1, 1, rand);
+            checkAgainstWatched(A);
+        }
+    }
+
+    /**
+     * All the eigenvalues are complex and have the same magnitude, so the shifts are all equally good
+     */
+    @Test
+    void largeOrthogonal() {
+        minimumSize = 15;
+        for (int N : new int[]{30, 150}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.orthogonal(N, N, rand);
+            checkAgainstWatched(A);
+        }
+    }
+
+    /**
+     * Many repeated eigenvalues and some which are zero
+     */
+    @Test
+    void largeRepeated() {
+        minimumSize = 15;
+        int N = 90;
+        double[] ev = new double[N];
+        for (int i = 0; i < N; i++) {
+            ev[i] = (i%4) - 1;
+        }
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetricWithEigenvalues(N, rand, ev);
+        checkAgainstWatched(A);
+    }
+
+    private void checkAgainstWatched( DMatrixRMaj A ) {
+        for (boolean vectors : new boolean[]{true, false}) {
+            computeVectors = vectors;
+            var alg = (MultishiftQRDecomposition_DDRM)createDecomposition();
+            var expected = new WatchedDoubleStepQRDecomposition_DDRM(false);
+
+            assertTrue(alg.decompose(A.copy()));
+            assertTrue(expected.decompose(A.copy()));
+
+            int N = A.numRows;
+            assertEquals(N, alg.getNumberOfEigenvalues());
+            Complex_F64[] found = sorted(alg);
+            Complex_F64[] truth = sorted(expected);
+            double scale = Math.max(1.0, CommonOps_DDRM.elementMaxAbs(A));
+            for (int i = 0; i < N; i++) {
+                // repeated eigenvalues are sensitive to perturbations
+                assertEquals(truth[i].real, found[i].real, Math.sqrt(UtilEjml.TEST_F64)*scale);
+                assertEquals(Math.abs(truth[i].imaginary), Math.abs(found[i].imaginary),
+                        Math.sqrt(UtilEjml.TEST_F64)*scale);
+            }
+
+            if (!vectors)
+                continue;
+
+            DMatrixRMaj AV = new DMatrixRMaj(N, 1);
+            for (int i = 0; i < N; i++) {
+                Complex_F64 value = alg.getEigenvalue(i);
+                DMatrixRMaj v = alg.getEigenVector(i);
+                if (!value.isReal()) {
+                    assertNull(v);
+                    continue;
+                }
+                CommonOps_DDRM.mult(A, v, AV);
+                for (int j = 0; j < N; j++) {
+                    assertEquals(value.real*v.get(j), AV.get(j), UtilEjml.TEST_F64_SQ*scale);
+                }
+            }
+        }
+    }
+
+    private static Complex_F64[] sorted( EigenDecomposition_F64<?> alg ) {
+        Complex_F64[] values = new Complex_F64[alg.getNumberOfEigenvalues()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = alg.getEigenvalue(i);
+        }
+        Arrays.sort(values, Comparator.<Complex_F64>comparingDouble(c -> c.real)
+                .thenComparingDouble(c -> Math.abs(c.imaginary)));
+        return values;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMultishiftQRDecomposition_MT_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    void compareToSingle() {
+        compareToSingle(false);
+        compareToSingle(true);
+    }
+
+    void compareToSingle( boolean vectors ) {
+        int N = 160;
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N, N, -1, 1, rand);
+
+        var single = new MultishiftQRDecomposition_DDRM(vectors);
+        var concurrent = new MultishiftQRDecomposition_MT_DDRM(vectors);
+
+        assertTrue(single.decompose(A.copy()));
+        assertTrue(concurrent.decompose(A.copy()));
+
+        assertEquals(N, concurrent.getNumberOfEigenvalues());
+        for (int i = 0; i < N; i++) {
+            assertEquals(single.getEigenvalue(i).real, concurrent.getEigenvalue(i).real, UtilEjml.TEST_F64);
+            assertEquals(single.getEigenvalue(i).imaginary, concurrent.getEigenvalue(i).imaginary, UtilEjml.TEST_F64);
+            if (!vectors)
+                continue;
+            DMatrixRMaj expected = single.getEigenVector(i);
+            DMatrixRMaj found = concurrent.getEigenVector(i);
+            if (expected == null) {
+                assertNull(found);
+            } else {
+                for (int j = 0; j < N; j++) {
+                    assertEquals(expected.get(j), found.get(j), UtilEjml.TEST_F64);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricTridiagonalDivideConquer_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecompositionHouseholder_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSymmetricDivideConquerDecomposition_DDRM extends GeneralEigenDecompositionCheck_DDRM {
+    int leafSize;
+
+    @Override
+    public EigenDecomposition_F64 createDecomposition() {
+        return new SymmetricDivideConquerDecomposition_DDRM(new TridiagonalDecompositionHouseholder_DDRM(),
+                new SymmetricTridiagonalDivideConquer_DDRM(leafSize), computeVectors);
+    }
+
+    @Test
+    public void justSymmetricTests() {
+        // a small leaf size so that the small matrices are divided
+        for (int leafSize : new int[]{2, 3, 25}) {
+            this.leafSize = leafSize;
+            computeVectors = true;
+
+            checkSizeZero();
+            checkRandomSymmetric();
+            checkIdentity();
+            checkAllZeros();
+            checkWithSomeRepeatedValuesSymm();
+            checkWithSingularSymm();
+            checkSmallValue(true);
+            checkLargeValue(true);
+
+            computeVectors = false;
+            checkKnownSymmetric_JustValue();
+        }
+    }
+
+    /**
+     * Compare the eigenvalues against the QR algorithm and make sure the eigenvectors are orthogonal for
+     * a matrix which is much larger than the leaf size
+     */
+    @Test
+    public void compareToQrAlgorithm() {
+        leafSize = 25;
+        computeVectors = true;
+
+        for (int N : new int[]{60, 237}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.symmetric(N, -1, 1, rand);
+
+            EigenDecomposition_F64<DMatrixRMaj> alg = createDecomposition();
+            var expected = new SymmetricQRAlgorithmDecomposition_DDRM(true);
+            assertTrue(alg.decompose(A.copy()));
+            assertTrue(expected.decompose(A.copy()));
+
+            double[] found = new double[N];
+            double[] values = new double[N];
+            DMatrixRMaj V = new DMatrixRMaj(N, N);
+            for (int i = 0; i < N; i++) {
+                found[i] = alg.getEigenvalue(i).real;
+                values[i] = expected.getEigenvalue(i).real;
+                CommonOps_DDRM.insert(alg.getEigenVector(i), V, 0, i);
+            }
+            Arrays.sort(values);
+            for (int i = 0; i < N; i++) {
+                assertEquals(values[i], found[i], UtilEjml.TEST_F64);
+            }
+
+            assertTrue(MatrixFeatures_DDRM.isOrthogonal(V, UtilEjml.TEST_F64));
+
+            // A*V = V*D
+            DMatrixRMaj AV = CommonOps_DDRM.mult(A, V, null);
+            DMatrixRMaj VD = CommonOps_DDRM.mult(V, CommonOps_DDRM.diag(found), null);
+            assertEquals(0, NormOps_DDRM.normF(CommonOps_DDRM.subtract(AV, VD, null)), UtilEjml.TEST_F64*N);
+        }
+    }
+}
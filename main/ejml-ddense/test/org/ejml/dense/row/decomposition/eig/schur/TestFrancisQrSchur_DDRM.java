@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.schur;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFrancisQrSchur_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    void random() {
+        for (int N = 1; N <= 30; N += 3) {
+            DMatrixRMaj H = RandomMatrices_DDRM.triangularUpper(N, 1, -1, 1, rand);
+            checkSchur(H);
+        }
+    }
+
+    @Test
+    void orthogonal() {
+        // all eigenvalues have the same magnitude
+        DMatrixRMaj H = hessenberg(RandomMatrices_DDRM.orthogonal(12, 12, rand));
+        checkSchur(H);
+    }
+
+    @Test
+    void zeros() {
+        checkSchur(new DMatrixRMaj(6, 6));
+    }
+
+    /**
+     * Only process a sub-matrix and make sure the rest is updated correctly
+     */
+    @Test
+    void subMatrix() {
+        int N = 10;
+        DMatrixRMaj H = RandomMatrices_DDRM.triangularUpper(N, 1, -1, 1, rand);
+        // split the matrix into 3 blocks
+        H.set(3, 2, 0);
+        H.set(8, 7, 0);
+        DMatrixRMaj T = H.copy();
+        DMatrixRMaj Z = CommonOps_DDRM.identity(N);
+        double[] wr = new double[N], wi = new double[N];
+
+        var alg = new FrancisQrSchur_DDRM();
+        assertTrue(alg.process(T, 3, 7, true, Z, 0, N - 1, wr, wi));
+
+        checkDecomposition(H, T, Z);
+        // outside of the sub-matrix the Schur vectors are the identity
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                if ((i < 3 || i > 7) || (j < 3 || j > 7))
+                    assertEquals(i == j ? 1 : 0, Z.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+        for (int i = 4; i <= 7; i++) {
+            if (T.get(i, i - 1) == 0 && (i + 1 > 7 || T.get(i + 1, i) == 0))
+                assertEquals(0, wi[i]);
+            assertEquals(T.get(i, i), wr[i], UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void standardize2x2() {
+        double[] out = new double[10];
+        for (int trial = 0; trial < 50; trial++) {
+            double a = rand.nextGaussian(), b = rand.nextGaussian(), c = rand.nextGaussian(), d = rand.nextGaussian();
+            FrancisQrSchur_DDRM.standardize2x2(a, b, c, d, out);
+
+            // A = R*S*R' where R = [cs -sn; sn cs]
+            double cs = out[8], sn = out[9];
+            var R = new DMatrixRMaj(2, 2, true, cs, -sn, sn, cs);
+            var S = new DMatrixRMaj(2, 2, true, out[0], out[1], out[2], out[3]);
+            var RS = new DMatrixRMaj(2, 2);
+            var found = new DMatrixRMaj(2, 2);
+            CommonOps_DDRM.mult(R, S, RS);
+            CommonOps_DDRM.multTransB(RS, R, found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(new DMatrixRMaj(2, 2, true, a, b, c, d), found,
+                    UtilEjml.TEST_F64));
+
+            if (out[2] == 0) {
+                assertEquals(0, out[5]);
+                assertEquals(0, out[7]);
+            } else {
+                assertEquals(out[0], out[3]);
+                assertTrue(out[1]*out[2] < 0);
+                assertEquals(out[5], -out[7]);
+            }
+            // trace is preserved
+            assertEquals(a + d, out[4] + out[6], UtilEjml.TEST_F64);
+        }
+    }
+
+    private void checkSchur( DMatrixRMaj H ) {
+        int N = H.numRows;
+        DMatrixRMaj T = H.copy();
+        DMatrixRMaj Z = CommonOps_DDRM.identity(N);
+        double[] wr = new double[N], wi = new double[N];
+
+        var alg = new FrancisQrSchur_DDRM();
+        assertTrue(alg.process(T, 0, N - 1, true, Z, 0, N - 1, wr, wi));
+        checkDecomposition(H, T, Z);
+        checkQuasiTriangular(T, wr, wi);
+
+        // just the eigenvalues
+        DMatrixRMaj E = H.copy();
+        double[] er = new double[N], ei = new double[N];
+        assertTrue(alg.process(E, 0, N - 1, false, null, 0, -1, er, ei));
+        double trace = 0, traceFound = 0;
+        for (int i = 0; i < N; i++) {
+            trace += wr[i];
+            traceFound += er[i];
+        }
+        assertEquals(trace, traceFound, UtilEjml.TEST_F64);
+    }
+
+    static DMatrixRMaj hessenberg( DMatrixRMaj A ) {
+        var decomp = new HessenbergSimilarDecomposition_DDRM();
+        assertTrue(decomp.decompose(A));
+        return decomp.getH(null);
+    }
+
+    /**
+     * Checks that Z is orthogonal and H = Z*T*Z'
+     */
+    static void checkDecomposition( DMatrixRMaj H, DMatrixRMaj T, DMatrixRMaj Z ) {
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(Z, UtilEjml.TEST_F64));
+
+        int N = H.numRows;
+        var ZT = new DMatrixRMaj(N, N);
+        var found = new DMatrixRMaj(N, N);
+        CommonOps_DDRM.mult(Z, T, ZT);
+        CommonOps_DDRM.multTransB(ZT, Z, found);
+        double scale = Math.max(1, CommonOps_DDRM.elementMaxAbs(H));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(H, found, UtilEjml.TEST_F64*scale));
+    }
+
+    /**
+     * Checks that T is in standard real Schur form and the eigenvalues are consistent with it
+     */
+    static void checkQuasiTriangular( DMatrixRMaj T, double[] wr, double[] wi ) {
+        int N = T.numRows;
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < i - 1; j++) {
+                assertEquals(0, T.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+        for (int i = 0; i < N; i++) {
+            if (i + 1 < N && T.get(i + 1, i) != 0) {
+                // standardized 2x2 block with complex eigenvalues
+                assertTrue(i + 2 >= N || T.get(i + 2, i + 1) == 0);
+                assertEquals(T.get(i, i), T.get(i + 1, i + 1), UtilEjml.TEST_F64);
+                assertTrue(T.get(i, i + 1)*T.get(i + 1, i) < 0);
+                assertEquals(T.get(i, i), wr[i], UtilEjml.TEST_F64);
+                assertEquals(T.get(i, i), wr[i + 1], UtilEjml.TEST_F64);
+                double im = Math.sqrt(-T.get(i, i + 1)*T.get(i + 1, i));
+                assertEquals(im, wi[i], UtilEjml.TEST_F64);
+                assertEquals(-im, wi[i + 1], UtilEjml.TEST_F64);
+                i++;
+            } else {
+                assertEquals(T.get(i, i), wr[i], UtilEjml.TEST_F64);
+                assertEquals(0, wi[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.schur;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.ejml.dense.row.decomposition.eig.schur.TestFrancisQrSchur_DDRM.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMultishiftQrSchur_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    void random() {
+        for (int N : new int[]{1, 5, 15, 16, 31, 80, 150, 260}) {
+            DMatrixRMaj H = RandomMatrices_DDRM.triangularUpper(N, 1, -1, 1, rand);
+            checkSchur(H, 15);
+        }
+    }
+
+    @Test
+    void orthogonal() {
+        DMatrixRMaj H = hessenberg(RandomMatrices_DDRM.orthogonal(120, 120, rand));
+        checkSchur(H, 15);
+    }
+
+    /**
+     * A Hessenberg matrix which has already been split into several blocks
+     */
+    @Test
+    void alreadySplit() {
+        int N = 100;
+        DMatrixRMaj H = RandomMatrices_DDRM.triangularUpper(N, 1, -1, 1, rand);
+        H.set(20, 19, 0);
+        H.set(21, 20, 0);
+        H.set(70, 69, 0);
+        H.set(99, 98, 0);
+        checkSchur(H, 15);
+    }
+
+    @Test
+    void zeros() {
+        checkSchur(new DMatrixRMaj(40, 40), 15);
+    }
+
+    /**
+     * Results should be the same as the double shift algorithm, at least up to the order of the eigenvalues
+     */
+    @Test
+    void compareToDoubleShift() {
+        int N = 120;
+        DMatrixRMaj H = RandomMatrices_DDRM.triangularUpper(N, 1, -1, 1, rand);
+
+        var alg = new MultishiftQrSchur_DDRM();
+        alg.setMinimumSize(15);
+        assertTrue(alg.process(H.copy(), null, false));
+
+        double[] wr = new double[N], wi = new double[N];
+        assertTrue(new FrancisQrSchur_DDRM().process(H.copy(), 0, N - 1, false, null, 0, -1, wr, wi));
+
+        double[] expected = magnitudes(wr, wi, N);
+        double[] found = magnitudes(alg.getEigenvaluesReal(), alg.getEigenvaluesImaginary(), N);
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i], found[i], UtilEjml.TEST_F64);
+        }
+    }
+
+    private static double[] magnitudes( double[] wr, double[] wi, int N ) {
+        double[] out = new double[N];
+        for (int i = 0; i < N; i++) {
+            out[i] = Math.hypot(wr[i], wi[i]);
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    private void checkSchur( DMatrixRMaj H, int minimumSize ) {
+        int N = H.numRows;
+        DMatrixRMaj T = H.copy();
+        DMatrixRMaj Z = CommonOps_DDRM.identity(N);
+
+        var alg = new MultishiftQrSchur_DDRM();
+        alg.setMinimumSize(minimumSize);
+        assertTrue(alg.process(T, Z, true));
+        checkDecomposition(H, T, Z);
+        checkQuasiTriangular(T, alg.getEigenvaluesReal(), alg.getEigenvaluesImaginary());
+
+        // just the eigenvalues. The sum should be the same
+        assertTrue(alg.process(H.copy(), null, false));
+        double trace = 0, traceFound = 0;
+        for (int i = 0; i < N; i++) {
+            trace += H.get(i, i);
+            traceFound += alg.getEigenvaluesReal()[i];
+        }
+        assertEquals(trace, traceFound, UtilEjml.TEST_F64*Math.max(1, N));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.schur;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMultishiftQrSchur_MT_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    void compareToSingle() {
+        int N = 200;
+        DMatrixRMaj H = RandomMatrices_DDRM.triangularUpper(N, 1, -1, 1, rand);
+
+        var single = new MultishiftQrSchur_DDRM();
+        var concurrent = new MultishiftQrSchur_MT_DDRM();
+        single.setMinimumSize(15);
+        concurrent.setMinimumSize(15);
+
+        DMatrixRMaj T0 = H.copy(), T1 = H.copy();
+        DMatrixRMaj Z0 = CommonOps_DDRM.identity(N), Z1 = CommonOps_DDRM.identity(N);
+        assertTrue(single.process(T0, Z0, true));
+        assertTrue(concurrent.process(T1, Z1, true));
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(T0, T1, UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(Z0, Z1, UtilEjml.TEST_F64));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.schur;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.ejml.dense.row.decomposition.eig.schur.TestFrancisQrSchur_DDRM.checkDecomposition;
+import static org.ejml.dense.row.decomposition.eig.schur.TestFrancisQrSchur_DDRM.checkQuasiTriangular;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSchurReorder_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Swap every combination of block sizes
+     */
+    @Test
+    void swap() {
+        for (int n1 = 1; n1 <= 2; n1++) {
+            for (int n2 = 1; n2 <= 2; n2++) {
+                for (int j1 = 0; j1 <= 2; j1++) {
+                    checkSwap(j1, n1, n2);
+                }
+            }
+        }
+    }
+
+    private void checkSwap( int j1, int n1, int n2 ) {
+        int N = 7;
+        DMatrixRMaj T = RandomMatrices_DDRM.triangularUpper(N, 0, -1, 1, rand);
+        // put complex blocks at the two locations being swapped
+        double[] eig1 = insertBlock(T, j1, n1);
+        double[] eig2 = insertBlock(T, j1 + n1, n2);
+        DMatrixRMaj original = T.copy();
+        DMatrixRMaj Z = CommonOps_DDRM.identity(N);
+
+        assertTrue(new SchurReorder_DDRM().swap(T, Z, j1, n1, n2));
+
+        checkDecomposition(original, T, Z);
+        checkBlock(T, j1, n2, eig2);
+        checkBlock(T, j1 + n2, n1, eig1);
+    }
+
+    @Test
+    void moveUp() {
+        int N = 12;
+        DMatrixRMaj T = RandomMatrices_DDRM.triangularUpper(N, 0, -1, 1, rand);
+        insertBlock(T, 2, 2);
+        insertBlock(T, 6, 2);
+        double[] eig = insertBlock(T, 9, 2);
+        DMatrixRMaj original = T.copy();
+        DMatrixRMaj Z = CommonOps_DDRM.identity(N);
+
+        var alg = new SchurReorder_DDRM();
+        assertEquals(1, alg.moveUp(T, Z, 9, 1));
+        checkDecomposition(original, T, Z);
+        checkBlock(T, 1, 2, eig);
+
+        double[] wr = new double[N], wi = new double[N];
+        extractEigenvalues(T, wr, wi);
+        checkQuasiTriangular(T, wr, wi);
+
+        // move a 1x1 block to the very top
+        double value = T.get(N - 1, N - 1);
+        assertEquals(0, alg.moveUp(T, Z, N - 1, 0));
+        checkDecomposition(original, T, Z);
+        assertEquals(value, T.get(0, 0), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Replaces the diagonal at 'row' with a random standardized block and returns its eigenvalues
+     */
+    private double[] insertBlock( DMatrixRMaj T, int row, int size ) {
+        double real = rand.nextGaussian();
+        if (size == 1) {
+            T.set(row, row, real);
+            return new double[]{real, 0};
+        }
+        double b = 0.5 + rand.nextDouble();
+        double c = -(0.5 + rand.nextDouble());
+        T.set(row, row, real);
+        T.set(row, row + 1, b);
+        T.set(row + 1, row, c);
+        T.set(row + 1, row + 1, real);
+        return new double[]{real, Math.sqrt(-b*c)};
+    }
+
+    private void checkBlock( DMatrixRMaj T, int row, int size, double[] eig ) {
+        if (size == 1) {
+            assertEquals(eig[0], T.get(row, row), UtilEjml.TEST_F64);
+            assertTrue(row + 1 >= T.numRows || T.get(row + 1, row) == 0);
+            return;
+        }
+        assertEquals(eig[0], T.get(row, row), UtilEjml.TEST_F64);
+        assertEquals(eig[0], T.get(row + 1, row + 1), UtilEjml.TEST_F64);
+        assertEquals(eig[1], Math.sqrt(-T.get(row, row + 1)*T.get(row + 1, row)), UtilEjml.TEST_F64);
+        assertTrue(row == 0 || T.get(row, row - 1) == 0);
+        assertTrue(row + 2 >= T.numRows || T.get(row + 2, row + 1) == 0);
+    }
+
+    private static void extractEigenvalues( DMatrixRMaj T, double[] wr, double[] wi ) {
+        int N = T.numRows;
+        for (int i = 0; i < N; i++) {
+            wr[i] = T.get(i, i);
+            if (i + 1 < N && T.get(i + 1, i) != 0) {
+                wr[i + 1] = T.get(i + 1, i + 1);
+                wi[i] = Math.sqrt(-T.get(i, i + 1)*T.get(i + 1, i));
+                wi[i + 1] = -wi[i];
+                i++;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.UtilEjml;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSymmetricTridiagonalDivideConquer_MT_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    void random() {
+        for (int N : new int[]{1, 10, 150, 400}) {
+            double[] diag = new double[N];
+            double[] off = new double[N];
+            for (int i = 0; i < N; i++) {
+                diag[i] = rand.nextGaussian();
+                off[i] = rand.nextGaussian();
+            }
+            var alg = new SymmetricTridiagonalDivideConquer_MT_DDRM(5);
+            // make sure the halves are solved concurrently with these matrix sizes
+            alg.setMinimumConcurrent(20);
+            TestSymmetricTridiagonalDivideConquer_DDRM.check(alg, N, diag, off);
+        }
+    }
+
+    @Test
+    void compareToSingle() {
+        int N = 300;
+        double[] diag = new double[N];
+        double[] off = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = rand.nextGaussian();
+            off[i] = rand.nextGaussian();
+        }
+
+        var single = new SymmetricTridiagonalDivideConquer_DDRM(10);
+        var concurrent = new SymmetricTridiagonalDivideConquer_MT_DDRM(10);
+        concurrent.setMinimumConcurrent(20);
+
+        assertTrue(single.process(N, diag, off));
+        assertTrue(concurrent.process(N, diag, off));
+
+        for (int i = 0; i < N; i++) {
+            assertEquals(single.getEigenvalue(i), concurrent.getEigenvalue(i), UtilEjml.TEST_F64);
+        }
+        assertTrue(MatrixFeatures_DDRM.isIdentical(single.getEigenvectors(), concurrent.getEigenvectors(),
+                UtilEjml.TEST_F64));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.hessenberg;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestHessenbergSimilarDecompositionBlock_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * The reflectors should be the same as the unblocked algorithm, up to rounding
+     */
+    @Test
+    void compareToUnblocked() {
+        for (int blockLength : new int[]{1, 3, 8}) {
+            for (int N : new int[]{1, 2, 3, 5, 10, 23, 40}) {
+                DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N, N, -1, 1, rand);
+
+                var expected = new HessenbergSimilarDecomposition_DDRM();
+                var alg = new HessenbergSimilarDecompositionBlock_DDRM(5, blockLength);
+                alg.setMinimumBlocked(2);
+
+                assertTrue(expected.decompose(A.copy()));
+                assertTrue(alg.decompose(A.copy()));
+
+                assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getQH(), alg.getQH(), UtilEjml.TEST_F64));
+                for (int i = 0; i < N - 2; i++) {
+                    assertEquals(expected.getGammas()[i], alg.getGammas()[i], UtilEjml.TEST_F64);
+                }
+                assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getQ(null), alg.getQ(null), UtilEjml.TEST_F64));
+            }
+        }
+    }
+
+    /**
+     * Large enough for the default settings to use blocks. Checks A = Q*H*Q'
+     */
+    @Test
+    void reconstruct() {
+        int N = 200;
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N, N, -1, 1, rand);
+
+        var alg = new HessenbergSimilarDecompositionBlock_DDRM();
+        assertTrue(alg.decompose(A.copy()));
+
+        DMatrixRMaj Q = alg.getQ(null);
+        DMatrixRMaj H = alg.getH(null);
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(Q, UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isUpperTriangle(H, 1, 0.0));
+
+        DMatrixRMaj QH = new DMatrixRMaj(N, N);
+        DMatrixRMaj found = new DMatrixRMaj(N, N);
+        CommonOps_DDRM.mult(Q, H, QH);
+        CommonOps_DDRM.multTransB(QH, Q, found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * Columns which are already zero below the sub-diagonal
+     */
+    @Test
+    void zeroColumns() {
+        int N = 30;
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N, N, -1, 1, rand);
+        for (int i = 2; i < N; i++) {
+            A.set(i, 0, 0);
+            A.set(i, 5, 0);
+        }
+        for (int i = 0; i < N; i++) {
+            A.set(i, 8, 0);
+        }
+
+        var expected = new HessenbergSimilarDecomposition_DDRM();
+        var alg = new HessenbergSimilarDecompositionBlock_DDRM(5, 4);
+        alg.setMinimumBlocked(2);
+        assertTrue(expected.decompose(A.copy()));
+        assertTrue(alg.decompose(A.copy()));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getQH(), alg.getQH(), UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getQ(null), alg.getQ(null), UtilEjml.TEST_F64));
+    }
+}
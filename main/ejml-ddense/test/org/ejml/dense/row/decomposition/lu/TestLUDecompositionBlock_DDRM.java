@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLUDecompositionBlock_DDRM extends GeneralLuDecompositionChecks_DDRM {
+    @Override
+    public LUDecompositionBase_DDRM create( int numRows, int numCols ) {
+        // small block so that the matrices in the standard tests span several panels
+        return new LUDecompositionBlock_DDRM(2);
+    }
+
+    /**
+     * Should select the same pivots and produce the same results as the unblocked algorithm
+     */
+    @Test
+    public void compareToAlt() {
+        int[][] shapes = {{30, 30}, {31, 31}, {40, 23}, {23, 40}, {100, 100}};
+        for (int[] shape : shapes) {
+            for (int blockWidth : new int[]{1, 4, 7, 64}) {
+                compareToAlt(new LUDecompositionBlock_DDRM(blockWidth), shape[0], shape[1]);
+            }
+        }
+    }
+
+    void compareToAlt( LUDecompositionBase_DDRM alg, int numRows, int numCols ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(numRows, numCols, -1, 1, rand);
+
+        var expected = new LUDecompositionAlt_DDRM();
+        assertTrue(expected.decompose(A));
+        assertTrue(alg.decompose(A));
+
+        EjmlUnitTests.assertEquals(expected.getLU(), alg.getLU(), UtilEjml.TEST_F64);
+        assertArrayEquals(expected.getRowPivotV(null), alg.getRowPivotV(null));
+        for (int i = 0; i < numCols; i++) {
+            assertEquals(expected.getIndx()[i], alg.getIndx()[i]);
+        }
+        if (numRows == numCols) {
+            double det = expected.computeDeterminant().real;
+            assertEquals(det, alg.computeDeterminant().real, Math.abs(det)*UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Decompose matrices of different sizes with the same instance
+     */
+    @Test
+    public void changeSize() {
+        var alg = new LUDecompositionBlock_DDRM(3);
+        compareToAlt(alg, 20, 20);
+        compareToAlt(alg, 8, 12);
+        compareToAlt(alg, 25, 25);
+    }
+}
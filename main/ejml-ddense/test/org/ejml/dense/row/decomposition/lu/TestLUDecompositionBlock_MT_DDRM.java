@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLUDecompositionBlock_MT_DDRM extends GeneralLuDecompositionChecks_DDRM {
+    @Override
+    public LUDecompositionBase_DDRM create( int numRows, int numCols ) {
+        return new LUDecompositionBlock_MT_DDRM(2);
+    }
+
+    @Test
+    public void compareToSingleThread() {
+        int[][] shapes = {{30, 30}, {40, 23}, {23, 40}, {150, 150}};
+        for (int[] shape : shapes) {
+            for (int blockWidth : new int[]{3, 64}) {
+                DMatrixRMaj A = RandomMatrices_DDRM.rectangle(shape[0], shape[1], -1, 1, rand);
+
+                var single = new LUDecompositionBlock_DDRM(blockWidth);
+                var concurrent = new LUDecompositionBlock_MT_DDRM(blockWidth);
+                assertTrue(single.decompose(A));
+                assertTrue(concurrent.decompose(A));
+
+                EjmlUnitTests.assertEquals(single.getLU(), concurrent.getLU(), UtilEjml.TEST_F64);
+                assertArrayEquals(single.getRowPivotV(null), concurrent.getRowPivotV(null));
+            }
+        }
+    }
+}
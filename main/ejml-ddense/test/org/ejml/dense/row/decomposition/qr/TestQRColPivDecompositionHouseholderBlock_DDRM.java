@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.decomposition.qr;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.simple.SimpleMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestQRColPivDecompositionHouseholderBlock_DDRM {
+
+    Random rand = new Random(234);
+
+    /**
+     * Should produce the same pivots and R as the unblocked algorithm. Matrices span several panels.
+     */
+    @Test
+    public void compareToColumn() {
+        int[][] shapes = {{5, 5}, {20, 20}, {30, 11}, {11, 30}, {64, 40}};
+        for (int[] shape : shapes) {
+            for (int blockWidth : new int[]{1, 3, 8}) {
+                DMatrixRMaj A = RandomMatrices_DDRM.rectangle(shape[0], shape[1], -1, 1, rand);
+                compareToColumn(A, new QRColPivDecompositionHouseholderBlock_DDRM(blockWidth));
+            }
+        }
+    }
+
+    public static void compareToColumn( DMatrixRMaj A, QRColPivDecompositionHouseholderBlock_DDRM alg ) {
+        var expected = new QRColPivDecompositionHouseholderColumn_DDRM();
+        assertTrue(expected.decompose(A));
+        assertTrue(alg.decompose(A));
+
+        assertEquals(expected.getRank(), alg.getRank());
+        for (int i = 0; i < A.numCols; i++) {
+            assertEquals(expected.getColPivots()[i], alg.getColPivots()[i]);
+        }
+        EjmlUnitTests.assertEquals(expected.getR(null, true), alg.getR(null, true), UtilEjml.TEST_F64);
+        checkDecomposition(true, A, alg);
+        checkDecomposition(false, A, alg);
+    }
+
+    /**
+     * Test it against a rank deficient matrix
+     */
+    @Test
+    public void testRankDeficient() {
+        int numRows = 10;
+
+        for (int numSingular = 0; numSingular < numRows - 1; numSingular++) {
+            // construct a singular matrix from its SVD decomposition
+            SimpleMatrix U = SimpleMatrix.wrap(RandomMatrices_DDRM.orthogonal(numRows, numRows, rand));
+            SimpleMatrix S = SimpleMatrix.diag(DMatrixRMaj.class, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            SimpleMatrix V = SimpleMatrix.wrap(RandomMatrices_DDRM.orthogonal(numRows, numRows, rand));
+
+            for (int i = 0; i < numSingular; i++) {
+                S.set(i, i, 0);
+            }
+
+            DMatrixRMaj A = U.mult(S).mult(V.transpose()).getDDRM();
+
+            var alg = new QRColPivDecompositionHouseholderBlock_DDRM(3);
+            assertTrue(alg.decompose(A));
+
+            checkDecomposition(false, A, alg);
+        }
+    }
+
+    /**
+     * Columns which are very close to being linearly dependent will have their norms recomputed
+     */
+    @Test
+    public void nearlyDependentColumns() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(40, 20, -1, 1, rand);
+        for (int i = 0; i < A.numRows; i++) {
+            A.set(i, 7, A.get(i, 2) + 1e-9*A.get(i, 7));
+            A.set(i, 15, A.get(i, 4) - 1e-10*A.get(i, 15));
+        }
+
+        var alg = new QRColPivDecompositionHouseholderBlock_DDRM(8);
+        assertTrue(alg.decompose(A));
+        assertEquals(20, alg.getRank());
+        checkDecomposition(true, A, alg);
+    }
+
+    /**
+     * See if a zero matrix is gracefully handled
+     */
+    @Test
+    public void testZeroMatrix() {
+        DMatrixRMaj A = new DMatrixRMaj(5, 5);
+
+        var alg = new QRColPivDecompositionHouseholderBlock_DDRM(2);
+        assertTrue(alg.decompose(A));
+        assertEquals(0, alg.getRank());
+
+        checkDecomposition(false, A, alg);
+        checkDecomposition(true, A, alg);
+    }
+
+    /**
+     * Decompose several matrices with the same instance
+     */
+    @Test
+    public void reuse() {
+        var alg = new QRColPivDecompositionHouseholderBlock_DDRM(4);
+        compareToColumn(RandomMatrices_DDRM.rectangle(30, 12, rand), alg);
+        compareToColumn(RandomMatrices_DDRM.rectangle(8, 9, rand), alg);
+        compareToColumn(RandomMatrices_DDRM.rectangle(35, 35, rand), alg);
+    }
+
+    private static void checkDecomposition( boolean compact, DMatrixRMaj A,
+                                            QRColPivDecompositionHouseholderColumn_DDRM alg ) {
+        DMatrixRMaj Q = alg.getQ(null, compact);
+        DMatrixRMaj R = alg.getR(null, compact);
+        DMatrixRMaj P = alg.getColPivotMatrix(null);
+
+        DMatrixRMaj expected = CommonOps_DDRM.mult(A, P, null);
+        DMatrixRMaj found = CommonOps_DDRM.mult(Q, R, null);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.dense.row.decomposition.qr;
+
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestQRColPivDecompositionHouseholderBlock_MT_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    void compareToColumn() {
+        int[][] shapes = {{20, 20}, {30, 11}, {11, 30}, {150, 120}};
+        for (int[] shape : shapes) {
+            TestQRColPivDecompositionHouseholderBlock_DDRM.compareToColumn(
+                    RandomMatrices_DDRM.rectangle(shape[0], shape[1], -1, 1, rand),
+                    new QRColPivDecompositionHouseholderBlock_MT_DDRM(5));
+        }
+    }
+}
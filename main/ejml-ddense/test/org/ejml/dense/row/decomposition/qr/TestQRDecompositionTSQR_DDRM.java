@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.qr;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestQRDecompositionTSQR_DDRM extends GenericQrCheck_DDRM {
+    @Override
+    protected QRDecomposition<DMatrixRMaj> createQRDecomposition() {
+        return new QRDecompositionTSQR_DDRM(1);
+    }
+
+    /**
+     * Matrices which are split into several blocks, including an odd number of blocks and a last block which
+     * is larger than the others
+     */
+    @Test
+    public void multipleBlocks() {
+        int[][] shapes = {{100, 7}, {53, 3}, {42, 1}, {160, 10}, {300, 5}};
+        for (int[] shape : shapes) {
+            checkMultipleBlocks(new QRDecompositionTSQR_DDRM(1), shape[0], shape[1], rand);
+        }
+    }
+
+    public static void checkMultipleBlocks( QRDecompositionTSQR_DDRM alg, int numRows, int numCols, Random rand ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(numRows, numCols, -1, 1, rand);
+
+        assertTrue(alg.decompose(A));
+        assertTrue(alg.getNumLeaves() > 1);
+
+        DMatrixRMaj Q = alg.getQ(null, true);
+        DMatrixRMaj R = alg.getR(null, true);
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(Q, UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isUpperTriangle(R, 0, 0.0));
+        EjmlUnitTests.assertEquals(A, CommonOps_DDRM.mult(Q, R, null), UtilEjml.TEST_F64);
+
+        // R is unique up to the sign of each row
+        var expected = new QRDecompositionHouseholderColumn_DDRM();
+        assertTrue(expected.decompose(A));
+        DMatrixRMaj expectedR = expected.getR(null, true);
+        for (int i = 0; i < numCols; i++) {
+            for (int j = 0; j < numCols; j++) {
+                assertEquals(Math.abs(expectedR.get(i, j)), Math.abs(R.get(i, j)), UtilEjml.TEST_F64);
+            }
+        }
+
+        // Full Q should also be orthogonal and reproduce A
+        DMatrixRMaj Qfull = alg.getQ(null, false);
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(Qfull, UtilEjml.TEST_F64));
+        EjmlUnitTests.assertEquals(A, CommonOps_DDRM.mult(Qfull, alg.getR(null, false), null), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Applying Q and Q^T should be the same as multiplying by them
+     */
+    @Test
+    public void applyQ_applyQTran() {
+        var alg = new QRDecompositionTSQR_DDRM(1);
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(61, 4, rand);
+        assertTrue(alg.decompose(A));
+        DMatrixRMaj Q = alg.getQ(null, false);
+
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(61, 3, rand);
+
+        DMatrixRMaj found = B.copy();
+        alg.applyQ(found);
+        EjmlUnitTests.assertEquals(CommonOps_DDRM.mult(Q, B, null), found, UtilEjml.TEST_F64);
+
+        found = B.copy();
+        alg.applyQTran(found);
+        EjmlUnitTests.assertEquals(CommonOps_DDRM.multTransA(Q, B, null), found, UtilEjml.TEST_F64);
+    }
+
+    /**
+     * A block of rows which is all zeros is fine as long as the whole matrix has full rank
+     */
+    @Test
+    public void zeroBlock() {
+        var alg = new QRDecompositionTSQR_DDRM(1);
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(40, 4, rand);
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 4; j++) {
+                A.set(i, j, 0);
+            }
+        }
+        assertTrue(alg.decompose(A));
+        EjmlUnitTests.assertEquals(A, CommonOps_DDRM.mult(alg.getQ(null, true), alg.getR(null, true), null),
+                UtilEjml.TEST_F64);
+
+        // a column of zeros is rank deficient
+        for (int i = 0; i < A.numRows; i++) {
+            A.set(i, 2, 0);
+        }
+        assertFalse(alg.decompose(A));
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.qr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestQRDecompositionTSQR_MT_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    void multipleBlocks() {
+        int[][] shapes = {{100, 7}, {53, 3}, {160, 10}, {400, 5}};
+        for (int[] shape : shapes) {
+            TestQRDecompositionTSQR_DDRM.checkMultipleBlocks(new QRDecompositionTSQR_MT_DDRM(1), shape[0], shape[1], rand);
+        }
+    }
+}
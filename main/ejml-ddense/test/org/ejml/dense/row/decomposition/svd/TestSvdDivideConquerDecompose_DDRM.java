@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.svd.divideconquer.SvdDivideConquerAlgorithm_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdDivideConquerDecompose_DDRM extends StandardSvdChecks_DDRM {
+
+    boolean compact;
+    boolean needU = true;
+    boolean needV = true;
+    int leafSize = 25;
+
+    @Override
+    public SingularValueDecomposition_F64<DMatrixRMaj> createSvd() {
+        return new SvdDivideConquerDecompose_DDRM(compact, needU, needV, new SvdDivideConquerAlgorithm_DDRM(leafSize));
+    }
+
+    @Test
+    public void checkCompact() {
+        compact = true;
+        for (int leafSize : new int[]{2, 3, 25}) {
+            this.leafSize = leafSize;
+            allTests();
+        }
+    }
+
+    @Test
+    public void checkNotCompact() {
+        compact = false;
+        for (int leafSize : new int[]{2, 3, 25}) {
+            this.leafSize = leafSize;
+            allTests();
+        }
+    }
+
+    /**
+     * Only U or only V is computed
+     */
+    @Test
+    public void checkOnlyOneVector() {
+        leafSize = 3;
+        for (int[] shape : new int[][]{{20, 12}, {12, 20}}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(shape[0], shape[1], -1, 1, rand);
+            for (boolean compact : new boolean[]{true, false}) {
+                this.compact = compact;
+                for (int which = 0; which < 2; which++) {
+                    needU = which == 0;
+                    needV = which == 1;
+                    SingularValueDecomposition_F64<DMatrixRMaj> alg = createSvd();
+                    assertTrue(alg.decompose(A));
+                    if (needU)
+                        assertTrue(MatrixFeatures_DDRM.isOrthogonal(alg.getU(null, false), UtilEjml.TEST_F64));
+                    if (needV)
+                        assertTrue(MatrixFeatures_DDRM.isOrthogonal(alg.getV(null, false), UtilEjml.TEST_F64));
+                    checkSameSingularValues(A, alg);
+                }
+            }
+        }
+    }
+
+    /**
+     * The singular values should be the same as the ones found by the QR algorithm
+     */
+    @Test
+    public void compareToQrAlgorithm() {
+        compact = true;
+        leafSize = 4;
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(60, 45, -1, 1, rand);
+        SingularValueDecomposition_F64<DMatrixRMaj> alg = createSvd();
+        assertTrue(alg.decompose(A));
+        checkSameSingularValues(A, alg);
+
+        DMatrixRMaj U = alg.getU(null, false);
+        DMatrixRMaj W = alg.getW(null);
+        DMatrixRMaj Vt = alg.getV(null, true);
+        DMatrixRMaj found = CommonOps_DDRM.mult(CommonOps_DDRM.mult(U, W, null), Vt, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, UtilEjml.TEST_F64));
+    }
+
+    private void checkSameSingularValues( DMatrixRMaj A, SingularValueDecomposition_F64<DMatrixRMaj> alg ) {
+        var qr = new SvdImplicitQrDecompose_DDRM(true, false, false, false);
+        assertTrue(qr.decompose(A));
+        assertEquals(qr.numberOfSingularValues(), alg.numberOfSingularValues());
+
+        double[] expected = Arrays.copyOf(qr.getSingularValues(), qr.numberOfSingularValues());
+        double[] found = Arrays.copyOf(alg.getSingularValues(), alg.numberOfSingularValues());
+        Arrays.sort(expected);
+        Arrays.sort(found);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], found[i], UtilEjml.TEST_F64);
+        }
+    }
+}
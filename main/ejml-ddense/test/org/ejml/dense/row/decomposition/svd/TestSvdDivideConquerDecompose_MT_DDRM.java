@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.decomposition.svd.divideconquer.SvdDivideConquerAlgorithm_MT_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdDivideConquerDecompose_MT_DDRM extends StandardSvdChecks_DDRM {
+
+    boolean compact;
+
+    @Override
+    public SingularValueDecomposition_F64<DMatrixRMaj> createSvd() {
+        var alg = new SvdDivideConquerDecompose_MT_DDRM(compact, true, true);
+        // force the small test matrices to be split and solved concurrently
+        var divide = (SvdDivideConquerAlgorithm_MT_DDRM)alg.getDivide();
+        divide.setMinimumConcurrent(4);
+        return alg;
+    }
+
+    @Test
+    public void checkCompact() {
+        compact = true;
+        allTests();
+    }
+
+    @Test
+    public void checkNotCompact() {
+        compact = false;
+        allTests();
+    }
+
+    @Test
+    public void checkBlockBidiagonal() {
+        int before = EjmlParameters.SWITCH_BLOCK_BIDIAGONAL;
+        EjmlParameters.SWITCH_BLOCK_BIDIAGONAL = 1;
+        try {
+            compact = true;
+            allTests();
+            compact = false;
+            allTests();
+        } finally {
+            EjmlParameters.SWITCH_BLOCK_BIDIAGONAL = before;
+        }
+    }
+}
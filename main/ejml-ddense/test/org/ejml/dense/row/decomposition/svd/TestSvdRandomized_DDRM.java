@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdRandomized_DDRM {
+    Random rand = new Random(234);
+
+    public SvdRandomized_DDRM createSvd( int targetRank, int oversample, int powerIterations ) {
+        return new SvdRandomized_DDRM(targetRank, oversample, powerIterations, true, true);
+    }
+
+    /**
+     * The matrix has the same rank as the number of requested singular values, so the decomposition is exact
+     */
+    @Test
+    public void exactLowRank() {
+        for (int[] shape : new int[][]{{60, 25}, {25, 60}}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.singular(shape[0], shape[1], rand, 9, 5, 3, 2, 0.5);
+
+            SvdRandomized_DDRM alg = createSvd(5, 0, 0);
+            assertTrue(alg.decompose(A));
+            assertEquals(5, alg.numberOfSingularValues());
+
+            double[] sv = alg.getSingularValues();
+            double[] expected = {9, 5, 3, 2, 0.5};
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], sv[i], UtilEjml.TEST_F64);
+            }
+
+            checkReconstruct(A, alg, UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Compare the largest singular values against a full SVD when the singular values decay
+     */
+    @Test
+    public void compareToFull() {
+        double[] sv = new double[40];
+        for (int i = 0; i < sv.length; i++) {
+            sv[i] = Math.pow(0.6, i);
+        }
+        DMatrixRMaj A = RandomMatrices_DDRM.singular(100, 40, rand, sv);
+
+        SvdRandomized_DDRM alg = createSvd(6, 10, 2);
+        assertTrue(alg.decompose(A));
+        checkOrthogonal(alg.getU(null, false));
+        checkOrthogonal(alg.getV(null, false));
+
+        double[] found = alg.getSingularValues();
+        for (int i = 0; i < 6; i++) {
+            assertEquals(sv[i], found[i], 1e-8);
+        }
+
+        // The truncated SVD is the best rank k approximation. Compare against the one from a full SVD
+        SingularValueDecomposition_F64<DMatrixRMaj> full = DecompositionFactory_DDRM.svd(true, true, true);
+        assertTrue(full.decompose(A.copy()));
+        DMatrixRMaj U = full.getU(null, false);
+        DMatrixRMaj W = full.getW(null);
+        DMatrixRMaj V = full.getV(null, false);
+        SingularOps_DDRM.descendingOrder(U, false, W, V, false);
+        DMatrixRMaj expected = reconstruct(
+                CommonOps_DDRM.extract(U, 0, U.numRows, 0, 6),
+                CommonOps_DDRM.extract(W, 0, 6, 0, 6),
+                CommonOps_DDRM.extract(V, 0, V.numRows, 0, 6));
+        DMatrixRMaj approx = reconstruct(alg.getU(null, false), alg.getW(null), alg.getV(null, false));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, approx, 1e-8));
+    }
+
+    /**
+     * More singular values are requested than the size of the matrix
+     */
+    @Test
+    public void targetLargerThanMatrix() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(12, 7, rand);
+
+        SvdRandomized_DDRM alg = createSvd(20, 5, 1);
+        assertTrue(alg.decompose(A));
+        assertEquals(7, alg.numberOfSingularValues());
+        checkReconstruct(A, alg, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void getters_transposed() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(20, 10, rand);
+
+        SvdRandomized_DDRM alg = createSvd(3, 4, 1);
+        assertTrue(alg.decompose(A));
+
+        DMatrixRMaj U = alg.getU(null, false);
+        DMatrixRMaj V = alg.getV(null, false);
+        assertEquals(20, U.numRows);
+        assertEquals(3, U.numCols);
+        assertEquals(10, V.numRows);
+        assertEquals(3, V.numCols);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(CommonOps_DDRM.transpose(U, null), alg.getU(null, true), 0));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(CommonOps_DDRM.transpose(V, null), alg.getV(null, true), 0));
+
+        // provided storage should be used
+        DMatrixRMaj storage = new DMatrixRMaj(1, 1);
+        assertSame(storage, alg.getU(storage, true));
+        assertEquals(3, storage.numRows);
+    }
+
+    @Test
+    public void notComputed() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(20, 10, rand);
+
+        var alg = new SvdRandomized_DDRM(3, 4, 1, false, false);
+        assertTrue(alg.decompose(A));
+        assertThrows(IllegalArgumentException.class, () -> alg.getU(null, false));
+        assertThrows(IllegalArgumentException.class, () -> alg.getV(null, false));
+
+        // singular values should still be computed
+        var full = new SvdRandomized_DDRM(3, 4, 1, true, true);
+        assertTrue(full.decompose(A));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(full.getSingularValues()[i], alg.getSingularValues()[i], UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Centering the columns should produce the same results as explicitly removing the mean
+     */
+    @Test
+    public void centerColumns() {
+        DMatrixRMaj centered = RandomMatrices_DDRM.singular(50, 15, rand, 10, 6, 4, 1);
+        DMatrixRMaj A = centered.copy();
+        for (int col = 0; col < A.numCols; col++) {
+            double mean = 0;
+            for (int row = 0; row < A.numRows; row++) {
+                mean += centered.get(row, col);
+            }
+            mean /= A.numRows;
+            for (int row = 0; row < A.numRows; row++) {
+                centered.add(row, col, -mean);
+                A.add(row, col, col + 1.5);
+            }
+        }
+
+        SvdRandomized_DDRM alg = createSvd(4, 5, 1);
+        alg.setCenterColumns(true);
+        assertTrue(alg.decompose(A));
+
+        for (int col = 0; col < A.numCols; col++) {
+            double expected = CommonOps_DDRM.sumCols(A, null).get(col)/A.numRows;
+            assertEquals(expected, alg.getColumnMeans().get(col), UtilEjml.TEST_F64);
+        }
+        checkReconstruct(centered, alg, 1e-8);
+    }
+
+    /**
+     * The same seed should produce the same results
+     */
+    @Test
+    public void setRandom() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(30, 20, rand);
+
+        SvdRandomized_DDRM alg = createSvd(4, 2, 0);
+        alg.setRandom(new Random(5));
+        assertTrue(alg.decompose(A));
+        DMatrixRMaj U = alg.getU(null, false);
+
+        alg.setRandom(new Random(5));
+        assertTrue(alg.decompose(A));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(U, alg.getU(null, false), 0));
+    }
+
+    private static void checkReconstruct( DMatrixRMaj A, SingularValueDecomposition_F64<DMatrixRMaj> alg,
+                                          double tol ) {
+        DMatrixRMaj U = alg.getU(null, false);
+        DMatrixRMaj V = alg.getV(null, false);
+        checkOrthogonal(U);
+        checkOrthogonal(V);
+        DMatrixRMaj found = reconstruct(U, alg.getW(null), V);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, tol));
+    }
+
+    private static DMatrixRMaj reconstruct( DMatrixRMaj U, DMatrixRMaj W, DMatrixRMaj V ) {
+        DMatrixRMaj UW = CommonOps_DDRM.mult(U, W, null);
+        return CommonOps_DDRM.multTransB(UW, V, null);
+    }
+
+    private static void checkOrthogonal( DMatrixRMaj Q ) {
+        DMatrixRMaj I = CommonOps_DDRM.multTransA(Q, Q, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentity(I, UtilEjml.TEST_F64));
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd.divideconquer;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.decomposition.svd.implicitqr.SvdImplicitQrAlgorithm_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdDivideConquerAlgorithm_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Random bidiagonal matrices with different leaf sizes, including ones where every level is merged
+     */
+    @Test
+    void random() {
+        for (int leafSize : new int[]{2, 5, 25}) {
+            for (int N : new int[]{1, 2, 3, 10, 31, 100}) {
+                double[] diag = new double[N];
+                double[] off = new double[N];
+                for (int i = 0; i < N; i++) {
+                    diag[i] = rand.nextGaussian();
+                    off[i] = rand.nextGaussian();
+                }
+                check(new SvdDivideConquerAlgorithm_DDRM(leafSize), N, diag, off);
+            }
+        }
+    }
+
+    /**
+     * Many repeated singular values cause most of the components to be deflated
+     */
+    @Test
+    void repeatedSingularValues() {
+        int N = 60;
+        double[] diag = new double[N];
+        double[] off = new double[N];
+
+        // identity
+        Arrays.fill(diag, 1.0);
+        check(new SvdDivideConquerAlgorithm_DDRM(4), N, diag, off);
+
+        // several decoupled blocks with the same values
+        for (int i = 0; i < N; i++) {
+            diag[i] = 1 + i%3;
+            off[i] = i%7 == 6 ? 0.0 : 0.5;
+        }
+        check(new SvdDivideConquerAlgorithm_DDRM(4), N, diag, off);
+
+        // every element is the same
+        Arrays.fill(diag, 2.0);
+        Arrays.fill(off, 2.0);
+        check(new SvdDivideConquerAlgorithm_DDRM(4), N, diag, off);
+    }
+
+    /**
+     * Zeros on the diagonal make the matrix singular
+     */
+    @Test
+    void singular() {
+        int N = 40;
+        double[] diag = new double[N];
+        double[] off = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = i%5 == 2 ? 0.0 : rand.nextGaussian();
+            off[i] = rand.nextGaussian();
+        }
+        check(new SvdDivideConquerAlgorithm_DDRM(3), N, diag, off);
+
+        // all zeros
+        Arrays.fill(diag, 0.0);
+        Arrays.fill(off, 0.0);
+        check(new SvdDivideConquerAlgorithm_DDRM(3), N, diag, off);
+    }
+
+    /**
+     * All the elements are very small or very large, which can cause underflow or overflow
+     */
+    @Test
+    void extremeMagnitudes() {
+        int N = 30;
+        for (double magnitude : new double[]{1e-190, 1e150}) {
+            double[] diag = new double[N];
+            double[] off = new double[N];
+            for (int i = 0; i < N; i++) {
+                diag[i] = rand.nextGaussian()*magnitude;
+                off[i] = rand.nextGaussian()*magnitude;
+            }
+            check(new SvdDivideConquerAlgorithm_DDRM(2), N, diag, off);
+        }
+    }
+
+    /**
+     * Elements with both signs and very different magnitudes
+     */
+    @Test
+    void mixedSignsAndScales() {
+        int N = 80;
+        double[] diag = new double[N];
+        double[] off = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = rand.nextGaussian()*Math.pow(10, rand.nextInt(6) - 3);
+            off[i] = (rand.nextBoolean() ? -1 : 1)*Math.pow(10, rand.nextInt(8) - 6);
+        }
+        check(new SvdDivideConquerAlgorithm_DDRM(3), N, diag, off);
+    }
+
+    /**
+     * The singular values are the same as the QR algorithm
+     */
+    @Test
+    void compareToQrAlgorithm() {
+        int N = 50;
+        double[] diag = new double[N];
+        double[] off = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = rand.nextGaussian();
+            off[i] = rand.nextGaussian();
+        }
+
+        var alg = new SvdDivideConquerAlgorithm_DDRM(6);
+        assertTrue(alg.process(N, diag, off));
+
+        var qr = new SvdImplicitQrAlgorithm_DDRM();
+        qr.setMatrix(N, N, diag.clone(), off.clone());
+        assertTrue(qr.process());
+        double[] expected = new double[N];
+        for (int i = 0; i < N; i++) {
+            expected[i] = Math.abs(qr.getSingularValue(i));
+        }
+        Arrays.sort(expected);
+
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i], alg.getSingularValue(i), UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Makes sure the input isn't modified, the singular values are sorted and positive, the singular vectors are
+     * orthogonal, and B*V = U*S
+     */
+    public static void check( SvdDivideConquerAlgorithm_DDRM alg, int N, double[] diag, double[] off ) {
+        double[] diagOrig = diag.clone();
+        double[] offOrig = off.clone();
+
+        assertTrue(alg.process(N, diag, off));
+        assertArrayEquals(diagOrig, diag);
+        assertArrayEquals(offOrig, off);
+        assertEquals(N, alg.getNumberOfSingularValues());
+
+        DMatrixRMaj B = new DMatrixRMaj(N, N);
+        double scale = 0;
+        for (int i = 0; i < N; i++) {
+            B.set(i, i, diag[i]);
+            scale = Math.max(scale, Math.abs(diag[i]));
+            if (i + 1 < N) {
+                B.set(i, i + 1, off[i]);
+                scale = Math.max(scale, Math.abs(off[i]));
+            }
+        }
+        scale = Math.max(scale, 1e-300);
+
+        double[] values = new double[N];
+        for (int i = 0; i < N; i++) {
+            values[i] = alg.getSingularValue(i);
+            assertTrue(values[i] >= 0);
+            if (i > 0)
+                assertTrue(values[i - 1] <= values[i]);
+        }
+
+        DMatrixRMaj U = alg.getU();
+        DMatrixRMaj V = alg.getV();
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(U, UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(V, UtilEjml.TEST_F64));
+
+        DMatrixRMaj BV = CommonOps_DDRM.mult(B, V, null);
+        DMatrixRMaj US = CommonOps_DDRM.mult(U, CommonOps_DDRM.diag(values), null);
+        double error = NormOps_DDRM.normF(CommonOps_DDRM.subtract(BV, US, null))/scale;
+        assertEquals(0.0, error, UtilEjml.TEST_F64*Math.max(1, N));
+    }
+}
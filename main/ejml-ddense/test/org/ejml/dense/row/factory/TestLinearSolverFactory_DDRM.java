@@ -18,18 +18,21 @@
 
 package org.ejml.dense.row.factory;
 
+import org.ejml.EjmlParameters;
 import org.ejml.LinearSolverSafe;
 import org.ejml.UtilEjml;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.CommonOps_DDRM;
 import org.ejml.dense.row.MatrixFeatures_DDRM;
 import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderBlock_DDRM;
 import org.ejml.dense.row.linsol.AdjustableLinearSolver_DDRM;
 import org.ejml.interfaces.linsol.LinearSolverDense;
 import org.junit.jupiter.api.Test;
 
 import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -73,6 +76,24 @@ public class TestLinearSolverFactory_DDRM {
         standardTest(A, x, y, solver);
     }
 
+    @Test
+    public void leastSquaresQrPivot() {
+        for (boolean computeQ : new boolean[]{false, true}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5,4,rand);
+            DMatrixRMaj x = RandomMatrices_DDRM.rectangle(4,1,rand);
+            DMatrixRMaj y = new DMatrixRMaj(5,1);
+
+            LinearSolverDense<DMatrixRMaj> solver = LinearSolverFactory_DDRM.leastSquaresQrPivot(A.numRows,A.numCols,true,computeQ);
+            assertFalse(solver.getDecomposition() instanceof QRColPivDecompositionHouseholderBlock_DDRM);
+            standardTest(A, x, y, solver);
+
+            // large matrices should use the blocked decomposition
+            int N = EjmlParameters.SWITCH_BLOCK_QRP;
+            solver = LinearSolverFactory_DDRM.leastSquaresQrPivot(N+10,N,true,computeQ);
+            assertTrue(solver.getDecomposition() instanceof QRColPivDecompositionHouseholderBlock_DDRM);
+        }
+    }
+
     @Test
     public void symmetric() {
         DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(5,rand);
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.factory;
+
+import org.ejml.EjmlParameters;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionBlock_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderBlock_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderColumn_DDRM;
+import org.ejml.dense.row.linsol.lu.LinearSolverLu_DDRM;
+import org.ejml.interfaces.decomposition.QRPDecomposition_F64;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearSolverFactory_MT_DDRM {
+
+    Random rand = new Random(234);
+
+    /**
+     * Small systems should use the single threaded decomposition and large systems the blocked concurrent one
+     */
+    @Test
+    public void linear() {
+        int small = EjmlParameters.SWITCH_BLOCK_LU - 1;
+        int large = EjmlParameters.SWITCH_BLOCK_LU;
+
+        LinearSolverDense<DMatrixRMaj> solver = LinearSolverFactory_MT_DDRM.linear(small);
+        assertTrue(((LinearSolverLu_DDRM)solver).getDecomposition() instanceof LUDecompositionAlt_DDRM);
+        standardTest(small, solver);
+
+        solver = LinearSolverFactory_MT_DDRM.linear(large);
+        assertTrue(((LinearSolverLu_DDRM)solver).getDecomposition() instanceof LUDecompositionBlock_MT_DDRM);
+        standardTest(large, solver);
+
+        assertTrue(DecompositionFactory_MT_DDRM.lu(small, large) instanceof LUDecompositionAlt_DDRM);
+        assertTrue(DecompositionFactory_MT_DDRM.lu(large, large) instanceof LUDecompositionBlock_MT_DDRM);
+    }
+
+    @Test
+    public void qrp() {
+        int small = EjmlParameters.SWITCH_BLOCK_QRP - 1;
+        int large = EjmlParameters.SWITCH_BLOCK_QRP;
+
+        QRPDecomposition_F64<DMatrixRMaj> decomp = DecompositionFactory_MT_DDRM.qrp(large, small);
+        assertSame(QRColPivDecompositionHouseholderColumn_DDRM.class, decomp.getClass());
+        decomp = DecompositionFactory_MT_DDRM.qrp(large, large);
+        assertSame(QRColPivDecompositionHouseholderBlock_MT_DDRM.class, decomp.getClass());
+    }
+
+    private void standardTest( int N, LinearSolverDense<DMatrixRMaj> solver ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N, N, rand);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(N, 1, rand);
+        DMatrixRMaj y = new DMatrixRMaj(N, 1);
+        CommonOps_DDRM.mult(A, x, y);
+
+        DMatrixRMaj found = new DMatrixRMaj(N, 1);
+        assertTrue(solver.setA(A));
+        solver.solve(y, found);
+
+        // random matrices this large can be poorly conditioned, so check the residual instead of the solution
+        DMatrixRMaj residual = new DMatrixRMaj(N, 1);
+        CommonOps_DDRM.mult(A, found, residual);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(y, residual, UtilEjml.TEST_F64*N));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.linsol.qr;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_MT_DDRM;
+import org.ejml.dense.row.linsol.GenericLinearSolverChecks_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearSolverQrTSQR_DDRM extends GenericLinearSolverChecks_DDRM {
+    @Override
+    protected LinearSolverDense<DMatrixRMaj> createSolver( DMatrixRMaj A ) {
+        return new LinearSolverQrTSQR_DDRM(new QRDecompositionTSQR_DDRM(1));
+    }
+
+    /**
+     * Compare against a solver which doesn't split the matrix into blocks
+     */
+    @Test
+    public void compareToHouseCol() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(500, 12, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(500, 3, rand);
+
+        var expected = new LinearSolverQrHouseCol_DDRM();
+        assertTrue(expected.setA(A));
+        DMatrixRMaj expectedX = new DMatrixRMaj(1, 1);
+        expected.solve(B, expectedX);
+
+        for (var alg : new LinearSolverQrTSQR_DDRM[]{
+                new LinearSolverQrTSQR_DDRM(new QRDecompositionTSQR_DDRM(30)),
+                new LinearSolverQrTSQR_DDRM(new QRDecompositionTSQR_MT_DDRM(30))}) {
+            assertTrue(alg.setA(A));
+            DMatrixRMaj foundX = new DMatrixRMaj(1, 1);
+            alg.solve(B, foundX);
+            EjmlUnitTests.assertEquals(expectedX, foundX, UtilEjml.TEST_F64);
+        }
+    }
+}
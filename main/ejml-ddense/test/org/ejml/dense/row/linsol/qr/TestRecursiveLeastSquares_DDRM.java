@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.linsol.qr;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRecursiveLeastSquares_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Add observations one at a time and compare to a batch solution
+     */
+    @Test
+    public void addObservation() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(30, 6, -1, 1, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(30, 1, -1, 1, rand);
+
+        var alg = new RecursiveLeastSquares_DDRM(6, 1);
+        DMatrixRMaj row = new DMatrixRMaj(1, 6);
+        DMatrixRMaj found = new DMatrixRMaj(1, 1);
+        for (int i = 0; i < A.numRows; i++) {
+            CommonOps_DDRM.extractRow(A, i, row);
+            alg.addObservation(row.data, B.get(i, 0));
+
+            if (i < 5) {
+                assertFalse(alg.solve(found));
+            } else {
+                assertTrue(alg.solve(found));
+                checkSolution(CommonOps_DDRM.extract(A, 0, i + 1, 0, 6),
+                        CommonOps_DDRM.extract(B, 0, i + 1, 0, 1), alg);
+            }
+        }
+        assertEquals(30, alg.getNumObservations());
+    }
+
+    /**
+     * Several observations and right-hand sides at once
+     */
+    @Test
+    public void addObservations_batch() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(40, 5, -1, 1, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(40, 3, -1, 1, rand);
+
+        var alg = new RecursiveLeastSquares_DDRM(5, 3);
+        alg.addObservations(CommonOps_DDRM.extract(A, 0, 25, 0, 5), CommonOps_DDRM.extract(B, 0, 25, 0, 3));
+        alg.addObservations(CommonOps_DDRM.extract(A, 25, 40, 0, 5), CommonOps_DDRM.extract(B, 25, 40, 0, 3));
+
+        checkSolution(A, B, alg);
+
+        // R'*R = A'*A
+        DMatrixRMaj R = alg.getR(null);
+        DMatrixRMaj RtR = new DMatrixRMaj(1, 1);
+        DMatrixRMaj AtA = new DMatrixRMaj(1, 1);
+        CommonOps_DDRM.multTransA(R, R, RtR);
+        CommonOps_DDRM.multTransA(A, A, AtA);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(AtA, RtR, UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isUpperTriangle(R, 0, 0.0));
+    }
+
+    @Test
+    public void removeObservations() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(40, 5, -1, 1, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(40, 2, -1, 1, rand);
+
+        var alg = new RecursiveLeastSquares_DDRM(5, 2);
+        alg.addObservations(A, B);
+        assertTrue(alg.removeObservations(CommonOps_DDRM.extract(A, 0, 10, 0, 5),
+                CommonOps_DDRM.extract(B, 0, 10, 0, 2)));
+        assertEquals(30, alg.getNumObservations());
+
+        checkSolution(CommonOps_DDRM.extract(A, 10, 40, 0, 5), CommonOps_DDRM.extract(B, 10, 40, 0, 2), alg);
+    }
+
+    /**
+     * Only the most recent observations should be used
+     */
+    @Test
+    public void slidingWindow() {
+        int window = 20;
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(100, 4, -1, 1, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(100, 1, -1, 1, rand);
+
+        var alg = new RecursiveLeastSquares_DDRM(4, 1, window);
+        DMatrixRMaj row = new DMatrixRMaj(1, 4);
+        for (int i = 0; i < A.numRows; i++) {
+            CommonOps_DDRM.extractRow(A, i, row);
+            alg.addObservation(row.data, B.get(i, 0));
+            assertEquals(Math.min(i + 1, window), alg.getNumObservations());
+        }
+
+        checkSolution(CommonOps_DDRM.extract(A, 80, 100, 0, 4), CommonOps_DDRM.extract(B, 80, 100, 0, 1), alg);
+
+        // the window can't be adjusted manually
+        assertThrows(IllegalArgumentException.class, () -> alg.removeObservation(row.data, 1.0));
+    }
+
+    @Test
+    public void reset() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(20, 4, -1, 1, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(20, 1, -1, 1, rand);
+
+        var alg = new RecursiveLeastSquares_DDRM(4, 1, 10);
+        alg.addObservations(RandomMatrices_DDRM.rectangle(15, 4, -1, 1, rand),
+                RandomMatrices_DDRM.rectangle(15, 1, -1, 1, rand));
+        alg.reset();
+        assertEquals(0, alg.getNumObservations());
+
+        alg.addObservations(CommonOps_DDRM.extract(A, 0, 8, 0, 4), CommonOps_DDRM.extract(B, 0, 8, 0, 1));
+        checkSolution(CommonOps_DDRM.extract(A, 0, 8, 0, 4), CommonOps_DDRM.extract(B, 0, 8, 0, 1), alg);
+    }
+
+    /**
+     * Compares the solution and residuals to the least-squares solution computed from scratch
+     */
+    private void checkSolution( DMatrixRMaj A, DMatrixRMaj B, RecursiveLeastSquares_DDRM alg ) {
+        DMatrixRMaj expected = new DMatrixRMaj(1, 1);
+        assertTrue(CommonOps_DDRM.solve(A, B, expected));
+
+        DMatrixRMaj found = new DMatrixRMaj(1, 1);
+        assertTrue(alg.solve(found));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+
+        DMatrixRMaj residuals = new DMatrixRMaj(1, 1);
+        CommonOps_DDRM.mult(A, expected, residuals);
+        CommonOps_DDRM.subtractEquals(residuals, B);
+        for (int rhs = 0; rhs < B.numCols; rhs++) {
+            double norm = NormOps_DDRM.normF(CommonOps_DDRM.extractColumn(residuals, rhs, null));
+            assertEquals(norm*norm, alg.getResidualSumSquares(rhs), UtilEjml.TEST_F64);
+        }
+    }
+}
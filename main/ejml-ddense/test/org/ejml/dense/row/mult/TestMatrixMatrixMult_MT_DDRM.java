@@ -19,6 +19,13 @@
 package org.ejml.dense.row.mult;
 
 import org.ejml.CheckMultiThreadAgainstSingleThread;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -28,4 +35,37 @@ public class TestMatrixMatrixMult_MT_DDRM extends CheckMultiThreadAgainstSingleT
     public TestMatrixMatrixMult_MT_DDRM() {
         super(MatrixMatrixMult_DDRM.class, MatrixMatrixMult_MT_DDRM.class, 24);
     }
+
+    /**
+     * The generic test only uses square matrices. The multTransA_reorder variants iterate over the columns of A,
+     * so check that they work when A has more and fewer rows than columns.
+     */
+    @Test
+    void multTransA_reorder_notSquare() {
+        for (int[] shape : new int[][]{{30, 11}, {11, 30}}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(shape[0], shape[1], -1, 1, rand);
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(shape[0], 17, -1, 1, rand);
+            DMatrixRMaj C = RandomMatrices_DDRM.rectangle(shape[1], 17, -1, 1, rand);
+
+            DMatrixRMaj expected = C.copy();
+            DMatrixRMaj found = C.copy();
+            MatrixMatrixMult_DDRM.multTransA_reorder(A, B, expected);
+            MatrixMatrixMult_MT_DDRM.multTransA_reorder(A, B, found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+
+            MatrixMatrixMult_DDRM.multTransA_reorder(2.5, A, B, expected);
+            MatrixMatrixMult_MT_DDRM.multTransA_reorder(2.5, A, B, found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+
+            expected.setTo(C);
+            found.setTo(C);
+            MatrixMatrixMult_DDRM.multAddTransA_reorder(A, B, expected);
+            MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(A, B, found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+
+            MatrixMatrixMult_DDRM.multAddTransA_reorder(2.5, A, B, expected);
+            MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(2.5, A, B, found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+        }
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlParameters;
+import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMultPacked_DDRM {
+    Random rand = new Random(234);
+
+    int defaultKC = MatrixMultPacked_DDRM.KC;
+    int defaultMC = MatrixMultPacked_DDRM.MC;
+    int defaultNC = MatrixMultPacked_DDRM.NC;
+
+    @AfterEach
+    public void resetBlockSizes() {
+        MatrixMultPacked_DDRM.KC = defaultKC;
+        MatrixMultPacked_DDRM.MC = defaultMC;
+        MatrixMultPacked_DDRM.NC = defaultNC;
+    }
+
+    /**
+     * Compare against a simple implementation for every combination of transposes. Sizes are chosen so that
+     * there are partial tiles along each dimension.
+     */
+    @Test
+    public void compareToSimple() {
+        compareToSimple(1, 1, 1);
+        compareToSimple(3, 5, 7);
+        compareToSimple(17, 9, 30);
+        compareToSimple(64, 64, 64);
+    }
+
+    /**
+     * Small block sizes force multiple blocks along every dimension
+     */
+    @Test
+    public void compareToSimple_multipleBlocks() {
+        MatrixMultPacked_DDRM.KC = 7;
+        MatrixMultPacked_DDRM.MC = 10;
+        MatrixMultPacked_DDRM.NC = 19;
+        compareToSimple(33, 29, 41);
+        compareToSimple(8, 14, 16);
+    }
+
+    void compareToSimple( int M, int K, int N ) {
+        // reuse the workspace to make sure stale data isn't a problem
+        var workA = new DGrowArray();
+        var workB = new DGrowArray();
+
+        for (boolean transA : new boolean[]{false, true}) {
+            for (boolean transB : new boolean[]{false, true}) {
+                DMatrixRMaj A = transA ? RandomMatrices_DDRM.rectangle(K, M, rand) : RandomMatrices_DDRM.rectangle(M, K, rand);
+                DMatrixRMaj B = transB ? RandomMatrices_DDRM.rectangle(N, K, rand) : RandomMatrices_DDRM.rectangle(K, N, rand);
+
+                DMatrixRMaj opA = transA ? CommonOps_DDRM.transpose(A, null) : A;
+                DMatrixRMaj opB = transB ? CommonOps_DDRM.transpose(B, null) : B;
+                DMatrixRMaj expected = new DMatrixRMaj(M, N);
+                MatrixMatrixMult_DDRM.mult_small(1.5, opA, opB, expected);
+
+                DMatrixRMaj found = RandomMatrices_DDRM.rectangle(M, N, rand);
+                MatrixMultPacked_DDRM.mult(1.5, A, transA, B, transB, found, false, workA, workB);
+                EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+                // add to the previous results
+                MatrixMultPacked_DDRM.mult(1.5, A, transA, B, transB, found, true, workA, workB);
+                CommonOps_DDRM.scale(2.0, expected);
+                EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    /**
+     * If no workspace is passed in then the one cached for the thread is used. Changing sizes between calls
+     * must not cause problems.
+     */
+    @Test
+    public void cachedWorkspace() {
+        int[][] shapes = {{30, 20, 40}, {5, 3, 7}, {33, 29, 41}};
+        for (int[] shape : shapes) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(shape[0], shape[1], rand);
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(shape[1], shape[2], rand);
+            DMatrixRMaj expected = new DMatrixRMaj(shape[0], shape[2]);
+            MatrixMatrixMult_DDRM.mult_small(1.5, A, B, expected);
+
+            DMatrixRMaj found = RandomMatrices_DDRM.rectangle(shape[0], shape[2], rand);
+            MatrixMultPacked_DDRM.mult(1.5, A, false, B, false, found, false, null, null);
+            EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void zeroInnerDimension() {
+        var A = new DMatrixRMaj(4, 0);
+        var B = new DMatrixRMaj(0, 3);
+        var C = RandomMatrices_DDRM.rectangle(4, 3, rand);
+        var original = C.copy();
+
+        MatrixMultPacked_DDRM.mult(1.0, A, false, B, false, C, true, null, null);
+        EjmlUnitTests.assertEquals(original, C, 0.0);
+
+        MatrixMultPacked_DDRM.mult(1.0, A, false, B, false, C, false, null, null);
+        EjmlUnitTests.assertEquals(new DMatrixRMaj(4, 3), C, 0.0);
+    }
+
+    @Test
+    public void badInput() {
+        var A = new DMatrixRMaj(4, 4);
+        var B = new DMatrixRMaj(4, 5);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                MatrixMultPacked_DDRM.mult(1.0, A, false, A, false, A, false, null, null));
+        assertThrows(MatrixDimensionException.class, () ->
+                MatrixMultPacked_DDRM.mult(1.0, B, false, B, false, new DMatrixRMaj(4, 5), false, null, null));
+        assertThrows(MatrixDimensionException.class, () ->
+                MatrixMultPacked_DDRM.mult(1.0, A, false, B, false, new DMatrixRMaj(4, 4), false, null, null));
+    }
+
+    @Test
+    public void isPreferred() {
+        int N = EjmlParameters.MULT_PACKED_SWITCH;
+        assertTrue(MatrixMultPacked_DDRM.isPreferred(N, N, N));
+        assertFalse(MatrixMultPacked_DDRM.isPreferred(N - 1, N, N));
+        assertFalse(MatrixMultPacked_DDRM.isPreferred(N, N - 1, N));
+        assertFalse(MatrixMultPacked_DDRM.isPreferred(N, N, N - 1));
+    }
+}
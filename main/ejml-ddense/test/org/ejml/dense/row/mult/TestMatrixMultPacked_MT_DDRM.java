@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pabeles.concurrency.GrowArray;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMultPacked_MT_DDRM {
+    Random rand = new Random(234);
+
+    int defaultKC = MatrixMultPacked_DDRM.KC;
+    int defaultMC = MatrixMultPacked_DDRM.MC;
+
+    @AfterEach
+    public void resetBlockSizes() {
+        MatrixMultPacked_DDRM.KC = defaultKC;
+        MatrixMultPacked_DDRM.MC = defaultMC;
+    }
+
+    @Test
+    public void compareToSingleThread() {
+        compareToSingleThread(3, 5, 7);
+        compareToSingleThread(150, 130, 90);
+
+        MatrixMultPacked_DDRM.KC = 16;
+        MatrixMultPacked_DDRM.MC = 12;
+        compareToSingleThread(101, 77, 45);
+    }
+
+    void compareToSingleThread( int M, int K, int N ) {
+        var workA = new GrowArray<>(DGrowArray::new);
+        var workB = new DGrowArray();
+
+        for (boolean transA : new boolean[]{false, true}) {
+            for (boolean transB : new boolean[]{false, true}) {
+                DMatrixRMaj A = transA ? RandomMatrices_DDRM.rectangle(K, M, rand) : RandomMatrices_DDRM.rectangle(M, K, rand);
+                DMatrixRMaj B = transB ? RandomMatrices_DDRM.rectangle(N, K, rand) : RandomMatrices_DDRM.rectangle(K, N, rand);
+
+                for (boolean add : new boolean[]{false, true}) {
+                    DMatrixRMaj expected = RandomMatrices_DDRM.rectangle(M, N, rand);
+                    DMatrixRMaj found = expected.copy();
+
+                    MatrixMultPacked_DDRM.mult(0.5, A, transA, B, transB, expected, add, null, null);
+                    MatrixMultPacked_MT_DDRM.mult(0.5, A, transA, B, transB, found, add, workA, workB);
+
+                    // Each element is computed by the same sequence of operations so the results must be identical
+                    EjmlUnitTests.assertEquals(expected, found, 0.0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlParameters;
+import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMultStrassen_DDRM {
+    Random rand = new Random(234);
+
+    int defaultCutoff = MatrixMultStrassen_DDRM.CUTOFF;
+
+    @AfterEach
+    public void resetCutoff() {
+        MatrixMultStrassen_DDRM.CUTOFF = defaultCutoff;
+    }
+
+    /**
+     * A small cutoff forces several levels of recursion. Every combination of even and odd dimensions is
+     * tried so that each of the fix up steps is exercised at different levels.
+     */
+    @Test
+    public void compareToClassical() {
+        MatrixMultStrassen_DDRM.CUTOFF = 4;
+        var work = new DGrowArray();
+        for (int M : new int[]{32, 33, 45}) {
+            for (int K : new int[]{32, 35, 50}) {
+                for (int N : new int[]{32, 31, 41}) {
+                    compareToClassical(M, K, N, work);
+                }
+            }
+        }
+    }
+
+    /**
+     * Below the cutoff it should just call the classical algorithm
+     */
+    @Test
+    public void belowCutoff() {
+        compareToClassical(5, 7, 3, null);
+        compareToClassical(1, 1, 1, null);
+    }
+
+    void compareToClassical( int M, int K, int N, DGrowArray work ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(M, K, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(K, N, rand);
+        DMatrixRMaj expected = new DMatrixRMaj(M, N);
+        MatrixMatrixMult_DDRM.mult_small(A, B, expected);
+
+        DMatrixRMaj found = RandomMatrices_DDRM.rectangle(M, N, rand);
+        MatrixMultStrassen_DDRM.mult(A, B, found, work);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+    }
+
+    /**
+     * The inputs and outputs are sub-blocks inside larger matrices
+     */
+    @Test
+    public void strided() {
+        MatrixMultStrassen_DDRM.CUTOFF = 8;
+        int M = 37, K = 40, N = 29;
+        DMatrixRMaj bigA = RandomMatrices_DDRM.rectangle(M + 3, K + 2, rand);
+        DMatrixRMaj bigB = RandomMatrices_DDRM.rectangle(K + 1, N + 5, rand);
+        DMatrixRMaj bigC = RandomMatrices_DDRM.rectangle(M + 2, N + 4, rand);
+        DMatrixRMaj originalC = bigC.copy();
+
+        DMatrixStrided A = DMatrixStrided.view(bigA, 2, 1, M, K);
+        DMatrixStrided B = DMatrixStrided.view(bigB, 1, 3, K, N);
+        DMatrixStrided C = DMatrixStrided.view(bigC, 1, 2, M, N);
+
+        DMatrixRMaj expected = new DMatrixRMaj(M, N);
+        CommonOps_DDRM.mult(CommonOps_DDRM.extract(bigA, 2, 2 + M, 1, 1 + K),
+                CommonOps_DDRM.extract(bigB, 1, 1 + K, 3, 3 + N), expected);
+
+        MatrixMultStrassen_DDRM.mult(A, B, C, null);
+        EjmlUnitTests.assertEquals(expected, CommonOps_DDRM.extract(bigC, 1, 1 + M, 2, 2 + N), UtilEjml.TEST_F64);
+
+        // elements outside of the view must not be modified
+        CommonOps_DDRM.insert(expected, originalC, 1, 2);
+        EjmlUnitTests.assertEquals(originalC, bigC, UtilEjml.TEST_F64);
+    }
+
+    /**
+     * The workspace should be large enough and reused
+     */
+    @Test
+    public void workspace() {
+        MatrixMultStrassen_DDRM.CUTOFF = 4;
+        var work = new DGrowArray();
+        compareToClassical(40, 40, 40, work);
+        double[] data = work.data;
+        assertTrue(data.length >= MatrixMultStrassen_DDRM.workspaceSize(40, 40, 40));
+        compareToClassical(33, 31, 37, work);
+        assertSame(data, work.data);
+    }
+
+    @Test
+    public void badInput() {
+        var A = new DMatrixRMaj(4, 4);
+        var B = new DMatrixRMaj(4, 5);
+
+        assertThrows(IllegalArgumentException.class, () -> MatrixMultStrassen_DDRM.mult(A, A, A, null));
+        assertThrows(MatrixDimensionException.class, () -> MatrixMultStrassen_DDRM.mult(B, B, new DMatrixRMaj(4, 5), null));
+        assertThrows(MatrixDimensionException.class, () -> MatrixMultStrassen_DDRM.mult(A, B, new DMatrixRMaj(4, 4), null));
+    }
+
+    @Test
+    public void isPreferred() {
+        int N = EjmlParameters.MULT_STRASSEN_SWITCH;
+        assertTrue(MatrixMultStrassen_DDRM.isPreferred(N, N, N));
+        assertFalse(MatrixMultStrassen_DDRM.isPreferred(N - 1, N, N));
+        assertFalse(MatrixMultStrassen_DDRM.isPreferred(N, N - 1, N));
+        assertFalse(MatrixMultStrassen_DDRM.isPreferred(N, N, N - 1));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMultStrassen_MT_DDRM {
+    Random rand = new Random(234);
+
+    int defaultCutoff = MatrixMultStrassen_DDRM.CUTOFF;
+    int defaultThreads = EjmlConcurrency.getMaxThreads();
+
+    @AfterEach
+    public void reset() {
+        MatrixMultStrassen_DDRM.CUTOFF = defaultCutoff;
+        EjmlConcurrency.setMaxThreads(defaultThreads);
+    }
+
+    /**
+     * Use enough threads that there are multiple concurrent levels of recursion
+     */
+    @Test
+    public void compareToSingleThread() {
+        EjmlConcurrency.setMaxThreads(20);
+        MatrixMultStrassen_DDRM.CUTOFF = 4;
+        compareToSingleThread(40, 40, 40);
+        compareToSingleThread(45, 39, 51);
+        compareToSingleThread(3, 5, 7);
+    }
+
+    void compareToSingleThread( int M, int K, int N ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(M, K, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(K, N, rand);
+        DMatrixRMaj expected = new DMatrixRMaj(M, N);
+        DMatrixRMaj found = RandomMatrices_DDRM.rectangle(M, N, rand);
+
+        MatrixMultStrassen_DDRM.mult(A, B, expected, null);
+        MatrixMultStrassen_MT_DDRM.mult(A, B, found);
+
+        // The same operations are performed, only with different storage, so the results must be identical
+        EjmlUnitTests.assertEquals(expected, found, 0.0);
+    }
+}
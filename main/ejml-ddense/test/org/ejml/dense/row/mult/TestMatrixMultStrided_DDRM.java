@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlParameters;
+import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixStrided;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMultStrided_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    public void compareToSimple_small() {
+        compareToSimple(1, 1, 1);
+        compareToSimple(3, 5, 7);
+        compareToSimple(9, 1, 4);
+        compareToSimple(17, 9, 30);
+    }
+
+    /**
+     * Large enough that the packed algorithm is used
+     */
+    @Test
+    public void compareToSimple_packed() {
+        int N = EjmlParameters.MULT_PACKED_SWITCH;
+        compareToSimple(N, N + 3, N + 9);
+    }
+
+    /**
+     * Every matrix is a sub-block inside a larger matrix. The product is compared to the same operation on
+     * copies of the sub-blocks and elements outside of the output's sub-block must not be modified.
+     */
+    void compareToSimple( int M, int K, int N ) {
+        for (boolean transA : new boolean[]{false, true}) {
+            for (boolean transB : new boolean[]{false, true}) {
+                int rowsA = transA ? K : M, colsA = transA ? M : K;
+                int rowsB = transB ? N : K, colsB = transB ? K : N;
+
+                DMatrixRMaj bigA = RandomMatrices_DDRM.rectangle(rowsA + 3, colsA + 2, rand);
+                DMatrixRMaj bigB = RandomMatrices_DDRM.rectangle(rowsB + 1, colsB + 4, rand);
+                DMatrixRMaj bigC = RandomMatrices_DDRM.rectangle(M + 2, N + 5, rand);
+                DMatrixRMaj originalC = bigC.copy();
+
+                DMatrixStrided A = DMatrixStrided.view(bigA, 2, 1, rowsA, colsA);
+                DMatrixStrided B = DMatrixStrided.view(bigB, 1, 3, rowsB, colsB);
+                DMatrixStrided C = DMatrixStrided.view(bigC, 1, 2, M, N);
+
+                DMatrixRMaj opA = toMatrix(A, transA);
+                DMatrixRMaj opB = toMatrix(B, transB);
+                DMatrixRMaj expected = new DMatrixRMaj(M, N);
+                MatrixMatrixMult_DDRM.mult_small(1.5, opA, opB, expected);
+
+                MatrixMultStrided_DDRM.mult(1.5, A, transA, B, transB, C, false);
+                EjmlUnitTests.assertEquals(expected, toMatrix(C, false), UtilEjml.TEST_F64);
+                checkOutsideUnchanged(originalC, bigC, 1, 2, M, N);
+
+                // add to the previous results
+                MatrixMultStrided_DDRM.mult(1.5, A, transA, B, transB, C, true);
+                CommonOps_DDRM.scale(2.0, expected);
+                EjmlUnitTests.assertEquals(expected, toMatrix(C, false), UtilEjml.TEST_F64);
+                checkOutsideUnchanged(originalC, bigC, 1, 2, M, N);
+            }
+        }
+    }
+
+    static DMatrixRMaj toMatrix( DMatrixStrided V, boolean transposed ) {
+        var M = new DMatrixRMaj(V.numRows, V.numCols);
+        new DMatrixStrided(M).setTo(V);
+        return transposed ? CommonOps_DDRM.transpose(M, null) : M;
+    }
+
+    static void checkOutsideUnchanged( DMatrixRMaj original, DMatrixRMaj found,
+                                       int row0, int col0, int rows, int cols ) {
+        for (int i = 0; i < original.numRows; i++) {
+            for (int j = 0; j < original.numCols; j++) {
+                if (i >= row0 && i < row0 + rows && j >= col0 && j < col0 + cols)
+                    continue;
+                assertEquals(original.get(i, j), found.get(i, j), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void zeroInnerDimension() {
+        var A = new DMatrixStrided(4, 0);
+        var B = new DMatrixStrided(0, 3);
+        DMatrixRMaj bigC = RandomMatrices_DDRM.rectangle(6, 5, rand);
+        DMatrixRMaj original = bigC.copy();
+        DMatrixStrided C = DMatrixStrided.view(bigC, 1, 1, 4, 3);
+
+        MatrixMultStrided_DDRM.mult(1.0, A, false, B, false, C, true);
+        EjmlUnitTests.assertEquals(original, bigC, 0.0);
+
+        MatrixMultStrided_DDRM.mult(1.0, A, false, B, false, C, false);
+        EjmlUnitTests.assertEquals(new DMatrixRMaj(4, 3), toMatrix(C, false), 0.0);
+        checkOutsideUnchanged(original, bigC, 1, 1, 4, 3);
+    }
+
+    /**
+     * Blocks from the same matrix can be used as long as the output doesn't overlap with an input
+     */
+    @Test
+    public void blocksInSameMatrix() {
+        DMatrixRMaj big = RandomMatrices_DDRM.rectangle(8, 8, rand);
+        DMatrixStrided A = DMatrixStrided.view(big, 0, 0, 4, 4);
+        DMatrixStrided B = DMatrixStrided.view(big, 0, 4, 4, 4);
+        DMatrixStrided C = DMatrixStrided.view(big, 4, 4, 4, 4);
+
+        DMatrixRMaj expected = new DMatrixRMaj(4, 4);
+        CommonOps_DDRM.mult(toMatrix(A, false), toMatrix(B, false), expected);
+        MatrixMultStrided_DDRM.mult(1.0, A, false, B, false, C, false);
+        EjmlUnitTests.assertEquals(expected, toMatrix(C, false), UtilEjml.TEST_F64);
+
+        DMatrixStrided overlapping = DMatrixStrided.view(big, 2, 2, 4, 4);
+        assertThrows(IllegalArgumentException.class, () ->
+                MatrixMultStrided_DDRM.mult(1.0, A, false, B, false, overlapping, false));
+    }
+
+    @Test
+    public void badShape() {
+        var A = new DMatrixStrided(4, 4);
+        var B = new DMatrixStrided(4, 5);
+
+        assertThrows(MatrixDimensionException.class, () ->
+                MatrixMultStrided_DDRM.mult(1.0, B, false, B, false, new DMatrixStrided(4, 5), false));
+        assertThrows(MatrixDimensionException.class, () ->
+                MatrixMultStrided_DDRM.mult(1.0, A, false, B, false, new DMatrixStrided(4, 4), false));
+    }
+}
@@ -20,7 +20,9 @@ package org.ejml.dense.row.mult;
 
 import org.ejml.EjmlUnitTests;
 import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.MatrixOps_DDRB;
 import org.ejml.dense.row.CommonOps_DDRM;
 import org.ejml.dense.row.MatrixFeatures_DDRM;
 import org.ejml.dense.row.RandomMatrices_DDRM;
@@ -87,6 +89,23 @@ public class TestVectorVectorMult_DDRM {
         assertEquals(expected,found,UtilEjml.TEST_F64);
     }
 
+    /**
+     * A block matrix does not store its rows contiguously
+     */
+    @Test
+    public void innerProdTranA_block() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5,5,rand);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(5,1,rand);
+        DMatrixRMaj y = RandomMatrices_DDRM.rectangle(5,1,rand);
+
+        DMatrixRBlock Ab = MatrixOps_DDRB.convert(A,2);
+
+        double expected = VectorVectorMult_DDRM.innerProdTranA(x,A,y);
+        double found = VectorVectorMult_DDRM.innerProdTranA(x,Ab,y);
+
+        assertEquals(expected,found,UtilEjml.TEST_F64);
+    }
+
     @Test
     public void outerProd() {
         DMatrixRMaj A = new DMatrixRMaj(4,1, true, 1, 2, 3, 4);
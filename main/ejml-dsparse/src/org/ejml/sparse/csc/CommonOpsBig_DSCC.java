@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.sparse.csc;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseCSCBig;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Operations for {@link DMatrixSparseCSCBig}. Only a subset of the operations in {@link CommonOps_DSCC} are
+ * provided. Matrix-vector products are in {@link org.ejml.sparse.csc.mult.MatrixVectorMultBig_DSCC}.
+ *
+ * @author Peter Abeles
+ */
+public class CommonOpsBig_DSCC {
+
+    /**
+     * Checks to see if row indicies are sorted into ascending order.  O(N)
+     *
+     * @return true if sorted and false if not
+     */
+    public static boolean checkIndicesSorted( DMatrixSparseCSCBig A ) {
+        for (int j = 0; j < A.numCols; j++) {
+            long idx0 = A.col_idx[j];
+            long idx1 = A.col_idx[j + 1];
+
+            if (idx0 != idx1 && A.nz_rows.unsafe_get(idx0) >= A.numRows)
+                return false;
+
+            for (long i = idx0 + 1; i < idx1; i++) {
+                int row = A.nz_rows.unsafe_get(i);
+                if (A.nz_rows.unsafe_get(i - 1) >= row)
+                    return false;
+                if (row >= A.numRows)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a regular sparse matrix into a big sparse matrix
+     *
+     * @param src (Input) Matrix that's converted
+     * @param dst (Output) Storage for the converted matrix. Can be null.
+     * @return The converted matrix
+     */
+    public static DMatrixSparseCSCBig convert( DMatrixSparseCSC src, @Nullable DMatrixSparseCSCBig dst ) {
+        if (dst == null)
+            dst = new DMatrixSparseCSCBig(src.numRows, src.numCols, src.nz_length);
+        dst.setTo(src);
+        return dst;
+    }
+
+    /**
+     * Converts a big sparse matrix into a regular sparse matrix. This is only possible if the number of
+     * non-zero elements can be indexed with an int.
+     *
+     * @param src (Input) Matrix that's converted
+     * @param dst (Output) Storage for the converted matrix. Can be null.
+     * @return The converted matrix
+     */
+    public static DMatrixSparseCSC convert( DMatrixSparseCSCBig src, @Nullable DMatrixSparseCSC dst ) {
+        if (src.nz_length > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many non-zero elements to be stored in a DMatrixSparseCSC. " +
+                    "nz_length=" + src.nz_length);
+        int N = (int)src.nz_length;
+        if (dst == null)
+            dst = new DMatrixSparseCSC(src.numRows, src.numCols, N);
+        else
+            dst.reshape(src.numRows, src.numCols, N);
+
+        dst.nz_length = N;
+        src.nz_values.copyTo(0, dst.nz_values, 0, N);
+        src.nz_rows.copyTo(0, dst.nz_rows, 0, N);
+        for (int i = 0; i <= src.numCols; i++) {
+            dst.col_idx[i] = (int)src.col_idx[i];
+        }
+        dst.indicesSorted = src.indicesSorted;
+        return dst;
+    }
+
+    /**
+     * Perform matrix transpose. Row indices in the output will be sorted.
+     *
+     * @param A Input matrix.  Not modified
+     * @param A_t Storage for transpose of 'a'. Can be null. Reshaped.
+     * @param work (Optional) Storage for internal workspace.  Can be null.
+     * @return The transposed matrix
+     */
+    public static DMatrixSparseCSCBig transpose( DMatrixSparseCSCBig A, @Nullable DMatrixSparseCSCBig A_t,
+                                                 @Nullable long[] work ) {
+        if (A_t == null)
+            A_t = new DMatrixSparseCSCBig(A.numCols, A.numRows, A.nz_length, A.nz_values.chunkBits);
+        else if (A == A_t)
+            throw new IllegalArgumentException("A and A_t can't be the same instance");
+        else
+            A_t.reshape(A.numCols, A.numRows, A.nz_length);
+
+        if (work == null || work.length < A.numRows + 1)
+            work = new long[A.numRows + 1];
+        else
+            Arrays.fill(work, 0, A.numRows + 1, 0);
+
+        // compute the histogram for each row in 'A'
+        long N = A.nz_length;
+        for (long j = 0; j < N; j++) {
+            work[A.nz_rows.unsafe_get(j)]++;
+        }
+
+        // construct col_idx in the transposed matrix
+        A_t.histogramToStructure(work);
+        System.arraycopy(A_t.col_idx, 0, work, 0, A_t.numCols);
+
+        // fill in the row indexes
+        for (int j = 0; j < A.numCols; j++) {
+            long idx0 = A.col_idx[j];
+            long idx1 = A.col_idx[j + 1];
+            for (long i = idx0; i < idx1; i++) {
+                int row = A.nz_rows.unsafe_get(i);
+                long index = work[row]++;
+                A_t.nz_rows.unsafe_set(index, j);
+                A_t.nz_values.unsafe_set(index, A.nz_values.unsafe_get(i));
+            }
+        }
+        A_t.indicesSorted = true;
+
+        return A_t;
+    }
+}
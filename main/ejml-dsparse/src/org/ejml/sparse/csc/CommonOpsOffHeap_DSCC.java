@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.sparse.csc;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseCSCOffHeap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Operations for {@link DMatrixSparseCSCOffHeap}. Heap operations in {@link CommonOps_DSCC} can be applied to
+ * a block of columns by copying it onto the heap with {@link #extractColumns}. Matrix-vector products are in
+ * {@link org.ejml.sparse.csc.mult.MatrixVectorMultOffHeap_DSCC}.
+ *
+ * @author Peter Abeles
+ */
+public class CommonOpsOffHeap_DSCC {
+    /**
+     * Copies a heap matrix into an off-heap matrix
+     *
+     * @param src (Input) Heap matrix
+     * @param dst (Output) Off-heap matrix. Reshaped. Can be null.
+     * @return The off-heap matrix
+     */
+    public static DMatrixSparseCSCOffHeap convert( DMatrixSparseCSC src, @Nullable DMatrixSparseCSCOffHeap dst ) {
+        if (dst == null)
+            dst = new DMatrixSparseCSCOffHeap(src.numRows, src.numCols, src.nz_length);
+        dst.setTo(src);
+        return dst;
+    }
+
+    /**
+     * Copies an off-heap matrix onto the heap. This is only possible if the number of non-zero elements can be
+     * indexed with an int.
+     *
+     * @param src (Input) Off-heap matrix
+     * @param dst (Output) Heap matrix. Reshaped. Can be null.
+     * @return The heap matrix
+     */
+    public static DMatrixSparseCSC convert( DMatrixSparseCSCOffHeap src, @Nullable DMatrixSparseCSC dst ) {
+        return extractColumns(src, 0, src.numCols, dst);
+    }
+
+    /**
+     * Copies columns col0 to col1-1, inclusive, onto the heap. The number of non-zero elements in those
+     * columns must be less than 2<sup>31</sup>.
+     *
+     * @param src (Input) Off-heap matrix
+     * @param col0 First column which is copied
+     * @param col1 Last column + 1
+     * @param dst (Output) Storage for the columns. Reshaped to numRows x (col1-col0). Can be null.
+     * @return The extracted columns
+     */
+    public static DMatrixSparseCSC extractColumns( DMatrixSparseCSCOffHeap src, int col0, int col1,
+                                                   @Nullable DMatrixSparseCSC dst ) {
+        if (col0 < 0 || col1 < col0 || col1 > src.numCols)
+            throw new IllegalArgumentException("Invalid column range. col0=" + col0 + " col1=" + col1);
+
+        long idx0 = src.col_idx[col0];
+        long length = src.col_idx[col1] - idx0;
+        if (length > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many non-zero elements to be stored in a DMatrixSparseCSC. " +
+                    "length=" + length);
+        int N = (int)length;
+        if (dst == null)
+            dst = new DMatrixSparseCSC(src.numRows, col1 - col0, N);
+        else
+            dst.reshape(src.numRows, col1 - col0, N);
+
+        dst.nz_length = N;
+        src.nz_values.copyTo(idx0, dst.nz_values, 0, N);
+        src.nz_rows.copyTo(idx0, dst.nz_rows, 0, N);
+        for (int col = col0; col <= col1; col++) {
+            dst.col_idx[col - col0] = (int)(src.col_idx[col] - idx0);
+        }
+        dst.indicesSorted = src.indicesSorted;
+        return dst;
+    }
+}
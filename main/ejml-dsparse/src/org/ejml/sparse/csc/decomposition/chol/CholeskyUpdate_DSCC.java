@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Updates a sparse Cholesky factorization after the decomposed matrix is modified by a low rank matrix,
+ * L*L<sup>T</sup> = A &plusmn; C*C<sup>T</sup>, where A=L*L<sup>T</sup> before the modification and C is a sparse
+ * n by k matrix. Each column of C is applied as a rank-1 modification.
+ * </p>
+ *
+ * <p>
+ * A rank-1 modification only changes the columns of L on the path in the elimination tree from the first
+ * non-zero row in the column of C to the root. This path is found from the structure of L, which is the same
+ * as the structure computed by {@link CholeskyUpLooking_DSCC}: rows in each column are in increasing order with
+ * the diagonal element first. If C has elements outside of that structure then the elements which fill in are
+ * inserted into L first, which can also change the elimination tree.
+ * </p>
+ *
+ * <p>
+ * If a fill reducing permutation was used to compute L then C needs to be permuted the same way.
+ * </p>
+ *
+ * <p>
+ * See page 63 in "Direct Methods for Sparse Linear Systems" by Timothy A. Davis
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyUpdate_DSCC {
+    // dense copy of the column being applied
+    private final DGrowArray gw = new DGrowArray();
+    // rows which are in the pattern of the column as it's propagated along the path
+    private final IGrowArray gpattern = new IGrowArray();
+    // marks rows which are in the pattern and rows in a column of L
+    private final IGrowArray gmark = new IGrowArray();
+    private final IGrowArray gmarkCol = new IGrowArray();
+    private int stamp, stampCol;
+
+    // Elements which fill in. Columns are in increasing order
+    private final IGrowArray fillCols = new IGrowArray();
+    private final IGrowArray fillRows = new IGrowArray();
+
+    // values of L which are restored if a downdate fails
+    private final DGrowArray backup = new DGrowArray();
+    private final IGrowArray backupCols = new IGrowArray();
+
+    /**
+     * Update: L*L<sup>T</sup> = L*L<sup>T</sup> + C*C<sup>T</sup>
+     *
+     * @param L (Input/Output) Lower triangular Cholesky factor. Modified.
+     * @param C (Input) n by k sparse matrix. Not modified.
+     */
+    public void update( DMatrixSparseCSC L, DMatrixSparseCSC C ) {
+        checkInput(L, C);
+        for (int col = 0; col < C.numCols; col++) {
+            applyColumn(L, C, col, false);
+        }
+    }
+
+    /**
+     * Downdate: L*L<sup>T</sup> = L*L<sup>T</sup> - C*C<sup>T</sup>
+     *
+     * @param L (Input/Output) Lower triangular Cholesky factor. Modified.
+     * @param C (Input) n by k sparse matrix. Not modified.
+     * @return true if successful. If false then the result isn't positive definite and the values in L are
+     * restored. Elements which filled in will remain as explicit zeros.
+     */
+    public boolean downdate( DMatrixSparseCSC L, DMatrixSparseCSC C ) {
+        checkInput(L, C);
+        for (int col = 0; col < C.numCols; col++) {
+            if (!applyColumn(L, C, col, true)) {
+                // undo the columns which have already been applied
+                for (int i = col - 1; i >= 0; i--) {
+                    applyColumn(L, C, i, false);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkInput( DMatrixSparseCSC L, DMatrixSparseCSC C ) {
+        if (L.numRows != L.numCols)
+            throw new IllegalArgumentException("L must be square");
+        if (C.numRows != L.numRows)
+            throw new IllegalArgumentException("C must have the same number of rows as L");
+    }
+
+    /**
+     * Applies a rank-1 update or downdate using one column in C
+     *
+     * @return false if a downdate fails
+     */
+    private boolean applyColumn( DMatrixSparseCSC L, DMatrixSparseCSC C, int col, boolean downdate ) {
+        int idx0 = C.col_idx[col];
+        int idx1 = C.col_idx[col + 1];
+        if (idx0 == idx1)
+            return true;
+
+        int f = L.numCols;
+        for (int p = idx0; p < idx1; p++) {
+            f = Math.min(f, C.nz_rows[p]);
+        }
+
+        if (findFill(L, C, col, f))
+            insertFill(L);
+
+        return numeric(L, C, col, f, downdate);
+    }
+
+    /**
+     * Follows the path from column f to the root while keeping track of the pattern of the column of C as it's
+     * propagated. Rows in the pattern which are not in the column of L fill in.
+     *
+     * @return true if there is fill in
+     */
+    private boolean findFill( DMatrixSparseCSC L, DMatrixSparseCSC C, int col, int f ) {
+        int N = L.numCols;
+        int[] pattern = adjust(gpattern, N);
+        int[] mark = adjust(gmark, N);
+        int[] markCol = adjust(gmarkCol, N);
+        fillCols.reshape(0);
+        fillRows.reshape(0);
+
+        stamp = nextStamp(stamp, mark);
+        int size = 0;
+        for (int p = C.col_idx[col]; p < C.col_idx[col + 1]; p++) {
+            int row = C.nz_rows[p];
+            if (mark[row] != stamp) {
+                mark[row] = stamp;
+                pattern[size++] = row;
+            }
+        }
+
+        int j = f;
+        while (j != -1) {
+            stampCol = nextStamp(stampCol, markCol);
+            int col0 = L.col_idx[j];
+            int col1 = L.col_idx[j + 1];
+            for (int p = col0; p < col1; p++) {
+                markCol[L.nz_rows[p]] = stampCol;
+            }
+
+            // parent of j is the smallest row below the diagonal after fill in
+            int next = N;
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                int row = pattern[i];
+                if (row <= j)
+                    continue;
+                if (markCol[row] != stampCol)
+                    addFill(j, row);
+                pattern[newSize++] = row;
+                next = Math.min(next, row);
+            }
+            size = newSize;
+
+            for (int p = col0 + 1; p < col1; p++) {
+                int row = L.nz_rows[p];
+                if (mark[row] != stamp) {
+                    mark[row] = stamp;
+                    pattern[size++] = row;
+                }
+                next = Math.min(next, row);
+            }
+            j = next == N ? -1 : next;
+        }
+
+        return fillCols.length > 0;
+    }
+
+    private void addFill( int col, int row ) {
+        fillCols.add(col);
+        fillRows.add(row);
+    }
+
+    /**
+     * Inserts the fill in elements as explicit zeros. Done in place by shifting elements towards the end of
+     * the arrays, starting with the last column.
+     */
+    private void insertFill( DMatrixSparseCSC L ) {
+        int numFill = fillCols.length;
+        int[] cols = fillCols.data;
+        int[] rows = fillRows.data;
+
+        // sort the rows inside of each column
+        for (int i0 = 0; i0 < numFill; ) {
+            int i1 = i0 + 1;
+            while (i1 < numFill && cols[i1] == cols[i0])
+                i1++;
+            Arrays.sort(rows, i0, i1);
+            i0 = i1;
+        }
+
+        L.growMaxLength(L.nz_length + numFill, true);
+
+        int dst = L.nz_length + numFill;
+        int fillIdx = numFill - 1;
+        for (int j = L.numCols - 1; j >= 0; j--) {
+            int src = L.col_idx[j + 1] - 1;
+            int col0 = L.col_idx[j];
+            L.col_idx[j + 1] = dst;
+            if (fillIdx < 0 || cols[fillIdx] < j) {
+                // no fill in for this column, just shift it
+                int length = src + 1 - col0;
+                if (dst != src + 1) {
+                    System.arraycopy(L.nz_rows, col0, L.nz_rows, dst - length, length);
+                    System.arraycopy(L.nz_values, col0, L.nz_values, dst - length, length);
+                }
+                dst -= length;
+                if (fillIdx < 0)
+                    break;
+                continue;
+            }
+
+            // merge from the largest row down
+            while (src >= col0 || (fillIdx >= 0 && cols[fillIdx] == j)) {
+                dst--;
+                if (fillIdx >= 0 && cols[fillIdx] == j && (src < col0 || rows[fillIdx] > L.nz_rows[src])) {
+                    L.nz_rows[dst] = rows[fillIdx--];
+                    L.nz_values[dst] = 0.0;
+                } else {
+                    L.nz_rows[dst] = L.nz_rows[src];
+                    L.nz_values[dst] = L.nz_values[src--];
+                }
+            }
+        }
+        L.nz_length += numFill;
+    }
+
+    /**
+     * Numerical update along the path from f to the root
+     *
+     * @return false if a downdate fails
+     */
+    private boolean numeric( DMatrixSparseCSC L, DMatrixSparseCSC C, int col, int f, boolean downdate ) {
+        double[] w = adjust(gw, L.numCols);
+
+        // every non-zero in w is on the path
+        for (int j = f; j != -1; j = parent(L, j)) {
+            w[j] = 0.0;
+        }
+        for (int p = C.col_idx[col]; p < C.col_idx[col + 1]; p++) {
+            w[C.nz_rows[p]] = C.nz_values[p];
+        }
+
+        if (downdate) {
+            backup.reshape(0);
+            backupCols.reshape(0);
+        }
+
+        double sigma = downdate ? -1.0 : 1.0;
+        double beta = 1.0;
+        for (int j = f; j != -1; j = parent(L, j)) {
+            int p = L.col_idx[j];
+            int col1 = L.col_idx[j + 1];
+            double alpha = w[j]/L.nz_values[p];
+            double beta2 = beta*beta + sigma*alpha*alpha;
+            if (!(beta2 > 0.0)) {
+                restore(L);
+                return false;
+            }
+            if (downdate)
+                saveColumn(L, j);
+            beta2 = Math.sqrt(beta2);
+            double delta = downdate ? beta2/beta : beta/beta2;
+            double gamma = sigma*alpha/(beta2*beta);
+            L.nz_values[p] = delta*L.nz_values[p] + (downdate ? 0.0 : gamma*w[j]);
+            beta = beta2;
+            for (p++; p < col1; p++) {
+                int row = L.nz_rows[p];
+                double w1 = w[row];
+                double w2 = w1 - alpha*L.nz_values[p];
+                w[row] = w2;
+                L.nz_values[p] = delta*L.nz_values[p] + gamma*(downdate ? w2 : w1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parent of j in the elimination tree, i.e. the first row below the diagonal in column j
+     */
+    private static int parent( DMatrixSparseCSC L, int j ) {
+        int p = L.col_idx[j] + 1;
+        return p < L.col_idx[j + 1] ? L.nz_rows[p] : -1;
+    }
+
+    private void saveColumn( DMatrixSparseCSC L, int j ) {
+        int col0 = L.col_idx[j];
+        int length = L.col_idx[j + 1] - col0;
+        int n = backup.length;
+        if (backup.data.length < n + length)
+            backup.growInternal(Math.max(length, backup.data.length));
+        System.arraycopy(L.nz_values, col0, backup.data, n, length);
+        backup.length = n + length;
+        backupCols.add(j);
+    }
+
+    private void restore( DMatrixSparseCSC L ) {
+        int idx = 0;
+        for (int i = 0; i < backupCols.length; i++) {
+            int j = backupCols.data[i];
+            int col0 = L.col_idx[j];
+            int length = L.col_idx[j + 1] - col0;
+            System.arraycopy(backup.data, idx, L.nz_values, col0, length);
+            idx += length;
+        }
+    }
+
+    private static int nextStamp( int stamp, int[] mark ) {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            return 1;
+        }
+        return stamp + 1;
+    }
+}
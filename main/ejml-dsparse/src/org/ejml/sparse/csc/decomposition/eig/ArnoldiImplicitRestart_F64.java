@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+
+/**
+ * <p>
+ * Implicitly restarted Arnoldi method for finding a few eigenvalues and eigenvectors of a general square operator.
+ * Eigenvalues can be complex. Complex conjugate pairs of unwanted Ritz values are applied together as a double
+ * shift so that only real arithmetic is used. Following the convention of the dense decompositions, eigenvectors
+ * are only returned for real eigenvalues.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see KrylovImplicitRestart_F64
+ */
+public class ArnoldiImplicitRestart_F64 extends KrylovImplicitRestart_F64 {
+    // Decomposes the Hessenberg matrix
+    protected final EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(true, false);
+    // copy of H since the decomposition can modify its input
+    protected final DMatrixRMaj T = new DMatrixRMaj(1, 1);
+
+    // Used to find the eigenvector of H for a complex Ritz value
+    protected final SingularValueDecomposition_F64<DMatrixRMaj> svd =
+            DecompositionFactory_DDRM.svd(false, true, false);
+    protected final DMatrixRMaj realForm = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj nullV = new DMatrixRMaj(1, 1);
+    // magnitude of the last element in a unit complex eigenvector of H
+    private double nullLastElement;
+
+    /**
+     * @see KrylovImplicitRestart_F64#KrylovImplicitRestart_F64(int, int)
+     */
+    public ArnoldiImplicitRestart_F64( int numEigen, int numKrylov ) {
+        super(numEigen, numKrylov);
+    }
+
+    public ArnoldiImplicitRestart_F64( int numEigen ) {
+        this(numEigen, 0);
+    }
+
+    @Override
+    protected void storeColumn( int j, double[] coef ) {
+        for (int i = 0; i <= j; i++) {
+            H.unsafe_set(i, j, coef[i]);
+        }
+    }
+
+    @Override
+    protected boolean computeRitz() {
+        T.setTo(H);
+        if (!eig.decompose(T))
+            return false;
+
+        ritzVectors.reshape(m, m);
+        for (int i = 0; i < m; i++) {
+            Complex_F64 value = eig.getEigenvalue(i);
+            ritzReal[i] = value.real;
+            ritzImag[i] = value.imaginary;
+
+            if (value.imaginary == 0.0) {
+                DMatrixRMaj y = eig.getEigenVector(i);
+                if (y == null)
+                    return false;
+                double norm = 0;
+                for (int j = 0; j < m; j++) {
+                    norm += y.data[j]*y.data[j];
+                }
+                norm = Math.sqrt(norm);
+                for (int j = 0; j < m; j++) {
+                    ritzVectors.unsafe_set(j, i, y.data[j]/norm);
+                }
+                ritzError[i] = normF*Math.abs(y.data[m - 1]/norm);
+            } else {
+                if (!complexLastElement(value.real, value.imaginary))
+                    return false;
+                ritzError[i] = normF*nullLastElement;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the magnitude of the last element in a unit eigenvector y = y<sub>r</sub> + i*y<sub>i</sub> of H for the
+     * complex eigenvalue a+b*i. In real arithmetic y is the null vector of [H-aI, bI; -bI, H-aI].
+     */
+    private boolean complexLastElement( double a, double b ) {
+        int n2 = 2*m;
+        realForm.reshape(n2, n2);
+        realForm.zero();
+        for (int row = 0; row < m; row++) {
+            for (int col = 0; col < m; col++) {
+                double value = H.unsafe_get(row, col) - (row == col ? a : 0.0);
+                realForm.unsafe_set(row, col, value);
+                realForm.unsafe_set(row + m, col + m, value);
+            }
+            realForm.unsafe_set(row, row + m, b);
+            realForm.unsafe_set(row + m, row, -b);
+        }
+
+        if (!svd.decompose(realForm))
+            return false;
+
+        double[] sv = svd.getSingularValues();
+        int smallest = 0;
+        for (int i = 1; i < svd.numberOfSingularValues(); i++) {
+            if (sv[i] < sv[smallest])
+                smallest = i;
+        }
+
+        // right singular vectors are unit length
+        svd.getV(nullV, false);
+        double yr = nullV.unsafe_get(m - 1, smallest);
+        double yi = nullV.unsafe_get(n2 - 1, smallest);
+        nullLastElement = Math.sqrt(yr*yr + yi*yi);
+        return true;
+    }
+
+    @Override
+    protected void cleanUpH() {
+        for (int row = 2; row < m; row++) {
+            for (int col = 0; col < row - 1; col++) {
+                H.unsafe_set(row, col, 0.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,605 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>
+ * Base class for implicitly restarted Krylov eigenvalue solvers. Only a few eigenvalues, specified by
+ * {@link RitzSelection}, and their eigenvectors are found. The operator is only accessed through matrix-vector
+ * products, see {@link LinearOperator_F64}, which makes it possible to process very large sparse matrices.
+ * </p>
+ *
+ * <p>
+ * An m-step Arnoldi factorization is computed, A*V = V*H + f*e<sub>m</sub><sup>T</sup>, where V is an orthonormal
+ * N by m matrix and H is an m by m upper Hessenberg matrix. The Ritz values, the eigenvalues of H, approximate
+ * eigenvalues of A. If the wanted Ritz values have not yet converged the unwanted Ritz values are used as exact
+ * shifts in a QR algorithm applied to H. This compresses the factorization down to the k vectors which contain
+ * the wanted part of the spectrum without performing any new products with A. The factorization is then extended
+ * back to m vectors and the process repeats.
+ * </p>
+ *
+ * <p>
+ * Vectors are orthogonalized against the entire basis with classical Gram-Schmidt and one round of
+ * re-orthogonalization. Vectors with N elements are only allocated when the size of the operator changes,
+ * not while iterating.
+ * </p>
+ *
+ * <p>
+ * R. B. Lehoucq, D. C. Sorensen, and C. Yang, "ARPACK Users' Guide: Solution of Large-Scale Eigenvalue Problems
+ * with Implicitly Restarted Arnoldi Methods" SIAM 1998
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public abstract class KrylovImplicitRestart_F64 {
+    // Number of elements processed at once when updating the basis
+    private static final int BLOCK_LENGTH = 512;
+
+    // number of requested eigenvalues
+    protected final int numEigen;
+    // number of requested Krylov vectors. If <= 0 it's selected automatically
+    protected final int numKrylov;
+
+    protected RitzSelection selection = RitzSelection.LARGEST_MAGNITUDE;
+    // Tolerance for the residual of a Ritz pair, relative to the Ritz value with the largest magnitude
+    protected double tolerance = UtilEjml.EPS*1000;
+    protected int maxRestarts = 300;
+
+    protected Random rand = new Random(0x8a2f1c);
+
+    // size of the operator
+    protected int N;
+    // number of Krylov vectors and number of wanted eigenvalues
+    protected int m, k;
+
+    // Orthonormal Krylov basis. Each element is a vector of length N
+    protected double[][] V = new double[0][];
+    // residual vector of the factorization
+    protected double[] f = new double[0];
+    protected double normF;
+
+    // Projection of the operator onto the basis, V'*A*V
+    protected final DMatrixRMaj H = new DMatrixRMaj(1, 1);
+    // Orthogonal transform applied to the basis by the shifts
+    protected final DMatrixRMaj Q = new DMatrixRMaj(1, 1);
+    // Orthogonal transform from a single shift
+    protected final DMatrixRMaj Qi = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj work = new DMatrixRMaj(1, 1);
+    protected final QRDecompositionHouseholderColumn_DDRM qr = new QRDecompositionHouseholderColumn_DDRM();
+
+    // coefficients computed while orthogonalizing
+    protected double[] coef = new double[0];
+    protected double[] coefPass = new double[0];
+
+    // Ritz values, their error estimates, and the order they are wanted in
+    protected double[] ritzReal = new double[0];
+    protected double[] ritzImag = new double[0];
+    protected double[] ritzError = new double[0];
+    protected int[] order = new int[0];
+    // sort key for each Ritz value
+    protected double[] keys = new double[0];
+    // Eigenvectors of H, stored in columns. Only valid for real Ritz values
+    protected final DMatrixRMaj ritzVectors = new DMatrixRMaj(1, 1);
+
+    // workspace for updating the basis
+    protected final DGrowArray blockWork = new DGrowArray();
+
+    protected int numRestarts;
+    protected int numConverged;
+
+    // found eigenvalues and eigenvectors
+    protected Complex_F64[] eigenvalues = new Complex_F64[0];
+    protected @Nullable DMatrixRMaj[] eigenvectors = new DMatrixRMaj[0];
+
+    /**
+     * Configures the solver
+     *
+     * @param numEigen Number of eigenvalues which are to be found
+     * @param numKrylov Number of Krylov vectors. Must be more than numEigen. Larger values need fewer restarts
+     * but more memory. If &le; 0 then max(2*numEigen+1,20) is used.
+     */
+    protected KrylovImplicitRestart_F64( int numEigen, int numKrylov ) {
+        if (numEigen <= 0)
+            throw new IllegalArgumentException("numEigen must be more than zero");
+        if (numKrylov > 0 && numKrylov <= numEigen)
+            throw new IllegalArgumentException("numKrylov must be more than numEigen");
+        this.numEigen = numEigen;
+        this.numKrylov = numKrylov;
+    }
+
+    /**
+     * Finds eigenvalues of a square sparse matrix
+     *
+     * @param A Square matrix. Not modified.
+     * @return true if all the requested eigenvalues converged
+     */
+    public boolean process( DMatrixSparseCSC A ) {
+        return process(new MatrixOperator_DSCC(A));
+    }
+
+    /**
+     * Finds eigenvalues of the operator
+     *
+     * @param op Square operator.
+     * @return true if all the requested eigenvalues converged
+     */
+    public boolean process( LinearOperator_F64 op ) {
+        if (op.getNumRows() != op.getNumCols())
+            throw new IllegalArgumentException("The operator must be square");
+
+        N = op.getNumRows();
+        k = Math.min(numEigen, N);
+        m = numKrylov > 0 ? numKrylov : Math.max(2*k + 1, 20);
+        m = Math.min(m, N);
+        declareStorage();
+
+        // random starting vector
+        for (int i = 0; i < N; i++) {
+            V[0][i] = rand.nextDouble() - 0.5;
+        }
+        normalize(V[0], V[0]);
+
+        H.reshape(m, m);
+        H.zero();
+        numRestarts = 0;
+        numConverged = 0;
+
+        extend(op, 0);
+
+        while (true) {
+            if (!computeRitz())
+                return false;
+            sortRitz();
+            numConverged = countConverged();
+            if (numConverged >= k || numRestarts >= maxRestarts)
+                break;
+
+            // Keep more vectors as eigenvalues converge to avoid stagnation
+            int kk = k + Math.min(numConverged, (m - k)/2);
+            if (kk < m && isConjugatePairSplit(kk))
+                kk++;
+            if (kk >= m)
+                break;
+
+            numRestarts++;
+            applyShifts(kk);
+            compress(kk);
+            extend(op, kk);
+        }
+
+        extractResults();
+        return numConverged >= k;
+    }
+
+    protected void declareStorage() {
+        if (V.length < m + 1 || (V.length > 0 && V[0].length != N)) {
+            V = new double[m + 1][];
+            for (int i = 0; i < V.length; i++) {
+                V[i] = new double[N];
+            }
+        }
+        if (f.length != N)
+            f = new double[N];
+        if (coef.length < m) {
+            coef = new double[m];
+            coefPass = new double[m];
+            ritzReal = new double[m];
+            ritzImag = new double[m];
+            ritzError = new double[m];
+            order = new int[m];
+            keys = new double[m];
+        }
+    }
+
+    /**
+     * Extends the Arnoldi factorization from j0 to m vectors. V[j0] must already be set.
+     */
+    protected void extend( LinearOperator_F64 op, int j0 ) {
+        for (int j = j0; j < m; j++) {
+            op.mult(V[j], f);
+            double normW = norm(f);
+            orthogonalize(f, j + 1, coef);
+            storeColumn(j, coef);
+            normF = norm(f);
+
+            if (j + 1 == m)
+                break;
+
+            if (normF <= UtilEjml.EPS*normW) {
+                // An invariant subspace has been found. Continue with a vector that's orthogonal to it
+                H.unsafe_set(j + 1, j, 0.0);
+                randomOrthogonal(j + 1);
+            } else {
+                H.unsafe_set(j + 1, j, normF);
+                scale(1.0/normF, f, V[j + 1]);
+            }
+        }
+    }
+
+    /**
+     * Saves the coefficients found when orthogonalizing A*V[j] into column j of H
+     */
+    protected abstract void storeColumn( int j, double[] coef );
+
+    /**
+     * Computes the Ritz values, eigenvectors of H, and the error estimate for each Ritz value. The error
+     * estimate is |f|*|e<sub>m</sub><sup>T</sup>*y|, where y is a unit eigenvector of H.
+     *
+     * @return true if successful
+     */
+    protected abstract boolean computeRitz();
+
+    /**
+     * Removes numerical noise from H after it has been transformed by a shift
+     */
+    protected abstract void cleanUpH();
+
+    /**
+     * Sorts the Ritz values so that the wanted ones are first
+     */
+    protected void sortRitz() {
+        for (int i = 0; i < m; i++) {
+            double re = ritzReal[i], im = ritzImag[i];
+            switch (selection) {
+                case LARGEST_MAGNITUDE: keys[i] = -(re*re + im*im); break;
+                case SMALLEST_MAGNITUDE: keys[i] = re*re + im*im; break;
+                case LARGEST_REAL: keys[i] = -re; break;
+                case SMALLEST_REAL: keys[i] = re; break;
+                default: throw new IllegalArgumentException("Unknown selection " + selection);
+            }
+            order[i] = i;
+        }
+
+        // insertion sort since there are only a few values
+        for (int i = 1; i < m; i++) {
+            int idx = order[i];
+            double key = keys[idx];
+            int j = i - 1;
+            while (j >= 0 && keys[order[j]] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = idx;
+        }
+    }
+
+    /**
+     * Counts how many of the wanted Ritz values have converged
+     */
+    protected int countConverged() {
+        double largest = 0;
+        for (int i = 0; i < m; i++) {
+            largest = Math.max(largest, Math.sqrt(ritzReal[i]*ritzReal[i] + ritzImag[i]*ritzImag[i]));
+        }
+        double threshold = tolerance*largest;
+
+        int count = 0;
+        for (int i = 0; i < k; i++) {
+            if (ritzError[order[i]] <= threshold)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if the first 'kk' wanted Ritz values contain only one half of a complex conjugate pair
+     */
+    protected boolean isConjugatePairSplit( int kk ) {
+        int balance = 0;
+        for (int i = 0; i < kk; i++) {
+            double im = ritzImag[order[i]];
+            if (im > 0)
+                balance++;
+            else if (im < 0)
+                balance--;
+        }
+        return balance != 0;
+    }
+
+    /**
+     * Applies the unwanted Ritz values as shifts to H. The orthogonal transform is accumulated in Q.
+     */
+    protected void applyShifts( int kk ) {
+        Q.reshape(m, m);
+        CommonOps_DDRM.setIdentity(Q);
+
+        for (int i = kk; i < m; i++) {
+            int idx = order[i];
+            double re = ritzReal[idx], im = ritzImag[idx];
+
+            if (im == 0.0) {
+                // H - mu*I
+                work.setTo(H);
+                for (int j = 0; j < m; j++) {
+                    work.data[j*m + j] -= re;
+                }
+            } else if (im > 0.0) {
+                // A conjugate pair is applied at once to stay in real arithmetic
+                // H*H - 2*re*H + |mu|^2*I
+                CommonOps_DDRM.mult(H, H, work);
+                for (int j = 0; j < m*m; j++) {
+                    work.data[j] -= 2.0*re*H.data[j];
+                }
+                double mag2 = re*re + im*im;
+                for (int j = 0; j < m; j++) {
+                    work.data[j*m + j] += mag2;
+                }
+            } else {
+                // the other half of the pair has already been applied
+                continue;
+            }
+
+            // The Ritz value is an exact shift, so a failure from a singular matrix is expected
+            qr.decompose(work);
+            qr.getQ(Qi, false);
+
+            // H = Qi'*H*Qi and Q = Q*Qi
+            CommonOps_DDRM.mult(H, Qi, work);
+            CommonOps_DDRM.multTransA(Qi, work, H);
+            CommonOps_DDRM.mult(Q, Qi, work);
+            Q.setTo(work);
+
+            cleanUpH();
+        }
+    }
+
+    /**
+     * Compresses the factorization down to kk vectors after the shifts have been applied and sets up
+     * V[kk] so that the factorization can be extended
+     */
+    protected void compress( int kk ) {
+        double betaK = H.unsafe_get(kk, kk - 1);
+        double sigma = Q.unsafe_get(m - 1, kk - 1);
+
+        multBasis(Q, kk + 1);
+
+        // new residual
+        double[] vk = V[kk];
+        for (int i = 0; i < N; i++) {
+            f[i] = vk[i]*betaK + f[i]*sigma;
+        }
+
+        // discard everything outside the leading kk by kk block
+        for (int row = 0; row < m; row++) {
+            int col0 = row < kk ? kk : 0;
+            Arrays.fill(H.data, row*m + col0, row*m + m, 0.0);
+        }
+
+        normF = norm(f);
+        if (normF == 0.0) {
+            randomOrthogonal(kk);
+        } else {
+            H.unsafe_set(kk, kk - 1, normF);
+            scale(1.0/normF, f, V[kk]);
+        }
+    }
+
+    /**
+     * V[0:cols] = V*M[:,0:cols], where M is an m by m matrix. Done in place in blocks of elements
+     */
+    protected void multBasis( DMatrixRMaj M, int cols ) {
+        double[] tmp = blockWork.reshape(cols*BLOCK_LENGTH).data;
+
+        for (int t0 = 0; t0 < N; t0 += BLOCK_LENGTH) {
+            int len = Math.min(N, t0 + BLOCK_LENGTH) - t0;
+            Arrays.fill(tmp, 0, cols*len, 0.0);
+
+            for (int j = 0; j < m; j++) {
+                double[] v = V[j];
+                for (int i = 0; i < cols; i++) {
+                    double q = M.data[j*M.numCols + i];
+                    if (q == 0.0)
+                        continue;
+                    int off = i*len;
+                    for (int t = 0; t < len; t++) {
+                        tmp[off + t] += q*v[t0 + t];
+                    }
+                }
+            }
+
+            for (int i = 0; i < cols; i++) {
+                System.arraycopy(tmp, i*len, V[i], t0, len);
+            }
+        }
+    }
+
+    /**
+     * Saves the wanted eigenvalues and the eigenvectors of the real ones
+     */
+    protected void extractResults() {
+        if (eigenvalues.length != k) {
+            eigenvalues = new Complex_F64[k];
+            eigenvectors = new DMatrixRMaj[k];
+        }
+
+        for (int i = 0; i < k; i++) {
+            int idx = order[i];
+            if (eigenvalues[i] == null)
+                eigenvalues[i] = new Complex_F64();
+            eigenvalues[i].setTo(ritzReal[idx], ritzImag[idx]);
+
+            if (ritzImag[idx] != 0.0) {
+                eigenvectors[i] = null;
+                continue;
+            }
+
+            // x = V*y
+            DMatrixRMaj x = eigenvectors[i];
+            if (x == null || x.numRows != N)
+                eigenvectors[i] = x = new DMatrixRMaj(N, 1);
+            x.zero();
+            for (int j = 0; j < m; j++) {
+                double y = ritzVectors.unsafe_get(j, idx);
+                double[] v = V[j];
+                for (int t = 0; t < N; t++) {
+                    x.data[t] += y*v[t];
+                }
+            }
+            normalize(x.data, x.data);
+        }
+    }
+
+    /**
+     * Orthogonalizes x against the first 'count' vectors in the basis using classical Gram-Schmidt applied twice
+     *
+     * @param x (Input/Output) vector being orthogonalized
+     * @param count number of vectors in the basis
+     * @param coef (Output) The removed component along each basis vector
+     */
+    protected void orthogonalize( double[] x, int count, double[] coef ) {
+        Arrays.fill(coef, 0, count, 0.0);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < count; i++) {
+                double[] v = V[i];
+                double dot = 0;
+                for (int t = 0; t < N; t++) {
+                    dot += v[t]*x[t];
+                }
+                coefPass[i] = dot;
+            }
+            for (int i = 0; i < count; i++) {
+                double[] v = V[i];
+                double c = coefPass[i];
+                coef[i] += c;
+                for (int t = 0; t < N; t++) {
+                    x[t] -= c*v[t];
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills V[j] with a random unit vector that's orthogonal to the previous vectors
+     */
+    protected void randomOrthogonal( int j ) {
+        double[] v = V[j];
+        for (int attempt = 0; attempt < 5; attempt++) {
+            for (int i = 0; i < N; i++) {
+                v[i] = rand.nextDouble() - 0.5;
+            }
+            orthogonalize(v, j, coef);
+            double n = norm(v);
+            if (n > UtilEjml.EPS) {
+                scale(1.0/n, v, v);
+                return;
+            }
+        }
+        Arrays.fill(v, 0.0);
+    }
+
+    protected double norm( double[] x ) {
+        double total = 0;
+        for (int i = 0; i < N; i++) {
+            total += x[i]*x[i];
+        }
+        return Math.sqrt(total);
+    }
+
+    protected void normalize( double[] src, double[] dst ) {
+        double n = norm(src);
+        if (n != 0.0)
+            scale(1.0/n, src, dst);
+    }
+
+    protected void scale( double alpha, double[] src, double[] dst ) {
+        for (int i = 0; i < N; i++) {
+            dst[i] = alpha*src[i];
+        }
+    }
+
+    /**
+     * Number of eigenvalues which were requested and can be found. Can be less than requested if the operator
+     * is small.
+     */
+    public int getNumberOfEigenvalues() {
+        return k;
+    }
+
+    /**
+     * Returns the eigenvalue at the specified index. Sorted according to {@link RitzSelection}
+     */
+    public Complex_F64 getEigenvalue( int index ) {
+        return eigenvalues[index];
+    }
+
+    /**
+     * Returns the unit eigenvector at the specified index. If the eigenvalue is complex then null is returned.
+     */
+    public @Nullable DMatrixRMaj getEigenVector( int index ) {
+        return eigenvectors[index];
+    }
+
+    /**
+     * Number of eigenvalues which converged
+     */
+    public int getNumConverged() {
+        return numConverged;
+    }
+
+    public int getNumRestarts() {
+        return numRestarts;
+    }
+
+    public RitzSelection getSelection() {
+        return selection;
+    }
+
+    public void setSelection( RitzSelection selection ) {
+        this.selection = selection;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Convergence tolerance for the residual of an eigenpair relative to the magnitude of the largest Ritz value
+     */
+    public void setTolerance( double tolerance ) {
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxRestarts() {
+        return maxRestarts;
+    }
+
+    public void setMaxRestarts( int maxRestarts ) {
+        this.maxRestarts = maxRestarts;
+    }
+
+    /**
+     * Specifies the random number generator used to create the initial vector
+     */
+    public void setRandom( Random rand ) {
+        this.rand = rand;
+    }
+}
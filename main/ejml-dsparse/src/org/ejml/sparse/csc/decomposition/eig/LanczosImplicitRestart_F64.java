@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+
+/**
+ * <p>
+ * Implicitly restarted Lanczos method for finding a few eigenvalues and eigenvectors of a symmetric operator.
+ * Since the operator is symmetric H is tridiagonal and all the Ritz values are real. For the smallest eigenvalues
+ * of a positive semi-definite matrix, e.g. a graph Laplacian, {@link RitzSelection#SMALLEST_REAL} works but
+ * converges slowly. Using {@link ShiftInvertOperator_DSCC} and {@link RitzSelection#LARGEST_MAGNITUDE} is much faster.
+ * </p>
+ *
+ * <p>
+ * The basis is fully re-orthogonalized to prevent the loss of orthogonality and spurious copies of eigenvalues
+ * that the three term Lanczos recurrence suffers from.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see KrylovImplicitRestart_F64
+ */
+public class LanczosImplicitRestart_F64 extends KrylovImplicitRestart_F64 {
+    // Decomposes the tridiagonal matrix
+    protected final EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(true, true);
+    // copy of H since the decomposition can modify its input
+    protected final DMatrixRMaj T = new DMatrixRMaj(1, 1);
+
+    /**
+     * @see KrylovImplicitRestart_F64#KrylovImplicitRestart_F64(int, int)
+     */
+    public LanczosImplicitRestart_F64( int numEigen, int numKrylov ) {
+        super(numEigen, numKrylov);
+    }
+
+    public LanczosImplicitRestart_F64( int numEigen ) {
+        this(numEigen, 0);
+    }
+
+    @Override
+    protected void storeColumn( int j, double[] coef ) {
+        // Other coefficients are only numerical noise since the operator is symmetric
+        H.unsafe_set(j, j, coef[j]);
+        if (j > 0)
+            H.unsafe_set(j - 1, j, H.unsafe_get(j, j - 1));
+    }
+
+    @Override
+    protected boolean computeRitz() {
+        T.setTo(H);
+        if (!eig.decompose(T))
+            return false;
+
+        ritzVectors.reshape(m, m);
+        for (int i = 0; i < m; i++) {
+            ritzReal[i] = eig.getEigenvalue(i).real;
+            ritzImag[i] = 0.0;
+
+            DMatrixRMaj y = eig.getEigenVector(i);
+            double norm = 0;
+            for (int j = 0; j < m; j++) {
+                norm += y.data[j]*y.data[j];
+            }
+            norm = Math.sqrt(norm);
+            for (int j = 0; j < m; j++) {
+                ritzVectors.unsafe_set(j, i, y.data[j]/norm);
+            }
+            ritzError[i] = normF*Math.abs(y.data[m - 1]/norm);
+        }
+        return true;
+    }
+
+    @Override
+    protected void cleanUpH() {
+        for (int row = 0; row < m; row++) {
+            for (int col = 0; col < m; col++) {
+                int diff = row - col;
+                if (diff > 1 || diff < -1) {
+                    H.unsafe_set(row, col, 0.0);
+                } else if (diff == 1) {
+                    double value = (H.unsafe_get(row, col) + H.unsafe_get(col, row))/2.0;
+                    H.unsafe_set(row, col, value);
+                    H.unsafe_set(col, row, value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+/**
+ * A linear operator which is only defined by how it multiplies a vector, y = A*x. This allows iterative algorithms to
+ * work on matrices which are never formed explicitly, e.g. the inverse of a factored matrix.
+ *
+ * @author Peter Abeles
+ */
+public interface LinearOperator_F64 {
+    /**
+     * Computes y = A*x
+     *
+     * @param x (Input) Vector with {@link #getNumCols()} elements. Not modified.
+     * @param y (Output) Vector with {@link #getNumRows()} elements. Modified.
+     */
+    void mult( double[] x, double[] y );
+
+    int getNumRows();
+
+    int getNumCols();
+}
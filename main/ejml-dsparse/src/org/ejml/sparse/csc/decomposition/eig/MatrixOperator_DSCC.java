@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_DSCC;
+
+/**
+ * {@link LinearOperator_F64} which multiplies a vector by a sparse matrix.
+ *
+ * @author Peter Abeles
+ */
+public class MatrixOperator_DSCC implements LinearOperator_F64 {
+    protected DMatrixSparseCSC A;
+
+    public MatrixOperator_DSCC( DMatrixSparseCSC A ) {
+        this.A = A;
+    }
+
+    @Override
+    public void mult( double[] x, double[] y ) {
+        MatrixVectorMult_DSCC.mult(A, x, 0, y, 0);
+    }
+
+    @Override
+    public int getNumRows() {
+        return A.numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return A.numCols;
+    }
+
+    public DMatrixSparseCSC getMatrix() {
+        return A;
+    }
+
+    public void setMatrix( DMatrixSparseCSC A ) {
+        this.A = A;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+/**
+ * Specifies which part of the spectrum a Krylov eigenvalue solver converges to
+ *
+ * @author Peter Abeles
+ */
+public enum RitzSelection {
+    /** Eigenvalues with the largest magnitude */
+    LARGEST_MAGNITUDE,
+    /** Eigenvalues with the smallest magnitude. Converges slowly, consider {@link ShiftInvertOperator_DSCC} */
+    SMALLEST_MAGNITUDE,
+    /** Eigenvalues with the largest real component */
+    LARGEST_REAL,
+    /** Eigenvalues with the smallest real component */
+    SMALLEST_REAL
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+
+/**
+ * <p>
+ * Shift-invert operator, y = (A - &sigma;I)<sup>-1</sup>*x. The eigenvalues of A which are closest to &sigma; become
+ * the eigenvalues of this operator with the largest magnitude, which is what Krylov methods converge to quickly.
+ * This is the standard way to find interior eigenvalues or the smallest eigenvalues of a matrix. An eigenvalue
+ * &theta; of the operator is converted back into an eigenvalue of A with {@link #eigenvalue(double)}, while the
+ * eigenvectors are the same.
+ * </p>
+ *
+ * <p>
+ * A - &sigma;I is factored once in {@link #setMatrix} and then each multiplication is a triangular solve.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ShiftInvertOperator_DSCC implements LinearOperator_F64 {
+    // solver for the shifted matrix
+    protected final LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> solver;
+
+    // A - sigma*I
+    protected final DMatrixSparseCSC shifted = new DMatrixSparseCSC(1, 1, 0);
+    protected double sigma;
+
+    // input and output of the solver
+    protected final DMatrixRMaj b = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj x = new DMatrixRMaj(1, 1);
+
+    // workspace
+    protected final IGrowArray gw = new IGrowArray();
+    protected final DGrowArray gx = new DGrowArray();
+
+    /**
+     * @param solver Solver for A - &sigma;I, e.g. from {@link org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC}.
+     * Use Cholesky if A - &sigma;I is positive definite and LU otherwise.
+     */
+    public ShiftInvertOperator_DSCC( LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> solver ) {
+        this.solver = solver;
+    }
+
+    /**
+     * Specifies the matrix and shift, then factors A - &sigma;I.
+     *
+     * @param A Square matrix. Not modified.
+     * @param sigma The shift. Eigenvalues of A close to it are found first.
+     * @return true if the shifted matrix could be factored
+     */
+    public boolean setMatrix( DMatrixSparseCSC A, double sigma ) {
+        if (A.numRows != A.numCols)
+            throw new IllegalArgumentException("Matrix must be square");
+        this.sigma = sigma;
+
+        DMatrixSparseCSC I = CommonOps_DSCC.identity(A.numRows);
+        CommonOps_DSCC.add(1.0, A, -sigma, I, shifted, gw, gx);
+
+        b.reshape(A.numRows, 1);
+        x.reshape(A.numRows, 1);
+
+        return solver.setA(shifted);
+    }
+
+    @Override
+    public void mult( double[] x, double[] y ) {
+        System.arraycopy(x, 0, b.data, 0, b.numRows);
+        solver.solve(b, this.x);
+        System.arraycopy(this.x.data, 0, y, 0, b.numRows);
+    }
+
+    /**
+     * Converts an eigenvalue of this operator into an eigenvalue of A. &lambda; = &sigma; + 1/&theta;
+     */
+    public double eigenvalue( double theta ) {
+        return sigma + 1.0/theta;
+    }
+
+    /**
+     * Converts a complex eigenvalue of this operator into an eigenvalue of A. &lambda; = &sigma; + 1/&theta;
+     *
+     * @param theta (Input) eigenvalue of the operator
+     * @param lambda (Output) eigenvalue of A. Can be the same instance as theta.
+     */
+    public void eigenvalue( Complex_F64 theta, Complex_F64 lambda ) {
+        double mag2 = theta.real*theta.real + theta.imaginary*theta.imaginary;
+        double real = sigma + theta.real/mag2;
+        double imaginary = -theta.imaginary/mag2;
+        lambda.setTo(real, imaginary);
+    }
+
+    @Override
+    public int getNumRows() {
+        return shifted.numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return shifted.numCols;
+    }
+
+    public double getSigma() {
+        return sigma;
+    }
+
+    public LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> getSolver() {
+        return solver;
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_DSCC;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>
+ * Partial SVD of a sparse matrix which finds the 'targetRank' largest singular values using Golub-Kahan-Lanczos
+ * bidiagonalization with thick restarts. The matrix is only accessed through the products A*p and
+ * A<sup>T</sup>*q, so memory is dominated by the l Lanczos vectors and not by the size of a dense factorization.
+ * </p>
+ *
+ * <p>
+ * After l steps A*P = Q*B and A<sup>T</sup>*Q = P*B<sup>T</sup> + r*e<sub>l</sub><sup>T</sup>, where P and Q
+ * have orthonormal columns and B is l by l upper triangular. The SVD of B gives the Ritz triplets and the error
+ * of triplet i is |r|*|U<sub>B</sub>(l-1,i)|. If the wanted triplets haven't converged then the bases are
+ * compressed down to the leading Ritz vectors, which turns B into a diagonal matrix plus a spike in its last
+ * column, and the factorization is extended back to l vectors. Each new vector is orthogonalized against the
+ * entire basis so that orthogonality isn't lost.
+ * </p>
+ *
+ * <p>
+ * J. Baglama and L. Reichel, "Augmented Implicitly Restarted Lanczos Bidiagonalization Methods"
+ * SIAM Journal on Scientific Computing, 2005
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class SvdLanczos_DSCC implements SingularValueDecomposition_F64<DMatrixSparseCSC> {
+    // Number of elements processed at once when updating the basis
+    protected static final int BLOCK_LENGTH = 512;
+
+    // number of requested singular values
+    protected final int targetRank;
+    // number of requested Lanczos vectors. If <= 0 it's selected automatically
+    protected final int numLanczos;
+    protected final boolean computeU;
+    protected final boolean computeV;
+
+    // Tolerance for the residual of a Ritz triplet, relative to the largest Ritz value
+    protected double tolerance = UtilEjml.EPS*1000;
+    protected int maxRestarts = 300;
+
+    protected Random rand = new Random(0x3b81d5);
+
+    // Matrix being decomposed and its transpose
+    protected DMatrixSparseCSC A;
+    protected final DMatrixSparseCSC At = new DMatrixSparseCSC(1, 1, 0);
+    protected final IGrowArray gw = new IGrowArray();
+
+    protected int numRows, numCols;
+    // number of Lanczos vectors and number of wanted singular values
+    protected int l, k;
+
+    // Right Lanczos vectors, each has numCols elements. P[l] is the normalized residual
+    protected double[][] P = new double[0][];
+    // Left Lanczos vectors, each has numRows elements
+    protected double[][] Q = new double[0][];
+    // norm of the residual
+    protected double beta;
+
+    // Projection of A onto the bases, Q'*A*P
+    protected final DMatrixRMaj B = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj workB = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj Ub = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj Vb = new DMatrixRMaj(1, 1);
+    protected SingularValueDecomposition_F64<DMatrixRMaj> svdB;
+
+    // coefficients computed while orthogonalizing
+    protected double[] coef = new double[0];
+    protected double[] coefPass = new double[0];
+
+    // Ritz values and their error estimates
+    protected double[] ritzValues = new double[0];
+    protected double[] ritzError = new double[0];
+
+    // workspace for updating the basis
+    protected final DGrowArray blockWork = new DGrowArray();
+
+    protected int numRestarts;
+    protected int numConverged;
+
+    // found singular values and vectors
+    protected int numSingular;
+    protected double[] singularValues = new double[0];
+    protected final DMatrixRMaj U = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj V = new DMatrixRMaj(1, 1);
+
+    /**
+     * Configures the decomposition
+     *
+     * @param targetRank Number of singular values and vectors which are computed.
+     * @param numLanczos Number of Lanczos vectors. Must be more than targetRank. Larger values need fewer
+     * restarts but more memory. If &le; 0 then max(2*targetRank+1,20) is used.
+     * @param computeU If true it will compute the U matrix
+     * @param computeV If true it will compute the V matrix
+     */
+    public SvdLanczos_DSCC( int targetRank, int numLanczos, boolean computeU, boolean computeV ) {
+        if (targetRank <= 0)
+            throw new IllegalArgumentException("targetRank must be more than zero");
+        if (numLanczos > 0 && numLanczos <= targetRank)
+            throw new IllegalArgumentException("numLanczos must be more than targetRank");
+        this.targetRank = targetRank;
+        this.numLanczos = numLanczos;
+        this.computeU = computeU;
+        this.computeV = computeV;
+    }
+
+    /**
+     * Computes the decomposition
+     *
+     * @param A Matrix being decomposed. Not modified.
+     * @return true if all the requested singular values converged
+     */
+    @Override
+    public boolean decompose( DMatrixSparseCSC A ) {
+        this.A = A;
+        numRows = A.numRows;
+        numCols = A.numCols;
+        int minLength = Math.min(numRows, numCols);
+        k = Math.min(targetRank, minLength);
+        l = numLanczos > 0 ? numLanczos : Math.max(2*k + 1, 20);
+        l = Math.min(l, minLength);
+        numRestarts = 0;
+        numConverged = 0;
+        numSingular = 0;
+
+        if (k == 0)
+            return true;
+
+        CommonOps_DSCC.transpose(A, At, gw);
+        declareStorage();
+
+        // random starting vector
+        for (int i = 0; i < numCols; i++) {
+            P[0][i] = rand.nextDouble() - 0.5;
+        }
+        scale(1.0/norm(P[0], numCols), P[0], numCols);
+
+        B.reshape(l, l);
+        B.zero();
+        extend(0);
+
+        while (true) {
+            if (!computeRitz())
+                return false;
+            numConverged = countConverged();
+            if (numConverged >= k || numRestarts >= maxRestarts)
+                break;
+
+            // Keep more vectors as singular values converge to avoid stagnation
+            int kk = k + Math.min(numConverged, (l - k)/2);
+            if (kk >= l)
+                break;
+
+            numRestarts++;
+            restart(kk);
+            extend(kk);
+        }
+
+        extractResults();
+        return numConverged >= k;
+    }
+
+    protected void declareStorage() {
+        if (P.length < l + 1 || P[0].length != numCols) {
+            P = new double[l + 1][];
+            for (int i = 0; i < P.length; i++) {
+                P[i] = new double[numCols];
+            }
+        }
+        if (Q.length < l || Q[0].length != numRows) {
+            Q = new double[l][];
+            for (int i = 0; i < Q.length; i++) {
+                Q[i] = new double[numRows];
+            }
+        }
+        if (coef.length < l + 1) {
+            coef = new double[l + 1];
+            coefPass = new double[l + 1];
+            ritzValues = new double[l];
+            ritzError = new double[l];
+        }
+        if (svdB == null || B.numRows != l)
+            svdB = DecompositionFactory_DDRM.svd(l, l, true, true, false);
+    }
+
+    /**
+     * Extends the bidiagonalization from j0 to l vectors. P[j0] must already be set.
+     */
+    protected void extend( int j0 ) {
+        for (int j = j0; j < l; j++) {
+            // q = A*p_j orthogonalized against the previous left vectors
+            double[] q = Q[j];
+            multA(P[j], q);
+            double normBefore = norm(q, numRows);
+            orthogonalize(Q, j, q, numRows, coef);
+            for (int i = 0; i < j; i++) {
+                B.unsafe_set(i, j, coef[i]);
+            }
+            double alpha = norm(q, numRows);
+            if (alpha <= UtilEjml.EPS*normBefore) {
+                // p_j is in the null space of A. Continue with an arbitrary orthogonal vector
+                B.unsafe_set(j, j, 0.0);
+                randomOrthogonal(Q, j, numRows);
+            } else {
+                B.unsafe_set(j, j, alpha);
+                scale(1.0/alpha, q, numRows);
+            }
+
+            // r = A'*q_j orthogonalized against all the right vectors. The coefficient for p_j is alpha
+            double[] r = P[j + 1];
+            multTransA(q, r);
+            normBefore = norm(r, numCols);
+            orthogonalize(P, j + 1, r, numCols, coef);
+            beta = norm(r, numCols);
+            if (beta <= UtilEjml.EPS*normBefore) {
+                // An invariant subspace has been found
+                beta = 0.0;
+                randomOrthogonal(P, j + 1, numCols);
+            } else {
+                scale(1.0/beta, r, numCols);
+            }
+        }
+    }
+
+    /**
+     * Computes the SVD of B, which provides the Ritz values, and the error estimate for each one
+     *
+     * @return true if successful
+     */
+    protected boolean computeRitz() {
+        workB.setTo(B);
+        if (!svdB.decompose(workB))
+            return false;
+        svdB.getU(Ub, false);
+        svdB.getV(Vb, false);
+        System.arraycopy(svdB.getSingularValues(), 0, ritzValues, 0, l);
+        SingularOps_DDRM.descendingOrder(Ub, false, ritzValues, l, Vb, false);
+
+        for (int i = 0; i < l; i++) {
+            ritzError[i] = beta*Math.abs(Ub.unsafe_get(l - 1, i));
+        }
+        return true;
+    }
+
+    /**
+     * Counts how many of the wanted Ritz values have converged. Stops at the first which has not.
+     */
+    protected int countConverged() {
+        double threshold = tolerance*Math.max(ritzValues[0], UtilEjml.EPS);
+        int count = 0;
+        while (count < k && ritzError[count] <= threshold) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Compresses the bases down to the leading kk Ritz vectors and makes the residual the next right vector.
+     * Afterwards the leading kk by kk block of B is diagonal. The spike in column kk, beta*U<sub>B</sub>(l-1,:),
+     * is recomputed when q<sub>kk</sub> is orthogonalized.
+     */
+    protected void restart( int kk ) {
+        multBasis(Q, l, numRows, Ub, kk);
+        multBasis(P, l, numCols, Vb, kk);
+
+        double[] tmp = P[kk];
+        P[kk] = P[l];
+        P[l] = tmp;
+
+        B.zero();
+        for (int i = 0; i < kk; i++) {
+            B.unsafe_set(i, i, ritzValues[i]);
+        }
+    }
+
+    /**
+     * Saves the wanted singular values and vectors
+     */
+    protected void extractResults() {
+        numSingular = k;
+        if (singularValues.length != k)
+            singularValues = new double[k];
+        System.arraycopy(ritzValues, 0, singularValues, 0, k);
+
+        if (computeU)
+            combine(Q, numRows, Ub, U);
+        if (computeV)
+            combine(P, numCols, Vb, V);
+    }
+
+    /**
+     * output = [basis]*M[:,0:k], where output is a dense length by k matrix
+     */
+    protected void combine( double[][] basis, int length, DMatrixRMaj M, DMatrixRMaj output ) {
+        output.reshape(length, k);
+        output.zero();
+        for (int j = 0; j < l; j++) {
+            double[] v = basis[j];
+            for (int row = 0; row < length; row++) {
+                double a = v[row];
+                int idx = row*k;
+                for (int i = 0; i < k; i++) {
+                    output.data[idx + i] += a*M.data[j*M.numCols + i];
+                }
+            }
+        }
+    }
+
+    /**
+     * q = A*p
+     */
+    protected void multA( double[] p, double[] q ) {
+        MatrixVectorMult_DSCC.mult(p, 0, At, q, 0);
+    }
+
+    /**
+     * r = A<sup>T</sup>*q
+     */
+    protected void multTransA( double[] q, double[] r ) {
+        MatrixVectorMult_DSCC.mult(q, 0, A, r, 0);
+    }
+
+    /**
+     * basis[0:cols] = [basis[0:count]]*M[:,0:cols]. Done in place in blocks of elements
+     */
+    protected void multBasis( double[][] basis, int count, int length, DMatrixRMaj M, int cols ) {
+        double[] tmp = blockWork.reshape(cols*BLOCK_LENGTH).data;
+        for (int t0 = 0; t0 < length; t0 += BLOCK_LENGTH) {
+            multBasisBlock(basis, count, t0, Math.min(length, t0 + BLOCK_LENGTH), M, cols, tmp);
+        }
+    }
+
+    protected static void multBasisBlock( double[][] basis, int count, int t0, int t1,
+                                          DMatrixRMaj M, int cols, double[] tmp ) {
+        int len = t1 - t0;
+        Arrays.fill(tmp, 0, cols*len, 0.0);
+
+        for (int j = 0; j < count; j++) {
+            double[] v = basis[j];
+            for (int i = 0; i < cols; i++) {
+                double m = M.data[j*M.numCols + i];
+                if (m == 0.0)
+                    continue;
+                int off = i*len;
+                for (int t = 0; t < len; t++) {
+                    tmp[off + t] += m*v[t0 + t];
+                }
+            }
+        }
+
+        for (int i = 0; i < cols; i++) {
+            System.arraycopy(tmp, i*len, basis[i], t0, len);
+        }
+    }
+
+    /**
+     * Removes the components of 'basis[0:count]' from x with classical Gram-Schmidt and one round of
+     * re-orthogonalization. The coefficients are written into 'coef'.
+     */
+    protected void orthogonalize( double[][] basis, int count, double[] x, int length, double[] coef ) {
+        Arrays.fill(coef, 0, count, 0.0);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < count; i++) {
+                double[] v = basis[i];
+                double dot = 0;
+                for (int t = 0; t < length; t++) {
+                    dot += v[t]*x[t];
+                }
+                coefPass[i] = dot;
+            }
+            for (int i = 0; i < count; i++) {
+                double[] v = basis[i];
+                double c = coefPass[i];
+                coef[i] += c;
+                for (int t = 0; t < length; t++) {
+                    x[t] -= c*v[t];
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills basis[j] with a random unit vector that's orthogonal to the previous vectors
+     */
+    protected void randomOrthogonal( double[][] basis, int j, int length ) {
+        double[] v = basis[j];
+        for (int attempt = 0; attempt < 5; attempt++) {
+            for (int i = 0; i < length; i++) {
+                v[i] = rand.nextDouble() - 0.5;
+            }
+            orthogonalize(basis, j, v, length, coef);
+            double n = norm(v, length);
+            if (n > UtilEjml.EPS) {
+                scale(1.0/n, v, length);
+                return;
+            }
+        }
+        Arrays.fill(v, 0, length, 0.0);
+    }
+
+    protected double norm( double[] x, int length ) {
+        double total = 0;
+        for (int i = 0; i < length; i++) {
+            total += x[i]*x[i];
+        }
+        return Math.sqrt(total);
+    }
+
+    protected void scale( double alpha, double[] x, int length ) {
+        for (int i = 0; i < length; i++) {
+            x[i] *= alpha;
+        }
+    }
+
+    /**
+     * Returns the left singular vectors as a dense matrix.
+     *
+     * @param U Optional storage for U. If null a new instance is declared.
+     * @param transposed If true then the transpose of U is returned.
+     * @return The numRows by k matrix U, or its transpose.
+     */
+    public DMatrixRMaj getDenseU( @Nullable DMatrixRMaj U, boolean transposed ) {
+        if (!computeU)
+            throw new IllegalArgumentException("As requested U was not computed.");
+        return copy(this.U, U, transposed);
+    }
+
+    /**
+     * Returns the right singular vectors as a dense matrix.
+     *
+     * @param V Optional storage for V. If null a new instance is declared.
+     * @param transposed If true then the transpose of V is returned.
+     * @return The numCols by k matrix V, or its transpose.
+     */
+    public DMatrixRMaj getDenseV( @Nullable DMatrixRMaj V, boolean transposed ) {
+        if (!computeV)
+            throw new IllegalArgumentException("As requested V was not computed.");
+        return copy(this.V, V, transposed);
+    }
+
+    /**
+     * Returns the diagonal matrix W containing the singular values as a dense matrix.
+     *
+     * @param W Optional storage for W. If null a new instance is declared.
+     * @return k by k diagonal matrix.
+     */
+    public DMatrixRMaj getDenseW( @Nullable DMatrixRMaj W ) {
+        W = UtilEjml.reshapeOrDeclare(W, numSingular, numSingular);
+        W.zero();
+        for (int i = 0; i < numSingular; i++) {
+            W.unsafe_set(i, i, singularValues[i]);
+        }
+        return W;
+    }
+
+    private static DMatrixRMaj copy( DMatrixRMaj src, @Nullable DMatrixRMaj dst, boolean transposed ) {
+        if (transposed) {
+            dst = UtilEjml.reshapeOrDeclare(dst, src.numCols, src.numRows);
+            CommonOps_DDRM.transpose(src, dst);
+        } else {
+            dst = UtilEjml.reshapeOrDeclare(dst, src.numRows, src.numCols);
+            dst.setTo(src);
+        }
+        return dst;
+    }
+
+    @Override
+    public DMatrixSparseCSC getU( @Nullable DMatrixSparseCSC U, boolean transposed ) {
+        return DConvertMatrixStruct.convert(getDenseU(null, transposed), U, 0.0);
+    }
+
+    @Override
+    public DMatrixSparseCSC getV( @Nullable DMatrixSparseCSC V, boolean transposed ) {
+        return DConvertMatrixStruct.convert(getDenseV(null, transposed), V, 0.0);
+    }
+
+    @Override
+    public DMatrixSparseCSC getW( @Nullable DMatrixSparseCSC W ) {
+        return DConvertMatrixStruct.convert(getDenseW(null), W, 0.0);
+    }
+
+    /**
+     * Specifies the random number generator used to select the starting vector
+     */
+    public void setRandom( Random rand ) {
+        this.rand = rand;
+    }
+
+    /**
+     * Tolerance for the error of a singular value relative to the largest singular value
+     */
+    public void setTolerance( double tolerance ) {
+        this.tolerance = tolerance;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setMaxRestarts( int maxRestarts ) {
+        this.maxRestarts = maxRestarts;
+    }
+
+    public int getMaxRestarts() {
+        return maxRestarts;
+    }
+
+    /**
+     * Number of restarts needed by the last call to decompose
+     */
+    public int getNumRestarts() {
+        return numRestarts;
+    }
+
+    /**
+     * Number of wanted singular values which converged in the last call to decompose
+     */
+    public int getNumConverged() {
+        return numConverged;
+    }
+
+    @Override
+    public double[] getSingularValues() {
+        return singularValues;
+    }
+
+    @Override
+    public int numberOfSingularValues() {
+        return numSingular;
+    }
+
+    @Override
+    public boolean isCompact() {
+        return true;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numCols() {
+        return numCols;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    public int getTargetRank() {
+        return targetRank;
+    }
+
+    public int getNumLanczos() {
+        return numLanczos;
+    }
+}
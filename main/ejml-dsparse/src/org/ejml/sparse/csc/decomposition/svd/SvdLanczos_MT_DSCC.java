@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_MT_DSCC;
+import pabeles.concurrency.GrowArray;
+
+import java.util.Arrays;
+
+/**
+ * Concurrent implementation of {@link SvdLanczos_DSCC}. Matrix-vector products are split up by the rows of the
+ * output. Orthogonalization and updates of the bases are split up by elements in the Lanczos vectors.
+ *
+ * @author Peter Abeles
+ */
+public class SvdLanczos_MT_DSCC extends SvdLanczos_DSCC {
+    // workspace for each thread
+    protected final GrowArray<DGrowArray> workArrays = new GrowArray<>(DGrowArray::new);
+
+    public SvdLanczos_MT_DSCC( int targetRank, int numLanczos, boolean computeU, boolean computeV ) {
+        super(targetRank, numLanczos, computeU, computeV);
+    }
+
+    @Override
+    protected void multA( double[] p, double[] q ) {
+        MatrixVectorMult_MT_DSCC.mult(p, 0, At, q, 0);
+    }
+
+    @Override
+    protected void multTransA( double[] q, double[] r ) {
+        MatrixVectorMult_MT_DSCC.mult(q, 0, A, r, 0);
+    }
+
+    @Override
+    protected void multBasis( double[][] basis, int count, int length, DMatrixRMaj M, int cols ) {
+        int numBlocks = (length + BLOCK_LENGTH - 1)/BLOCK_LENGTH;
+        EjmlConcurrency.loopBlocks(0, numBlocks, workArrays, ( work, b0, b1 ) -> {
+            double[] tmp = work.reshape(cols*BLOCK_LENGTH).data;
+            for (int block = b0; block < b1; block++) {
+                int t0 = block*BLOCK_LENGTH;
+                multBasisBlock(basis, count, t0, Math.min(length, t0 + BLOCK_LENGTH), M, cols, tmp);
+            }
+        });
+    }
+
+    @Override
+    protected void orthogonalize( double[][] basis, int count, double[] x, int length, double[] coef ) {
+        Arrays.fill(coef, 0, count, 0.0);
+        if (count == 0)
+            return;
+        for (int pass = 0; pass < 2; pass++) {
+            // each thread computes partial dot products over its range of elements
+            EjmlConcurrency.loopBlocks(0, length, workArrays, ( work, t0, t1 ) -> {
+                double[] partial = work.reshape(count).data;
+                for (int i = 0; i < count; i++) {
+                    double[] v = basis[i];
+                    double dot = 0;
+                    for (int t = t0; t < t1; t++) {
+                        dot += v[t]*x[t];
+                    }
+                    partial[i] = dot;
+                }
+            });
+
+            Arrays.fill(coefPass, 0, count, 0.0);
+            for (int threadIdx = 0; threadIdx < workArrays.size(); threadIdx++) {
+                double[] partial = workArrays.get(threadIdx).data;
+                for (int i = 0; i < count; i++) {
+                    coefPass[i] += partial[i];
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                coef[i] += coefPass[i];
+            }
+
+            EjmlConcurrency.loopBlocks(0, length, ( t0, t1 ) -> {
+                for (int i = 0; i < count; i++) {
+                    double[] v = basis[i];
+                    double c = coefPass[i];
+                    for (int t = t0; t < t1; t++) {
+                        x[t] -= c*v[t];
+                    }
+                }
+            });
+        }
+    }
+}
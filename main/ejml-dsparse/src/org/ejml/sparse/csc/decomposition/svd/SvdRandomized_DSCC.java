@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.decomposition.svd.SvdRandomizedBase_DDRM;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Randomized truncated SVD of a sparse matrix. The sparse matrix is only used in products with dense matrices
+ * which have a few columns, so it is never converted into a dense matrix. See {@link SvdRandomizedBase_DDRM} for
+ * a description of the algorithm.
+ * </p>
+ *
+ * <p>
+ * The singular vectors are dense. {@link #getU} and {@link #getV} convert them into sparse matrices to conform
+ * to the interface. Use {@link #getDenseU} and {@link #getDenseV} to avoid that overhead.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdRandomized_DSCC extends SvdRandomizedBase_DDRM<DMatrixSparseCSC> {
+    // workspace for multiplication
+    protected final DGrowArray work = new DGrowArray();
+
+    /**
+     * Configures the decomposition
+     *
+     * @param targetRank Number of singular values and vectors which are computed.
+     * @param oversample Number of additional samples of the range. Larger is more accurate. Try 10.
+     * @param powerIterations Number of power iterations. Larger is more accurate. Try 1 or 2.
+     * @param computeU If true it will compute the U matrix
+     * @param computeV If true it will compute the V matrix
+     */
+    public SvdRandomized_DSCC( int targetRank, int oversample, int powerIterations,
+                               boolean computeU, boolean computeV ) {
+        super(targetRank, oversample, powerIterations, computeU, computeV);
+    }
+
+    @Override
+    protected void multA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DSCC.mult(A, B, C);
+    }
+
+    @Override
+    protected void multTransA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DSCC.multTransA(A, B, C, work);
+    }
+
+    @Override
+    protected void sumCols( DMatrixSparseCSC A, DMatrixRMaj sums ) {
+        CommonOps_DSCC.sumCols(A, sums);
+    }
+
+    @Override
+    public DMatrixSparseCSC getU( @Nullable DMatrixSparseCSC U, boolean transposed ) {
+        return DConvertMatrixStruct.convert(getDenseU(null, transposed), U, 0.0);
+    }
+
+    @Override
+    public DMatrixSparseCSC getV( @Nullable DMatrixSparseCSC V, boolean transposed ) {
+        return DConvertMatrixStruct.convert(getDenseV(null, transposed), V, 0.0);
+    }
+
+    @Override
+    public DMatrixSparseCSC getW( @Nullable DMatrixSparseCSC W ) {
+        return DConvertMatrixStruct.convert(getDenseW(null), W, 0.0);
+    }
+}
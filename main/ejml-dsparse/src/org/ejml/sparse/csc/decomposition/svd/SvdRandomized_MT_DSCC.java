@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionTSQR_MT_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_MT_DDRM;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.ejml.sparse.csc.CommonOps_MT_DSCC;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link SvdRandomized_DSCC}. Products with the sparse matrix are split up by
+ * columns of the dense samples and the dense operations use concurrent algorithms.
+ *
+ * @author Peter Abeles
+ */
+public class SvdRandomized_MT_DSCC extends SvdRandomized_DSCC {
+    // workspace for each thread
+    protected final GrowArray<DGrowArray> workArrays = new GrowArray<>(DGrowArray::new);
+
+    public SvdRandomized_MT_DSCC( int targetRank, int oversample, int powerIterations,
+                                  boolean computeU, boolean computeV ) {
+        super(targetRank, oversample, powerIterations, computeU, computeV);
+    }
+
+    @Override
+    protected void multA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_MT_DSCC.mult(A, B, C, workArrays);
+    }
+
+    @Override
+    protected void multTransA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_MT_DSCC.multTransA(A, B, C, workArrays);
+    }
+
+    @Override
+    protected void multDense( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_MT_DDRM.mult(A, B, C);
+    }
+
+    @Override
+    protected QRDecomposition<DMatrixRMaj> declareQR( int numRows, int numCols ) {
+        if (QRDecompositionTSQR_DDRM.isPreferred(numRows, numCols))
+            return new QRDecompositionTSQR_MT_DDRM();
+        return new QRDecompositionHouseholderColumn_MT_DDRM();
+    }
+
+    @Override
+    protected SingularValueDecomposition_F64<DMatrixRMaj> declareSvd( int numRows, int numCols ) {
+        return DecompositionFactory_MT_DDRM.svd(numRows, numCols, true, true, true);
+    }
+}
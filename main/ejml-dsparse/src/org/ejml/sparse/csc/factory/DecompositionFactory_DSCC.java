@@ -27,6 +27,8 @@ import org.ejml.sparse.FillReducing;
 import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
 import org.ejml.sparse.csc.decomposition.lu.LuUpLooking_DSCC;
 import org.ejml.sparse.csc.decomposition.qr.QrLeftLookingDecomposition_DSCC;
+import org.ejml.sparse.csc.decomposition.svd.SvdLanczos_DSCC;
+import org.ejml.sparse.csc.decomposition.svd.SvdRandomized_DSCC;
 
 /**
  * Factory for sparse matrix decompositions
@@ -47,4 +49,38 @@ public class DecompositionFactory_DSCC {
         ComputePermutation<DMatrixSparseCSC> cp = FillReductionFactory_DSCC.create(permutation);
         return new LuUpLooking_DSCC(cp);
     }
+
+    /**
+     * Returns a randomized truncated SVD which only computes the 'targetRank' largest singular values of a
+     * sparse matrix. The singular vectors are dense. For a concurrent implementation
+     * see {@link org.ejml.sparse.csc.decomposition.svd.SvdRandomized_MT_DSCC}.
+     *
+     * @param targetRank Number of singular values and vectors which are computed.
+     * @param oversample Number of additional samples of the range. Larger is more accurate. Try 10.
+     * @param powerIterations Number of power iterations. Larger is more accurate. Try 1 or 2.
+     * @param needU Should it compute the U matrix. If not sure set to true.
+     * @param needV Should it compute the V matrix. If not sure set to true.
+     * @return SVD
+     */
+    public static SvdRandomized_DSCC svdRandomized( int targetRank, int oversample, int powerIterations,
+                                                    boolean needU, boolean needV ) {
+        return new SvdRandomized_DSCC(targetRank, oversample, powerIterations, needU, needV);
+    }
+
+    /**
+     * Returns a partial SVD which finds the 'targetRank' largest singular values of a sparse matrix using
+     * Golub-Kahan-Lanczos bidiagonalization with thick restarts. More accurate than {@link #svdRandomized} when
+     * the singular values decay slowly. For a concurrent implementation
+     * see {@link org.ejml.sparse.csc.decomposition.svd.SvdLanczos_MT_DSCC}.
+     *
+     * @param targetRank Number of singular values and vectors which are computed.
+     * @param numLanczos Number of Lanczos vectors. Must be more than targetRank. If &le; 0 it's selected
+     * automatically.
+     * @param needU Should it compute the U matrix. If not sure set to true.
+     * @param needV Should it compute the V matrix. If not sure set to true.
+     * @return SVD
+     */
+    public static SvdLanczos_DSCC svdLanczos( int targetRank, int numLanczos, boolean needU, boolean needV ) {
+        return new SvdLanczos_DSCC(targetRank, numLanczos, needU, needV);
+    }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.data.DMatrixSparseCSCBig;
+import org.ejml.masks.DMaskPrimitive;
+import org.ejml.masks.DMaskSparse;
+import org.ejml.masks.Mask;
+import org.ejml.ops.DSemiRing;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Matrix-vector multiplication for {@link DMatrixSparseCSCBig}. Same algorithms as {@link MatrixVectorMult_DSCC}
+ * and {@link MatrixVectorMultWithSemiRing_DSCC}. The inner loops are split at chunk boundaries so that they
+ * operate directly on the chunk's arrays.
+ *
+ * @author Peter Abeles
+ */
+public class MatrixVectorMultBig_DSCC {
+    /**
+     * c = A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param offsetB (Input) first index in vector b
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void mult( DMatrixSparseCSCBig A,
+                             double[] b, int offsetB,
+                             double[] c, int offsetC ) {
+        Arrays.fill(c, offsetC, offsetC + A.numRows, 0);
+        multAdd(A, b, offsetB, c, offsetC);
+    }
+
+    /**
+     * c = c + A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param offsetB (Input) first index in vector b
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void multAdd( DMatrixSparseCSCBig A,
+                                double[] b, int offsetB,
+                                double[] c, int offsetC ) {
+        if (b.length - offsetB < A.numCols)
+            throw new IllegalArgumentException("Length of 'b' isn't long enough");
+        if (c.length - offsetC < A.numRows)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        final int chunkBits = A.nz_values.chunkBits;
+        final int chunkMask = A.nz_values.chunkMask;
+
+        for (int k = 0; k < A.numCols; k++) {
+            long idx0 = A.col_idx[k];
+            long idx1 = A.col_idx[k + 1];
+            double valueB = b[offsetB + k];
+
+            while (idx0 < idx1) {
+                int chunk = (int)(idx0 >> chunkBits);
+                int start = (int)idx0 & chunkMask;
+                int end = (int)Math.min(A.nz_values.chunkSize, start + (idx1 - idx0));
+                int[] rows = A.nz_rows.chunks[chunk];
+                double[] values = A.nz_values.chunks[chunk];
+
+                for (int i = start; i < end; i++) {
+                    c[offsetC + rows[i]] += values[i]*valueB;
+                }
+                idx0 += end - start;
+            }
+        }
+    }
+
+    /**
+     * c = a<sup>T</sup>*B
+     *
+     * @param a (Input) vector
+     * @param offsetA Input) first index in vector a
+     * @param B (Input) Matrix
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void mult( double[] a, int offsetA,
+                             DMatrixSparseCSCBig B,
+                             double[] c, int offsetC ) {
+        if (a.length - offsetA < B.numRows)
+            throw new IllegalArgumentException("Length of 'a' isn't long enough");
+        if (c.length - offsetC < B.numCols)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        final int chunkBits = B.nz_values.chunkBits;
+        final int chunkMask = B.nz_values.chunkMask;
+
+        for (int k = 0; k < B.numCols; k++) {
+            long idx0 = B.col_idx[k];
+            long idx1 = B.col_idx[k + 1];
+
+            double sum = 0;
+            while (idx0 < idx1) {
+                int chunk = (int)(idx0 >> chunkBits);
+                int start = (int)idx0 & chunkMask;
+                int end = (int)Math.min(B.nz_values.chunkSize, start + (idx1 - idx0));
+                int[] rows = B.nz_rows.chunks[chunk];
+                double[] values = B.nz_values.chunks[chunk];
+
+                for (int i = start; i < end; i++) {
+                    sum += a[offsetA + rows[i]]*values[i];
+                }
+                idx0 += end - start;
+            }
+            c[offsetC + k] = sum;
+        }
+    }
+
+    /**
+     * c = A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param c (Output) vector
+     * @param semiRing Semi-Ring to define + and *
+     * @param mask Mask for specifying which entries should be overwritten
+     */
+    public static void mult( DMatrixSparseCSCBig A, double[] b, double[] c,
+                             DSemiRing semiRing, @Nullable Mask mask ) {
+        if (b.length < A.numCols)
+            throw new IllegalArgumentException("Length of 'b' isn't long enough");
+        if (c.length < A.numRows)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        final int chunkBits = A.nz_values.chunkBits;
+        final int chunkMask = A.nz_values.chunkMask;
+
+        Arrays.fill(c, 0, A.numRows, semiRing.add.id);
+
+        for (int k = 0; k < A.numCols; k++) {
+            long idx0 = A.col_idx[k];
+            long idx1 = A.col_idx[k + 1];
+            double valueB = b[k];
+
+            while (idx0 < idx1) {
+                int chunk = (int)(idx0 >> chunkBits);
+                int start = (int)idx0 & chunkMask;
+                int end = (int)Math.min(A.nz_values.chunkSize, start + (idx1 - idx0));
+                int[] rows = A.nz_rows.chunks[chunk];
+                double[] values = A.nz_values.chunks[chunk];
+
+                for (int i = start; i < end; i++) {
+                    c[rows[i]] = semiRing.add.func.apply(c[rows[i]], semiRing.mult.func.apply(values[i], valueB));
+                }
+                idx0 += end - start;
+            }
+        }
+
+        if (mask != null) {
+            // apply mask at once as computation is not column-wise
+            double zeroElement = 0;
+            if (mask instanceof DMaskPrimitive) {
+                zeroElement = ((DMaskPrimitive)mask).zeroElement;
+            } else if ((mask instanceof DMaskSparse)) {
+                zeroElement = ((DMaskSparse)mask).zeroElement;
+            }
+
+            for (int i = 0; i < A.numRows; i++) {
+                if (!mask.isSet(i)) {
+                    c[i] = zeroElement;
+                }
+            }
+        }
+    }
+
+    /**
+     * c = a<sup>T</sup>*B
+     *
+     * @param a (Input) vector
+     * @param B (Input) Matrix
+     * @param c (Output) vector
+     * @param semiRing Semi-Ring to define + and *
+     * @param mask Mask for specifying which entries should be overwritten
+     */
+    public static void mult( double[] a, DMatrixSparseCSCBig B, double[] c,
+                             DSemiRing semiRing, @Nullable Mask mask ) {
+        if (a.length < B.numRows)
+            throw new IllegalArgumentException("Length of 'a' isn't long enough");
+        if (c.length < B.numCols)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        final int chunkBits = B.nz_values.chunkBits;
+        final int chunkMask = B.nz_values.chunkMask;
+
+        for (int k = 0; k < B.numCols; k++) {
+            if (mask != null && !mask.isSet(k))
+                continue;
+
+            long idx0 = B.col_idx[k];
+            long idx1 = B.col_idx[k + 1];
+
+            double sum = semiRing.add.id;
+            while (idx0 < idx1) {
+                int chunk = (int)(idx0 >> chunkBits);
+                int start = (int)idx0 & chunkMask;
+                int end = (int)Math.min(B.nz_values.chunkSize, start + (idx1 - idx0));
+                int[] rows = B.nz_rows.chunks[chunk];
+                double[] values = B.nz_values.chunks[chunk];
+
+                for (int i = start; i < end; i++) {
+                    sum = semiRing.add.func.apply(sum, semiRing.mult.func.apply(a[rows[i]], values[i]));
+                }
+                idx0 += end - start;
+            }
+            c[k] = sum;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.data.DMatrixSparseCSCOffHeap;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Matrix-vector multiplication for {@link DMatrixSparseCSCOffHeap}. Same algorithms as {@link MatrixVectorMult_DSCC}.
+ * The inner loops are split at chunk boundaries so that they operate directly on each chunk's buffer.
+ *
+ * @author Peter Abeles
+ */
+public class MatrixVectorMultOffHeap_DSCC {
+    /**
+     * c = A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param offsetB (Input) first index in vector b
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void mult( DMatrixSparseCSCOffHeap A,
+                             double[] b, int offsetB,
+                             double[] c, int offsetC ) {
+        Arrays.fill(c, offsetC, offsetC + A.numRows, 0);
+        multAdd(A, b, offsetB, c, offsetC);
+    }
+
+    /**
+     * c = c + A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param offsetB (Input) first index in vector b
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void multAdd( DMatrixSparseCSCOffHeap A,
+                                double[] b, int offsetB,
+                                double[] c, int offsetC ) {
+        if (b.length - offsetB < A.numCols)
+            throw new IllegalArgumentException("Length of 'b' isn't long enough");
+        if (c.length - offsetC < A.numRows)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        final int chunkBits = A.nz_values.chunkBits;
+        final int chunkMask = A.nz_values.chunkMask;
+
+        for (int k = 0; k < A.numCols; k++) {
+            long idx0 = A.col_idx[k];
+            long idx1 = A.col_idx[k + 1];
+            double valueB = b[offsetB + k];
+
+            while (idx0 < idx1) {
+                int chunk = (int)(idx0 >> chunkBits);
+                int start = (int)idx0 & chunkMask;
+                int end = (int)Math.min(A.nz_values.chunkSize, start + (idx1 - idx0));
+                IntBuffer rows = A.nz_rows.chunks[chunk];
+                DoubleBuffer values = A.nz_values.chunks[chunk];
+
+                for (int i = start; i < end; i++) {
+                    c[offsetC + rows.get(i)] += values.get(i)*valueB;
+                }
+                idx0 += end - start;
+            }
+        }
+    }
+
+    /**
+     * c = a<sup>T</sup>*B
+     *
+     * @param a (Input) vector
+     * @param offsetA Input) first index in vector a
+     * @param B (Input) Matrix
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void mult( double[] a, int offsetA,
+                             DMatrixSparseCSCOffHeap B,
+                             double[] c, int offsetC ) {
+        if (a.length - offsetA < B.numRows)
+            throw new IllegalArgumentException("Length of 'a' isn't long enough");
+        if (c.length - offsetC < B.numCols)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        final int chunkBits = B.nz_values.chunkBits;
+        final int chunkMask = B.nz_values.chunkMask;
+
+        for (int k = 0; k < B.numCols; k++) {
+            long idx0 = B.col_idx[k];
+            long idx1 = B.col_idx[k + 1];
+
+            double sum = 0;
+            while (idx0 < idx1) {
+                int chunk = (int)(idx0 >> chunkBits);
+                int start = (int)idx0 & chunkMask;
+                int end = (int)Math.min(B.nz_values.chunkSize, start + (idx1 - idx0));
+                IntBuffer rows = B.nz_rows.chunks[chunk];
+                DoubleBuffer values = B.nz_values.chunks[chunk];
+
+                for (int i = start; i < end; i++) {
+                    sum += a[offsetA + rows.get(i)]*values.get(i);
+                }
+                idx0 += end - start;
+            }
+            c[offsetC + k] = sum;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package org.ejml.sparse.csc.mult;
 
 import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.simd.EjmlSimd;
 
 import java.util.Arrays;
 
@@ -63,9 +64,7 @@ public class MatrixVectorMult_DSCC {
             int idx0 = A.col_idx[k];
             int idx1 = A.col_idx[k + 1];
 
-            for (int indexA = idx0; indexA < idx1; indexA++) {
-                c[offsetC + A.nz_rows[indexA]] += A.nz_values[indexA]*b[offsetB + k];
-            }
+            EjmlSimd.KERNELS_F64.axpyScatter(b[offsetB + k], A.nz_values, A.nz_rows, idx0, idx1, c, offsetC);
         }
     }
 
@@ -90,10 +89,7 @@ public class MatrixVectorMult_DSCC {
             int idx0 = B.col_idx[k];
             int idx1 = B.col_idx[k + 1];
 
-            double sum = 0;
-            for (int indexB = idx0; indexB < idx1; indexB++) {
-                sum += a[offsetA + B.nz_rows[indexB]]*B.nz_values[indexB];
-            }
+            double sum = EjmlSimd.KERNELS_F64.dotGather(B.nz_values, B.nz_rows, idx0, idx1, a, offsetA);
             c[offsetC + k] = sum;
         }
     }
@@ -121,10 +117,7 @@ public class MatrixVectorMult_DSCC {
             int idx0 = B.col_idx[k];
             int idx1 = B.col_idx[k + 1];
 
-            double sum = 0;
-            for (int indexB = idx0; indexB < idx1; indexB++) {
-                sum += a[offsetA + B.nz_rows[indexB]]*B.nz_values[indexB];
-            }
+            double sum = EjmlSimd.KERNELS_F64.dotGather(B.nz_values, B.nz_rows, idx0, idx1, a, offsetA);
             output += sum*c[offsetC + k];
         }
 
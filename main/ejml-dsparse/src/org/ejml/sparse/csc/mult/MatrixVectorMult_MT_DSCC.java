@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.simd.EjmlSimd;
+
+/**
+ * Concurrent implementations of {@link MatrixVectorMult_DSCC}. Only operations which write to each output
+ * element independently are included, e.g. c = a<sup>T</sup>*B. To compute c = A*b concurrently pass in the
+ * transpose of A.
+ *
+ * @author Peter Abeles
+ */
+public class MatrixVectorMult_MT_DSCC {
+    /**
+     * c = a<sup>T</sup>*B. The columns of B are split between the threads.
+     *
+     * @param a (Input) vector
+     * @param offsetA (Input) first index in vector a
+     * @param B (Input) Matrix
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void mult( double[] a, int offsetA,
+                             DMatrixSparseCSC B,
+                             double[] c, int offsetC ) {
+        if (a.length - offsetA < B.numRows)
+            throw new IllegalArgumentException("Length of 'a' isn't long enough");
+        if (c.length - offsetC < B.numCols)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        EjmlConcurrency.loopBlocks(0, B.numCols, ( col0, col1 ) -> {
+            for (int k = col0; k < col1; k++) {
+                int idx0 = B.col_idx[k];
+                int idx1 = B.col_idx[k + 1];
+
+                c[offsetC + k] = EjmlSimd.KERNELS_F64.dotGather(B.nz_values, B.nz_rows, idx0, idx1, a, offsetA);
+            }
+        });
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.sparse.csc;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseCSCBig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCommonOpsBig_DSCC {
+    Random rand = new Random(234);
+
+    @Test
+    public void checkIndicesSorted() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(8, 6, 25, rand);
+        DMatrixSparseCSCBig B = CommonOpsBig_DSCC.convert(A, new DMatrixSparseCSCBig(1, 1, 0, 2));
+        assertTrue(CommonOpsBig_DSCC.checkIndicesSorted(B));
+
+        // swap two elements in a column
+        for (int col = 0; col < B.numCols; col++) {
+            long idx0 = B.col_idx[col];
+            if (B.col_idx[col + 1] - idx0 < 2)
+                continue;
+            int row = B.nz_rows.get(idx0);
+            B.nz_rows.set(idx0, B.nz_rows.get(idx0 + 1));
+            B.nz_rows.set(idx0 + 1, row);
+            break;
+        }
+        assertFalse(CommonOpsBig_DSCC.checkIndicesSorted(B));
+    }
+
+    @Test
+    public void convert() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(8, 6, 25, rand);
+
+        DMatrixSparseCSCBig B = CommonOpsBig_DSCC.convert(A, new DMatrixSparseCSCBig(1, 1, 0, 2));
+        DMatrixSparseCSC found = CommonOpsBig_DSCC.convert(B, (DMatrixSparseCSC)null);
+        EjmlUnitTests.assertEquals(A, found, UtilEjml.TEST_F64);
+
+        // pass in a matrix which needs to be reshaped
+        found = CommonOpsBig_DSCC.convert(B, new DMatrixSparseCSC(2, 3, 1));
+        EjmlUnitTests.assertEquals(A, found, UtilEjml.TEST_F64);
+        assertTrue(CommonOps_DSCC.checkStructure(found));
+    }
+
+    @Test
+    public void transpose() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(8, 6, 25, rand);
+        DMatrixSparseCSC expected = CommonOps_DSCC.transpose(A, null, null);
+
+        DMatrixSparseCSCBig B = CommonOpsBig_DSCC.convert(A, new DMatrixSparseCSCBig(1, 1, 0, 2));
+        DMatrixSparseCSCBig B_t = CommonOpsBig_DSCC.transpose(B, null, null);
+        assertTrue(B_t.indicesSorted);
+        assertTrue(CommonOpsBig_DSCC.checkIndicesSorted(B_t));
+
+        DMatrixSparseCSC found = CommonOpsBig_DSCC.convert(B_t, (DMatrixSparseCSC)null);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        // provide storage and a workspace
+        B_t = new DMatrixSparseCSCBig(2, 3, 0, 3);
+        CommonOpsBig_DSCC.transpose(B, B_t, new long[2]);
+        found = CommonOpsBig_DSCC.convert(B_t, (DMatrixSparseCSC)null);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        assertThrows(IllegalArgumentException.class, () -> CommonOpsBig_DSCC.transpose(B, B, null));
+    }
+}
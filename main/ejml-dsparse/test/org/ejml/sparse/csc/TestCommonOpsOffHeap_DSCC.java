@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.sparse.csc;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseCSCBig;
+import org.ejml.data.DMatrixSparseCSCOffHeap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCommonOpsOffHeap_DSCC {
+    Random rand = new Random(234);
+
+    @Test
+    public void convert() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(8, 6, 25, rand);
+
+        DMatrixSparseCSCOffHeap B = CommonOpsOffHeap_DSCC.convert(A, new DMatrixSparseCSCOffHeap(1, 1, 0, 2));
+        for (int row = 0; row < A.numRows; row++) {
+            for (int col = 0; col < A.numCols; col++) {
+                assertEquals(A.get(row, col), B.get(row, col));
+            }
+        }
+
+        DMatrixSparseCSC found = CommonOpsOffHeap_DSCC.convert(B, (DMatrixSparseCSC)null);
+        EjmlUnitTests.assertEquals(A, found, UtilEjml.TEST_F64);
+
+        // pass in a matrix which needs to be reshaped
+        found = CommonOpsOffHeap_DSCC.convert(B, new DMatrixSparseCSC(2, 3, 1));
+        EjmlUnitTests.assertEquals(A, found, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void setTo_big() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(8, 6, 25, rand);
+        DMatrixSparseCSCBig B = CommonOpsBig_DSCC.convert(A, new DMatrixSparseCSCBig(1, 1, 0, 2));
+
+        var C = new DMatrixSparseCSCOffHeap(1, 1, 0, 3);
+        C.setTo(B);
+        EjmlUnitTests.assertEquals(A, CommonOpsOffHeap_DSCC.convert(C, (DMatrixSparseCSC)null), UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void extractColumns() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(8, 6, 25, rand);
+        DMatrixSparseCSCOffHeap B = CommonOpsOffHeap_DSCC.convert(A, new DMatrixSparseCSCOffHeap(1, 1, 0, 2));
+
+        DMatrixSparseCSC expected = CommonOps_DSCC.extractColumn(A, 2, null);
+        DMatrixSparseCSC found = CommonOpsOffHeap_DSCC.extractColumns(B, 2, 3, null);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        expected = new DMatrixSparseCSC(8, 4);
+        CommonOps_DSCC.extract(A, 0, 8, 1, 5, expected, 0, 0);
+        found = CommonOpsOffHeap_DSCC.extractColumns(B, 1, 5, found);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        assertThrows(IllegalArgumentException.class, () -> CommonOpsOffHeap_DSCC.extractColumns(B, 4, 7, null));
+    }
+}
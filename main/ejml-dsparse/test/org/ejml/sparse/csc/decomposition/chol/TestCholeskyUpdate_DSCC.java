@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCholeskyUpdate_DSCC {
+    Random rand = new Random(234);
+
+    /**
+     * The column of C is inside the structure of L, so there's no fill in
+     */
+    @Test
+    public void update_noFill() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(30, 0.2, rand);
+        DMatrixSparseCSC L = decompose(A);
+
+        // use the structure of a column in L
+        int col = 5;
+        DMatrixSparseCSC C = new DMatrixSparseCSC(30, 1, 0);
+        for (int p = L.col_idx[col]; p < L.col_idx[col + 1]; p++) {
+            C.set(L.nz_rows[p], 0, rand.nextDouble() - 0.5);
+        }
+        int nz_length = L.nz_length;
+
+        new CholeskyUpdate_DSCC().update(L, C);
+        assertEquals(nz_length, L.nz_length);
+
+        checkFactor(add(A, C, 1.0), L);
+    }
+
+    /**
+     * Random columns which will cause fill in
+     */
+    @Test
+    public void update_fill() {
+        for (int trial = 0; trial < 10; trial++) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(40, 0.1, rand);
+            DMatrixSparseCSC C = RandomMatrices_DSCC.rectangle(40, 3, 12, rand);
+
+            DMatrixSparseCSC L = decompose(A);
+            new CholeskyUpdate_DSCC().update(L, C);
+            assertTrue(CommonOps_DSCC.checkStructure(L));
+
+            checkFactor(add(A, C, 1.0), L);
+        }
+    }
+
+    /**
+     * A downdate should undo an update
+     */
+    @Test
+    public void downdate() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(40, 0.1, rand);
+        DMatrixSparseCSC C = RandomMatrices_DSCC.rectangle(40, 3, 12, rand);
+
+        DMatrixSparseCSC L = decompose(A);
+        CholeskyUpdate_DSCC alg = new CholeskyUpdate_DSCC();
+        alg.update(L, C);
+        assertTrue(alg.downdate(L, C));
+
+        checkFactor(A, L);
+    }
+
+    /**
+     * The result isn't positive definite. L should be restored.
+     */
+    @Test
+    public void downdate_fail() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(30, 0.2, rand);
+        DMatrixSparseCSC L = decompose(A);
+        DMatrixSparseCSC L_orig = L.copy();
+
+        // the first column is fine, the second will fail
+        DMatrixSparseCSC C = new DMatrixSparseCSC(30, 2, 0);
+        C.set(3, 0, 1e-3);
+        C.set(3, 1, 1e3);
+        C.set(7, 1, 1e3);
+
+        assertFalse(new CholeskyUpdate_DSCC().downdate(L, C));
+        // elements which filled in are now explicit zeros
+        for (int row = 0; row < L.numRows; row++) {
+            for (int col = 0; col < L.numCols; col++) {
+                assertEquals(L_orig.get(row, col), L.get(row, col), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    private static DMatrixSparseCSC add( DMatrixSparseCSC A, DMatrixSparseCSC C, double sign ) {
+        DMatrixSparseCSC CCt = CommonOps_DSCC.mult(C, CommonOps_DSCC.transpose(C, null, null), null);
+        DMatrixSparseCSC found = new DMatrixSparseCSC(1, 1, 0);
+        CommonOps_DSCC.add(1.0, A, sign, CCt, found, null, null);
+        return found;
+    }
+
+    /**
+     * Checks to see if L*L' = A
+     */
+    private static void checkFactor( DMatrixSparseCSC A, DMatrixSparseCSC L ) {
+        DMatrixSparseCSC LLt = CommonOps_DSCC.mult(L, CommonOps_DSCC.transpose(L, null, null), null);
+        for (int row = 0; row < A.numRows; row++) {
+            for (int col = 0; col < A.numCols; col++) {
+                assertEquals(A.get(row, col), LLt.get(row, col), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    private static DMatrixSparseCSC decompose( DMatrixSparseCSC A ) {
+        CholeskyUpLooking_DSCC chol = new CholeskyUpLooking_DSCC();
+        assertTrue(chol.decompose(A));
+        return chol.getL().copy();
+    }
+}
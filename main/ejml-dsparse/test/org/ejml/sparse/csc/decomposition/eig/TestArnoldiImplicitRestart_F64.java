@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestArnoldiImplicitRestart_F64 {
+    Random rand = new Random(234);
+
+    /**
+     * A random matrix will have complex eigenvalues with the largest magnitude
+     */
+    @Test
+    public void largestMagnitude() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(150, 150, 900, -1, 1, rand);
+        checkSelection(A, RitzSelection.LARGEST_MAGNITUDE, 6);
+    }
+
+    @Test
+    public void largestReal() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(150, 150, 900, -1, 1, rand);
+        checkSelection(A, RitzSelection.LARGEST_REAL, 4);
+    }
+
+    /**
+     * Symmetric matrices should work too
+     */
+    @Test
+    public void symmetric() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(100, 400, -1, 1, rand);
+        checkSelection(A, RitzSelection.LARGEST_MAGNITUDE, 5);
+    }
+
+    @Test
+    public void smallOperator() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(9, 9, 50, -1, 1, rand);
+        checkSelection(A, RitzSelection.LARGEST_MAGNITUDE, 3);
+        checkSelection(A, RitzSelection.LARGEST_MAGNITUDE, 9);
+    }
+
+    /**
+     * Find eigenvalues close to a shift with shift-invert
+     */
+    @Test
+    public void shiftInvert() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(120, 120, 700, -1, 1, rand);
+        // make it diagonally dominant so that it isn't singular
+        DMatrixSparseCSC D = CommonOps_DSCC.identity(120);
+        CommonOps_DSCC.scale(3.0, D, D);
+        A = CommonOps_DSCC.add(1.0, A, 1.0, D, null, null, null);
+
+        double sigma = 2.5;
+        var op = new ShiftInvertOperator_DSCC(LinearSolverFactory_DSCC.lu(FillReducing.NONE));
+        assertTrue(op.setMatrix(A, sigma));
+
+        var alg = new ArnoldiImplicitRestart_F64(4);
+        assertTrue(alg.process(op));
+
+        List<Complex_F64> expected = denseEigenvalues(A);
+        expected.sort(Comparator.comparingDouble(c -> distance(c, sigma, 0)));
+
+        for (int i = 0; i < 4; i++) {
+            Complex_F64 lambda = new Complex_F64();
+            op.eigenvalue(alg.getEigenvalue(i), lambda);
+            assertEquals(expected.get(i).getMagnitude(), lambda.getMagnitude(), UtilEjml.TEST_F64);
+            checkContains(expected, lambda);
+            if (lambda.imaginary == 0.0)
+                TestLanczosImplicitRestart_F64.checkEigenVector(A, lambda.real, alg.getEigenVector(i));
+            else
+                assertNull(alg.getEigenVector(i));
+        }
+    }
+
+    private void checkSelection( DMatrixSparseCSC A, RitzSelection selection, int numEigen ) {
+        var alg = new ArnoldiImplicitRestart_F64(numEigen);
+        alg.setSelection(selection);
+        assertTrue(alg.process(A));
+        assertEquals(numEigen, alg.getNumberOfEigenvalues());
+
+        List<Complex_F64> expected = denseEigenvalues(A);
+        if (selection == RitzSelection.LARGEST_MAGNITUDE)
+            expected.sort(Comparator.comparingDouble(c -> -c.getMagnitude()));
+        else
+            expected.sort(Comparator.comparingDouble(c -> -c.real));
+
+        for (int i = 0; i < numEigen; i++) {
+            Complex_F64 found = alg.getEigenvalue(i);
+            if (selection == RitzSelection.LARGEST_MAGNITUDE)
+                assertEquals(expected.get(i).getMagnitude(), found.getMagnitude(), UtilEjml.TEST_F64);
+            else
+                assertEquals(expected.get(i).real, found.real, UtilEjml.TEST_F64);
+            checkContains(expected, found);
+
+            if (found.imaginary == 0.0)
+                TestLanczosImplicitRestart_F64.checkEigenVector(A, found.real, alg.getEigenVector(i));
+            else
+                assertNull(alg.getEigenVector(i));
+        }
+    }
+
+    private static void checkContains( List<Complex_F64> expected, Complex_F64 found ) {
+        double best = Double.MAX_VALUE;
+        for (Complex_F64 c : expected) {
+            best = Math.min(best, distance(c, found.real, found.imaginary));
+        }
+        assertEquals(0.0, best, UtilEjml.TEST_F64);
+    }
+
+    private static double distance( Complex_F64 c, double real, double imaginary ) {
+        double dr = c.real - real, di = c.imaginary - imaginary;
+        return Math.sqrt(dr*dr + di*di);
+    }
+
+    private static List<Complex_F64> denseEigenvalues( DMatrixSparseCSC A ) {
+        DMatrixRMaj denseA = DConvertMatrixStruct.convert(A, (DMatrixRMaj)null);
+        EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(false, false);
+        assertTrue(eig.decompose(denseA));
+        List<Complex_F64> values = new ArrayList<>();
+        for (int i = 0; i < A.numRows; i++) {
+            Complex_F64 value = eig.getEigenvalue(i);
+            values.add(new Complex_F64(value.real, value.imaginary));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLanczosImplicitRestart_F64 {
+    Random rand = new Random(234);
+
+    @Test
+    public void largestMagnitude() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(150, 600, -1, 1, rand);
+        checkSelection(A, RitzSelection.LARGEST_MAGNITUDE, 5);
+    }
+
+    @Test
+    public void largestReal() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(150, 600, -1, 1, rand);
+        checkSelection(A, RitzSelection.LARGEST_REAL, 4);
+    }
+
+    @Test
+    public void smallestReal() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(150, 600, -1, 1, rand);
+        checkSelection(A, RitzSelection.SMALLEST_REAL, 4);
+    }
+
+    /**
+     * The operator is smaller than the default number of Krylov vectors
+     */
+    @Test
+    public void smallOperator() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(8, 30, -1, 1, rand);
+        checkSelection(A, RitzSelection.LARGEST_MAGNITUDE, 3);
+        checkSelection(A, RitzSelection.LARGEST_MAGNITUDE, 8);
+    }
+
+    /**
+     * Find the smallest eigenvalues of a positive definite matrix with shift-invert
+     */
+    @Test
+    public void shiftInvert() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(120, 0.9, rand);
+
+        var op = new ShiftInvertOperator_DSCC(LinearSolverFactory_DSCC.cholesky(FillReducing.NONE));
+        assertTrue(op.setMatrix(A, 0.0));
+
+        var alg = new LanczosImplicitRestart_F64(4);
+        assertTrue(alg.process(op));
+
+        double[] expected = denseEigenvalues(A);
+        Arrays.sort(expected);
+        for (int i = 0; i < 4; i++) {
+            double lambda = op.eigenvalue(alg.getEigenvalue(i).real);
+            assertEquals(expected[i], lambda, UtilEjml.TEST_F64*Math.abs(expected[i]));
+            checkEigenVector(A, lambda, alg.getEigenVector(i));
+        }
+    }
+
+    @Test
+    public void notSquare() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(10, 8, 20, rand);
+        var alg = new LanczosImplicitRestart_F64(2);
+        assertThrows(IllegalArgumentException.class, () -> alg.process(A));
+    }
+
+    private void checkSelection( DMatrixSparseCSC A, RitzSelection selection, int numEigen ) {
+        var alg = new LanczosImplicitRestart_F64(numEigen);
+        alg.setSelection(selection);
+        assertTrue(alg.process(A));
+        assertEquals(numEigen, alg.getNumberOfEigenvalues());
+
+        double[] expected = denseEigenvalues(A);
+        sort(expected, selection);
+
+        double scale = Math.abs(expected[0]);
+        for (int i = 0; i < numEigen; i++) {
+            assertEquals(0.0, alg.getEigenvalue(i).imaginary);
+            assertEquals(expected[i], alg.getEigenvalue(i).real, UtilEjml.TEST_F64*scale);
+            checkEigenVector(A, expected[i], alg.getEigenVector(i));
+        }
+    }
+
+    static void checkEigenVector( DMatrixSparseCSC A, double lambda, DMatrixRMaj x ) {
+        assertNotNull(x);
+        assertEquals(1.0, NormOps_DDRM.normF(x), UtilEjml.TEST_F64);
+
+        DMatrixRMaj denseA = DConvertMatrixStruct.convert(A, (DMatrixRMaj)null);
+        DMatrixRMaj Ax = CommonOps_DDRM.mult(denseA, x, null);
+        CommonOps_DDRM.add(Ax, -lambda, x, Ax);
+        assertEquals(0.0, NormOps_DDRM.normF(Ax), UtilEjml.TEST_F64*NormOps_DDRM.normF(denseA));
+    }
+
+    static double[] denseEigenvalues( DMatrixSparseCSC A ) {
+        DMatrixRMaj denseA = DConvertMatrixStruct.convert(A, (DMatrixRMaj)null);
+        EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(false, true);
+        assertTrue(eig.decompose(denseA));
+        double[] values = new double[A.numRows];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = eig.getEigenvalue(i).real;
+        }
+        return values;
+    }
+
+    static void sort( double[] values, RitzSelection selection ) {
+        Double[] boxed = Arrays.stream(values).boxed().toArray(Double[]::new);
+        switch (selection) {
+            case LARGEST_MAGNITUDE: Arrays.sort(boxed, ( a, b ) -> Double.compare(Math.abs(b), Math.abs(a))); break;
+            case SMALLEST_MAGNITUDE: Arrays.sort(boxed, ( a, b ) -> Double.compare(Math.abs(a), Math.abs(b))); break;
+            case LARGEST_REAL: Arrays.sort(boxed, ( a, b ) -> Double.compare(b, a)); break;
+            case SMALLEST_REAL: Arrays.sort(boxed); break;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = boxed[i];
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdLanczos_DSCC {
+    Random rand = new Random(234);
+
+    public SvdLanczos_DSCC createSvd( int targetRank, int numLanczos ) {
+        return new SvdLanczos_DSCC(targetRank, numLanczos, true, true);
+    }
+
+    /**
+     * Compares the singular values against a dense SVD and checks the singular vectors
+     */
+    @Test
+    public void compareToDense() {
+        for (int[] shape : new int[][]{{120, 50}, {50, 120}, {60, 60}}) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(shape[0], shape[1], 600, rand);
+            checkLargest(A, createSvd(6, 0), 6);
+            checkLargest(A, createSvd(3, 8), 3);
+        }
+    }
+
+    /**
+     * The number of Lanczos vectors is limited by the matrix size. No restarts should be needed.
+     */
+    @Test
+    public void small() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(12, 7, 40, rand);
+        SvdLanczos_DSCC alg = createSvd(4, 0);
+        checkLargest(A, alg, 4);
+        assertEquals(0, alg.getNumRestarts());
+
+        // every singular value
+        checkLargest(A, createSvd(10, 0), 7);
+    }
+
+    /**
+     * A matrix with a rank less than the number of requested singular values
+     */
+    @Test
+    public void rankDeficient() {
+        DMatrixRMaj a = RandomMatrices_DDRM.rectangle(60, 3, -1, 1, rand);
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(3, 40, -1, 1, rand);
+        DMatrixRMaj c = new DMatrixRMaj(60, 40);
+        CommonOps_DDRM.mult(a, b, c);
+        DMatrixSparseCSC A = DConvertMatrixStruct.convert(c, (DMatrixSparseCSC)null, 0.0);
+
+        SvdLanczos_DSCC alg = createSvd(5, 0);
+        assertTrue(alg.decompose(A));
+        double[] found = alg.getSingularValues();
+        assertEquals(0.0, found[3], UtilEjml.TEST_F64*found[0]);
+        assertEquals(0.0, found[4], UtilEjml.TEST_F64*found[0]);
+        checkOrthogonal(alg.getDenseU(null, false));
+        checkOrthogonal(alg.getDenseV(null, false));
+    }
+
+    @Test
+    public void zeroMatrix() {
+        DMatrixSparseCSC A = new DMatrixSparseCSC(30, 20, 0);
+        SvdLanczos_DSCC alg = createSvd(3, 0);
+        assertTrue(alg.decompose(A));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0.0, alg.getSingularValues()[i]);
+        }
+    }
+
+    /**
+     * The sparse getters should contain the same values as the dense ones
+     */
+    @Test
+    public void sparseGetters() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(40, 20, 100, rand);
+
+        SvdLanczos_DSCC alg = createSvd(4, 0);
+        assertTrue(alg.decompose(A));
+
+        DMatrixSparseCSC U = alg.getU(null, true);
+        DMatrixSparseCSC V = alg.getV(null, false);
+        DMatrixSparseCSC W = alg.getW(null);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(alg.getDenseU(null, true),
+                DConvertMatrixStruct.convert(U, (DMatrixRMaj)null), 0));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(alg.getDenseV(null, false),
+                DConvertMatrixStruct.convert(V, (DMatrixRMaj)null), 0));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(alg.getDenseW(null),
+                DConvertMatrixStruct.convert(W, (DMatrixRMaj)null), 0));
+    }
+
+    private void checkLargest( DMatrixSparseCSC A, SvdLanczos_DSCC alg, int expectedRank ) {
+        DMatrixRMaj denseA = DConvertMatrixStruct.convert(A, (DMatrixRMaj)null);
+        SingularValueDecomposition_F64<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(true, true, true);
+        assertTrue(svd.decompose(denseA.copy()));
+        double[] expected = svd.getSingularValues().clone();
+        SingularOps_DDRM.descendingOrder(null, false, expected, expected.length, null, false);
+
+        assertTrue(alg.decompose(A));
+        assertEquals(expectedRank, alg.numberOfSingularValues());
+        double[] found = alg.getSingularValues();
+        for (int i = 0; i < expectedRank; i++) {
+            assertEquals(expected[i], found[i], UtilEjml.TEST_F64*expected[0]);
+        }
+
+        // A*V = U*W
+        DMatrixRMaj U = alg.getDenseU(null, false);
+        DMatrixRMaj V = alg.getDenseV(null, false);
+        DMatrixRMaj W = alg.getDenseW(null);
+        checkOrthogonal(U);
+        checkOrthogonal(V);
+
+        DMatrixRMaj AV = new DMatrixRMaj(1, 1);
+        DMatrixRMaj UW = new DMatrixRMaj(1, 1);
+        CommonOps_DDRM.mult(denseA, V, AV);
+        CommonOps_DDRM.mult(U, W, UW);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(AV, UW, UtilEjml.TEST_F64*expected[0]));
+    }
+
+    private void checkOrthogonal( DMatrixRMaj Q ) {
+        DMatrixRMaj QtQ = new DMatrixRMaj(1, 1);
+        CommonOps_DDRM.multTransA(Q, Q, QtQ);
+        assertTrue(MatrixFeatures_DDRM.isIdentity(QtQ, UtilEjml.TEST_F64));
+    }
+}
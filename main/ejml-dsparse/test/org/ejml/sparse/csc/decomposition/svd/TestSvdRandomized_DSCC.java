@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdRandomized_DDRM;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdRandomized_DSCC {
+    Random rand = new Random(234);
+
+    public SvdRandomized_DSCC createSvd( int targetRank, int oversample, int powerIterations ) {
+        return new SvdRandomized_DSCC(targetRank, oversample, powerIterations, true, true);
+    }
+
+    /**
+     * The same random samples are used, so it should produce the same results as the dense implementation
+     */
+    @Test
+    public void compareToDense() {
+        for (boolean center : new boolean[]{false, true}) {
+            for (int[] shape : new int[][]{{80, 30}, {30, 80}}) {
+                DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(shape[0], shape[1], 300, rand);
+                DMatrixRMaj denseA = DConvertMatrixStruct.convert(A, (DMatrixRMaj)null);
+
+                SvdRandomized_DSCC sparse = createSvd(5, 5, 1);
+                var dense = new SvdRandomized_DDRM(5, 5, 1, true, true);
+                sparse.setCenterColumns(center);
+                dense.setCenterColumns(center);
+
+                assertTrue(sparse.decompose(A));
+                assertTrue(dense.decompose(denseA));
+
+                assertEquals(5, sparse.numberOfSingularValues());
+                for (int i = 0; i < 5; i++) {
+                    assertEquals(dense.getSingularValues()[i], sparse.getSingularValues()[i], UtilEjml.TEST_F64);
+                }
+                assertTrue(MatrixFeatures_DDRM.isIdentical(
+                        dense.getU(null, false), sparse.getDenseU(null, false), UtilEjml.TEST_F64));
+                assertTrue(MatrixFeatures_DDRM.isIdentical(
+                        dense.getV(null, true), sparse.getDenseV(null, true), UtilEjml.TEST_F64));
+            }
+        }
+    }
+
+    /**
+     * The sparse getters should contain the same values as the dense ones
+     */
+    @Test
+    public void sparseGetters() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(40, 20, 100, rand);
+
+        SvdRandomized_DSCC alg = createSvd(4, 3, 1);
+        assertTrue(alg.decompose(A));
+
+        DMatrixSparseCSC U = alg.getU(null, true);
+        DMatrixSparseCSC V = alg.getV(null, false);
+        DMatrixSparseCSC W = alg.getW(null);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(alg.getDenseU(null, true),
+                DConvertMatrixStruct.convert(U, (DMatrixRMaj)null), 0));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(alg.getDenseV(null, false),
+                DConvertMatrixStruct.convert(V, (DMatrixRMaj)null), 0));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(alg.getDenseW(null),
+                DConvertMatrixStruct.convert(W, (DMatrixRMaj)null), 0));
+    }
+}
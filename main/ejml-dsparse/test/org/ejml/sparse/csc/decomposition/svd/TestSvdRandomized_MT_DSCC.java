@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdRandomized_MT_DSCC {
+    Random rand = new Random(234);
+
+    @Test
+    public void compareToSingle() {
+        for (int[] shape : new int[][]{{200, 40}, {40, 200}}) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(shape[0], shape[1], 900, rand);
+
+            var single = new SvdRandomized_DSCC(10, 5, 2, true, true);
+            var concurrent = new SvdRandomized_MT_DSCC(10, 5, 2, true, true);
+            single.setCenterColumns(true);
+            concurrent.setCenterColumns(true);
+
+            assertTrue(single.decompose(A));
+            assertTrue(concurrent.decompose(A));
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(single.getSingularValues()[i], concurrent.getSingularValues()[i], UtilEjml.TEST_F64);
+            }
+            assertTrue(MatrixFeatures_DDRM.isIdentical(
+                    single.getDenseU(null, false), concurrent.getDenseU(null, false), UtilEjml.TEST_F64));
+            assertTrue(MatrixFeatures_DDRM.isIdentical(
+                    single.getDenseV(null, false), concurrent.getDenseV(null, false), UtilEjml.TEST_F64));
+        }
+    }
+}
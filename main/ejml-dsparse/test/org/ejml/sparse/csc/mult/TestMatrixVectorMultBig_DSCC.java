@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseCSCBig;
+import org.ejml.masks.DMaskFactory;
+import org.ejml.masks.Mask;
+import org.ejml.ops.DSemiRing;
+import org.ejml.ops.DSemiRings;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Compares results against the regular sparse implementation. A small chunk size is used so that columns
+ * straddle chunk boundaries.
+ *
+ * @author Peter Abeles
+ */
+public class TestMatrixVectorMultBig_DSCC {
+    Random rand = new Random(234);
+
+    DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(9, 7, 40, rand);
+    DMatrixSparseCSCBig B = createBig(A);
+
+    private static DMatrixSparseCSCBig createBig( DMatrixSparseCSC A ) {
+        var B = new DMatrixSparseCSCBig(1, 1, 0, 2);
+        B.setTo(A);
+        return B;
+    }
+
+    @Test
+    public void mult_A_v() {
+        double[] v = randomArray(A.numCols + 2);
+        double[] expected = new double[A.numRows + 1];
+        double[] found = new double[A.numRows + 1];
+
+        MatrixVectorMult_DSCC.mult(A, v, 2, expected, 1);
+        MatrixVectorMultBig_DSCC.mult(B, v, 2, found, 1);
+
+        assertArrayEquals(expected, found, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void multAdd_A_v() {
+        double[] v = randomArray(A.numCols + 2);
+        double[] expected = randomArray(A.numRows + 1);
+        double[] found = expected.clone();
+
+        MatrixVectorMult_DSCC.multAdd(A, v, 2, expected, 1);
+        MatrixVectorMultBig_DSCC.multAdd(B, v, 2, found, 1);
+
+        assertArrayEquals(expected, found, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void mult_v_A() {
+        double[] v = randomArray(A.numRows + 2);
+        double[] expected = new double[A.numCols + 1];
+        double[] found = new double[A.numCols + 1];
+
+        MatrixVectorMult_DSCC.mult(v, 2, A, expected, 1);
+        MatrixVectorMultBig_DSCC.mult(v, 2, B, found, 1);
+
+        assertArrayEquals(expected, found, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void mult_A_v_semiring() {
+        double[] v = randomArray(A.numCols);
+        for (DSemiRing semiRing : new DSemiRing[]{DSemiRings.PLUS_TIMES, DSemiRings.MIN_PLUS, DSemiRings.OR_AND}) {
+            for (Mask mask : new Mask[]{null, DMaskFactory.builder(randomArray(A.numRows)).withNegated(true).build()}) {
+                double[] expected = new double[A.numRows];
+                double[] found = new double[A.numRows];
+
+                MatrixVectorMultWithSemiRing_DSCC.mult(A, v, expected, semiRing, mask);
+                MatrixVectorMultBig_DSCC.mult(B, v, found, semiRing, mask);
+
+                assertArrayEquals(expected, found, UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void mult_v_A_semiring() {
+        double[] v = randomArray(A.numRows);
+        for (DSemiRing semiRing : new DSemiRing[]{DSemiRings.PLUS_TIMES, DSemiRings.MIN_PLUS, DSemiRings.OR_AND}) {
+            for (Mask mask : new Mask[]{null, DMaskFactory.builder(randomArray(A.numCols)).withNegated(true).build()}) {
+                double[] expected = new double[A.numCols];
+                double[] found = new double[A.numCols];
+
+                MatrixVectorMultWithSemiRing_DSCC.mult(v, A, expected, semiRing, mask);
+                MatrixVectorMultBig_DSCC.mult(v, B, found, semiRing, mask);
+
+                assertArrayEquals(expected, found, UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    private double[] randomArray( int length ) {
+        double[] v = new double[length];
+        for (int i = 0; i < length; i++) {
+            // sometimes zero so that masks have unset elements
+            v[i] = rand.nextInt(4) == 0 ? 0 : rand.nextDouble();
+        }
+        return v;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixVectorMult_MT_DSCC {
+    Random rand = new Random(234);
+
+    @Test
+    public void mult_v_A() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(300, 500, 4000, rand);
+
+        double[] v = new double[302];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = rand.nextDouble();
+        }
+        double[] expected = new double[501];
+        double[] found = new double[501];
+
+        MatrixVectorMult_DSCC.mult(v, 2, A, expected, 1);
+        MatrixVectorMult_MT_DSCC.mult(v, 2, A, found, 1);
+
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], found[i]);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.simd.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.ejml.simd.ArrayKernels_F64;
+
+/**
+ * <p>
+ * Implementation of {@link ArrayKernels_F64} which uses the JDK's Vector API (jdk.incubator.vector) to explicitly
+ * use SIMD instructions. The preferred vector size of the hardware is used. Elements which don't fill an entire
+ * vector are processed with scalar code.
+ * </p>
+ *
+ * <p>
+ * The JVM must be started with "--add-modules jdk.incubator.vector", otherwise this class can't be loaded and
+ * {@link org.ejml.simd.EjmlSimd} will fall back to the scalar implementation.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VectorKernels_F64 extends ArrayKernels_F64 {
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    static final int LANES = SPECIES.length();
+
+    @Override
+    public String getName() {
+        return "vector" + SPECIES.vectorBitSize();
+    }
+
+    /**
+     * With fewer than 4 lanes the JIT's auto-vectorized scalar code is just as fast
+     */
+    @Override
+    public boolean isSupported() {
+        return LANES >= 4;
+    }
+
+    @Override
+    public double dot( double[] x, int offsetX, double[] y, int offsetY, int length ) {
+        final int end = SPECIES.loopBound(length);
+        var sum0 = DoubleVector.zero(SPECIES);
+        var sum1 = DoubleVector.zero(SPECIES);
+
+        // two accumulators hide the latency of the fused multiply add
+        int i = 0;
+        for (; i + LANES < end; i += 2*LANES) {
+            var x0 = DoubleVector.fromArray(SPECIES, x, offsetX + i);
+            var y0 = DoubleVector.fromArray(SPECIES, y, offsetY + i);
+            var x1 = DoubleVector.fromArray(SPECIES, x, offsetX + i + LANES);
+            var y1 = DoubleVector.fromArray(SPECIES, y, offsetY + i + LANES);
+            sum0 = x0.fma(y0, sum0);
+            sum1 = x1.fma(y1, sum1);
+        }
+        for (; i < end; i += LANES) {
+            var x0 = DoubleVector.fromArray(SPECIES, x, offsetX + i);
+            var y0 = DoubleVector.fromArray(SPECIES, y, offsetY + i);
+            sum0 = x0.fma(y0, sum0);
+        }
+        double sum = sum0.add(sum1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += x[offsetX + i]*y[offsetY + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy( double alpha, double[] x, int offsetX, double[] y, int offsetY, int length ) {
+        final int end = SPECIES.loopBound(length);
+        final var va = DoubleVector.broadcast(SPECIES, alpha);
+        int i = 0;
+        for (; i < end; i += LANES) {
+            var vx = DoubleVector.fromArray(SPECIES, x, offsetX + i);
+            var vy = DoubleVector.fromArray(SPECIES, y, offsetY + i);
+            vx.fma(va, vy).intoArray(y, offsetY + i);
+        }
+        for (; i < length; i++) {
+            y[offsetY + i] += alpha*x[offsetX + i];
+        }
+    }
+
+    @Override
+    public void scale( double alpha, double[] x, int offsetX, double[] y, int offsetY, int length ) {
+        final int end = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < end; i += LANES) {
+            DoubleVector.fromArray(SPECIES, x, offsetX + i).mul(alpha).intoArray(y, offsetY + i);
+        }
+        for (; i < length; i++) {
+            y[offsetY + i] = alpha*x[offsetX + i];
+        }
+    }
+
+    @Override
+    public double dotGather( double[] values, int[] indices, int start, int end, double[] x, int offsetX ) {
+        final int bound = start + SPECIES.loopBound(end - start);
+        var sum0 = DoubleVector.zero(SPECIES);
+        int i = start;
+        for (; i < bound; i += LANES) {
+            var v = DoubleVector.fromArray(SPECIES, values, i);
+            var g = DoubleVector.fromArray(SPECIES, x, offsetX, indices, i);
+            sum0 = v.fma(g, sum0);
+        }
+        double sum = sum0.reduceLanes(VectorOperators.ADD);
+        for (; i < end; i++) {
+            sum += values[i]*x[offsetX + indices[i]];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpyScatter( double alpha, double[] values, int[] indices, int start, int end,
+                             double[] y, int offsetY ) {
+        final int bound = start + SPECIES.loopBound(end - start);
+        final var va = DoubleVector.broadcast(SPECIES, alpha);
+        int i = start;
+        for (; i < bound; i += LANES) {
+            var v = DoubleVector.fromArray(SPECIES, values, i);
+            var g = DoubleVector.fromArray(SPECIES, y, offsetY, indices, i);
+            v.fma(va, g).intoArray(y, offsetY, indices, i);
+        }
+        for (; i < end; i++) {
+            y[offsetY + indices[i]] += alpha*values[i];
+        }
+    }
+
+    @Override
+    public void gemmKernel4x8( int kc, double[] a, int indexA, double[] b, int indexB, double[] tile, int indexTile ) {
+        if (LANES == 8) {
+            gemmKernel4x8_512(kc, a, indexA, b, indexB, tile, indexTile);
+        } else if (LANES == 4) {
+            gemmKernel4x8_256(kc, a, indexA, b, indexB, tile, indexTile);
+        } else {
+            super.gemmKernel4x8(kc, a, indexA, b, indexB, tile, indexTile);
+        }
+    }
+
+    /**
+     * Each row in the tile is a single vector
+     */
+    static void gemmKernel4x8_512( int kc, double[] a, int indexA, double[] b, int indexB, double[] tile, int indexTile ) {
+        var c0 = DoubleVector.zero(SPECIES);
+        var c1 = DoubleVector.zero(SPECIES);
+        var c2 = DoubleVector.zero(SPECIES);
+        var c3 = DoubleVector.zero(SPECIES);
+
+        for (int p = 0; p < kc; p++) {
+            var vb = DoubleVector.fromArray(SPECIES, b, indexB);
+            c0 = vb.fma(DoubleVector.broadcast(SPECIES, a[indexA]), c0);
+            c1 = vb.fma(DoubleVector.broadcast(SPECIES, a[indexA + 1]), c1);
+            c2 = vb.fma(DoubleVector.broadcast(SPECIES, a[indexA + 2]), c2);
+            c3 = vb.fma(DoubleVector.broadcast(SPECIES, a[indexA + 3]), c3);
+            indexA += 4;
+            indexB += 8;
+        }
+
+        c0.intoArray(tile, indexTile);
+        c1.intoArray(tile, indexTile + 8);
+        c2.intoArray(tile, indexTile + 16);
+        c3.intoArray(tile, indexTile + 24);
+    }
+
+    /**
+     * Each row in the tile is split across two vectors
+     */
+    static void gemmKernel4x8_256( int kc, double[] a, int indexA, double[] b, int indexB, double[] tile, int indexTile ) {
+        var c00 = DoubleVector.zero(SPECIES);
+        var c01 = DoubleVector.zero(SPECIES);
+        var c10 = DoubleVector.zero(SPECIES);
+        var c11 = DoubleVector.zero(SPECIES);
+        var c20 = DoubleVector.zero(SPECIES);
+        var c21 = DoubleVector.zero(SPECIES);
+        var c30 = DoubleVector.zero(SPECIES);
+        var c31 = DoubleVector.zero(SPECIES);
+
+        for (int p = 0; p < kc; p++) {
+            var b0 = DoubleVector.fromArray(SPECIES, b, indexB);
+            var b1 = DoubleVector.fromArray(SPECIES, b, indexB + 4);
+            var a0 = DoubleVector.broadcast(SPECIES, a[indexA]);
+            var a1 = DoubleVector.broadcast(SPECIES, a[indexA + 1]);
+            var a2 = DoubleVector.broadcast(SPECIES, a[indexA + 2]);
+            var a3 = DoubleVector.broadcast(SPECIES, a[indexA + 3]);
+            c00 = b0.fma(a0, c00); c01 = b1.fma(a0, c01);
+            c10 = b0.fma(a1, c10); c11 = b1.fma(a1, c11);
+            c20 = b0.fma(a2, c20); c21 = b1.fma(a2, c21);
+            c30 = b0.fma(a3, c30); c31 = b1.fma(a3, c31);
+            indexA += 4;
+            indexB += 8;
+        }
+
+        c00.intoArray(tile, indexTile);
+        c01.intoArray(tile, indexTile + 4);
+        c10.intoArray(tile, indexTile + 8);
+        c11.intoArray(tile, indexTile + 12);
+        c20.intoArray(tile, indexTile + 16);
+        c21.intoArray(tile, indexTile + 20);
+        c30.intoArray(tile, indexTile + 24);
+        c31.intoArray(tile, indexTile + 28);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ejml.simd.vector;
+
+import org.ejml.simd.ArrayKernels_F64;
+import org.ejml.simd.EjmlSimd;
+import org.ejml.simd.GenericArrayKernelsChecks_F64;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TestVectorKernels_F64 extends GenericArrayKernelsChecks_F64 {
+    @Override public ArrayKernels_F64 createKernels() {
+        return new VectorKernels_F64();
+    }
+
+    /**
+     * The service loader should find these kernels when they're on the class path
+     */
+    @Test
+    void discoveredByEjmlSimd() {
+        if (new VectorKernels_F64().isSupported())
+            assertSame(VectorKernels_F64.class, EjmlSimd.KERNELS_F64.getClass());
+        else
+            assertSame(ArrayKernels_F64.class, EjmlSimd.KERNELS_F64.getClass());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.mixed;
+
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.dense.row.factory.LinearSolverFactory_FDRM;
+
+/**
+ * Factory for mixed precision linear solvers, which factor the matrix in single precision and refine the
+ * solution in double precision. They are only faster than the double precision solvers when the matrix is
+ * well conditioned and large enough for the factorization to dominate.
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverFactoryMixed_DDRM {
+    /**
+     * Creates a mixed precision solver for general square systems using LU decomposition
+     *
+     * @param numRows The number of rows that the decomposition is optimized for.
+     */
+    public static LinearSolverMixed_DDRM lu( int numRows ) {
+        return new LinearSolverMixed_DDRM(LinearSolverFactory_FDRM.lu(numRows), LinearSolverFactory_DDRM.lu(numRows));
+    }
+
+    /**
+     * Creates a mixed precision solver for symmetric positive definite systems using Cholesky decomposition
+     *
+     * @param numRows The number of rows that the decomposition is optimized for.
+     */
+    public static LinearSolverMixed_DDRM chol( int numRows ) {
+        return new LinearSolverMixed_DDRM(LinearSolverFactory_FDRM.chol(numRows), LinearSolverFactory_DDRM.chol(numRows));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.mixed;
+
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_FSCC;
+
+/**
+ * Factory for mixed precision sparse linear solvers, which factor the matrix in single precision and refine
+ * the solution in double precision.
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverFactoryMixed_DSCC {
+    public static LinearSolverMixed_DSCC cholesky( FillReducing permutation ) {
+        return new LinearSolverMixed_DSCC(LinearSolverFactory_FSCC.cholesky(permutation),
+                LinearSolverFactory_DSCC.cholesky(permutation));
+    }
+
+    public static LinearSolverMixed_DSCC lu( FillReducing permutation ) {
+        return new LinearSolverMixed_DSCC(LinearSolverFactory_FSCC.lu(permutation),
+                LinearSolverFactory_DSCC.lu(permutation));
+    }
+}
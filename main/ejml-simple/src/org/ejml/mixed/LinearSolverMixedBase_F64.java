@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.mixed;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.FMatrixRMaj;
+import org.ejml.data.Matrix;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+import org.ejml.interfaces.linsol.LinearSolver;
+import org.ejml.ops.ConvertMatrixData;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Mixed precision linear solver. The matrix is factored in single precision, which requires half the memory
+ * bandwidth of double precision, and the solution is then improved with iterative refinement in double
+ * precision until it's as accurate as the solution from a double precision solver:
+ * </p>
+ *
+ * <pre>
+ * x = A<sub>32</sub><sup>-1</sup>*b
+ * repeat
+ *     r = b - A*x   (double)
+ *     x = x + A<sub>32</sub><sup>-1</sup>*r
+ * </pre>
+ *
+ * <p>
+ * Refinement stops once the residual of every column is less than |x|*|A|*sqrt(n)*EPS, using infinity norms.
+ * If the matrix can't be represented in single precision, the single precision factorization fails, or the
+ * refinement doesn't converge after {@link #getMaxIterations()} iterations, then the double precision solver is
+ * used instead. This happens when the matrix is too poorly conditioned for single precision. The double
+ * precision factorization is only computed the first time it's needed after {@link #setA}.
+ * </p>
+ *
+ * <p>
+ * A reference to A is saved by {@link #setA} since it's needed to compute the residual. It must not be modified
+ * until the solver is done with it.
+ * </p>
+ *
+ * <p>
+ * A. Buttari, J. Dongarra, J. Langou, J. Langou, P. Luszczek, and J. Kurzak, "Mixed Precision Iterative
+ * Refinement Techniques for the Solution of Dense Linear Systems" International Journal of High Performance
+ * Computing Applications, 2007
+ * </p>
+ *
+ * @param <S> Matrix type of A in double precision
+ * @param <S32> Matrix type of A in single precision
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public abstract class LinearSolverMixedBase_F64<S extends Matrix, S32 extends Matrix>
+        implements LinearSolver<S, DMatrixRMaj> {
+    // Solver for the single precision copy of A
+    protected final LinearSolver<S32, FMatrixRMaj> solver32;
+    // Solver which is used if single precision isn't good enough
+    protected final LinearSolver<S, DMatrixRMaj> fallback;
+
+    protected int maxIterations = 30;
+
+    // Matrix being solved and its single precision copy
+    protected S A;
+    protected final S32 A32;
+    // Infinity norm of A
+    protected double normA;
+
+    // true if the single precision factorization can be used
+    protected boolean valid32;
+    // true if the fallback solver has processed A
+    protected boolean fallbackReady;
+    protected boolean fallbackSuccess;
+
+    // Information on the most recent call to solve
+    protected int numIterations;
+    protected boolean usedFallback;
+
+    // workspace
+    protected final FMatrixRMaj B32 = new FMatrixRMaj(1, 1);
+    protected final FMatrixRMaj X32 = new FMatrixRMaj(1, 1);
+    protected final DMatrixRMaj R = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj AX = new DMatrixRMaj(1, 1);
+    protected @Nullable S copyA;
+    protected @Nullable DMatrixRMaj copyB;
+
+    protected LinearSolverMixedBase_F64( LinearSolver<S32, FMatrixRMaj> solver32,
+                                         LinearSolver<S, DMatrixRMaj> fallback, S32 A32 ) {
+        this.solver32 = solver32;
+        this.fallback = fallback;
+        this.A32 = A32;
+    }
+
+    @Override
+    public boolean setA( S A ) {
+        this.A = A;
+        fallbackReady = false;
+        valid32 = false;
+
+        // Single precision would overflow
+        if (elementMaxAbs(A) > Float.MAX_VALUE)
+            return setupFallback();
+
+        normA = normInf(A);
+        if (UtilEjml.isUncountable(normA))
+            return setupFallback();
+
+        convertTo32(A, A32);
+        valid32 = solver32.setA(A32);
+        if (!valid32)
+            return setupFallback();
+        return true;
+    }
+
+    /**
+     * Computes the factorization with the fallback solver if it hasn't already been done
+     */
+    protected boolean setupFallback() {
+        if (fallbackReady)
+            return fallbackSuccess;
+        fallbackReady = true;
+        if (fallback.modifiesA()) {
+            if (copyA == null)
+                copyA = A.createLike();
+            copyA.setTo(A);
+            fallbackSuccess = fallback.setA(copyA);
+        } else {
+            fallbackSuccess = fallback.setA(A);
+        }
+        return fallbackSuccess;
+    }
+
+    @Override
+    public double quality() {
+        return valid32 ? solver32.quality() : fallback.quality();
+    }
+
+    /**
+     * Solves for X in A*X=B.
+     *
+     * @param B Input. Not modified.
+     * @param X Output. Can't be the same instance as B.
+     */
+    @Override
+    public void solve( DMatrixRMaj B, DMatrixRMaj X ) {
+        if (B == X)
+            throw new IllegalArgumentException("B and X can't be the same instance");
+        if (B.numRows != A.getNumRows())
+            throw new IllegalArgumentException("Unexpected number of rows in B");
+
+        X.reshape(A.getNumCols(), B.numCols);
+        numIterations = 0;
+        usedFallback = false;
+
+        if (valid32 && CommonOps_DDRM.elementMaxAbs(B) <= Float.MAX_VALUE && refine(B, X))
+            return;
+
+        usedFallback = true;
+        setupFallback();
+        if (fallback.modifiesB()) {
+            copyB = UtilEjml.reshapeOrDeclare(copyB, B);
+            copyB.setTo(B);
+            B = copyB;
+        }
+        fallback.solve(B, X);
+    }
+
+    /**
+     * Computes the initial solution in single precision then refines it
+     *
+     * @return true if it converged
+     */
+    protected boolean refine( DMatrixRMaj B, DMatrixRMaj X ) {
+        B32.reshape(B.numRows, B.numCols);
+        ConvertMatrixData.convert(B, B32);
+        solver32.solve(B32, X32);
+        ConvertMatrixData.convert(X32, X);
+
+        double tol = normA*Math.sqrt(A.getNumCols())*UtilEjml.EPS;
+
+        while (true) {
+            multA(A, X, AX);
+            CommonOps_DDRM.subtract(B, AX, R);
+            if (isConverged(R, X, tol))
+                return true;
+            if (numIterations >= maxIterations)
+                return false;
+            numIterations++;
+
+            // scale the residual so that small values don't underflow in single precision
+            double scale = CommonOps_DDRM.elementMaxAbs(R);
+            if (UtilEjml.isUncountable(scale))
+                return false;
+            for (int i = 0; i < R.getNumElements(); i++) {
+                B32.data[i] = (float)(R.data[i]/scale);
+            }
+            solver32.solve(B32, X32);
+            for (int i = 0; i < X.getNumElements(); i++) {
+                X.data[i] += scale*X32.data[i];
+            }
+        }
+    }
+
+    /**
+     * Checks to see if |r|&le;|x|*tol for every column, using infinity norms
+     */
+    protected boolean isConverged( DMatrixRMaj R, DMatrixRMaj X, double tol ) {
+        for (int col = 0; col < R.numCols; col++) {
+            double normR = 0;
+            for (int row = 0; row < R.numRows; row++) {
+                normR = Math.max(normR, Math.abs(R.data[row*R.numCols + col]));
+            }
+            double normX = 0;
+            for (int row = 0; row < X.numRows; row++) {
+                normX = Math.max(normX, Math.abs(X.data[row*X.numCols + col]));
+            }
+            // the negation also catches NaN
+            if (!(normR <= normX*tol))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies A into a single precision matrix
+     */
+    protected abstract void convertTo32( S A, S32 A32 );
+
+    /**
+     * AX = A*X
+     */
+    protected abstract void multA( S A, DMatrixRMaj X, DMatrixRMaj AX );
+
+    /**
+     * Returns the largest absolute value of an element in A
+     */
+    protected abstract double elementMaxAbs( S A );
+
+    /**
+     * Returns the induced infinity norm of A, i.e. maximum absolute row sum
+     */
+    protected abstract double normInf( S A );
+
+    @Override
+    public boolean modifiesA() {
+        return false;
+    }
+
+    @Override
+    public boolean modifiesB() {
+        return false;
+    }
+
+    /**
+     * Returns the decomposition of the fallback solver if it was computed, otherwise the single precision one
+     */
+    @Override
+    public DecompositionInterface<?> getDecomposition() {
+        return valid32 ? solver32.getDecomposition() : fallback.getDecomposition();
+    }
+
+    /**
+     * Maximum number of refinement iterations before it gives up and uses the fallback solver
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations( int maxIterations ) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Number of refinement iterations in the most recent call to solve
+     */
+    public int getNumIterations() {
+        return numIterations;
+    }
+
+    /**
+     * Returns true if the most recent call to solve used the double precision fallback solver
+     */
+    public boolean isUsedFallback() {
+        return usedFallback;
+    }
+
+    public LinearSolver<S32, FMatrixRMaj> getSolver32() {
+        return solver32;
+    }
+
+    public LinearSolver<S, DMatrixRMaj> getFallback() {
+        return fallback;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.mixed;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.FMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+import org.ejml.ops.ConvertMatrixData;
+
+/**
+ * Mixed precision solver for dense matrices. See {@link LinearSolverMixedBase_F64} for the algorithm.
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverMixed_DDRM extends LinearSolverMixedBase_F64<DMatrixRMaj, FMatrixRMaj>
+        implements LinearSolverDense<DMatrixRMaj> {
+
+    // identity matrix used to compute the inverse
+    protected final DMatrixRMaj I = new DMatrixRMaj(1, 1);
+
+    /**
+     * @param solver32 Solver used to factor the single precision copy of A. Typically LU or Cholesky.
+     * @param fallback Solver used when single precision isn't good enough. Should be the same type as solver32.
+     */
+    public LinearSolverMixed_DDRM( LinearSolverDense<FMatrixRMaj> solver32, LinearSolverDense<DMatrixRMaj> fallback ) {
+        super(solver32, fallback, new FMatrixRMaj(1, 1));
+    }
+
+    @Override
+    protected void convertTo32( DMatrixRMaj A, FMatrixRMaj A32 ) {
+        A32.reshape(A.numRows, A.numCols);
+        ConvertMatrixData.convert(A, A32);
+    }
+
+    @Override
+    protected void multA( DMatrixRMaj A, DMatrixRMaj X, DMatrixRMaj AX ) {
+        CommonOps_DDRM.mult(A, X, AX);
+    }
+
+    @Override
+    protected double elementMaxAbs( DMatrixRMaj A ) {
+        return CommonOps_DDRM.elementMaxAbs(A);
+    }
+
+    @Override
+    protected double normInf( DMatrixRMaj A ) {
+        return NormOps_DDRM.inducedPInf(A);
+    }
+
+    @Override
+    public void invert( DMatrixRMaj A_inv ) {
+        if (A.numRows != A.numCols)
+            throw new IllegalArgumentException("A must be square");
+        I.reshape(A.numRows, A.numCols);
+        CommonOps_DDRM.setIdentity(I);
+        solve(I, A_inv);
+    }
+}
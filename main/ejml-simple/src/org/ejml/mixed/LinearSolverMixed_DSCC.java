@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.mixed;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.FMatrixRMaj;
+import org.ejml.data.FMatrixSparseCSC;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
+import org.ejml.ops.ConvertMatrixData;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * Mixed precision solver for sparse matrices. The matrix is factored as a {@link FMatrixSparseCSC}. See
+ * {@link LinearSolverMixedBase_F64} for the algorithm.
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverMixed_DSCC extends LinearSolverMixedBase_F64<DMatrixSparseCSC, FMatrixSparseCSC>
+        implements LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> {
+
+    protected final LinearSolverSparse<FMatrixSparseCSC, FMatrixRMaj> sparse32;
+    protected final LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> sparseFallback;
+
+    // workspace
+    protected double[] rowSums = new double[0];
+    protected final DMatrixRMaj denseB = new DMatrixRMaj(1, 1);
+    protected final DMatrixRMaj denseX = new DMatrixRMaj(1, 1);
+
+    /**
+     * @param solver32 Solver used to factor the single precision copy of A. Typically LU or Cholesky.
+     * @param fallback Solver used when single precision isn't good enough. Should be the same type as solver32.
+     */
+    public LinearSolverMixed_DSCC( LinearSolverSparse<FMatrixSparseCSC, FMatrixRMaj> solver32,
+                                   LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> fallback ) {
+        super(solver32, fallback, new FMatrixSparseCSC(1, 1, 0));
+        this.sparse32 = solver32;
+        this.sparseFallback = fallback;
+    }
+
+    @Override
+    protected void convertTo32( DMatrixSparseCSC A, FMatrixSparseCSC A32 ) {
+        ConvertMatrixData.convert(A, A32);
+    }
+
+    @Override
+    protected void multA( DMatrixSparseCSC A, DMatrixRMaj X, DMatrixRMaj AX ) {
+        CommonOps_DSCC.mult(A, X, AX);
+    }
+
+    @Override
+    protected double elementMaxAbs( DMatrixSparseCSC A ) {
+        return CommonOps_DSCC.elementMaxAbs(A);
+    }
+
+    @Override
+    protected double normInf( DMatrixSparseCSC A ) {
+        if (rowSums.length < A.numRows)
+            rowSums = new double[A.numRows];
+        Arrays.fill(rowSums, 0, A.numRows, 0.0);
+        for (int i = 0; i < A.nz_length; i++) {
+            rowSums[A.nz_rows[i]] += Math.abs(A.nz_values[i]);
+        }
+        double max = 0;
+        for (int row = 0; row < A.numRows; row++) {
+            max = Math.max(max, rowSums[row]);
+        }
+        return max;
+    }
+
+    /**
+     * Solves against a sparse B by converting it into a dense matrix. The solution is converted back
+     * into a sparse matrix.
+     */
+    @Override
+    public void solveSparse( DMatrixSparseCSC B, DMatrixSparseCSC X ) {
+        DConvertMatrixStruct.convert(B, denseB);
+        solve(denseB, denseX);
+        DConvertMatrixStruct.convert(denseX, X, 0.0);
+    }
+
+    @Override
+    public void setStructureLocked( boolean locked ) {
+        sparse32.setStructureLocked(locked);
+        sparseFallback.setStructureLocked(locked);
+    }
+
+    @Override
+    public boolean isStructureLocked() {
+        return sparse32.isStructureLocked();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.mixed;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearSolverMixed_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * A well conditioned system should be solved to double precision accuracy without the fallback
+     */
+    @Test
+    public void wellConditioned_lu() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(40, 40, -1, 1, rand);
+        checkAccuracy(A, LinearSolverFactoryMixed_DDRM.lu(40), LinearSolverFactory_DDRM.lu(40), false);
+    }
+
+    @Test
+    public void wellConditioned_chol() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(40, rand);
+        checkAccuracy(A, LinearSolverFactoryMixed_DDRM.chol(40), LinearSolverFactory_DDRM.chol(40), false);
+    }
+
+    /**
+     * Single precision can't handle this condition number, so it should switch to double precision
+     */
+    @Test
+    public void illConditioned() {
+        double[] sv = new double[30];
+        for (int i = 0; i < sv.length; i++) {
+            sv[i] = Math.pow(10, -12.0*i/(sv.length - 1));
+        }
+        DMatrixRMaj A = RandomMatrices_DDRM.singular(30, 30, rand, sv);
+        checkAccuracy(A, LinearSolverFactoryMixed_DDRM.lu(30), LinearSolverFactory_DDRM.lu(30), true);
+    }
+
+    /**
+     * Elements which are too large for a float
+     */
+    @Test
+    public void overflow() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(10, 10, -1, 1, rand);
+        CommonOps_DDRM.scale(1e300, A);
+        checkAccuracy(A, LinearSolverFactoryMixed_DDRM.lu(10), LinearSolverFactory_DDRM.lu(10), true);
+    }
+
+    @Test
+    public void invert() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(20, 20, -1, 1, rand);
+        LinearSolverMixed_DDRM alg = LinearSolverFactoryMixed_DDRM.lu(20);
+        assertTrue(alg.setA(A));
+
+        DMatrixRMaj A_inv = new DMatrixRMaj(1, 1);
+        alg.invert(A_inv);
+
+        DMatrixRMaj found = new DMatrixRMaj(1, 1);
+        CommonOps_DDRM.mult(A, A_inv, found);
+        assertTrue(MatrixFeatures_DDRM.isIdentity(found, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * The inputs should not be modified
+     */
+    @Test
+    public void inputsNotModified() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(20, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(20, 3, -1, 1, rand);
+        DMatrixRMaj A_orig = A.copy();
+        DMatrixRMaj B_orig = B.copy();
+
+        LinearSolverMixed_DDRM alg = LinearSolverFactoryMixed_DDRM.chol(20);
+        alg.setMaxIterations(0);
+        assertTrue(alg.setA(A));
+        alg.solve(B, new DMatrixRMaj(1, 1));
+
+        // the fallback was forced to run and Cholesky modifies its input
+        assertTrue(alg.isUsedFallback());
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A_orig, A, 0.0));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(B_orig, B, 0.0));
+    }
+
+    private void checkAccuracy( DMatrixRMaj A, LinearSolverMixed_DDRM alg, LinearSolverDense<DMatrixRMaj> solver64,
+                                boolean expectedFallback ) {
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(A.numRows, 3, -1, 1, rand);
+
+        DMatrixRMaj expected = new DMatrixRMaj(1, 1);
+        assertTrue(solver64.setA(A.copy()));
+        solver64.solve(B.copy(), expected);
+
+        DMatrixRMaj found = new DMatrixRMaj(1, 1);
+        assertTrue(alg.setA(A));
+        alg.solve(B, found);
+
+        assertEquals(expectedFallback, alg.isUsedFallback());
+        if (!expectedFallback)
+            assertTrue(alg.getNumIterations() > 0);
+
+        double tol = UtilEjml.TEST_F64*CommonOps_DDRM.elementMaxAbs(expected);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, tol));
+
+        // the residual should be as small as with the double precision solver
+        DMatrixRMaj AX = new DMatrixRMaj(1, 1);
+        CommonOps_DDRM.mult(A, found, AX);
+        double errorMixed = maxDiff(AX, B);
+        CommonOps_DDRM.mult(A, expected, AX);
+        double error64 = maxDiff(AX, B);
+        assertTrue(errorMixed <= 10*error64 + UtilEjml.EPS*CommonOps_DDRM.elementMaxAbs(A));
+    }
+
+    private static double maxDiff( DMatrixRMaj a, DMatrixRMaj b ) {
+        double max = 0;
+        for (int i = 0; i < a.getNumElements(); i++) {
+            max = Math.max(max, Math.abs(a.data[i] - b.data[i]));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.mixed;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearSolverMixed_DSCC {
+    Random rand = new Random(234);
+
+    @Test
+    public void cholesky() {
+        for (FillReducing permutation : new FillReducing[]{FillReducing.NONE, FillReducing.IDENTITY}) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(50, 0.2, rand);
+            checkAccuracy(A, LinearSolverFactoryMixed_DSCC.cholesky(permutation),
+                    LinearSolverFactory_DSCC.cholesky(permutation), false);
+        }
+    }
+
+    @Test
+    public void lu() {
+        DMatrixSparseCSC A = diagonallyDominant(50);
+        checkAccuracy(A, LinearSolverFactoryMixed_DSCC.lu(FillReducing.NONE),
+                LinearSolverFactory_DSCC.lu(FillReducing.NONE), false);
+    }
+
+    /**
+     * Single precision can't handle this condition number, so it should switch to double precision
+     */
+    @Test
+    public void illConditioned() {
+        double[] sv = new double[30];
+        for (int i = 0; i < sv.length; i++) {
+            sv[i] = Math.pow(10, -12.0*i/(sv.length - 1));
+        }
+        DMatrixSparseCSC A = DConvertMatrixStruct.convert(RandomMatrices_DDRM.singular(30, 30, rand, sv),
+                (DMatrixSparseCSC)null, 0.0);
+        checkAccuracy(A, LinearSolverFactoryMixed_DSCC.lu(FillReducing.NONE),
+                LinearSolverFactory_DSCC.lu(FillReducing.NONE), true);
+    }
+
+    @Test
+    public void solveSparse() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(30, 0.2, rand);
+        DMatrixSparseCSC B = RandomMatrices_DSCC.rectangle(30, 4, 40, rand);
+
+        LinearSolverMixed_DSCC alg = LinearSolverFactoryMixed_DSCC.cholesky(FillReducing.NONE);
+        assertTrue(alg.setA(A));
+        DMatrixSparseCSC X = new DMatrixSparseCSC(1, 1, 0);
+        alg.solveSparse(B, X);
+
+        DMatrixSparseCSC found = new DMatrixSparseCSC(1, 1, 0);
+        CommonOps_DSCC.mult(A, X, found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(DConvertMatrixStruct.convert(B, (DMatrixRMaj)null),
+                DConvertMatrixStruct.convert(found, (DMatrixRMaj)null), UtilEjml.TEST_F64));
+    }
+
+    private DMatrixSparseCSC diagonallyDominant( int N ) {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(N, N, N*4, -1, 1, rand);
+        for (int i = 0; i < N; i++) {
+            A.set(i, i, 10 + rand.nextDouble());
+        }
+        return A;
+    }
+
+    private void checkAccuracy( DMatrixSparseCSC A, LinearSolverMixed_DSCC alg,
+                                LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> solver64,
+                                boolean expectedFallback ) {
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(A.numRows, 3, -1, 1, rand);
+
+        DMatrixRMaj expected = new DMatrixRMaj(1, 1);
+        assertTrue(solver64.setA(A.copy()));
+        solver64.solve(B.copy(), expected);
+
+        DMatrixSparseCSC A_orig = A.copy();
+        DMatrixRMaj B_orig = B.copy();
+        DMatrixRMaj found = new DMatrixRMaj(1, 1);
+        assertTrue(alg.setA(A));
+        alg.solve(B, found);
+
+        assertEquals(expectedFallback, alg.isUsedFallback());
+        double tol = UtilEjml.TEST_F64*CommonOps_DDRM.elementMaxAbs(expected);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, tol));
+
+        // inputs should not be modified
+        assertTrue(CommonOps_DSCC.checkStructure(A));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(DConvertMatrixStruct.convert(A_orig, (DMatrixRMaj)null),
+                DConvertMatrixStruct.convert(A, (DMatrixRMaj)null), 0.0));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(B_orig, B, 0.0));
+    }
+}